@@ -0,0 +1,57 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.env.Environment;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ancestor for JMH benchmarks. Fixes the fork/warmup/measurement settings and
+ * the seed for the synthetic data, to keep results comparable across
+ * releases. Run all benchmarks with:<br>
+ * java -jar adams-benchmarks/target/benchmarks.jar<br>
+ * Or just the ones matching a regular expression, e.g.:<br>
+ * java -jar adams-benchmarks/target/benchmarks.jar SpreadSheetReader -rf json -rff results.json
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@Fork(
+  value = 1,
+  jvmArgsAppend = {
+    "-Djava.awt.headless=true",
+    "--add-exports", "java.base/jdk.internal.misc=ALL-UNNAMED",
+    "--add-exports", "java.desktop/sun.awt.image=ALL-UNNAMED",
+    "--add-exports", "java.desktop/com.sun.media.sound=ALL-UNNAMED",
+    "--add-exports", "java.base/sun.nio.cs=ALL-UNNAMED",
+  })
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public abstract class AbstractBenchmark {
+
+  /** the seed to use for generating data. */
+  public final static long SEED = 42;
+
+  static {
+    Environment.setEnvironmentClass(Environment.class);
+  }
+}
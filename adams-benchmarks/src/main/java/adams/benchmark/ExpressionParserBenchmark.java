@@ -0,0 +1,95 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExpressionParserBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.parser.BooleanExpression;
+import adams.parser.MathematicalExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing and evaluation of mathematical and boolean expressions
+ * (CUP-based parsers), as done by the MathExpression and ConditionalTee etc
+ * actors for every token.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExpressionParserBenchmark
+  extends AbstractBenchmark {
+
+  /** the mathematical expression. */
+  public final static String MATH = "sqrt(pow(X, 2) + pow(Y, 2)) * sin(Z) + abs(X - Y) / (Z + 1)";
+
+  /** the boolean expression. */
+  public final static String BOOL = "((X > 0.5) and (Y < 0.2)) or not (Z = 1)";
+
+  /** the symbols to use. */
+  protected HashMap m_Symbols;
+
+  /**
+   * Generates the symbols.
+   */
+  @Setup(Level.Trial)
+  public void generate() {
+    Random	rnd;
+
+    rnd       = new Random(SEED);
+    m_Symbols = new HashMap();
+    m_Symbols.put("X", rnd.nextDouble());
+    m_Symbols.put("Y", rnd.nextDouble());
+    m_Symbols.put("Z", rnd.nextDouble());
+  }
+
+  /**
+   * Evaluates the mathematical expression.
+   *
+   * @return		the result
+   * @throws Exception	if evaluation fails
+   */
+  @Benchmark
+  public double mathematical() throws Exception {
+    return MathematicalExpression.evaluate(MATH, m_Symbols);
+  }
+
+  /**
+   * Evaluates the boolean expression.
+   *
+   * @return		the result
+   * @throws Exception	if evaluation fails
+   */
+  @Benchmark
+  public boolean bool() throws Exception {
+    return BooleanExpression.evaluate(BOOL, m_Symbols);
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageTransformerBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.data.image.BufferedImageContainer;
+import adams.data.image.BufferedImageHelper;
+import adams.data.image.luminance.BT601;
+import adams.data.image.transformer.AbstractTiledBufferedImageTransformer;
+import adams.data.image.transformer.Binary;
+import adams.data.image.transformer.BinaryMask;
+import adams.data.image.transformer.Grayscale;
+import adams.data.image.transformer.LocalMedianFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the tiled, raster-based image transformers against the previous
+ * per-pixel implementations (getRGB/setRGB), which are replicated here as
+ * the "legacy" setup. The "sequential" and "parallel" setups use the tiled
+ * transformers with one thread and all cores, respectively.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageTransformerBenchmark
+  extends AbstractBenchmark {
+
+  /** the transformer to use. */
+  @Param({"Grayscale", "LocalMedianFilter", "Binary", "BinaryMask"})
+  public String transformer;
+
+  /** the setup: legacy (per-pixel), sequential (tiled, 1 thread), parallel (tiled, all cores). */
+  @Param({"legacy", "sequential", "parallel"})
+  public String setup;
+
+  /** the size of the image in megapixels. */
+  @Param({"4", "20"})
+  public int megaPixels;
+
+  /** the image to transform. */
+  protected BufferedImageContainer m_Image;
+
+  /** the transformer instance. */
+  protected AbstractTiledBufferedImageTransformer m_Transformer;
+
+  /**
+   * Generates the image (3 byte BGR, like loaded JPEGs) and instantiates the
+   * transformer.
+   */
+  @Setup(Level.Trial)
+  public void generate() {
+    Random		rnd;
+    BufferedImage	img;
+    int			width;
+    int			height;
+    int			x;
+    int			y;
+    int			gray;
+
+    rnd    = new Random(SEED);
+    width  = (int) Math.sqrt(megaPixels * 1000000.0 * 4 / 3);
+    height = megaPixels * 1000000 / width;
+    img    = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    for (y = 0; y < height; y++) {
+      for (x = 0; x < width; x++) {
+	gray = (x + y) % 256;
+	img.setRGB(x, y, new Color(gray, (gray + rnd.nextInt(32)) % 256, 255 - gray).getRGB());
+      }
+    }
+    m_Image = new BufferedImageContainer();
+    m_Image.setImage(img);
+
+    switch (transformer) {
+      case "Grayscale":
+	m_Transformer = new Grayscale();
+	break;
+      case "LocalMedianFilter":
+	m_Transformer = new LocalMedianFilter();
+	break;
+      case "Binary":
+	m_Transformer = new Binary();
+	break;
+      case "BinaryMask":
+	m_Transformer = new BinaryMask();
+	break;
+      default:
+	throw new IllegalStateException("Unhandled transformer: " + transformer);
+    }
+    m_Transformer.setNumThreads(setup.equals("sequential") ? 1 : 0);
+  }
+
+  /**
+   * Transforms the image.
+   *
+   * @return		the transformed image
+   */
+  @Benchmark
+  public BufferedImage transform() {
+    BufferedImage	img;
+
+    if (!setup.equals("legacy"))
+      return m_Transformer.transform(m_Image)[0].getImage();
+
+    img = BufferedImageHelper.deepCopy(m_Image.getImage());
+    switch (transformer) {
+      case "Grayscale":
+	return legacyGrayscale(img);
+      case "LocalMedianFilter":
+	return legacyLocalMedianFilter(img);
+      case "Binary":
+	return legacyBinary(img, 128);
+      case "BinaryMask":
+	return legacyBinaryMask(img, 128);
+      default:
+	throw new IllegalStateException("Unhandled transformer: " + transformer);
+    }
+  }
+
+  /**
+   * The previous, column-major grayscale conversion.
+   *
+   * @param orig	the image to convert
+   * @return		the grayscale image
+   */
+  protected static BufferedImage legacyGrayscale(BufferedImage orig) {
+    BufferedImage	gray;
+    double[]		luminance;
+    int			x;
+    int			y;
+    int			rgbOrig;
+    int			rgbGray;
+
+    luminance = new BT601().getParameters();
+    gray      = new BufferedImage(orig.getWidth(), orig.getHeight(), BufferedImage.TYPE_INT_RGB);
+    for (x = 0; x < orig.getWidth(); x++) {
+      for (y = 0; y < orig.getHeight(); y++) {
+	rgbOrig = orig.getRGB(x, y);
+	rgbGray = (int)(((rgbOrig & 0xFF0000) >>> 16) * luminance[0] + ((rgbOrig & 0xFF00) >>> 8) * luminance[1] + (rgbOrig & 0xFF) * luminance[2]);
+	gray.setRGB(x, y, (rgbGray << 16) + (rgbGray << 8) + rgbGray);
+      }
+    }
+
+    return gray;
+  }
+
+  /**
+   * The previous 3x3 median filter.
+   *
+   * @param image	the image to filter (gets modified)
+   * @return		the filtered image
+   */
+  protected static BufferedImage legacyLocalMedianFilter(BufferedImage image) {
+    BufferedImage	copy;
+    int[]		r;
+    int[]		g;
+    int[]		b;
+    int[]		channels;
+    int			h;
+    int			w;
+    int			x;
+    int			y;
+    int			k;
+
+    copy = BufferedImageHelper.deepCopy(image);
+    r    = new int[9];
+    g    = new int[9];
+    b    = new int[9];
+    for (h = 1; h < image.getHeight() - 1; h++) {
+      for (w = 1; w < image.getWidth() - 1; w++) {
+	k = 0;
+	for (x = -1; x < 2; x++) {
+	  for (y = -1; y < 2; y++) {
+	    channels = BufferedImageHelper.split(copy.getRGB(w + x, h + y));
+	    r[k] = channels[0];
+	    g[k] = channels[1];
+	    b[k] = channels[2];
+	    k++;
+	  }
+	}
+	Arrays.sort(r);
+	Arrays.sort(g);
+	Arrays.sort(b);
+	image.setRGB(w, h, BufferedImageHelper.combine(r[4], g[4], b[4], 0));
+      }
+    }
+
+    return image;
+  }
+
+  /**
+   * The previous binary conversion.
+   *
+   * @param img		the image to convert
+   * @param threshold	the threshold
+   * @return		the binary image
+   */
+  protected static BufferedImage legacyBinary(BufferedImage img, int threshold) {
+    BufferedImage	image;
+    int[]		channels;
+    int			x;
+    int			y;
+    int			i;
+
+    image = BufferedImageHelper.convert(img, BufferedImage.TYPE_BYTE_GRAY);
+    for (y = 0; y < image.getHeight(); y++) {
+      for (x = 0; x < image.getWidth(); x++) {
+	channels = BufferedImageHelper.split(image.getRGB(x, y));
+	for (i = 0; i <= 3; i++)
+	  channels[i] = (channels[i] < threshold) ? 0 : 255;
+	image.setRGB(x, y, BufferedImageHelper.combine(channels));
+      }
+    }
+
+    return image;
+  }
+
+  /**
+   * The previous binary mask, replacing white pixels with white.
+   *
+   * @param image	the image to mask (gets modified)
+   * @param threshold	the threshold
+   * @return		the masked image
+   */
+  protected static BufferedImage legacyBinaryMask(BufferedImage image, int threshold) {
+    BufferedImage	bimage;
+    int			color;
+    int			x;
+    int			y;
+
+    bimage = legacyBinary(BufferedImageHelper.deepCopy(image), threshold);
+    color  = Color.WHITE.getRGB();
+    for (y = 0; y < image.getHeight(); y++) {
+      for (x = 0; x < image.getWidth(); x++) {
+	if ((bimage.getRGB(x, y) & 0x00FFFFFF) > 0)
+	  image.setRGB(x, y, color);
+      }
+    }
+
+    return image;
+  }
+}
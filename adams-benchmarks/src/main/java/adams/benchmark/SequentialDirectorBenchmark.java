@@ -0,0 +1,123 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SequentialDirectorBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.flow.control.Flow;
+import adams.flow.core.Actor;
+import adams.flow.sink.Null;
+import adams.flow.source.ForLoop;
+import adams.flow.transformer.PassThrough;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the {@link adams.flow.control.SequentialDirector}
+ * for pushing tokens through a linear flow of pass-through transformers, i.e.,
+ * the actors themselves do (almost) no work.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SequentialDirectorBenchmark
+  extends AbstractBenchmark {
+
+  /** the number of tokens to generate. */
+  @Param({"10000"})
+  public int numTokens;
+
+  /** the number of transformers in the flow. */
+  @Param({"1", "10", "50"})
+  public int numActors;
+
+  /** the flow to execute. */
+  protected Flow m_Flow;
+
+  /**
+   * Generates the flow.
+   */
+  @Setup(Level.Trial)
+  public void generate() {
+    ForLoop	loop;
+    PassThrough	pass;
+    int		i;
+
+    m_Flow = new Flow();
+    loop = new ForLoop();
+    loop.setLoopUpper(numTokens);
+    m_Flow.add(loop);
+    for (i = 0; i < numActors; i++) {
+      pass = new PassThrough();
+      pass.setName("PassThrough-" + i);
+      m_Flow.add(pass);
+    }
+    m_Flow.add(new Null());
+  }
+
+  /**
+   * Sets up the flow before each execution.
+   */
+  @Setup(Level.Invocation)
+  public void setUp() {
+    String	msg;
+
+    msg = m_Flow.setUp();
+    if (msg != null)
+      throw new IllegalStateException("Failed to set up flow: " + msg);
+  }
+
+  /**
+   * Executes the flow.
+   *
+   * @return		the result of the execution
+   */
+  @Benchmark
+  public String execute() {
+    return m_Flow.execute();
+  }
+
+  /**
+   * Wraps up the flow after each execution.
+   */
+  @TearDown(Level.Invocation)
+  public void wrapUp() {
+    m_Flow.wrapUp();
+  }
+
+  /**
+   * Destroys the flow.
+   */
+  @TearDown(Level.Trial)
+  public void destroy() {
+    ((Actor) m_Flow).destroy();
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ShallowCopyBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.core.option.OptionHandler;
+import adams.core.option.OptionUtils;
+import adams.flow.control.Flow;
+import adams.flow.control.Tee;
+import adams.flow.sink.Null;
+import adams.flow.source.ForLoop;
+import adams.flow.transformer.MathExpression;
+import adams.parser.MathematicalExpressionText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OptionUtils#shallowCopy(OptionHandler, boolean)} on flows
+ * of different sizes, as used when copying actors (e.g., by the LoadBalancer
+ * or the flow editor).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShallowCopyBenchmark
+  extends AbstractBenchmark {
+
+  /** the number of branches (Tee with MathExpression and Null) in the flow. */
+  @Param({"10", "100"})
+  public int numBranches;
+
+  /** the flow to copy. */
+  protected Flow m_Flow;
+
+  /**
+   * Generates the flow.
+   */
+  @Setup(Level.Trial)
+  public void generate() {
+    Tee			tee;
+    MathExpression	math;
+    int			i;
+
+    m_Flow = new Flow();
+    m_Flow.add(new ForLoop());
+    for (i = 0; i < numBranches; i++) {
+      tee = new Tee();
+      tee.setName("Tee-" + i);
+      math = new MathExpression();
+      math.setExpression(new MathematicalExpressionText("X * " + i + " + 1"));
+      tee.add(math);
+      tee.add(new Null());
+      m_Flow.add(tee);
+    }
+  }
+
+  /**
+   * Copies the flow.
+   *
+   * @return		the copy
+   */
+  @Benchmark
+  public OptionHandler copy() {
+    return OptionUtils.shallowCopy(m_Flow, false);
+  }
+}
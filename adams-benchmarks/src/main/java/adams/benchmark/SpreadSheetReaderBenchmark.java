@@ -0,0 +1,145 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpreadSheetReaderBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.core.io.FileUtils;
+import adams.data.io.input.SpreadSheetReader;
+import adams.data.spreadsheet.SpreadSheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reading of a synthetic CSV file (numeric, string and missing
+ * values) with the CSV spreadsheet readers.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpreadSheetReaderBenchmark
+  extends AbstractBenchmark {
+
+  /** the reader to use. */
+  @Param({"adams.data.io.input.CsvSpreadSheetReader", "adams.data.io.input.FastCsvSpreadSheetReader"})
+  public String reader;
+
+  /** the number of rows to generate. */
+  @Param({"10000", "100000"})
+  public int numRows;
+
+  /** the number of numeric columns to generate. */
+  @Param({"20"})
+  public int numNumeric;
+
+  /** the number of string columns to generate. */
+  @Param({"5"})
+  public int numString;
+
+  /** the generated file. */
+  protected File m_File;
+
+  /** the reader instance. */
+  protected SpreadSheetReader m_Reader;
+
+  /**
+   * Generates the CSV file and instantiates the reader.
+   *
+   * @throws Exception	if generation fails
+   */
+  @Setup(Level.Trial)
+  public void generate() throws Exception {
+    Random		rnd;
+    BufferedWriter	writer;
+    StringBuilder	line;
+    int			i;
+    int			n;
+
+    rnd    = new Random(SEED);
+    m_File = File.createTempFile("adams-benchmark-", ".csv");
+    writer = new BufferedWriter(new FileWriter(m_File));
+    line   = new StringBuilder();
+    for (i = 0; i < numNumeric; i++)
+      line.append(line.length() > 0 ? "," : "").append("num-").append(i);
+    for (i = 0; i < numString; i++)
+      line.append(line.length() > 0 ? "," : "").append("str-").append(i);
+    writer.write(line.toString());
+    writer.newLine();
+    for (n = 0; n < numRows; n++) {
+      line.setLength(0);
+      for (i = 0; i < numNumeric; i++) {
+	if (i > 0)
+	  line.append(",");
+	if (rnd.nextInt(100) > 0)
+	  line.append(rnd.nextGaussian() * 1000);
+      }
+      for (i = 0; i < numString; i++) {
+	line.append(",");
+	if (i % 2 == 0)
+	  line.append("label-").append(rnd.nextInt(10));
+	else
+	  line.append("\"some, text ").append(rnd.nextInt(1000)).append("\"");
+      }
+      writer.write(line.toString());
+      writer.newLine();
+    }
+    writer.close();
+
+    m_Reader = (SpreadSheetReader) Class.forName(reader).getDeclaredConstructor().newInstance();
+  }
+
+  /**
+   * Reads the file.
+   *
+   * @return		the spreadsheet
+   */
+  @Benchmark
+  public SpreadSheet read() {
+    SpreadSheet	result;
+
+    result = m_Reader.read(m_File);
+    if (result == null)
+      throw new IllegalStateException("Failed to read: " + m_File);
+    return result;
+  }
+
+  /**
+   * Removes the generated file.
+   */
+  @TearDown(Level.Trial)
+  public void delete() {
+    FileUtils.delete(m_File);
+  }
+}
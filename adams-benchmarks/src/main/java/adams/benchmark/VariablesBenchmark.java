@@ -0,0 +1,112 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * VariablesBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.benchmark;
+
+import adams.core.Variables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the expansion of variables in strings: "unchanged" expands the
+ * same strings with the same variable values over and over, "changing" updates
+ * a variable before each expansion (like a loop variable does).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VariablesBenchmark
+  extends AbstractBenchmark {
+
+  /** the number of variables to define. */
+  @Param({"100"})
+  public int numVariables;
+
+  /** the number of variable references per string. */
+  @Param({"1", "10"})
+  public int numReferences;
+
+  /** the variables. */
+  protected Variables m_Variables;
+
+  /** the strings to expand. */
+  protected String[] m_Strings;
+
+  /** the counter. */
+  protected int m_Counter;
+
+  /**
+   * Generates the variables and the strings.
+   */
+  @Setup(Level.Trial)
+  public void generate() {
+    StringBuilder	str;
+    int			i;
+    int			n;
+
+    m_Variables = new Variables();
+    for (i = 0; i < numVariables; i++)
+      m_Variables.set("var" + i, "value" + i);
+
+    m_Strings = new String[numVariables];
+    for (i = 0; i < numVariables; i++) {
+      str = new StringBuilder("${TMP}/");
+      for (n = 0; n < numReferences; n++)
+	str.append("@{var").append((i + n) % numVariables).append("}_");
+      str.append(".txt");
+      m_Strings[i] = str.toString();
+    }
+    m_Counter = 0;
+  }
+
+  /**
+   * Expands the next string, without any variable changes.
+   *
+   * @return		the expanded string
+   */
+  @Benchmark
+  public String unchanged() {
+    m_Counter = (m_Counter + 1) % m_Strings.length;
+    return m_Variables.expand(m_Strings[m_Counter]);
+  }
+
+  /**
+   * Updates a variable and then expands the next string.
+   *
+   * @return		the expanded string
+   */
+  @Benchmark
+  public String changing() {
+    m_Counter = (m_Counter + 1) % m_Strings.length;
+    m_Variables.set("var0", "value" + m_Counter);
+    return m_Variables.expand(m_Strings[m_Counter]);
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * ClassLister.java
- * Copyright (C) 2007-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2007-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.core;
@@ -32,7 +32,6 @@ import adams.flow.core.Compatibility;
 import adams.gui.goe.AbstractEditorRegistration;
 import nz.ac.waikato.cms.locator.ClassCache;
 import nz.ac.waikato.cms.locator.ClassLocator;
-import nz.ac.waikato.cms.locator.ClassPathTraversal;
 import nz.ac.waikato.cms.locator.ClassTraversalWithBlacklister;
 import nz.ac.waikato.cms.locator.PropertiesBasedClassListTraversal;
 import nz.ac.waikato.cms.locator.blacklisting.SimpleBlacklister;
@@ -42,10 +41,13 @@ import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 /**
  * Determines the classnames of superclasses that are to be displayed in
@@ -72,6 +74,13 @@ import java.util.Set;
  * - List only actors from the adams-compress module:
  *   adams.core.ClassLister -super adams.flow.core.Actor -filter-by-module adams-compress"
  * </pre>
+ * <br>
+ * Modules can provide a class index ({@link IndexedClassPathTraversal#INDEX}),
+ * which gets generated at build time with the "index" action. Directories
+ * and jars with such an index do not get traversed, their classes get
+ * obtained from the index instead. Classpath parts without index, or
+ * directories whose index is older than their class files, still get
+ * traversed as usual.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @see #main(String[])
@@ -103,11 +112,20 @@ public class ClassLister
   /** whether static or dynamic discovery is used. */
   protected boolean m_Static = false;
 
+  /** the time spent in class discovery (nano-seconds). */
+  protected long m_DiscoveryTime = 0;
+
+  /** the number of class hierarchies that were located. */
+  protected int m_NumHierarchies = 0;
+
+  /** the number of class hierarchies that were (partially) obtained from indices. */
+  protected int m_NumIndexedHierarchies = 0;
+
   /**
    * Initializes the classlister.
    */
   protected ClassLister() {
-    super(new ClassPathTraversal());
+    super(new IndexedClassPathTraversal());
 
     SimpleTimer timer = new SimpleTimer();
 
@@ -161,6 +179,10 @@ public class ClassLister
 
     if (!m_Static) {
       System.out.println(getClass().getName() + ": Using dynamic class discovery");
+      if (!getIndexedClassPathTraversal().getIndexed().isEmpty())
+	System.out.println(
+	  getClass().getName() + ": Loaded class indices for " + getIndexedClassPathTraversal().getIndexed().size()
+	    + " classpath parts in " + getIndexedClassPathTraversal().getLoadTime() + " msec");
       setPackages(Environment.getInstance().read(ClassListerDefinition.KEY));
       setBlacklist(Environment.getInstance().read(ClassListerBlacklistDefinition.KEY));
     }
@@ -179,6 +201,164 @@ public class ClassLister
     return m_Static;
   }
 
+  /**
+   * Returns the traversal that makes use of class indices.
+   *
+   * @return		the traversal, null if static discovery is used
+   */
+  protected IndexedClassPathTraversal getIndexedClassPathTraversal() {
+    if (m_ClassTraversal instanceof IndexedClassPathTraversal)
+      return (IndexedClassPathTraversal) m_ClassTraversal;
+    else
+      return null;
+  }
+
+  /**
+   * Checks whether the class is located in one of the packages.
+   *
+   * @param classname	the class to check
+   * @param packages	the packages
+   * @return		true if in one of the packages (or sub-packages)
+   */
+  protected boolean isInPackages(String classname, String[] packages) {
+    for (String pkg: packages) {
+      pkg = pkg.trim();
+      if (classname.startsWith(pkg + "."))
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Adds/appends a class hierarchy. Classes from classpath parts with a class
+   * index get added from the index, the remainder gets located dynamically.
+   *
+   * @param superclass	the superclass
+   * @param packages	the packages
+   */
+  @Override
+  public void addHierarchy(String superclass, String[] packages) {
+    long		start;
+    List<String>	names;
+    List<Class>		classes;
+    Class		cls;
+    String[]		patterns;
+    Pattern		pattern;
+    int			i;
+
+    start = System.nanoTime();
+
+    super.addHierarchy(superclass, packages);
+
+    if (getIndexedClassPathTraversal() != null) {
+      names = getIndexedClassPathTraversal().getIndexed(superclass);
+      if (!names.isEmpty()) {
+	// packages/blacklist
+	for (i = names.size() - 1; i >= 0; i--) {
+	  if (!isInPackages(names.get(i), packages))
+	    names.remove(i);
+	}
+	if (m_Blacklist.containsKey(superclass)) {
+	  patterns = m_Blacklist.getProperty(superclass).replaceAll(" ", "").split(",");
+	  for (String p: patterns) {
+	    pattern = Pattern.compile(p);
+	    for (i = names.size() - 1; i >= 0; i--) {
+	      if (pattern.matcher(names.get(i)).matches())
+		names.remove(i);
+	    }
+	  }
+	}
+
+	// load classes
+	classes = new ArrayList<>();
+	for (i = names.size() - 1; i >= 0; i--) {
+	  try {
+	    cls = Class.forName(names.get(i), false, getClass().getClassLoader());
+	    classes.add(0, cls);
+	  }
+	  catch (Throwable t) {
+	    getLogger().log(Level.WARNING, "Failed to load indexed class: " + names.get(i), t);
+	    names.remove(i);
+	  }
+	}
+
+	if (!names.isEmpty()) {
+	  updateClassnames(m_CacheNames, superclass, new HashSet<>(names));
+	  updateClassnames(m_ListNames, superclass, names);
+	  updateClasses(m_CacheClasses, superclass, new HashSet<>(classes));
+	  updateClasses(m_ListClasses, superclass, classes);
+	  m_ListNames.get(superclass).sort(String.CASE_INSENSITIVE_ORDER);
+	  m_ListClasses.get(superclass).sort(Comparator.comparing(Class::getName, String.CASE_INSENSITIVE_ORDER));
+	  m_NumIndexedHierarchies++;
+	}
+      }
+    }
+
+    m_NumHierarchies++;
+    m_DiscoveryTime += System.nanoTime() - start;
+  }
+
+  /**
+   * Returns the time spent on class discovery so far.
+   *
+   * @return		the time in msec
+   */
+  public long getDiscoveryTime() {
+    return m_DiscoveryTime / 1000000;
+  }
+
+  /**
+   * Returns statistics on the class discovery so far.
+   *
+   * @return		the statistics
+   */
+  public String getDiscoveryStatistics() {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    result.append("Class discovery: ");
+    result.append(m_NumHierarchies).append(" hierarchies");
+    if (getIndexedClassPathTraversal() != null) {
+      result.append(" (").append(m_NumIndexedHierarchies).append(" indexed)");
+      result.append(", indices loaded in ").append(getIndexedClassPathTraversal().getLoadTime()).append(" msec");
+    }
+    result.append(", located in ").append(getDiscoveryTime()).append(" msec");
+
+    return result.toString();
+  }
+
+  /**
+   * Generates the class index for the classes located in the specified
+   * directory, e.g., the output directory of the build.
+   *
+   * @param dir		the directory with the compiled classes
+   * @return		the index (superclass - comma-separated classnames)
+   */
+  public Properties toIndex(File dir) {
+    Properties		result;
+    java.util.Properties	all;
+    List<String>	names;
+
+    result = new Properties();
+    all    = toProperties();
+    for (String superclass: all.stringPropertyNames()) {
+      names = new ArrayList<>();
+      for (String name: all.getProperty(superclass, "").split(",")) {
+	name = name.trim();
+	if (name.isEmpty())
+	  continue;
+	if (new File(dir, name.replace(".", File.separator) + ".class").exists())
+	  names.add(name);
+      }
+      if (!names.isEmpty()) {
+	Collections.sort(names);
+	result.setProperty(superclass, Utils.flatten(names, ","));
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Returns all the classes of the specified superclass (abstract class or
    * interface), but restricts it further to the specified class.
@@ -377,6 +557,11 @@ public class ClassLister
       System.out.println("each key is a superclass, the corresponding value a comma-separated list of package names");
       System.out.println("-output <props_file>");
       System.out.println();
+      System.out.println("'index' action:");
+      System.out.println("for outputting the class index of a module (classes located in the directory)");
+      System.out.println("each key is a superclass, the corresponding value a comma-separated list of class names");
+      System.out.println("-dir <classes_dir> -output <props_file>");
+      System.out.println();
       return;
     }
 
@@ -465,6 +650,24 @@ public class ClassLister
 	}
         break;
 
+      case "index":
+        PlaceholderFile index_dir = new PlaceholderFile(OptionUtils.getOption(args, "-dir"));
+        PlaceholderFile index_file = new PlaceholderFile(OptionUtils.getOption(args, "-output"));
+        File index_props_dir = index_file.getParentFile();
+        if (!index_props_dir.exists()) {
+          if (!index_props_dir.mkdirs()) {
+            System.err.println("Failed to create directory for index file: " + index_props_dir);
+            System.exit(2);
+          }
+        }
+        Properties index_props = getSingleton().toIndex(index_dir.getAbsoluteFile());
+        if (!index_props.save(index_file.getAbsolutePath())) {
+          System.err.println("Failed to write class index to: " + index_file);
+          System.exit(1);
+        }
+        System.out.println(getSingleton().getDiscoveryStatistics());
+        break;
+
       default:
         throw new IllegalArgumentException("Unknown action: " + action);
     }
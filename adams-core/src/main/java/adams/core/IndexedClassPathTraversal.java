@@ -0,0 +1,306 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IndexedClassPathTraversal.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core;
+
+import adams.core.io.FileUtils;
+import nz.ac.waikato.cms.locator.ClassPathTraversal;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+
+/**
+ * Classpath traversal that skips directories and jars which contain a
+ * class index (see {@link #INDEX}), as generated at build time by the
+ * {@link ClassLister} ("index" action). The class hierarchies stored in
+ * these indices get made available via {@link #getIndex()}.
+ * <br>
+ * Since directories can get recompiled without regenerating the index
+ * (e.g., by an IDE), the index of a directory is only used if none of the
+ * class files in the directory is newer than the index. Otherwise the
+ * directory gets traversed.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class IndexedClassPathTraversal
+  extends ClassPathTraversal {
+
+  private static final long serialVersionUID = -2516473914072384960L;
+
+  /** the name of the class index resource in each module. */
+  public final static String INDEX = "META-INF/adams/ClassIndex.props";
+
+  /** the classpath directories/jars that have an index. */
+  protected Set<File> m_Indexed;
+
+  /** the merged index (superclass - classnames). */
+  protected Map<String,Set<String>> m_Index;
+
+  /** the time it took to load the indices (msec). */
+  protected long m_LoadTime;
+
+  /**
+   * Initializes the traversal and loads the class indices.
+   */
+  public IndexedClassPathTraversal() {
+    super();
+    loadIndices();
+  }
+
+  /**
+   * Determines the classpath directory/jar that the index resource belongs to.
+   *
+   * @param url		the URL of the index resource
+   * @return		the directory/jar, null if not supported
+   */
+  protected File determineRoot(URL url) {
+    String	path;
+
+    try {
+      switch (url.getProtocol()) {
+	case "jar":
+	  return new File(((JarURLConnection) url.openConnection()).getJarFileURL().toURI());
+	case "file":
+	  path = new File(url.toURI()).getAbsolutePath();
+	  path = path.substring(0, path.length() - INDEX.length());
+	  return new File(path);
+	default:
+	  return null;
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to determine classpath part for: " + url, e);
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the directory contains any class files that are newer
+   * than the index, i.e., whether the index is out of date.
+   *
+   * @param dir		the directory to check
+   * @param timestamp	the timestamp of the index
+   * @return		true if stale
+   */
+  protected boolean isStale(File dir, long timestamp) {
+    File[]	files;
+
+    files = dir.listFiles();
+    if (files == null)
+      return false;
+
+    for (File file: files) {
+      if (file.isDirectory()) {
+	if (isStale(file, timestamp))
+	  return true;
+      }
+      else if (file.getName().endsWith(".class") && (file.lastModified() > timestamp)) {
+	if (isLoggingEnabled())
+	  getLogger().info("Newer than index: " + file);
+	return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Checks whether the index of the directory is out of date, i.e., whether
+   * the directory contains class files that are newer than the index.
+   * Jars are assumed to be always up-to-date.
+   *
+   * @param root	the directory/jar the index belongs to
+   * @return		true if stale
+   */
+  protected boolean isStale(File root) {
+    File	index;
+
+    if (!root.isDirectory())
+      return false;
+
+    index = new File(root, INDEX);
+    return !index.exists() || isStale(root, index.lastModified());
+  }
+
+  /**
+   * Loads all the class indices available on the classpath.
+   */
+  protected void loadIndices() {
+    long		start;
+    Enumeration<URL>	urls;
+    URL			url;
+    File		root;
+    InputStream		in;
+    Properties		props;
+
+    start     = System.currentTimeMillis();
+    m_Indexed = new HashSet<>();
+    m_Index   = new HashMap<>();
+
+    try {
+      urls = getClass().getClassLoader().getResources(INDEX);
+      while (urls.hasMoreElements()) {
+	url  = urls.nextElement();
+	root = determineRoot(url);
+	if (root == null)
+	  continue;
+	if (isStale(root)) {
+	  getLogger().warning("Class index out of date, traversing instead: " + root);
+	  continue;
+	}
+	in = null;
+	try {
+	  in    = url.openStream();
+	  props = new Properties();
+	  props.load(in);
+	  for (String superclass: props.keySetAll()) {
+	    if (!m_Index.containsKey(superclass))
+	      m_Index.put(superclass, new HashSet<>());
+	    for (String cls: props.getProperty(superclass, "").split(",")) {
+	      cls = cls.trim();
+	      if (!cls.isEmpty())
+		m_Index.get(superclass).add(cls);
+	    }
+	  }
+	  m_Indexed.add(root.getAbsoluteFile());
+	}
+	catch (Exception e) {
+	  getLogger().log(Level.WARNING, "Failed to load class index: " + url, e);
+	}
+	finally {
+	  FileUtils.closeQuietly(in);
+	}
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to locate class indices!", e);
+    }
+
+    m_LoadTime = System.currentTimeMillis() - start;
+  }
+
+  /**
+   * Returns the directories/jars that have an index and are therefore
+   * not traversed.
+   *
+   * @return		the indexed classpath parts
+   */
+  public Set<File> getIndexed() {
+    return m_Indexed;
+  }
+
+  /**
+   * Returns the merged class index.
+   *
+   * @return		the index (superclass - classnames)
+   */
+  public Map<String,Set<String>> getIndex() {
+    return m_Index;
+  }
+
+  /**
+   * Returns the classnames listed for the superclass in the indices.
+   *
+   * @param superclass	the superclass to get the classnames for
+   * @return		the classnames, empty if none available
+   */
+  public List<String> getIndexed(String superclass) {
+    if (m_Index.containsKey(superclass))
+      return new ArrayList<>(m_Index.get(superclass));
+    else
+      return new ArrayList<>();
+  }
+
+  /**
+   * Returns the time it took to load the indices.
+   *
+   * @return		the time in msec
+   */
+  public long getLoadTime() {
+    return m_LoadTime;
+  }
+
+  /**
+   * Checks whether the directory/jar has an index.
+   *
+   * @param file	the directory/jar to check
+   * @return		true if indexed
+   */
+  protected boolean isIndexed(File file) {
+    return m_Indexed.contains(file.getAbsoluteFile());
+  }
+
+  /**
+   * Traverses the directory, unless it has an index.
+   *
+   * @param dir		the directory to traverse
+   * @param state	the traversal state
+   */
+  @Override
+  protected void traverseDir(File dir, TraversalState state) {
+    if (isIndexed(dir)) {
+      if (isLoggingEnabled())
+	getLogger().log(Level.INFO, "Indexed dir: " + dir);
+      return;
+    }
+    super.traverseDir(dir, state);
+  }
+
+  /**
+   * Traverses the jar, unless it has an index. For indexed jars, only
+   * the manifest gets inspected for further classpath entries.
+   *
+   * @param file	the jar to traverse
+   * @param state	the traversal state
+   */
+  @Override
+  protected void traverseJar(File file, TraversalState state) {
+    JarFile	jar;
+
+    if (isIndexed(file)) {
+      if (isLoggingEnabled())
+	getLogger().log(Level.INFO, "Indexed jar: " + file);
+      jar = null;
+      try {
+	jar = new JarFile(file);
+	traverseManifest(jar.getManifest(), state);
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to inspect manifest: " + file, e);
+      }
+      finally {
+	FileUtils.closeQuietly(jar);
+      }
+      return;
+    }
+    super.traverseJar(file, state);
+  }
+}
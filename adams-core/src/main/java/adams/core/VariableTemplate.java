@@ -0,0 +1,256 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * VariableTemplate.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tokenized representation of a string with variable placeholders
+ * ("@{name}"), which can be expanded in a single pass. The last expansion
+ * gets cached and has to be invalidated whenever one of the referenced
+ * variables changes.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see Variables#expand(String)
+ */
+public class VariableTemplate
+  implements Serializable {
+
+  private static final long serialVersionUID = 3424506473612087744L;
+
+  /** the template string. */
+  protected String m_Template;
+
+  /** the literal parts (one more than names). */
+  protected String[] m_Literals;
+
+  /** the variable names (without "@{" and "}"). */
+  protected String[] m_Names;
+
+  /** the cached expansion, null if not available. */
+  protected transient String m_Expanded;
+
+  /**
+   * Parses the template string.
+   *
+   * @param template	the string to parse
+   */
+  public VariableTemplate(String template) {
+    super();
+
+    m_Template = template;
+    m_Expanded = null;
+    parse();
+  }
+
+  /**
+   * Splits the template into literal parts and variable names.
+   * Unterminated placeholders are treated as literals. In case of nested
+   * placeholders (e.g., "@{@{name}}"), only the innermost one is used.
+   */
+  protected void parse() {
+    List<String>	literals;
+    List<String>	names;
+    int			pos;
+    int			start;
+    int			next;
+    int			end;
+    int			lastLiteral;
+
+    literals    = new ArrayList<>();
+    names       = new ArrayList<>();
+    lastLiteral = 0;
+    pos         = 0;
+    while ((start = m_Template.indexOf(Variables.START, pos)) > -1) {
+      end = m_Template.indexOf(Variables.END, start + Variables.START.length());
+      if (end == -1)
+	break;
+      // use innermost start
+      while (((next = m_Template.indexOf(Variables.START, start + 1)) > -1) && (next < end))
+	start = next;
+      literals.add(m_Template.substring(lastLiteral, start));
+      names.add(m_Template.substring(start + Variables.START.length(), end));
+      lastLiteral = end + Variables.END.length();
+      pos         = lastLiteral;
+    }
+    literals.add(m_Template.substring(lastLiteral));
+
+    m_Literals = literals.toArray(new String[0]);
+    m_Names    = names.toArray(new String[0]);
+  }
+
+  /**
+   * Returns the template string.
+   *
+   * @return		the template
+   */
+  public String getTemplate() {
+    return m_Template;
+  }
+
+  /**
+   * Returns the names of the variables referenced in the template.
+   *
+   * @return		the names (without "@{" and "}")
+   */
+  public String[] getNames() {
+    return m_Names.clone();
+  }
+
+  /**
+   * Returns whether the template contains any placeholders.
+   *
+   * @return		true if at least one placeholder present
+   */
+  public boolean hasPlaceholders() {
+    return (m_Names.length > 0);
+  }
+
+  /**
+   * Checks whether the template references the specified variable.
+   *
+   * @param name	the name of the variable (without "@{" and "}")
+   * @return		true if referenced
+   */
+  public boolean references(String name) {
+    for (String n: m_Names) {
+      if (n.equals(name))
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Appends the expansion to the buffer. Placeholders of unknown variables
+   * are left as is. Values that contain placeholders themselves get
+   * expanded once more (non-recursive), if requested.
+   *
+   * @param variables	the variables to use
+   * @param buffer	the buffer to append to
+   * @param nested	whether to expand placeholders in values
+   * @return		true if no value contained placeholders
+   */
+  protected boolean expand(Variables variables, StringBuilder buffer, boolean nested) {
+    boolean	result;
+    String	value;
+    int		i;
+
+    result = true;
+    for (i = 0; i < m_Names.length; i++) {
+      buffer.append(m_Literals[i]);
+      value = variables.resolve(m_Names[i]);
+      if (value == null) {
+	buffer.append(Variables.START).append(m_Names[i]).append(Variables.END);
+      }
+      else if (nested && value.contains(Variables.START)) {
+	new VariableTemplate(value).expand(variables, buffer, false);
+	result = false;
+      }
+      else {
+	buffer.append(value);
+      }
+    }
+    buffer.append(m_Literals[m_Names.length]);
+
+    return result;
+  }
+
+  /**
+   * Expands the placeholders using the current values. Placeholders of
+   * unknown variables are left as is.
+   *
+   * @param variables	the variables to use
+   * @return		the expanded string
+   */
+  public String expand(Variables variables) {
+    StringBuilder	result;
+
+    if (m_Names.length == 0)
+      return m_Template;
+
+    result = new StringBuilder(m_Template.length() + 16 * m_Names.length);
+    expand(variables, result, true);
+
+    return result.toString();
+  }
+
+  /**
+   * Expands the placeholders using the current values and caches the
+   * expansion, but only if no variables were modified in the meantime
+   * and no values contained placeholders themselves.
+   *
+   * @param variables	the variables to use
+   * @param modifications	the modification counter of the variables
+   * @return		the expanded string
+   */
+  public String expand(Variables variables, AtomicLong modifications) {
+    StringBuilder	result;
+    long		modification;
+    boolean		cacheable;
+    String		expanded;
+
+    if (m_Names.length == 0)
+      return m_Template;
+
+    modification = modifications.get();
+    result       = new StringBuilder(m_Template.length() + 16 * m_Names.length);
+    cacheable    = expand(variables, result, true);
+    expanded     = result.toString();
+    if (cacheable) {
+      synchronized(this) {
+	if (modification == modifications.get())
+	  m_Expanded = expanded;
+      }
+    }
+
+    return expanded;
+  }
+
+  /**
+   * Returns the cached expansion.
+   *
+   * @return		the expansion, null if not available
+   */
+  public synchronized String getExpanded() {
+    return m_Expanded;
+  }
+
+  /**
+   * Removes the cached expansion.
+   */
+  public synchronized void invalidate() {
+    m_Expanded = null;
+  }
+
+  /**
+   * Returns a short description of the template.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Template + " -> " + Arrays.toString(m_Names);
+  }
+}
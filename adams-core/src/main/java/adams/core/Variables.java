@@ -32,7 +32,9 @@ import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
@@ -48,6 +50,11 @@ import java.util.logging.Level;
  * ({@link Variables#ENVIRONMENT_VARIABLE_PREFIX}) and system properties
  * by prefixing with "system." ({@link Variables#SYSTEM_PROPERTY_PREFIX}).
  * Examples: system.os.name, env.PATH
+ * <br><br>
+ * Strings get expanded using {@link VariableTemplate}s, which locate the
+ * placeholders in a single pass. The templates (and their last expansion)
+ * get cached, with the expansions being invalidated whenever a referenced
+ * variable changes.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @see #ENVIRONMENT_VARIABLE_PREFIX
@@ -87,6 +94,24 @@ public class Variables
   /** the listeners. */
   protected WrapperHashSet<VariableChangeListener> m_VariableChangeListeners;
 
+  /** the maximum number of templates to cache. */
+  public final static int MAX_TEMPLATES = 1000;
+
+  /** the cached templates (string - template). */
+  protected transient LRUCache<String,VariableTemplate> m_Templates;
+
+  /** the modification counter, incremented with each change of variables. */
+  protected AtomicLong m_Modifications;
+
+  /** the number of expansions. */
+  protected AtomicLong m_NumExpansions;
+
+  /** the number of expansions that were obtained from the cache. */
+  protected AtomicLong m_NumCacheHits;
+
+  /** the number of templates that were compiled. */
+  protected AtomicLong m_NumTemplates;
+
   /**
    * Initializes the container.
    */
@@ -95,6 +120,10 @@ public class Variables
 
     m_Variables               = new Hashtable<>();
     m_VariableChangeListeners = new WrapperHashSet<>();
+    m_Modifications           = new AtomicLong();
+    m_NumExpansions           = new AtomicLong();
+    m_NumCacheHits            = new AtomicLong();
+    m_NumTemplates            = new AtomicLong();
 
     // environment variables
     m_EnvironmentVariables = new Hashtable<>();
@@ -117,6 +146,7 @@ public class Variables
    */
   public void clear() {
     m_Variables.clear();
+    invalidateTemplates(null);
   }
 
   /**
@@ -178,6 +208,8 @@ public class Variables
     m_Variables.put(strippedName, value);
     if (notify)
       notifyVariableChangeListeners(new VariableChangeEvent(this, type, name));
+    else
+      invalidateTemplates(new VariableChangeEvent(this, type, name));
   }
 
   /**
@@ -359,6 +391,7 @@ public class Variables
    * @param e		the event to send
    */
   protected void notifyVariableChangeListeners(VariableChangeEvent e) {
+    invalidateTemplates(e);
     for (VariableChangeListener l: m_VariableChangeListeners)
       l.variableChanged(e);
   }
@@ -563,95 +596,143 @@ public class Variables
   }
 
   /**
-   * Expands environment variables.
+   * Performs all expansions.
    *
    * @param s		the string to expand
    * @return		the potentially expanded string
    */
-  protected String doExpandEnv(String s) {
+  protected String doExpand(String s) {
     String		result;
-    String		part;
-    Enumeration<String>	enm;
-    String		name;
-
-    result = s;
-    part   = START + ENVIRONMENT_VARIABLE_PREFIX;
-    if (result.contains(part)) {
-      enm = m_EnvironmentVariables.keys();
-      while (enm.hasMoreElements() && result.contains(part)) {
-	name   = enm.nextElement();
-	result = result.replace(START + name + END, get(name));
-      }
+    VariableTemplate	template;
+
+    m_NumExpansions.incrementAndGet();
+    if (!s.contains(START))
+      return s;
+
+    template = getTemplate(s);
+    result   = template.getExpanded();
+    if (result != null) {
+      m_NumCacheHits.incrementAndGet();
+      return result;
     }
 
+    return template.expand(this, m_Modifications);
+  }
+
+  /**
+   * Returns the value for the variable name, using environment variables,
+   * system properties and regular variables (in that order).
+   *
+   * @param name	the name of the variable (without "@{" and "}")
+   * @return		the value, null if not available
+   */
+  protected String resolve(String name) {
+    String	result;
+
+    result = m_EnvironmentVariables.get(name);
+    if (result == null)
+      result = m_SystemProperties.get(name);
+    if (result == null)
+      result = m_Variables.get(name);
+
     return result;
   }
 
   /**
-   * Expands system properties.
+   * Returns the template cache, instantiates it if necessary.
    *
-   * @param s		the string to expand
-   * @return		the potentially expanded string
+   * @return		the cache
    */
-  protected String doExpandSystemProps(String s) {
-    String		result;
-    String		part;
-    Enumeration<String>	enm;
-    String		name;
-
-    result = s;
-    part   = START + SYSTEM_PROPERTY_PREFIX;
-    if (result.contains(part)) {
-      enm = m_SystemProperties.keys();
-      while (enm.hasMoreElements() && result.contains(part)) {
-	name   = enm.nextElement();
-	result = result.replace(START + name + END, get(name));
-      }
+  protected synchronized LRUCache<String,VariableTemplate> getTemplates() {
+    if (m_Templates == null)
+      m_Templates = new LRUCache<>(MAX_TEMPLATES);
+    return m_Templates;
+  }
+
+  /**
+   * Returns the (cached) template for the string.
+   *
+   * @param s		the string to get the template for
+   * @return		the template
+   */
+  protected VariableTemplate getTemplate(String s) {
+    VariableTemplate	result;
+
+    result = getTemplates().get(s);
+    if (result == null) {
+      result = new VariableTemplate(s);
+      getTemplates().put(s, result);
+      m_NumTemplates.incrementAndGet();
     }
 
     return result;
   }
 
   /**
-   * Expands regular variables.
+   * Invalidates the cached expansions of the templates that reference the
+   * variable of the event.
    *
-   * @param s		the string to expand
-   * @return		the potentially expanded string
+   * @param e		the event, null to invalidate all templates
    */
-  protected String doExpandRegular(String s) {
-    String		result;
-    String		part;
-    Enumeration<String>	enm;
-    String		name;
-
-    result = s;
-    part   = START;
-    if (result.contains(part)) {
-      enm = names();
-      while (enm.hasMoreElements() && result.contains(part)) {
-	name   = enm.nextElement();
-	result = result.replace(START + name + END, get(name));
-      }
+  protected void invalidateTemplates(VariableChangeEvent e) {
+    String	name;
+
+    m_Modifications.incrementAndGet();
+    if (m_Templates == null)
+      return;
+
+    name = (e == null) ? null : extractName(e.getName());
+    for (Entry<String,VariableTemplate> entry: m_Templates.getAll()) {
+      if ((name == null) || entry.getValue().references(name))
+	entry.getValue().invalidate();
     }
+  }
 
-    return result;
+  /**
+   * Returns the number of expansions performed so far.
+   *
+   * @return		the number of expansions
+   */
+  public long getNumExpansions() {
+    return m_NumExpansions.get();
   }
 
   /**
-   * Performs all expansions.
+   * Returns the number of expansions that were obtained from the cache.
    *
-   * @param s		the string to expand
-   * @return		the potentially expanded string
+   * @return		the number of cache hits
    */
-  protected String doExpand(String s) {
-    String		result;
+  public long getNumExpansionCacheHits() {
+    return m_NumCacheHits.get();
+  }
 
-    result = s;
-    result = doExpandEnv(result);
-    result = doExpandSystemProps(result);
-    result = doExpandRegular(result);
+  /**
+   * Returns the number of templates that were compiled so far.
+   *
+   * @return		the number of templates
+   */
+  public long getNumTemplates() {
+    return m_NumTemplates.get();
+  }
 
-    return result;
+  /**
+   * Resets the expansion counters.
+   */
+  public void resetExpansionStatistics() {
+    m_NumExpansions.set(0);
+    m_NumCacheHits.set(0);
+    m_NumTemplates.set(0);
+  }
+
+  /**
+   * Returns the expansion counters as string.
+   *
+   * @return		the statistics
+   */
+  public String getExpansionStatistics() {
+    return "Variable expansions: " + getNumExpansions()
+      + ", cache hits: " + getNumExpansionCacheHits()
+      + ", templates: " + getNumTemplates();
   }
 
   /**
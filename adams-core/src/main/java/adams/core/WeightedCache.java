@@ -0,0 +1,949 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * WeightedCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core;
+
+import adams.core.classmanager.ClassManager;
+import adams.core.logging.LoggingHelper;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Thread-safe least-recently-used cache, which can be bounded by the number
+ * of entries and/or the estimated memory size of the values (see {@link SizeOf}).
+ * Optionally, entries expire a certain time after they were stored.
+ * <br><br>
+ * Evicted entries can be kept in further tiers, which get checked in case
+ * of a cache miss (the entry gets moved back into the cache if found):
+ * <ul>
+ *   <li>soft references - the values stay in memory until the garbage
+ *   collector needs the space</li>
+ *   <li>spill directory - serializable values get written to disk; the
+ *   files get deleted when the values are reloaded, removed or the cache
+ *   gets cleared</li>
+ * </ul>
+ * Lookups do not block; the cache keeps statistics about hits, misses,
+ * evictions etc.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @param <K>	the type of the keys
+ * @param <V>	the type of the values
+ * @see LRUCache
+ */
+public class WeightedCache<K,V>
+  implements Serializable {
+
+  private static final long serialVersionUID = 6212993048707164329L;
+
+  /**
+   * Container for a cached value.
+   *
+   * @param <V>	the type of the value
+   */
+  protected static class Entry<V>
+    implements Serializable {
+
+    private static final long serialVersionUID = -1770236698245818389L;
+
+    /** the value. */
+    public final V value;
+
+    /** the estimated size of the value. */
+    public final long weight;
+
+    /** the time the value was stored (msec). */
+    public final long created;
+
+    /** the tick of the last access. */
+    public final AtomicLong accessed;
+
+    /**
+     * Initializes the entry.
+     *
+     * @param value	the value
+     * @param weight	the estimated size
+     * @param created	the time the value was stored
+     */
+    public Entry(V value, long weight, long created) {
+      this.value    = value;
+      this.weight   = weight;
+      this.created  = created;
+      this.accessed = new AtomicLong();
+    }
+  }
+
+  /**
+   * Container for a value that was written to disk.
+   */
+  protected static class DiskEntry
+    implements Serializable {
+
+    private static final long serialVersionUID = 3066151993497658035L;
+
+    /** the file the value was serialized to. */
+    public final File file;
+
+    /** the estimated size of the value. */
+    public final long weight;
+
+    /** the time the value was stored (msec). */
+    public final long created;
+
+    /**
+     * Initializes the entry.
+     *
+     * @param file	the file with the value
+     * @param weight	the estimated size
+     * @param created	the time the value was stored
+     */
+    public DiskEntry(File file, long weight, long created) {
+      this.file    = file;
+      this.weight  = weight;
+      this.created = created;
+    }
+  }
+
+  /** the maximum number of entries (-1 for unlimited). */
+  protected int m_MaxEntries;
+
+  /** the maximum estimated size of all values (-1 for unlimited). */
+  protected long m_MaxWeight;
+
+  /** the time after which entries expire (msec, -1 for never). */
+  protected long m_Expiry;
+
+  /** whether to keep evicted values as soft references. */
+  protected boolean m_SoftReferences;
+
+  /** the directory to spill evicted values to (null if not to spill). */
+  protected File m_SpillDir;
+
+  /** the prefix for the files written to the spill directory. */
+  protected transient String m_SpillPrefix;
+
+  /** the cached entries. */
+  protected ConcurrentHashMap<K,Entry<V>> m_Entries;
+
+  /** the access order (tick - key). */
+  protected ConcurrentSkipListMap<Long,K> m_Order;
+
+  /** the evicted entries kept as soft references. */
+  protected transient ConcurrentHashMap<K,SoftReference<Entry<V>>> m_Soft;
+
+  /** the evicted entries written to disk. */
+  protected transient ConcurrentHashMap<K,DiskEntry> m_Disk;
+
+  /** the access counter. */
+  protected AtomicLong m_Tick;
+
+  /** the estimated size of all cached values. */
+  protected AtomicLong m_Weight;
+
+  /** the number of hits. */
+  protected AtomicLong m_NumHits;
+
+  /** the number of misses. */
+  protected AtomicLong m_NumMisses;
+
+  /** the number of evictions. */
+  protected AtomicLong m_NumEvictions;
+
+  /** the number of expired entries. */
+  protected AtomicLong m_NumExpirations;
+
+  /** the number of hits from soft references. */
+  protected AtomicLong m_NumSoftHits;
+
+  /** the number of hits from disk. */
+  protected AtomicLong m_NumDiskHits;
+
+  /** the number of values written to disk. */
+  protected AtomicLong m_NumSpills;
+
+  /**
+   * Initializes the cache, bounded by the number of entries only.
+   *
+   * @param maxEntries	the maximum number of entries, -1 for unlimited
+   */
+  public WeightedCache(int maxEntries) {
+    this(maxEntries, -1, -1, false, null);
+  }
+
+  /**
+   * Initializes the cache.
+   *
+   * @param maxEntries	the maximum number of entries, -1 for unlimited
+   * @param maxWeight	the maximum estimated size of all values in bytes, -1 for unlimited
+   * @param expiry	the time in msec after which entries expire, -1 for never
+   * @param softReferences	whether to keep evicted values as soft references
+   * @param spillDir	the directory to write evicted values to, null to discard them
+   */
+  public WeightedCache(int maxEntries, long maxWeight, long expiry, boolean softReferences, File spillDir) {
+    super();
+
+    m_MaxEntries     = maxEntries;
+    m_MaxWeight      = maxWeight;
+    m_Expiry         = expiry;
+    m_SoftReferences = softReferences;
+    m_SpillDir       = spillDir;
+    m_Entries        = new ConcurrentHashMap<>();
+    m_Order          = new ConcurrentSkipListMap<>();
+    m_Tick           = new AtomicLong();
+    m_Weight         = new AtomicLong();
+    m_NumHits        = new AtomicLong();
+    m_NumMisses      = new AtomicLong();
+    m_NumEvictions   = new AtomicLong();
+    m_NumExpirations = new AtomicLong();
+    m_NumSoftHits    = new AtomicLong();
+    m_NumDiskHits    = new AtomicLong();
+    m_NumSpills      = new AtomicLong();
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return		the maximum, -1 for unlimited
+   */
+  public int getMaxEntries() {
+    return m_MaxEntries;
+  }
+
+  /**
+   * Returns the maximum estimated size of all values.
+   *
+   * @return		the maximum in bytes, -1 for unlimited
+   */
+  public long getMaxWeight() {
+    return m_MaxWeight;
+  }
+
+  /**
+   * Returns the time after which entries expire.
+   *
+   * @return		the time in msec, -1 for never
+   */
+  public long getExpiry() {
+    return m_Expiry;
+  }
+
+  /**
+   * Returns whether evicted values are kept as soft references.
+   *
+   * @return		true if kept
+   */
+  public boolean getSoftReferences() {
+    return m_SoftReferences;
+  }
+
+  /**
+   * Returns the directory that evicted values get written to.
+   *
+   * @return		the directory, null if not written to disk
+   */
+  public File getSpillDir() {
+    return m_SpillDir;
+  }
+
+  /**
+   * Returns the soft reference tier.
+   *
+   * @return		the tier
+   */
+  protected ConcurrentHashMap<K,SoftReference<Entry<V>>> getSoftTier() {
+    if (m_Soft == null) {
+      synchronized(this) {
+	if (m_Soft == null)
+	  m_Soft = new ConcurrentHashMap<>();
+      }
+    }
+    return m_Soft;
+  }
+
+  /**
+   * Returns the prefix for the files that this cache writes to the spill
+   * directory. Unique per instance, so that caches sharing a directory
+   * don't remove each other's files.
+   *
+   * @return		the prefix
+   */
+  protected String getSpillPrefix() {
+    if (m_SpillPrefix == null) {
+      synchronized(this) {
+	if (m_SpillPrefix == null)
+	  m_SpillPrefix = "cache-" + UUID.randomUUID().toString().replace("-", "") + "-";
+      }
+    }
+    return m_SpillPrefix;
+  }
+
+  /**
+   * Returns the disk tier.
+   *
+   * @return		the tier
+   */
+  protected ConcurrentHashMap<K,DiskEntry> getDiskTier() {
+    if (m_Disk == null) {
+      synchronized(this) {
+	if (m_Disk == null)
+	  m_Disk = new ConcurrentHashMap<>();
+      }
+    }
+    return m_Disk;
+  }
+
+  /**
+   * Estimates the size of the value. Only performed if the cache is bounded
+   * by size.
+   *
+   * @param value	the value to estimate the size for
+   * @return		the size in bytes, 0 if not bounded or failed to determine
+   */
+  protected long weigh(V value) {
+    int		result;
+
+    if ((m_MaxWeight <= 0) || (value == null))
+      return 0;
+
+    result = SizeOf.sizeOf(value);
+    if (result < 0)
+      result = 0;
+
+    return result;
+  }
+
+  /**
+   * Checks whether the entry has expired.
+   *
+   * @param created	the time the entry was stored
+   * @return		true if expired
+   */
+  protected boolean isExpired(long created) {
+    return (m_Expiry > 0) && (System.currentTimeMillis() - created > m_Expiry);
+  }
+
+  /**
+   * Records the access of the entry.
+   *
+   * @param key		the key of the entry
+   * @param entry	the entry that was accessed
+   */
+  protected void touch(K key, Entry<V> entry) {
+    long	tick;
+    long	old;
+
+    tick = m_Tick.incrementAndGet();
+    m_Order.put(tick, key);
+    old = entry.accessed.getAndSet(tick);
+    if (old > 0)
+      m_Order.remove(old, key);
+  }
+
+  /**
+   * Accounts for an entry that got removed from the cache.
+   *
+   * @param key		the key of the entry
+   * @param entry	the removed entry
+   */
+  protected void removed(K key, Entry<V> entry) {
+    m_Order.remove(entry.accessed.get(), key);
+    m_Weight.addAndGet(-entry.weight);
+  }
+
+  /**
+   * Removes the key from the soft reference and disk tiers.
+   *
+   * @param key		the key to remove
+   */
+  protected void removeFromTiers(K key) {
+    DiskEntry	disk;
+
+    if (m_Soft != null)
+      m_Soft.remove(key);
+    if (m_Disk != null) {
+      disk = m_Disk.remove(key);
+      if (disk != null)
+	disk.file.delete();
+    }
+  }
+
+  /**
+   * Moves the evicted entry into the soft reference and/or disk tier.
+   *
+   * @param key		the key of the entry
+   * @param entry	the evicted entry
+   */
+  protected void demote(K key, Entry<V> entry) {
+    File	file;
+    DiskEntry	old;
+
+    // re-added in the meantime?
+    if (m_Entries.containsKey(key))
+      return;
+
+    if (m_SoftReferences)
+      getSoftTier().put(key, new SoftReference<>(entry));
+
+    if ((m_SpillDir != null) && (entry.value instanceof Serializable)) {
+      try {
+	file = File.createTempFile(getSpillPrefix(), ".ser", m_SpillDir);
+	SerializationHelper.write(file.getAbsolutePath(), entry.value);
+	old  = getDiskTier().put(key, new DiskEntry(file, entry.weight, entry.created));
+	if (old != null)
+	  old.file.delete();
+	m_NumSpills.incrementAndGet();
+      }
+      catch (Exception e) {
+	LoggingHelper.global().log(Level.WARNING, "Failed to spill cache entry to: " + m_SpillDir, e);
+      }
+    }
+  }
+
+  /**
+   * Moves the entry back into the cache.
+   *
+   * @param key		the key of the entry
+   * @param entry	the entry to add
+   * @return		the entry now associated with the key
+   */
+  protected Entry<V> promote(K key, Entry<V> entry) {
+    Entry<V>	current;
+
+    current = m_Entries.putIfAbsent(key, entry);
+    if (current != null)
+      return current;
+
+    removeFromTiers(key);
+    m_Weight.addAndGet(entry.weight);
+    touch(key, entry);
+    evict();
+
+    return entry;
+  }
+
+  /**
+   * Removes all expired entries.
+   */
+  public void expire() {
+    List<K>	keys;
+    Entry<V>	entry;
+
+    if (m_Expiry <= 0)
+      return;
+
+    keys = new ArrayList<>(m_Entries.keySet());
+    for (K key: keys) {
+      entry = m_Entries.get(key);
+      if ((entry != null) && isExpired(entry.created) && m_Entries.remove(key, entry)) {
+	removed(key, entry);
+	m_NumExpirations.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Checks whether any of the bounds is exceeded.
+   *
+   * @return		true if exceeded
+   */
+  protected boolean isExceeded() {
+    return ((m_MaxEntries > 0) && (m_Entries.size() > m_MaxEntries))
+      || ((m_MaxWeight > 0) && (m_Weight.get() > m_MaxWeight));
+  }
+
+  /**
+   * Evicts the least recently used entries until the bounds are no longer
+   * exceeded.
+   */
+  protected void evict() {
+    List<K>			keys;
+    List<Entry<V>>		entries;
+    Map.Entry<Long,K>		oldest;
+    Entry<V>			entry;
+    int				i;
+
+    if (!isExceeded())
+      return;
+
+    keys    = new ArrayList<>();
+    entries = new ArrayList<>();
+    synchronized(m_Order) {
+      expire();
+      while (isExceeded()) {
+	oldest = m_Order.pollFirstEntry();
+	if (oldest == null)
+	  break;
+	entry = m_Entries.get(oldest.getValue());
+	// outdated access?
+	if ((entry == null) || (entry.accessed.get() != oldest.getKey()))
+	  continue;
+	if (m_Entries.remove(oldest.getValue(), entry)) {
+	  m_Weight.addAndGet(-entry.weight);
+	  m_NumEvictions.incrementAndGet();
+	  keys.add(oldest.getValue());
+	  entries.add(entry);
+	}
+      }
+    }
+
+    // I/O outside the lock
+    for (i = 0; i < keys.size(); i++)
+      demote(keys.get(i), entries.get(i));
+  }
+
+  /**
+   * Stores the value under the specified key.
+   *
+   * @param key		the key
+   * @param value	the value to store
+   */
+  public void put(K key, V value) {
+    Entry<V>	entry;
+    Entry<V>	old;
+
+    entry = new Entry<>(value, weigh(value), System.currentTimeMillis());
+    old   = m_Entries.put(key, entry);
+    if (old != null)
+      removed(key, old);
+    removeFromTiers(key);
+    m_Weight.addAndGet(entry.weight);
+    touch(key, entry);
+    evict();
+  }
+
+  /**
+   * Returns the entry from the soft reference or disk tier.
+   *
+   * @param key		the key to look for
+   * @return		the entry, null if not available
+   */
+  protected Entry<V> getFromTiers(K key) {
+    SoftReference<Entry<V>>	ref;
+    Entry<V>			entry;
+    DiskEntry			disk;
+
+    if (m_Soft != null) {
+      ref = m_Soft.get(key);
+      if (ref != null) {
+	entry = ref.get();
+	if ((entry != null) && !isExpired(entry.created)) {
+	  m_NumSoftHits.incrementAndGet();
+	  return entry;
+	}
+	m_Soft.remove(key, ref);
+      }
+    }
+
+    if (m_Disk != null) {
+      disk = m_Disk.get(key);
+      if (disk != null) {
+	if (!isExpired(disk.created)) {
+	  try {
+	    entry = new Entry<>((V) SerializationHelper.read(disk.file.getAbsolutePath()), disk.weight, disk.created);
+	    m_NumDiskHits.incrementAndGet();
+	    return entry;
+	  }
+	  catch (Exception e) {
+	    LoggingHelper.global().log(Level.WARNING, "Failed to read spilled cache entry: " + disk.file, e);
+	  }
+	}
+	if (m_Disk.remove(key, disk))
+	  disk.file.delete();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the value stored under the key.
+   *
+   * @param key		the key to look up
+   * @return		the value, null if not available
+   */
+  public V get(K key) {
+    Entry<V>	entry;
+
+    entry = m_Entries.get(key);
+    if (entry != null) {
+      if (isExpired(entry.created)) {
+	if (m_Entries.remove(key, entry)) {
+	  removed(key, entry);
+	  m_NumExpirations.incrementAndGet();
+	}
+	entry = null;
+      }
+      else {
+	touch(key, entry);
+      }
+    }
+
+    if (entry == null) {
+      entry = getFromTiers(key);
+      if (entry != null)
+	entry = promote(key, entry);
+    }
+
+    if (entry == null) {
+      m_NumMisses.incrementAndGet();
+      return null;
+    }
+    else {
+      m_NumHits.incrementAndGet();
+      return entry.value;
+    }
+  }
+
+  /**
+   * Checks whether a value is stored under the key. Does not count as access.
+   *
+   * @param key		the key to look for
+   * @return		true if available
+   */
+  public boolean contains(K key) {
+    Entry<V>			entry;
+    SoftReference<Entry<V>>	ref;
+    DiskEntry			disk;
+
+    entry = m_Entries.get(key);
+    if ((entry != null) && !isExpired(entry.created))
+      return true;
+
+    if (m_Soft != null) {
+      ref = m_Soft.get(key);
+      if ((ref != null) && (ref.get() != null) && !isExpired(ref.get().created))
+	return true;
+    }
+
+    if (m_Disk != null) {
+      disk = m_Disk.get(key);
+      if ((disk != null) && !isExpired(disk.created))
+	return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Removes the value stored under the key.
+   *
+   * @param key		the key of the value to remove
+   * @return		the removed value, null if none stored
+   */
+  public V remove(K key) {
+    V		result;
+    Entry<V>	entry;
+
+    result = null;
+    entry  = m_Entries.remove(key);
+    if (entry != null) {
+      removed(key, entry);
+      result = entry.value;
+    }
+    else {
+      entry = getFromTiers(key);
+      if (entry != null)
+	result = entry.value;
+    }
+    removeFromTiers(key);
+
+    return result;
+  }
+
+  /**
+   * Removes all values, including the soft reference and disk tiers.
+   */
+  public void clear() {
+    List<K>	keys;
+
+    synchronized(m_Order) {
+      m_Entries.clear();
+      m_Order.clear();
+      m_Weight.set(0);
+    }
+    keys = new ArrayList<>();
+    if (m_Soft != null)
+      keys.addAll(m_Soft.keySet());
+    if (m_Disk != null)
+      keys.addAll(m_Disk.keySet());
+    for (K key: keys)
+      removeFromTiers(key);
+    removeSpillFiles();
+  }
+
+  /**
+   * Removes all files that this cache wrote to the spill directory,
+   * including ones no longer referenced by the disk tier.
+   */
+  protected void removeSpillFiles() {
+    File[]	files;
+    String	prefix;
+
+    if ((m_SpillDir == null) || !m_SpillDir.isDirectory())
+      return;
+
+    prefix = getSpillPrefix();
+    files  = m_SpillDir.listFiles((File dir, String name) -> name.startsWith(prefix) && name.endsWith(".ser"));
+    if (files == null)
+      return;
+    for (File file: files)
+      file.delete();
+  }
+
+  /**
+   * Returns the number of values held in memory.
+   *
+   * @return		the number of values
+   */
+  public int sizeUsed() {
+    return m_Entries.size();
+  }
+
+  /**
+   * Returns the number of evicted values still referenced via soft references.
+   *
+   * @return		the number of values
+   */
+  public int sizeSoft() {
+    return (m_Soft == null) ? 0 : m_Soft.size();
+  }
+
+  /**
+   * Returns the number of evicted values written to disk.
+   *
+   * @return		the number of values
+   */
+  public int sizeDisk() {
+    return (m_Disk == null) ? 0 : m_Disk.size();
+  }
+
+  /**
+   * Returns the estimated size of the values held in memory.
+   *
+   * @return		the size in bytes
+   */
+  public long getWeight() {
+    return m_Weight.get();
+  }
+
+  /**
+   * Returns the keys of all the values in memory, soft reference and disk tiers.
+   *
+   * @return		the keys (copy)
+   */
+  public Set<K> keySet() {
+    Set<K>	result;
+
+    result = new HashSet<>(m_Entries.keySet());
+    if (m_Soft != null)
+      result.addAll(m_Soft.keySet());
+    if (m_Disk != null)
+      result.addAll(m_Disk.keySet());
+
+    return result;
+  }
+
+  /**
+   * Returns the number of hits (from all tiers).
+   *
+   * @return		the number of hits
+   */
+  public long getNumHits() {
+    return m_NumHits.get();
+  }
+
+  /**
+   * Returns the number of misses.
+   *
+   * @return		the number of misses
+   */
+  public long getNumMisses() {
+    return m_NumMisses.get();
+  }
+
+  /**
+   * Returns the ratio of hits to lookups.
+   *
+   * @return		the ratio, NaN if no lookups yet
+   */
+  public double getHitRatio() {
+    long	hits;
+    long	total;
+
+    hits  = m_NumHits.get();
+    total = hits + m_NumMisses.get();
+    if (total == 0)
+      return Double.NaN;
+    else
+      return (double) hits / total;
+  }
+
+  /**
+   * Returns the number of evictions due to exceeded bounds.
+   *
+   * @return		the number of evictions
+   */
+  public long getNumEvictions() {
+    return m_NumEvictions.get();
+  }
+
+  /**
+   * Returns the number of entries that expired.
+   *
+   * @return		the number of expirations
+   */
+  public long getNumExpirations() {
+    return m_NumExpirations.get();
+  }
+
+  /**
+   * Returns the number of hits from the soft reference tier.
+   *
+   * @return		the number of hits
+   */
+  public long getNumSoftHits() {
+    return m_NumSoftHits.get();
+  }
+
+  /**
+   * Returns the number of hits from the disk tier.
+   *
+   * @return		the number of hits
+   */
+  public long getNumDiskHits() {
+    return m_NumDiskHits.get();
+  }
+
+  /**
+   * Returns the number of values written to disk.
+   *
+   * @return		the number of values
+   */
+  public long getNumSpills() {
+    return m_NumSpills.get();
+  }
+
+  /**
+   * Resets the statistics.
+   */
+  public void resetStatistics() {
+    m_NumHits.set(0);
+    m_NumMisses.set(0);
+    m_NumEvictions.set(0);
+    m_NumExpirations.set(0);
+    m_NumSoftHits.set(0);
+    m_NumDiskHits.set(0);
+    m_NumSpills.set(0);
+  }
+
+  /**
+   * Returns the statistics as string.
+   *
+   * @return		the statistics
+   */
+  public String getStatistics() {
+    return "entries=" + sizeUsed()
+      + ", weight=" + ByteFormat.toBestFitBytes(getWeight(), 1)
+      + ", hits=" + getNumHits()
+      + ", misses=" + getNumMisses()
+      + ", evictions=" + getNumEvictions()
+      + ", expirations=" + getNumExpirations()
+      + ", soft=" + sizeSoft() + "/" + getNumSoftHits()
+      + ", disk=" + sizeDisk() + "/" + getNumDiskHits() + "/" + getNumSpills();
+  }
+
+  /**
+   * Returns a new, empty cache with the same settings.
+   *
+   * @return		the new cache
+   */
+  public WeightedCache<K,V> newInstance() {
+    return new WeightedCache<>(m_MaxEntries, m_MaxWeight, m_Expiry, m_SoftReferences, m_SpillDir);
+  }
+
+  /**
+   * Returns a new cache with the same settings and the values currently
+   * held in memory (the values themselves are not copied).
+   *
+   * @return		the clone
+   */
+  public WeightedCache<K,V> getClone() {
+    return getClone(false);
+  }
+
+  /**
+   * Returns a new cache with the same settings and the values currently
+   * held in memory, retaining the access order.
+   *
+   * @param deep	whether to create deep copies of the values
+   * @return		the clone
+   */
+  public WeightedCache<K,V> getClone(boolean deep) {
+    WeightedCache<K,V>	result;
+    List<K>		keys;
+    Entry<V>		entry;
+    V			value;
+
+    result = newInstance();
+    keys   = new ArrayList<>(m_Order.values());
+    for (K key: keys) {
+      entry = m_Entries.get(key);
+      if ((entry == null) || result.m_Entries.containsKey(key))
+	continue;
+      value = entry.value;
+      if (deep && (value != null))
+	value = (V) ClassManager.getSingleton().deepCopy(value);
+      result.promote(key, new Entry<>(value, entry.weight, entry.created));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the values held in memory.
+   *
+   * @return		the string representation
+   */
+  @Override
+  public String toString() {
+    StringBuilder	result;
+
+    result = new StringBuilder("{");
+    for (Map.Entry<K,Entry<V>> entry: m_Entries.entrySet()) {
+      if (result.length() > 1)
+	result.append(", ");
+      result.append(entry.getKey()).append("=").append(entry.getValue().value);
+    }
+    result.append("}");
+
+    return result.toString();
+  }
+}
@@ -0,0 +1,549 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DirectoryWatcher.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io;
+
+import adams.core.base.BaseRegExp;
+import adams.core.io.filecomplete.AbstractFileCompleteCheck;
+import adams.core.io.filecomplete.NoCheck;
+import adams.core.logging.CustomLoggingLevelObject;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches a directory (optionally recursively) for new or changed files,
+ * using the file system's {@link WatchService}. Falls back to polling (i.e.,
+ * re-listing the directory at the specified interval) if no watch service
+ * is available or polling is enforced.
+ * <br>
+ * Files only get reported once no further events occurred for the debounce
+ * period and the file complete check considers them complete. Files are only
+ * reported if their size or timestamp differs from when they were last
+ * reported. If the watch service signals an overflow (i.e., events got
+ * lost), the directory gets listed and only files that differ from the
+ * previous listing (or the state at start) get queued.
+ * <br>
+ * Not thread-safe, {@link #poll(long)} is meant to be called from a single thread.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DirectoryWatcher
+  extends CustomLoggingLevelObject
+  implements Closeable {
+
+  private static final long serialVersionUID = 2540617384046823624L;
+
+  /** the minimum interval in msec for re-checking candidates. */
+  public final static int MIN_RECHECK_INTERVAL = 50;
+
+  /** the directory to watch. */
+  protected File m_Directory;
+
+  /** whether to watch recursively. */
+  protected boolean m_Recursive;
+
+  /** the regular expression for the file names. */
+  protected BaseRegExp m_RegExp;
+
+  /** the debounce period in msec. */
+  protected int m_Debounce;
+
+  /** the check whether files are complete. */
+  protected AbstractFileCompleteCheck m_Check;
+
+  /** the polling interval in msec when falling back to polling. */
+  protected int m_PollInterval;
+
+  /** whether to enforce polling. */
+  protected boolean m_ForcePolling;
+
+  /** whether to report already existing files. */
+  protected boolean m_IncludeExisting;
+
+  /** the watch service, null if polling. */
+  protected transient WatchService m_Watch;
+
+  /** the registered directories. */
+  protected transient Map<WatchKey,Path> m_Keys;
+
+  /** the candidates and the time of their last event. */
+  protected transient LinkedHashMap<Path,Long> m_Candidates;
+
+  /** the state (timestamp, size) of the files when they were reported. */
+  protected transient Map<Path,long[]> m_Reported;
+
+  /** the state (timestamp, size) of the files when they were last listed
+   * (at start, when polling or after an overflow of the watch service). */
+  protected transient Map<Path,long[]> m_Listed;
+
+  /** the time of the last listing. */
+  protected long m_LastListing;
+
+  /**
+   * Initializes the watcher.
+   *
+   * @param directory		the directory to watch
+   * @param recursive		whether to watch sub-directories as well
+   */
+  public DirectoryWatcher(File directory, boolean recursive) {
+    super();
+
+    m_Directory       = directory.getAbsoluteFile();
+    m_Recursive       = recursive;
+    m_RegExp          = new BaseRegExp(BaseRegExp.MATCH_ALL);
+    m_Debounce        = 500;
+    m_Check           = new NoCheck();
+    m_PollInterval    = 1000;
+    m_ForcePolling    = false;
+    m_IncludeExisting = false;
+  }
+
+  /**
+   * Sets the regular expression that the file names (not path) must match.
+   *
+   * @param value	the expression
+   */
+  public void setRegExp(BaseRegExp value) {
+    m_RegExp = value;
+  }
+
+  /**
+   * Sets the period without further events before a file gets reported.
+   *
+   * @param value	the period in msec
+   */
+  public void setDebounce(int value) {
+    m_Debounce = Math.max(0, value);
+  }
+
+  /**
+   * Sets the check whether files are complete before they get reported.
+   *
+   * @param value	the check
+   */
+  public void setCheck(AbstractFileCompleteCheck value) {
+    m_Check = value;
+  }
+
+  /**
+   * Sets the interval for re-listing the directory when polling.
+   *
+   * @param value	the interval in msec
+   */
+  public void setPollInterval(int value) {
+    m_PollInterval = Math.max(1, value);
+  }
+
+  /**
+   * Sets whether to enforce polling instead of using the watch service.
+   *
+   * @param value	true if to poll
+   */
+  public void setForcePolling(boolean value) {
+    m_ForcePolling = value;
+  }
+
+  /**
+   * Sets whether to report files that already exist when starting.
+   *
+   * @param value	true if to report existing files
+   */
+  public void setIncludeExisting(boolean value) {
+    m_IncludeExisting = value;
+  }
+
+  /**
+   * Returns whether the watcher is polling.
+   *
+   * @return		true if polling, false if using the watch service
+   */
+  public boolean isPolling() {
+    return (m_Watch == null);
+  }
+
+  /**
+   * Starts watching the directory.
+   *
+   * @throws IOException	if directory cannot be watched or listed
+   */
+  public void start() throws IOException {
+    if (!m_Directory.isDirectory())
+      throw new IOException("Not a directory: " + m_Directory);
+
+    m_Keys       = new HashMap<>();
+    m_Candidates = new LinkedHashMap<>();
+    m_Reported   = new HashMap<>();
+    m_Listed     = new HashMap<>();
+
+    if (!m_ForcePolling) {
+      try {
+	m_Watch = FileSystems.getDefault().newWatchService();
+	register(m_Directory.toPath(), false);
+      }
+      catch (UnsupportedOperationException | IOException e) {
+	getLogger().log(Level.WARNING, "Watch service not available, falling back to polling: " + m_Directory, e);
+	closeWatchService();
+      }
+    }
+
+    // snapshot of the current state, used for detecting changes when
+    // polling or after an overflow of the watch service
+    if (isPolling()) {
+      list(!m_IncludeExisting);
+    }
+    else {
+      list(true);
+      if (m_IncludeExisting) {
+	for (Path file: m_Listed.keySet())
+	  m_Candidates.put(file, 0L);
+      }
+    }
+    if (isLoggingEnabled())
+      getLogger().info("Watching " + m_Directory + " (recursive=" + m_Recursive + ", polling=" + isPolling() + ")");
+  }
+
+  /**
+   * Registers the directory (and its sub-directories if recursive) with the
+   * watch service.
+   *
+   * @param dir			the directory to register
+   * @param addFiles		whether to add any files as candidates (dir created after start)
+   * @throws IOException	if registration fails
+   */
+  protected void register(Path dir, boolean addFiles) throws IOException {
+    if (!m_Recursive) {
+      m_Keys.put(registerDir(dir), dir);
+      return;
+    }
+
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+	m_Keys.put(registerDir(d), d);
+	return FileVisitResult.CONTINUE;
+      }
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+	if (addFiles)
+	  addCandidate(file, System.currentTimeMillis());
+	return FileVisitResult.CONTINUE;
+      }
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+	return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * Registers a single directory with the watch service.
+   *
+   * @param dir			the directory to register
+   * @return			the key
+   * @throws IOException	if registration fails
+   */
+  protected WatchKey registerDir(Path dir) throws IOException {
+    return dir.register(
+      m_Watch,
+      StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY,
+      StandardWatchEventKinds.ENTRY_DELETE);
+  }
+
+  /**
+   * Lists the directory. Files that are new or changed compared to the
+   * previous listing get added as candidates (unless only initializing).
+   *
+   * @param initOnly		whether to only record the state of the files
+   * @throws IOException	if listing fails
+   */
+  protected void list(boolean initOnly) throws IOException {
+    final long			now;
+    final Map<Path,long[]>	listed;
+
+    now    = System.currentTimeMillis();
+    listed = new HashMap<>();
+    Files.walkFileTree(m_Directory.toPath(), new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+	if (!m_Recursive && !dir.equals(m_Directory.toPath()))
+	  return FileVisitResult.SKIP_SUBTREE;
+	return FileVisitResult.CONTINUE;
+      }
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+	long[]	state;
+	long[]	prev;
+	if (!attrs.isRegularFile() || !matches(file))
+	  return FileVisitResult.CONTINUE;
+	state = new long[]{attrs.lastModifiedTime().toMillis(), attrs.size()};
+	listed.put(file, state);
+	if (!initOnly) {
+	  prev = m_Listed.get(file);
+	  if ((prev == null) || (prev[0] != state[0]) || (prev[1] != state[1]))
+	    m_Candidates.put(file, now);
+	}
+	return FileVisitResult.CONTINUE;
+      }
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+	return FileVisitResult.CONTINUE;
+      }
+    });
+
+    m_Listed = listed;
+    m_Reported.keySet().retainAll(listed.keySet());
+    m_LastListing = now;
+  }
+
+  /**
+   * Checks whether the file name matches the regular expression.
+   *
+   * @param file	the file to check
+   * @return		true if matching
+   */
+  protected boolean matches(Path file) {
+    return m_RegExp.isMatchAll() || m_RegExp.isMatch(file.getFileName().toString());
+  }
+
+  /**
+   * Adds the file as candidate, if it matches the regular expression.
+   *
+   * @param file	the file to add
+   * @param time	the time of the event
+   */
+  protected void addCandidate(Path file, long time) {
+    if (!matches(file))
+      return;
+    // re-insert to keep candidates in order of their last event
+    m_Candidates.remove(file);
+    m_Candidates.put(file, time);
+  }
+
+  /**
+   * Handles an overflow of the watch service, i.e., events got lost: lists
+   * the directory and only queues files that differ from the previous
+   * listing. Files that were reported in the meantime and haven't changed
+   * since get skipped when collecting.
+   */
+  protected void overflow() {
+    getLogger().warning("Overflow of events, listing directory: " + m_Directory);
+    try {
+      list(false);
+    }
+    catch (IOException e) {
+      getLogger().log(Level.SEVERE, "Failed to list directory: " + m_Directory, e);
+    }
+  }
+
+  /**
+   * Processes the events of the key.
+   *
+   * @param key		the key to process
+   */
+  protected void process(WatchKey key) {
+    Path			dir;
+    Path			child;
+    WatchEvent.Kind		kind;
+    long			now;
+
+    dir = m_Keys.get(key);
+    now = System.currentTimeMillis();
+    for (WatchEvent<?> event: key.pollEvents()) {
+      kind = event.kind();
+      if (kind == StandardWatchEventKinds.OVERFLOW) {
+	overflow();
+	continue;
+      }
+      if (dir == null)
+	continue;
+      child = dir.resolve((Path) event.context());
+      if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+	m_Candidates.remove(child);
+	m_Reported.remove(child);
+	continue;
+      }
+      if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+	if (m_Recursive && (kind == StandardWatchEventKinds.ENTRY_CREATE)) {
+	  try {
+	    register(child, true);
+	  }
+	  catch (IOException e) {
+	    getLogger().log(Level.SEVERE, "Failed to register directory: " + child, e);
+	  }
+	}
+	continue;
+      }
+      addCandidate(child, now);
+    }
+
+    if (!key.reset()) {
+      m_Keys.remove(key);
+      if (isLoggingEnabled())
+	getLogger().info("Directory no longer accessible: " + dir);
+    }
+  }
+
+  /**
+   * Collects the candidates that are ready to be reported, i.e., no events
+   * during the debounce period, complete and changed since last reported.
+   *
+   * @return		the files
+   */
+  protected List<File> collect() {
+    List<File>			result;
+    Iterator<Map.Entry<Path,Long>>	iter;
+    Map.Entry<Path,Long>	entry;
+    File			file;
+    long[]			state;
+    long[]			prev;
+    long			now;
+
+    result = new ArrayList<>();
+    now    = System.currentTimeMillis();
+    iter   = m_Candidates.entrySet().iterator();
+    while (iter.hasNext()) {
+      entry = iter.next();
+      if (now - entry.getValue() < m_Debounce)
+	continue;
+      file = entry.getKey().toFile();
+      if (!file.isFile()) {
+	iter.remove();
+	continue;
+      }
+      if (!m_Check.isComplete(file))
+	continue;
+      iter.remove();
+      state = new long[]{file.lastModified(), file.length()};
+      prev  = m_Reported.get(entry.getKey());
+      if ((prev != null) && (prev[0] == state[0]) && (prev[1] == state[1]))
+	continue;
+      m_Reported.put(entry.getKey(), state);
+      result.add(file);
+    }
+
+    return result;
+  }
+
+  /**
+   * Waits for files to become available.
+   *
+   * @param timeout	the maximum time in msec to wait
+   * @return		the new or changed files, empty if none available within the timeout
+   * @throws IOException	if watching/listing fails
+   */
+  public List<File> poll(long timeout) throws IOException {
+    List<File>	result;
+    long	deadline;
+    long	wait;
+    WatchKey	key;
+
+    if (m_Candidates == null)
+      throw new IOException("Watcher not started or already closed: " + m_Directory);
+
+    deadline = System.currentTimeMillis() + timeout;
+    while (true) {
+      if (isPolling() && (System.currentTimeMillis() - m_LastListing >= m_PollInterval))
+	list(false);
+
+      result = collect();
+      if (!result.isEmpty())
+	return result;
+
+      wait = deadline - System.currentTimeMillis();
+      if (wait <= 0)
+	return result;
+      if (!m_Candidates.isEmpty())
+	wait = Math.min(wait, Math.max(MIN_RECHECK_INTERVAL, m_Debounce));
+      if (isPolling())
+	wait = Math.min(wait, Math.max(1, m_PollInterval - (System.currentTimeMillis() - m_LastListing)));
+
+      if (isPolling()) {
+	try {
+	  Thread.sleep(wait);
+	}
+	catch (InterruptedException e) {
+	  return result;
+	}
+      }
+      else {
+	try {
+	  key = m_Watch.poll(wait, TimeUnit.MILLISECONDS);
+	  while (key != null) {
+	    process(key);
+	    key = m_Watch.poll();
+	  }
+	}
+	catch (InterruptedException | ClosedWatchServiceException e) {
+	  return result;
+	}
+      }
+    }
+  }
+
+  /**
+   * Closes the watch service.
+   */
+  protected void closeWatchService() {
+    if (m_Watch != null) {
+      try {
+	m_Watch.close();
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to close watch service: " + m_Directory, e);
+      }
+      m_Watch = null;
+    }
+  }
+
+  /**
+   * Stops watching.
+   */
+  @Override
+  public void close() {
+    closeWatchService();
+    m_Keys       = null;
+    m_Candidates = null;
+    m_Reported   = null;
+    m_Listed     = null;
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PersistentFileWriter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a file open for writing, instead of opening and closing it for every
+ * write. Output gets buffered and flushed to the file once the buffered
+ * output reaches the flush size, once the flush interval has passed or
+ * when explicitly flushed/closed.
+ * <br>
+ * With syncing enabled, every flush forces the written data to the storage
+ * device, i.e., the buffered records get committed as a group.
+ * <br>
+ * The writer is thread-safe, as time-based flushes happen in a background thread.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PersistentFileWriter
+  implements Closeable, Flushable {
+
+  /** the executor for time-based flushes. */
+  protected static ScheduledExecutorService m_Flusher;
+
+  /** the file being written to. */
+  protected File m_File;
+
+  /** the number of characters to buffer before flushing. */
+  protected int m_FlushSize;
+
+  /** whether to force data to disk when flushing. */
+  protected boolean m_Sync;
+
+  /** the channel. */
+  protected FileChannel m_Channel;
+
+  /** the writer. */
+  protected Writer m_Writer;
+
+  /** the number of characters written since the last flush. */
+  protected int m_Pending;
+
+  /** the scheduled time-based flushes. */
+  protected ScheduledFuture m_Scheduled;
+
+  /** the exception that occurred during a time-based flush. */
+  protected IOException m_FlushError;
+
+  /**
+   * Opens the file for writing.
+   *
+   * @param file		the file to write to
+   * @param append		whether to append to or truncate the file
+   * @param charset		the encoding to use
+   * @param flushSize		the number of characters to buffer before flushing
+   * @param flushInterval	the interval in msec for flushing buffered output, 0 to disable
+   * @param sync		whether to force the data to disk with every flush
+   * @throws IOException	if opening of file fails
+   */
+  public PersistentFileWriter(File file, boolean append, Charset charset, int flushSize, int flushInterval, boolean sync) throws IOException {
+    m_File      = file.getAbsoluteFile();
+    m_FlushSize = Math.max(1, flushSize);
+    m_Sync      = sync;
+    m_Pending   = 0;
+    m_Channel   = FileChannel.open(
+      m_File.toPath(),
+      StandardOpenOption.CREATE,
+      StandardOpenOption.WRITE,
+      (append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+    m_Writer    = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(m_Channel), charset), m_FlushSize);
+    if (flushInterval > 0)
+      m_Scheduled = getFlusher().scheduleWithFixedDelay(this::timedFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the executor for time-based flushes.
+   *
+   * @return		the executor
+   */
+  protected static synchronized ScheduledExecutorService getFlusher() {
+    if (m_Flusher == null) {
+      m_Flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+	Thread thread = new Thread(r, PersistentFileWriter.class.getSimpleName());
+	thread.setDaemon(true);
+	return thread;
+      });
+    }
+    return m_Flusher;
+  }
+
+  /**
+   * Returns the file that is being written to.
+   *
+   * @return		the file
+   */
+  public File getFile() {
+    return m_File;
+  }
+
+  /**
+   * Returns whether the writer is still open.
+   *
+   * @return		true if open
+   */
+  public synchronized boolean isOpen() {
+    return (m_Writer != null);
+  }
+
+  /**
+   * Checks whether the writer is open and whether a time-based flush failed.
+   *
+   * @throws IOException	if closed or previous flush failed
+   */
+  protected void check() throws IOException {
+    IOException		error;
+
+    if (m_Writer == null)
+      throw new IOException("Writer already closed: " + m_File);
+    if (m_FlushError != null) {
+      error        = m_FlushError;
+      m_FlushError = null;
+      throw error;
+    }
+  }
+
+  /**
+   * Writes the string, flushes if the flush size has been reached.
+   *
+   * @param s		the string to write
+   * @throws IOException	if writing fails
+   */
+  public synchronized void write(String s) throws IOException {
+    check();
+    m_Writer.write(s);
+    m_Pending += s.length();
+    if (m_Pending >= m_FlushSize)
+      flush();
+  }
+
+  /**
+   * Writes the string followed by the system's line separator.
+   *
+   * @param s		the line to write
+   * @throws IOException	if writing fails
+   * @see		System#lineSeparator()
+   */
+  public synchronized void writeLine(String s) throws IOException {
+    write(s + System.lineSeparator());
+  }
+
+  /**
+   * Flushes the buffered output to the file (and to disk if syncing).
+   *
+   * @throws IOException	if flushing fails
+   */
+  @Override
+  public synchronized void flush() throws IOException {
+    if (m_Writer == null)
+      return;
+    m_Writer.flush();
+    if (m_Sync)
+      m_Channel.force(false);
+    m_Pending = 0;
+  }
+
+  /**
+   * Flushes the buffered output, if any. Gets called by the executor.
+   */
+  protected synchronized void timedFlush() {
+    if (m_Pending == 0)
+      return;
+    try {
+      flush();
+    }
+    catch (IOException e) {
+      m_FlushError = e;
+    }
+  }
+
+  /**
+   * Flushes any buffered output and closes the file.
+   *
+   * @throws IOException	if flushing or closing fails
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (m_Scheduled != null) {
+      m_Scheduled.cancel(false);
+      m_Scheduled = null;
+    }
+    if (m_Writer == null)
+      return;
+    try {
+      flush();
+    }
+    finally {
+      m_Writer.close();
+      m_Writer  = null;
+      m_Channel = null;
+    }
+  }
+}
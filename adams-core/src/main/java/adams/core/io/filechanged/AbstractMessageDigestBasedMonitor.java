@@ -101,6 +101,15 @@ public abstract class AbstractMessageDigestBasedMonitor
     return QuickInfoHelper.toString(this, "type", m_Type, "type: ");
   }
 
+  /**
+   * Returns the digest of the file the monitor was initialized/updated with.
+   *
+   * @return		the digest, null if not initialized
+   */
+  public String getDigest() {
+    return m_Digest;
+  }
+
   /**
    * Generates the message digest, if possible.
    *
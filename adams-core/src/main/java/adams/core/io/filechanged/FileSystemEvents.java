@@ -0,0 +1,285 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FileSystemEvents.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io.filechanged;
+
+import adams.core.QuickInfoHelper;
+import adams.core.io.filecomplete.AbstractFileCompleteCheck;
+import adams.core.io.filecomplete.NoCheck;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Uses the file system's notifications (watch service) for detecting changes, i.e., the file only gets inspected if the file system reported an event for it. Falls back on comparing 'last modified' and 'size' if the file system does not support notifications.<br>
+ * A change only gets reported once the file is considered complete by the check scheme.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-check &lt;adams.core.io.filecomplete.AbstractFileCompleteCheck&gt; (property: check)
+ * &nbsp;&nbsp;&nbsp;The check scheme for determining whether the changed file is complete.
+ * &nbsp;&nbsp;&nbsp;default: adams.core.io.filecomplete.NoCheck
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FileSystemEvents
+  extends AbstractFileChangeMonitor {
+
+  private static final long serialVersionUID = -1652424850734104839L;
+
+  /** the check whether the file is complete. */
+  protected AbstractFileCompleteCheck m_Check;
+
+  /** the watch service, null if not available. */
+  protected transient WatchService m_Watch;
+
+  /** whether events were reported for the file since the last update. */
+  protected boolean m_Dirty;
+
+  /** the lastmodified timestamp. */
+  protected long m_LastModified;
+
+  /** the size. */
+  protected long m_Size;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Uses the file system's notifications (watch service) for detecting "
+	+ "changes, i.e., the file only gets inspected if the file system "
+	+ "reported an event for it. Falls back on comparing 'last modified' "
+	+ "and 'size' if the file system does not support notifications.\n"
+	+ "A change only gets reported once the file is considered complete "
+	+ "by the check scheme.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "check", "check",
+      new NoCheck());
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    closeWatchService();
+    m_Dirty        = false;
+    m_LastModified = 0;
+    m_Size         = 0;
+  }
+
+  /**
+   * Sets the check scheme for determining whether the file is complete.
+   *
+   * @param value	the check scheme
+   */
+  public void setCheck(AbstractFileCompleteCheck value) {
+    m_Check = value;
+    reset();
+  }
+
+  /**
+   * Returns the check scheme for determining whether the file is complete.
+   *
+   * @return		the check scheme
+   */
+  public AbstractFileCompleteCheck getCheck() {
+    return m_Check;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String checkTipText() {
+    return "The check scheme for determining whether the changed file is complete.";
+  }
+
+  /**
+   * Returns a quick info about the object, which can be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    return QuickInfoHelper.toString(this, "check", m_Check, "check: ");
+  }
+
+  /**
+   * Closes the watch service, if any.
+   */
+  protected void closeWatchService() {
+    if (m_Watch != null) {
+      try {
+	m_Watch.close();
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to close watch service!", e);
+      }
+      m_Watch = null;
+    }
+  }
+
+  /**
+   * Records the state of the file.
+   *
+   * @param file	the file to record
+   */
+  protected void record(File file) {
+    m_LastModified = file.lastModified();
+    m_Size         = file.length();
+    m_Dirty        = false;
+  }
+
+  /**
+   * Performs the actual initialization of the monitor with the specified file.
+   *
+   * @param file	the file to initialize with
+   * @return		null if successful, otherwise error message
+   */
+  @Override
+  protected String doInitialize(File file) {
+    Path	dir;
+
+    closeWatchService();
+    record(file);
+    try {
+      dir     = file.getAbsoluteFile().getParentFile().toPath();
+      m_Watch = FileSystems.getDefault().newWatchService();
+      dir.register(
+	m_Watch,
+	StandardWatchEventKinds.ENTRY_CREATE,
+	StandardWatchEventKinds.ENTRY_MODIFY,
+	StandardWatchEventKinds.ENTRY_DELETE);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Watch service not available, falling back to 'last modified' and 'size': " + file, e);
+      closeWatchService();
+    }
+
+    return null;
+  }
+
+  /**
+   * Collects the events for the file from the watch service, without blocking.
+   *
+   * @param file	the file to collect the events for
+   */
+  protected void drainEvents(File file) {
+    WatchKey	key;
+    Path	name;
+
+    name = file.toPath().getFileName();
+    key  = m_Watch.poll();
+    while (key != null) {
+      for (WatchEvent<?> event: key.pollEvents()) {
+	if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+	  m_Dirty = true;
+	else if (name.equals(event.context()))
+	  m_Dirty = true;
+      }
+      if (!key.reset()) {
+	// directory no longer accessible
+	closeWatchService();
+	m_Dirty = true;
+	return;
+      }
+      key = m_Watch.poll();
+    }
+  }
+
+  /**
+   * Performs the actual check whether the file has changed.
+   *
+   * @param file	the file to check
+   * @return		true if changed
+   */
+  @Override
+  protected boolean checkChange(File file) {
+    if (m_Watch != null)
+      drainEvents(file);
+    else
+      m_Dirty = true;
+
+    if (!m_Dirty)
+      return false;
+    if ((file.lastModified() == m_LastModified) && (file.length() == m_Size)) {
+      if (m_Watch != null)
+	m_Dirty = false;
+      return false;
+    }
+
+    return m_Check.isComplete(file);
+  }
+
+  /**
+   * Performs the actual updating of the monitor with the specified file.
+   *
+   * @param file	the file to update with
+   * @return		null if successful, otherwise error message
+   */
+  @Override
+  protected String doUpdate(File file) {
+    record(file);
+    return null;
+  }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   */
+  @Override
+  public void destroy() {
+    closeWatchService();
+    super.destroy();
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * NoCheck.java
- * Copyright (C) 2023 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2023-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.core.io.filecomplete;
@@ -61,17 +61,17 @@ public class NoCheck
    */
   @Override
   public boolean isComplete(byte[] buffer) {
-    return false;
+    return true;
   }
 
   /**
-   * Checks whether the file is in use.
+   * Checks whether the file is complete.
    *
    * @param file	the file to check
-   * @return		true if in use
+   * @return		true if complete
    */
   @Override
   public boolean isComplete(File file) {
-    return false;
+    return true;
   }
 }
@@ -15,7 +15,7 @@
 
 /*
  * MathExpression.java
- * Copyright (C) 2018-2025 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.conversion;
@@ -482,7 +482,7 @@ public class MathExpression
 
     // get input
     symbols = MathematicalExpression.objectToSymbols(m_Input);
-    y       = MathematicalExpression.evaluate(exp, symbols);
+    y       = MathematicalExpression.evaluate(exp, symbols, exp.equals(m_Expression.getValue()));
 
     if (!Double.isNaN(y)) {
       y = applyRounding(y);
@@ -15,7 +15,7 @@
 
 /*
  * StringExpression.java
- * Copyright (C) 2018 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.conversion;
@@ -293,7 +293,7 @@ public class StringExpression
 
     // get input
     symbols = adams.parser.StringExpression.objectToSymbols(m_Input);
-    result  = adams.parser.StringExpression.evaluate(exp, symbols);
+    result  = adams.parser.StringExpression.evaluate(exp, symbols, exp.equals(m_Expression.getValue()));
     if (isLoggingEnabled())
       getLogger().info("--> " + result);
 
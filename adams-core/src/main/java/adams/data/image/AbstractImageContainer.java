@@ -15,16 +15,29 @@
 
 /**
  * AbstractImageContainer.java
- * Copyright (C) 2012-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2012-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.image;
 
 import adams.data.container.AbstractSimpleContainer;
+import adams.data.report.AbstractField;
+import adams.data.report.Report;
 
 import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Ancestor for various image format containers.
+ * <br><br>
+ * Besides the report, typed annotations can be attached under a prefix (see
+ * {@link #setAnnotations(String, ImageAnnotations)}). These replace the
+ * report fields with that prefix and only get turned into report fields
+ * once the report gets accessed via {@link #getReport()}. The annotations
+ * stay attached afterwards, unless the report gets modified in a way that
+ * changes fields with their prefix (in which case the report takes
+ * precedence again).
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -46,6 +59,206 @@ public abstract class AbstractImageContainer<T>
   /** the field for the name. */
   public final static String FIELD_NAME = "Name";
 
+  /** the typed annotations (prefix - annotations). */
+  protected Map<String,ImageAnnotations> m_Annotations;
+
+  /** the report the annotations got turned into fields for (null if not yet). */
+  protected transient Report m_AnnotationsReport;
+
+  /** the modification count of the report after turning the annotations into fields. */
+  protected transient int m_AnnotationsModifications;
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+    m_Annotations = new LinkedHashMap<>();
+  }
+
+  /**
+   * Returns the map for the typed annotations, initializing it if necessary
+   * (eg when deserialized from an older version).
+   *
+   * @return		the map
+   */
+  protected Map<String,ImageAnnotations> getAnnotationsMap() {
+    if (m_Annotations == null)
+      m_Annotations = new LinkedHashMap<>();
+    return m_Annotations;
+  }
+
+  /**
+   * Returns a new container with the report, notes and annotations copied,
+   * but without the content. The annotations do not get turned into report
+   * fields.
+   *
+   * @return		the container without the content
+   * @see		#getClone()
+   */
+  @Override
+  public synchronized AbstractImageContainer<T> getHeader() {
+    AbstractImageContainer<T>	result;
+
+    try {
+      validateAnnotations();
+      result = getClass().getDeclaredConstructor().newInstance();
+      result.setReport(m_Report.getClone());
+      result.m_Notes = getNotes().getClone();
+      for (String prefix: getAnnotationsMap().keySet())
+	result.getAnnotationsMap().put(prefix, getAnnotationsMap().get(prefix).getClone());
+    }
+    catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Sets the report to use. Discards any typed annotations.
+   *
+   * @param value	the report
+   */
+  @Override
+  public synchronized void setReport(Report value) {
+    getAnnotationsMap().clear();
+    m_AnnotationsReport = null;
+    super.setReport(value);
+  }
+
+  /**
+   * Returns the current report. Any typed annotations get turned into report
+   * fields first, but stay attached as long as the report does not get
+   * modified in respect to their fields.
+   *
+   * @return		the report
+   */
+  @Override
+  public synchronized Report getReport() {
+    materializeAnnotations();
+    return super.getReport();
+  }
+
+  /**
+   * Checks whether the report still contains exactly the fields generated
+   * from the annotations.
+   *
+   * @param prefix	the prefix of the annotations
+   * @param annotations	the annotations to check
+   * @return		true if the report fields are still the same
+   */
+  protected boolean isMaterialized(String prefix, ImageAnnotations annotations) {
+    Report	report;
+    int		count;
+
+    report = annotations.toReport(prefix);
+    count  = 0;
+    for (AbstractField field: m_Report.getFields()) {
+      if (field.getName().startsWith(prefix))
+	count++;
+    }
+    if (count != report.getFields().size())
+      return false;
+
+    for (AbstractField field: report.getFields()) {
+      if (!report.getValue(field).equals(m_Report.getValue(field)))
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Removes typed annotations whose fields got modified in the report since
+   * they were turned into report fields, as the report takes precedence then.
+   */
+  protected void validateAnnotations() {
+    Iterator<Map.Entry<String,ImageAnnotations>>	iter;
+    Map.Entry<String,ImageAnnotations>			entry;
+
+    if ((m_AnnotationsReport == null) || (m_AnnotationsReport != m_Report)) {
+      m_AnnotationsReport = null;
+      return;
+    }
+    if (m_Report.getModifications() == m_AnnotationsModifications)
+      return;
+
+    iter = getAnnotationsMap().entrySet().iterator();
+    while (iter.hasNext()) {
+      entry = iter.next();
+      if (!isMaterialized(entry.getKey(), entry.getValue()))
+	iter.remove();
+    }
+    m_AnnotationsModifications = m_Report.getModifications();
+  }
+
+  /**
+   * Turns the typed annotations into report fields, if not already present.
+   * The annotations stay attached.
+   */
+  protected void materializeAnnotations() {
+    Report	report;
+
+    validateAnnotations();
+    if (getAnnotationsMap().isEmpty() || (m_AnnotationsReport != null))
+      return;
+
+    if (m_Report == null)
+      m_Report = new Report();
+    for (String prefix: getAnnotationsMap().keySet()) {
+      report = getAnnotationsMap().get(prefix).toReport(prefix);
+      for (AbstractField field: report.getFields()) {
+	m_Report.addField(field);
+	m_Report.setValue(field, report.getValue(field));
+      }
+    }
+    m_AnnotationsReport        = m_Report;
+    m_AnnotationsModifications = m_Report.getModifications();
+  }
+
+  /**
+   * Attaches the typed annotations under the specified prefix. Any report
+   * fields starting with the prefix get removed.
+   *
+   * @param prefix	the prefix of the annotations, eg "Object."
+   * @param value	the annotations, null to remove
+   */
+  public synchronized void setAnnotations(String prefix, ImageAnnotations value) {
+    validateAnnotations();
+    if (m_Report != null)
+      m_Report.removeValuesStartingWith(prefix);
+
+    if (value == null)
+      getAnnotationsMap().remove(prefix);
+    else
+      getAnnotationsMap().put(prefix, value);
+    m_AnnotationsReport = null;
+  }
+
+  /**
+   * Returns whether typed annotations are attached under the prefix.
+   *
+   * @param prefix	the prefix of the annotations
+   * @return		true if annotations available
+   */
+  public synchronized boolean hasAnnotations(String prefix) {
+    validateAnnotations();
+    return getAnnotationsMap().containsKey(prefix);
+  }
+
+  /**
+   * Returns the typed annotations attached under the prefix.
+   *
+   * @param prefix	the prefix of the annotations
+   * @return		the annotations, null if none attached
+   */
+  public synchronized ImageAnnotations getAnnotations(String prefix) {
+    validateAnnotations();
+    return getAnnotationsMap().get(prefix);
+  }
+
   /**
    * Sets the image to use.
    *
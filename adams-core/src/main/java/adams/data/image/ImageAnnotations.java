@@ -0,0 +1,53 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ImageAnnotations.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image;
+
+import adams.core.CloneHandler;
+import adams.data.report.Report;
+
+import java.io.Serializable;
+
+/**
+ * Interface for typed annotations that can be attached to image containers
+ * instead of being encoded as report fields. The report representation only
+ * gets generated when the report of the container gets accessed.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see AbstractImageContainer#setAnnotations(String, ImageAnnotations)
+ */
+public interface ImageAnnotations
+  extends Serializable, CloneHandler<ImageAnnotations> {
+
+  /**
+   * Returns the number of annotations.
+   *
+   * @return		the number of annotations
+   */
+  public int size();
+
+  /**
+   * Turns the annotations into report fields.
+   *
+   * @param prefix	the prefix for the fields
+   * @return		the report
+   */
+  public Report toReport(String prefix);
+}
@@ -0,0 +1,880 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheetFormat.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io;
+
+import adams.core.DateTime;
+import adams.core.DateTimeMsec;
+import adams.core.Time;
+import adams.core.TimeMsec;
+import adams.data.spreadsheet.Cell;
+import adams.data.spreadsheet.Cell.ContentType;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Helper class for the binary columnar spreadsheet format.
+ * <br><br>
+ * Layout (big endian):
+ * <ol>
+ *   <li>magic number (int), version (int), length of header (int)</li>
+ *   <li>header: name, comments, number of rows, row group size, columns
+ *   (name, type, statistics) and the location of each block</li>
+ *   <li>blocks: one per row group and column, compressed individually</li>
+ * </ol>
+ * A block stores a bitmap of missing values, followed by the values of the
+ * non-missing cells (numbers and dates as 8 bytes, booleans as 1 byte,
+ * strings as length and UTF-8 bytes). Columns with cells of different types
+ * store the type of each cell in front of its string representation.
+ * <br>
+ * Blocks get located via the header, i.e., only the blocks of the requested
+ * rows and columns need to be mapped into memory and decoded.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheetFormat {
+
+  /** the magic number ("ACSS"). */
+  public final static int MAGIC = 0x41435353;
+
+  /** the version of the format. */
+  public final static int VERSION = 1;
+
+  /** the size of the preamble (magic, version, header length). */
+  public final static int PREAMBLE_SIZE = 12;
+
+  /** the extension of the format. */
+  public final static String FILE_EXTENSION = "acss";
+
+  /** block is stored as is. */
+  public final static byte CODEC_NONE = 0;
+
+  /** block is compressed with deflate. */
+  public final static byte CODEC_DEFLATE = 1;
+
+  /**
+   * The types of columns.
+   */
+  public enum ColumnType {
+    STRING,
+    DOUBLE,
+    LONG,
+    BOOLEAN,
+    DATE,
+    DATETIME,
+    DATETIMEMSEC,
+    TIME,
+    TIMEMSEC,
+    /** cells of different types. */
+    MIXED;
+
+    /**
+     * Returns whether the column stores 8 byte values.
+     *
+     * @return		true if numeric or date
+     */
+    public boolean isNumeric() {
+      return (this != STRING) && (this != BOOLEAN) && (this != MIXED);
+    }
+
+    /**
+     * Returns the column type for the cell type.
+     *
+     * @param type	the cell type
+     * @return		the column type, MIXED if not directly supported
+     */
+    public static ColumnType fromContentType(ContentType type) {
+      switch (type) {
+	case STRING:
+	  return STRING;
+	case DOUBLE:
+	  return DOUBLE;
+	case LONG:
+	  return LONG;
+	case BOOLEAN:
+	  return BOOLEAN;
+	case DATE:
+	  return DATE;
+	case DATETIME:
+	  return DATETIME;
+	case DATETIMEMSEC:
+	  return DATETIMEMSEC;
+	case TIME:
+	  return TIME;
+	case TIMEMSEC:
+	  return TIMEMSEC;
+	default:
+	  return MIXED;
+      }
+    }
+  }
+
+  /**
+   * The meta-data of a column.
+   */
+  public static class Column
+    implements Serializable {
+
+    private static final long serialVersionUID = 6553012473085563420L;
+
+    /** the name of the column. */
+    protected String m_Name;
+
+    /** the type of the column. */
+    protected ColumnType m_Type;
+
+    /** the number of missing values. */
+    protected int m_NumMissing;
+
+    /** the smallest value (numeric and date columns). */
+    protected double m_Min;
+
+    /** the largest value (numeric and date columns). */
+    protected double m_Max;
+
+    /**
+     * Initializes the column.
+     *
+     * @param name	the name
+     * @param type	the type
+     * @param numMissing	the number of missing values
+     * @param min	the smallest value, NaN if not available
+     * @param max	the largest value, NaN if not available
+     */
+    public Column(String name, ColumnType type, int numMissing, double min, double max) {
+      m_Name       = name;
+      m_Type       = type;
+      m_NumMissing = numMissing;
+      m_Min        = min;
+      m_Max        = max;
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @return		the name
+     */
+    public String getName() {
+      return m_Name;
+    }
+
+    /**
+     * Returns the type of the column.
+     *
+     * @return		the type
+     */
+    public ColumnType getType() {
+      return m_Type;
+    }
+
+    /**
+     * Returns the number of missing values.
+     *
+     * @return		the number
+     */
+    public int getNumMissing() {
+      return m_NumMissing;
+    }
+
+    /**
+     * Returns the smallest value (dates: msecs).
+     *
+     * @return		the smallest value, NaN if not numeric/date or all missing
+     */
+    public double getMin() {
+      return m_Min;
+    }
+
+    /**
+     * Returns the largest value (dates: msecs).
+     *
+     * @return		the largest value, NaN if not numeric/date or all missing
+     */
+    public double getMax() {
+      return m_Max;
+    }
+
+    /**
+     * Returns a short description of the column.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return m_Name + ": type=" + m_Type + ", missing=" + m_NumMissing + ", min=" + m_Min + ", max=" + m_Max;
+    }
+  }
+
+  /**
+   * The header of a file.
+   */
+  public static class Header
+    implements Serializable {
+
+    private static final long serialVersionUID = -4003364337213870469L;
+
+    /** the name of the spreadsheet, null if none. */
+    protected String m_Name;
+
+    /** the comments. */
+    protected List<String> m_Comments;
+
+    /** the number of rows. */
+    protected int m_NumRows;
+
+    /** the number of rows per group. */
+    protected int m_RowGroupSize;
+
+    /** the columns. */
+    protected Column[] m_Columns;
+
+    /** the file offsets of the blocks (row group, column). */
+    protected long[][] m_Offsets;
+
+    /** the stored lengths of the blocks (row group, column). */
+    protected int[][] m_Lengths;
+
+    /** the codecs of the blocks (row group, column). */
+    protected byte[][] m_Codecs;
+
+    /**
+     * Initializes the header.
+     *
+     * @param name	the name of the spreadsheet, can be null
+     * @param comments	the comments
+     * @param numRows	the number of rows
+     * @param rowGroupSize	the number of rows per group
+     * @param columns	the columns
+     */
+    public Header(String name, List<String> comments, int numRows, int rowGroupSize, Column[] columns) {
+      int	numGroups;
+
+      m_Name         = name;
+      m_Comments     = new ArrayList<>(comments);
+      m_NumRows      = numRows;
+      m_RowGroupSize = rowGroupSize;
+      m_Columns      = columns;
+      numGroups      = getNumRowGroups();
+      m_Offsets      = new long[numGroups][columns.length];
+      m_Lengths      = new int[numGroups][columns.length];
+      m_Codecs       = new byte[numGroups][columns.length];
+    }
+
+    /**
+     * Returns the name of the spreadsheet.
+     *
+     * @return		the name, null if none
+     */
+    public String getName() {
+      return m_Name;
+    }
+
+    /**
+     * Returns the comments.
+     *
+     * @return		the comments
+     */
+    public List<String> getComments() {
+      return m_Comments;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return		the number of rows
+     */
+    public int getNumRows() {
+      return m_NumRows;
+    }
+
+    /**
+     * Returns the number of rows per group.
+     *
+     * @return		the number of rows
+     */
+    public int getRowGroupSize() {
+      return m_RowGroupSize;
+    }
+
+    /**
+     * Returns the number of row groups.
+     *
+     * @return		the number of groups
+     */
+    public int getNumRowGroups() {
+      return (m_NumRows + m_RowGroupSize - 1) / m_RowGroupSize;
+    }
+
+    /**
+     * Returns the number of rows in the specified group.
+     *
+     * @param group	the row group
+     * @return		the number of rows
+     */
+    public int getNumRows(int group) {
+      return Math.min(m_RowGroupSize, m_NumRows - group * m_RowGroupSize);
+    }
+
+    /**
+     * Returns the columns.
+     *
+     * @return		the columns
+     */
+    public Column[] getColumns() {
+      return m_Columns;
+    }
+
+    /**
+     * Sets the location of a block.
+     *
+     * @param group	the row group
+     * @param column	the column
+     * @param offset	the offset in the file
+     * @param length	the stored length
+     * @param codec	the codec
+     */
+    public void setBlock(int group, int column, long offset, int length, byte codec) {
+      m_Offsets[group][column] = offset;
+      m_Lengths[group][column] = length;
+      m_Codecs[group][column]  = codec;
+    }
+
+    /**
+     * Returns the file offset of the block.
+     *
+     * @param group	the row group
+     * @param column	the column
+     * @return		the offset
+     */
+    public long getOffset(int group, int column) {
+      return m_Offsets[group][column];
+    }
+
+    /**
+     * Returns the stored length of the block.
+     *
+     * @param group	the row group
+     * @param column	the column
+     * @return		the length
+     */
+    public int getLength(int group, int column) {
+      return m_Lengths[group][column];
+    }
+
+    /**
+     * Returns the codec of the block.
+     *
+     * @param group	the row group
+     * @param column	the column
+     * @return		the codec
+     */
+    public byte getCodec(int group, int column) {
+      return m_Codecs[group][column];
+    }
+
+    /**
+     * Serializes the header.
+     *
+     * @return		the serialized header
+     * @throws IOException	if serialization fails
+     */
+    public byte[] toByteArray() throws IOException {
+      ByteArrayOutputStream	bytes;
+      DataOutputStream		out;
+      int			i;
+      int			n;
+
+      bytes = new ByteArrayOutputStream();
+      out   = new DataOutputStream(bytes);
+      out.writeBoolean(m_Name != null);
+      if (m_Name != null)
+	writeString(out, m_Name);
+      out.writeInt(m_Comments.size());
+      for (String comment: m_Comments)
+	writeString(out, comment);
+      out.writeInt(m_NumRows);
+      out.writeInt(m_RowGroupSize);
+      out.writeInt(m_Columns.length);
+      for (Column column: m_Columns) {
+	writeString(out, column.getName());
+	out.writeByte(column.getType().ordinal());
+	out.writeInt(column.getNumMissing());
+	out.writeDouble(column.getMin());
+	out.writeDouble(column.getMax());
+      }
+      for (i = 0; i < m_Offsets.length; i++) {
+	for (n = 0; n < m_Columns.length; n++) {
+	  out.writeLong(m_Offsets[i][n]);
+	  out.writeInt(m_Lengths[i][n]);
+	  out.writeByte(m_Codecs[i][n]);
+	}
+      }
+      out.flush();
+
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes the header.
+     *
+     * @param buffer	the buffer to read from
+     * @return		the header
+     */
+    public static Header fromByteBuffer(ByteBuffer buffer) {
+      Header		result;
+      String		name;
+      List<String>	comments;
+      int		numRows;
+      int		rowGroupSize;
+      Column[]		columns;
+      int		i;
+      int		n;
+
+      name     = (buffer.get() != 0) ? readString(buffer) : null;
+      n        = buffer.getInt();
+      comments = new ArrayList<>();
+      for (i = 0; i < n; i++)
+	comments.add(readString(buffer));
+      numRows      = buffer.getInt();
+      rowGroupSize = buffer.getInt();
+      columns      = new Column[buffer.getInt()];
+      for (i = 0; i < columns.length; i++)
+	columns[i] = new Column(readString(buffer), ColumnType.values()[buffer.get()], buffer.getInt(), buffer.getDouble(), buffer.getDouble());
+      result = new Header(name, comments, numRows, rowGroupSize, columns);
+      for (i = 0; i < result.getNumRowGroups(); i++) {
+	for (n = 0; n < columns.length; n++)
+	  result.setBlock(i, n, buffer.getLong(), buffer.getInt(), buffer.get());
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * The decoded values of a block.
+   */
+  public static class Block {
+
+    /** whether the values are missing. */
+    public boolean[] missing;
+
+    /** the numeric values (doubles are stored as raw long bits, dates as msecs). */
+    public long[] numbers;
+
+    /** the boolean values. */
+    public boolean[] booleans;
+
+    /** the string values. */
+    public String[] strings;
+
+    /** the cell types (mixed columns). */
+    public ContentType[] types;
+  }
+
+  /**
+   * Writes the string (length and UTF-8 bytes).
+   *
+   * @param out		the stream to write to
+   * @param s		the string to write
+   * @throws IOException	if writing fails
+   */
+  protected static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[]	bytes;
+
+    bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string (length and UTF-8 bytes).
+   *
+   * @param buffer	the buffer to read from
+   * @return		the string
+   */
+  protected static String readString(ByteBuffer buffer) {
+    byte[]	bytes;
+
+    bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks whether the cell is missing.
+   *
+   * @param row		the row to check
+   * @param col		the column of the cell
+   * @return		true if missing
+   */
+  protected static boolean isMissing(Row row, int col) {
+    Cell	cell;
+
+    if (!row.hasCell(col))
+      return true;
+    cell = row.getCell(col);
+    return (cell == null) || cell.isMissing();
+  }
+
+  /**
+   * Returns the cell value as long (doubles as raw long bits, dates as msecs).
+   *
+   * @param cell	the cell to get the value from
+   * @param type	the type of the column
+   * @return		the value
+   */
+  protected static long toNumber(Cell cell, ColumnType type) {
+    switch (type) {
+      case DOUBLE:
+	return Double.doubleToRawLongBits(cell.toDouble());
+      case LONG:
+	return cell.toLong();
+      default:
+	return cell.toAnyDateType().getTime();
+    }
+  }
+
+  /**
+   * Determines the meta-data of the column.
+   *
+   * @param sheet	the spreadsheet to analyze
+   * @param col		the column to analyze
+   * @return		the column meta-data
+   */
+  public static Column analyze(SpreadSheet sheet, int col) {
+    ContentType	type;
+    ContentType	current;
+    boolean	mixed;
+    int		missing;
+    double	min;
+    double	max;
+    double	value;
+    ColumnType	colType;
+    Cell	cell;
+
+    type    = null;
+    mixed   = false;
+    missing = 0;
+    for (Row row: sheet.rows()) {
+      if (isMissing(row, col)) {
+	missing++;
+	continue;
+      }
+      current = row.getCell(col).getContentType();
+      if (type == null)
+	type = current;
+      else if (type != current)
+	mixed = true;
+    }
+    if (mixed)
+      colType = ColumnType.MIXED;
+    else if (type == null)
+      colType = ColumnType.STRING;
+    else
+      colType = ColumnType.fromContentType(type);
+
+    min = Double.NaN;
+    max = Double.NaN;
+    if (colType.isNumeric()) {
+      for (Row row: sheet.rows()) {
+	if (isMissing(row, col))
+	  continue;
+	cell = row.getCell(col);
+	if (colType == ColumnType.DOUBLE)
+	  value = cell.toDouble();
+	else
+	  value = toNumber(cell, colType);
+	if (Double.isNaN(min) || (value < min))
+	  min = value;
+	if (Double.isNaN(max) || (value > max))
+	  max = value;
+      }
+    }
+
+    return new Column(sheet.getColumnName(col), colType, missing, min, max);
+  }
+
+  /**
+   * Encodes the cells of a column for the specified rows.
+   *
+   * @param sheet	the spreadsheet to encode
+   * @param col		the column to encode
+   * @param type	the type of the column
+   * @param from	the first row (incl)
+   * @param to		the last row (excl)
+   * @return		the encoded block
+   * @throws IOException	if encoding fails
+   */
+  public static byte[] encode(SpreadSheet sheet, int col, ColumnType type, int from, int to) throws IOException {
+    ByteArrayOutputStream	bytes;
+    DataOutputStream		out;
+    byte[]			missing;
+    int				i;
+    Row				row;
+    Cell			cell;
+
+    bytes   = new ByteArrayOutputStream();
+    out     = new DataOutputStream(bytes);
+    missing = new byte[(to - from + 7) / 8];
+    for (i = from; i < to; i++) {
+      if (isMissing(sheet.getRow(i), col))
+	missing[(i - from) / 8] |= (byte) (1 << ((i - from) % 8));
+    }
+    out.write(missing);
+
+    for (i = from; i < to; i++) {
+      row = sheet.getRow(i);
+      if (isMissing(row, col))
+	continue;
+      cell = row.getCell(col);
+      switch (type) {
+	case STRING:
+	  writeString(out, cell.getContent());
+	  break;
+	case BOOLEAN:
+	  out.writeBoolean(cell.toBoolean());
+	  break;
+	case MIXED:
+	  out.writeByte(cell.getContentType().ordinal());
+	  writeString(out, cell.getContent());
+	  break;
+	default:
+	  out.writeLong(toNumber(cell, type));
+      }
+    }
+    out.flush();
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Compresses the block.
+   *
+   * @param block	the block to compress
+   * @return		the compressed block, null if not smaller than the block
+   */
+  public static byte[] compress(byte[] block) {
+    Deflater			deflater;
+    ByteArrayOutputStream	bytes;
+    byte[]			buffer;
+    int				len;
+
+    deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(block);
+      deflater.finish();
+      bytes  = new ByteArrayOutputStream(block.length / 2 + 16);
+      buffer = new byte[8192];
+      while (!deflater.finished()) {
+	len = deflater.deflate(buffer);
+	bytes.write(buffer, 0, len);
+	if (bytes.size() >= block.length)
+	  return null;
+      }
+    }
+    finally {
+      deflater.end();
+    }
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads the header from the file.
+   *
+   * @param channel	the file to read from
+   * @return		the header
+   * @throws IOException	if reading fails or not the correct format
+   */
+  public static Header readHeader(FileChannel channel) throws IOException {
+    ByteBuffer	buffer;
+    int		version;
+
+    if (channel.size() < PREAMBLE_SIZE)
+      throw new IOException("File too short!");
+    buffer = channel.map(MapMode.READ_ONLY, 0, PREAMBLE_SIZE);
+    if (buffer.getInt() != MAGIC)
+      throw new IOException("Not a columnar spreadsheet file!");
+    version = buffer.getInt();
+    if (version != VERSION)
+      throw new IOException("Unsupported version: " + version);
+    buffer = channel.map(MapMode.READ_ONLY, PREAMBLE_SIZE, buffer.getInt());
+
+    return Header.fromByteBuffer(buffer);
+  }
+
+  /**
+   * Maps the block into memory and decodes it.
+   *
+   * @param channel	the file to read from
+   * @param header	the header of the file
+   * @param group	the row group
+   * @param col		the column
+   * @return		the decoded block
+   * @throws IOException	if reading or decompression fails
+   */
+  public static Block decode(FileChannel channel, Header header, int group, int col) throws IOException {
+    Block			result;
+    ByteBuffer			buffer;
+    Inflater			inflater;
+    ByteArrayOutputStream	bytes;
+    byte[]			raw;
+    byte[]			bits;
+    ColumnType			type;
+    int				numRows;
+    int				i;
+    int				len;
+
+    buffer = channel.map(MapMode.READ_ONLY, header.getOffset(group, col), header.getLength(group, col));
+    if (header.getCodec(group, col) == CODEC_DEFLATE) {
+      inflater = new Inflater();
+      try {
+	inflater.setInput(buffer);
+	bytes = new ByteArrayOutputStream(header.getLength(group, col) * 4);
+	raw   = new byte[8192];
+	while (!inflater.finished()) {
+	  len = inflater.inflate(raw);
+	  if ((len == 0) && inflater.needsInput())
+	    throw new IOException("Truncated block: group=" + group + ", column=" + col);
+	  bytes.write(raw, 0, len);
+	}
+	buffer = ByteBuffer.wrap(bytes.toByteArray());
+      }
+      catch (DataFormatException e) {
+	throw new IOException("Failed to decompress block: group=" + group + ", column=" + col, e);
+      }
+      finally {
+	inflater.end();
+      }
+    }
+
+    type    = header.getColumns()[col].getType();
+    numRows = header.getNumRows(group);
+    result  = new Block();
+    bits    = new byte[(numRows + 7) / 8];
+    buffer.get(bits);
+    result.missing = new boolean[numRows];
+    for (i = 0; i < numRows; i++)
+      result.missing[i] = (bits[i / 8] & (1 << (i % 8))) != 0;
+
+    switch (type) {
+      case STRING:
+	result.strings = new String[numRows];
+	break;
+      case BOOLEAN:
+	result.booleans = new boolean[numRows];
+	break;
+      case MIXED:
+	result.strings = new String[numRows];
+	result.types   = new ContentType[numRows];
+	break;
+      default:
+	result.numbers = new long[numRows];
+    }
+    for (i = 0; i < numRows; i++) {
+      if (result.missing[i])
+	continue;
+      switch (type) {
+	case STRING:
+	  result.strings[i] = readString(buffer);
+	  break;
+	case BOOLEAN:
+	  result.booleans[i] = (buffer.get() != 0);
+	  break;
+	case MIXED:
+	  result.types[i]   = ContentType.values()[buffer.get()];
+	  result.strings[i] = readString(buffer);
+	  break;
+	default:
+	  result.numbers[i] = buffer.getLong();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds the value from the block to the row (missing values get skipped).
+   *
+   * @param row		the row to add the cell to
+   * @param col		the column of the cell in the row
+   * @param type	the type of the column
+   * @param block	the block with the values
+   * @param index	the index of the value in the block
+   */
+  public static void setCell(Row row, int col, ColumnType type, Block block, int index) {
+    if (block.missing[index])
+      return;
+
+    switch (type) {
+      case STRING:
+	row.addCell(col).setContentAsString(block.strings[index]);
+	break;
+      case DOUBLE:
+	row.addCell(col).setContent(Double.longBitsToDouble(block.numbers[index]));
+	break;
+      case LONG:
+	row.addCell(col).setContent(block.numbers[index]);
+	break;
+      case BOOLEAN:
+	row.addCell(col).setContent(block.booleans[index]);
+	break;
+      case DATE:
+	row.addCell(col).setContent(new Date(block.numbers[index]));
+	break;
+      case DATETIME:
+	row.addCell(col).setContent(new DateTime(block.numbers[index]));
+	break;
+      case DATETIMEMSEC:
+	row.addCell(col).setContent(new DateTimeMsec(block.numbers[index]));
+	break;
+      case TIME:
+	row.addCell(col).setContent(new Time(block.numbers[index]));
+	break;
+      case TIMEMSEC:
+	row.addCell(col).setContent(new TimeMsec(block.numbers[index]));
+	break;
+      case MIXED:
+	if ((block.types[index] == ContentType.OBJECT) || (block.types[index] == ContentType.MISSING))
+	  row.addCell(col).setContentAsString(block.strings[index]);
+	else
+	  row.addCell(col).setContentAs(block.strings[index], block.types[index]);
+	break;
+      default:
+	throw new IllegalStateException("Unhandled column type: " + type);
+    }
+  }
+}
@@ -0,0 +1,498 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheetReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.Range;
+import adams.core.io.FileUtils;
+import adams.core.logging.LoggingHelper;
+import adams.data.io.ColumnarSpreadSheetFormat;
+import adams.data.io.ColumnarSpreadSheetFormat.Block;
+import adams.data.io.ColumnarSpreadSheetFormat.Column;
+import adams.data.io.ColumnarSpreadSheetFormat.Header;
+import adams.data.io.output.ColumnarSpreadSheetWriter;
+import adams.data.io.output.SpreadSheetWriter;
+import adams.data.spreadsheet.HeaderRow;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.env.Environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Reads spreadsheets in the binary columnar format (see adams.data.io.output.ColumnarSpreadSheetWriter).<br>
+ * Only the blocks of the selected columns and rows get mapped into memory and decoded, i.e., loading a subset of the data is cheap.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-data-row-type &lt;adams.data.spreadsheet.DataRow&gt; (property: dataRowType)
+ * &nbsp;&nbsp;&nbsp;The type of row to use for the data.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.spreadsheet.DenseDataRow
+ * </pre>
+ *
+ * <pre>-spreadsheet-type &lt;adams.data.spreadsheet.SpreadSheet&gt; (property: spreadSheetType)
+ * &nbsp;&nbsp;&nbsp;The type of spreadsheet to use for the data.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.spreadsheet.DefaultSpreadSheet
+ * </pre>
+ *
+ * <pre>-quiet &lt;boolean&gt; (property: quiet)
+ * &nbsp;&nbsp;&nbsp;If enabled, logging output in the spreadsheet is suppressed, e.g., from
+ * &nbsp;&nbsp;&nbsp;parsing errors of formulas.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-only-store-formulas &lt;boolean&gt; (property: onlyStoreFormulas)
+ * &nbsp;&nbsp;&nbsp;If enabled, formulas are only stored but never evaluated; useful for spreadsheets
+ * &nbsp;&nbsp;&nbsp;with unsupported functions in formulas.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-columns &lt;adams.core.Range&gt; (property: columns)
+ * &nbsp;&nbsp;&nbsp;The range of columns to load.
+ * &nbsp;&nbsp;&nbsp;default: first-last
+ * &nbsp;&nbsp;&nbsp;example: A range is a comma-separated list of single 1-based indices or sub-ranges of indices ('start-end'); 'inv(...)' inverts the range '...'; the following placeholders can be used as well: first, second, third, last_2, last_1, last
+ * </pre>
+ *
+ * <pre>-first-row &lt;int&gt; (property: firstRow)
+ * &nbsp;&nbsp;&nbsp;The index of the first row to retrieve (1-based).
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-num-rows &lt;int&gt; (property: numRows)
+ * &nbsp;&nbsp;&nbsp;The number of data rows to retrieve; use -1 for unlimited.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-chunk-size &lt;int&gt; (property: chunkSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of rows per chunk; using -1 will read put all data into
+ * &nbsp;&nbsp;&nbsp;a single spreadsheet object.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheetReader
+  extends AbstractSpreadSheetReader
+  implements WindowedSpreadSheetReader, ChunkedSpreadSheetReader {
+
+  private static final long serialVersionUID = -7236434985546931245L;
+
+  /** the columns to load. */
+  protected Range m_Columns;
+
+  /** the first row to retrieve (1-based). */
+  protected int m_FirstRow;
+
+  /** the number of rows to retrieve (less than 1 = unlimited). */
+  protected int m_NumRows;
+
+  /** the chunk size. */
+  protected int m_ChunkSize;
+
+  /** the file currently being read. */
+  protected transient FileChannel m_Channel;
+
+  /** the header of the file currently being read. */
+  protected Header m_Header;
+
+  /** the indices of the columns to load. */
+  protected int[] m_ColumnIndices;
+
+  /** the next row to read (0-based). */
+  protected int m_NextRow;
+
+  /** the row to stop at (0-based, excl). */
+  protected int m_EndRow;
+
+  /** the row group that is currently decoded. */
+  protected int m_Group;
+
+  /** the decoded blocks of the current row group. */
+  protected Block[] m_Blocks;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Reads spreadsheets in the binary columnar format (see "
+	+ ColumnarSpreadSheetWriter.class.getName() + ").\n"
+	+ "Only the blocks of the selected columns and rows get mapped into "
+	+ "memory and decoded, i.e., loading a subset of the data is cheap.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "columns", "columns",
+      new Range(Range.ALL));
+
+    m_OptionManager.add(
+      "first-row", "firstRow",
+      1, 1, null);
+
+    m_OptionManager.add(
+      "num-rows", "numRows",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "chunk-size", "chunkSize",
+      -1, -1, null);
+  }
+
+  /**
+   * Sets the range of columns to load.
+   *
+   * @param value	the range
+   */
+  public void setColumns(Range value) {
+    m_Columns = value;
+    reset();
+  }
+
+  /**
+   * Returns the range of columns to load.
+   *
+   * @return		the range
+   */
+  public Range getColumns() {
+    return m_Columns;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String columnsTipText() {
+    return "The range of columns to load.";
+  }
+
+  /**
+   * Sets the first row to return.
+   *
+   * @param value	the first row (1-based)
+   */
+  public void setFirstRow(int value) {
+    if (getOptionManager().isValid("firstRow", value)) {
+      m_FirstRow = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the first row to return.
+   *
+   * @return		the first row (1-based)
+   */
+  public int getFirstRow() {
+    return m_FirstRow;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String firstRowTipText() {
+    return "The index of the first row to retrieve (1-based).";
+  }
+
+  /**
+   * Sets the number of data rows to return.
+   *
+   * @param value	the number of rows, -1 for unlimited
+   */
+  public void setNumRows(int value) {
+    if (value < 0)
+      m_NumRows = -1;
+    else
+      m_NumRows = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of data rows to return.
+   *
+   * @return		the number of rows, -1 for unlimited
+   */
+  public int getNumRows() {
+    return m_NumRows;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numRowsTipText() {
+    return "The number of data rows to retrieve; use -1 for unlimited.";
+  }
+
+  /**
+   * Sets the maximum chunk size.
+   *
+   * @param value	the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public void setChunkSize(int value) {
+    if (value < 1)
+      value = -1;
+    m_ChunkSize = value;
+    reset();
+  }
+
+  /**
+   * Returns the current chunk size.
+   *
+   * @return	the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public int getChunkSize() {
+    return m_ChunkSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  @Override
+  public String chunkSizeTipText() {
+    return "The maximum number of rows per chunk; using -1 will read put all data into a single spreadsheet object.";
+  }
+
+  /**
+   * Returns a string describing the format (used in the file chooser).
+   *
+   * @return 			a description suitable for displaying in the
+   * 				file chooser
+   */
+  @Override
+  public String getFormatDescription() {
+    return "Columnar spreadsheet (binary)";
+  }
+
+  /**
+   * Returns the extension(s) of the format.
+   *
+   * @return 			the extension (without the dot!)
+   */
+  @Override
+  public String[] getFormatExtensions() {
+    return new String[]{ColumnarSpreadSheetFormat.FILE_EXTENSION};
+  }
+
+  /**
+   * Returns, if available, the corresponding writer.
+   *
+   * @return		the writer, null if none available
+   */
+  public SpreadSheetWriter getCorrespondingWriter() {
+    return new ColumnarSpreadSheetWriter();
+  }
+
+  /**
+   * Returns how to read the data, from a file, stream or reader.
+   *
+   * @return		how to read the data
+   */
+  @Override
+  protected InputType getInputType() {
+    return InputType.FILE;
+  }
+
+  /**
+   * Closes the file, if still open.
+   */
+  protected void close() {
+    if (m_Channel != null) {
+      FileUtils.closeQuietly(m_Channel);
+      m_Channel = null;
+    }
+    m_Blocks = null;
+  }
+
+  /**
+   * Returns the header of the file that is currently being read.
+   *
+   * @return		the header, null if no file read yet
+   */
+  public Header getHeader() {
+    return m_Header;
+  }
+
+  /**
+   * Performs the actual reading.
+   *
+   * @param file	the file to read from
+   * @return		the spreadsheet or null in case of an error
+   */
+  @Override
+  protected SpreadSheet doRead(File file) {
+    close();
+    try {
+      m_Channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      m_Header  = ColumnarSpreadSheetFormat.readHeader(m_Channel);
+    }
+    catch (Exception e) {
+      close();
+      getLogger().log(Level.SEVERE, "Failed to read header: " + file, e);
+      setLastError("Failed to read header: " + file + "\n" + LoggingHelper.throwableToString(e));
+      return null;
+    }
+
+    m_Columns.setMax(m_Header.getColumns().length);
+    m_ColumnIndices = m_Columns.getIntIndices();
+    m_NextRow       = Math.min(m_FirstRow - 1, m_Header.getNumRows());
+    if (m_NumRows == -1)
+      m_EndRow = m_Header.getNumRows();
+    else
+      m_EndRow = (int) Math.min((long) m_NextRow + m_NumRows, m_Header.getNumRows());
+    m_Group = -1;
+
+    return nextChunk();
+  }
+
+  /**
+   * Decodes the blocks of the selected columns for the row group.
+   *
+   * @param group	the row group
+   * @throws IOException	if reading fails
+   */
+  protected void decodeGroup(int group) throws IOException {
+    int		i;
+
+    m_Blocks = new Block[m_ColumnIndices.length];
+    for (i = 0; i < m_ColumnIndices.length; i++)
+      m_Blocks[i] = ColumnarSpreadSheetFormat.decode(m_Channel, m_Header, group, m_ColumnIndices[i]);
+    m_Group = group;
+  }
+
+  /**
+   * Checks whether there is more data to read.
+   *
+   * @return		true if there is more data available
+   */
+  @Override
+  public boolean hasMoreChunks() {
+    return (m_Channel != null) && (m_NextRow < m_EndRow);
+  }
+
+  /**
+   * Returns the next chunk.
+   *
+   * @return		the next chunk, null if no more data or failed to read
+   */
+  @Override
+  public SpreadSheet nextChunk() {
+    SpreadSheet		result;
+    HeaderRow		header;
+    Row			row;
+    Column[]		columns;
+    int			end;
+    int			group;
+    int			index;
+    int			i;
+
+    if (m_Channel == null)
+      return null;
+
+    result = getSpreadSheetType().newInstance();
+    result.setDataRowClass(getDataRowType().getClass());
+    if (m_Header.getName() != null)
+      result.setName(m_Header.getName());
+    result.addComment(m_Header.getComments());
+    columns = m_Header.getColumns();
+    header  = result.getHeaderRow();
+    for (i = 0; i < m_ColumnIndices.length; i++)
+      header.addCell("" + i).setContentAsString(columns[m_ColumnIndices[i]].getName());
+
+    if (m_ChunkSize > 0)
+      end = Math.min(m_EndRow, m_NextRow + m_ChunkSize);
+    else
+      end = m_EndRow;
+
+    try {
+      while ((m_NextRow < end) && !m_Stopped) {
+	group = m_NextRow / m_Header.getRowGroupSize();
+	if (group != m_Group)
+	  decodeGroup(group);
+	index = m_NextRow - group * m_Header.getRowGroupSize();
+	row   = result.addRow();
+	for (i = 0; i < m_ColumnIndices.length; i++)
+	  ColumnarSpreadSheetFormat.setCell(row, i, columns[m_ColumnIndices[i]].getType(), m_Blocks[i], index);
+	m_NextRow++;
+      }
+    }
+    catch (Exception e) {
+      result = null;
+      getLogger().log(Level.SEVERE, "Failed to read data!", e);
+      setLastError("Failed to read data!\n" + LoggingHelper.throwableToString(e));
+      close();
+    }
+
+    if (m_Stopped || !hasMoreChunks())
+      close();
+
+    return result;
+  }
+
+  /**
+   * Runs the reader from the command-line.
+   *
+   * Use the option {@link #OPTION_INPUT} to specify the input file.
+   * If the option {@link #OPTION_OUTPUT} is specified then the read sheet
+   * gets output as .csv files in that directory.
+   *
+   * @param args	the command-line options to use
+   */
+  public static void main(String[] args) {
+    runReader(Environment.class, ColumnarSpreadSheetReader.class, args);
+  }
+}
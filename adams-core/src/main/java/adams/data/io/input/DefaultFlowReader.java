@@ -15,7 +15,7 @@
 
 /*
  * DefaultFlowReader.java
- * Copyright (C) 2013-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.io.input;
 
@@ -59,6 +59,12 @@ public class DefaultFlowReader
   /** the encoding to use. */
   protected BaseCharset m_Encoding;
 
+  /** the time in msec spent on loading and parsing the flow data. */
+  protected long m_ParseTime;
+
+  /** the time in msec spent on instantiating the actors and setting their options. */
+  protected long m_InstantiationTime;
+
   /**
    * Returns a string describing the object.
    *
@@ -141,6 +147,37 @@ public class DefaultFlowReader
     return "The type of encoding to use when reading the file, use empty string for default.";
   }
 
+  /**
+   * Resets the messages and timings.
+   */
+  @Override
+  protected void check() {
+    super.check();
+    m_ParseTime         = 0;
+    m_InstantiationTime = 0;
+  }
+
+  /**
+   * Returns the time spent on loading and parsing the flow data during the
+   * last read.
+   *
+   * @return		the time in msec
+   */
+  public long getParseTime() {
+    return m_ParseTime;
+  }
+
+  /**
+   * Returns the time spent on instantiating the actors and setting their
+   * options during the last read. For the non-compact format, this includes
+   * the parsing of the nested format.
+   *
+   * @return		the time in msec
+   */
+  public long getInstantiationTime() {
+    return m_InstantiationTime;
+  }
+
   /**
    * Determines whether the file is in compact format or not.
    *
@@ -205,6 +242,7 @@ public class DefaultFlowReader
     Actor		result;
     NestedConsumer	consumer;
     String		msg;
+    long		start;
 
     msg = NestedFormatHelper.checkModules(NestedFormatHelper.getModules(lines));
     if (msg != null)
@@ -214,7 +252,9 @@ public class DefaultFlowReader
     consumer.setEncoding(m_Encoding);
     consumer.setQuiet(m_Quiet);
     Utils.removeComments(lines, NestedProducer.COMMENT);
+    start  = System.currentTimeMillis();
     result = (Actor) consumer.fromString(Utils.flatten(lines, "\n"));
+    m_InstantiationTime += System.currentTimeMillis() - start;
 
     // transfer errors/warnings
     m_Errors.addAll(consumer.getErrors());
@@ -346,13 +386,17 @@ public class DefaultFlowReader
     List		nested;
     List		list;
     CompactFlowConsumer	compact;
+    long		start;
 
     if (isCompact(lines)) {
       msg = NestedFormatHelper.checkModules(NestedFormatHelper.getModules(lines));
       if (msg != null)
         addWarning(msg);
       Utils.removeComments(lines, NestedProducer.COMMENT);
-      nested = NestedFormatHelper.linesToNested(lines, ' ');
+      start       = System.currentTimeMillis();
+      nested      = NestedFormatHelper.linesToNested(lines, ' ');
+      m_ParseTime += System.currentTimeMillis() - start;
+      start       = System.currentTimeMillis();
       try {
 	result = (Actor) OptionUtils.forCommandLine(Actor.class, ((Line) nested.get(0)).getContent(), m_Warnings, m_Errors, true);
 	nested.remove(0);
@@ -368,6 +412,7 @@ public class DefaultFlowReader
       compact = new CompactFlowConsumer();
       compact.setQuiet(m_Quiet);
       result  = (Actor) compact.consume(result, list);
+      m_InstantiationTime += System.currentTimeMillis() - start;
       if (compact.hasErrors())
         m_Errors.addAll(compact.getErrors());
     }
@@ -389,7 +434,9 @@ public class DefaultFlowReader
     List<String>	lines;
     String		line;
     BufferedReader 	reader;
+    long		start;
 
+    start = System.currentTimeMillis();
     lines = new ArrayList<>();
     if (r instanceof BufferedReader)
       reader = (BufferedReader) r;
@@ -404,6 +451,7 @@ public class DefaultFlowReader
       m_Errors.add("Failed to read data from reader:\n" + LoggingHelper.throwableToString(e));
       return null;
     }
+    m_ParseTime += System.currentTimeMillis() - start;
 
     return readActor(lines);
   }
@@ -429,9 +477,14 @@ public class DefaultFlowReader
   protected Actor doReadActor(File file) {
     Actor		result;
     List<String>	lines;
-
-    lines = new ArrayList<>();
-    if (isCompact(file, lines))
+    boolean		compact;
+    long		start;
+
+    start       = System.currentTimeMillis();
+    lines       = new ArrayList<>();
+    compact     = isCompact(file, lines);
+    m_ParseTime += System.currentTimeMillis() - start;
+    if (compact)
       result = readActor(lines);
     else
       result = readNonCompact(lines);
@@ -15,12 +15,14 @@
 
 /*
  * FastCsvSpreadSheetReader.java
- * Copyright (C) 2019-2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input;
 
+import adams.core.Performance;
 import adams.core.Range;
+import adams.core.ThreadLimiter;
 import adams.core.Utils;
 import adams.core.base.BaseRegExp;
 import adams.core.logging.LoggingHelper;
@@ -33,11 +35,26 @@ import adams.data.spreadsheet.SpreadSheetUtils;
 import adams.env.Environment;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -48,7 +65,8 @@ import java.util.regex.Pattern;
  */
 public class FastCsvSpreadSheetReader
   extends AbstractSpreadSheetReaderWithMissingValueSupport
-  implements WindowedSpreadSheetReader, NoHeaderSpreadSheetReader, ChunkedSpreadSheetReader {
+  implements WindowedSpreadSheetReader, NoHeaderSpreadSheetReader, ChunkedSpreadSheetReader,
+  ThreadLimiter {
 
   private static final long serialVersionUID = -3348397672538189709L;
 
@@ -151,7 +169,6 @@ public class FastCsvSpreadSheetReader
       char		quote;
       String		line;
       String[]		cells;
-      List<String> 	hcells;
       String		cell;
       boolean		header;
       int		i;
@@ -194,29 +211,9 @@ public class FastCsvSpreadSheetReader
 	  cells = SpreadSheetUtils.split(line, sep, true, quote, false);
 	  if (header) {
 	    header   = false;
-	    row      = result.getHeaderRow();
 	    numCells = cells.length;
-	    if (m_NoHeader) {
-	      hcells = SpreadSheetUtils.createHeader(numCells, m_CustomColumnHeaders);
-	    }
-	    else {
-	      if (m_CustomColumnHeaders.isEmpty())
-		hcells = new ArrayList<>(Arrays.asList(cells));
-	      else
-		hcells = SpreadSheetUtils.createHeader(numCells, m_CustomColumnHeaders);
+	    if (!initHeader(result, cells))
 	      cells = null;
-	    }
-	    for (i = 0; i < hcells.size(); i++) {
-	      cell = hcells.get(i);
-	      if (m_Trim && !cell.isEmpty())
-		cell = cell.trim();
-	      row.addCell("" + i).setContentAsString(cell);
-	    }
-	    m_NumericColumns.setMax(numCells);
-	    m_NumericCols = new boolean[result.getColumnCount()];
-	    for (int index: m_NumericColumns.getIntIndices())
-	      m_NumericCols[index] = true;
-	    m_Header = result.getHeader();
 	  }
 
 	  // add data row
@@ -271,6 +268,59 @@ public class FastCsvSpreadSheetReader
      * @return		the spreadsheet or null in case of an error
      */
     public SpreadSheet read(Reader r) {
+      configure();
+
+      if (r instanceof BufferedReader)
+	m_Reader = (BufferedReader) r;
+      else
+	m_Reader = new BufferedReader(r);
+
+      return next();
+    }
+
+    /**
+     * Initializes the header of the spreadsheet from the cells of the first
+     * row.
+     *
+     * @param result	the spreadsheet to initialize
+     * @param cells	the cells of the first row
+     * @return		true if the cells represent a data row as well
+     */
+    protected boolean initHeader(SpreadSheet result, String[] cells) {
+      Row		row;
+      List<String> 	hcells;
+      String		cell;
+      int		i;
+
+      row = result.getHeaderRow();
+      if (m_NoHeader) {
+	hcells = SpreadSheetUtils.createHeader(cells.length, m_CustomColumnHeaders);
+      }
+      else {
+	if (m_CustomColumnHeaders.isEmpty())
+	  hcells = new ArrayList<>(Arrays.asList(cells));
+	else
+	  hcells = SpreadSheetUtils.createHeader(cells.length, m_CustomColumnHeaders);
+      }
+      for (i = 0; i < hcells.size(); i++) {
+	cell = hcells.get(i);
+	if (m_Trim && !cell.isEmpty())
+	  cell = cell.trim();
+	row.addCell("" + i).setContentAsString(cell);
+      }
+      m_NumericColumns.setMax(cells.length);
+      m_NumericCols = new boolean[result.getColumnCount()];
+      for (int index: m_NumericColumns.getIntIndices())
+	m_NumericCols[index] = true;
+      m_Header = result.getHeader();
+
+      return m_NoHeader;
+    }
+
+    /**
+     * Copies the parameters from the owner.
+     */
+    protected void configure() {
       m_MissingValue        = m_Owner.getMissingValue();
       m_QuoteCharacter      = m_Owner.getQuoteCharacter();
       m_Separator           = m_Owner.getSeparator();
@@ -282,11 +332,475 @@ public class FastCsvSpreadSheetReader
       m_NumRows             = m_Owner.getNumRows();
       m_ChunkSize           = m_Owner.getChunkSize();
       m_RowCount            = 0;
+    }
+  }
 
-      if (r instanceof BufferedReader)
-	m_Reader = (BufferedReader) r;
-      else
-	m_Reader = new BufferedReader(r);
+  /**
+   * Reads CSV files using memory-mapping: the data gets split into byte
+   * ranges at line breaks, which get split and typed in parallel and then
+   * merged in order, chunk by chunk. Like the line-based reader, quoted
+   * cells cannot span multiple lines, i.e., every line break ends a record.
+   *
+   * @author  fracpete (fracpete at waikato dot ac dot nz)
+   */
+  public static class ParallelChunkReader
+    extends ChunkReader {
+
+    private static final long serialVersionUID = -5211542908437417012L;
+
+    /** the minimum size of a segment in bytes. */
+    public final static int MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    /** the maximum size of a segment in bytes. */
+    public final static int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** the marker for cells that are present, but missing. */
+    protected final static Object MISSING = new Object();
+
+    /** the number of threads to use. */
+    protected int m_NumThreads;
+
+    /** the charset to use. */
+    protected transient Charset m_Charset;
+
+    /** the channel in use. */
+    protected transient FileChannel m_Channel;
+
+    /** the thread pool in use. */
+    protected transient ForkJoinPool m_Pool;
+
+    /** the segments being parsed. */
+    protected transient Deque<ForkJoinTask<List<Object[]>>> m_Pending;
+
+    /** the segment boundaries (start positions, plus file size). */
+    protected long[] m_Boundaries;
+
+    /** the next segment to parse. */
+    protected int m_NextSegment;
+
+    /** the rows of the current segment. */
+    protected List<Object[]> m_Current;
+
+    /** the index of the next row in the current segment. */
+    protected int m_CurrentIndex;
+
+    /** the number of rows at the start that don't get counted. */
+    protected int m_Uncounted;
+
+    /** the missing value pattern. */
+    protected Pattern m_Missing;
+
+    /** the locale for parsing numbers. */
+    protected Locale m_Locale;
+
+    /** the separator. */
+    protected char m_Sep;
+
+    /** the quote character. */
+    protected char m_Quote;
+
+    /**
+     * Initializes the low-level reader.
+     *
+     * @param owner		the owning reader
+     * @param numThreads	the number of threads to use
+     * @param charset		the charset to use
+     */
+    public ParallelChunkReader(FastCsvSpreadSheetReader owner, int numThreads, Charset charset) {
+      super(owner);
+      m_NumThreads = numThreads;
+      m_Charset    = charset;
+    }
+
+    /**
+     * Returns whether line breaks and quotes can be located in the raw bytes,
+     * i.e., whether the charset encodes ASCII characters as single bytes that
+     * don't occur within multi-byte sequences.
+     *
+     * @param charset	the charset to check
+     * @return		true if the bytes can be split
+     */
+    public static boolean isByteSplittable(Charset charset) {
+      String	ascii;
+
+      if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1))
+	return true;
+      if (!charset.canEncode() || (charset.newEncoder().maxBytesPerChar() != 1.0f))
+	return false;
+      ascii = "\n\r\"',;\t";
+      return Arrays.equals(ascii.getBytes(charset), ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Closes the reader.
+     */
+    @Override
+    protected void close() {
+      if (m_Pool != null) {
+	m_Pool.shutdownNow();
+	m_Pool = null;
+      }
+      if (m_Pending != null)
+	m_Pending.clear();
+      m_Current = null;
+      if (m_Channel != null) {
+	try {
+	  m_Channel.close();
+	}
+	catch (Exception e) {
+	  m_Owner.getLogger().log(Level.SEVERE, "Failed to close file!", e);
+	}
+	m_Channel = null;
+      }
+    }
+
+    /**
+     * Returns whether there is more data to be read.
+     *
+     * @return		true if more data available
+     */
+    @Override
+    public boolean hasNext() {
+      return (m_Channel != null);
+    }
+
+    /**
+     * Maps the specified range of the file.
+     *
+     * @param start	the start position
+     * @param end	the end position (excluded)
+     * @return		the buffer
+     * @throws IOException	if mapping fails
+     */
+    protected MappedByteBuffer map(long start, long end) throws IOException {
+      return m_Channel.map(MapMode.READ_ONLY, start, Math.min(end - start, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Locates the start of the next record, i.e., the position after the
+     * first line break.
+     *
+     * @param start	the position to start the search from
+     * @return		the position, the file size if none found
+     * @throws IOException	if mapping fails
+     */
+    protected long findRecordStart(long start) throws IOException {
+      MappedByteBuffer	buffer;
+      long		size;
+      int		i;
+      int		len;
+      byte		b;
+
+      size = m_Channel.size();
+      while (start < size) {
+	buffer = map(start, Math.min(size, start + MAX_SEGMENT_SIZE));
+	len    = buffer.limit();
+	for (i = 0; i < len; i++) {
+	  b = buffer.get(i);
+	  if ((b == '\n') || (b == '\r'))
+	    return start + i + 1;
+	}
+	start += len;
+      }
+
+      return size;
+    }
+
+    /**
+     * Determines the segment boundaries, starting at the specified position.
+     *
+     * @param start	the start of the data
+     * @throws Exception	if determining fails
+     */
+    protected void initBoundaries(long start) throws Exception {
+      List<Long>	boundaries;
+      long		size;
+      long		segSize;
+      int		numSegs;
+      long		pos;
+      int		i;
+
+      size    = m_Channel.size();
+      segSize = Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, (size - start) / (m_NumThreads * 4L)));
+      numSegs = (int) Math.max(1, (size - start + segSize - 1) / segSize);
+
+      boundaries = new ArrayList<>();
+      boundaries.add(start);
+      for (i = 1; i < numSegs; i++) {
+	pos = findRecordStart(start + i * segSize);
+	if ((pos > boundaries.get(boundaries.size() - 1)) && (pos < size))
+	  boundaries.add(pos);
+      }
+      boundaries.add(size);
+
+      m_Boundaries = new long[boundaries.size()];
+      for (i = 0; i < boundaries.size(); i++)
+	m_Boundaries[i] = boundaries.get(i);
+
+      if (m_Owner.isLoggingEnabled())
+	m_Owner.getLogger().info("Segments: " + (m_Boundaries.length - 1) + ", threads: " + m_NumThreads);
+    }
+
+    /**
+     * Splits the line and types the cells.
+     *
+     * @param line	the line to parse
+     * @return		the cells: null if not present, {@link #MISSING} if
+     * 			missing, otherwise Double or String
+     */
+    protected Object[] parseLine(String line) {
+      Object[]	result;
+      String[]	cells;
+      String	cell;
+      int	i;
+
+      cells  = SpreadSheetUtils.split(line, m_Sep, true, m_Quote, false);
+      result = new Object[cells.length];
+      for (i = 0; i < cells.length; i++) {
+	cell = cells[i];
+	if (m_Trim && !cell.isEmpty())
+	  cell = cell.trim();
+	if (m_Missing.matcher(cell).matches()) {
+	  result[i] = null;
+	}
+	else if ((i < m_NumericCols.length) && m_NumericCols[i]) {
+	  if (Utils.isDouble(cell, m_Locale)) {
+	    try {
+	      result[i] = Double.valueOf(cell);
+	    }
+	    catch (NumberFormatException e) {
+	      // let the cell parse it
+	      result[i] = cell;
+	    }
+	  }
+	  else {
+	    result[i] = MISSING;
+	  }
+	}
+	else {
+	  result[i] = cell;
+	}
+      }
+
+      return result;
+    }
+
+    /**
+     * Parses the specified segment.
+     *
+     * @param start	the start position
+     * @param end	the end position (excluded)
+     * @return		the parsed (non-empty) lines
+     * @throws IOException	if mapping fails
+     */
+    protected List<Object[]> parseSegment(long start, long end) throws IOException {
+      List<Object[]>	result;
+      CharBuffer	chars;
+      int		len;
+      int		lineStart;
+      int		i;
+      char		c;
+
+      chars = m_Charset.newDecoder()
+		.onMalformedInput(CodingErrorAction.REPLACE)
+		.onUnmappableCharacter(CodingErrorAction.REPLACE)
+		.decode(map(start, end));
+      result    = new ArrayList<>();
+      len       = chars.length();
+      lineStart = 0;
+      for (i = 0; i <= len; i++) {
+	c = (i < len) ? chars.get(i) : '\n';
+	if ((c == '\n') || (c == '\r')) {
+	  if (i > lineStart)
+	    result.add(parseLine(chars.subSequence(lineStart, i).toString()));
+	  if ((c == '\r') && (i + 1 < len) && (chars.get(i + 1) == '\n'))
+	    i++;
+	  lineStart = i + 1;
+	}
+      }
+
+      return result;
+    }
+
+    /**
+     * Returns the rows of the next segment, keeping the thread pool busy
+     * with parsing the subsequent ones.
+     *
+     * @return		the rows, null if no more segments
+     * @throws Exception	if parsing failed
+     */
+    protected List<Object[]> nextSegment() throws Exception {
+      while ((m_Pending.size() < m_NumThreads * 2) && (m_NextSegment < m_Boundaries.length - 1)) {
+	final long start = m_Boundaries[m_NextSegment];
+	final long end   = m_Boundaries[m_NextSegment + 1];
+	m_Pending.add(m_Pool.submit(() -> parseSegment(start, end)));
+	m_NextSegment++;
+      }
+      if (m_Pending.isEmpty())
+	return null;
+      return m_Pending.poll().get();
+    }
+
+    /**
+     * Adds the parsed cells as new row to the spreadsheet.
+     *
+     * @param sheet	the spreadsheet to add to
+     * @param cells	the parsed cells
+     */
+    protected void addRow(SpreadSheet sheet, Object[] cells) {
+      Row	row;
+      Object	cell;
+      int	numCells;
+      int	i;
+
+      row      = sheet.addRow();
+      numCells = sheet.getColumnCount();
+      for (i = 0; i < cells.length && i < numCells; i++) {
+	cell = cells[i];
+	if (cell == null)
+	  continue;
+	if (cell == MISSING)
+	  row.addCell(i).setMissing();
+	else if (cell instanceof Double)
+	  row.addCell(i).setContent((Double) cell);
+	else if (m_NumericCols[i])
+	  row.addCell(i).setContentAs((String) cell, ContentType.DOUBLE);
+	else
+	  row.addCell(i).setContentAsString((String) cell);
+      }
+    }
+
+    /**
+     * Reads the next chunk.
+     *
+     * @return		the next chunk
+     */
+    @Override
+    public SpreadSheet next() {
+      SpreadSheet	result;
+      Object[]		cells;
+
+      result = m_Header.getHeader();
+
+      try {
+	while (!m_Owner.isStopped()) {
+	  if ((m_Current == null) || (m_CurrentIndex >= m_Current.size())) {
+	    m_Current      = nextSegment();
+	    m_CurrentIndex = 0;
+	    if (m_Current == null) {
+	      close();
+	      break;
+	    }
+	    continue;
+	  }
+	  cells = m_Current.get(m_CurrentIndex++);
+
+	  // skip row?
+	  if (m_Uncounted > 0) {
+	    m_Uncounted--;
+	  }
+	  else {
+	    m_RowCount++;
+	    if (m_RowCount < m_FirstRow)
+	      continue;
+	  }
+
+	  addRow(result, cells);
+
+	  // all lines read?
+	  if (m_NumRows > -1) {
+	    if (m_RowCount >= m_FirstRow + m_NumRows - 1) {
+	      close();
+	      break;
+	    }
+	  }
+
+	  // chunk limit reached?
+	  if ((m_ChunkSize > 0) && (result.getRowCount() == m_ChunkSize))
+	    break;
+	}
+	if (m_Owner.isStopped())
+	  close();
+      }
+      catch (Exception e) {
+	close();
+	result = null;
+	m_Owner.getLogger().log(Level.SEVERE, "Failed to read data!", e);
+	m_Owner.setLastError("Failed to read data!\n" + LoggingHelper.throwableToString(e));
+      }
+
+      return result;
+    }
+
+    /**
+     * Reads the spreadsheet content from the specified file.
+     *
+     * @param file	the file to read from
+     * @return		the spreadsheet or null in case of an error
+     * @throws Exception	if reading of header fails
+     */
+    public SpreadSheet read(File file) throws Exception {
+      MappedByteBuffer	buffer;
+      long		size;
+      long		start;
+      long		end;
+      int		len;
+      int		i;
+      String		line;
+      String[]		cells;
+      SpreadSheet	header;
+      boolean		noHeader;
+
+      configure();
+      m_Missing      = m_MissingValue.patternValue();
+      m_Sep          = (m_Separator.length() == 1 ? m_Separator.charAt(0) : ',');
+      m_Quote        = (m_QuoteCharacter.length() == 1 ? m_QuoteCharacter.charAt(0) : '\0');
+      m_Channel      = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      m_Pending      = new ArrayDeque<>();
+      m_Current      = null;
+      m_CurrentIndex = 0;
+      m_NextSegment  = 0;
+      m_Uncounted    = 0;
+
+      try {
+	// header: first non-empty line
+	size   = m_Channel.size();
+	buffer = map(0, size);
+	len    = buffer.limit();
+	i      = 0;
+	while ((i < len) && ((buffer.get(i) == '\n') || (buffer.get(i) == '\r')))
+	  i++;
+	start = i;
+	while ((i < len) && (buffer.get(i) != '\n') && (buffer.get(i) != '\r'))
+	  i++;
+	end = i;
+	if ((i < len) && (buffer.get(i) == '\r'))
+	  i++;
+	if ((i < len) && (buffer.get(i) == '\n'))
+	  i++;
+	header = m_Owner.getSpreadSheetType().newInstance();
+	if (start == end) {
+	  close();
+	  return header;
+	}
+	buffer.position((int) start);
+	buffer.limit((int) end);
+	line = m_Charset.decode(buffer).toString();
+	cells = SpreadSheetUtils.split(line, m_Sep, true, m_Quote, false);
+	noHeader = initHeader(header, cells);
+	m_Locale = m_Header.getLocale();
+	if (noHeader) {
+	  m_Current   = new ArrayList<>();
+	  m_Current.add(parseLine(line));
+	  m_Uncounted = 1;
+	}
+	m_Pool = new ForkJoinPool(m_NumThreads);
+	initBoundaries(i);
+      }
+      catch (Exception e) {
+	close();
+	throw e;
+      }
 
       return next();
     }
@@ -319,6 +833,9 @@ public class FastCsvSpreadSheetReader
   /** the chunk size to use. */
   protected int m_ChunkSize;
 
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   /** the low-level reader. */
   protected ChunkReader m_Reader;
 
@@ -331,7 +848,10 @@ public class FastCsvSpreadSheetReader
   public String globalInfo() {
     return "Simplified CSV spreadsheet reader for loading large files.\n"
       + "By default assumes that cells are text, numeric columns have to be explicitly specified.\n"
-      + "Assumes English locale for numbers, ie decimal point.";
+      + "Assumes English locale for numbers, ie decimal point.\n"
+      + "When using more than one thread, uncompressed files get memory-mapped and split "
+      + "into byte ranges at record boundaries, which get parsed in parallel and merged "
+      + "in order (also when reading in chunks).";
   }
 
   /**
@@ -376,6 +896,10 @@ public class FastCsvSpreadSheetReader
     m_OptionManager.add(
       "chunk-size", "chunkSize",
       -1, -1, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
   }
 
   /**
@@ -659,6 +1183,35 @@ public class FastCsvSpreadSheetReader
     return "The maximum number of rows per chunk; using -1 will read put all data into a single spreadsheet object.";
   }
 
+  /**
+   * Sets the number of threads to use for parsing.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for parsing.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + " Using more than one thread requires an uncompressed file and a charset that encodes ASCII characters as single bytes (eg UTF-8).";
+  }
+
   /**
    * Returns a string describing the format (used in the file chooser).
    *
@@ -710,6 +1263,50 @@ public class FastCsvSpreadSheetReader
     return true;
   }
 
+  /**
+   * Reads the spreadsheet from the given file. Uses the memory-mapped,
+   * parallel reader if more than one thread is to be used and the file is
+   * suitable (uncompressed, ASCII-compatible charset).
+   *
+   * @param filename	the file to read from
+   * @return		the spreadsheet or null in case of an error
+   */
+  @Override
+  public SpreadSheet read(String filename) {
+    SpreadSheet	result;
+    int		numThreads;
+    File	file;
+    Charset	charset;
+
+    numThreads = Performance.determineNumThreads(m_NumThreads);
+    file       = new File(filename);
+    charset    = (m_Encoding != null) ? getEncoding().charsetValue() : Charset.defaultCharset();
+    if ((numThreads < 2)
+      || canDecompress(filename)
+      || (file.length() < ParallelChunkReader.MIN_SEGMENT_SIZE)
+      || !ParallelChunkReader.isByteSplittable(charset))
+      return super.read(filename);
+
+    check();
+
+    m_LastError = null;
+    m_Stopped   = false;
+    try {
+      m_Reader = new ParallelChunkReader(this, numThreads, charset);
+      result   = ((ParallelChunkReader) m_Reader).read(file);
+    }
+    catch (Throwable e) {
+      result = null;
+      m_LastError = "Failed to read '" + filename + "'!\n" + LoggingHelper.throwableToString(e);
+      getLogger().severe(m_LastError);
+    }
+
+    if (m_Stopped)
+      result = null;
+
+    return result;
+  }
+
   /**
    * Reads the spreadsheet content from the specified file.
    *
@@ -0,0 +1,289 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheetWriter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.output;
+
+import adams.data.io.ColumnarSpreadSheetFormat;
+import adams.data.io.ColumnarSpreadSheetFormat.Column;
+import adams.data.io.ColumnarSpreadSheetFormat.Header;
+import adams.data.io.input.ColumnarSpreadSheetReader;
+import adams.data.io.input.SpreadSheetReader;
+import adams.data.spreadsheet.SpreadSheet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Writes spreadsheets in a binary columnar format, which can be read again without parsing.<br>
+ * The rows get split into groups and the cells of each column within a group get stored (and compressed) as a separate block. The header stores the type and statistics (missing values, min&#47;max) of each column and the location of the blocks, allowing readers to load only the columns and rows they need.<br>
+ * Formulas and objects are stored as their string representation.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-row-group-size &lt;int&gt; (property: rowGroupSize)
+ * &nbsp;&nbsp;&nbsp;The number of rows per group, i.e., the granularity for accessing row
+ * &nbsp;&nbsp;&nbsp;ranges.
+ * &nbsp;&nbsp;&nbsp;default: 10000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-compress &lt;boolean&gt; (property: compress)
+ * &nbsp;&nbsp;&nbsp;If enabled, the blocks of the columns get compressed (only if that reduces
+ * &nbsp;&nbsp;&nbsp;their size).
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheetWriter
+  extends AbstractSpreadSheetWriter {
+
+  private static final long serialVersionUID = 3604227361407612837L;
+
+  /** the number of rows per group. */
+  protected int m_RowGroupSize;
+
+  /** whether to compress the blocks. */
+  protected boolean m_Compress;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Writes spreadsheets in a binary columnar format, which can be read "
+	+ "again without parsing.\n"
+	+ "The rows get split into groups and the cells of each column within "
+	+ "a group get stored (and compressed) as a separate block. The header "
+	+ "stores the type and statistics (missing values, min/max) of each "
+	+ "column and the location of the blocks, allowing readers to load only "
+	+ "the columns and rows they need.\n"
+	+ "Formulas and objects are stored as their string representation.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "row-group-size", "rowGroupSize",
+      10000, 1, null);
+
+    m_OptionManager.add(
+      "compress", "compress",
+      true);
+  }
+
+  /**
+   * Sets the number of rows per group.
+   *
+   * @param value	the number of rows
+   */
+  public void setRowGroupSize(int value) {
+    if (getOptionManager().isValid("rowGroupSize", value)) {
+      m_RowGroupSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of rows per group.
+   *
+   * @return		the number of rows
+   */
+  public int getRowGroupSize() {
+    return m_RowGroupSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String rowGroupSizeTipText() {
+    return "The number of rows per group, i.e., the granularity for accessing row ranges.";
+  }
+
+  /**
+   * Sets whether to compress the blocks.
+   *
+   * @param value	true if to compress
+   */
+  public void setCompress(boolean value) {
+    m_Compress = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to compress the blocks.
+   *
+   * @return		true if to compress
+   */
+  public boolean getCompress() {
+    return m_Compress;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String compressTipText() {
+    return "If enabled, the blocks of the columns get compressed (only if that reduces their size).";
+  }
+
+  /**
+   * Returns a string describing the format (used in the file chooser).
+   *
+   * @return 			a description suitable for displaying in the
+   * 				file chooser
+   */
+  @Override
+  public String getFormatDescription() {
+    return new ColumnarSpreadSheetReader().getFormatDescription();
+  }
+
+  /**
+   * Returns the extension(s) of the format.
+   *
+   * @return 			the extension (without the dot!)
+   */
+  @Override
+  public String[] getFormatExtensions() {
+    return new ColumnarSpreadSheetReader().getFormatExtensions();
+  }
+
+  /**
+   * Returns, if available, the corresponding reader.
+   *
+   * @return		the reader, null if none available
+   */
+  @Override
+  public SpreadSheetReader getCorrespondingReader() {
+    return new ColumnarSpreadSheetReader();
+  }
+
+  /**
+   * Returns how the data is written.
+   *
+   * @return		the type
+   */
+  @Override
+  protected OutputType getOutputType() {
+    return OutputType.STREAM;
+  }
+
+  /**
+   * Performs the actual writing. The caller must ensure that the output stream
+   * gets closed.
+   *
+   * @param content	the spreadsheet to write
+   * @param out		the output stream to write the spreadsheet to
+   * @return		true if successfully written
+   */
+  @Override
+  protected boolean doWrite(SpreadSheet content, OutputStream out) {
+    DataOutputStream	data;
+    Column[]		columns;
+    Header		header;
+    byte[][][]		blocks;
+    byte[]		block;
+    byte[]		compressed;
+    byte		codec;
+    long		offset;
+    int			numGroups;
+    int			headerLength;
+    int			i;
+    int			n;
+    int			from;
+
+    try {
+      columns = new Column[content.getColumnCount()];
+      for (n = 0; n < columns.length; n++)
+	columns[n] = ColumnarSpreadSheetFormat.analyze(content, n);
+      header = new Header(content.getName(), content.getComments(), content.getRowCount(), m_RowGroupSize, columns);
+
+      // encode blocks
+      numGroups = header.getNumRowGroups();
+      blocks    = new byte[numGroups][columns.length][];
+      for (i = 0; i < numGroups; i++) {
+	from = i * m_RowGroupSize;
+	for (n = 0; n < columns.length; n++) {
+	  if (m_Stopped)
+	    return false;
+	  block      = ColumnarSpreadSheetFormat.encode(content, n, columns[n].getType(), from, from + header.getNumRows(i));
+	  compressed = m_Compress ? ColumnarSpreadSheetFormat.compress(block) : null;
+	  codec      = ColumnarSpreadSheetFormat.CODEC_NONE;
+	  if (compressed != null) {
+	    block = compressed;
+	    codec = ColumnarSpreadSheetFormat.CODEC_DEFLATE;
+	  }
+	  blocks[i][n] = block;
+	  header.setBlock(i, n, 0, block.length, codec);
+	}
+      }
+
+      // the size of the header does not depend on the offsets
+      headerLength = header.toByteArray().length;
+      offset       = ColumnarSpreadSheetFormat.PREAMBLE_SIZE + headerLength;
+      for (i = 0; i < numGroups; i++) {
+	for (n = 0; n < columns.length; n++) {
+	  header.setBlock(i, n, offset, blocks[i][n].length, header.getCodec(i, n));
+	  offset += blocks[i][n].length;
+	}
+      }
+
+      data = new DataOutputStream(new BufferedOutputStream(out));
+      data.writeInt(ColumnarSpreadSheetFormat.MAGIC);
+      data.writeInt(ColumnarSpreadSheetFormat.VERSION);
+      data.writeInt(headerLength);
+      data.write(header.toByteArray());
+      for (i = 0; i < numGroups; i++) {
+	for (n = 0; n < columns.length; n++)
+	  data.write(blocks[i][n]);
+      }
+      data.flush();
+      return true;
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to write spreadsheet!", e);
+      return false;
+    }
+  }
+}
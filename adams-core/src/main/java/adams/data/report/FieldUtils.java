@@ -15,10 +15,13 @@
 
 /**
  * FieldUtils.java
- * Copyright (C) 2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.report;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * A helper class for field objects.
  *
@@ -27,6 +30,12 @@ package adams.data.report;
  */
 public class FieldUtils {
 
+  /** the maximum number of fields to intern. */
+  public final static int MAX_INTERNED = 100000;
+
+  /** the interned fields (name - field). */
+  protected static Map<String,AbstractField> m_Interned = new ConcurrentHashMap<>();
+
   /**
    * Creates a field object with the correct class.
    *
@@ -65,4 +74,43 @@ public class FieldUtils {
     return result;
   }
 
+  /**
+   * Returns the canonical instance of the field, i.e., the first field with
+   * the same class, name and data type that was interned. Fields are immutable,
+   * so reports can share these instances instead of storing their own copies.
+   * Once {@link #MAX_INTERNED} fields have been interned, new fields get
+   * returned as is.
+   *
+   * @param field	the field to intern
+   * @return		the canonical instance
+   */
+  public static <T extends AbstractField> T intern(T field) {
+    AbstractField	interned;
+
+    if ((field == null) || (field.getName() == null))
+      return field;
+
+    interned = m_Interned.get(field.getName());
+    if (interned == null) {
+      if (m_Interned.size() >= MAX_INTERNED)
+	return field;
+      interned = m_Interned.putIfAbsent(field.getName(), field);
+      if (interned == null)
+	return field;
+    }
+
+    if ((interned.getClass() == field.getClass()) && (interned.getDataType() == field.getDataType()))
+      return (T) interned;
+    else
+      return field;
+  }
+
+  /**
+   * Returns the number of interned fields.
+   *
+   * @return		the number of fields
+   */
+  public static int numInterned() {
+    return m_Interned.size();
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * Report.java
- * Copyright (C) 2009-2020 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  *
  */
 
@@ -36,6 +36,9 @@ import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.data.spreadsheet.SpreadSheetSupporter;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectInputStream.GetField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -43,9 +46,15 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Data structure for a report.
+ * <br>
+ * The values are stored in a compact {@link ReportValues} object, which gets
+ * shared between a report and its clones until either of them gets modified
+ * (copy-on-write). Reports are not synchronized.
  *
  * @author Dale (dale at cs dot waikato dot ac dot nz)
  */
@@ -71,7 +80,7 @@ public class Report
   public final static String DATATYPE_SUFFIX = "\tDataType";
 
   /** Store Header parameters ( parameter:value ). */
-  protected Hashtable<AbstractField,Object> m_Params;
+  protected ReportValues m_Values;
 
   /** fields. */
   protected Hashtable<String, AbstractField> m_Fields;
@@ -79,13 +88,16 @@ public class Report
   /** the database ID of the data structure this report belongs to. */
   protected int m_DatabaseID;
 
+  /** the number of modifications of the values. */
+  protected transient int m_Modifications;
+
   /**
    * Default constructor.
    */
   public Report() {
     super();
 
-    m_Params     = new Hashtable<>();
+    m_Values     = new ReportValues();
     m_DatabaseID = Constants.NO_ID;
 
     initFields();
@@ -146,7 +158,30 @@ public class Report
    * @param field		the field to add
    */
   public void addField(AbstractField field) {
-    m_Fields.put(field.getName(), field);
+    m_Fields.put(field.getName(), FieldUtils.intern(field));
+  }
+
+  /**
+   * Returns the values for modification, i.e., creates a copy first if
+   * the values are shared with other reports.
+   *
+   * @return		the modifiable values
+   */
+  protected ReportValues modifiableValues() {
+    m_Modifications++;
+    if (m_Values.isShared())
+      m_Values = m_Values.copy();
+    return m_Values;
+  }
+
+  /**
+   * Returns the number of times the values have been (potentially) modified.
+   * Allows checking whether derived data is still up-to-date.
+   *
+   * @return		the modification count
+   */
+  public int getModifications() {
+    return m_Modifications;
   }
 
   /**
@@ -191,14 +226,7 @@ public class Report
    * @return		the fields
    */
   public List<AbstractField> getFields() {
-    List<AbstractField> 	result;
-
-    result = new ArrayList<>();
-
-    for (AbstractField key:m_Params.keySet())
-      result.add(key);
-
-    return result;
+    return m_Values.fields();
   }
 
   /**
@@ -213,7 +241,7 @@ public class Report
 
     result = new ArrayList<>();
     str    = prefix.getPrefix();
-    for (AbstractField key: m_Params.keySet()) {
+    for (AbstractField key: m_Values.fields()) {
       if (key.isCompound() && key.getPrefix().equals(str))
 	result.add(key);
     }
@@ -233,7 +261,7 @@ public class Report
 
     result = new ArrayList<>();
     str    = suffix.getSuffix();
-    for (AbstractField key: m_Params.keySet()) {
+    for (AbstractField key: m_Values.fields()) {
       if (key.isCompound() && key.getSuffix().equals(str))
 	result.add(key);
     }
@@ -251,7 +279,7 @@ public class Report
     HashSet<PrefixOnlyField>	fields;
 
     fields = new HashSet<>();
-    for (AbstractField key: m_Params.keySet()) {
+    for (AbstractField key: m_Values.fields()) {
       if (key.isCompound())
 	fields.add(new PrefixField(key));
     }
@@ -272,7 +300,7 @@ public class Report
     HashSet<SuffixOnlyField>	fields;
 
     fields = new HashSet<>();
-    for (AbstractField key: m_Params.keySet()) {
+    for (AbstractField key: m_Values.fields()) {
       if (key.isCompound())
 	fields.add(new SuffixField(key));
     }
@@ -292,7 +320,7 @@ public class Report
   public void addParameter(String key, String value) {
     AbstractField f = m_Fields.get(key);
     if (f == null) {
-      m_Params.put(new Field(key, DataType.UNKNOWN), Field.fixString(value));
+      modifiableValues().put(new Field(key, DataType.UNKNOWN), Field.fixString(value));
     }
     else {
       Object o = f.valueOf(value);
@@ -300,7 +328,7 @@ public class Report
 	getLogger().info("Null object from: " + value);
 	return;
       }
-      m_Params.put(f, o);
+      modifiableValues().put(f, o);
     }
   }
 
@@ -313,7 +341,7 @@ public class Report
   public void addParameter(String key, Object value) {
     AbstractField f = m_Fields.get(key);
     if (f == null) {
-      m_Params.put(
+      modifiableValues().put(
         new Field(key, DataType.guessType(Field.fixString(value.toString()))),
 	Field.fixString(value.toString()));
     }
@@ -323,7 +351,7 @@ public class Report
 	getLogger().info("Null object from: " + value.toString());
 	return;
       }
-      m_Params.put(f, value);
+      modifiableValues().put(f, value);
     }
   }
 
@@ -333,16 +361,19 @@ public class Report
    * @param ht	hashtable of parameters
    */
   public void setParams(Hashtable<AbstractField,Object> ht) {
-    m_Params = ht;
+    m_Modifications++;
+    m_Values = new ReportValues(ht.size());
+    for (Map.Entry<AbstractField,Object> entry: ht.entrySet())
+      m_Values.put(entry.getKey(), entry.getValue());
   }
 
   /**
-   * Get the parameters.
+   * Get the parameters. Modifying the hashtable does not affect the report.
    *
    * @return hashtable of parameters
    */
   public Hashtable<AbstractField,Object> getParams() {
-    return(m_Params);
+    return m_Values.toHashtable();
   }
 
   /**
@@ -458,12 +489,9 @@ public class Report
         return false;
     }
 
-    m_Params.remove(key);
-    m_Params.put(key, value);
-    if (m_Fields.containsKey(key.getName())) {
-      m_Fields.remove(key.getName());
-      m_Fields.put(key.getName(), key);
-    }
+    modifiableValues().put(key, value);
+    if (m_Fields.containsKey(key.getName()))
+      m_Fields.put(key.getName(), FieldUtils.intern(key));
 
     return true;
   }
@@ -505,7 +533,7 @@ public class Report
    * @return 		parameter value
    */
   public Object getValue(AbstractField key) {
-    return m_Params.get(key);
+    return m_Values.get(key);
   }
 
   /**
@@ -525,10 +553,13 @@ public class Report
    * @return 		parameter value, null if not present
    */
   public String getStringValue(AbstractField key) {
-    if (m_Params.containsKey(key))
-      return m_Params.get(key).toString();
-    else
+    int		index;
+
+    index = m_Values.indexOf(key);
+    if (index == -1)
       return null;
+    else
+      return m_Values.getValue(index).toString();
   }
 
   /**
@@ -548,8 +579,11 @@ public class Report
    * @return 		parameter value, null if not present
    */
   public Boolean getBooleanValue(AbstractField key) {
-    if (m_Params.containsKey(key) && (m_Params.get(key) instanceof Boolean))
-      return (Boolean) m_Params.get(key);
+    int		index;
+
+    index = m_Values.indexOf(key);
+    if ((index > -1) && m_Values.isBoolean(index))
+      return (m_Values.getNumber(index) != 0);
     else
       return null;
   }
@@ -571,8 +605,11 @@ public class Report
    * @return 		parameter value, null if not present
    */
   public Double getDoubleValue(AbstractField key) {
-    if (m_Params.containsKey(key) && (m_Params.get(key) instanceof Double))
-      return (Double) m_Params.get(key);
+    int		index;
+
+    index = m_Values.indexOf(key);
+    if ((index > -1) && m_Values.isNumeric(index))
+      return m_Values.getNumber(index);
     else
       return null;
   }
@@ -585,7 +622,9 @@ public class Report
    * 			if the field wasn't present
    */
   public Object removeValue(AbstractField key) {
-    return m_Params.remove(key);
+    if (m_Values.indexOf(key) == -1)
+      return null;
+    return modifiableValues().remove(key);
   }
 
   /**
@@ -595,18 +634,24 @@ public class Report
    * @return		true if report got modified (ie at least one field removed)
    */
   public boolean removeValues(BaseRegExp regExp) {
-    List<AbstractField>		remove;
+    return removeValues((AbstractField key) -> regExp.isMatch(key.getName()));
+  }
 
-    remove = new ArrayList<>();
-    for (AbstractField key: m_Params.keySet()) {
-      if (regExp.isMatch(key.getName()))
-        remove.add(key);
-    }
+  /**
+   * Removes all fields that match the predicate.
+   *
+   * @param filter 	the predicate for the fields to remove
+   * @return		true if report got modified (ie at least one field removed)
+   */
+  protected boolean removeValues(Predicate<AbstractField> filter) {
+    int		i;
 
-    for (AbstractField key: remove)
-      m_Params.remove(key);
+    for (i = 0; i < m_Values.size(); i++) {
+      if (filter.test(m_Values.getField(i)))
+	return modifiableValues().removeIf(filter);
+    }
 
-    return (remove.size() > 0);
+    return false;
   }
 
   /**
@@ -616,18 +661,7 @@ public class Report
    * @return		true if report got modified (ie at least one field removed)
    */
   public boolean removeValuesStartingWith(String prefix) {
-    List<AbstractField>		remove;
-
-    remove = new ArrayList<>();
-    for (AbstractField key: m_Params.keySet()) {
-      if (key.getName().startsWith(prefix))
-        remove.add(key);
-    }
-
-    for (AbstractField key: remove)
-      m_Params.remove(key);
-
-    return (remove.size() > 0);
+    return removeValues((AbstractField key) -> key.getName().startsWith(prefix));
   }
 
   /**
@@ -648,13 +682,11 @@ public class Report
   @Override
   public String toString() {
     StringBuilder ret = new StringBuilder();
-    List<AbstractField> fields = new ArrayList<>();
-    for (AbstractField s:m_Params.keySet())
-      fields.add(s);
+    List<AbstractField> fields = getFields();
     Collections.sort(fields);
     for (int i = 0; i < fields.size(); i++) {
       AbstractField f = fields.get(i);
-      String val = m_Params.get(f).toString();
+      String val = getValue(f).toString();
       ret.append(f.toParseableString() + ": " + val + "\n");
     }
 
@@ -678,13 +710,15 @@ public class Report
   }
 
   /**
-   * Obtains all the values from the specified report.
+   * Obtains all the values from the specified report. The values get shared
+   * until either report gets modified.
    *
    * @param other	the report to obtain the values form
    */
   public void assign(Report other) {
+    m_Modifications++;
     m_Fields     = (Hashtable<String,AbstractField>) other.m_Fields.clone();
-    m_Params     = (Hashtable<AbstractField,Object>) other.m_Params.clone();
+    m_Values     = other.m_Values.share();
     m_LoggingLevel = other.m_LoggingLevel;
     m_DatabaseID = other.m_DatabaseID;
   }
@@ -734,7 +768,6 @@ public class Report
     Report			qr;
     List<AbstractField>		keys;
     List<AbstractField>		keysQr;
-    Enumeration<AbstractField>	enm;
     int				i;
 
     if (o == null)
@@ -748,24 +781,18 @@ public class Report
     qr = (Report) o;
 
     if (result == 0)
-      result = Integer.compare(m_Params.size(), qr.m_Params.size());
+      result = Integer.compare(m_Values.size(), qr.m_Values.size());
 
-    keys = new ArrayList<>();
-    enm = m_Params.keys();
-    while (enm.hasMoreElements())
-      keys.add(enm.nextElement());
+    keys = getFields();
     Collections.sort(keys);
 
-    keysQr = new ArrayList<>();
-    enm = m_Params.keys();
-    while (enm.hasMoreElements())
-      keysQr.add(enm.nextElement());
+    keysQr = getFields();
     Collections.sort(keysQr);
 
     for (i = 0; i < keys.size(); i++) {
       result = keys.get(i).compareTo(keysQr.get(i));
       if (result == 0)
-	result = m_Params.get(keys.get(i)).toString().compareTo(m_Params.get(keysQr.get(i)).toString());
+	result = getValue(keys.get(i)).toString().compareTo(getValue(keysQr.get(i)).toString());
       if (result != 0)
 	break;
     }
@@ -792,7 +819,7 @@ public class Report
 
     qr = (Report) obj;
 
-    if (!m_Params.equals(qr.m_Params))
+    if (!m_Values.equals(qr.m_Values))
       return false;
 
     return true;
@@ -800,13 +827,13 @@ public class Report
 
   /**
    * Hashcode so can be used as hashtable key. Returns the hashcode of the
-   * {@link #m_Params} hashtable.
+   * {@link #m_Values}.
    *
    * @return		the hashcode
    */
   @Override
   public int hashCode() {
-    return m_Params.hashCode();
+    return m_Values.hashCode();
   }
 
   /**
@@ -818,17 +845,18 @@ public class Report
    * @return		the intersection
    */
   public Report intersect(Report report) {
-    Report				result;
-    Hashtable<AbstractField,Object> 	params;
+    Report		result;
+    ReportValues 	values;
+    int			i;
 
     result = newInstance(report);
     if (result != null) {
-      params = new Hashtable<>();
-      for (AbstractField key: getFields()) {
-	if (report.hasValue(key))
-	  params.put(key, getValue(key));
+      values = new ReportValues();
+      for (i = 0; i < m_Values.size(); i++) {
+	if (report.hasValue(m_Values.getField(i)))
+	  values.put(m_Values.getField(i), m_Values.getValue(i));
       }
-      result.setParams(params);
+      result.m_Values = values;
     }
 
     return result;
@@ -844,17 +872,18 @@ public class Report
    * @return		the new report
    */
   public Report minus(Report report) {
-    Report				result;
-    Hashtable<AbstractField,Object> 	params;
+    Report		result;
+    ReportValues 	values;
+    int			i;
 
     result = newInstance(report);
     if (result != null) {
-      params = new Hashtable<>();
-      for (AbstractField key: getFields()) {
-	if (!report.hasValue(key))
-	  params.put(key, getValue(key));
+      values = new ReportValues();
+      for (i = 0; i < m_Values.size(); i++) {
+	if (!report.hasValue(m_Values.getField(i)))
+	  values.put(m_Values.getField(i), m_Values.getValue(i));
       }
-      result.setParams(params);
+      result.m_Values = values;
     }
 
     return result;
@@ -867,15 +896,42 @@ public class Report
    * @param other		the object to merge with
    */
   public void mergeWith(Report other) {
-    List<AbstractField>	fields;
+    ReportValues	values;
     int			i;
 
-    fields = other.getFields();
-    for (i = 0; i < fields.size(); i++) {
-      if (hasValue(fields.get(i)))
+    values = other.m_Values;
+    for (i = 0; i < values.size(); i++) {
+      if (hasValue(values.getField(i)))
 	continue;
-      setValue(fields.get(i), other.getValue(fields.get(i)));
+      setValue(values.getField(i), values.getValue(i));
+    }
+  }
+
+  /**
+   * Reads the report, converting the values of reports that were serialized
+   * with a hashtable.
+   *
+   * @param in		the stream to read from
+   * @throws IOException	if reading fails
+   * @throws ClassNotFoundException	if class cannot be loaded
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    GetField	fields;
+    Object	params;
+
+    fields       = in.readFields();
+    m_Fields     = (Hashtable<String,AbstractField>) fields.get("m_Fields", null);
+    m_DatabaseID = fields.get("m_DatabaseID", Constants.NO_ID);
+    m_Values     = (ReportValues) fields.get("m_Values", null);
+    if (m_Values == null) {
+      params = fields.get("m_Params", null);
+      if (params instanceof Hashtable)
+	setParams((Hashtable<AbstractField,Object>) params);
+      else
+	m_Values = new ReportValues();
     }
+    if (m_Fields == null)
+      initFields();
   }
 
   /**
@@ -984,7 +1040,7 @@ public class Report
 	contentStr = lines[i].substring(pos + 2);
 	field      = Field.parseField(fieldStr);
 	content    = field.valueOf(contentStr);
-	result.m_Params.put(field, content);
+	result.m_Values.put(field, content);
       }
     }
 
@@ -0,0 +1,491 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ReportValues.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.report;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Compact storage for the values of a {@link Report}. Numeric and boolean
+ * values are stored in a primitive array, strings and other objects in an
+ * object array, and the fields are interned via {@link FieldUtils#intern(AbstractField)}.
+ * <br>
+ * Once shared via {@link #share()}, the values must no longer be modified;
+ * the owners have to obtain a copy with {@link #copy()} before modifying them
+ * (copy-on-write). The storage itself is not synchronized.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ReportValues
+  implements Serializable {
+
+  private static final long serialVersionUID = 4381690627710834816L;
+
+  /** the initial capacity. */
+  public final static int INITIAL_CAPACITY = 8;
+
+  /** the kind of value: numeric. */
+  protected final static byte KIND_NUMERIC = 0;
+
+  /** the kind of value: boolean. */
+  protected final static byte KIND_BOOLEAN = 1;
+
+  /** the kind of value: string. */
+  protected final static byte KIND_STRING = 2;
+
+  /** the kind of value: any other object. */
+  protected final static byte KIND_OBJECT = 3;
+
+  /** the number of values. */
+  protected int m_Size;
+
+  /** the fields. */
+  protected AbstractField[] m_Fields;
+
+  /** the kinds of the values. */
+  protected byte[] m_Kinds;
+
+  /** the numeric/boolean values. */
+  protected double[] m_Numbers;
+
+  /** the string/object values. */
+  protected Object[] m_Objects;
+
+  /** the index for the field names. */
+  protected Map<String,Integer> m_Index;
+
+  /** whether the values are shared between reports. */
+  protected volatile boolean m_Shared;
+
+  /**
+   * Initializes the storage.
+   */
+  public ReportValues() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Initializes the storage.
+   *
+   * @param capacity	the initial capacity
+   */
+  public ReportValues(int capacity) {
+    capacity  = Math.max(1, capacity);
+    m_Size    = 0;
+    m_Fields  = new AbstractField[capacity];
+    m_Kinds   = new byte[capacity];
+    m_Numbers = new double[capacity];
+    m_Objects = new Object[capacity];
+    m_Index   = new HashMap<>(capacity * 2);
+    m_Shared  = false;
+  }
+
+  /**
+   * Returns the number of values stored.
+   *
+   * @return		the number of values
+   */
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the index of the field.
+   *
+   * @param key		the field to look for
+   * @return		the index, -1 if not present
+   */
+  public int indexOf(AbstractField key) {
+    Integer	result;
+
+    result = m_Index.get(key.getName());
+    if (result == null)
+      return -1;
+    else
+      return result;
+  }
+
+  /**
+   * Returns the field at the specified index.
+   *
+   * @param index	the index
+   * @return		the field
+   */
+  public AbstractField getField(int index) {
+    return m_Fields[index];
+  }
+
+  /**
+   * Returns the value at the specified index.
+   *
+   * @param index	the index
+   * @return		the value
+   */
+  public Object getValue(int index) {
+    switch (m_Kinds[index]) {
+      case KIND_NUMERIC:
+	return m_Numbers[index];
+      case KIND_BOOLEAN:
+	return (m_Numbers[index] != 0);
+      default:
+	return m_Objects[index];
+    }
+  }
+
+  /**
+   * Returns whether the value at the specified index is numeric.
+   *
+   * @param index	the index
+   * @return		true if numeric
+   */
+  public boolean isNumeric(int index) {
+    return (m_Kinds[index] == KIND_NUMERIC);
+  }
+
+  /**
+   * Returns whether the value at the specified index is boolean.
+   *
+   * @param index	the index
+   * @return		true if boolean
+   */
+  public boolean isBoolean(int index) {
+    return (m_Kinds[index] == KIND_BOOLEAN);
+  }
+
+  /**
+   * Returns the numeric value at the specified index, without boxing.
+   * Booleans are returned as 1 and 0.
+   *
+   * @param index	the index
+   * @return		the value, NaN if not numeric/boolean
+   */
+  public double getNumber(int index) {
+    if (m_Kinds[index] <= KIND_BOOLEAN)
+      return m_Numbers[index];
+    else
+      return Double.NaN;
+  }
+
+  /**
+   * Returns the value for the field.
+   *
+   * @param key		the field to get the value for
+   * @return		the value, null if not present
+   */
+  public Object get(AbstractField key) {
+    int		index;
+
+    index = indexOf(key);
+    if (index == -1)
+      return null;
+    else
+      return getValue(index);
+  }
+
+  /**
+   * Returns the stored fields.
+   *
+   * @return		the fields
+   */
+  public List<AbstractField> fields() {
+    List<AbstractField>	result;
+    int			i;
+
+    result = new ArrayList<>(m_Size);
+    for (i = 0; i < m_Size; i++)
+      result.add(m_Fields[i]);
+
+    return result;
+  }
+
+  /**
+   * Ensures that the arrays can hold the specified number of values.
+   *
+   * @param capacity	the required capacity
+   */
+  protected void ensureCapacity(int capacity) {
+    int		newCapacity;
+
+    if (capacity <= m_Fields.length)
+      return;
+
+    newCapacity = Math.max(capacity, m_Fields.length + (m_Fields.length >> 1) + 1);
+    m_Fields    = Arrays.copyOf(m_Fields, newCapacity);
+    m_Kinds     = Arrays.copyOf(m_Kinds, newCapacity);
+    m_Numbers   = Arrays.copyOf(m_Numbers, newCapacity);
+    m_Objects   = Arrays.copyOf(m_Objects, newCapacity);
+  }
+
+  /**
+   * Throws an exception if the values are shared.
+   */
+  protected void checkShared() {
+    if (m_Shared)
+      throw new IllegalStateException("Shared report values cannot be modified!");
+  }
+
+  /**
+   * Stores the value under the field, replacing any existing value (and field).
+   *
+   * @param key		the field
+   * @param value	the value
+   * @throws NullPointerException	if the value is null
+   */
+  public void put(AbstractField key, Object value) {
+    int		index;
+
+    if (value == null)
+      throw new NullPointerException("Value for field '" + key + "' is null!");
+    checkShared();
+
+    index = indexOf(key);
+    if (index == -1) {
+      ensureCapacity(m_Size + 1);
+      index = m_Size;
+      m_Size++;
+      m_Index.put(key.getName(), index);
+    }
+
+    m_Fields[index] = FieldUtils.intern(key);
+    if (value instanceof Double) {
+      m_Kinds[index]   = KIND_NUMERIC;
+      m_Numbers[index] = (Double) value;
+      m_Objects[index] = null;
+    }
+    else if (value instanceof Boolean) {
+      m_Kinds[index]   = KIND_BOOLEAN;
+      m_Numbers[index] = ((Boolean) value) ? 1 : 0;
+      m_Objects[index] = null;
+    }
+    else {
+      m_Kinds[index]   = (value instanceof String) ? KIND_STRING : KIND_OBJECT;
+      m_Numbers[index] = 0;
+      m_Objects[index] = value;
+    }
+  }
+
+  /**
+   * Removes the value at the specified index. The last value gets moved
+   * into the gap.
+   *
+   * @param index	the index of the value to remove
+   */
+  protected void removeAt(int index) {
+    int		last;
+
+    m_Index.remove(m_Fields[index].getName());
+    last = m_Size - 1;
+    if (index < last) {
+      m_Fields[index]  = m_Fields[last];
+      m_Kinds[index]   = m_Kinds[last];
+      m_Numbers[index] = m_Numbers[last];
+      m_Objects[index] = m_Objects[last];
+      m_Index.put(m_Fields[index].getName(), index);
+    }
+    m_Fields[last]  = null;
+    m_Objects[last] = null;
+    m_Size--;
+  }
+
+  /**
+   * Removes the value for the field.
+   *
+   * @param key		the field to remove
+   * @return		the previous value, null if not present
+   */
+  public Object remove(AbstractField key) {
+    Object	result;
+    int		index;
+
+    checkShared();
+    index = indexOf(key);
+    if (index == -1)
+      return null;
+
+    result = getValue(index);
+    removeAt(index);
+
+    return result;
+  }
+
+  /**
+   * Removes all the values which fields match the predicate.
+   *
+   * @param filter	the predicate for the fields to remove
+   * @return		true if at least one value was removed
+   */
+  public boolean removeIf(Predicate<AbstractField> filter) {
+    boolean	result;
+    int		i;
+
+    checkShared();
+    result = false;
+    i      = 0;
+    while (i < m_Size) {
+      if (filter.test(m_Fields[i])) {
+	removeAt(i);
+	result = true;
+      }
+      else {
+	i++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Marks the values as shared, i.e., they can no longer be modified.
+   *
+   * @return		itself
+   */
+  public ReportValues share() {
+    m_Shared = true;
+    return this;
+  }
+
+  /**
+   * Returns whether the values are shared.
+   *
+   * @return		true if shared
+   */
+  public boolean isShared() {
+    return m_Shared;
+  }
+
+  /**
+   * Returns a modifiable copy of the values.
+   *
+   * @return		the copy
+   */
+  public ReportValues copy() {
+    ReportValues	result;
+
+    result           = new ReportValues(m_Size + 1);
+    result.m_Size    = m_Size;
+    System.arraycopy(m_Fields, 0, result.m_Fields, 0, m_Size);
+    System.arraycopy(m_Kinds, 0, result.m_Kinds, 0, m_Size);
+    System.arraycopy(m_Numbers, 0, result.m_Numbers, 0, m_Size);
+    System.arraycopy(m_Objects, 0, result.m_Objects, 0, m_Size);
+    result.m_Index.putAll(m_Index);
+
+    return result;
+  }
+
+  /**
+   * Returns the values as hashtable.
+   *
+   * @return		the hashtable
+   */
+  public Hashtable<AbstractField,Object> toHashtable() {
+    Hashtable<AbstractField,Object>	result;
+    int					i;
+
+    result = new Hashtable<>(Math.max(11, m_Size * 2));
+    for (i = 0; i < m_Size; i++)
+      result.put(m_Fields[i], getValue(i));
+
+    return result;
+  }
+
+  /**
+   * Checks whether the values at the specified indices are the same.
+   *
+   * @param index	the index in this storage
+   * @param other	the other storage
+   * @param otherIndex	the index in the other storage
+   * @return		true if the same
+   */
+  protected boolean valueEquals(int index, ReportValues other, int otherIndex) {
+    if (m_Kinds[index] != other.m_Kinds[otherIndex])
+      return false;
+    if (m_Kinds[index] <= KIND_BOOLEAN)
+      return (Double.doubleToLongBits(m_Numbers[index]) == Double.doubleToLongBits(other.m_Numbers[otherIndex]));
+    else
+      return m_Objects[index].equals(other.m_Objects[otherIndex]);
+  }
+
+  /**
+   * Checks whether the other object contains the same fields and values.
+   *
+   * @param obj		the object to compare with
+   * @return		true if the same
+   */
+  @Override
+  public boolean equals(Object obj) {
+    ReportValues	other;
+    int			i;
+    int			index;
+
+    if (obj == this)
+      return true;
+    if (!(obj instanceof ReportValues))
+      return false;
+
+    other = (ReportValues) obj;
+    if (m_Size != other.m_Size)
+      return false;
+
+    for (i = 0; i < m_Size; i++) {
+      index = other.indexOf(m_Fields[i]);
+      if (index == -1)
+	return false;
+      if (!valueEquals(i, other, index))
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the hashcode, computed the same way as the one of a hashtable
+   * with the same content.
+   *
+   * @return		the hashcode
+   */
+  @Override
+  public int hashCode() {
+    int		result;
+    int		i;
+
+    result = 0;
+    for (i = 0; i < m_Size; i++) {
+      switch (m_Kinds[i]) {
+	case KIND_NUMERIC:
+	  result += m_Fields[i].hashCode() ^ Double.hashCode(m_Numbers[i]);
+	  break;
+	case KIND_BOOLEAN:
+	  result += m_Fields[i].hashCode() ^ Boolean.hashCode(m_Numbers[i] != 0);
+	  break;
+	default:
+	  result += m_Fields[i].hashCode() ^ m_Objects[i].hashCode();
+      }
+    }
+
+    return result;
+  }
+}
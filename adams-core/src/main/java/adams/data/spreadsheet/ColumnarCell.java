@@ -0,0 +1,363 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarCell.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spreadsheet;
+
+import adams.core.DateTime;
+import adams.core.DateTimeMsec;
+import adams.core.Time;
+import adams.core.TimeMsec;
+
+import java.util.Date;
+
+/**
+ * Lightweight cell view on a position in a {@link ColumnarSpreadSheet}.
+ * The content gets loaded from the column storage when the cell is
+ * created and any modification gets written back immediately.
+ * <br>
+ * NB: cells are only snapshots, i.e., modifications of the same position
+ * through other cell instances are not reflected.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarCell
+  extends DoubleCell {
+
+  private static final long serialVersionUID = -1071906298296003563L;
+
+  /** the column index. */
+  protected int m_Column;
+
+  /**
+   * Initializes the cell and loads the content from the spreadsheet.
+   *
+   * @param owner	the row this cell belongs to
+   * @param column	the column index
+   */
+  public ColumnarCell(ColumnarDataRow owner, int column) {
+    super(null);
+
+    m_Owner  = owner;
+    m_Column = column;
+    owner.getOwner().load(owner.getRowIndex(), column, this);
+  }
+
+  /**
+   * Returns the row this cell belongs to.
+   *
+   * @return		the owner
+   */
+  @Override
+  public ColumnarDataRow getOwner() {
+    return (ColumnarDataRow) m_Owner;
+  }
+
+  /**
+   * Does nothing, as the cell is tied to its position.
+   *
+   * @param owner	ignored
+   */
+  @Override
+  public void setOwner(Row owner) {
+  }
+
+  /**
+   * Writes the content back into the column storage.
+   */
+  protected void store() {
+    if (m_Owner != null)
+      getOwner().getOwner().store(getOwner().getRowIndex(), m_Column, this);
+  }
+
+  /**
+   * Obtains the content/type of the other cell, but not the owner.
+   *
+   * @param cell	the cell to get the content/type from
+   */
+  @Override
+  public void assign(Cell cell) {
+    super.assign(cell);
+    store();
+  }
+
+  /**
+   * Sets the cell to missing.
+   */
+  @Override
+  public void setMissing() {
+    super.setMissing();
+    store();
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Boolean value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Byte value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Short value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Integer value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Long value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null or NaN is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Float value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null or NaN is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Double value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Date value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(DateTime value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(DateTimeMsec value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(Time value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell.
+   *
+   * @param value	the content; null is intepreted as missing value
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(TimeMsec value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell. Tries to determine whether the cell
+   * content is numeric or not.
+   *
+   * @param value	the content
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContent(String value) {
+    super.setContent(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the string content of the cell.
+   *
+   * @param value	the content
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContentAsString(String value) {
+    super.setContentAsString(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the content of the cell, trying to parse the content using the
+   * specified content type.
+   *
+   * @param value	the content
+   * @param type	the type to use
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setContentAs(String value, ContentType type) {
+    super.setContentAs(value, type);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the object content of the cell.
+   *
+   * @param value	the content
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setObject(Object value) {
+    super.setObject(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Sets the formula content of the cell.
+   *
+   * @param value	the content
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setFormula(String value) {
+    super.setFormula(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Determines the best set-method based on the class of the provided object.
+   *
+   * @param value	the value to set
+   * @return		the cell itself
+   */
+  @Override
+  public Cell setNative(Object value) {
+    super.setNative(value);
+    store();
+    return this;
+  }
+
+  /**
+   * Recalculates the value from the cell's formula and stores the result.
+   */
+  @Override
+  public void calculate() {
+    super.calculate();
+    store();
+  }
+
+  /**
+   * Returns the column this cell is in.
+   *
+   * @return		the column index
+   */
+  @Override
+  public int index() {
+    return m_Column;
+  }
+}
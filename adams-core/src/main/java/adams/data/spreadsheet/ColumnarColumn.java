@@ -0,0 +1,1216 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarColumn.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spreadsheet;
+
+import adams.data.spreadsheet.Cell.ContentType;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Ancestor for the typed column storage used by {@link ColumnarSpreadSheet}.
+ * Columns start out untyped (all values missing) and get specialized with
+ * the first non-missing value that gets stored. Values that the specialized
+ * storage cannot hold result in a promotion to a {@link MixedColumn}, which
+ * uses the same encoding as {@link DoubleCell}.
+ * <br>
+ * Cell contents are exchanged via {@link DoubleCell} instances, in order to
+ * reuse the parsing logic of the cell.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class ColumnarColumn
+  implements Serializable {
+
+  private static final long serialVersionUID = 6011297451547402213L;
+
+  /** the initial capacity. */
+  public final static int INITIAL_CAPACITY = 16;
+
+  /** the number of rows. */
+  protected int m_Size;
+
+  /**
+   * Initializes the column.
+   *
+   * @param size	the number of (missing) rows
+   */
+  protected ColumnarColumn(int size) {
+    m_Size = 0;
+    ensureCapacity(Math.max(INITIAL_CAPACITY, size));
+    while (m_Size < size)
+      insert(m_Size);
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return		the number of rows
+   */
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the type this column is specialized for.
+   *
+   * @return		the type, null if untyped or mixed
+   */
+  public abstract ContentType getType();
+
+  /**
+   * Returns whether the value at the specified row is missing.
+   *
+   * @param row		the row
+   * @return		true if missing
+   */
+  public abstract boolean isMissing(int row);
+
+  /**
+   * Returns the content type of the value at the specified row.
+   *
+   * @param row		the row
+   * @return		the type
+   */
+  public abstract ContentType getContentType(int row);
+
+  /**
+   * Returns whether the specified row holds a formula.
+   *
+   * @param row		the row
+   * @return		true if formula
+   */
+  public boolean hasFormula(int row) {
+    return false;
+  }
+
+  /**
+   * Returns the numeric value at the specified row.
+   *
+   * @param row		the row
+   * @return		the value, NaN if missing or not numeric
+   */
+  public abstract double getDouble(int row);
+
+  /**
+   * Returns the long value at the specified row.
+   *
+   * @param row		the row
+   * @return		the value, 0 if missing or not numeric
+   */
+  public long getLong(int row) {
+    double	value;
+
+    value = getDouble(row);
+    if (Double.isNaN(value))
+      return 0L;
+    return (long) value;
+  }
+
+  /**
+   * Sets the double value at the specified row, if the column can store it.
+   *
+   * @param row		the row
+   * @param value	the value (not NaN)
+   * @return		true if stored
+   */
+  public boolean setDouble(int row, double value) {
+    return false;
+  }
+
+  /**
+   * Sets the long value at the specified row, if the column can store it.
+   *
+   * @param row		the row
+   * @param value	the value
+   * @return		true if stored
+   */
+  public boolean setLong(int row, long value) {
+    return false;
+  }
+
+  /**
+   * Sets the boolean value at the specified row, if the column can store it.
+   *
+   * @param row		the row
+   * @param value	the value
+   * @return		true if stored
+   */
+  public boolean setBoolean(int row, boolean value) {
+    return false;
+  }
+
+  /**
+   * Sets the string (index in the shared strings table) at the specified row,
+   * if the column can store it.
+   *
+   * @param row		the row
+   * @param index	the index of the string
+   * @return		true if stored
+   */
+  public boolean setString(int row, int index) {
+    return false;
+  }
+
+  /**
+   * Transfers the content of the specified row into the cell.
+   *
+   * @param row		the row
+   * @param cell	the cell to update
+   */
+  public abstract void load(int row, DoubleCell cell);
+
+  /**
+   * Stores the content of the cell at the specified row, if the column can
+   * store it.
+   *
+   * @param row		the row
+   * @param cell	the cell to obtain the content from
+   * @return		true if stored, false if the column cannot store this type
+   */
+  public abstract boolean store(int row, DoubleCell cell);
+
+  /**
+   * Sets the value at the specified row to missing.
+   *
+   * @param row		the row
+   */
+  public abstract void setMissing(int row);
+
+  /**
+   * Returns the current capacity.
+   *
+   * @return		the capacity
+   */
+  protected abstract int capacity();
+
+  /**
+   * Resizes the underlying storage.
+   *
+   * @param capacity	the new capacity
+   */
+  protected abstract void resize(int capacity);
+
+  /**
+   * Moves the values in the underlying storage.
+   *
+   * @param from	the start of the source
+   * @param to		the start of the destination
+   * @param len		the number of values to move
+   */
+  protected abstract void move(int from, int to, int len);
+
+  /**
+   * Ensures that the column can hold the specified number of rows.
+   *
+   * @param capacity	the required capacity
+   */
+  public void ensureCapacity(int capacity) {
+    int		newCapacity;
+
+    if (capacity <= capacity())
+      return;
+    newCapacity = Math.max(INITIAL_CAPACITY, capacity());
+    while (newCapacity < capacity)
+      newCapacity = newCapacity + (newCapacity >> 1);
+    resize(newCapacity);
+  }
+
+  /**
+   * Reduces the storage to the actual number of rows.
+   */
+  public void compact() {
+    if (capacity() > m_Size)
+      resize(Math.max(1, m_Size));
+  }
+
+  /**
+   * Inserts a missing value at the specified row.
+   *
+   * @param row		the row to insert the value at
+   */
+  public void insert(int row) {
+    ensureCapacity(m_Size + 1);
+    if (row < m_Size)
+      move(row, row + 1, m_Size - row);
+    m_Size++;
+    setMissing(row);
+  }
+
+  /**
+   * Removes the specified row.
+   *
+   * @param row		the row to remove
+   */
+  public void remove(int row) {
+    if (row < m_Size - 1)
+      move(row + 1, row, m_Size - row - 1);
+    setMissing(m_Size - 1);
+    m_Size--;
+  }
+
+  /**
+   * Returns a new, empty column of the same type.
+   *
+   * @return		the new column
+   */
+  protected abstract ColumnarColumn newInstance();
+
+  /**
+   * Copies the value from the specified row of the source column (same type)
+   * into the specified row of this column.
+   *
+   * @param source	the column to copy from
+   * @param sourceRow	the row in the source
+   * @param row		the row in this column
+   */
+  protected abstract void copyFrom(ColumnarColumn source, int sourceRow, int row);
+
+  /**
+   * Returns a column with the rows in the specified order.
+   *
+   * @param rows	the row indices in the new order (can be fewer than the current rows)
+   * @return		the new column
+   */
+  public ColumnarColumn reorder(int[] rows) {
+    ColumnarColumn	result;
+    int			i;
+
+    result = newInstance();
+    result.ensureCapacity(rows.length);
+    for (i = 0; i < rows.length; i++) {
+      result.insert(i);
+      result.copyFrom(this, rows[i], i);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of the column.
+   *
+   * @return		the copy
+   */
+  public ColumnarColumn copy() {
+    ColumnarColumn	result;
+
+    result = newInstance();
+    result.resize(Math.max(INITIAL_CAPACITY, m_Size));
+    result.copyRange(this);
+
+    return result;
+  }
+
+  /**
+   * Copies all the values from the other column (same type), which must
+   * fit into the capacity of this column.
+   *
+   * @param source	the column to copy from
+   */
+  protected abstract void copyRange(ColumnarColumn source);
+
+  /**
+   * Returns a column that can store the content of the cell as well as
+   * the current values.
+   *
+   * @param cell	the cell to accommodate
+   * @return		the new column
+   */
+  public ColumnarColumn promote(DoubleCell cell) {
+    return convert(this, new MixedColumn(0));
+  }
+
+  /**
+   * Transfers all values of the source column into the (empty) target column.
+   *
+   * @param source	the column to get the values from
+   * @param target	the column to add the values to
+   * @return		the target column
+   */
+  protected static ColumnarColumn convert(ColumnarColumn source, ColumnarColumn target) {
+    DoubleCell	cell;
+    int		i;
+
+    cell = new DoubleCell(null);
+    target.ensureCapacity(source.size());
+    for (i = 0; i < source.size(); i++) {
+      target.insert(i);
+      source.load(i, cell);
+      if (!cell.isMissing() || cell.isFormula())
+	target.store(i, cell);
+    }
+
+    return target;
+  }
+
+  /**
+   * Sets the cell to missing without triggering any of the setters.
+   *
+   * @param cell	the cell to reset
+   */
+  protected static void reset(DoubleCell cell) {
+    cell.m_Content     = Double.NaN;
+    cell.m_ContentType = ContentType.MISSING;
+    cell.m_Formula     = null;
+    cell.m_Object      = null;
+  }
+
+  /**
+   * Moves the bits within the bitset.
+   *
+   * @param bits	the bitset to update
+   * @param from	the start of the source
+   * @param to		the start of the destination
+   * @param len		the number of bits to move
+   */
+  protected static void moveBits(BitSet bits, int from, int to, int len) {
+    int		i;
+
+    if (to > from) {
+      for (i = len - 1; i >= 0; i--)
+	bits.set(to + i, bits.get(from + i));
+    }
+    else {
+      for (i = 0; i < len; i++)
+	bits.set(to + i, bits.get(from + i));
+    }
+  }
+
+  /**
+   * Column that stores missing values only.
+   */
+  public static class UntypedColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = -1924981468046131962L;
+
+    /** the capacity. */
+    protected int m_Capacity;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public UntypedColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return null;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return true;
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return ContentType.MISSING;
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return Double.NaN;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      reset(cell);
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      return cell.isMissing() && !cell.isFormula();
+    }
+
+    @Override
+    public void setMissing(int row) {
+    }
+
+    @Override
+    protected int capacity() {
+      return m_Capacity;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      m_Capacity = capacity;
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new UntypedColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      m_Size = source.size();
+    }
+
+    /**
+     * Returns a column specialized for the type of the cell.
+     *
+     * @param cell	the cell to accommodate
+     * @return		the new column
+     */
+    @Override
+    public ColumnarColumn promote(DoubleCell cell) {
+      ColumnarColumn	result;
+
+      if (cell.isFormula()) {
+	result = new MixedColumn(0);
+      }
+      else {
+	switch (cell.m_ContentType) {
+	  case DOUBLE:
+	    result = new DoubleColumn(0);
+	    break;
+	  case LONG:
+	    result = new LongColumn(0);
+	    break;
+	  case BOOLEAN:
+	    result = new BooleanColumn(0);
+	    break;
+	  case STRING:
+	    result = new StringColumn(0);
+	    break;
+	  default:
+	    result = new MixedColumn(0);
+	}
+      }
+
+      result.ensureCapacity(capacity());
+      while (result.size() < m_Size)
+	result.insert(result.size());
+
+      return result;
+    }
+  }
+
+  /**
+   * Column for double values, NaN represents missing values.
+   */
+  public static class DoubleColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = 2376802457461005932L;
+
+    /** the values. */
+    protected double[] m_Values;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public DoubleColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return ContentType.DOUBLE;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return Double.isNaN(m_Values[row]);
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return Double.isNaN(m_Values[row]) ? ContentType.MISSING : ContentType.DOUBLE;
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return m_Values[row];
+    }
+
+    @Override
+    public boolean setDouble(int row, double value) {
+      m_Values[row] = value;
+      return true;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      reset(cell);
+      if (!Double.isNaN(m_Values[row])) {
+	cell.m_Content     = m_Values[row];
+	cell.m_ContentType = ContentType.DOUBLE;
+      }
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      if (cell.isFormula())
+	return false;
+      if (cell.m_ContentType == ContentType.MISSING) {
+	m_Values[row] = Double.NaN;
+	return true;
+      }
+      if (cell.m_ContentType == ContentType.DOUBLE) {
+	m_Values[row] = cell.m_Content;
+	return true;
+      }
+      return false;
+    }
+
+    @Override
+    public void setMissing(int row) {
+      m_Values[row] = Double.NaN;
+    }
+
+    @Override
+    protected int capacity() {
+      return (m_Values == null) ? 0 : m_Values.length;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      if (m_Values == null)
+	m_Values = new double[capacity];
+      else
+	m_Values = Arrays.copyOf(m_Values, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+      System.arraycopy(m_Values, from, m_Values, to, len);
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new DoubleColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+      m_Values[row] = ((DoubleColumn) source).m_Values[sourceRow];
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      System.arraycopy(((DoubleColumn) source).m_Values, 0, m_Values, 0, source.size());
+      m_Size = source.size();
+    }
+  }
+
+  /**
+   * Column for long values, with a bitmap for missing values.
+   */
+  public static class LongColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = -3581040442924213385L;
+
+    /** the values. */
+    protected long[] m_Values;
+
+    /** the missing values. */
+    protected BitSet m_Missing;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public LongColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return ContentType.LONG;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return m_Missing.get(row);
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return m_Missing.get(row) ? ContentType.MISSING : ContentType.LONG;
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return m_Missing.get(row) ? Double.NaN : m_Values[row];
+    }
+
+    @Override
+    public long getLong(int row) {
+      return m_Missing.get(row) ? 0L : m_Values[row];
+    }
+
+    @Override
+    public boolean setLong(int row, long value) {
+      m_Values[row] = value;
+      m_Missing.clear(row);
+      return true;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      reset(cell);
+      if (!m_Missing.get(row)) {
+	cell.m_Content     = m_Values[row];
+	cell.m_ContentType = ContentType.LONG;
+      }
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      if (cell.isFormula())
+	return false;
+      if (cell.m_ContentType == ContentType.MISSING) {
+	setMissing(row);
+	return true;
+      }
+      if (cell.m_ContentType == ContentType.LONG)
+	return setLong(row, (long) cell.m_Content);
+      return false;
+    }
+
+    @Override
+    public void setMissing(int row) {
+      m_Values[row] = 0L;
+      m_Missing.set(row);
+    }
+
+    @Override
+    protected int capacity() {
+      return (m_Values == null) ? 0 : m_Values.length;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      if (m_Values == null) {
+	m_Values  = new long[capacity];
+	m_Missing = new BitSet(capacity);
+      }
+      else {
+	m_Values = Arrays.copyOf(m_Values, capacity);
+      }
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+      System.arraycopy(m_Values, from, m_Values, to, len);
+      moveBits(m_Missing, from, to, len);
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new LongColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+      m_Values[row] = ((LongColumn) source).m_Values[sourceRow];
+      m_Missing.set(row, ((LongColumn) source).m_Missing.get(sourceRow));
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      System.arraycopy(((LongColumn) source).m_Values, 0, m_Values, 0, source.size());
+      m_Missing = (BitSet) ((LongColumn) source).m_Missing.clone();
+      m_Size    = source.size();
+    }
+  }
+
+  /**
+   * Column for boolean values, with a bitmap for missing values.
+   */
+  public static class BooleanColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = 2883716466006011389L;
+
+    /** the values. */
+    protected BitSet m_Values;
+
+    /** the missing values. */
+    protected BitSet m_Missing;
+
+    /** the capacity. */
+    protected int m_Capacity;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public BooleanColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return ContentType.BOOLEAN;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return m_Missing.get(row);
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return m_Missing.get(row) ? ContentType.MISSING : ContentType.BOOLEAN;
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return Double.NaN;
+    }
+
+    /**
+     * Returns the boolean value at the specified row.
+     *
+     * @param row	the row
+     * @return		the value, false if missing
+     */
+    public boolean getBoolean(int row) {
+      return m_Values.get(row);
+    }
+
+    @Override
+    public boolean setBoolean(int row, boolean value) {
+      m_Values.set(row, value);
+      m_Missing.clear(row);
+      return true;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      reset(cell);
+      if (!m_Missing.get(row)) {
+	cell.m_Content     = m_Values.get(row) ? 1 : 0;
+	cell.m_ContentType = ContentType.BOOLEAN;
+      }
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      if (cell.isFormula())
+	return false;
+      if (cell.m_ContentType == ContentType.MISSING) {
+	setMissing(row);
+	return true;
+      }
+      if (cell.m_ContentType == ContentType.BOOLEAN)
+	return setBoolean(row, cell.m_Content == 1.0);
+      return false;
+    }
+
+    @Override
+    public void setMissing(int row) {
+      m_Values.clear(row);
+      m_Missing.set(row);
+    }
+
+    @Override
+    protected int capacity() {
+      return m_Capacity;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      if (m_Values == null) {
+	m_Values  = new BitSet(capacity);
+	m_Missing = new BitSet(capacity);
+      }
+      m_Capacity = capacity;
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+      moveBits(m_Values, from, to, len);
+      moveBits(m_Missing, from, to, len);
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new BooleanColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+      m_Values.set(row, ((BooleanColumn) source).m_Values.get(sourceRow));
+      m_Missing.set(row, ((BooleanColumn) source).m_Missing.get(sourceRow));
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      m_Values  = (BitSet) ((BooleanColumn) source).m_Values.clone();
+      m_Missing = (BitSet) ((BooleanColumn) source).m_Missing.clone();
+      m_Size    = source.size();
+    }
+  }
+
+  /**
+   * Column for strings, stored as indices in the shared strings table of the
+   * spreadsheet. -1 represents missing values.
+   */
+  public static class StringColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = 3040297044425046536L;
+
+    /** the indices of the strings. */
+    protected int[] m_Indices;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public StringColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return ContentType.STRING;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return (m_Indices[row] == -1);
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return (m_Indices[row] == -1) ? ContentType.MISSING : ContentType.STRING;
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return Double.NaN;
+    }
+
+    /**
+     * Returns the index of the string in the shared strings table.
+     *
+     * @param row	the row
+     * @return		the index, -1 if missing
+     */
+    public int getIndex(int row) {
+      return m_Indices[row];
+    }
+
+    @Override
+    public boolean setString(int row, int index) {
+      m_Indices[row] = index;
+      return true;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      reset(cell);
+      if (m_Indices[row] != -1) {
+	cell.m_Content     = m_Indices[row];
+	cell.m_ContentType = ContentType.STRING;
+      }
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      if (cell.isFormula())
+	return false;
+      if (cell.m_ContentType == ContentType.MISSING) {
+	setMissing(row);
+	return true;
+      }
+      if (cell.m_ContentType == ContentType.STRING)
+	return setString(row, (int) cell.m_Content);
+      return false;
+    }
+
+    @Override
+    public void setMissing(int row) {
+      m_Indices[row] = -1;
+    }
+
+    @Override
+    protected int capacity() {
+      return (m_Indices == null) ? 0 : m_Indices.length;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      if (m_Indices == null)
+	m_Indices = new int[capacity];
+      else
+	m_Indices = Arrays.copyOf(m_Indices, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+      System.arraycopy(m_Indices, from, m_Indices, to, len);
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new StringColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+      m_Indices[row] = ((StringColumn) source).m_Indices[sourceRow];
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      System.arraycopy(((StringColumn) source).m_Indices, 0, m_Indices, 0, source.size());
+      m_Size = source.size();
+    }
+  }
+
+  /**
+   * Column that can store any content, using the same encoding as
+   * {@link DoubleCell}. Formulas and objects are stored in arrays that
+   * only get allocated once required.
+   */
+  public static class MixedColumn
+    extends ColumnarColumn {
+
+    private static final long serialVersionUID = -8806069998962227372L;
+
+    /** the content types. */
+    protected static final ContentType[] TYPES = ContentType.values();
+
+    /** the content. */
+    protected double[] m_Content;
+
+    /** the content types (ordinals). */
+    protected byte[] m_Types;
+
+    /** the formulas (lazily allocated). */
+    protected String[] m_Formulas;
+
+    /** the objects (lazily allocated). */
+    protected Object[] m_Objects;
+
+    /**
+     * Initializes the column.
+     *
+     * @param size	the number of (missing) rows
+     */
+    public MixedColumn(int size) {
+      super(size);
+    }
+
+    @Override
+    public ContentType getType() {
+      return null;
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+      return (m_Types[row] == ContentType.MISSING.ordinal());
+    }
+
+    @Override
+    public ContentType getContentType(int row) {
+      return TYPES[m_Types[row]];
+    }
+
+    @Override
+    public boolean hasFormula(int row) {
+      return (m_Formulas != null) && (m_Formulas[row] != null);
+    }
+
+    @Override
+    public double getDouble(int row) {
+      if ((m_Types[row] == ContentType.DOUBLE.ordinal()) || (m_Types[row] == ContentType.LONG.ordinal()))
+	return m_Content[row];
+      return Double.NaN;
+    }
+
+    @Override
+    public boolean setDouble(int row, double value) {
+      setMissing(row);
+      m_Content[row] = value;
+      m_Types[row]   = (byte) ContentType.DOUBLE.ordinal();
+      return true;
+    }
+
+    @Override
+    public boolean setLong(int row, long value) {
+      setMissing(row);
+      m_Content[row] = value;
+      m_Types[row]   = (byte) ContentType.LONG.ordinal();
+      return true;
+    }
+
+    @Override
+    public boolean setBoolean(int row, boolean value) {
+      setMissing(row);
+      m_Content[row] = value ? 1 : 0;
+      m_Types[row]   = (byte) ContentType.BOOLEAN.ordinal();
+      return true;
+    }
+
+    @Override
+    public boolean setString(int row, int index) {
+      setMissing(row);
+      m_Content[row] = index;
+      m_Types[row]   = (byte) ContentType.STRING.ordinal();
+      return true;
+    }
+
+    @Override
+    public void load(int row, DoubleCell cell) {
+      cell.m_Content     = m_Content[row];
+      cell.m_ContentType = TYPES[m_Types[row]];
+      cell.m_Formula     = (m_Formulas == null) ? null : m_Formulas[row];
+      cell.m_Object      = (m_Objects == null) ? null : m_Objects[row];
+    }
+
+    @Override
+    public boolean store(int row, DoubleCell cell) {
+      m_Content[row] = cell.m_Content;
+      m_Types[row]   = (byte) ((cell.m_ContentType == null) ? ContentType.MISSING : cell.m_ContentType).ordinal();
+      if (cell.m_Formula != null) {
+	if (m_Formulas == null)
+	  m_Formulas = new String[capacity()];
+	m_Formulas[row] = cell.m_Formula;
+      }
+      else if (m_Formulas != null) {
+	m_Formulas[row] = null;
+      }
+      if (cell.m_Object != null) {
+	if (m_Objects == null)
+	  m_Objects = new Object[capacity()];
+	m_Objects[row] = cell.m_Object;
+      }
+      else if (m_Objects != null) {
+	m_Objects[row] = null;
+      }
+      return true;
+    }
+
+    @Override
+    public void setMissing(int row) {
+      m_Content[row] = Double.NaN;
+      m_Types[row]   = (byte) ContentType.MISSING.ordinal();
+      if (m_Formulas != null)
+	m_Formulas[row] = null;
+      if (m_Objects != null)
+	m_Objects[row] = null;
+    }
+
+    @Override
+    protected int capacity() {
+      return (m_Content == null) ? 0 : m_Content.length;
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      if (m_Content == null) {
+	m_Content = new double[capacity];
+	m_Types   = new byte[capacity];
+      }
+      else {
+	m_Content = Arrays.copyOf(m_Content, capacity);
+	m_Types   = Arrays.copyOf(m_Types, capacity);
+	if (m_Formulas != null)
+	  m_Formulas = Arrays.copyOf(m_Formulas, capacity);
+	if (m_Objects != null)
+	  m_Objects = Arrays.copyOf(m_Objects, capacity);
+      }
+    }
+
+    @Override
+    protected void move(int from, int to, int len) {
+      System.arraycopy(m_Content, from, m_Content, to, len);
+      System.arraycopy(m_Types, from, m_Types, to, len);
+      if (m_Formulas != null)
+	System.arraycopy(m_Formulas, from, m_Formulas, to, len);
+      if (m_Objects != null)
+	System.arraycopy(m_Objects, from, m_Objects, to, len);
+    }
+
+    @Override
+    protected ColumnarColumn newInstance() {
+      return new MixedColumn(0);
+    }
+
+    @Override
+    protected void copyFrom(ColumnarColumn source, int sourceRow, int row) {
+      MixedColumn	mixed;
+
+      mixed          = (MixedColumn) source;
+      m_Content[row] = mixed.m_Content[sourceRow];
+      m_Types[row]   = mixed.m_Types[sourceRow];
+      if ((mixed.m_Formulas != null) && (mixed.m_Formulas[sourceRow] != null)) {
+	if (m_Formulas == null)
+	  m_Formulas = new String[capacity()];
+	m_Formulas[row] = mixed.m_Formulas[sourceRow];
+      }
+      if ((mixed.m_Objects != null) && (mixed.m_Objects[sourceRow] != null)) {
+	if (m_Objects == null)
+	  m_Objects = new Object[capacity()];
+	m_Objects[row] = mixed.m_Objects[sourceRow];
+      }
+    }
+
+    @Override
+    protected void copyRange(ColumnarColumn source) {
+      MixedColumn	mixed;
+
+      mixed = (MixedColumn) source;
+      System.arraycopy(mixed.m_Content, 0, m_Content, 0, source.size());
+      System.arraycopy(mixed.m_Types, 0, m_Types, 0, source.size());
+      if (mixed.m_Formulas != null)
+	m_Formulas = Arrays.copyOf(mixed.m_Formulas, capacity());
+      if (mixed.m_Objects != null)
+	m_Objects = Arrays.copyOf(mixed.m_Objects, capacity());
+      m_Size = source.size();
+    }
+
+    /**
+     * Mixed columns can store any content.
+     *
+     * @param cell	ignored
+     * @return		the column itself
+     */
+    @Override
+    public ColumnarColumn promote(DoubleCell cell) {
+      return this;
+    }
+  }
+}
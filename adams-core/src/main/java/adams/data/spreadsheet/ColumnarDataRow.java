@@ -0,0 +1,452 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarDataRow.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spreadsheet;
+
+import adams.event.SpreadSheetColumnInsertionEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lightweight row view on a row index of a {@link ColumnarSpreadSheet}.
+ * The actual data is stored in the columns of the spreadsheet.
+ * <br>
+ * NB: the row index is fixed, i.e., inserting or removing rows before this
+ * row invalidates the view.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarDataRow
+  implements DataRow {
+
+  private static final long serialVersionUID = 4129862001283496124L;
+
+  /** the owner. */
+  protected ColumnarSpreadSheet m_Owner;
+
+  /** the row index. */
+  protected int m_Index;
+
+  /**
+   * Initializes the row.
+   *
+   * @param owner	the spreadsheet this row belongs to
+   * @param index	the row index
+   */
+  public ColumnarDataRow(ColumnarSpreadSheet owner, int index) {
+    super();
+
+    m_Owner = owner;
+    m_Index = index;
+  }
+
+  /**
+   * Does nothing, as the row is tied to its spreadsheet.
+   *
+   * @param owner	ignored
+   */
+  @Override
+  public void setOwner(SpreadSheet owner) {
+  }
+
+  /**
+   * Returns the spreadsheet this row belongs to.
+   *
+   * @return		the owner
+   */
+  @Override
+  public ColumnarSpreadSheet getOwner() {
+    return m_Owner;
+  }
+
+  /**
+   * Returns the row index in the spreadsheet.
+   *
+   * @return		the index
+   */
+  public int getRowIndex() {
+    return m_Index;
+  }
+
+  /**
+   * Creates a (dense) copy of itself.
+   *
+   * @param owner	the new owner
+   * @return		the cloned object
+   */
+  @Override
+  public DataRow getClone(SpreadSheet owner) {
+    DenseDataRow	result;
+    int			i;
+
+    result = new DenseDataRow(owner);
+    for (i = 0; i < result.getCellCount() && i < getCellCount(); i++)
+      result.getCell(i).assign(getCell(i));
+
+    return result;
+  }
+
+  /**
+   * Sets all cells to missing.
+   */
+  @Override
+  public void clear() {
+    int		i;
+
+    for (i = 0; i < getCellCount(); i++)
+      m_Owner.setMissing(m_Index, i);
+  }
+
+  /**
+   * Obtains copies of the cells from the other row, but not the owner.
+   *
+   * @param row		the row to get the cells from
+   */
+  @Override
+  public void assign(Row row) {
+    int		i;
+
+    clear();
+
+    for (i = 0; i < getCellCount(); i++) {
+      if (row.hasCell(i))
+	getCell(i).assign(row.getCell(i));
+    }
+  }
+
+  /**
+   * Creates a new, detached instance of a cell.
+   *
+   * @param owner	the owner
+   * @return		the cell
+   */
+  @Override
+  public Cell newCell(Row owner) {
+    return new DoubleCell(owner);
+  }
+
+  /**
+   * Returns whether the row alread contains the cell at the specified location.
+   *
+   * @param columnIndex	the column index
+   * @return		true if the cell already exists
+   */
+  @Override
+  public boolean hasCell(int columnIndex) {
+    return (columnIndex >= 0) && (columnIndex < getCellCount());
+  }
+
+  /**
+   * Returns whether the row alread contains the cell with the given key.
+   *
+   * @param cellKey	the key to look for
+   * @return		true if the cell already exists
+   */
+  @Override
+  public boolean hasCell(String cellKey) {
+    return m_Owner.getHeaderRow().hasCell(cellKey);
+  }
+
+  /**
+   * Returns whether the row has a non-empty/non-missing cell at the specified location.
+   *
+   * @param columnIndex	the column index
+   * @return		true if the cell already exists
+   */
+  @Override
+  public boolean isEmpty(int columnIndex) {
+    return !hasCell(columnIndex)
+	     || getCell(columnIndex).isMissing()
+	     || getCell(columnIndex).getContent().isEmpty();
+  }
+
+  /**
+   * Returns whether the row has a non-empty/non-missing cell with the given key.
+   *
+   * @param cellKey	the key to look for
+   * @return		true if the cell already exists
+   */
+  @Override
+  public boolean isEmpty(String cellKey) {
+    return isEmpty(m_Owner.getHeaderRow().indexOf(cellKey));
+  }
+
+  /**
+   * Returns the cell at the specified location.
+   *
+   * @param columnIndex	the index of the column
+   * @return		the cell, null if outside header bounds
+   */
+  @Override
+  public Cell addCell(int columnIndex) {
+    return getCell(columnIndex);
+  }
+
+  /**
+   * Returns the cell with the given key.
+   *
+   * @param cellKey	the key for the cell
+   * @return		the cell, null if outside header bounds
+   */
+  @Override
+  public Cell addCell(String cellKey) {
+    return getCell(cellKey);
+  }
+
+  /**
+   * Sets the cell at the specified index to missing, as the columns are
+   * managed by the spreadsheet.
+   *
+   * @param columnIndex	the index of the column
+   * @return		a copy of the removed cell, null if not removed
+   */
+  @Override
+  public Cell removeCell(int columnIndex) {
+    Cell	result;
+
+    if (!hasCell(columnIndex))
+      return null;
+
+    result = newCell(this);
+    result.assign(getCell(columnIndex));
+    m_Owner.setMissing(m_Index, columnIndex);
+
+    return result;
+  }
+
+  /**
+   * Sets the cell with the given key to missing.
+   *
+   * @param cellKey	the key of the cell to remove
+   * @return		a copy of the removed cell, null if not removed
+   */
+  @Override
+  public Cell removeCell(String cellKey) {
+    return removeCell(m_Owner.getHeaderRow().indexOf(cellKey));
+  }
+
+  /**
+   * Returns the cell with the given key, null if not found.
+   *
+   * @param cellKey	the cell to look for
+   * @return		the cell or null if not found
+   */
+  @Override
+  public Cell getCell(String cellKey) {
+    return getCell(m_Owner.getHeaderRow().indexOf(cellKey));
+  }
+
+  /**
+   * Returns the cell with the given index, null if not found.
+   *
+   * @param columnIndex	the index of the column
+   * @return		the cell or null if not found
+   */
+  @Override
+  public Cell getCell(int columnIndex) {
+    if (hasCell(columnIndex))
+      return new ColumnarCell(this, columnIndex);
+    else
+      return null;
+  }
+
+  /**
+   * Returns the cell content with the given index.
+   *
+   * @param columnIndex	the index of the column
+   * @return		the content or null if not found
+   */
+  @Override
+  public String getContent(int columnIndex) {
+    if (hasCell(columnIndex))
+      return getCell(columnIndex).getContent();
+    else
+      return null;
+  }
+
+  /**
+   * Returns the cell key with the given column index.
+   *
+   * @param columnIndex	the index of the column
+   * @return		the cell key, null if invalid index
+   */
+  @Override
+  public String getCellKey(int columnIndex) {
+    return m_Owner.getHeaderRow().getCellKey(columnIndex);
+  }
+
+  /**
+   * Returns a collection of all stored cell keys.
+   *
+   * @return		all cell keys (sorted according to columns)
+   */
+  @Override
+  public Collection<String> cellKeys() {
+    return m_Owner.getHeaderRow().cellKeys();
+  }
+
+  /**
+   * Returns all cells.
+   *
+   * @return		the cells
+   */
+  @Override
+  public Collection<Cell> cells() {
+    List<Cell>	result;
+    int		i;
+
+    result = new ArrayList<>();
+    for (i = 0; i < getCellCount(); i++)
+      result.add(getCell(i));
+
+    return result;
+  }
+
+  /**
+   * Returns the number of cells stored in the row.
+   *
+   * @return		the number of columns
+   */
+  @Override
+  public int getCellCount() {
+    return m_Owner.getColumnCount();
+  }
+
+  /**
+   * Does nothing as the underlying data structure is fixed.
+   *
+   * @return		always false
+   */
+  @Override
+  public boolean removeMissing() {
+    return false;
+  }
+
+  /**
+   * Returns the column this particular cell is in (must belong to this row!).
+   *
+   * @param cell	the cell to get the column index of
+   * @return		the column index, -1 if not found
+   */
+  @Override
+  public int indexOf(Cell cell) {
+    if ((cell instanceof ColumnarCell) && equals(cell.getOwner()))
+      return cell.index();
+    else
+      return -1;
+  }
+
+  /**
+   * Does nothing, as the spreadsheet manages the columns.
+   *
+   * @param e		the insertion event
+   */
+  @Override
+  public void spreadSheetColumnInserted(SpreadSheetColumnInsertionEvent e) {
+  }
+
+  /**
+   * Merges its own data with the one provided by the specified row.
+   * <br><br>
+   * Assumes that this sheet's header has already been updated.
+   *
+   * @param other		the row to merge with
+   */
+  @Override
+  public void mergeWith(Row other) {
+    int		i;
+    int		start;
+
+    start = getCellCount() - other.getCellCount();
+    for (i = 0; i < other.getOwner().getColumnCount(); i++) {
+      if (!other.hasCell(i) || other.getCell(i).isMissing())
+	m_Owner.setMissing(m_Index, start + i);
+      else
+	getCell(start + i).assign(other.getCell(i));
+    }
+  }
+
+  /**
+   * Returns the cells as string.
+   *
+   * @return		the values of the row
+   */
+  @Override
+  public String toString() {
+    StringBuilder	result;
+    int			i;
+
+    result = new StringBuilder();
+    for (i = 0; i < getCellCount(); i++) {
+      if (i > 0)
+	result.append(",");
+      result.append(getCell(i).toString());
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns whether logging output is suppressed, e.g., from parse errors.
+   *
+   * @return		true if quiet
+   */
+  @Override
+  public boolean isQuiet() {
+    return m_Owner.isQuiet();
+  }
+
+  /**
+   * Returns whether to only store formulas and not evaluate them.
+   *
+   * @return		true if only stored
+   */
+  @Override
+  public boolean getOnlyStoreFormulas() {
+    return m_Owner.getOnlyStoreFormulas();
+  }
+
+  /**
+   * Checks whether the other object is a view on the same row.
+   *
+   * @param obj		the object to compare with
+   * @return		true if the same row
+   */
+  @Override
+  public boolean equals(Object obj) {
+    ColumnarDataRow	other;
+
+    if (!(obj instanceof ColumnarDataRow))
+      return false;
+    other = (ColumnarDataRow) obj;
+    return (other.m_Owner == m_Owner) && (other.m_Index == m_Index);
+  }
+
+  /**
+   * Returns the hashcode of the row.
+   *
+   * @return		the hashcode
+   */
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(m_Owner) * 31 + m_Index;
+  }
+}
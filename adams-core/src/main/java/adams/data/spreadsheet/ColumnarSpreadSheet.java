@@ -0,0 +1,805 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheet.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spreadsheet;
+
+import adams.data.spreadsheet.Cell.ContentType;
+import adams.data.spreadsheet.ColumnarColumn.LongColumn;
+import adams.data.spreadsheet.ColumnarColumn.StringColumn;
+import adams.data.spreadsheet.ColumnarColumn.UntypedColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Spreadsheet that stores its data column-wise in primitive arrays rather
+ * than as row and cell objects. Numeric columns are stored as double or
+ * long arrays, boolean columns as bitsets and strings as indices into the
+ * shared strings table. Columns with mixed content types, formulas or
+ * objects fall back to a generic representation.
+ * <br>
+ * Rows and cells obtained from this spreadsheet are lightweight views that
+ * get created on the fly. Inserting, removing or sorting rows invalidates
+ * any views that are currently held.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheet
+  extends DefaultSpreadSheet {
+
+  private static final long serialVersionUID = -2306452108718006571L;
+
+  /** the columns. */
+  protected ArrayList<ColumnarColumn> m_Columns;
+
+  /** the number of rows. */
+  protected int m_RowCount;
+
+  /** the row keys, null if the keys are the row indices. */
+  protected ArrayList<String> m_CustomRowKeys;
+
+  /** the lookup for the custom row keys. */
+  protected transient HashMap<String,Integer> m_RowKeyIndex;
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_Columns       = new ArrayList<>();
+    m_RowCount      = 0;
+    m_CustomRowKeys = null;
+    m_RowKeyIndex   = null;
+  }
+
+  /**
+   * Returns a clone of itself.
+   *
+   * @return		the clone
+   */
+  @Override
+  public SpreadSheet getClone() {
+    ColumnarSpreadSheet	result;
+
+    result = (ColumnarSpreadSheet) super.getClone();
+    syncColumns();
+    for (ColumnarColumn column: m_Columns)
+      result.m_Columns.add(column.copy());
+    result.m_RowCount = m_RowCount;
+    if (m_CustomRowKeys != null)
+      result.m_CustomRowKeys = new ArrayList<>(m_CustomRowKeys);
+
+    return result;
+  }
+
+  /**
+   * Removes all cells, but leaves comments.
+   */
+  @Override
+  public void clear() {
+    super.clear();
+
+    m_Columns.clear();
+    m_RowCount      = 0;
+    m_CustomRowKeys = null;
+    m_RowKeyIndex   = null;
+  }
+
+  /**
+   * Adds untyped columns for columns that were added to the header row
+   * directly.
+   */
+  protected void syncColumns() {
+    while (m_Columns.size() < getColumnCount())
+      m_Columns.add(new UntypedColumn(m_RowCount));
+  }
+
+  /**
+   * Returns the storage of the specified column.
+   *
+   * @param columnIndex	the column
+   * @return		the storage
+   */
+  public ColumnarColumn getColumn(int columnIndex) {
+    if (columnIndex >= m_Columns.size())
+      syncColumns();
+    return m_Columns.get(columnIndex);
+  }
+
+  /**
+   * Loads the content of the specified position into the cell.
+   *
+   * @param rowIndex	the row
+   * @param columnIndex	the column
+   * @param cell	the cell to update
+   */
+  protected void load(int rowIndex, int columnIndex, DoubleCell cell) {
+    getColumn(columnIndex).load(rowIndex, cell);
+  }
+
+  /**
+   * Stores the content of the cell at the specified position. Promotes
+   * the column if it cannot store the type of the cell.
+   *
+   * @param rowIndex	the row
+   * @param columnIndex	the column
+   * @param cell	the cell to get the content from
+   */
+  protected synchronized void store(int rowIndex, int columnIndex, DoubleCell cell) {
+    ColumnarColumn	column;
+
+    column = getColumn(columnIndex);
+    if (!column.store(rowIndex, cell)) {
+      column = column.promote(cell);
+      m_Columns.set(columnIndex, column);
+      column.store(rowIndex, cell);
+    }
+  }
+
+  /**
+   * Sets the specified position to missing.
+   *
+   * @param rowIndex	the row
+   * @param columnIndex	the column
+   */
+  protected void setMissing(int rowIndex, int columnIndex) {
+    getColumn(columnIndex).setMissing(rowIndex);
+  }
+
+  /**
+   * Switches from implicit row keys to explicitly stored ones.
+   */
+  protected void materializeRowKeys() {
+    int		i;
+
+    if (m_CustomRowKeys != null)
+      return;
+
+    m_CustomRowKeys = new ArrayList<>(m_RowCount);
+    for (i = 0; i < m_RowCount; i++)
+      m_CustomRowKeys.add("" + i);
+    m_RowKeyIndex = null;
+  }
+
+  /**
+   * Returns whether the spreadsheet already contains the row with the given index.
+   *
+   * @param rowIndex	the index to look for
+   * @return		true if the row already exists
+   */
+  @Override
+  public boolean hasRow(int rowIndex) {
+    return (rowIndex >= 0) && (rowIndex < m_RowCount);
+  }
+
+  /**
+   * Returns whether the spreadsheet already contains the row with the given key.
+   *
+   * @param rowKey	the key to look for
+   * @return		true if the row already exists
+   */
+  @Override
+  public boolean hasRow(String rowKey) {
+    return (getRowIndex(rowKey) > -1);
+  }
+
+  /**
+   * Adds a row with the given key to the list and returns the created object.
+   * If the row already exists, then this row is returned instead and no new
+   * object created.
+   *
+   * @param rowKey	the key for the row to create
+   * @return		the created row or the already existing row
+   */
+  @Override
+  public synchronized DataRow addRow(String rowKey) {
+    int		index;
+
+    index = getRowIndex(rowKey);
+    if (index > -1)
+      return getRow(index);
+
+    if ((m_CustomRowKeys == null) && !rowKey.equals("" + m_RowCount))
+      materializeRowKeys();
+    if (m_CustomRowKeys != null) {
+      m_CustomRowKeys.add(rowKey);
+      if (m_RowKeyIndex != null)
+	m_RowKeyIndex.put(rowKey, m_RowCount);
+    }
+
+    syncColumns();
+    for (ColumnarColumn column: m_Columns)
+      column.insert(m_RowCount);
+    m_RowCount++;
+
+    return getRow(m_RowCount - 1);
+  }
+
+  /**
+   * Inserts a row at the specified location.
+   *
+   * @param index	the index where to insert the row
+   * @return		the created row
+   */
+  @Override
+  public synchronized DataRow insertRow(int index) {
+    int		i;
+    String	rowKey;
+
+    // determine cell key for row
+    i = 0;
+    do {
+      i++;
+      rowKey = "inserted-" + i;
+    }
+    while (hasRow(rowKey));
+
+    materializeRowKeys();
+    m_CustomRowKeys.add(index, rowKey);
+    m_RowKeyIndex = null;
+
+    syncColumns();
+    for (ColumnarColumn column: m_Columns)
+      column.insert(index);
+    m_RowCount++;
+
+    return getRow(index);
+  }
+
+  /**
+   * Removes the specified row.
+   *
+   * @param rowKey	the row to remove
+   * @return		a copy of the row that was removed, null if none removed
+   */
+  @Override
+  public synchronized Row removeRow(String rowKey) {
+    Row		result;
+    int		index;
+
+    if (rowKey == null)
+      return null;
+    index = getRowIndex(rowKey);
+    if (index == -1)
+      return null;
+
+    result = getRow(index).getClone(this);
+    if (index < m_RowCount - 1)
+      materializeRowKeys();
+    if (m_CustomRowKeys != null) {
+      m_CustomRowKeys.remove(index);
+      m_RowKeyIndex = null;
+    }
+
+    syncColumns();
+    for (ColumnarColumn column: m_Columns)
+      column.remove(index);
+    m_RowCount--;
+
+    return result;
+  }
+
+  /**
+   * Inserts a column at the specified location.
+   *
+   * @param columnIndex	the position of the column
+   * @param header	the name of the column
+   * @param initial	the initial value for the cells, "null" for missing
+   * 			values (in that case no cells are added)
+   * @param forceString	whether to enforce the value to be set as string
+   */
+  @Override
+  public synchronized void insertColumn(int columnIndex, String header, String initial, boolean forceString) {
+    int		i;
+
+    syncColumns();
+    getHeaderRow().insertCell(columnIndex).setContent(header);
+    m_Columns.add(columnIndex, new UntypedColumn(m_RowCount));
+
+    if (initial != null) {
+      for (i = 0; i < m_RowCount; i++) {
+	if (forceString)
+	  getCell(i, columnIndex).setContentAsString(initial);
+	else
+	  getCell(i, columnIndex).setContent(initial);
+      }
+    }
+  }
+
+  /**
+   * Removes the specified column.
+   *
+   * @param columnKey	the column to remove
+   * @return		true if removed
+   */
+  @Override
+  public synchronized boolean removeColumn(String columnKey) {
+    int		index;
+
+    index = getHeaderRow().indexOf(columnKey);
+    if (index == -1)
+      return false;
+
+    syncColumns();
+    m_Columns.remove(index);
+    getHeaderRow().removeCell(columnKey);
+
+    return true;
+  }
+
+  /**
+   * Returns the row associated with the given row key, null if not found.
+   *
+   * @param rowKey	the key of the row to retrieve
+   * @return		the row or null if not found
+   */
+  @Override
+  public DataRow getRow(String rowKey) {
+    int		index;
+
+    index = getRowIndex(rowKey);
+    if (index == -1)
+      return null;
+    else
+      return getRow(index);
+  }
+
+  /**
+   * Returns the row at the specified index.
+   *
+   * @param rowIndex	the 0-based index of the row to retrieve
+   * @return		the row
+   */
+  @Override
+  public DataRow getRow(int rowIndex) {
+    if (!hasRow(rowIndex))
+      throw new IndexOutOfBoundsException("Index: " + rowIndex + ", Size: " + m_RowCount);
+    return new ColumnarDataRow(this, rowIndex);
+  }
+
+  /**
+   * Returns the row key at the specified index.
+   *
+   * @param rowIndex	the 0-based index of the row key to retrieve
+   * @return		the row key
+   */
+  @Override
+  public String getRowKey(int rowIndex) {
+    if (m_CustomRowKeys != null)
+      return m_CustomRowKeys.get(rowIndex);
+    if (!hasRow(rowIndex))
+      throw new IndexOutOfBoundsException("Index: " + rowIndex + ", Size: " + m_RowCount);
+    return "" + rowIndex;
+  }
+
+  /**
+   * Returns the row index of the specified row.
+   *
+   * @param rowKey	the row identifier
+   * @return		the 0-based row index, -1 if not found
+   */
+  @Override
+  public synchronized int getRowIndex(String rowKey) {
+    int		i;
+    Integer	index;
+
+    if (rowKey == null)
+      return -1;
+
+    if (m_CustomRowKeys == null) {
+      try {
+	i = Integer.parseInt(rowKey);
+	if (hasRow(i) && rowKey.equals("" + i))
+	  return i;
+      }
+      catch (Exception e) {
+	// ignored
+      }
+      return -1;
+    }
+
+    if (m_RowKeyIndex == null) {
+      m_RowKeyIndex = new HashMap<>();
+      for (i = 0; i < m_CustomRowKeys.size(); i++)
+	m_RowKeyIndex.put(m_CustomRowKeys.get(i), i);
+    }
+    index = m_RowKeyIndex.get(rowKey);
+
+    return (index == null) ? -1 : index;
+  }
+
+  /**
+   * Checks whether the cell with the given indices already exists.
+   *
+   * @param rowIndex	the index of the row to look for
+   * @param columnIndex	the index of the cell in the row to look for
+   * @return		true if the cell exists
+   */
+  @Override
+  public boolean hasCell(int rowIndex, int columnIndex) {
+    return hasRow(rowIndex) && (columnIndex >= 0) && (columnIndex < getColumnCount());
+  }
+
+  /**
+   * Returns the corresponding cell or null if not found.
+   *
+   * @param rowIndex	the index of the row the cell is in
+   * @param columnIndex	the column of the cell to retrieve
+   * @return		the cell or null if not found
+   */
+  @Override
+  public Cell getCell(int rowIndex, int columnIndex) {
+    if (!hasCell(rowIndex, columnIndex))
+      return null;
+    return new ColumnarCell(new ColumnarDataRow(this, rowIndex), columnIndex);
+  }
+
+  /**
+   * Returns a collection of all row keys.
+   *
+   * @return		the row keys
+   */
+  @Override
+  public Collection<String> rowKeys() {
+    List<String>	result;
+    int			i;
+
+    if (m_CustomRowKeys != null)
+      return Collections.unmodifiableCollection(m_CustomRowKeys);
+
+    result = new ArrayList<>(m_RowCount);
+    for (i = 0; i < m_RowCount; i++)
+      result.add("" + i);
+
+    return Collections.unmodifiableCollection(result);
+  }
+
+  /**
+   * Returns all rows.
+   *
+   * @return		the rows
+   */
+  @Override
+  public Collection<DataRow> rows() {
+    ArrayList<DataRow>	result;
+    int			i;
+
+    result = new ArrayList<>(m_RowCount);
+    for (i = 0; i < m_RowCount; i++)
+      result.add(new ColumnarDataRow(this, i));
+
+    return result;
+  }
+
+  /**
+   * Rearranges the rows.
+   *
+   * @param indices	the row indices in the new order (can be fewer than the current rows)
+   * @param keys	the new row keys, null for implicit ones
+   */
+  protected synchronized void reorder(int[] indices, ArrayList<String> keys) {
+    int		i;
+
+    syncColumns();
+    for (i = 0; i < m_Columns.size(); i++)
+      m_Columns.set(i, m_Columns.get(i).reorder(indices));
+    m_RowCount      = indices.length;
+    m_CustomRowKeys = keys;
+    m_RowKeyIndex   = null;
+  }
+
+  /**
+   * Sorts the rows according to the row keys.
+   *
+   * @param comp	the comparator to use, null for natural ordering
+   * @see		#rowKeys()
+   */
+  @Override
+  public void sortRowKeys(Comparator<String> comp) {
+    Integer[]		order;
+    int[]		indices;
+    ArrayList<String>	keys;
+    int			i;
+
+    materializeRowKeys();
+    order = new Integer[m_RowCount];
+    for (i = 0; i < m_RowCount; i++)
+      order[i] = i;
+    if (comp == null)
+      Arrays.sort(order, (i1, i2) -> m_CustomRowKeys.get(i1).compareTo(m_CustomRowKeys.get(i2)));
+    else
+      Arrays.sort(order, (i1, i2) -> comp.compare(m_CustomRowKeys.get(i1), m_CustomRowKeys.get(i2)));
+
+    indices = new int[m_RowCount];
+    keys    = new ArrayList<>(m_RowCount);
+    for (i = 0; i < m_RowCount; i++) {
+      indices[i] = order[i];
+      keys.add(m_CustomRowKeys.get(order[i]));
+    }
+    reorder(indices, keys);
+  }
+
+  /**
+   * Sorts the rows according to the row keys.
+   *
+   * @see	#rowKeys()
+   */
+  @Override
+  public void sortRowKeys() {
+    sortRowKeys(null);
+  }
+
+  /**
+   * Sorts the rows based on the values in the specified column.
+   * Numeric and string columns get sorted directly on the column storage.
+   * <br><br>
+   * NB: the row keys will change!
+   *
+   * @param index	the index (0-based) of the column to sort on
+   * @param asc		wether sorting is ascending or descending
+   * @see 		#sort(RowComparator)
+   */
+  @Override
+  public void sort(int index, boolean asc) {
+    ColumnarColumn		column;
+    Comparator<Integer>		comp;
+    Integer[]			order;
+    int[]			indices;
+    int				i;
+
+    column = getColumn(index);
+    if ((column.getType() == ContentType.DOUBLE) || (column.getType() == ContentType.LONG))
+      comp = (i1, i2) -> compareNumeric(column, i1, i2);
+    else if (column.getType() == ContentType.STRING)
+      comp = (i1, i2) -> compareString((StringColumn) column, i1, i2);
+    else
+      comp = null;
+
+    if (comp == null) {
+      super.sort(index, asc);
+      return;
+    }
+
+    order = new Integer[m_RowCount];
+    for (i = 0; i < m_RowCount; i++)
+      order[i] = i;
+    if (asc)
+      Arrays.sort(order, comp);
+    else
+      Arrays.sort(order, comp.reversed());
+
+    indices = new int[m_RowCount];
+    for (i = 0; i < m_RowCount; i++)
+      indices[i] = order[i];
+    reorder(indices, null);
+  }
+
+  /**
+   * Compares two numeric values of a column, missing values are smaller.
+   *
+   * @param column	the column to use
+   * @param row1	the first row
+   * @param row2	the second row
+   * @return		the comparison result
+   * @see		RowComparator
+   */
+  protected int compareNumeric(ColumnarColumn column, int row1, int row2) {
+    boolean	missing1;
+    boolean	missing2;
+    double	d1;
+    double	d2;
+    long	l1;
+    long	l2;
+
+    missing1 = column.isMissing(row1);
+    missing2 = column.isMissing(row2);
+    if (missing1 && missing2)
+      return 0;
+    if (missing1)
+      return -1;
+    if (missing2)
+      return +1;
+
+    if (column instanceof LongColumn) {
+      l1 = column.getLong(row1);
+      l2 = column.getLong(row2);
+      return Long.compare(l1, l2);
+    }
+
+    d1 = column.getDouble(row1);
+    d2 = column.getDouble(row2);
+    if (d1 < d2)
+      return -1;
+    else if (d1 == d2)
+      return 0;
+    else
+      return +1;
+  }
+
+  /**
+   * Compares two string values of a column, missing values are smaller.
+   *
+   * @param column	the column to use
+   * @param row1	the first row
+   * @param row2	the second row
+   * @return		the comparison result
+   * @see		RowComparator
+   */
+  protected int compareString(StringColumn column, int row1, int row2) {
+    int		idx1;
+    int		idx2;
+
+    idx1 = column.getIndex(row1);
+    idx2 = column.getIndex(row2);
+    if ((idx1 == -1) && (idx2 == -1))
+      return 0;
+    if (idx1 == -1)
+      return -1;
+    if (idx2 == -1)
+      return +1;
+    if (idx1 == idx2)
+      return 0;
+
+    return m_StringsTable.getString(idx1).compareTo(m_StringsTable.getString(idx2));
+  }
+
+  /**
+   * Sorts the rows using the given comparator.
+   * <br><br>
+   * NB: the row keys will change!
+   *
+   * @param comp	the row comparator to use
+   * @param unique	whether to drop any duplicate rows (based on row comparator)
+   */
+  @Override
+  public void sort(RowComparator comp, boolean unique) {
+    List<DataRow>	list;
+    int[]		indices;
+    int			count;
+    int			i;
+    DataRow		last;
+    DataRow		current;
+
+    list = new ArrayList<>(rows());
+    list.sort(comp);
+
+    indices = new int[list.size()];
+    count   = 0;
+    last    = null;
+    for (i = 0; i < list.size(); i++) {
+      current = list.get(i);
+      if (!unique || (last == null) || (comp.compare(last, current) != 0)) {
+	indices[count] = ((ColumnarDataRow) current).getRowIndex();
+	count++;
+	last = current;
+      }
+    }
+    if (count < indices.length)
+      indices = Arrays.copyOf(indices, count);
+
+    reorder(indices, null);
+  }
+
+  /**
+   * Returns the number of rows currently stored.
+   *
+   * @return		the number of rows
+   */
+  @Override
+  public int getRowCount() {
+    return m_RowCount;
+  }
+
+  /**
+   * Returns the all content types of the given column, if available.
+   * Typed columns are determined directly from the column storage.
+   *
+   * @param columnIndex	the index of the column to check
+   * @return		the content types that this column consists of
+   */
+  @Override
+  public Collection<ContentType> getContentTypes(int columnIndex) {
+    HashSet<ContentType>	result;
+    ColumnarColumn		column;
+    int				i;
+
+    column = getColumn(columnIndex);
+    if (column.getType() == null)
+      return super.getContentTypes(columnIndex);
+
+    result = new HashSet<>();
+    for (i = 0; i < m_RowCount; i++) {
+      if (!column.isMissing(i)) {
+	result.add(column.getType());
+	break;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the numeric values of the specified column, without creating
+   * any row or cell objects.
+   *
+   * @param columnIndex	the column to retrieve the values for
+   * @return		the values, NaN for missing or non-numeric values
+   */
+  public double[] getNumericColumn(int columnIndex) {
+    ColumnarColumn	column;
+    double[]		result;
+    int			i;
+    Cell		cell;
+
+    column = getColumn(columnIndex);
+    result = new double[m_RowCount];
+    for (i = 0; i < m_RowCount; i++) {
+      if (column.hasFormula(i)) {
+	cell      = getCell(i, columnIndex);
+	result[i] = cell.isNumeric() ? cell.toDouble() : Double.NaN;
+      }
+      else {
+	result[i] = column.getDouble(i);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the numeric values of the specified column, skipping missing
+   * and non-numeric values.
+   *
+   * @param columnIndex	the column to retrieve the values for
+   * @return		the values
+   */
+  public double[] getNumericValues(int columnIndex) {
+    double[]	values;
+    double[]	result;
+    int		count;
+    int		i;
+
+    values = getNumericColumn(columnIndex);
+    result = new double[values.length];
+    count  = 0;
+    for (i = 0; i < values.length; i++) {
+      if (!Double.isNaN(values[i]))
+	result[count++] = values[i];
+    }
+
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Reduces the column storage to the actual number of rows.
+   */
+  public synchronized void compact() {
+    syncColumns();
+    for (ColumnarColumn column: m_Columns)
+      column.compact();
+  }
+}
@@ -315,6 +315,9 @@ public class SpreadSheetUtils {
     Cell		cell;
     double		val;
 
+    if (sheet instanceof ColumnarSpreadSheet)
+      return ((ColumnarSpreadSheet) sheet).getNumericColumn(col);
+
     result = new TDoubleArrayList(sheet.getRowCount());
     for (i = 0; i < sheet.getRowCount(); i++) {
       row = sheet.getRow(i);
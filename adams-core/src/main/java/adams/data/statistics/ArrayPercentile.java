@@ -15,7 +15,7 @@
 
 /**
  * ArrayPercentile.java
- * Copyright (C) 2011 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.statistics;
 
@@ -134,9 +134,7 @@ public class ArrayPercentile<T extends Number>
   protected StatisticContainer doCalculate() {
     StatisticContainer<Number>	result;
     int				i;
-    int				n;
     String 			prefix;
-    Percentile<Double>		perc;
 
     result = new StatisticContainer<Number>(1, size());
 
@@ -144,18 +142,14 @@ public class ArrayPercentile<T extends Number>
     if (size() > 1)
       prefix += "-";
 
-    perc = new Percentile<Double>();
     for (i = 0; i < size(); i++) {
       if (size() > 1)
 	result.setHeader(i, prefix + (i+1));
       else
 	result.setHeader(i, prefix);
 
-      perc.clear();
-      for (n = 0; n < get(i).length; n++)
-	perc.add(get(i)[n].doubleValue());
-
-      result.setCell(0, i, perc.getPercentile(m_Percentile));
+      if (get(i).length > 0)
+	result.setCell(0, i, StatUtils.percentile(get(i), m_Percentile));
     }
 
     return result;
@@ -15,7 +15,7 @@
 
 /*
  * StatUtils.java
- * Copyright (C) 2008-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.statistics;
@@ -305,6 +305,26 @@ public class StatUtils {
     return result;
   }
 
+  /**
+   * Turns the int array into one consisting of primitive doubles.
+   *
+   * @param array	the array to convert
+   * @return		the converted array
+   */
+  public static double[] toDoubleArray(int[] array) {
+    double[]	result;
+    int		i;
+
+    if (array == null)
+      return null;
+
+    result = new double[array.length];
+    for (i = 0; i < array.length; i++)
+      result[i] = array[i];
+
+    return result;
+  }
+
   /**
    * Returns the (first occurrence of the) index of the cell with the smallest
    * number. -1 in case of zero-length arrays.
@@ -595,7 +615,17 @@ public class StatUtils {
    * @return		the mean
    */
   public static double mean(int[] array) {
-    return mean(toNumberArray(array));
+    double	result;
+    int		i;
+
+    if (array.length == 0)
+      return Double.NaN;
+
+    result = 0;
+    for (i = 0; i < array.length; i++)
+      result += array[i];
+
+    return result / array.length;
   }
 
   /**
@@ -606,7 +636,17 @@ public class StatUtils {
    * @return		the mean
    */
   public static double mean(double[] array) {
-    return mean(toNumberArray(array));
+    double	result;
+    int		i;
+
+    if (array.length == 0)
+      return Double.NaN;
+
+    result = 0;
+    for (i = 0; i < array.length; i++)
+      result += array[i];
+
+    return result / array.length;
   }
 
   /**
@@ -617,7 +657,22 @@ public class StatUtils {
    * @return		the iqr
    */
   public static double iqr(double[] array) {
-    return iqr(toNumberArray(array));
+    double[]	work;
+    int		index1;
+    int		index3;
+    double 	iqr1;
+    double	iqr3;
+
+    if (array.length == 0)
+      return Double.NaN;
+
+    work   = array.clone();
+    index1 = (int) (work.length * 0.25);
+    index3 = (int) (work.length * 0.75);
+    iqr1   = select(work, 0, work.length, index1);
+    iqr3   = select(work, index1, work.length, index3);
+
+    return iqr3 - iqr1;
   }
 
   /**
@@ -628,7 +683,7 @@ public class StatUtils {
    * @return		the iqr
    */
   public static double iqr(int[] array) {
-    return iqr(toNumberArray(array));
+    return iqr(toDoubleArray(array));
   }
 
   /**
@@ -639,20 +694,7 @@ public class StatUtils {
    * @return		the iqr
    */
   public static double iqr(Number[] array) {
-    Number[]	sorted;
-    double 	iqr1;
-    double	iqr3;
-
-    if (array.length == 0)
-      return Double.NaN;
-
-    sorted = array.clone();
-    Arrays.sort(sorted);
-
-    iqr1 = sorted[(int) (sorted.length * 0.25)].doubleValue();
-    iqr3 = sorted[(int) (sorted.length * 0.75)].doubleValue();
-
-    return iqr3 - iqr1;
+    return iqr(toDoubleArray(array));
   }
 
   /**
@@ -664,7 +706,10 @@ public class StatUtils {
    * @return		the quartile
    */
   public static double quartile(double[] array, double quartile) {
-    return quartile(toNumberArray(array), quartile);
+    if (array.length == 0)
+      return Double.NaN;
+
+    return select(array.clone(), (int) (array.length * quartile));
   }
 
   /**
@@ -676,7 +721,7 @@ public class StatUtils {
    * @return		the quartile
    */
   public static double quartile(int[] array, double quartile) {
-    return quartile(toNumberArray(array), quartile);
+    return quartile(toDoubleArray(array), quartile);
   }
 
   /**
@@ -688,43 +733,144 @@ public class StatUtils {
    * @return		the quartile
    */
   public static double quartile(Number[] array, double quartile) {
-    double  result;
-    Number[]	sorted;
+    return quartile(toDoubleArray(array), quartile);
+  }
+
+  /**
+   * Returns the percentile of the given array, using the same index
+   * calculation as {@link Percentile#getPercentile(double)}.
+   * NaN is returned in case of zero-length arrays.
+   *
+   * @param array	the array to work on
+   * @param percentage	the percentage of the percentile (0-1)
+   * @return		the percentile
+   */
+  public static double percentile(double[] array, double percentage) {
+    int		index;
 
     if (array.length == 0)
       return Double.NaN;
 
-    sorted = array.clone();
-    Arrays.sort(sorted);
-
-    result = sorted[(int) (sorted.length * quartile)].doubleValue();
+    index = (int) Math.ceil(((double) array.length) * percentage) - 1;
+    if (index < 0)
+      index = 0;
 
-    return result;
+    return select(array.clone(), index);
   }
 
   /**
-   * Returns the median of the given array.
+   * Returns the percentile of the given array, using the same index
+   * calculation as {@link Percentile#getPercentile(double)}.
    * NaN is returned in case of zero-length arrays.
    *
    * @param array	the array to work on
-   * @return		the median
+   * @param percentage	the percentage of the percentile (0-1)
+   * @return		the percentile
    */
-  public static double median(Number[] array) {
-    double	result;
-    Number[]	sorted;
+  public static double percentile(Number[] array, double percentage) {
+    return percentile(toDoubleArray(array), percentage);
+  }
 
-    if (array.length == 0)
-      return Double.NaN;
+  /**
+   * Rearranges the elements of the array in place, so that the element at
+   * position k is the one that would be there if the array were sorted
+   * (ascending, using {@link Double#compare(double, double)}). All elements
+   * to the left are smaller or equal, all elements to the right are larger or
+   * equal. Uses quickselect, i.e., linear time on average instead of a full sort.
+   *
+   * @param array	the array to work on, gets modified
+   * @param k		the position of the element to select
+   * @return		the selected element
+   */
+  public static double select(double[] array, int k) {
+    return select(array, 0, array.length, k);
+  }
 
-    sorted = array.clone();
-    Arrays.sort(sorted);
+  /**
+   * Rearranges the elements in the range of the array in place, so that the
+   * element at position k is the one that would be there if the range were
+   * sorted (ascending, using {@link Double#compare(double, double)}).
+   *
+   * @param array	the array to work on, gets modified
+   * @param from	the first index of the range (incl)
+   * @param to		the last index of the range (excl)
+   * @param k		the position of the element to select
+   * @return		the selected element
+   * @see		#select(double[], int)
+   */
+  public static double select(double[] array, int from, int to, int k) {
+    int		left;
+    int		right;
+    int		mid;
+    int		i;
+    int		j;
+    double	pivot;
+
+    if ((k < from) || (k >= to))
+      throw new ArrayIndexOutOfBoundsException("Index " + k + " outside range [" + from + ", " + to + ")");
+
+    left  = from;
+    right = to - 1;
+    while (right > left) {
+      // median of three as pivot
+      mid = (left + right) >>> 1;
+      if (Double.compare(array[mid], array[left]) < 0)
+	swap(array, left, mid);
+      if (Double.compare(array[right], array[left]) < 0)
+	swap(array, left, right);
+      if (Double.compare(array[right], array[mid]) < 0)
+	swap(array, mid, right);
+      pivot = array[mid];
+
+      i = left;
+      j = right;
+      while (i <= j) {
+	while (Double.compare(array[i], pivot) < 0)
+	  i++;
+	while (Double.compare(array[j], pivot) > 0)
+	  j--;
+	if (i <= j) {
+	  swap(array, i, j);
+	  i++;
+	  j--;
+	}
+      }
 
-    if (sorted.length % 2 == 0)
-      result = (sorted[sorted.length / 2 - 1].doubleValue() + sorted[sorted.length / 2].doubleValue()) / 2;
-    else
-      result = sorted[sorted.length / 2].doubleValue();
+      if (k <= j)
+	right = j;
+      else if (k >= i)
+	left = i;
+      else
+	break;
+    }
 
-    return result;
+    return array[k];
+  }
+
+  /**
+   * Swaps the two elements in the array.
+   *
+   * @param array	the array to work on
+   * @param i		the first index
+   * @param j		the second index
+   */
+  protected static void swap(double[] array, int i, int j) {
+    double	tmp;
+
+    tmp      = array[i];
+    array[i] = array[j];
+    array[j] = tmp;
+  }
+
+  /**
+   * Returns the median of the given array.
+   * NaN is returned in case of zero-length arrays.
+   *
+   * @param array	the array to work on
+   * @return		the median
+   */
+  public static double median(Number[] array) {
+    return median(toDoubleArray(array));
   }
 
   /**
@@ -735,7 +881,7 @@ public class StatUtils {
    * @return		the median
    */
   public static double median(int[] array) {
-    return median(toNumberArray(array));
+    return median(toDoubleArray(array));
   }
 
   /**
@@ -746,7 +892,29 @@ public class StatUtils {
    * @return		the median
    */
   public static double median(double[] array) {
-    return median(toNumberArray(array));
+    double[]	work;
+    double	upper;
+    double	lower;
+    int		mid;
+    int		i;
+
+    if (array.length == 0)
+      return Double.NaN;
+
+    work  = array.clone();
+    mid   = work.length / 2;
+    upper = select(work, mid);
+    if (work.length % 2 == 1)
+      return upper;
+
+    // after selection, the lower middle is the largest value left of mid
+    lower = work[0];
+    for (i = 1; i < mid; i++) {
+      if (Double.compare(work[i], lower) > 0)
+	lower = work[i];
+    }
+
+    return (lower + upper) / 2;
   }
 
   /**
@@ -760,8 +928,23 @@ public class StatUtils {
    * @return		the std deviation
    */
   public static double stddev(Number[] array, boolean isSample) {
+    return stddev(toDoubleArray(array), isSample);
+  }
+
+  /**
+   * Returns the std deviation of the given array.
+   * NaN is returned in case of zero-length arrays.
+   *
+   * @param array	the array to work on
+   * @param isSample	if true, then the sample standard deviation instead
+   * 			of the population standard deviation is calculated
+   * 			(using n-1 instead of n).
+   * @return		the std deviation
+   */
+  public static double stddev(int[] array, boolean isSample) {
     double	result;
     double	mean;
+    double	delta;
     int		i;
 
     if (array.length == 0)
@@ -769,8 +952,10 @@ public class StatUtils {
 
     result = 0;
     mean   = mean(array);
-    for (i = 0; i < array.length; i++)
-      result += Math.pow(array[i].doubleValue() - mean, 2);
+    for (i = 0; i < array.length; i++) {
+      delta   = array[i] - mean;
+      result += delta * delta;
+    }
     if (isSample)
       result /= (array.length - 1);
     else
@@ -780,20 +965,6 @@ public class StatUtils {
     return result;
   }
 
-  /**
-   * Returns the std deviation of the given array.
-   * NaN is returned in case of zero-length arrays.
-   *
-   * @param array	the array to work on
-   * @param isSample	if true, then the sample standard deviation instead
-   * 			of the population standard deviation is calculated
-   * 			(using n-1 instead of n).
-   * @return		the std deviation
-   */
-  public static double stddev(int[] array, boolean isSample) {
-    return stddev(toNumberArray(array), isSample);
-  }
-
   /**
    * Returns the std deviation of the given array.
    * NaN is returned in case of zero-length arrays.
@@ -805,7 +976,27 @@ public class StatUtils {
    * @return		the std deviation
    */
   public static double stddev(double[] array, boolean isSample) {
-    return stddev(toNumberArray(array), isSample);
+    double	result;
+    double	mean;
+    double	delta;
+    int		i;
+
+    if (array.length == 0)
+      return Double.NaN;
+
+    result = 0;
+    mean   = mean(array);
+    for (i = 0; i < array.length; i++) {
+      delta   = array[i] - mean;
+      result += delta * delta;
+    }
+    if (isSample)
+      result /= (array.length - 1);
+    else
+      result /= array.length;
+    result = Math.sqrt(result);
+
+    return result;
   }
 
   /**
@@ -1039,7 +1230,14 @@ public class StatUtils {
    * @return		the sum
    */
   public static double sumOfSquares(int[] array) {
-    return sumOfSquares(toNumberArray(array));
+    double	result;
+    int		i;
+
+    result = 0.0;
+    for (i = 0; i < array.length; i++)
+      result += (double) array[i] * array[i];
+
+    return result;
   }
 
   /**
@@ -1049,7 +1247,14 @@ public class StatUtils {
    * @return		the sum
    */
   public static double sumOfSquares(double[] array) {
-    return sumOfSquares(toNumberArray(array));
+    double	result;
+    int		i;
+
+    result = 0.0;
+    for (i = 0; i < array.length; i++)
+      result += array[i] * array[i];
+
+    return result;
   }
 
   /**
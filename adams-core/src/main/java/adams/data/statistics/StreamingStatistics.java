@@ -0,0 +1,340 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StreamingStatistics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.statistics;
+
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.array.TDoubleArrayList;
+
+import java.io.Serializable;
+
+/**
+ * Accumulates count, sum, min, max, mean and variance of primitive doubles
+ * in a single pass (Welford), without storing the values. Accumulators can
+ * be merged (Chan et al.), e.g., when statistics get computed in parallel
+ * over partitions of the data.
+ * <br>
+ * Order statistics (median, percentiles, IQR) require the values to be
+ * kept, which has to be enabled via the constructor. If the values are kept,
+ * variance and standard deviation get computed with two passes over them,
+ * like {@link StatUtils#stddev(double[], boolean)}, so that both return the
+ * same results.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StreamingStatistics
+  implements Serializable {
+
+  private static final long serialVersionUID = -3829237146727362207L;
+
+  /** the number of values. */
+  protected long m_Count;
+
+  /** the sum of the values. */
+  protected double m_Sum;
+
+  /** the running mean. */
+  protected double m_Mean;
+
+  /** the running sum of squared differences from the mean. */
+  protected double m_M2;
+
+  /** the smallest value. */
+  protected double m_Min;
+
+  /** the largest value. */
+  protected double m_Max;
+
+  /** the values, null if not kept. */
+  protected TDoubleArrayList m_Values;
+
+  /**
+   * Initializes the accumulator, without keeping the values.
+   */
+  public StreamingStatistics() {
+    this(false);
+  }
+
+  /**
+   * Initializes the accumulator.
+   *
+   * @param keepValues	whether to keep the values, required for order statistics
+   */
+  public StreamingStatistics(boolean keepValues) {
+    m_Values = keepValues ? new TDoubleArrayList() : null;
+    clear();
+  }
+
+  /**
+   * Removes all values.
+   */
+  public void clear() {
+    m_Count = 0;
+    m_Sum   = 0.0;
+    m_Mean  = 0.0;
+    m_M2    = 0.0;
+    m_Min   = Double.POSITIVE_INFINITY;
+    m_Max   = Double.NEGATIVE_INFINITY;
+    if (m_Values != null)
+      m_Values.clear();
+  }
+
+  /**
+   * Returns whether the values are kept.
+   *
+   * @return		true if kept
+   */
+  public boolean isKeepingValues() {
+    return (m_Values != null);
+  }
+
+  /**
+   * Adds the value.
+   *
+   * @param value	the value to add
+   */
+  public void add(double value) {
+    double	delta;
+
+    m_Count++;
+    m_Sum  += value;
+    delta   = value - m_Mean;
+    m_Mean += delta / m_Count;
+    m_M2   += delta * (value - m_Mean);
+    if (value < m_Min)
+      m_Min = value;
+    if (value > m_Max)
+      m_Max = value;
+    if (m_Values != null)
+      m_Values.add(value);
+  }
+
+  /**
+   * Adds all the values.
+   *
+   * @param values	the values to add
+   */
+  public void addAll(double[] values) {
+    int		i;
+
+    for (i = 0; i < values.length; i++)
+      add(values[i]);
+  }
+
+  /**
+   * Adds all the values.
+   *
+   * @param values	the values to add
+   */
+  public void addAll(TDoubleList values) {
+    int		i;
+
+    for (i = 0; i < values.size(); i++)
+      add(values.get(i));
+  }
+
+  /**
+   * Merges the other accumulator into this one.
+   *
+   * @param other	the accumulator to merge
+   * @throws IllegalStateException	if this accumulator keeps values but the other one doesn't
+   */
+  public void merge(StreamingStatistics other) {
+    long	count;
+    double	delta;
+
+    if (other.m_Count == 0)
+      return;
+    if ((m_Values != null) && (other.m_Values == null))
+      throw new IllegalStateException("Cannot merge accumulator that doesn't keep values!");
+
+    count   = m_Count + other.m_Count;
+    delta   = other.m_Mean - m_Mean;
+    m_Mean += delta * other.m_Count / count;
+    m_M2   += other.m_M2 + delta * delta * ((double) m_Count * other.m_Count) / count;
+    m_Count = count;
+    m_Sum  += other.m_Sum;
+    m_Min   = Math.min(m_Min, other.m_Min);
+    m_Max   = Math.max(m_Max, other.m_Max);
+    if (m_Values != null)
+      m_Values.addAll(other.m_Values);
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return		the count
+   */
+  public long getCount() {
+    return m_Count;
+  }
+
+  /**
+   * Returns the sum of the values.
+   *
+   * @return		the sum
+   */
+  public double getSum() {
+    return m_Sum;
+  }
+
+  /**
+   * Returns the mean (sum / count), as calculated by
+   * {@link StatUtils#mean(double[])}.
+   *
+   * @return		the mean, NaN if no values
+   */
+  public double getMean() {
+    if (m_Count == 0)
+      return Double.NaN;
+    return m_Sum / m_Count;
+  }
+
+  /**
+   * Returns the variance.
+   *
+   * @param isSample	if true, then the sample variance instead
+   * 			of the population variance is calculated
+   * 			(using n-1 instead of n).
+   * @return		the variance, NaN if no values
+   */
+  public double getVariance(boolean isSample) {
+    double	mean;
+    double	delta;
+    double	sum;
+    int		i;
+
+    if (m_Count == 0)
+      return Double.NaN;
+
+    if (m_Values == null)
+      return m_M2 / (isSample ? m_Count - 1 : m_Count);
+
+    // two-pass, as in StatUtils
+    mean = getMean();
+    sum  = 0.0;
+    for (i = 0; i < m_Values.size(); i++) {
+      delta = m_Values.get(i) - mean;
+      sum  += delta * delta;
+    }
+    return sum / (isSample ? m_Count - 1 : m_Count);
+  }
+
+  /**
+   * Returns the standard deviation.
+   *
+   * @param isSample	if true, then the sample standard deviation instead
+   * 			of the population standard deviation is calculated
+   * 			(using n-1 instead of n).
+   * @return		the standard deviation, NaN if no values
+   */
+  public double getStandardDeviation(boolean isSample) {
+    return Math.sqrt(getVariance(isSample));
+  }
+
+  /**
+   * Returns the signal to noise ratio (mean / sample standard deviation).
+   *
+   * @return		the ratio
+   * @see		StatUtils#signalToNoiseRatio(double[])
+   */
+  public double getSignalToNoiseRatio() {
+    return getMean() / getStandardDeviation(true);
+  }
+
+  /**
+   * Returns the smallest value.
+   *
+   * @return		the smallest value, NaN if no values
+   */
+  public double getMin() {
+    if (m_Count == 0)
+      return Double.NaN;
+    return m_Min;
+  }
+
+  /**
+   * Returns the largest value.
+   *
+   * @return		the largest value, NaN if no values
+   */
+  public double getMax() {
+    if (m_Count == 0)
+      return Double.NaN;
+    return m_Max;
+  }
+
+  /**
+   * Returns the kept values.
+   *
+   * @return		the values
+   * @throws IllegalStateException	if values aren't kept
+   */
+  protected double[] values() {
+    if (m_Values == null)
+      throw new IllegalStateException("Values are not kept, cannot compute order statistics!");
+    return m_Values.toArray();
+  }
+
+  /**
+   * Returns the median.
+   *
+   * @return		the median, NaN if no values
+   * @throws IllegalStateException	if values aren't kept
+   */
+  public double getMedian() {
+    return StatUtils.median(values());
+  }
+
+  /**
+   * Returns the percentile.
+   *
+   * @param percentage	the percentage of the percentile (0-1)
+   * @return		the percentile, NaN if no values
+   * @throws IllegalStateException	if values aren't kept
+   * @see		StatUtils#percentile(double[], double)
+   */
+  public double getPercentile(double percentage) {
+    return StatUtils.percentile(values(), percentage);
+  }
+
+  /**
+   * Returns the interquartile range.
+   *
+   * @return		the IQR, NaN if no values
+   * @throws IllegalStateException	if values aren't kept
+   */
+  public double getIQR() {
+    return StatUtils.iqr(values());
+  }
+
+  /**
+   * Returns a short description of the statistics.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return
+      "count=" + getCount() + ", min=" + getMin() + ", max=" + getMax()
+	+ ", sum=" + getSum() + ", mean=" + getMean()
+	+ ", stdev=" + getStandardDeviation(true);
+  }
+}
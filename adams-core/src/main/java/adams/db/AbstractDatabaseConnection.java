@@ -32,6 +32,7 @@ import adams.core.logging.LoggingObject;
 import adams.core.option.OptionHandler;
 import adams.core.option.OptionManager;
 import adams.core.option.OptionUtils;
+import adams.db.pool.ConnectionPool;
 import adams.env.AbstractEnvironment;
 import adams.event.DatabaseConnectionChangeEvent;
 import adams.event.DatabaseConnectionChangeEvent.EventType;
@@ -39,6 +40,7 @@ import adams.event.DatabaseConnectionChangeListener;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -115,6 +117,24 @@ public abstract class AbstractDatabaseConnection
   /** The database connection. */
   protected transient Connection m_Connection;
 
+  /** the maximum number of pooled connections (0 = no pooling). */
+  protected int m_PoolSize;
+
+  /** whether to validate pooled connections on borrow. */
+  protected boolean m_PoolValidate;
+
+  /** the time in msec after which idle pooled connections get closed. */
+  protected int m_PoolMaxIdle;
+
+  /** the number of prepared statements to cache per pooled connection. */
+  protected int m_PoolStatementCache;
+
+  /** the maximum time in msec to wait for a pooled connection. */
+  protected int m_PoolTimeout;
+
+  /** the connection pool. */
+  protected transient ConnectionPool m_Pool;
+
   /** whether we could connect successfully. */
   protected boolean m_ConnectionOK;
 
@@ -267,6 +287,26 @@ public abstract class AbstractDatabaseConnection
     m_OptionManager.add(
 	"auto-commit", "autoCommit",
 	getDefaultAutoCommit());
+
+    m_OptionManager.add(
+	"pool-size", "poolSize",
+	0, 0, null);
+
+    m_OptionManager.add(
+	"pool-validate", "poolValidate",
+	true);
+
+    m_OptionManager.add(
+	"pool-max-idle", "poolMaxIdle",
+	60000, 0, null);
+
+    m_OptionManager.add(
+	"pool-statement-cache", "poolStatementCache",
+	20, 0, null);
+
+    m_OptionManager.add(
+	"pool-timeout", "poolTimeout",
+	30000, 0, null);
   }
 
   /**
@@ -463,6 +503,7 @@ public abstract class AbstractDatabaseConnection
 
     m_URL = value;
     m_ConnectionOK = false;
+    closePool();
   }
 
   /**
@@ -516,6 +557,7 @@ public abstract class AbstractDatabaseConnection
 
     m_User = value;
     m_ConnectionOK      = false;
+    closePool();
   }
 
   /**
@@ -569,6 +611,7 @@ public abstract class AbstractDatabaseConnection
 
     m_Password = value;
     m_ConnectionOK      = false;
+    closePool();
   }
 
   /**
@@ -755,6 +798,7 @@ public abstract class AbstractDatabaseConnection
 
     m_AutoCommit   = value;
     m_ConnectionOK = false;
+    closePool();
   }
 
   /**
@@ -767,6 +811,246 @@ public abstract class AbstractDatabaseConnection
     return "Whether to set the auto-commit property for the connection.";
   }
 
+  /**
+   * Sets the maximum number of pooled connections. Any existing pool gets
+   * closed.
+   *
+   * @param value	the maximum, 0 to turn off pooling
+   */
+  public void setPoolSize(int value) {
+    if (getOptionManager().isValid("poolSize", value)) {
+      m_PoolSize = value;
+      closePool();
+    }
+  }
+
+  /**
+   * Returns the maximum number of pooled connections.
+   *
+   * @return		the maximum, 0 if pooling is turned off
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolSizeTipText() {
+    return "The maximum number of pooled connections for operations that borrow a connection; 0 turns off pooling. When pooling without auto-commit, each operation gets committed (or rolled back on error) individually, i.e., transactions do not span multiple operations.";
+  }
+
+  /**
+   * Sets whether to validate pooled connections on borrow. Any existing pool
+   * gets closed.
+   *
+   * @param value	true if to validate
+   */
+  public void setPoolValidate(boolean value) {
+    m_PoolValidate = value;
+    closePool();
+  }
+
+  /**
+   * Returns whether to validate pooled connections on borrow.
+   *
+   * @return		true if to validate
+   */
+  public boolean getPoolValidate() {
+    return m_PoolValidate;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolValidateTipText() {
+    return "If enabled, idle pooled connections get validated before being handed out.";
+  }
+
+  /**
+   * Sets the time after which idle pooled connections get closed. Any
+   * existing pool gets closed.
+   *
+   * @param value	the time in msec, 0 for no eviction
+   */
+  public void setPoolMaxIdle(int value) {
+    if (getOptionManager().isValid("poolMaxIdle", value)) {
+      m_PoolMaxIdle = value;
+      closePool();
+    }
+  }
+
+  /**
+   * Returns the time after which idle pooled connections get closed.
+   *
+   * @return		the time in msec, 0 for no eviction
+   */
+  public int getPoolMaxIdle() {
+    return m_PoolMaxIdle;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolMaxIdleTipText() {
+    return "The time in msec after which idle pooled connections get closed; 0 keeps them open.";
+  }
+
+  /**
+   * Sets the number of prepared statements to cache per pooled connection.
+   * Any existing pool gets closed.
+   *
+   * @param value	the number of statements, 0 to turn off caching
+   */
+  public void setPoolStatementCache(int value) {
+    if (getOptionManager().isValid("poolStatementCache", value)) {
+      m_PoolStatementCache = value;
+      closePool();
+    }
+  }
+
+  /**
+   * Returns the number of prepared statements to cache per pooled connection.
+   *
+   * @return		the number of statements, 0 if caching is turned off
+   */
+  public int getPoolStatementCache() {
+    return m_PoolStatementCache;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolStatementCacheTipText() {
+    return "The number of prepared statements to cache per pooled connection; 0 turns off caching.";
+  }
+
+  /**
+   * Sets the maximum time to wait for a pooled connection. Any existing pool
+   * gets closed.
+   *
+   * @param value	the time in msec
+   */
+  public void setPoolTimeout(int value) {
+    if (getOptionManager().isValid("poolTimeout", value)) {
+      m_PoolTimeout = value;
+      closePool();
+    }
+  }
+
+  /**
+   * Returns the maximum time to wait for a pooled connection.
+   *
+   * @return		the time in msec
+   */
+  public int getPoolTimeout() {
+    return m_PoolTimeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolTimeoutTipText() {
+    return "The maximum time in msec to wait for a pooled connection to become available.";
+  }
+
+  /**
+   * Returns whether pooling is enabled.
+   *
+   * @return		true if pooling enabled
+   */
+  public boolean isPooled() {
+    return (m_PoolSize > 0);
+  }
+
+  /**
+   * Returns the connection pool, initializing it if necessary.
+   *
+   * @return		the pool, null if pooling is turned off
+   */
+  public synchronized ConnectionPool getPool() {
+    if (!isPooled())
+      return null;
+
+    if ((m_Pool == null) || m_Pool.isClosed()) {
+      m_Pool = new ConnectionPool(m_URL, m_User, m_Password, m_AutoCommit);
+      m_Pool.setLoggingLevel(getLoggingLevel());
+      m_Pool.setMaxSize(m_PoolSize);
+      m_Pool.setValidateOnBorrow(m_PoolValidate);
+      m_Pool.setMaxIdle(m_PoolMaxIdle);
+      m_Pool.setStatementCacheSize(m_PoolStatementCache);
+      m_Pool.setBorrowTimeout(m_PoolTimeout);
+    }
+
+    return m_Pool;
+  }
+
+  /**
+   * Closes the connection pool, if any. Connections currently in use get
+   * closed once they are returned.
+   */
+  protected synchronized void closePool() {
+    if (m_Pool != null) {
+      m_Pool.close();
+      m_Pool = null;
+    }
+  }
+
+  /**
+   * Borrows a connection for a single operation. If pooling is enabled, the
+   * connection is obtained from the pool and needs to be returned via
+   * {@link #releaseConnection(Connection)} (or by closing it), otherwise the
+   * shared connection is returned.
+   *
+   * @return		the connection, null if failed to connect
+   * @throws SQLException	if pool failed to provide connection
+   * @see		#getPool()
+   */
+  public Connection borrowConnection() throws SQLException {
+    if (isPooled())
+      return getPool().borrow();
+    else
+      return getConnection(true);
+  }
+
+  /**
+   * Returns a connection obtained via {@link #borrowConnection()}. Does
+   * nothing if the connection is not a pooled one.
+   *
+   * @param conn	the connection to return, can be null
+   */
+  public void releaseConnection(Connection conn) {
+    ConnectionPool	pool;
+
+    synchronized(this) {
+      pool = m_Pool;
+    }
+    if ((pool == null) || !pool.isPooled(conn))
+      return;
+
+    try {
+      conn.close();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to return connection to pool: " + m_URL, e);
+    }
+  }
+
   /**
    * Returns the current connection parameters.
    *
@@ -1092,6 +1376,7 @@ public abstract class AbstractDatabaseConnection
   public synchronized boolean disconnect() {
     if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
       getLogger().log(Level.FINE, "Disconnect request originated from:", LoggingHelper.getStackTrace(-1));
+    closePool();
     if (m_Connection != null) {
       getLogger().info("disconnecting: " + m_URL);
       try {
@@ -15,7 +15,7 @@
 
 /*
  * ReportTableByDBID.java
- * Copyright (C) 2009-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.db;
 
@@ -25,6 +25,7 @@ import adams.core.logging.LoggingHelper;
 import adams.data.report.AbstractField;
 import adams.data.report.DataType;
 import adams.data.report.Field;
+import adams.data.report.FieldUtils;
 import adams.data.report.Report;
 
 import java.util.List;
@@ -56,7 +57,7 @@ public abstract class ReportTableByDBID<R extends Report, F extends AbstractFiel
   }
 
   /**
-   * Creates a new Field object.
+   * Creates a new (interned) Field object.
    *
    * @param name	the name of the field
    * @param type	the type of the field
@@ -75,7 +76,7 @@ public abstract class ReportTableByDBID<R extends Report, F extends AbstractFiel
     else
       throw new IllegalStateException("Unhandled type '" + type + "'!");
 
-    return result;
+    return FieldUtils.intern(result);
   }
 
   /**
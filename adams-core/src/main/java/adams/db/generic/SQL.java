@@ -153,6 +153,32 @@ public class SQL
     return m_LastConnection;
   }
 
+  /**
+   * Borrows a connection for a single operation. Uses the connection pool
+   * if enabled, otherwise the (cached) shared connection.
+   *
+   * @return		the connection object
+   * @throws SQLException	if the pool failed to provide a connection
+   * @see		#releaseConnection(Connection)
+   */
+  protected Connection borrowConnection() throws SQLException {
+    if (getDatabaseConnection().isPooled())
+      return getDatabaseConnection().borrowConnection();
+    else
+      return getConnection(true);
+  }
+
+  /**
+   * Returns the connection obtained via {@link #borrowConnection()}. A pooled
+   * connection only gets returned to the pool once all its statements have
+   * been closed.
+   *
+   * @param conn	the connection to return, can be null
+   */
+  protected void releaseConnection(Connection conn) {
+    getDatabaseConnection().releaseConnection(conn);
+  }
+
   /**
    * Sets whether debugging is enabled, outputs more on the console.
    *
@@ -210,8 +236,9 @@ public class SQL
 
     result     = false;
     rs         = null;
-    connection = getConnection(true);
+    connection = null;
     try {
+      connection  = borrowConnection();
       dbmd        = connection.getMetaData();
       connCatalog = connection.getCatalog();
       rs          = dbmd.getTables(connection.getCatalog(), null, "%", null);
@@ -260,6 +287,7 @@ public class SQL
     }
     finally{
       SQLUtils.closeAll(rs);
+      releaseConnection(connection);
     }
 
     return result;
@@ -281,8 +309,9 @@ public class SQL
 
     result = false;
     rs     = null;
-    conn   = getConnection(true);
+    conn   = null;
     try{
+      conn   = borrowConnection();
       dbmd   = conn.getMetaData();
       table  = updateTableName(dbmd, table);
       rs     = dbmd.getColumns(conn.getCatalog(), null, table, column);
@@ -305,6 +334,7 @@ public class SQL
     }
     finally{
       SQLUtils.closeAll(rs);
+      releaseConnection(conn);
     }
 
     return result;
@@ -330,7 +360,15 @@ public class SQL
    */
   @Override
   public Statement createStatement() throws Exception {
-    return getConnection(true).createStatement();
+    Connection	conn;
+
+    conn = borrowConnection();
+    try {
+      return conn.createStatement();
+    }
+    finally {
+      releaseConnection(conn);
+    }
   }
 
   /**
@@ -356,7 +394,15 @@ public class SQL
    */
   @Override
   public PreparedStatement prepareStatement(String query, boolean returnKeys) throws Exception {
-    return prepareStatement(getConnection(true), query, returnKeys);
+    Connection	conn;
+
+    conn = borrowConnection();
+    try {
+      return prepareStatement(conn, query, returnKeys);
+    }
+    finally {
+      releaseConnection(conn);
+    }
   }
 
   /**
@@ -450,7 +496,7 @@ public class SQL
     Statement 	stmt;
 
     query = "UPDATE " + table + " SET " + updateString + " WHERE " + where;
-    connection = getConnection(true);
+    connection = borrowConnection();
     stmt = null;
     if (isLoggingEnabled())
       getLogger().info("Updating: " + query);
@@ -481,6 +527,7 @@ public class SQL
 	result = stmt.getUpdateCount();
 	stmt.close();
       }
+      releaseConnection(connection);
     }
 
     return result;
@@ -496,7 +543,7 @@ public class SQL
    */
   @Override
   public ResultSet executeGeneratedKeys(String query) throws Exception {
-    Connection connection = getConnection(true);
+    Connection connection = borrowConnection();
     Statement stmt = null;
     if (isLoggingEnabled())
       getLogger().info("Execute generated keys: " + query);
@@ -517,6 +564,9 @@ public class SQL
 	stmt.close();
       return(null);
     }
+    finally {
+      releaseConnection(connection);
+    }
   }
 
   /**
@@ -532,7 +582,7 @@ public class SQL
     Statement 	stmt;
     Boolean 	result;
 
-    connection = getConnection(true);
+    connection = borrowConnection();
     if (connection == null)
       throw new IllegalStateException(
 	  "Connection object is null (" + m_DatabaseConnection.toStringShort() + "/" + m_DatabaseConnection.hashCode() + ")!");
@@ -562,6 +612,7 @@ public class SQL
     }
     finally {
       SQLUtils.close(stmt);
+      releaseConnection(connection);
     }
 
     return result;
@@ -902,21 +953,32 @@ public class SQL
     Connection 	connection;
     Statement 	stmt;
 
-    connection = getConnection(true);
+    connection = borrowConnection();
     if (isLoggingEnabled())
       getLogger().info("Get ResultSet for : " + query);
     if (connection == null)
       throw new IllegalStateException("Connection object is null!");
 
+    // a pooled connection gets returned once the result set has been closed
     try {
-      stmt = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+      try {
+	stmt = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+      }
+      catch (SQLException e) {
+	// try again
+	stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      }
+      try {
+	return stmt.executeQuery(query);
+      }
+      catch (Exception e) {
+	SQLUtils.close(stmt);
+	throw e;
+      }
     }
-    catch (SQLException e) {
-      // try again
-      stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    finally {
+      releaseConnection(connection);
     }
-
-    return stmt.executeQuery(query);
   }
 
   /**
@@ -0,0 +1,734 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ConnectionPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.db.pool;
+
+import adams.core.base.BasePassword;
+import adams.core.logging.CustomLoggingLevelObject;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Simple pool of JDBC connections to the same database.
+ * <br><br>
+ * The connections handed out by {@link #borrow()} are wrappers: calling
+ * {@link Connection#close()} returns the underlying connection to the pool.
+ * If statements are still open at that point, the connection only gets
+ * returned once the last of these statements has been closed, which allows
+ * handing out result sets to the caller. Statements closed via their result
+ * sets (e.g., {@link adams.db.SQLUtils#closeAll(java.sql.ResultSet)}) get
+ * tracked as well.
+ * <br><br>
+ * Features:
+ * <ul>
+ *   <li>upper limit on the number of connections, borrowers wait (up to a
+ *   timeout) if all connections are in use</li>
+ *   <li>optional validation of idle connections on borrow</li>
+ *   <li>eviction of connections that have been idle for too long</li>
+ *   <li>per-connection cache of prepared statements</li>
+ *   <li>metrics, see {@link #getMetrics()}</li>
+ * </ul>
+ * When not using auto-commit, the work performed with a borrowed connection
+ * gets committed when the connection is returned to the pool. If an error
+ * occurred while using the connection (or its statements/result sets), or
+ * the connection got flagged via {@link #markFailed(Connection)}, the work
+ * gets rolled back instead. Transactions therefore never span more than a
+ * single borrow/return cycle, i.e., sending BEGIN/COMMIT/ROLLBACK as
+ * separate operations has no effect on work performed with other borrowed
+ * connections.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ConnectionPool
+  extends CustomLoggingLevelObject {
+
+  private static final long serialVersionUID = -2311690823185447391L;
+
+  /**
+   * Container for a physical connection managed by the pool.
+   */
+  public static class Entry {
+
+    /** the connection. */
+    protected Connection m_Connection;
+
+    /** the timestamp the connection was last returned to the pool. */
+    protected long m_LastUsed;
+
+    /** the cached prepared statements (key - statement). */
+    protected Map<String,PreparedStatement> m_Statements;
+
+    /**
+     * Initializes the entry.
+     *
+     * @param conn		the connection to manage
+     * @param cacheSize		the maximum number of prepared statements to cache
+     */
+    public Entry(Connection conn, final int cacheSize) {
+      m_Connection = conn;
+      m_LastUsed   = System.currentTimeMillis();
+      m_Statements = new LinkedHashMap<String,PreparedStatement>(16, 0.75f, true) {
+	private static final long serialVersionUID = 3340150937154093372L;
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<String,PreparedStatement> eldest) {
+	  if (size() > cacheSize) {
+	    closeQuietly(eldest.getValue());
+	    return true;
+	  }
+	  return false;
+	}
+      };
+    }
+
+    /**
+     * Returns the underlying connection.
+     *
+     * @return		the connection
+     */
+    public Connection getConnection() {
+      return m_Connection;
+    }
+
+    /**
+     * Removes the cached statement for the key and returns it.
+     *
+     * @param key	the key of the statement
+     * @return		the statement, null if not cached or no longer open
+     */
+    public PreparedStatement takeStatement(String key) {
+      PreparedStatement	result;
+
+      result = m_Statements.remove(key);
+      try {
+	if ((result != null) && result.isClosed())
+	  result = null;
+      }
+      catch (Exception e) {
+	result = null;
+      }
+
+      return result;
+    }
+
+    /**
+     * Puts the statement back into the cache.
+     *
+     * @param key	the key of the statement
+     * @param stmt	the statement
+     */
+    public void returnStatement(String key, PreparedStatement stmt) {
+      PreparedStatement	old;
+
+      old = m_Statements.put(key, stmt);
+      if ((old != null) && (old != stmt))
+	closeQuietly(old);
+    }
+
+    /**
+     * Closes the cached statements and the connection.
+     */
+    public void close() {
+      for (PreparedStatement stmt: m_Statements.values())
+	closeQuietly(stmt);
+      m_Statements.clear();
+      try {
+	m_Connection.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+
+    /**
+     * Closes the statement, ignoring any errors.
+     *
+     * @param stmt	the statement to close
+     */
+    protected static void closeQuietly(PreparedStatement stmt) {
+      try {
+	stmt.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+  }
+
+  /** the JDBC URL. */
+  protected String m_URL;
+
+  /** the database user. */
+  protected String m_User;
+
+  /** the password. */
+  protected BasePassword m_Password;
+
+  /** whether to use auto-commit. */
+  protected boolean m_AutoCommit;
+
+  /** the maximum number of connections. */
+  protected int m_MaxSize;
+
+  /** whether to validate connections on borrow. */
+  protected boolean m_ValidateOnBorrow;
+
+  /** the timeout in seconds for validating connections. */
+  protected int m_ValidationTimeout;
+
+  /** the maximum time in msec a connection can be idle before being evicted (&lt;= 0 for no eviction). */
+  protected long m_MaxIdle;
+
+  /** the number of prepared statements to cache per connection (0 to disable). */
+  protected int m_StatementCacheSize;
+
+  /** the maximum time in msec to wait for a connection. */
+  protected long m_BorrowTimeout;
+
+  /** the idle connections (most recently used first). */
+  protected transient Deque<Entry> m_Idle;
+
+  /** the number of open connections (idle and in use). */
+  protected int m_NumOpen;
+
+  /** the number of connections in use. */
+  protected int m_NumActive;
+
+  /** whether the pool has been closed. */
+  protected boolean m_Closed;
+
+  /** the number of connections that got created. */
+  protected long m_NumCreated;
+
+  /** the number of times a connection got borrowed. */
+  protected long m_NumBorrowed;
+
+  /** the number of connections that got evicted due to being idle. */
+  protected long m_NumEvicted;
+
+  /** the number of connections that failed validation. */
+  protected long m_NumValidationFailures;
+
+  /** the number of times borrowing timed out. */
+  protected long m_NumTimeouts;
+
+  /** the total time in msec spent waiting for connections. */
+  protected long m_TotalWaitTime;
+
+  /** the number of statement cache hits. */
+  protected AtomicLong m_StatementCacheHits;
+
+  /** the number of statement cache misses. */
+  protected AtomicLong m_StatementCacheMisses;
+
+  /**
+   * Initializes the pool.
+   *
+   * @param url		the JDBC URL
+   * @param user	the database user
+   * @param password	the password
+   * @param autoCommit	whether to use auto-commit
+   */
+  public ConnectionPool(String url, String user, BasePassword password, boolean autoCommit) {
+    super();
+
+    m_URL                  = url;
+    m_User                 = user;
+    m_Password             = password;
+    m_AutoCommit           = autoCommit;
+    m_MaxSize              = 5;
+    m_ValidateOnBorrow     = true;
+    m_ValidationTimeout    = 3;
+    m_MaxIdle              = 60000;
+    m_StatementCacheSize   = 20;
+    m_BorrowTimeout        = 30000;
+    m_Idle                 = new ArrayDeque<>();
+    m_StatementCacheHits   = new AtomicLong();
+    m_StatementCacheMisses = new AtomicLong();
+  }
+
+  /**
+   * Sets the maximum number of connections.
+   *
+   * @param value	the maximum, at least 1
+   */
+  public void setMaxSize(int value) {
+    if (value >= 1)
+      m_MaxSize = value;
+    else
+      getLogger().warning("Pool size must be at least 1, provided: " + value);
+  }
+
+  /**
+   * Returns the maximum number of connections.
+   *
+   * @return		the maximum
+   */
+  public int getMaxSize() {
+    return m_MaxSize;
+  }
+
+  /**
+   * Sets whether to validate idle connections on borrow.
+   *
+   * @param value	true if to validate
+   */
+  public void setValidateOnBorrow(boolean value) {
+    m_ValidateOnBorrow = value;
+  }
+
+  /**
+   * Returns whether to validate idle connections on borrow.
+   *
+   * @return		true if to validate
+   */
+  public boolean getValidateOnBorrow() {
+    return m_ValidateOnBorrow;
+  }
+
+  /**
+   * Sets the timeout for validating connections.
+   *
+   * @param value	the timeout in seconds
+   */
+  public void setValidationTimeout(int value) {
+    if (value >= 0)
+      m_ValidationTimeout = value;
+    else
+      getLogger().warning("Validation timeout cannot be negative, provided: " + value);
+  }
+
+  /**
+   * Returns the timeout for validating connections.
+   *
+   * @return		the timeout in seconds
+   */
+  public int getValidationTimeout() {
+    return m_ValidationTimeout;
+  }
+
+  /**
+   * Sets the maximum time a connection can be idle before it gets evicted.
+   *
+   * @param value	the time in msec, &lt;= 0 for no eviction
+   */
+  public void setMaxIdle(long value) {
+    m_MaxIdle = value;
+  }
+
+  /**
+   * Returns the maximum time a connection can be idle before it gets evicted.
+   *
+   * @return		the time in msec, &lt;= 0 for no eviction
+   */
+  public long getMaxIdle() {
+    return m_MaxIdle;
+  }
+
+  /**
+   * Sets the number of prepared statements to cache per connection.
+   *
+   * @param value	the number of statements, 0 to disable
+   */
+  public void setStatementCacheSize(int value) {
+    if (value >= 0)
+      m_StatementCacheSize = value;
+    else
+      getLogger().warning("Statement cache size cannot be negative, provided: " + value);
+  }
+
+  /**
+   * Returns the number of prepared statements to cache per connection.
+   *
+   * @return		the number of statements, 0 if disabled
+   */
+  public int getStatementCacheSize() {
+    return m_StatementCacheSize;
+  }
+
+  /**
+   * Sets the maximum time to wait for a connection.
+   *
+   * @param value	the time in msec
+   */
+  public void setBorrowTimeout(long value) {
+    if (value >= 0)
+      m_BorrowTimeout = value;
+    else
+      getLogger().warning("Borrow timeout cannot be negative, provided: " + value);
+  }
+
+  /**
+   * Returns the maximum time to wait for a connection.
+   *
+   * @return		the time in msec
+   */
+  public long getBorrowTimeout() {
+    return m_BorrowTimeout;
+  }
+
+  /**
+   * Opens a new physical connection.
+   *
+   * @return		the connection
+   * @throws SQLException	if opening fails
+   */
+  protected Connection openConnection() throws SQLException {
+    Connection	result;
+
+    if (m_User.isEmpty())
+      result = DriverManager.getConnection(m_URL);
+    else
+      result = DriverManager.getConnection(m_URL, m_User, m_Password.getValue());
+    result.setAutoCommit(m_AutoCommit);
+
+    return result;
+  }
+
+  /**
+   * Checks whether the connection is still usable.
+   *
+   * @param entry	the connection to check
+   * @return		true if valid
+   */
+  protected boolean isValid(Entry entry) {
+    try {
+      return !entry.getConnection().isClosed() && entry.getConnection().isValid(m_ValidationTimeout);
+    }
+    catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Closes idle connections that exceeded the maximum idle time. Must be
+   * called from synchronized code.
+   */
+  protected void evictIdle() {
+    Iterator<Entry>	iter;
+    Entry		entry;
+    long		now;
+
+    if (m_MaxIdle <= 0)
+      return;
+
+    now  = System.currentTimeMillis();
+    iter = m_Idle.descendingIterator();
+    while (iter.hasNext()) {
+      entry = iter.next();
+      if (now - entry.m_LastUsed <= m_MaxIdle)
+	break;
+      iter.remove();
+      entry.close();
+      m_NumOpen--;
+      m_NumEvicted++;
+      if (isLoggingEnabled())
+	getLogger().info("Evicted idle connection: " + m_URL);
+    }
+  }
+
+  /**
+   * Closes idle connections that exceeded the maximum idle time.
+   */
+  public synchronized void evict() {
+    evictIdle();
+  }
+
+  /**
+   * Borrows a connection from the pool. Closing the connection returns it
+   * to the pool.
+   *
+   * @return		the connection
+   * @throws SQLException	if no connection could be obtained (eg timeout or failed to connect)
+   */
+  public Connection borrow() throws SQLException {
+    Entry		entry;
+    boolean		create;
+    long		start;
+    long		remaining;
+    PooledConnectionHandler	handler;
+
+    start = System.currentTimeMillis();
+    while (true) {
+      entry  = null;
+      create = false;
+      synchronized(this) {
+	while ((entry == null) && !create) {
+	  if (m_Closed)
+	    throw new SQLException("Connection pool has been closed: " + m_URL);
+	  evictIdle();
+	  if (!m_Idle.isEmpty()) {
+	    entry = m_Idle.pop();
+	  }
+	  else if (m_NumOpen < m_MaxSize) {
+	    m_NumOpen++;
+	    create = true;
+	  }
+	  else {
+	    remaining = m_BorrowTimeout - (System.currentTimeMillis() - start);
+	    if (remaining <= 0) {
+	      m_NumTimeouts++;
+	      throw new SQLException("Timed out waiting for connection (" + m_BorrowTimeout + "msec, pool size " + m_MaxSize + "): " + m_URL);
+	    }
+	    try {
+	      wait(remaining);
+	    }
+	    catch (InterruptedException e) {
+	      throw new SQLException("Interrupted while waiting for connection: " + m_URL, e);
+	    }
+	  }
+	}
+      }
+
+      if (create) {
+	try {
+	  entry = new Entry(openConnection(), m_StatementCacheSize);
+	}
+	catch (SQLException e) {
+	  synchronized(this) {
+	    m_NumOpen--;
+	    notifyAll();
+	  }
+	  throw e;
+	}
+	synchronized(this) {
+	  m_NumCreated++;
+	}
+	if (isLoggingEnabled())
+	  getLogger().info("Opened connection: " + m_URL);
+	break;
+      }
+
+      if (!m_ValidateOnBorrow || isValid(entry))
+	break;
+
+      entry.close();
+      synchronized(this) {
+	m_NumOpen--;
+	m_NumValidationFailures++;
+	notifyAll();
+      }
+      getLogger().warning("Discarded invalid connection: " + m_URL);
+    }
+
+    synchronized(this) {
+      m_NumActive++;
+      m_NumBorrowed++;
+      m_TotalWaitTime += System.currentTimeMillis() - start;
+    }
+
+    handler = new PooledConnectionHandler(this, entry);
+    handler.setProxy((Connection) Proxy.newProxyInstance(
+      ConnectionPool.class.getClassLoader(), new Class[]{Connection.class}, handler));
+
+    return handler.getProxy();
+  }
+
+  /**
+   * Flags the borrowed connection as failed, i.e., any uncommitted work gets
+   * rolled back rather than committed when the connection is returned to
+   * the pool.
+   *
+   * @param conn	the borrowed connection
+   * @return		true if the connection was borrowed from this pool
+   */
+  public boolean markFailed(Connection conn) {
+    if (!isPooled(conn))
+      return false;
+    ((PooledConnectionHandler) Proxy.getInvocationHandler(conn)).setFailed();
+    return true;
+  }
+
+  /**
+   * Returns the connection to the pool. Gets called by the wrapper when it
+   * gets closed and all its statements have been closed. Without auto-commit,
+   * the work gets committed or, if the connection was used unsuccessfully,
+   * rolled back.
+   *
+   * @param entry	the connection to return
+   * @param failed	whether an error occurred while the connection was borrowed
+   */
+  protected void release(Entry entry, boolean failed) {
+    Connection	conn;
+    boolean	discard;
+
+    conn    = entry.getConnection();
+    discard = false;
+    try {
+      if (conn.isClosed()) {
+	discard = true;
+      }
+      else {
+	if (!conn.getAutoCommit()) {
+	  if (failed) {
+	    conn.rollback();
+	    if (isLoggingEnabled())
+	      getLogger().info("Rolled back work of failed operation: " + m_URL);
+	  }
+	  else {
+	    try {
+	      conn.commit();
+	    }
+	    catch (SQLException e) {
+	      conn.rollback();
+	      throw e;
+	    }
+	  }
+	}
+	if (conn.getAutoCommit() != m_AutoCommit)
+	  conn.setAutoCommit(m_AutoCommit);
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to reset connection, discarding: " + m_URL, e);
+      discard = true;
+    }
+
+    synchronized(this) {
+      m_NumActive--;
+      if (discard || m_Closed) {
+	entry.close();
+	m_NumOpen--;
+      }
+      else {
+	entry.m_LastUsed = System.currentTimeMillis();
+	m_Idle.push(entry);
+      }
+      notifyAll();
+    }
+  }
+
+  /**
+   * Records a lookup in the statement cache.
+   *
+   * @param hit		whether the statement was cached
+   */
+  protected void recordStatementCacheLookup(boolean hit) {
+    if (hit)
+      m_StatementCacheHits.incrementAndGet();
+    else
+      m_StatementCacheMisses.incrementAndGet();
+  }
+
+  /**
+   * Checks whether the connection was borrowed from this pool.
+   *
+   * @param conn	the connection to check
+   * @return		true if from this pool
+   */
+  public boolean isPooled(Connection conn) {
+    return (conn != null)
+      && Proxy.isProxyClass(conn.getClass())
+      && (Proxy.getInvocationHandler(conn) instanceof PooledConnectionHandler)
+      && (((PooledConnectionHandler) Proxy.getInvocationHandler(conn)).getPool() == this);
+  }
+
+  /**
+   * Returns the number of connections currently in use.
+   *
+   * @return		the number of connections
+   */
+  public synchronized int getNumActive() {
+    return m_NumActive;
+  }
+
+  /**
+   * Returns the number of idle connections.
+   *
+   * @return		the number of connections
+   */
+  public synchronized int getNumIdle() {
+    return m_Idle.size();
+  }
+
+  /**
+   * Returns the number of open connections (in use and idle).
+   *
+   * @return		the number of connections
+   */
+  public synchronized int getNumOpen() {
+    return m_NumOpen;
+  }
+
+  /**
+   * Returns the metrics of the pool.
+   *
+   * @return		the metrics (name - value)
+   */
+  public synchronized Map<String,Number> getMetrics() {
+    Map<String,Number>	result;
+
+    result = new LinkedHashMap<>();
+    result.put("active", m_NumActive);
+    result.put("idle", m_Idle.size());
+    result.put("open", m_NumOpen);
+    result.put("created", m_NumCreated);
+    result.put("borrowed", m_NumBorrowed);
+    result.put("evicted", m_NumEvicted);
+    result.put("validation-failures", m_NumValidationFailures);
+    result.put("timeouts", m_NumTimeouts);
+    result.put("total-wait-msec", m_TotalWaitTime);
+    result.put("statement-cache-hits", m_StatementCacheHits.get());
+    result.put("statement-cache-misses", m_StatementCacheMisses.get());
+
+    return result;
+  }
+
+  /**
+   * Closes all idle connections and the ones in use once they get returned.
+   */
+  public synchronized void close() {
+    m_Closed = true;
+    while (!m_Idle.isEmpty()) {
+      m_Idle.pop().close();
+      m_NumOpen--;
+    }
+    notifyAll();
+  }
+
+  /**
+   * Returns whether the pool has been closed.
+   *
+   * @return		true if closed
+   */
+  public synchronized boolean isClosed() {
+    return m_Closed;
+  }
+
+  /**
+   * Returns a short description of the pool.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "ConnectionPool: url=" + m_URL + ", user=" + m_User + ", metrics=" + getMetrics();
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PooledConnectionHandler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.db.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Handler for connections borrowed from a {@link ConnectionPool}. Closing
+ * the connection returns the underlying connection to the pool, as soon as
+ * all the statements created via this connection have been closed as well.
+ * <br><br>
+ * Prepared statements without result set type/concurrency settings get
+ * obtained from the statement cache of the connection.
+ * <br><br>
+ * Any error raised by the connection, its statements or result sets flags
+ * the connection as failed, resulting in a rollback rather than a commit
+ * when returning it to the pool (when not using auto-commit).
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PooledConnectionHandler
+  implements InvocationHandler {
+
+  /** the pool the connection belongs to. */
+  protected ConnectionPool m_Pool;
+
+  /** the pooled connection. */
+  protected ConnectionPool.Entry m_Entry;
+
+  /** the proxy for this handler. */
+  protected Connection m_Proxy;
+
+  /** the statements that are still open. */
+  protected Set<PooledStatementHandler> m_Open;
+
+  /** whether the connection has been closed by the user. */
+  protected boolean m_Closed;
+
+  /** whether the connection has been returned to the pool. */
+  protected boolean m_Released;
+
+  /** whether an error occurred while using the connection. */
+  protected volatile boolean m_Failed;
+
+  /**
+   * Initializes the handler.
+   *
+   * @param pool	the pool the connection belongs to
+   * @param entry	the pooled connection
+   */
+  public PooledConnectionHandler(ConnectionPool pool, ConnectionPool.Entry entry) {
+    m_Pool     = pool;
+    m_Entry    = entry;
+    m_Open     = new HashSet<>();
+    m_Closed   = false;
+    m_Released = false;
+    m_Failed   = false;
+  }
+
+  /**
+   * Returns the pool the connection belongs to.
+   *
+   * @return		the pool
+   */
+  public ConnectionPool getPool() {
+    return m_Pool;
+  }
+
+  /**
+   * Sets the proxy for this handler.
+   *
+   * @param value	the proxy
+   */
+  protected void setProxy(Connection value) {
+    m_Proxy = value;
+  }
+
+  /**
+   * Returns the proxy for this handler.
+   *
+   * @return		the proxy
+   */
+  public Connection getProxy() {
+    return m_Proxy;
+  }
+
+  /**
+   * Returns whether the connection has been closed by the user.
+   *
+   * @return		true if closed
+   */
+  public synchronized boolean isClosed() {
+    return m_Closed;
+  }
+
+  /**
+   * Flags the connection as failed, i.e., uncommitted work gets rolled back
+   * when returning the connection to the pool.
+   */
+  protected void setFailed() {
+    m_Failed = true;
+  }
+
+  /**
+   * Returns whether an error occurred while using the connection.
+   *
+   * @return		true if failed
+   */
+  public boolean isFailed() {
+    return m_Failed;
+  }
+
+  /**
+   * Returns the connection to the pool if it has been closed and no
+   * statements are open anymore.
+   */
+  protected synchronized void releaseIfDone() {
+    if (m_Closed && !m_Released && m_Open.isEmpty()) {
+      m_Released = true;
+      m_Pool.release(m_Entry, m_Failed);
+    }
+  }
+
+  /**
+   * Closes the connection, i.e., returns it to the pool once all statements
+   * have been closed.
+   */
+  protected synchronized void close() {
+    m_Closed = true;
+    releaseIfDone();
+  }
+
+  /**
+   * Gets called when a statement created via this connection gets closed.
+   *
+   * @param stmt	the statement that got closed
+   */
+  protected synchronized void statementClosed(PooledStatementHandler stmt) {
+    m_Open.remove(stmt);
+    releaseIfDone();
+  }
+
+  /**
+   * Puts the prepared statement back into the statement cache.
+   *
+   * @param key		the cache key
+   * @param stmt	the statement
+   */
+  protected synchronized void returnStatement(String key, PreparedStatement stmt) {
+    if (m_Released)
+      ConnectionPool.Entry.closeQuietly(stmt);
+    else
+      m_Entry.returnStatement(key, stmt);
+  }
+
+  /**
+   * Wraps the statement.
+   *
+   * @param stmt	the statement to wrap
+   * @param key		the key for the statement cache, null if not cached
+   * @return		the wrapped statement
+   */
+  protected synchronized Statement wrap(Statement stmt, String key) {
+    PooledStatementHandler	handler;
+    Class			intf;
+
+    if (stmt instanceof CallableStatement)
+      intf = CallableStatement.class;
+    else if (stmt instanceof PreparedStatement)
+      intf = PreparedStatement.class;
+    else
+      intf = Statement.class;
+    handler = new PooledStatementHandler(this, stmt, key);
+    handler.setProxy((Statement) Proxy.newProxyInstance(
+      PooledConnectionHandler.class.getClassLoader(), new Class[]{intf}, handler));
+    m_Open.add(handler);
+
+    return handler.getProxy();
+  }
+
+  /**
+   * Obtains a prepared statement from the cache or creates a new one.
+   *
+   * @param method	the method to create the statement with
+   * @param args	the arguments for the method
+   * @return		the statement
+   * @throws Throwable	if creating fails
+   */
+  protected Statement prepareStatement(Method method, Object[] args) throws Throwable {
+    String		key;
+    PreparedStatement	stmt;
+
+    if (m_Pool.getStatementCacheSize() == 0)
+      return wrap((Statement) method.invoke(m_Entry.getConnection(), args), null);
+
+    key = (String) args[0];
+    if (args.length > 1)
+      key = args[1] + "\t" + key;
+    synchronized(this) {
+      stmt = m_Entry.takeStatement(key);
+    }
+    m_Pool.recordStatementCacheLookup(stmt != null);
+    if (stmt == null)
+      stmt = (PreparedStatement) method.invoke(m_Entry.getConnection(), args);
+
+    return wrap(stmt, key);
+  }
+
+  /**
+   * Processes a method invocation on the connection proxy.
+   *
+   * @param proxy	the proxy instance
+   * @param method	the method that got invoked
+   * @param args	the arguments
+   * @return		the result
+   * @throws Throwable	if the invocation fails
+   */
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    Object	result;
+
+    switch (method.getName()) {
+      case "close":
+	close();
+	return null;
+      case "isClosed":
+	return isClosed();
+      case "equals":
+	return proxy == args[0];
+      case "hashCode":
+	return System.identityHashCode(proxy);
+      case "toString":
+	return "Pooled[" + m_Entry.getConnection() + "]";
+    }
+
+    if (isClosed())
+      throw new SQLException("Connection has already been returned to the pool!");
+
+    try {
+      if (method.getName().equals("prepareStatement")
+	&& ((args.length == 1) || ((args.length == 2) && (args[1] instanceof Integer)))) {
+	return prepareStatement(method, args);
+      }
+      result = method.invoke(m_Entry.getConnection(), args);
+      if (result instanceof Statement)
+	result = wrap((Statement) result, null);
+      return result;
+    }
+    catch (InvocationTargetException e) {
+      setFailed();
+      throw e.getCause();
+    }
+  }
+}
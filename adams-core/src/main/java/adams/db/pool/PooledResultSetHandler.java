@@ -0,0 +1,91 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PooledResultSetHandler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.db.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+
+/**
+ * Handler for result sets generated by statements of pooled connections.
+ * Ensures that {@link ResultSet#getStatement()} returns the wrapped
+ * statement, i.e., closing the statement via the result set does not
+ * bypass the pool.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PooledResultSetHandler
+  implements InvocationHandler {
+
+  /** the statement that generated the result set. */
+  protected PooledStatementHandler m_Owner;
+
+  /** the actual result set. */
+  protected ResultSet m_ResultSet;
+
+  /**
+   * Initializes the handler.
+   *
+   * @param owner	the statement that generated the result set
+   * @param rs		the actual result set
+   */
+  public PooledResultSetHandler(PooledStatementHandler owner, ResultSet rs) {
+    m_Owner     = owner;
+    m_ResultSet = rs;
+  }
+
+  /**
+   * Processes a method invocation on the result set proxy.
+   *
+   * @param proxy	the proxy instance
+   * @param method	the method that got invoked
+   * @param args	the arguments
+   * @return		the result
+   * @throws Throwable	if the invocation fails
+   */
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "getStatement":
+	return m_Owner.getProxy();
+      case "equals":
+	return proxy == args[0];
+      case "hashCode":
+	return System.identityHashCode(proxy);
+      case "toString":
+	return "Pooled[" + m_ResultSet + "]";
+    }
+
+    try {
+      if (method.getName().equals("close")) {
+	m_ResultSet.close();
+	m_Owner.resultSetClosed();
+	return null;
+      }
+      return method.invoke(m_ResultSet, args);
+    }
+    catch (InvocationTargetException e) {
+      m_Owner.setFailed();
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PooledStatementHandler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.db.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Handler for statements created via a pooled connection. Closing the
+ * statement either puts it back into the statement cache or closes it, and
+ * notifies the connection.
+ * <br><br>
+ * {@link Statement#closeOnCompletion()} is handled by the handler itself,
+ * since cached statements must not get closed by the driver. Statements of
+ * connections that have already been closed get closed as well once their
+ * result set gets closed.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PooledStatementHandler
+  implements InvocationHandler {
+
+  /** the connection the statement belongs to. */
+  protected PooledConnectionHandler m_Owner;
+
+  /** the actual statement. */
+  protected Statement m_Statement;
+
+  /** the key for the statement cache, null if not cached. */
+  protected String m_CacheKey;
+
+  /** the proxy for this handler. */
+  protected Statement m_Proxy;
+
+  /** the last result set that was generated. */
+  protected ResultSet m_LastResultSet;
+
+  /** whether to close the statement once its result set gets closed. */
+  protected boolean m_CloseOnCompletion;
+
+  /** whether the statement has been closed. */
+  protected boolean m_Closed;
+
+  /**
+   * Initializes the handler.
+   *
+   * @param owner	the connection the statement belongs to
+   * @param stmt	the actual statement
+   * @param key		the key for the statement cache, null if not cached
+   */
+  public PooledStatementHandler(PooledConnectionHandler owner, Statement stmt, String key) {
+    m_Owner             = owner;
+    m_Statement         = stmt;
+    m_CacheKey          = key;
+    m_CloseOnCompletion = false;
+    m_Closed            = false;
+  }
+
+  /**
+   * Sets the proxy for this handler.
+   *
+   * @param value	the proxy
+   */
+  protected void setProxy(Statement value) {
+    m_Proxy = value;
+  }
+
+  /**
+   * Returns the proxy for this handler.
+   *
+   * @return		the proxy
+   */
+  public Statement getProxy() {
+    return m_Proxy;
+  }
+
+  /**
+   * Flags the connection the statement belongs to as failed.
+   */
+  protected void setFailed() {
+    m_Owner.setFailed();
+  }
+
+  /**
+   * Gets called when a result set of this statement got closed.
+   */
+  protected void resultSetClosed() {
+    if (m_CloseOnCompletion || m_Owner.isClosed())
+      close();
+  }
+
+  /**
+   * Closes the statement or puts it back into the cache.
+   */
+  protected synchronized void close() {
+    PreparedStatement	stmt;
+
+    if (m_Closed)
+      return;
+    m_Closed = true;
+
+    try {
+      if (m_CacheKey != null) {
+	stmt = (PreparedStatement) m_Statement;
+	if ((m_LastResultSet != null) && !m_LastResultSet.isClosed())
+	  m_LastResultSet.close();
+	stmt.clearParameters();
+	stmt.clearBatch();
+	stmt.clearWarnings();
+	m_Owner.returnStatement(m_CacheKey, stmt);
+      }
+      else {
+	m_Statement.close();
+      }
+    }
+    catch (Exception e) {
+      try {
+	m_Statement.close();
+      }
+      catch (Exception ex) {
+	// ignored
+      }
+    }
+    finally {
+      m_LastResultSet = null;
+      m_Owner.statementClosed(this);
+    }
+  }
+
+  /**
+   * Wraps the result set.
+   *
+   * @param rs		the result set to wrap
+   * @return		the wrapped result set
+   */
+  protected ResultSet wrap(ResultSet rs) {
+    m_LastResultSet = rs;
+    return (ResultSet) Proxy.newProxyInstance(
+      PooledStatementHandler.class.getClassLoader(), new Class[]{ResultSet.class}, new PooledResultSetHandler(this, rs));
+  }
+
+  /**
+   * Processes a method invocation on the statement proxy.
+   *
+   * @param proxy	the proxy instance
+   * @param method	the method that got invoked
+   * @param args	the arguments
+   * @return		the result
+   * @throws Throwable	if the invocation fails
+   */
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    Object	result;
+
+    switch (method.getName()) {
+      case "close":
+	close();
+	return null;
+      case "isClosed":
+	return m_Closed;
+      case "equals":
+	return proxy == args[0];
+      case "hashCode":
+	return System.identityHashCode(proxy);
+      case "toString":
+	return "Pooled[" + m_Statement + "]";
+      case "getConnection":
+	return m_Owner.getProxy();
+      case "closeOnCompletion":
+	m_CloseOnCompletion = true;
+	return null;
+      case "isCloseOnCompletion":
+	return m_CloseOnCompletion;
+    }
+
+    if (m_Closed)
+      throw new SQLException("Statement has already been closed!");
+
+    try {
+      result = method.invoke(m_Statement, args);
+      if (result instanceof ResultSet)
+	result = wrap((ResultSet) result);
+      return result;
+    }
+    catch (InvocationTargetException e) {
+      setFailed();
+      throw e.getCause();
+    }
+  }
+}
@@ -20,6 +20,7 @@
 
 package adams.flow;
 
+import adams.core.ClassLister;
 import adams.core.MessageCollection;
 import adams.core.Pausable;
 import adams.core.Stoppable;
@@ -39,12 +40,18 @@ import adams.core.scriptingengine.BackgroundScriptingEngineRegistry;
 import adams.core.shutdown.AbstractShutdownHook;
 import adams.core.shutdown.Null;
 import adams.core.shutdownbuiltin.AbstractBuiltInShutdownHook;
+import adams.data.io.input.DefaultFlowReader;
+import adams.data.io.input.FlowReader;
 import adams.env.Environment;
 import adams.flow.control.Flow;
 import adams.flow.core.Actor;
 import adams.flow.core.ActorUtils;
+import adams.flow.core.FlowCache;
+import adams.flow.execution.FlowExecutionListener;
+import adams.flow.execution.NullListener;
 import adams.flow.processor.ManageInteractiveActors;
 import adams.gui.application.AbstractInitialization;
+import adams.gui.chooser.FlowFileChooser;
 import adams.gui.core.GUIHelper;
 import adams.gui.event.RemoteScriptingEngineUpdateEvent;
 import adams.gui.event.RemoteScriptingEngineUpdateListener;
@@ -60,7 +67,8 @@ import java.util.logging.Level;
  <!-- globalinfo-start -->
  * Executes flows from command-line.<br>
  * It is also possible to traverse a directory and execute all flows within that match a regular expression.<br>
- * Using the 'no-execute' option, you can suppress the flow execution, but still test whether the flow loads and can be fully set up and wrapped up.
+ * Using the 'no-execute' option, you can suppress the flow execution, but still test whether the flow loads and can be fully set up and wrapped up.<br>
+ * Using the 'use-flow-cache' option, flows get stored in serialized form after loading them and subsequent runs load them from the cache instead of parsing them. With logging level INFO, the time spent on parsing, instantiation and set up gets output.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -112,6 +120,20 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-use-flow-cache &lt;boolean&gt; (property: useFlowCache)
+ * &nbsp;&nbsp;&nbsp;If set to true, flows get loaded from the flow cache (serialized actors)
+ * &nbsp;&nbsp;&nbsp;if available, skipping the parsing of the flow files; the cache is keyed
+ * &nbsp;&nbsp;&nbsp;by the digest of the flow file (comments ignored).
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-flow-cache-max-entries &lt;int&gt; (property: flowCacheMaxEntries)
+ * &nbsp;&nbsp;&nbsp;The maximum number of flows to keep in the flow cache; the least recently
+ * &nbsp;&nbsp;&nbsp;used ones get removed.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  * <pre>-remote-scripting-engine-cmdline &lt;java.lang.String&gt; (property: remoteScriptingEngineCmdLine)
  * &nbsp;&nbsp;&nbsp;The command-line of the remote scripting engine to execute at startup time;
  * &nbsp;&nbsp;&nbsp; use empty string for disable scripting.
@@ -129,6 +151,12 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-flow-execution-listener &lt;adams.flow.execution.FlowExecutionListener&gt; (property: flowExecutionListener)
+ * &nbsp;&nbsp;&nbsp;The flow execution listener to attach to the flow(s), e.g., adams.flow.execution.Profiler
+ * &nbsp;&nbsp;&nbsp;for headless profiling; ignored if adams.flow.execution.NullListener.
+ * &nbsp;&nbsp;&nbsp;default: adams.flow.execution.NullListener
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -161,6 +189,12 @@ public class FlowRunner
   /** whether to suppress flow execution, simply load/setUp/wrapUp instead. */
   protected boolean m_NoExecute;
 
+  /** whether to use the flow cache. */
+  protected boolean m_UseFlowCache;
+
+  /** the maximum number of flows in the flow cache. */
+  protected int m_FlowCacheMaxEntries;
+
   /** whether to clean up after execution, i.e., removing graphical output
    * automatically. */
   protected boolean m_CleanUp;
@@ -177,6 +211,9 @@ public class FlowRunner
   /** whether the force an exit after the flows were stopped. */
   protected boolean m_ForceExit;
 
+  /** the flow execution listener to attach. */
+  protected FlowExecutionListener m_FlowExecutionListener;
+
   /** the listeners for changes to the remote scripting engine. */
   protected Set<RemoteScriptingEngineUpdateListener> m_RemoteScriptingEngineUpdateListeners;
 
@@ -239,6 +276,14 @@ public class FlowRunner
       "no-execute", "noExecute",
       false);
 
+    m_OptionManager.add(
+      "use-flow-cache", "useFlowCache",
+      false);
+
+    m_OptionManager.add(
+      "flow-cache-max-entries", "flowCacheMaxEntries",
+      FlowCache.DEFAULT_MAX_ENTRIES, 1, null);
+
     m_OptionManager.add(
       "remote-scripting-engine-cmdline", "remoteScriptingEngineCmdLine",
       "");
@@ -250,6 +295,10 @@ public class FlowRunner
     m_OptionManager.add(
       "force-exit", "forceExit",
       false);
+
+    m_OptionManager.add(
+      "flow-execution-listener", "flowExecutionListener",
+      new NullListener());
   }
 
   /**
@@ -482,6 +531,71 @@ public class FlowRunner
 	+ "loaded, set up and wrapped up.";
   }
 
+  /**
+   * Sets whether to use the flow cache.
+   *
+   * @param value	true if to use the cache
+   */
+  public void setUseFlowCache(boolean value) {
+    m_UseFlowCache = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use the flow cache.
+   *
+   * @return		true if to use the cache
+   */
+  public boolean getUseFlowCache() {
+    return m_UseFlowCache;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String useFlowCacheTipText() {
+    return
+      "If set to true, flows get loaded from the flow cache (serialized actors) "
+	+ "if available, skipping the parsing of the flow files; the cache is "
+	+ "keyed by the digest of the flow file (comments ignored).";
+  }
+
+  /**
+   * Sets the maximum number of flows in the flow cache.
+   *
+   * @param value	the maximum
+   */
+  public void setFlowCacheMaxEntries(int value) {
+    if (getOptionManager().isValid("flowCacheMaxEntries", value)) {
+      m_FlowCacheMaxEntries = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of flows in the flow cache.
+   *
+   * @return		the maximum
+   */
+  public int getFlowCacheMaxEntries() {
+    return m_FlowCacheMaxEntries;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String flowCacheMaxEntriesTipText() {
+    return
+      "The maximum number of flows to keep in the flow cache; the least "
+	+ "recently used ones get removed.";
+  }
+
   /**
    * Sets the commandline of the remote scripting engine to execute at startup time.
    *
@@ -572,6 +686,38 @@ public class FlowRunner
       "If set to true, then the runner will trigger a System.exit call to forcefully exit the process.";
   }
 
+  /**
+   * Sets the flow execution listener to attach to the flow(s).
+   *
+   * @param value	the listener, NullListener to ignore
+   */
+  public void setFlowExecutionListener(FlowExecutionListener value) {
+    m_FlowExecutionListener = value;
+    reset();
+  }
+
+  /**
+   * Returns the flow execution listener to attach to the flow(s).
+   *
+   * @return		the listener, NullListener to ignore
+   */
+  public FlowExecutionListener getFlowExecutionListener() {
+    return m_FlowExecutionListener;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String flowExecutionListenerTipText() {
+    return
+      "The flow execution listener to attach to the flow(s), e.g., "
+	+ "adams.flow.execution.Profiler for headless profiling; ignored if "
+	+ NullListener.class.getName() + ".";
+  }
+
   /**
    * Adds the scripting engine to execute. Doesn't stop any running engines.
    *
@@ -690,6 +836,57 @@ public class FlowRunner
     return m_LastActor;
   }
 
+  /**
+   * Loads the actor from the input file, using the flow cache if enabled.
+   *
+   * @param errors	for collecting errors
+   * @return		the actor, null if failed to load
+   */
+  protected Actor load(MessageCollection errors) {
+    Actor		result;
+    FlowReader		reader;
+    MessageCollection	keyErrors;
+    String		key;
+    String		msg;
+    long		start;
+    long		end;
+
+    key = null;
+    if (m_UseFlowCache) {
+      start     = System.currentTimeMillis();
+      keyErrors = new MessageCollection();
+      key       = FlowCache.key(m_Input.getAbsoluteFile(), keyErrors);
+      if (key == null)
+	getLogger().warning("Failed to generate flow cache key, not using cache: " + keyErrors);
+      result = (key == null) ? null : FlowCache.get(key);
+      end    = System.currentTimeMillis();
+      if (result != null) {
+	if (isLoggingEnabled())
+	  getLogger().info("Loaded from flow cache (msec): " + (end - start));
+	return result;
+      }
+    }
+
+    reader = FlowFileChooser.readerForFile(m_Input);
+    if (reader == null)
+      reader = new DefaultFlowReader();
+    result = reader.readActor(m_Input.getAbsolutePath());
+    errors.addAll(reader.getErrors());
+    if ((reader instanceof DefaultFlowReader) && isLoggingEnabled()) {
+      getLogger().info(
+	"Loaded flow (msec): parsing=" + ((DefaultFlowReader) reader).getParseTime()
+	  + ", instantiation=" + ((DefaultFlowReader) reader).getInstantiationTime());
+    }
+
+    if ((result != null) && errors.isEmpty() && (key != null)) {
+      msg = FlowCache.put(key, result, m_FlowCacheMaxEntries);
+      if (msg != null)
+	getLogger().warning(msg);
+    }
+
+    return result;
+  }
+
   /**
    * Executes the actor if possible.
    *
@@ -702,6 +899,7 @@ public class FlowRunner
     String[]			flows;
     ManageInteractiveActors	procInteractive;
     RemoteScriptingEngine 	engine;
+    long			start;
 
     result              = null;
     m_InterruptedByUser = false;
@@ -742,7 +940,7 @@ public class FlowRunner
     // file has precedence over directory
     if (!m_Input.isDirectory()) {
       errors = new MessageCollection();
-      m_Actor = ActorUtils.read(m_Input.getAbsolutePath(), errors);
+      m_Actor = load(errors);
       if (!errors.isEmpty()) {
 	result = "Failed to load actor from '" + m_Input + "'!\n" + errors;
 	return result;
@@ -803,13 +1001,24 @@ public class FlowRunner
 	((Flow) m_Actor).setRegister(m_Register);
 	if (isLoggingEnabled() && ((Flow) m_Actor).getRegister())
 	  getLogger().info("Flow added to running flow registry");
+	// listener?
+	if (!(m_FlowExecutionListener instanceof NullListener)) {
+	  ((Flow) m_Actor).setFlowExecutionListener((FlowExecutionListener) OptionUtils.shallowCopy(m_FlowExecutionListener));
+	  ((Flow) m_Actor).setFlowExecutionListeningEnabled(true);
+	  if (isLoggingEnabled())
+	    getLogger().info("Flow execution listener: " + OptionUtils.getCommandLine(m_FlowExecutionListener));
+	}
       }
 
       ActorUtils.updateProgrammaticVariables((VariablesHandler & Actor) m_Actor, m_Input);
+      start  = System.currentTimeMillis();
       result = m_Actor.setUp();
       ActorUtils.updateProgrammaticVariables((VariablesHandler & Actor) m_Actor, m_Input);
-      if (isLoggingEnabled())
+      if (isLoggingEnabled()) {
 	getLogger().info("setUp() result: " + result);
+	getLogger().info("setUp() (msec): " + (System.currentTimeMillis() - start));
+	getLogger().info(ClassLister.getSingleton().getDiscoveryStatistics());
+      }
 
       // execute actor
       if (!m_NoExecute) {
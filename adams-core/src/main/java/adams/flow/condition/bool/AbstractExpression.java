@@ -15,7 +15,7 @@
 
 /*
  * AbstractExpression.java
- * Copyright (C) 2011-2020 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.condition.bool;
 
@@ -163,10 +163,22 @@ public abstract class AbstractExpression
    * @return		the result of the boolean condition
    */
   protected boolean doEvaluate(String exp, HashMap symbols) {
+    return doEvaluate(exp, symbols, true);
+  }
+
+  /**
+   * Evaluates the condition.
+   *
+   * @param exp		the expression to evaluate
+   * @param symbols	the symbols to use in the evaluation
+   * @param cache	whether to cache the expression
+   * @return		the result of the boolean condition
+   */
+  protected boolean doEvaluate(String exp, HashMap symbols, boolean cache) {
     boolean	result;
 
     try {
-      result = BooleanExpression.evaluate(exp, symbols);
+      result = BooleanExpression.evaluate(exp, symbols, cache);
       if (isLoggingEnabled())
 	getLogger().fine(
 	    "exp: " + getExpression() + "\n"
@@ -15,7 +15,7 @@
 
 /*
  * Expression.java
- * Copyright (C) 2011-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.condition.bool;
 
@@ -292,7 +292,8 @@ public class Expression
     }
 
     try {
-      return doEvaluate(exp, symbols);
+      // don't cache expressions with expanded variables or strings
+      return doEvaluate(exp, symbols, exp.equals(getExpression().getValue()));
     }
     catch (Throwable t) {
       throw new RuntimeException("Failed to evaluate '" + exp + "' with symbols: " + symbols, t);
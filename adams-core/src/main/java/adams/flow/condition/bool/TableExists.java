@@ -15,7 +15,7 @@
 
 /*
  * TableExists.java
- * Copyright (C) 2013-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.condition.bool;
 
@@ -154,8 +154,14 @@ public class TableExists
     List<String>	tables;
 
     result = false;
-    
-    conn = getDatabaseConnection().getConnection(false);
+
+    try {
+      conn = getDatabaseConnection().borrowConnection();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to borrow database connection:", e);
+      return result;
+    }
     if (conn == null) {
       getLogger().severe("Failed to obtain database connection??");
       return result;
@@ -195,6 +201,9 @@ public class TableExists
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to check for tables:", e);
     }
+    finally {
+      getDatabaseConnection().releaseConnection(conn);
+    }
     
     return result;
   }
@@ -15,7 +15,7 @@
 
 /*
  * AbstractControlActor.java
- * Copyright (C) 2009-2023 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
@@ -307,6 +307,7 @@ public abstract class AbstractDirectedControlActor
 	  }
 	}
       }
+      m_Director.wrapUp();
     }
 
     super.wrapUp();
@@ -15,7 +15,7 @@
 
 /*
  * AbstractDirector.java
- * Copyright (C) 2011-2020 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
@@ -50,16 +50,16 @@ public abstract class AbstractDirector
   protected String m_LoggingPrefix;
   
   /** whether execution was stopped. */
-  protected boolean m_Stopped;
+  protected volatile boolean m_Stopped;
 
   /** whether execution is in the process of being stopped. */
-  protected boolean m_Stopping;
+  protected volatile boolean m_Stopping;
 
   /** whether the director has been paused. */
-  protected boolean m_Paused;
+  protected volatile boolean m_Paused;
   
   /** whether to flush the execution. */
-  protected boolean m_Flushing;
+  protected volatile boolean m_Flushing;
 
   /**
    * Initializes the item.
@@ -267,6 +267,12 @@ public abstract class AbstractDirector
     return true;
   }
 
+  /**
+   * Finishes up the execution. Default implementation does nothing.
+   */
+  public void wrapUp() {
+  }
+
   /**
    * Cleans up data structures, frees up memory.
    */
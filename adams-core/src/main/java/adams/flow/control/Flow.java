@@ -15,7 +15,7 @@
 
 /*
  * Flow.java
- * Copyright (C) 2009-202 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
@@ -27,6 +27,7 @@ import adams.core.QuickInfoHelper;
 import adams.core.UniqueIDs;
 import adams.core.Variables;
 import adams.core.VariablesHandler;
+import adams.core.base.BaseString;
 import adams.core.io.ConsoleHelper;
 import adams.core.option.UserMode;
 import adams.data.id.RuntimeIDGenerator;
@@ -178,6 +179,18 @@ import java.util.Map;
  * &nbsp;&nbsp;&nbsp;default: adams.flow.control.flowrestart.NullManager
  * </pre>
  *
+ * <pre>-pipeline-stage &lt;adams.core.base.BaseString&gt; [-pipeline-stage ...] (property: pipelineStages)
+ * &nbsp;&nbsp;&nbsp;The names of the actors that start a new pipeline stage, running in its
+ * &nbsp;&nbsp;&nbsp;own thread; uses sequential execution if none specified.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-pipeline-queue-size &lt;int&gt; (property: pipelineQueueSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of tokens that can be queued between pipeline stages.
+ * &nbsp;&nbsp;&nbsp;default: 10
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -254,6 +267,12 @@ public class Flow
   /** the manager for restarting the flow. */
   protected AbstractFlowRestartManager m_FlowRestartManager;
 
+  /** the names of the actors that start a new pipeline stage. */
+  protected BaseString[] m_PipelineStages;
+
+  /** the size of the queues between the pipeline stages. */
+  protected int m_PipelineQueueSize;
+
   /** the callable names. */
   protected CallableNamesRecorder m_CallableNames;
 
@@ -329,6 +348,14 @@ public class Flow
     m_OptionManager.add(
       "flow-restart-manager", "flowRestartManager",
       new NullManager()).setMinUserMode(UserMode.EXPERT);
+
+    m_OptionManager.add(
+      "pipeline-stage", "pipelineStages",
+      new BaseString[0]).setMinUserMode(UserMode.EXPERT);
+
+    m_OptionManager.add(
+      "pipeline-queue-size", "pipelineQueueSize",
+      10, 1, null).setMinUserMode(UserMode.EXPERT);
   }
 
   /**
@@ -662,6 +689,87 @@ public class Flow
     return "The manager for restarting the flow.";
   }
 
+  /**
+   * Sets the names of the actors that start a new pipeline stage.
+   *
+   * @param value	the actor names
+   */
+  public void setPipelineStages(BaseString[] value) {
+    m_PipelineStages = value;
+    reset();
+  }
+
+  /**
+   * Returns the names of the actors that start a new pipeline stage.
+   *
+   * @return		the actor names
+   */
+  public BaseString[] getPipelineStages() {
+    return m_PipelineStages;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pipelineStagesTipText() {
+    return
+      "The names of the actors that start a new pipeline stage, running in "
+	+ "its own thread; uses sequential execution if none specified.";
+  }
+
+  /**
+   * Sets the maximum number of tokens queued between pipeline stages.
+   *
+   * @param value	the size
+   */
+  public void setPipelineQueueSize(int value) {
+    if (getOptionManager().isValid("pipelineQueueSize", value)) {
+      m_PipelineQueueSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of tokens queued between pipeline stages.
+   *
+   * @return		the size
+   */
+  public int getPipelineQueueSize() {
+    return m_PipelineQueueSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pipelineQueueSizeTipText() {
+    return "The maximum number of tokens that can be queued between pipeline stages.";
+  }
+
+  /**
+   * Returns an instance of a director.
+   *
+   * @return		the director
+   */
+  @Override
+  protected AbstractDirector newDirector() {
+    PipelinedDirector	result;
+
+    if (m_PipelineStages.length == 0)
+      return super.newDirector();
+
+    result = new PipelinedDirector();
+    result.setStages(m_PipelineStages);
+    result.setQueueSize(m_PipelineQueueSize);
+
+    return result;
+  }
+
   /**
    * Returns whether listeners can be attached at runtime.
    *
@@ -1424,6 +1532,9 @@ public class Flow
 
     RunningFlowsRegistry.getSingleton().removeFlow(this);
 
+    if (isLoggingEnabled())
+      getLogger().info(m_Variables.getExpansionStatistics());
+
     super.wrapUp();
   }
 
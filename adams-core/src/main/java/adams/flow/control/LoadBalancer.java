@@ -15,7 +15,7 @@
 
 /*
  * LoadBalancer.java
- * Copyright (C) 2010-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
@@ -29,6 +29,9 @@ import adams.core.Variables;
 import adams.core.base.BaseAnnotation;
 import adams.core.logging.LoggingLevel;
 import adams.core.option.OptionUtils;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
 import adams.flow.core.Actor;
 import adams.flow.core.ActorHandler;
 import adams.flow.core.ActorHandlerInfo;
@@ -45,15 +48,19 @@ import adams.flow.transformer.DeleteStorageValue;
 import adams.multiprocess.CallableWithResult;
 import adams.multiprocess.PausableFixedThreadPoolExecutor;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
  <!-- globalinfo-start -->
  * Runs the specified 'load actor' in as many separate threads as specified with the 'num-threads' parameter.<br>
  * Always uses a copy of the variables.<br>
+ * When using the worker pool, the sub-flows get only set up once per thread and the tokens get passed on via a bounded queue; variables and local storage are only copied when the workers get created.<br>
  * NB: no callable transformer or sink allowed.
  * <br><br>
  <!-- globalinfo-end -->
@@ -123,6 +130,20 @@ import java.util.concurrent.TimeUnit;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-use-worker-pool &lt;boolean&gt; (property: useWorkerPool)
+ * &nbsp;&nbsp;&nbsp;If enabled, a copy of the sub-flow gets set up only once for each thread 
+ * &nbsp;&nbsp;&nbsp;and the tokens are passed on via a bounded queue; variables and local 
+ * &nbsp;&nbsp;&nbsp;storage only get copied when the workers get created.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-queue-size &lt;int&gt; (property: queueSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of tokens waiting to be processed by the worker pool 
+ * &nbsp;&nbsp;&nbsp;before blocking the input.
+ * &nbsp;&nbsp;&nbsp;default: 10
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -137,6 +158,133 @@ public class LoadBalancer
   /** the key for storing the current token in the backup. */
   public final static String BACKUP_CURRENT = "current";
 
+  /**
+   * Container for tokens waiting in the queue of the worker pool.
+   */
+  protected static class QueuedToken {
+
+    /** the token, null to signal the end of processing. */
+    public final Token token;
+
+    /** the time the token got queued (nano seconds). */
+    public final long queued;
+
+    /**
+     * Initializes the container.
+     *
+     * @param token	the token, null to signal the end
+     */
+    public QueuedToken(Token token) {
+      this.token  = token;
+      this.queued = System.nanoTime();
+    }
+  }
+
+  /**
+   * Statistics of a worker of the pool.
+   */
+  public static class WorkerStatistics
+    implements Serializable {
+
+    private static final long serialVersionUID = 4338015683451858254L;
+
+    /** the number of the worker. */
+    protected int m_Worker;
+
+    /** the number of processed tokens. */
+    protected long m_Processed;
+
+    /** the time spent processing tokens (nano seconds). */
+    protected long m_Busy;
+
+    /** the time tokens spent in the queue (nano seconds). */
+    protected long m_QueueWait;
+
+    /**
+     * Initializes the statistics.
+     *
+     * @param worker	the number of the worker
+     */
+    public WorkerStatistics(int worker) {
+      m_Worker = worker;
+    }
+
+    /**
+     * Records the processing of a token.
+     *
+     * @param queueWait	the time the token spent in the queue (nano seconds)
+     * @param busy	the time it took to process the token (nano seconds)
+     */
+    public synchronized void record(long queueWait, long busy) {
+      m_Processed++;
+      m_QueueWait += queueWait;
+      m_Busy      += busy;
+    }
+
+    /**
+     * Returns the number of the worker.
+     *
+     * @return		the number
+     */
+    public int getWorker() {
+      return m_Worker;
+    }
+
+    /**
+     * Returns the number of processed tokens.
+     *
+     * @return		the number of tokens
+     */
+    public synchronized long getProcessed() {
+      return m_Processed;
+    }
+
+    /**
+     * Returns the time spent processing tokens.
+     *
+     * @return		the time in msec
+     */
+    public synchronized double getBusyTime() {
+      return m_Busy / 1000000.0;
+    }
+
+    /**
+     * Returns the number of tokens processed per second of processing time.
+     *
+     * @return		the throughput
+     */
+    public synchronized double getThroughput() {
+      if (m_Busy == 0)
+	return 0.0;
+      return m_Processed / (m_Busy / 1000000000.0);
+    }
+
+    /**
+     * Returns the average time tokens spent in the queue.
+     *
+     * @return		the time in msec
+     */
+    public synchronized double getAverageQueueWait() {
+      if (m_Processed == 0)
+	return 0.0;
+      return m_QueueWait / 1000000.0 / m_Processed;
+    }
+
+    /**
+     * Returns a short description of the statistics.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return "worker=" + getWorker()
+	+ ", processed=" + getProcessed()
+	+ ", busy=" + getBusyTime() + "ms"
+	+ ", throughput=" + getThroughput() + "/s"
+	+ ", avgQueueWait=" + getAverageQueueWait() + "ms";
+    }
+  }
+
   /** the actors to "balance". */
   protected Sequence m_Actors;
 
@@ -164,6 +312,21 @@ public class LoadBalancer
   /** whether to perform a deep copy of the storage. */
   protected boolean m_DeepCopy;
 
+  /** whether to use a pool of pre-initialized workers. */
+  protected boolean m_UseWorkerPool;
+
+  /** the maximum number of queued tokens for the worker pool. */
+  protected int m_QueueSize;
+
+  /** the queue for the worker pool. */
+  protected transient BlockingQueue<QueuedToken> m_Queue;
+
+  /** the statistics of the workers. */
+  protected List<WorkerStatistics> m_WorkerStatistics;
+
+  /** the error of the first worker that died. */
+  protected transient volatile String m_WorkerError;
+
   /**
    * Returns a string describing the object.
    *
@@ -175,6 +338,9 @@ public class LoadBalancer
         "Runs the specified 'load actor' in as many separate threads as "
             + "specified with the 'num-threads' parameter.\n"
             + "Always uses a copy of the variables.\n"
+            + "When using the worker pool, the sub-flows get only set up once per "
+            + "thread and the tokens get passed on via a bounded queue; variables "
+            + "and local storage are only copied when the workers get created.\n"
             + "NB: no callable transformer or sink allowed.";
   }
 
@@ -200,6 +366,14 @@ public class LoadBalancer
     m_OptionManager.add(
         "deep-copy", "deepCopy",
         false);
+
+    m_OptionManager.add(
+        "use-worker-pool", "useWorkerPool",
+        false);
+
+    m_OptionManager.add(
+        "queue-size", "queueSize",
+        10, 1, null);
   }
 
   /**
@@ -209,9 +383,10 @@ public class LoadBalancer
   protected void initialize() {
     super.initialize();
 
-    m_CurrentToken = null;
-    m_ToCleanUp    = new ArrayList<>();
-    m_Actors       = new Sequence();
+    m_CurrentToken     = null;
+    m_ToCleanUp        = new ArrayList<>();
+    m_WorkerStatistics = new ArrayList<>();
+    m_Actors           = new Sequence();
     m_Actors.setAllowStandalones(true);
     m_Actors.setAllowSource(true);
   }
@@ -373,6 +548,71 @@ public class LoadBalancer
     return "If enabled, the local storage gets copied using a deep copy.";
   }
 
+  /**
+   * Sets whether to use a pool of pre-initialized workers.
+   *
+   * @param value	true if to use the worker pool
+   */
+  public void setUseWorkerPool(boolean value) {
+    m_UseWorkerPool = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use a pool of pre-initialized workers.
+   *
+   * @return		true if to use the worker pool
+   */
+  public boolean getUseWorkerPool() {
+    return m_UseWorkerPool;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String useWorkerPoolTipText() {
+    return
+        "If enabled, a copy of the sub-flow gets set up only once for each "
+            + "thread and the tokens are passed on via a bounded queue; variables "
+            + "and local storage only get copied when the workers get created.";
+  }
+
+  /**
+   * Sets the maximum number of tokens waiting to be processed by the worker pool.
+   *
+   * @param value	the size of the queue
+   */
+  public void setQueueSize(int value) {
+    if (getOptionManager().isValid("queueSize", value)) {
+      m_QueueSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of tokens waiting to be processed by the worker pool.
+   *
+   * @return		the size of the queue
+   */
+  public int getQueueSize() {
+    return m_QueueSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueSizeTipText() {
+    return
+        "The maximum number of tokens waiting to be processed by the worker "
+            + "pool before blocking the input.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -386,6 +626,9 @@ public class LoadBalancer
     result += QuickInfoHelper.toString(this, "useLocalStorage", m_UseLocalStorage, "local storage", ", ");
     if (m_UseLocalStorage || QuickInfoHelper.hasVariable(this, "useLocalStorage"))
       result += " (" + QuickInfoHelper.toString(this, "deepCopy", m_DeepCopy, "deep copy") + ")";
+    result += QuickInfoHelper.toString(this, "useWorkerPool", m_UseWorkerPool, "worker pool", ", ");
+    if (m_UseWorkerPool || QuickInfoHelper.hasVariable(this, "useWorkerPool"))
+      result += QuickInfoHelper.toString(this, "queueSize", m_QueueSize, " (queue: ") + ")";
 
     return result;
   }
@@ -627,6 +870,9 @@ public class LoadBalancer
       m_ActualNumThreads = Performance.determineNumThreads(m_NumThreads);
       m_ThreadsSpawned   = 0;
       m_Executor         = new PausableFixedThreadPoolExecutor(m_ActualNumThreads);
+      m_Queue            = null;
+      m_WorkerError      = null;
+      m_WorkerStatistics.clear();
     }
 
     return result;
@@ -639,6 +885,9 @@ public class LoadBalancer
    */
   public void input(Token token) {
     m_CurrentToken = token;
+    // the worker pool blocks on the queue instead
+    if (m_UseWorkerPool)
+      return;
     while ((m_Executor.getActiveCount() >= m_Executor.getMaximumPoolSize()) && !isStopped()) {
       if (isLoggingEnabled())
         getLogger().info("Waiting for free thread...");
@@ -671,6 +920,237 @@ public class LoadBalancer
     return m_CurrentToken;
   }
 
+  /**
+   * Creates a new flow shell around copies of the load actors, which reads
+   * its input from the specified storage item.
+   *
+   * @param inputName	the name of the storage item with the input
+   * @param count	the number of the thread
+   * @return		the shell, null if failed to set up
+   */
+  protected Flow createShell(String inputName, int count) {
+    String		msg;
+    Flow		result;
+    int			i;
+    StorageValue	storageValue;
+    DeleteStorageValue	delValue;
+    Variables		vars;
+
+    vars = getVariables().getClone();
+    result = new Flow();
+    result.setName(getFullName());
+    result.setLoggingLevel(getLoggingLevel());
+    result.setAnnotations(new BaseAnnotation("Thread #" + count));
+    storageValue = new StorageValue();
+    storageValue.setStorageName(new StorageName(inputName));
+    result.add(storageValue);
+    delValue = new DeleteStorageValue();
+    delValue.setStorageName(new StorageName(inputName));
+    result.add(delValue);
+    for (i = 0; i < m_Actors.size(); i++)
+      result.add((Actor) OptionUtils.shallowCopy(m_Actors.get(i), false, false));
+    result.getVariables().assign(vars);
+    msg = result.setUp();
+    if (msg != null) {
+      getLogger().severe("Failed to setup shell: " + msg);
+      return null;
+    }
+    copyStorage(result, m_UseLocalStorage);
+
+    return result;
+  }
+
+  /**
+   * Transfers the storage items to the shell.
+   *
+   * @param shell	the shell to update
+   * @param copy	whether to copy the items
+   */
+  protected void copyStorage(Flow shell, boolean copy) {
+    Object	svalue;
+
+    for (StorageName sname: getStorageHandler().getStorage().keySet()) {
+      svalue = getStorageHandler().getStorage().get(sname);
+      if (copy)
+        shell.getStorage().put(sname, ObjectCopyHelper.copyObject(svalue));
+      else
+        shell.getStorage().put(sname, svalue);
+    }
+  }
+
+  /**
+   * Creates the worker pool, with each worker using its own shell.
+   *
+   * @return		null if successful, otherwise error message
+   */
+  protected String startWorkers() {
+    String	result;
+    int		i;
+
+    result  = null;
+    m_Queue = new ArrayBlockingQueue<>(m_QueueSize);
+
+    for (i = 0; i < m_ActualNumThreads; i++) {
+      m_ThreadsSpawned++;
+      result = startWorker(m_ThreadsSpawned);
+      if (result != null)
+        break;
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates the shell for a worker and submits the worker to the executor.
+   *
+   * @param count	the number of the worker
+   * @return		null if successful, otherwise error message
+   */
+  protected String startWorker(int count) {
+    final Flow			shell;
+    final StorageName		inputName;
+    final WorkerStatistics	stats;
+
+    inputName = new StorageName(UniqueIDs.next() + "-" + count);
+    shell     = createShell(inputName.getValue(), count);
+    if (shell == null)
+      return "Failed to setup shell for worker #" + count + "!";
+    m_ToCleanUp.add(shell);
+    stats = new WorkerStatistics(count);
+    m_WorkerStatistics.add(stats);
+    m_Executor.submit(new CallableWithResult<String>() {
+      protected String doCall() throws Exception {
+        return processQueue(shell, inputName, stats);
+      }
+    });
+
+    return null;
+  }
+
+  /**
+   * Processes the tokens from the queue with the shell until the end gets
+   * signaled or the flow stopped. Errors of individual tokens only get
+   * logged (like without the worker pool). If the worker dies, the error
+   * gets recorded and the actor fails with the next token.
+   *
+   * @param shell	the shell to use
+   * @param inputName	the name of the storage item for the input
+   * @param stats	for recording the statistics
+   * @return		null if successful, otherwise the last error
+   * @see		#m_WorkerError
+   */
+  protected String processQueue(Flow shell, StorageName inputName, WorkerStatistics stats) {
+    String		result;
+    String		msg;
+    QueuedToken		queued;
+    long		start;
+
+    result = null;
+
+    try {
+      while (!isStopped()) {
+        try {
+          queued = m_Queue.poll(100, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+          break;
+        }
+        if (queued == null)
+          continue;
+        if (queued.token == null)
+          break;
+
+        start = System.nanoTime();
+        try {
+          if (!m_UseLocalStorage)
+            copyStorage(shell, false);
+          shell.getStorage().put(inputName, queued.token.getPayload());
+          msg = shell.execute();
+          if (msg != null) {
+            shell.getLogger().severe(msg);
+            result = msg;
+          }
+        }
+        catch (Exception e) {
+          result = handleException("Failed to execute worker #" + stats.getWorker() + ": ", e);
+        }
+        stats.record(start - queued.queued, System.nanoTime() - start);
+      }
+    }
+    catch (Throwable t) {
+      result = handleException("Worker #" + stats.getWorker() + " died: ", t);
+      synchronized(m_WorkerStatistics) {
+        if (m_WorkerError == null)
+          m_WorkerError = result;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Places the current token in the queue of the worker pool, blocking
+   * while the queue is full.
+   *
+   * @return		null if successful, otherwise error message
+   */
+  protected String queueToken() {
+    String	result;
+    QueuedToken	queued;
+
+    result = m_WorkerError;
+
+    if ((result == null) && (m_Queue == null))
+      result = startWorkers();
+
+    if (result == null) {
+      queued = new QueuedToken(m_CurrentToken);
+      try {
+        while (!isStopped() && (m_WorkerError == null) && !m_Queue.offer(queued, 100, TimeUnit.MILLISECONDS)) {
+          if (isLoggingEnabled())
+            getLogger().info("Waiting for free slot in queue...");
+        }
+      }
+      catch (InterruptedException e) {
+        // ignored
+      }
+      result = m_WorkerError;
+    }
+
+    m_CurrentToken = null;
+
+    return result;
+  }
+
+  /**
+   * Returns the statistics of the workers of the pool.
+   *
+   * @return		the statistics, one row per worker
+   */
+  public SpreadSheet getWorkerStatistics() {
+    SpreadSheet	result;
+    Row		row;
+
+    result = new DefaultSpreadSheet();
+    row    = result.getHeaderRow();
+    row.addCell("W").setContentAsString("Worker");
+    row.addCell("P").setContentAsString("Processed");
+    row.addCell("B").setContentAsString("Busy (msec)");
+    row.addCell("T").setContentAsString("Throughput (tokens/sec)");
+    row.addCell("Q").setContentAsString("Average queue wait (msec)");
+
+    for (WorkerStatistics stats: m_WorkerStatistics) {
+      row = result.addRow();
+      row.addCell("W").setContent(stats.getWorker());
+      row.addCell("P").setContent(stats.getProcessed());
+      row.addCell("B").setContent(stats.getBusyTime());
+      row.addCell("T").setContent(stats.getThroughput());
+      row.addCell("Q").setContent(stats.getAverageQueueWait());
+    }
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -683,12 +1163,7 @@ public class LoadBalancer
     final Flow			shell;
     final int 			count;
     final Token			token;
-    int				i;
-    Object			svalue;
     String			inputName;
-    StorageValue		storageValue;
-    DeleteStorageValue		delValue;
-    Variables			vars;
 
     result = null;
 
@@ -698,36 +1173,16 @@ public class LoadBalancer
     // "setUp()" call when starting the flow
     getScopeHandler().setEnforceCallableNameCheck(false);
 
+    if (m_UseWorkerPool)
+      return queueToken();
+
     m_ThreadsSpawned++;
     token = m_CurrentToken;
     count = m_ThreadsSpawned;
     inputName = UniqueIDs.next() + "-" + count;
-    vars = getVariables().getClone();
-    shell = new Flow();
-    shell.setName(getFullName());
-    shell.setLoggingLevel(getLoggingLevel());
-    shell.setAnnotations(new BaseAnnotation("Thread #" + count));
-    storageValue = new StorageValue();
-    storageValue.setStorageName(new StorageName(inputName));
-    shell.add(storageValue);
-    delValue = new DeleteStorageValue();
-    delValue.setStorageName(new StorageName(inputName));
-    shell.add(delValue);
-    for (i = 0; i < m_Actors.size(); i++)
-      shell.add((Actor) OptionUtils.shallowCopy(m_Actors.get(i), false, false));
-    shell.getVariables().assign(vars);
-    result = shell.setUp();
-    if (result != null) {
-      getLogger().severe("Failed to setup shell!");
-      return result;
-    }
-    for (StorageName sname: getStorageHandler().getStorage().keySet()) {
-      svalue = getStorageHandler().getStorage().get(sname);
-      if (m_UseLocalStorage)
-        shell.getStorage().put(sname, ObjectCopyHelper.copyObject(svalue));
-      else
-        shell.getStorage().put(sname, svalue);
-    }
+    shell = createShell(inputName, count);
+    if (shell == null)
+      return "Failed to setup shell!";
     shell.getStorage().put(new StorageName(inputName), token.getPayload());
     m_ToCleanUp.add(shell);
     job = new CallableWithResult<String>() {
@@ -763,8 +1218,29 @@ public class LoadBalancer
    */
   @Override
   public void wrapUp() {
+    int		i;
+
+    if (m_Queue != null) {
+      // signal the end to all workers
+      for (i = 0; i < m_WorkerStatistics.size(); i++) {
+        try {
+          while (!isStopped() && (m_WorkerError == null) && !m_Queue.offer(new QueuedToken(null), 100, TimeUnit.MILLISECONDS));
+        }
+        catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
     if (m_Executor != null) {
-      m_Executor.shutdown();
+      // the remaining workers won't receive the end signal
+      if (m_WorkerError != null) {
+        if (m_Queue != null)
+          m_Queue.clear();
+        m_Executor.shutdownNow();
+      }
+      else {
+        m_Executor.shutdown();
+      }
       while (!m_Executor.isTerminated()) {
         try {
           m_Executor.awaitTermination(100, TimeUnit.MILLISECONDS);
@@ -775,6 +1251,11 @@ public class LoadBalancer
       }
       m_Executor = null;
     }
+    if ((m_Queue != null) && isLoggingEnabled()) {
+      for (WorkerStatistics stats: m_WorkerStatistics)
+        getLogger().info(stats.toString());
+    }
+    m_Queue        = null;
     m_CurrentToken = null;
 
     super.wrapUp();
@@ -800,6 +1281,8 @@ public class LoadBalancer
         synchronized(m_Executor) {
           m_Executor.notifyAll();
           m_Executor.shutdownNow();
+          if (m_Queue != null)
+            m_Queue.clear();
         }
       }
       catch (Exception e) {
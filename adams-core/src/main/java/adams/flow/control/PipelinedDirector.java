@@ -0,0 +1,539 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PipelinedDirector.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.control;
+
+import adams.core.base.BaseString;
+import adams.flow.core.Actor;
+import adams.flow.core.InputConsumer;
+import adams.flow.core.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Manages the execution of actors in sequential order, but splits the
+ * actors into stages that run in their own threads. The stages are
+ * connected via bounded queues: a stage blocks when the queue to the next
+ * stage is full (back-pressure). Each stage processes its tokens in the
+ * order they were generated, i.e., every actor receives the tokens in the
+ * same order as with the {@link SequentialDirector}.
+ * <br>
+ * A stage starts with each of the actors listed as stages and includes all
+ * subsequent actors up to the next stage. The actors before the first stage
+ * (standalones and source/first actor) get executed in the calling thread.
+ * Since the actors of different stages run concurrently, they must not
+ * depend on each other via side effects (e.g., variables or storage items
+ * that change with every token).
+ * <br>
+ * The stage threads and queues get created with the first execution and are
+ * kept for subsequent executions, i.e., a {@link Sequence} or
+ * {@link SubProcess} does not create new threads for every token it
+ * receives. Each execution waits for its tokens to pass through all the
+ * stages. The threads get terminated when the execution gets stopped, the
+ * actor wraps up or the stages change.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PipelinedDirector
+  extends SequentialDirector {
+
+  private static final long serialVersionUID = 6139128465713425874L;
+
+  /**
+   * Container for the threads and queues of the stages.
+   */
+  protected static class Pipeline {
+
+    /** the start/end indices (incl) of the stages. */
+    public List<int[]> stages;
+
+    /** the queues between the stages. */
+    public List<BlockingQueue<Token>> queues;
+
+    /** the threads executing the stages (except the first). */
+    public List<Thread> threads;
+
+    /** gets released by the last stage when all tokens of an execution have been processed. */
+    public Semaphore completed;
+
+    /** for storing the first error of an execution. */
+    public String[] errors;
+
+    /** whether the threads are to terminate. */
+    public volatile boolean shutdown;
+  }
+
+  /** the polling interval in msec for the queues. */
+  public final static int POLL_INTERVAL = 100;
+
+  /** the token marking the end of the tokens of an execution. */
+  protected final static Token END = new Token();
+
+  /** the names of the actors that start a new stage. */
+  protected BaseString[] m_Stages;
+
+  /** the size of the queues between the stages. */
+  protected int m_QueueSize;
+
+  /** the currently running stage threads, null if none. */
+  protected transient Pipeline m_Pipeline;
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_Stages    = new BaseString[0];
+    m_QueueSize = 10;
+  }
+
+  /**
+   * Sets the names of the actors that start a new stage.
+   *
+   * @param value	the actor names
+   */
+  public void setStages(BaseString[] value) {
+    m_Stages = value;
+  }
+
+  /**
+   * Returns the names of the actors that start a new stage.
+   *
+   * @return		the actor names
+   */
+  public BaseString[] getStages() {
+    return m_Stages;
+  }
+
+  /**
+   * Sets the size of the queues between the stages.
+   *
+   * @param value	the size
+   */
+  public void setQueueSize(int value) {
+    if (value > 0)
+      m_QueueSize = value;
+    else
+      getLogger().warning("Queue size must be at least 1, provided: " + value);
+  }
+
+  /**
+   * Returns the size of the queues between the stages.
+   *
+   * @return		the size
+   */
+  public int getQueueSize() {
+    return m_QueueSize;
+  }
+
+
+  /**
+   * Checks whether the stage threads of the pipeline should terminate.
+   *
+   * @param pipeline	the pipeline to check
+   * @return		true if to terminate
+   */
+  protected boolean isTerminated(Pipeline pipeline) {
+    return pipeline.shutdown || isStopped() || isStopping();
+  }
+
+  /**
+   * Checks whether the processing should be aborted.
+   *
+   * @param pipeline	the pipeline to check
+   * @return		true if to abort
+   */
+  protected boolean isAborted(Pipeline pipeline) {
+    return isTerminated(pipeline) || isFlushing();
+  }
+
+  /**
+   * Determines the stages for the actors to execute.
+   *
+   * @param startActor	the actor to start with
+   * @param errors	for storing errors
+   * @return		the start/end indices (incl) of the stages
+   */
+  protected List<int[]> determineStages(Actor startActor, List<String> errors) {
+    List<int[]>		result;
+    Set<String>		names;
+    Set<String>		found;
+    int[]		indices;
+    int			start;
+    int			i;
+    Actor		actor;
+
+    result = new ArrayList<>();
+    names  = new HashSet<>();
+    for (BaseString stage: m_Stages)
+      names.add(stage.getValue());
+    found   = new HashSet<>();
+    indices = activeIndices(m_ControlActor.indexOf(startActor.getName()), m_ControlActor.lastActive().index());
+    start   = indices[0];
+    for (i = 1; i < indices.length; i++) {
+      actor = m_ControlActor.get(indices[i]);
+      if (!names.contains(actor.getName()))
+	continue;
+      found.add(actor.getName());
+      if (!(actor instanceof InputConsumer)) {
+	errors.add("Actor starting a stage must accept input: " + actor.getFullName());
+	continue;
+      }
+      result.add(new int[]{start, indices[i - 1]});
+      start = indices[i];
+    }
+    result.add(new int[]{start, indices[indices.length - 1]});
+
+    for (String name: names) {
+      if (!found.contains(name) && (m_ControlActor.indexOf(name) == -1))
+	errors.add("Unknown actor for stage: " + name);
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds the token to the queue, waiting if necessary. The end marker still
+   * gets added when the execution is being flushed.
+   *
+   * @param pipeline	the pipeline the queue belongs to
+   * @param queue	the queue to add to
+   * @param token	the token to add
+   * @return		true if added, false if execution got aborted
+   */
+  protected boolean put(Pipeline pipeline, BlockingQueue<Token> queue, Token token) {
+    try {
+      while (!queue.offer(token, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+	if ((token == END) ? isTerminated(pipeline) : isAborted(pipeline))
+	  return false;
+      }
+      return true;
+    }
+    catch (InterruptedException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Executes a stage, processing the tokens from its input queue till the
+   * pipeline gets terminated. Forwards the end marker of each execution to
+   * the next stage, the last stage releases the completion semaphore
+   * instead.
+   *
+   * @param pipeline	the pipeline the stage belongs to
+   * @param index	the index of the stage (1-based, stage 0 runs in the calling thread)
+   */
+  protected void executeStage(Pipeline pipeline, int index) {
+    int[]			stage;
+    BlockingQueue<Token>	input;
+    BlockingQueue<Token>	output;
+    Actor			first;
+    Token			token;
+    String			msg;
+    boolean			failed;
+
+    stage  = pipeline.stages.get(index);
+    input  = pipeline.queues.get(index - 1);
+    output = (index < pipeline.queues.size()) ? pipeline.queues.get(index) : null;
+    first  = m_ControlActor.get(stage[0]);
+    failed = false;
+    while (!isTerminated(pipeline)) {
+      try {
+	token = input.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e) {
+	break;
+      }
+      if (token == null)
+	continue;
+      if (token == END) {
+	failed = false;
+	if (output == null)
+	  pipeline.completed.release();
+	else if (!put(pipeline, output, END))
+	  break;
+	continue;
+      }
+      // keep draining the queue to avoid blocking the previous stage
+      if (failed || isAborted(pipeline))
+	continue;
+      if (isPaused())
+	pause();
+
+      try {
+	doInput(first, token);
+	msg = doExecuteActors(first, stage[1], (output == null) ? null : (Token t) -> put(pipeline, output, t));
+	if (msg != null)
+	  setError(pipeline.errors, msg);
+      }
+      catch (Throwable t) {
+	failed = true;
+	setError(pipeline.errors, handleException("Execution of stage '" + first.getFullName() + "' died: ", t));
+      }
+    }
+  }
+
+  /**
+   * Creates the thread for executing the stage.
+   *
+   * @param pipeline	the pipeline the stage belongs to
+   * @param index	the index of the stage
+   * @return		the thread
+   */
+  protected Thread newStageThread(Pipeline pipeline, int index) {
+    Thread	result;
+
+    result = new Thread(
+      () -> executeStage(pipeline, index),
+      m_LoggingPrefix + "/" + m_ControlActor.get(pipeline.stages.get(index)[0]).getName());
+    result.setDaemon(true);
+
+    return result;
+  }
+
+  /**
+   * Checks whether the pipeline is running for the specified stages.
+   *
+   * @param pipeline	the pipeline to check, can be null
+   * @param stages	the start/end indices of the stages
+   * @return		true if running
+   */
+  protected boolean isRunning(Pipeline pipeline, List<int[]> stages) {
+    int		i;
+
+    if ((pipeline == null) || pipeline.shutdown || (pipeline.stages.size() != stages.size()))
+      return false;
+    for (i = 0; i < stages.size(); i++) {
+      if (!Arrays.equals(pipeline.stages.get(i), stages.get(i)))
+	return false;
+    }
+    for (Thread thread: pipeline.threads) {
+      if (!thread.isAlive())
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Creates the queues and starts the threads for the stages.
+   *
+   * @param stages	the start/end indices of the stages
+   * @return		the pipeline
+   */
+  protected Pipeline startPipeline(List<int[]> stages) {
+    Pipeline	result;
+    int		i;
+
+    result           = new Pipeline();
+    result.stages    = stages;
+    result.queues    = new ArrayList<>();
+    result.threads   = new ArrayList<>();
+    result.completed = new Semaphore(0);
+    result.errors    = new String[1];
+    for (i = 1; i < stages.size(); i++)
+      result.queues.add(new ArrayBlockingQueue<>(m_QueueSize));
+    for (i = 1; i < stages.size(); i++)
+      result.threads.add(newStageThread(result, i));
+    for (Thread thread: result.threads)
+      thread.start();
+
+    if (getLoggingLevel().isAtLeast(Level.INFO))
+      getLogger().info("Started " + result.threads.size() + " stage thread(s)");
+
+    return result;
+  }
+
+  /**
+   * Terminates the threads of the current pipeline, if any, and waits for
+   * them to finish.
+   */
+  protected void stopPipeline() {
+    Pipeline	pipeline;
+
+    synchronized(this) {
+      pipeline   = m_Pipeline;
+      m_Pipeline = null;
+    }
+    if (pipeline == null)
+      return;
+
+    pipeline.shutdown = true;
+    for (Thread thread: pipeline.threads)
+      thread.interrupt();
+    for (Thread thread: pipeline.threads) {
+      try {
+	thread.join();
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+
+    if (getLoggingLevel().isAtLeast(Level.INFO))
+      getLogger().info("Stopped " + pipeline.threads.size() + " stage thread(s)");
+  }
+
+  /**
+   * Waits for the last stage to finish processing the tokens of the current
+   * execution.
+   *
+   * @param pipeline	the pipeline to wait for
+   */
+  protected void waitForCompletion(Pipeline pipeline) {
+    try {
+      while (!pipeline.completed.tryAcquire(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+	if (isTerminated(pipeline))
+	  return;
+	for (Thread thread: pipeline.threads) {
+	  if (!thread.isAlive())
+	    return;
+	}
+      }
+    }
+    catch (InterruptedException e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Stores the error, if it is the first one.
+   *
+   * @param errors	the error container
+   * @param msg		the error
+   */
+  protected void setError(String[] errors, String msg) {
+    synchronized(errors) {
+      if (errors[0] == null)
+	errors[0] = msg;
+    }
+  }
+
+  /**
+   * Peforms the execution of the actors. Starts the stage threads if
+   * necessary, otherwise reuses the ones from the previous execution.
+   *
+   * @param startActor	the actor to start with
+   * @return		null if everything ok, otherwise the error message
+   */
+  @Override
+  protected String doExecuteActors(Actor startActor) {
+    List<String>	msgs;
+    List<int[]>		stages;
+    Pipeline		pipeline;
+
+    msgs   = new ArrayList<>();
+    stages = determineStages(startActor, msgs);
+    if (!msgs.isEmpty())
+      return msgs.get(0);
+    if (stages.size() == 1)
+      return super.doExecuteActors(startActor);
+
+    synchronized(this) {
+      pipeline = m_Pipeline;
+    }
+    if (!isRunning(pipeline, stages)) {
+      stopPipeline();
+      pipeline = startPipeline(stages);
+      synchronized(this) {
+	m_Pipeline = pipeline;
+      }
+      // stopped in the meantime?
+      if (isStopped() || isStopping()) {
+	stopPipeline();
+	return null;
+      }
+    }
+
+    return executePipeline(pipeline, startActor);
+  }
+
+  /**
+   * Executes the first stage in the current thread and waits for the other
+   * stages to process all the tokens.
+   *
+   * @param pipeline	the pipeline to use
+   * @param startActor	the actor to start with
+   * @return		null if everything ok, otherwise the error message
+   */
+  protected String executePipeline(Pipeline pipeline, Actor startActor) {
+    String	msg;
+
+    synchronized(pipeline.errors) {
+      pipeline.errors[0] = null;
+    }
+    getFinalOutput().clear();
+
+    try {
+      msg = super.doExecuteActors(startActor, pipeline.stages.get(0)[1], (Token t) -> put(pipeline, pipeline.queues.get(0), t));
+      if (msg != null)
+	setError(pipeline.errors, msg);
+    }
+    finally {
+      if (put(pipeline, pipeline.queues.get(0), END))
+	waitForCompletion(pipeline);
+    }
+
+    if (isFlushing())
+      getFinalOutput().clear();
+
+    synchronized(pipeline.errors) {
+      return pipeline.errors[0];
+    }
+  }
+
+  /**
+   * Stops the execution and terminates the stage threads.
+   */
+  @Override
+  public void stopExecution() {
+    super.stopExecution();
+    stopPipeline();
+  }
+
+  /**
+   * Finishes up the execution, terminates the stage threads.
+   */
+  @Override
+  public void wrapUp() {
+    stopPipeline();
+    super.wrapUp();
+  }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   */
+  @Override
+  public void cleanUp() {
+    stopPipeline();
+    super.cleanUp();
+  }
+}
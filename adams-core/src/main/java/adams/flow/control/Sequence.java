@@ -15,11 +15,12 @@
 
 /*
  * Sequence.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
 
+import adams.core.base.BaseString;
 import adams.flow.core.Actor;
 import adams.flow.core.ActorExecution;
 import adams.flow.core.ActorHandlerInfo;
@@ -65,6 +66,17 @@ import java.util.Hashtable;
  *         All the actors that define this sequence.
  * </pre>
  *
+ * <pre>-pipeline-stage &lt;adams.core.base.BaseString&gt; [-pipeline-stage ...] (property: pipelineStages)
+ *         The names of the actors that start a new pipeline stage, running in
+ *          its own thread; uses sequential execution if none specified.
+ * </pre>
+ *
+ * <pre>-pipeline-queue-size &lt;int&gt; (property: pipelineQueueSize)
+ *         The maximum number of tokens that can be queued between pipeline stages.
+ *         default: 10
+ *         minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -94,6 +106,12 @@ public class Sequence
   /** whether a restricted stop occurred. */
   protected boolean m_RestrictedStop;
 
+  /** the names of the actors that start a new pipeline stage. */
+  protected BaseString[] m_PipelineStages;
+
+  /** the size of the queues between the pipeline stages. */
+  protected int m_PipelineQueueSize;
+
   /**
    * Default constructor.
    */
@@ -121,6 +139,22 @@ public class Sequence
     return "Encapsulates a sequence of flow items.";
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "pipeline-stage", "pipelineStages",
+      new BaseString[0]);
+
+    m_OptionManager.add(
+      "pipeline-queue-size", "pipelineQueueSize",
+      10, 1, null);
+  }
+
   /**
    * Initializes the members.
    */
@@ -142,6 +176,87 @@ public class Sequence
     return "All the actors that define this sequence.";
   }
 
+  /**
+   * Sets the names of the actors that start a new pipeline stage.
+   *
+   * @param value	the actor names
+   */
+  public void setPipelineStages(BaseString[] value) {
+    m_PipelineStages = value;
+    reset();
+  }
+
+  /**
+   * Returns the names of the actors that start a new pipeline stage.
+   *
+   * @return		the actor names
+   */
+  public BaseString[] getPipelineStages() {
+    return m_PipelineStages;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pipelineStagesTipText() {
+    return
+      "The names of the actors that start a new pipeline stage, running in "
+	+ "its own thread; uses sequential execution if none specified.";
+  }
+
+  /**
+   * Sets the maximum number of tokens queued between pipeline stages.
+   *
+   * @param value	the size
+   */
+  public void setPipelineQueueSize(int value) {
+    if (getOptionManager().isValid("pipelineQueueSize", value)) {
+      m_PipelineQueueSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of tokens queued between pipeline stages.
+   *
+   * @return		the size
+   */
+  public int getPipelineQueueSize() {
+    return m_PipelineQueueSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pipelineQueueSizeTipText() {
+    return "The maximum number of tokens that can be queued between pipeline stages.";
+  }
+
+  /**
+   * Returns an instance of a director.
+   *
+   * @return		the director
+   */
+  @Override
+  protected AbstractDirector newDirector() {
+    PipelinedDirector	result;
+
+    if (m_PipelineStages.length == 0)
+      return super.newDirector();
+
+    result = new PipelinedDirector();
+    result.setStages(m_PipelineStages);
+    result.setQueueSize(m_PipelineQueueSize);
+
+    return result;
+  }
+
   /**
    * Returns the default for restricting stops.
    *
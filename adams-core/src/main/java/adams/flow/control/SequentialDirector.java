@@ -15,7 +15,7 @@
 
 /*
  * SequentialDirector.java
- * Copyright (C) 2009-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
@@ -24,6 +24,8 @@ import adams.core.logging.LoggingHelper;
 import adams.core.logging.LoggingLevel;
 import adams.flow.core.Actor;
 import adams.flow.core.ActorUtils;
+import adams.flow.core.BatchConsumer;
+import adams.flow.core.BatchToken;
 import adams.flow.core.InputConsumer;
 import adams.flow.core.OptionalStopRestrictor;
 import adams.flow.core.OutputProducer;
@@ -31,13 +33,23 @@ import adams.flow.core.Token;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
  * Manages the execution of actors in sequential order.
+ * <br><br>
+ * {@link BatchToken} output of an actor only gets forwarded as is if the
+ * next actor accepts batches (see {@link BatchConsumer}), otherwise the
+ * batch gets split into individual tokens. Flow execution listeners only
+ * see the batch token in that case.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  */
@@ -56,6 +68,9 @@ public class SequentialDirector
   /** whether the director was executed at all. */
   protected boolean m_Executed;
 
+  /** the tokens of unbatched batch tokens still to output (actor name - tokens). */
+  protected transient Map<String,Deque<Token>> m_Unbatched;
+
   /**
    * Initializes the members.
    */
@@ -64,6 +79,7 @@ public class SequentialDirector
     super.initialize();
 
     m_FinalOutput = null;
+    m_Unbatched   = null;
   }
 
   /**
@@ -91,6 +107,103 @@ public class SequentialDirector
     return m_FinalOutput;
   }
 
+  /**
+   * Returns the map for storing the tokens of unbatched batch tokens. Gets
+   * instantiated if necessary.
+   *
+   * @return		the map
+   * @see		#m_Unbatched
+   */
+  protected Map<String,Deque<Token>> getUnbatched() {
+    if (m_Unbatched == null)
+      m_Unbatched = new ConcurrentHashMap<>();
+
+    return m_Unbatched;
+  }
+
+  /**
+   * Checks whether there are still unbatched tokens to output for the actor.
+   *
+   * @param actor	the actor to check
+   * @return		true if tokens available
+   */
+  protected boolean hasUnbatched(Actor actor) {
+    Deque<Token>	tokens;
+
+    if (getUnbatched().isEmpty())
+      return false;
+    tokens = getUnbatched().get(actor.getName());
+    return (tokens != null) && !tokens.isEmpty();
+  }
+
+  /**
+   * Returns the next unbatched token for the actor.
+   *
+   * @param actor	the actor to get the token for
+   * @return		the token
+   */
+  protected Token nextUnbatched(Actor actor) {
+    Deque<Token>	tokens;
+    Token		result;
+
+    tokens = getUnbatched().get(actor.getName());
+    result = tokens.poll();
+    if (tokens.isEmpty())
+      getUnbatched().remove(actor.getName());
+
+    return result;
+  }
+
+  /**
+   * Checks whether the active actor following the specified one accepts
+   * batch tokens.
+   *
+   * @param actor	the actor whose successor to check
+   * @return		true if the successor accepts batches, false if not
+   * 			or no successor
+   */
+  protected boolean isNextAcceptingBatches(Actor actor) {
+    Actor	next;
+    int		i;
+
+    i = m_ControlActor.indexOf(actor.getName());
+    if (i == -1)
+      return false;
+    for (i = i + 1; i < m_ControlActor.size(); i++) {
+      next = m_ControlActor.get(i);
+      if (next.getSkip())
+	continue;
+      return (next instanceof BatchConsumer) && ((BatchConsumer) next).acceptsBatches();
+    }
+
+    return false;
+  }
+
+  /**
+   * Splits the batch token into individual tokens, unless the next actor
+   * accepts batches.
+   *
+   * @param actor	the actor that generated the token
+   * @param token	the token to process
+   * @return		the token to forward, null if an empty batch
+   */
+  protected Token unbatch(Actor actor, BatchToken token) {
+    Deque<Token>	tokens;
+
+    if (isNextAcceptingBatches(actor))
+      return token;
+
+    tokens = new ArrayDeque<>();
+    for (Token t: token.toTokens())
+      tokens.add(t);
+    if (getLoggingLevel().isAtLeast(Level.FINE))
+      getLogger().fine("Unbatched " + tokens.size() + " token(s): " + actor.getFullName());
+    if (tokens.size() > 1)
+      getUnbatched().put(actor.getName(), tokens);
+
+    return tokens.poll();
+  }
+
   /**
    * Checks whether the actor has already stopped. If so, outputs a message
    * on the commandline and returns the error message.
@@ -241,6 +354,9 @@ public class SequentialDirector
     if (isFlushing())
       return false;
 
+    if (hasUnbatched(actor))
+      return true;
+
     msgFull = null;
 
     try {
@@ -273,6 +389,9 @@ public class SequentialDirector
     if (isFlushing())
       return null;
 
+    if (hasUnbatched(actor))
+      return nextUnbatched(actor);
+
     msgFull = null;
 
     try {
@@ -287,6 +406,9 @@ public class SequentialDirector
 	actor.getFlowExecutionListeningSupporter().getFlowExecutionListener().postOutput(actor, result);
       if (getLoggingLevel().isAtLeast(Level.FINEST))
 	getLogger().finest("Size after 'output()': " + actor.sizeOf() + " [" + actor.getFullName() + "]");
+
+      if (result instanceof BatchToken)
+	result = unbatch(actor, (BatchToken) result);
     }
     catch (Throwable t) {
       msgFull = handleException(actor, "Calling the 'output()' method generated error: ", t);
@@ -382,6 +504,22 @@ public class SequentialDirector
    * @return		null if everything ok, otherwise the error message
    */
   protected String doExecuteActors(Actor startActor) {
+    getFinalOutput().clear();
+    return doExecuteActors(startActor, -1, null);
+  }
+
+  /**
+   * Peforms the execution of the actors, starting with the specified actor
+   * and ending with the actor at the specified index.
+   *
+   * @param startActor	the actor to start with
+   * @param lastIndex	the index of the last actor to execute, -1 for last active one
+   * @param output	for receiving the tokens generated by the last actor,
+   * 			null for recording them as final output (if enabled)
+   * @return		null if everything ok, otherwise the error message
+   * @see		#isFinalOutputRecorded()
+   */
+  protected String doExecuteActors(Actor startActor, int lastIndex, Consumer<Token> output) {
     String		result;
     boolean		finished;
     int			startIndex;
@@ -396,7 +534,6 @@ public class SequentialDirector
     result           = null;
     notFinishedActor = startActor;
     pendingActors    = new Stack<>();
-    getFinalOutput().clear();
     do {
       if (getLoggingLevel().isAtLeast(Level.INFO))
 	getLogger().info("--> iteration start");
@@ -423,8 +560,8 @@ public class SequentialDirector
       // iterate over actors
       curr       = null;
       token      = null;
-      lastActive = -1;
-      if (m_ControlActor.active() > 0)
+      lastActive = lastIndex;
+      if ((lastActive == -1) && (m_ControlActor.active() > 0))
 	lastActive = m_ControlActor.lastActive().index();
       indices = activeIndices(startIndex, lastActive);
       for (int i: indices) {
@@ -527,9 +664,11 @@ public class SequentialDirector
         if (!hasControlActor())
           continue;
 
-	// token from last actor generated? -> store
+	// token from last actor generated? -> store/forward
 	if ((i == lastActive) && (token != null)) {
-	  if (isFinalOutputRecorded() && !isFlushing())
+	  if (output != null)
+	    output.accept(token);
+	  else if (isFinalOutputRecorded() && !isFlushing())
 	    getFinalOutput().add(token);
 	}
 
@@ -569,6 +708,7 @@ public class SequentialDirector
     m_Finished = false;
     m_Executed = true;
     m_Flushing = false;
+    getUnbatched().clear();
 
     if (m_ControlActor.getActorHandlerInfo().canContainStandalones() && !isFlushing()) {
       try {
@@ -655,6 +795,8 @@ public class SequentialDirector
 
     if (m_FinalOutput != null)
       m_FinalOutput.clear();
+    if (m_Unbatched != null)
+      m_Unbatched.clear();
   }
 }
 
@@ -15,12 +15,12 @@
 
 /*
  * Storage.java
- * Copyright (C) 2011-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.control;
 
 import adams.core.CloneHandler;
-import adams.core.LRUCache;
+import adams.core.WeightedCache;
 import adams.core.base.BaseRegExp;
 import adams.core.classmanager.ClassManager;
 import adams.event.StorageChangeEvent;
@@ -36,9 +36,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Used for temporary storage during flow execution.
+ * <br><br>
+ * The storage is thread-safe: reads do not acquire any locks and writes only
+ * lock the affected part of the underlying hash table (and the affected named
+ * LRU cache), i.e., actors in concurrently executed branches do not block
+ * each other. Read-modify-write operations, like incrementing a counter or
+ * appending to a collection, must use the atomic {@link #compute(StorageName, BiFunction)},
+ * {@link #computeIfAbsent(StorageName, Function)} and
+ * {@link #computeIfPresent(StorageName, BiFunction)} methods rather than
+ * a {@link #get(StorageName)} followed by a {@link #put(StorageName, Object)}.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  */
@@ -56,11 +69,18 @@ public class Storage
 
   private static final long serialVersionUID = 2110403856127326735L;
 
+  /**
+   * Placeholder for null values, which the underlying map cannot store.
+   */
+  protected enum Null {
+    VALUE
+  }
+
   /** for storing the data. */
-  protected HashMap<String,Object> m_Data;
+  protected ConcurrentHashMap<String,Object> m_Data;
 
-  /** name LRU caches. */
-  protected HashMap<String,LRUCache<String,Object>> m_Caches;
+  /** named caches. */
+  protected ConcurrentHashMap<String,WeightedCache<String,Object>> m_Caches;
 
   /** the listeners. */
   protected transient Set<StorageChangeListener> m_ChangeListeners;
@@ -69,16 +89,38 @@ public class Storage
    * Initializes the storage.
    */
   public Storage() {
-    m_Data   = new HashMap<>();
-    m_Caches = new HashMap<>();
+    m_Data   = new ConcurrentHashMap<>();
+    m_Caches = new ConcurrentHashMap<>();
     initChangeListeners();
   }
 
+  /**
+   * Replaces null with the placeholder.
+   *
+   * @param value	the value to mask
+   * @return		the value or the placeholder
+   */
+  protected static Object mask(Object value) {
+    return (value == null) ? Null.VALUE : value;
+  }
+
+  /**
+   * Replaces the placeholder with null.
+   *
+   * @param value	the value to unmask
+   * @return		the value or null
+   */
+  protected static Object unmask(Object value) {
+    return (value == Null.VALUE) ? null : value;
+  }
+
   /**
    * Empties the storage. Also removes all the LRU caches.
    */
-  public synchronized void clear() {
+  public void clear() {
     m_Data.clear();
+    for (WeightedCache<String,Object> cache: m_Caches.values())
+      cache.clear();
     m_Caches.clear();
   }
 
@@ -87,7 +129,7 @@ public class Storage
    *
    * @return 		the names of the LRU caches
    */
-  public synchronized Iterator<String> caches() {
+  public Iterator<String> caches() {
     List<String>	result;
 
     result = new ArrayList<>(m_Caches.keySet());
@@ -102,8 +144,33 @@ public class Storage
    * @param name	the name of the cache
    * @param size	the size of the cache
    */
-  public synchronized void addCache(String name, int size) {
-    m_Caches.put(name, new LRUCache<>(size));
+  public void addCache(String name, int size) {
+    addCache(name, new WeightedCache<>(size));
+  }
+
+  /**
+   * Adds the cache under the name. Replaces (and clears) any existing cache
+   * with the same name.
+   *
+   * @param name	the name of the cache
+   * @param cache	the cache to add
+   */
+  public void addCache(String name, WeightedCache<String,Object> cache) {
+    WeightedCache<String,Object>	old;
+
+    old = m_Caches.put(name, cache);
+    if ((old != null) && (old != cache))
+      old.clear();
+  }
+
+  /**
+   * Returns the cache with the specified name.
+   *
+   * @param name	the name of the cache
+   * @return		the cache, null if not available
+   */
+  public WeightedCache<String,Object> getCache(String name) {
+    return m_Caches.get(name);
   }
 
   /**
@@ -113,7 +180,7 @@ public class Storage
    * @param value	the value to store
    * @return		any previous value stored under the same name
    */
-  public synchronized Object put(StorageName name, Object value) {
+  public Object put(StorageName name, Object value) {
     return put(name, value, true);
   }
 
@@ -125,10 +192,10 @@ public class Storage
    * @param notify 	whether to notify the listeners
    * @return		any previous value stored under the same name
    */
-  public synchronized Object put(StorageName name, Object value, boolean notify) {
+  public Object put(StorageName name, Object value, boolean notify) {
     Object	result;
 
-    result = m_Data.put(name.getValue(), value);
+    result = unmask(m_Data.put(name.getValue(), mask(value)));
     if (notify)
       notifyChangeListeners(new StorageChangeEvent(this, (result != null) ? Type.MODIFIED : Type.ADDED, name.getValue()));
 
@@ -143,20 +210,119 @@ public class Storage
    * @param name	the name to store the value under
    * @param value	the value to store
    */
-  public synchronized void put(String cache, StorageName name, Object value) {
-    if (m_Caches.containsKey(cache)) {
-      m_Caches.get(cache).put(name.getValue(), value);
+  public void put(String cache, StorageName name, Object value) {
+    WeightedCache<String,Object>	lru;
+
+    lru = m_Caches.get(cache);
+    if (lru != null) {
+      lru.put(name.getValue(), value);
       notifyChangeListeners(new StorageChangeEvent(this, Type.ADDED, name.getValue(), cache));
     }
   }
 
+  /**
+   * Atomically computes the value for the specified name, using the currently
+   * stored value (null if not present). Returning null from the function
+   * removes the value. The function must not access the storage itself.
+   * Notifies the listeners.
+   *
+   * @param name	the name of the value to compute
+   * @param func	the function to compute the new value with (name, current value)
+   * @return		the new value, null if none stored
+   */
+  public Object compute(StorageName name, BiFunction<String,Object,Object> func) {
+    return compute(name, func, true);
+  }
+
+  /**
+   * Atomically computes the value for the specified name, using the currently
+   * stored value (null if not present). Returning null from the function
+   * removes the value. The function must not access the storage itself.
+   *
+   * @param name	the name of the value to compute
+   * @param func	the function to compute the new value with (name, current value)
+   * @param notify 	whether to notify the listeners
+   * @return		the new value, null if none stored
+   */
+  public Object compute(StorageName name, final BiFunction<String,Object,Object> func, boolean notify) {
+    Object		result;
+    final boolean[]	present;
+
+    present = new boolean[1];
+    result  = m_Data.compute(name.getValue(), (key, current) -> {
+      present[0] = (current != null);
+      return func.apply(key, unmask(current));
+    });
+
+    if (notify) {
+      if (result != null)
+	notifyChangeListeners(new StorageChangeEvent(this, present[0] ? Type.MODIFIED : Type.ADDED, name.getValue()));
+      else if (present[0])
+	notifyChangeListeners(new StorageChangeEvent(this, Type.REMOVED, name.getValue()));
+    }
+
+    return unmask(result);
+  }
+
+  /**
+   * Atomically computes and stores a value for the specified name, if no value
+   * is stored yet. The function must not access the storage itself.
+   * Notifies the listeners if a value was added.
+   *
+   * @param name	the name of the value to compute
+   * @param func	the function to compute the value with (name), null
+   * 			results are not stored
+   * @return		the current (existing or computed) value, null if none stored
+   */
+  public Object computeIfAbsent(StorageName name, final Function<String,Object> func) {
+    Object		result;
+    final boolean[]	added;
+
+    added  = new boolean[1];
+    result = m_Data.computeIfAbsent(name.getValue(), (key) -> {
+      Object value = func.apply(key);
+      added[0] = (value != null);
+      return value;
+    });
+
+    if (added[0])
+      notifyChangeListeners(new StorageChangeEvent(this, Type.ADDED, name.getValue()));
+
+    return unmask(result);
+  }
+
+  /**
+   * Atomically updates the value stored under the specified name, if present.
+   * Returning null from the function removes the value. The function must not
+   * access the storage itself. Notifies the listeners.
+   *
+   * @param name	the name of the value to update
+   * @param func	the function to compute the new value with (name, current value)
+   * @return		the new value, null if none stored
+   */
+  public Object computeIfPresent(StorageName name, final BiFunction<String,Object,Object> func) {
+    Object		result;
+    final boolean[]	present;
+
+    present = new boolean[1];
+    result  = m_Data.computeIfPresent(name.getValue(), (key, current) -> {
+      present[0] = true;
+      return func.apply(key, unmask(current));
+    });
+
+    if (present[0])
+      notifyChangeListeners(new StorageChangeEvent(this, (result != null) ? Type.MODIFIED : Type.REMOVED, name.getValue()));
+
+    return unmask(result);
+  }
+
   /**
    * Checks whether a value is stored under the given name.
    *
    * @param name	the name to check
    * @return		true if a value is stored under the name
    */
-  public synchronized boolean has(StorageName name) {
+  public boolean has(StorageName name) {
     return m_Data.containsKey(name.getValue());
   }
 
@@ -168,9 +334,11 @@ public class Storage
    * @param name	the name to check
    * @return		true if a value is stored under the name
    */
-  public synchronized boolean has(String cache, StorageName name) {
-    return (m_Caches.containsKey(cache))
-      && m_Caches.get(cache).contains(name.getValue());
+  public boolean has(String cache, StorageName name) {
+    WeightedCache<String,Object>	lru;
+
+    lru = m_Caches.get(cache);
+    return (lru != null) && lru.contains(name.getValue());
   }
 
   /**
@@ -179,8 +347,8 @@ public class Storage
    * @param name	the name of the value to retrieve
    * @return		the associated value, or null if not found
    */
-  public synchronized Object get(StorageName name) {
-    return m_Data.get(name.getValue());
+  public Object get(StorageName name) {
+    return unmask(m_Data.get(name.getValue()));
   }
 
   /**
@@ -190,9 +358,12 @@ public class Storage
    * @param name	the name of the value to retrieve
    * @return		the associated value, or null if not found
    */
-  public synchronized Object get(String cache, StorageName name) {
-    if (m_Caches.containsKey(cache))
-      return m_Caches.get(cache).get(name.getValue());
+  public Object get(String cache, StorageName name) {
+    WeightedCache<String,Object>	lru;
+
+    lru = m_Caches.get(cache);
+    if (lru != null)
+      return lru.get(name.getValue());
     else
       return null;
   }
@@ -203,14 +374,14 @@ public class Storage
    * @param nameRegExp	the regexp for the names must match
    * @return		the matching names with their associated values
    */
-  public synchronized Map<String,Object> get(BaseRegExp nameRegExp) {
+  public Map<String,Object> get(BaseRegExp nameRegExp) {
     Map<String,Object> 	result;
 
     result = new HashMap<>();
 
-    for (String name: m_Data.keySet()) {
-      if (nameRegExp.isMatch(name))
-        result.put(name, m_Data.get(name));
+    for (Map.Entry<String,Object> entry: m_Data.entrySet()) {
+      if (nameRegExp.isMatch(entry.getKey()))
+        result.put(entry.getKey(), unmask(entry.getValue()));
     }
 
     return result;
@@ -223,17 +394,22 @@ public class Storage
    * @param nameRegExp	the regexp that the names must match
    * @return		the matching names with their associated values
    */
-  public synchronized Map<String,Object> get(String cache, BaseRegExp nameRegExp) {
+  public Map<String,Object> get(String cache, BaseRegExp nameRegExp) {
     Map<String,Object> 		result;
-    LRUCache<String,Object>	lru;
+    WeightedCache<String,Object>	lru;
+    Object				value;
 
     result = new HashMap<>();
 
-    if (m_Caches.containsKey(cache)) {
-      lru = m_Caches.get(cache);
+    lru = m_Caches.get(cache);
+    if (lru != null) {
       for (String name: lru.keySet()) {
-	if (nameRegExp.isMatch(name))
-	  result.put(name, lru.get(name));
+	if (!nameRegExp.isMatch(name))
+	  continue;
+	// single lookup; contains() (no statistics) only for null values
+	value = lru.get(name);
+	if ((value != null) || lru.contains(name))
+	  result.put(name, value);
       }
     }
 
@@ -246,7 +422,7 @@ public class Storage
    * @param name	the name of the value to remove
    * @return		the previously associated value, or null if none present
    */
-  public synchronized Object remove(StorageName name) {
+  public Object remove(StorageName name) {
     Object	result;
 
     result = m_Data.remove(name.getValue());
@@ -254,6 +430,8 @@ public class Storage
     if (result != null)
       notifyChangeListeners(new StorageChangeEvent(this, Type.REMOVED, name.getValue()));
 
+    result = unmask(result);
+
     return result;
   }
 
@@ -263,7 +441,7 @@ public class Storage
    * @param regexp	the regular expression to match against
    * @return		true if at least one removed
    */
-  public synchronized boolean remove(BaseRegExp regexp) {
+  public boolean remove(BaseRegExp regexp) {
     boolean		result;
     List<StorageName>	keys;
 
@@ -287,13 +465,15 @@ public class Storage
    * @param name	the name of the value to remove
    * @return		the previously associated value, or null if none present
    */
-  public synchronized Object remove(String cache, StorageName name) {
-    Object	result;
+  public Object remove(String cache, StorageName name) {
+    Object			result;
+    WeightedCache<String,Object>	lru;
 
     result = null;
 
-    if (m_Caches.containsKey(cache))
-      result = m_Caches.get(cache).remove(name.getValue());
+    lru = m_Caches.get(cache);
+    if (lru != null)
+      result = lru.remove(name.getValue());
 
     if (result != null)
       notifyChangeListeners(new StorageChangeEvent(this, Type.REMOVED, name.getValue(), cache));
@@ -308,7 +488,7 @@ public class Storage
    * @param regexp	the regular expression to match against
    * @return		true if at least one removed
    */
-  public synchronized boolean remove(String cache, BaseRegExp regexp) {
+  public boolean remove(String cache, BaseRegExp regexp) {
     boolean		result;
     List<StorageName>	keys;
 
@@ -355,7 +535,7 @@ public class Storage
    *
    * @return		the number of stored values
    */
-  public synchronized int size() {
+  public int size() {
     return m_Data.size();
   }
 
@@ -365,9 +545,12 @@ public class Storage
    * @param cache	the cache to get the size for
    * @return		the number of stored values, 0 if cache not available
    */
-  public synchronized int size(String cache) {
-    if (m_Caches.containsKey(cache))
-      return m_Caches.get(cache).sizeUsed();
+  public int size(String cache) {
+    WeightedCache<String,Object>	lru;
+
+    lru = m_Caches.get(cache);
+    if (lru != null)
+      return lru.sizeUsed();
     else
       return 0;
   }
@@ -377,7 +560,7 @@ public class Storage
    *
    * @return		the set
    */
-  public synchronized Set<StorageName> keySet() {
+  public Set<StorageName> keySet() {
     HashSet<StorageName>	result;
     Set<String>			set;
 
@@ -395,15 +578,15 @@ public class Storage
    * @param cache	the cache to query
    * @return		the set, emoty set if cache not available
    */
-  public synchronized Set<StorageName> keySet(String cache) {
+  public Set<StorageName> keySet(String cache) {
     HashSet<StorageName>	result;
-    Set<String>			set;
+    WeightedCache<String,Object>	lru;
 
     result = new HashSet<>();
 
-    if (m_Caches.containsKey(cache)) {
-      set = m_Caches.get(cache).keySet();
-      for (String key: set)
+    lru = m_Caches.get(cache);
+    if (lru != null) {
+      for (String key: lru.keySet())
 	result.add(new StorageName(key));
     }
 
@@ -415,7 +598,7 @@ public class Storage
    *
    * @return		the clone
    */
-  public synchronized Storage getClone() {
+  public Storage getClone() {
     return getClone(null);
   }
 
@@ -426,18 +609,22 @@ public class Storage
    * 			must match (not applied to caches!), null to ignore
    * @return		the clone
    */
-  public synchronized Storage getClone(BaseRegExp filter) {
+  public Storage getClone(BaseRegExp filter) {
     Storage 			result;
-    LRUCache<String,Object>	cache;
+    WeightedCache<String,Object>	cache;
 
     result = new Storage();
-    for (String key: m_Caches.keySet()) {
-      cache = (LRUCache<String,Object>) ClassManager.getSingleton().deepCopy(m_Caches.get(key));
-      result.m_Caches.put(key, cache);
+    for (Map.Entry<String,WeightedCache<String,Object>> entry: m_Caches.entrySet()) {
+      cache = entry.getValue().getClone(true);
+      result.m_Caches.put(entry.getKey(), cache);
     }
-    for (String name: m_Data.keySet()) {
-      if ((filter == null) || ((filter != null) && filter.isMatch(name)))
-	result.m_Data.put(name, ClassManager.getSingleton().deepCopy(m_Data.get(name)));
+    for (Map.Entry<String,Object> entry: m_Data.entrySet()) {
+      if ((filter == null) || filter.isMatch(entry.getKey())) {
+	if (entry.getValue() == Null.VALUE)
+	  result.m_Data.put(entry.getKey(), Null.VALUE);
+	else
+	  result.m_Data.put(entry.getKey(), mask(ClassManager.getSingleton().deepCopy(entry.getValue())));
+      }
     }
 
     return result;
@@ -448,16 +635,16 @@ public class Storage
    *
    * @return		the shallow copy
    */
-  public synchronized Storage getShallowCopy() {
+  public Storage getShallowCopy() {
     Storage 			result;
-    LRUCache<String,Object>	cache;
+    WeightedCache<String,Object>	cache;
 
     result = new Storage();
-    for (String key: m_Caches.keySet()) {
-      cache = m_Caches.get(key).getClone();
-      result.m_Caches.put(key, cache);
+    for (Map.Entry<String,WeightedCache<String,Object>> entry: m_Caches.entrySet()) {
+      cache = entry.getValue().getClone();
+      result.m_Caches.put(entry.getKey(), cache);
     }
-    result.m_Data = (HashMap<String,Object>) m_Data.clone();
+    result.m_Data = new ConcurrentHashMap<>(m_Data);
 
     return result;
   }
@@ -468,21 +655,26 @@ public class Storage
    * @return		the string representation
    */
   @Override
-  public synchronized String toString() {
+  public String toString() {
     StringBuilder	result;
+    Map<String,Object>	regular;
     Iterator<String>	names;
     String		name;
 
+    regular = new HashMap<>();
+    for (Map.Entry<String,Object> entry: m_Data.entrySet())
+      regular.put(entry.getKey(), unmask(entry.getValue()));
+
     result = new StringBuilder();
     result.append("Regular:\n");
-    result.append(m_Data.toString());
+    result.append(regular.toString());
 
     names = caches();
     while (names.hasNext()) {
       name = names.next();
       result.append("\n");
       result.append("Cache '" + name + "':\n");
-      result.append(m_Caches.get(name).toString());
+      result.append(m_Caches.get(name));
     }
 
     return result.toString();
@@ -519,7 +711,7 @@ public class Storage
    * @param s		the string to process
    * @return		the processed string
    */
-  public synchronized String expand(String s) {
+  public String expand(String s) {
     return expand(s, s.contains(START + START));
   }
 
@@ -570,8 +762,12 @@ public class Storage
    * Initializes the change listeners.
    */
   protected void initChangeListeners() {
-    if (m_ChangeListeners == null)
-      m_ChangeListeners = new HashSet<>();
+    if (m_ChangeListeners == null) {
+      synchronized(this) {
+	if (m_ChangeListeners == null)
+	  m_ChangeListeners = new CopyOnWriteArraySet<>();
+      }
+    }
   }
 
   /**
@@ -15,12 +15,15 @@
 
 /**
  * StorageUpdater.java
- * Copyright (C) 2013 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.control;
 
 /**
  * Interface for classes that update storage items.
+ * Updates that depend on the currently stored value (e.g., incrementing or
+ * appending) should use the atomic compute methods of {@link Storage}, as
+ * the storage can be accessed by concurrently executing actors.
  * 
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
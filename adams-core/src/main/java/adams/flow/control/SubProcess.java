@@ -78,6 +78,18 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: 
  * </pre>
  * 
+ * <pre>-pipeline-stage &lt;adams.core.base.BaseString&gt; [-pipeline-stage ...] (property: pipelineStages)
+ * &nbsp;&nbsp;&nbsp;The names of the actors that start a new pipeline stage, running in its
+ * &nbsp;&nbsp;&nbsp;own thread; uses sequential execution if none specified.
+ * &nbsp;&nbsp;&nbsp;default: 
+ * </pre>
+ * 
+ * <pre>-pipeline-queue-size &lt;int&gt; (property: pipelineQueueSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of tokens that can be queued between pipeline stages.
+ * &nbsp;&nbsp;&nbsp;default: 10
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -147,6 +159,48 @@ public class SubProcess
     }
   }
 
+  /**
+   * A specialized pipelined director for the SubProcess actor.
+   *
+   * @author  fracpete (fracpete at waikato dot ac dot nz)
+   */
+  public static class PipelinedSubProcessDirector
+    extends PipelinedDirector {
+
+    private static final long serialVersionUID = -5391306264585317413L;
+
+    /**
+     * Returns whether the final output of actors is recorded.
+     *
+     * @return		true
+     */
+    @Override
+    protected boolean isFinalOutputRecorded() {
+      return true;
+    }
+
+    /**
+     * Peforms the execution of the actors.
+     *
+     * @param startActor	the actor to start with
+     * @return		null if everything ok, otherwise the error message
+     */
+    @Override
+    protected String doExecuteActors(Actor startActor) {
+      String		result;
+      int		i;
+
+      result = super.doExecuteActors(startActor);
+
+      if (result == null) {
+	for (i = 0; i < getFinalOutput().size(); i++)
+	  ((SubProcess) getControlActor()).addOutputToken(getFinalOutput().get(i));
+      }
+
+      return result;
+    }
+  }
+
   /** for storing generated output tokens. */
   protected transient List<Token> m_OutputTokens;
 
@@ -242,7 +296,16 @@ public class SubProcess
    */
   @Override
   protected SequentialDirector newDirector() {
-    return new SubProcessDirector();
+    PipelinedSubProcessDirector	result;
+
+    if (m_PipelineStages.length == 0)
+      return new SubProcessDirector();
+
+    result = new PipelinedSubProcessDirector();
+    result.setStages(m_PipelineStages);
+    result.setQueueSize(m_PipelineQueueSize);
+
+    return result;
   }
 
   /**
@@ -15,18 +15,25 @@
 
 /*
  * AbstractCallableActor.java
- * Copyright (C) 2009-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.core;
 
 import adams.core.QuickInfoHelper;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Hashtable;
 
 /**
  * Abstract ancestor for all actors that access callable actors.
+ * <br><br>
+ * Since the output of the callable actor gets obtained directly and not via
+ * a director, {@link BatchToken} output gets split into individual tokens
+ * (see {@link #callableOutput()}).
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
@@ -62,6 +69,9 @@ public abstract class AbstractCallableActor
   /** for storing any errors during {@link #findCallableActor()}. */
   protected String m_FindCallableActorError;
 
+  /** the tokens of an unbatched batch token still to output. */
+  protected transient Deque<Token> m_Unbatched;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -88,6 +98,7 @@ public abstract class AbstractCallableActor
     m_CallableActor          = null;
     m_Configured             = false;
     m_FindCallableActorError = null;
+    m_Unbatched              = null;
   }
 
   /**
@@ -383,6 +394,41 @@ public abstract class AbstractCallableActor
     super.stopExecution();
   }
 
+  /**
+   * Returns the next token from the callable actor. {@link BatchToken}
+   * output gets split into individual tokens.
+   *
+   * @return		the token, null if none available (or empty batch)
+   */
+  protected Token callableOutput() {
+    Token	result;
+
+    if ((m_Unbatched != null) && !m_Unbatched.isEmpty())
+      return m_Unbatched.poll();
+
+    result = ((OutputProducer) m_CallableActor).output();
+    if (result instanceof BatchToken) {
+      m_Unbatched = new ArrayDeque<>(Arrays.asList(((BatchToken) result).toTokens()));
+      if (isLoggingEnabled())
+	getLogger().fine("Unbatched " + m_Unbatched.size() + " token(s)");
+      result = m_Unbatched.poll();
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether there is pending output from the callable actor,
+   * including the tokens of an unbatched batch token.
+   *
+   * @return		true if there is pending output
+   */
+  protected boolean hasPendingCallableOutput() {
+    if ((m_Unbatched != null) && !m_Unbatched.isEmpty())
+      return true;
+    return (m_CallableActor != null) && ((OutputProducer) m_CallableActor).hasPendingOutput();
+  }
+
   /**
    * Cleans up after the execution has finished.
    */
@@ -390,5 +436,6 @@ public abstract class AbstractCallableActor
   public void cleanUp() {
     super.cleanUp();
     m_CallableActor = null;
+    m_Unbatched     = null;
   }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BatchConsumer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+/**
+ * Interface for actors that can process a batch of payloads in a single
+ * input/execute cycle, i.e., that can handle {@link BatchToken} input.
+ * The payloads of the batch must be of the same type as accepted by
+ * {@link #accepts()}. Actors that produce output should forward their
+ * results as {@link BatchToken} as well.
+ * <br><br>
+ * The director unbatches the tokens for actors that do not implement this
+ * interface or that do not accept batches in their current configuration.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see BatchToken
+ */
+public interface BatchConsumer
+  extends InputConsumer {
+
+  /**
+   * Returns whether the actor accepts {@link BatchToken} input in its
+   * current configuration.
+   *
+   * @return		true if batches are accepted
+   */
+  public boolean acceptsBatches();
+}
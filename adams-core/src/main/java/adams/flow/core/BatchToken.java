@@ -0,0 +1,127 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BatchToken.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.core.ObjectCopyHelper;
+
+import java.util.List;
+
+/**
+ * Token that carries several payloads at once, to reduce the overhead of
+ * passing many small objects through the flow one by one. The payload of
+ * the token is an array of the individual payloads.
+ * <br><br>
+ * Only actors implementing {@link BatchConsumer} that accept batches get
+ * presented with batch tokens, the director unbatches them for all other
+ * actors. Actors that obtain the output of callable actors directly
+ * (see {@link AbstractCallableActor}) unbatch them as well.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @see BatchConsumer
+ */
+public class BatchToken
+  extends Token {
+
+  private static final long serialVersionUID = -4408166530947326548L;
+
+  /**
+   * Initializes the token with no payloads.
+   */
+  public BatchToken() {
+    this(new Object[0]);
+  }
+
+  /**
+   * Initializes the token.
+   *
+   * @param payloads	the payloads for this token
+   */
+  public BatchToken(Object[] payloads) {
+    super(payloads);
+  }
+
+  /**
+   * Initializes the token.
+   *
+   * @param payloads	the payloads for this token
+   */
+  public BatchToken(List payloads) {
+    this(payloads.toArray());
+  }
+
+  /**
+   * Sets the payloads, must be an array.
+   *
+   * @param value	the payloads
+   */
+  @Override
+  public void setPayload(Object value) {
+    if (!(value instanceof Object[]))
+      throw new IllegalArgumentException("Payload of batch token must be an object array!");
+    super.setPayload(value);
+  }
+
+  /**
+   * Returns the payloads.
+   *
+   * @return		the payloads
+   */
+  public Object[] getPayloads() {
+    return (Object[]) m_Payload;
+  }
+
+  /**
+   * Returns the number of payloads.
+   *
+   * @return		the number of payloads
+   */
+  public int size() {
+    return getPayloads().length;
+  }
+
+  /**
+   * Returns the payloads wrapped in individual tokens.
+   *
+   * @return		the tokens
+   */
+  public Token[] toTokens() {
+    Token[]	result;
+    Object[]	payloads;
+    int		i;
+
+    payloads = getPayloads();
+    result   = new Token[payloads.length];
+    for (i = 0; i < payloads.length; i++)
+      result[i] = new Token(payloads[i]);
+
+    return result;
+  }
+
+  /**
+   * Returns a clone of itself.
+   *
+   * @return		the clone
+   */
+  @Override
+  public BatchToken getClone() {
+    return new BatchToken((Object[]) ObjectCopyHelper.copyObject(m_Payload));
+  }
+}
@@ -0,0 +1,335 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FlowCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.core.MessageCollection;
+import adams.core.SerializationHelper;
+import adams.core.io.MessageDigestType;
+import adams.core.io.filechanged.FlowFileDigest;
+import adams.core.logging.Logger;
+import adams.core.logging.LoggingHelper;
+import adams.env.Environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache for flows that have been loaded from disk. The actors get stored in
+ * serialized form, i.e., with classes and option values already resolved,
+ * which avoids parsing the flow file and setting the options via reflection
+ * when the flow gets loaded again.
+ * <br>
+ * The cache key combines the digest of the flow (comments are ignored, see
+ * {@link FlowFileDigest}) and a fingerprint of the class path, to avoid
+ * using stale entries after the code has been updated. For directories in
+ * the class path, the fingerprint covers all the files below them. Entries
+ * that cannot be deserialized get removed.
+ * <br>
+ * The number of cached flows is limited, the least recently used ones get
+ * removed when storing a flow.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FlowCache {
+
+  /** the directory in the home directory for the cache. */
+  public final static String DIR = "flowcache";
+
+  /** the extension for the cache files. */
+  public final static String EXTENSION = ".ser";
+
+  /** the default maximum number of cached flows. */
+  public final static int DEFAULT_MAX_ENTRIES = 100;
+
+  /** the fingerprint of the class path. */
+  protected static String m_ClassPathFingerprint;
+
+  /** the cache directory to use instead of the one in the home directory, null for default. */
+  protected static File m_CacheDir;
+
+  /** the logger in use. */
+  protected static Logger LOGGER = LoggingHelper.getLogger(FlowCache.class);
+
+  /**
+   * Returns the directory used for storing the cached flows.
+   *
+   * @return		the directory
+   */
+  public static File getCacheDir() {
+    if (m_CacheDir != null)
+      return m_CacheDir;
+    return new File(Environment.getInstance().getHome() + File.separator + DIR);
+  }
+
+  /**
+   * Sets the directory to use for storing the cached flows instead of the
+   * one in the home directory (eg for testing).
+   *
+   * @param value	the directory, null for the default one
+   */
+  public static void setCacheDir(File value) {
+    m_CacheDir = value;
+  }
+
+  /**
+   * Appends name, size and timestamp of the file to the info. For
+   * directories, all the files below it get appended (in sorted order),
+   * since the size and timestamp of a directory don't change when the files
+   * in it get updated.
+   *
+   * @param file	the file or directory to append
+   * @param info	the info to append to
+   */
+  protected static void fingerprint(File file, StringBuilder info) {
+    List<Path>	files;
+
+    info.append(file.getPath()).append("|").append(file.length()).append("|").append(file.lastModified()).append("\n");
+    if (!file.isDirectory())
+      return;
+
+    try (Stream<Path> stream = Files.walk(file.toPath())) {
+      files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Failed to list class path directory: " + file, e);
+      info.append("error|").append(System.nanoTime()).append("\n");
+      return;
+    }
+    for (Path path: files)
+      info.append(path).append("|").append(path.toFile().length()).append("|").append(path.toFile().lastModified()).append("\n");
+  }
+
+  /**
+   * Computes the fingerprint of the class path, based on name, size and
+   * timestamp of its entries (and of the files below directory entries).
+   *
+   * @param classpath	the class path to compute the fingerprint for
+   * @return		the fingerprint
+   */
+  protected static String fingerprint(String classpath) {
+    StringBuilder	info;
+    String		result;
+
+    info = new StringBuilder();
+    for (String entry: classpath.split(File.pathSeparator))
+      fingerprint(new File(entry), info);
+    result = MessageDigestType.SHA256.digest(info.toString(), new MessageCollection());
+    if (result == null)
+      result = "" + info.toString().hashCode();
+
+    return result;
+  }
+
+  /**
+   * Returns the fingerprint of the class path.
+   *
+   * @return		the fingerprint
+   * @see		#fingerprint(String)
+   */
+  protected static synchronized String getClassPathFingerprint() {
+    if (m_ClassPathFingerprint == null)
+      m_ClassPathFingerprint = fingerprint(System.getProperty("java.class.path", ""));
+
+    return m_ClassPathFingerprint;
+  }
+
+  /**
+   * Generates the cache key for the flow file.
+   *
+   * @param file	the flow file
+   * @param errors	for collecting errors
+   * @return		the key, null if failed to generate
+   */
+  public static String key(File file, MessageCollection errors) {
+    FlowFileDigest	digest;
+    String		msg;
+
+    digest = new FlowFileDigest();
+    msg    = digest.initialize(file);
+    if (msg != null) {
+      errors.add(msg);
+      return null;
+    }
+
+    return MessageDigestType.SHA256.digest(digest.getDigest() + "|" + getClassPathFingerprint(), errors);
+  }
+
+  /**
+   * Returns the cache file for the key.
+   *
+   * @param key		the cache key
+   * @return		the file
+   */
+  protected static File cacheFile(String key) {
+    return new File(getCacheDir(), key + EXTENSION);
+  }
+
+  /**
+   * Returns the cached actor for the key.
+   *
+   * @param key		the cache key
+   * @return		the actor, null if not cached
+   */
+  public static Actor get(String key) {
+    Actor	result;
+    File	file;
+
+    file = cacheFile(key);
+    if (!file.exists())
+      return null;
+
+    try {
+      result = (Actor) SerializationHelper.read(file.getAbsolutePath());
+      // for evicting the least recently used flows
+      file.setLastModified(System.currentTimeMillis());
+      return result;
+    }
+    catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Failed to deserialize cached flow, removing: " + file, e);
+      if (!file.delete())
+	LOGGER.warning("Failed to remove cached flow: " + file);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the actor under the key in the cache, keeping at most
+   * {@link #DEFAULT_MAX_ENTRIES} flows. Must be called before the actor gets
+   * set up.
+   *
+   * @param key		the cache key
+   * @param actor	the actor to store
+   * @return		null if successful, otherwise error message
+   */
+  public static String put(String key, Actor actor) {
+    return put(key, actor, DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Stores the actor under the key in the cache. Must be called before the
+   * actor gets set up. Removes the least recently used flows if the cache
+   * holds more than the maximum number of flows afterwards.
+   *
+   * @param key		the cache key
+   * @param actor	the actor to store
+   * @param maxEntries	the maximum number of flows to keep
+   * @return		null if successful, otherwise error message
+   */
+  public static String put(String key, Actor actor, int maxEntries) {
+    File	dir;
+    File	file;
+    File	tmp;
+
+    dir = getCacheDir();
+    if (!dir.exists() && !dir.mkdirs())
+      return "Failed to create cache directory: " + dir;
+
+    // write to temp file first, to avoid other processes reading partial files
+    file = cacheFile(key);
+    tmp  = null;
+    try {
+      // prefix needs at least 3 chars, suffix must not be picked up by eviction
+      tmp = File.createTempFile("flow-" + key + "-", ".tmp", dir);
+      SerializationHelper.write(tmp.getAbsolutePath(), actor);
+      Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return evict(maxEntries, file);
+    }
+    catch (Exception e) {
+      if (tmp != null)
+	tmp.delete();
+      return "Failed to store flow in cache: " + file + "\n" + LoggingHelper.throwableToString(e);
+    }
+  }
+
+  /**
+   * Removes the least recently used flows, till at most the specified
+   * number of flows is left.
+   *
+   * @param maxEntries	the maximum number of flows to keep
+   * @return		null if successful, otherwise error message
+   */
+  public static String evict(int maxEntries) {
+    return evict(maxEntries, null);
+  }
+
+  /**
+   * Removes the least recently used flows, till at most the specified
+   * number of flows is left. The file to keep is never removed, regardless
+   * of its timestamp (timestamps can have a resolution of seconds only).
+   *
+   * @param maxEntries	the maximum number of flows to keep
+   * @param keep	the cached flow to keep, can be null
+   * @return		null if successful, otherwise error message
+   */
+  protected static String evict(int maxEntries, File keep) {
+    File[]	files;
+    long[]	timestamps;
+    Integer[]	order;
+    int		i;
+
+    files = getCacheDir().listFiles((File dir, String name) -> name.endsWith(EXTENSION));
+    if ((files == null) || (files.length <= maxEntries))
+      return null;
+
+    // most recently used first
+    timestamps = new long[files.length];
+    order      = new Integer[files.length];
+    for (i = 0; i < files.length; i++) {
+      timestamps[i] = files[i].equals(keep) ? Long.MAX_VALUE : files[i].lastModified();
+      order[i]      = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong((Integer n) -> timestamps[n]).reversed());
+    for (i = Math.max(0, maxEntries); i < order.length; i++) {
+      if (!files[order[i]].delete() && files[order[i]].exists())
+	return "Failed to remove cached flow: " + files[order[i]];
+    }
+
+    return null;
+  }
+
+  /**
+   * Removes all cached flows.
+   *
+   * @return		null if successful, otherwise error message
+   */
+  public static String clear() {
+    File[]	files;
+
+    files = getCacheDir().listFiles((File dir, String name) -> name.endsWith(EXTENSION));
+    if (files == null)
+      return null;
+    for (File file: files) {
+      if (!file.delete())
+	return "Failed to remove cached flow: " + file;
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelReplicaPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.core.SerializationHelper;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of replicas of a model that is not thread-safe, allowing concurrent
+ * predictions. The model itself is the first replica, further replicas get
+ * created on demand (up to the maximum) by deserializing the model, which
+ * gets serialized only once.
+ * <br>
+ * Pools are shared per model instance, e.g., between the copies of an actor
+ * that obtain the same model from storage, and get discarded once the model
+ * is no longer referenced.
+ * <br>
+ * Since the original model can also be used outside the pool (e.g., by actors
+ * not using replicas), the original replica (see {@link Replica#isOriginal()})
+ * must only be used while synchronizing on the model. The pool itself also
+ * synchronizes on the model when serializing it for creating replicas.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ * @param <T> the type of model
+ */
+public class ModelReplicaPool<T> {
+
+  /**
+   * Container for a single replica and its statistics.
+   *
+   * @param <T> the type of model
+   */
+  public static class Replica<T> {
+
+    /** the pool this replica belongs to. */
+    protected ModelReplicaPool<T> m_Owner;
+
+    /** the index of the replica. */
+    protected int m_Index;
+
+    /** the replica, null if the original model. */
+    protected T m_Model;
+
+    /** the number of predictions. */
+    protected long m_NumPredictions;
+
+    /** the time spent on predictions (nsec). */
+    protected long m_Time;
+
+    /**
+     * Initializes the replica.
+     *
+     * @param owner	the pool the replica belongs to
+     * @param index	the index of the replica
+     * @param model	the model, null if the original model
+     */
+    protected Replica(ModelReplicaPool<T> owner, int index, T model) {
+      m_Owner = owner;
+      m_Index = index;
+      m_Model = model;
+    }
+
+    /**
+     * Returns the index of the replica (0 is the original model).
+     *
+     * @return		the index
+     */
+    public int getIndex() {
+      return m_Index;
+    }
+
+    /**
+     * Returns whether this replica is the original model, which requires
+     * synchronizing on the model when using it.
+     *
+     * @return		true if the original model
+     */
+    public boolean isOriginal() {
+      return (m_Model == null);
+    }
+
+    /**
+     * Returns the model of the replica.
+     *
+     * @return		the model
+     */
+    public T getModel() {
+      if (m_Model == null)
+	return m_Owner.m_Original.get();
+      else
+	return m_Model;
+    }
+
+    /**
+     * Returns the number of predictions made with the replica.
+     *
+     * @return		the number of predictions
+     */
+    public long getNumPredictions() {
+      return m_NumPredictions;
+    }
+
+    /**
+     * Returns the throughput of the replica.
+     *
+     * @return		the predictions per second, NaN if no predictions made
+     */
+    public double getThroughput() {
+      if (m_Time == 0)
+	return Double.NaN;
+      else
+	return m_NumPredictions / (m_Time / 1000000000.0);
+    }
+
+    /**
+     * Returns a short description of the replica.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return "replica #" + m_Index + ": " + m_NumPredictions + " predictions, " + String.format("%.1f", getThroughput()) + "/sec";
+    }
+  }
+
+  /** the pools per model. */
+  protected final static Map<Object,ModelReplicaPool> POOLS = new WeakHashMap<>();
+
+  /** the original model (must not be strongly referenced by the pool). */
+  protected WeakReference<T> m_Original;
+
+  /** the serialized model. */
+  protected byte[] m_Serialized;
+
+  /** the maximum number of replicas. */
+  protected int m_MaxReplicas;
+
+  /** all the replicas. */
+  protected List<Replica<T>> m_Replicas;
+
+  /** the available replicas. */
+  protected Deque<Replica<T>> m_Available;
+
+  /** the number of replicas currently being created. */
+  protected int m_Creating;
+
+  /**
+   * Initializes the pool.
+   *
+   * @param model	the model to replicate
+   * @param maxReplicas	the maximum number of replicas (incl the model itself)
+   */
+  protected ModelReplicaPool(T model, int maxReplicas) {
+    m_Original    = new WeakReference<>(model);
+    m_MaxReplicas = Math.max(1, maxReplicas);
+    m_Replicas    = new ArrayList<>();
+    m_Available   = new ArrayDeque<>();
+    m_Replicas.add(new Replica<>(this, 0, null));
+    m_Available.add(m_Replicas.get(0));
+  }
+
+  /**
+   * Checks whether the pool replicates the specified model.
+   *
+   * @param model	the model to check
+   * @return		true if the pool is for this model
+   */
+  public boolean isPoolFor(T model) {
+    return (m_Original.get() == model);
+  }
+
+  /**
+   * Sets the maximum number of replicas (incl the model itself). Does not
+   * remove any replicas if already more present.
+   *
+   * @param value	the maximum
+   */
+  public synchronized void setMaxReplicas(int value) {
+    m_MaxReplicas = Math.max(1, value);
+    notifyAll();
+  }
+
+  /**
+   * Returns the maximum number of replicas (incl the model itself).
+   *
+   * @return		the maximum
+   */
+  public synchronized int getMaxReplicas() {
+    return m_MaxReplicas;
+  }
+
+  /**
+   * Creates a new replica by deserializing the model. The model gets
+   * serialized only once, while synchronizing on it, as the original replica
+   * might be in use.
+   *
+   * @return		the replica
+   * @throws Exception	if serialization/deserialization fails
+   */
+  protected T newReplica() throws Exception {
+    byte[]	data;
+    T		model;
+
+    synchronized(this) {
+      data = m_Serialized;
+    }
+
+    if (data == null) {
+      model = m_Original.get();
+      if (model == null)
+	throw new IllegalStateException("Model is no longer available!");
+      // don't hold the pool lock while waiting for the model
+      synchronized(model) {
+	data = SerializationHelper.toByteArray(model);
+      }
+      synchronized(this) {
+	if (m_Serialized == null)
+	  m_Serialized = data;
+	else
+	  data = m_Serialized;
+      }
+    }
+
+    return (T) SerializationHelper.fromByteArray(data)[0];
+  }
+
+  /**
+   * Obtains a replica, waiting until one becomes available if necessary.
+   * The replica must be returned via {@link #release(Replica, int, long)}.
+   *
+   * @return		the replica
+   * @throws Exception	if creating a replica fails or interrupted
+   */
+  public Replica<T> acquire() throws Exception {
+    Replica<T>	result;
+    T		model;
+
+    synchronized(this) {
+      while (m_Available.isEmpty() && (m_Replicas.size() + m_Creating >= m_MaxReplicas))
+	wait();
+      if (!m_Available.isEmpty())
+	return m_Available.pop();
+      m_Creating++;
+    }
+
+    // deserialize outside the lock, other threads can still use the existing replicas
+    model = null;
+    try {
+      model = newReplica();
+    }
+    finally {
+      synchronized(this) {
+	m_Creating--;
+	if (model != null) {
+	  result = new Replica<>(this, m_Replicas.size(), model);
+	  m_Replicas.add(result);
+	}
+	else {
+	  result = null;
+	}
+	notifyAll();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the replica to the pool.
+   *
+   * @param replica		the replica to return
+   * @param numPredictions	the number of predictions that were made
+   * @param time		the time it took (nsec)
+   */
+  public synchronized void release(Replica<T> replica, int numPredictions, long time) {
+    replica.m_NumPredictions += numPredictions;
+    replica.m_Time           += time;
+    m_Available.push(replica);
+    notifyAll();
+  }
+
+  /**
+   * Returns the number of replicas created so far (incl the model itself).
+   *
+   * @return		the number of replicas
+   */
+  public synchronized int size() {
+    return m_Replicas.size();
+  }
+
+  /**
+   * Returns the statistics of the replicas, one line per replica.
+   *
+   * @return		the statistics
+   */
+  public synchronized String getStatistics() {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    for (Replica<T> replica: m_Replicas) {
+      if (result.length() > 0)
+	result.append("\n");
+      result.append(replica.toString());
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the pool for the model, creating it if necessary.
+   *
+   * @param model	the model to get the pool for
+   * @param maxReplicas	the maximum number of replicas (incl the model itself)
+   * @return		the pool
+   */
+  public static synchronized <T> ModelReplicaPool<T> getPool(T model, int maxReplicas) {
+    ModelReplicaPool<T>	result;
+
+    result = POOLS.get(model);
+    if ((result == null) || !result.isPoolFor(model)) {
+      result = new ModelReplicaPool<>(model, maxReplicas);
+      POOLS.put(model, result);
+    }
+    else if (result.getMaxReplicas() != maxReplicas) {
+      result.setMaxReplicas(maxReplicas);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,1130 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Profiler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.execution;
+
+import adams.core.DateUtils;
+import adams.core.SizeOf;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.flow.core.Actor;
+import adams.flow.core.Token;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Headless profiler that records per-actor latency histograms (input, execute, output), the number of tokens consumed&#47;produced, the (sampled) size of the produced tokens and, optionally, the time that the executing threads spent blocked on locks or waiting (e.g., on queues).<br>
+ * All statistics are collected with lock-free accumulators. Snapshots get written periodically and at the end of the flow execution, either as JSON or in the Prometheus text exposition format.<br>
+ * Times are inclusive, i.e., the execution time of a control actor contains the times of its sub-actors.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * &nbsp;&nbsp;&nbsp;min-user-mode: Expert
+ * </pre>
+ *
+ * <pre>-output-file &lt;adams.core.io.PlaceholderFile&gt; (property: outputFile)
+ * &nbsp;&nbsp;&nbsp;The file to write the snapshots to; writing is disabled if pointing to a
+ * &nbsp;&nbsp;&nbsp;directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-output-format &lt;JSON|PROMETHEUS&gt; (property: outputFormat)
+ * &nbsp;&nbsp;&nbsp;The format to write the snapshots in.
+ * &nbsp;&nbsp;&nbsp;default: JSON
+ * </pre>
+ *
+ * <pre>-snapshot-interval &lt;int&gt; (property: snapshotInterval)
+ * &nbsp;&nbsp;&nbsp;The interval in seconds for writing snapshots while the flow is running;
+ * &nbsp;&nbsp;&nbsp;use 0 to write only at the end of the execution.
+ * &nbsp;&nbsp;&nbsp;default: 60
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ *
+ * <pre>-size-sample-interval &lt;int&gt; (property: sizeSampleInterval)
+ * &nbsp;&nbsp;&nbsp;Every n-th token that an actor produces gets measured for estimating the
+ * &nbsp;&nbsp;&nbsp;number of bytes produced; use 0 to turn off.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ *
+ * <pre>-monitor-contention &lt;boolean&gt; (property: monitorContention)
+ * &nbsp;&nbsp;&nbsp;If enabled, the time that the threads spend blocked on locks or waiting
+ * &nbsp;&nbsp;&nbsp;(e.g., on queues) during actor executions gets recorded as well (requires
+ * &nbsp;&nbsp;&nbsp;JVM support for thread contention monitoring).
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Profiler
+  extends AbstractFlowExecutionListener {
+
+  private static final long serialVersionUID = 2486370425106361513L;
+
+  /**
+   * The available output formats.
+   */
+  public enum OutputFormat {
+    /** JSON. */
+    JSON,
+    /** Prometheus text exposition format. */
+    PROMETHEUS,
+  }
+
+  /**
+   * Lock-free latency histogram with exponential (power of 2) buckets in
+   * microseconds.
+   */
+  public static class Histogram
+    implements Serializable {
+
+    private static final long serialVersionUID = -1770185716458437071L;
+
+    /** the number of buckets, the last one collects all overflows. */
+    public final static int NUM_BUCKETS = 32;
+
+    /** the bucket counts. */
+    protected AtomicLongArray m_Buckets;
+
+    /** the number of recorded values. */
+    protected LongAdder m_Count;
+
+    /** the sum of the recorded values (nanoseconds). */
+    protected LongAdder m_Sum;
+
+    /** the maximum recorded value (nanoseconds). */
+    protected AtomicLong m_Max;
+
+    /**
+     * Initializes the histogram.
+     */
+    public Histogram() {
+      m_Buckets = new AtomicLongArray(NUM_BUCKETS);
+      m_Count   = new LongAdder();
+      m_Sum     = new LongAdder();
+      m_Max     = new AtomicLong();
+    }
+
+    /**
+     * Records the duration.
+     *
+     * @param nanos	the duration in nanoseconds
+     */
+    public void add(long nanos) {
+      long	micros;
+      int	bucket;
+
+      if (nanos < 0)
+	nanos = 0;
+      micros = nanos / 1000;
+      bucket = (micros == 0) ? 0 : Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+      m_Buckets.incrementAndGet(bucket);
+      m_Count.increment();
+      m_Sum.add(nanos);
+      if (nanos > m_Max.get())
+	m_Max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return		the count
+     */
+    public long getCount() {
+      return m_Count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return		the sum in nanoseconds
+     */
+    public long getSum() {
+      return m_Sum.sum();
+    }
+
+    /**
+     * Returns the maximum recorded value.
+     *
+     * @return		the maximum in nanoseconds
+     */
+    public long getMax() {
+      return m_Max.get();
+    }
+
+    /**
+     * Returns the count of the specified bucket.
+     *
+     * @param bucket	the bucket index
+     * @return		the count
+     */
+    public long getBucket(int bucket) {
+      return m_Buckets.get(bucket);
+    }
+
+    /**
+     * Returns the (inclusive) upper bound of the bucket.
+     *
+     * @param bucket	the bucket index
+     * @return		the upper bound in seconds, infinity for the last bucket
+     */
+    public static double getUpperBound(int bucket) {
+      if (bucket >= NUM_BUCKETS - 1)
+	return Double.POSITIVE_INFINITY;
+      return (double) (1L << bucket) / 1000000.0;
+    }
+
+    /**
+     * Estimates the quantile, using the upper bound of the bucket that the
+     * quantile falls into (capped by the maximum).
+     *
+     * @param q		the quantile (0-1)
+     * @return		the estimate in seconds
+     */
+    public double getQuantile(double q) {
+      long	count;
+      long	rank;
+      long	sum;
+      int	i;
+
+      count = getCount();
+      if (count == 0)
+	return 0.0;
+      rank = (long) Math.ceil(q * count);
+      sum  = 0;
+      for (i = 0; i < NUM_BUCKETS; i++) {
+	sum += m_Buckets.get(i);
+	if (sum >= rank)
+	  return Math.min(getUpperBound(i), getMax() / 1000000000.0);
+      }
+      return getMax() / 1000000000.0;
+    }
+  }
+
+  /**
+   * The statistics for a single actor.
+   */
+  public static class ActorStatistics
+    implements Serializable {
+
+    private static final long serialVersionUID = -3898591632616372453L;
+
+    /** the full name of the actor. */
+    protected String m_Name;
+
+    /** the input latencies. */
+    protected Histogram m_Input;
+
+    /** the execute latencies. */
+    protected Histogram m_Execute;
+
+    /** the output latencies. */
+    protected Histogram m_Output;
+
+    /** the number of tokens consumed. */
+    protected LongAdder m_TokensIn;
+
+    /** the number of tokens produced. */
+    protected AtomicLong m_TokensOut;
+
+    /** the number of tokens that were measured. */
+    protected LongAdder m_SizeSamples;
+
+    /** the total size of the measured tokens. */
+    protected LongAdder m_SizeSampled;
+
+    /** the time blocked on locks during execution (msec). */
+    protected LongAdder m_Blocked;
+
+    /** the time waiting during execution (msec). */
+    protected LongAdder m_Waited;
+
+    /**
+     * Initializes the statistics.
+     *
+     * @param name	the full name of the actor
+     */
+    public ActorStatistics(String name) {
+      m_Name        = name;
+      m_Input       = new Histogram();
+      m_Execute     = new Histogram();
+      m_Output      = new Histogram();
+      m_TokensIn    = new LongAdder();
+      m_TokensOut   = new AtomicLong();
+      m_SizeSamples = new LongAdder();
+      m_SizeSampled = new LongAdder();
+      m_Blocked     = new LongAdder();
+      m_Waited      = new LongAdder();
+    }
+
+    /**
+     * Returns the full name of the actor.
+     *
+     * @return		the name
+     */
+    public String getName() {
+      return m_Name;
+    }
+
+    /**
+     * Returns the input latencies.
+     *
+     * @return		the histogram
+     */
+    public Histogram getInput() {
+      return m_Input;
+    }
+
+    /**
+     * Returns the execute latencies.
+     *
+     * @return		the histogram
+     */
+    public Histogram getExecute() {
+      return m_Execute;
+    }
+
+    /**
+     * Returns the output latencies.
+     *
+     * @return		the histogram
+     */
+    public Histogram getOutput() {
+      return m_Output;
+    }
+
+    /**
+     * Returns the number of tokens consumed.
+     *
+     * @return		the count
+     */
+    public long getTokensIn() {
+      return m_TokensIn.sum();
+    }
+
+    /**
+     * Returns the number of tokens produced.
+     *
+     * @return		the count
+     */
+    public long getTokensOut() {
+      return m_TokensOut.get();
+    }
+
+    /**
+     * Returns the number of tokens that were measured.
+     *
+     * @return		the count
+     */
+    public long getSizeSamples() {
+      return m_SizeSamples.sum();
+    }
+
+    /**
+     * Returns the estimated number of bytes produced, extrapolated from the
+     * measured tokens.
+     *
+     * @return		the estimate, 0 if no tokens measured
+     */
+    public long getBytesOut() {
+      long	samples;
+
+      samples = getSizeSamples();
+      if (samples == 0)
+	return 0;
+      return (long) ((double) m_SizeSampled.sum() / samples * getTokensOut());
+    }
+
+    /**
+     * Returns the time spent blocked on locks during execution.
+     *
+     * @return		the time in msec
+     */
+    public long getBlocked() {
+      return m_Blocked.sum();
+    }
+
+    /**
+     * Returns the time spent waiting during execution.
+     *
+     * @return		the time in msec
+     */
+    public long getWaited() {
+      return m_Waited.sum();
+    }
+
+    /**
+     * Returns the overall time spent in the actor.
+     *
+     * @return		the time in nanoseconds
+     */
+    public long getTotal() {
+      return m_Input.getSum() + m_Execute.getSum() + m_Output.getSum();
+    }
+  }
+
+  /**
+   * The per-thread state of an actor.
+   */
+  protected static class ThreadState {
+
+    /** the statistics of the actor. */
+    public ActorStatistics statistics;
+
+    /** the start of the input. */
+    public long inputStart;
+
+    /** the start of the execution. */
+    public long executeStart;
+
+    /** the start of the output. */
+    public long outputStart;
+
+    /** the blocked time at the start of the execution. */
+    public long blockedStart;
+
+    /** the waited time at the start of the execution. */
+    public long waitedStart;
+  }
+
+  /** the file to write the snapshots to. */
+  protected PlaceholderFile m_OutputFile;
+
+  /** the output format. */
+  protected OutputFormat m_OutputFormat;
+
+  /** the snapshot interval in seconds. */
+  protected int m_SnapshotInterval;
+
+  /** the interval for measuring token sizes. */
+  protected int m_SizeSampleInterval;
+
+  /** whether to monitor thread contention. */
+  protected boolean m_MonitorContention;
+
+  /** the statistics per actor (full name). */
+  protected transient Map<String,ActorStatistics> m_Statistics;
+
+  /** the per-thread states. */
+  protected transient ThreadLocal<Map<Actor,ThreadState>> m_States;
+
+  /** the thread bean, null if not monitoring contention. */
+  protected transient ThreadMXBean m_ThreadBean;
+
+  /** for writing the snapshots. */
+  protected transient ScheduledExecutorService m_Snapshots;
+
+  /** the name of the flow. */
+  protected String m_FlowName;
+
+  /** the start of the listening. */
+  protected long m_Start;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Headless profiler that records per-actor latency histograms (input, "
+	+ "execute, output), the number of tokens consumed/produced, the "
+	+ "(sampled) size of the produced tokens and, optionally, the time "
+	+ "that the executing threads spent blocked on locks or waiting (e.g., "
+	+ "on queues).\n"
+	+ "All statistics are collected with lock-free accumulators. Snapshots "
+	+ "get written periodically and at the end of the flow execution, either "
+	+ "as JSON or in the Prometheus text exposition format.\n"
+	+ "Times are inclusive, i.e., the execution time of a control actor "
+	+ "contains the times of its sub-actors.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "output-file", "outputFile",
+      new PlaceholderFile("."));
+
+    m_OptionManager.add(
+      "output-format", "outputFormat",
+      OutputFormat.JSON);
+
+    m_OptionManager.add(
+      "snapshot-interval", "snapshotInterval",
+      60, 0, null);
+
+    m_OptionManager.add(
+      "size-sample-interval", "sizeSampleInterval",
+      100, 0, null);
+
+    m_OptionManager.add(
+      "monitor-contention", "monitorContention",
+      false);
+  }
+
+  /**
+   * Sets the file to write the snapshots to.
+   *
+   * @param value	the file
+   */
+  public void setOutputFile(PlaceholderFile value) {
+    m_OutputFile = value;
+    reset();
+  }
+
+  /**
+   * Returns the file to write the snapshots to.
+   *
+   * @return		the file
+   */
+  public PlaceholderFile getOutputFile() {
+    return m_OutputFile;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputFileTipText() {
+    return "The file to write the snapshots to; writing is disabled if pointing to a directory.";
+  }
+
+  /**
+   * Sets the format of the snapshots.
+   *
+   * @param value	the format
+   */
+  public void setOutputFormat(OutputFormat value) {
+    m_OutputFormat = value;
+    reset();
+  }
+
+  /**
+   * Returns the format of the snapshots.
+   *
+   * @return		the format
+   */
+  public OutputFormat getOutputFormat() {
+    return m_OutputFormat;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputFormatTipText() {
+    return "The format to write the snapshots in.";
+  }
+
+  /**
+   * Sets the interval for writing snapshots.
+   *
+   * @param value	the interval in seconds, 0 for only at the end
+   */
+  public void setSnapshotInterval(int value) {
+    if (getOptionManager().isValid("snapshotInterval", value)) {
+      m_SnapshotInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the interval for writing snapshots.
+   *
+   * @return		the interval in seconds, 0 for only at the end
+   */
+  public int getSnapshotInterval() {
+    return m_SnapshotInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String snapshotIntervalTipText() {
+    return "The interval in seconds for writing snapshots while the flow is running; use 0 to write only at the end of the execution.";
+  }
+
+  /**
+   * Sets the interval for measuring the size of the produced tokens.
+   *
+   * @param value	the interval, 0 to turn off
+   */
+  public void setSizeSampleInterval(int value) {
+    if (getOptionManager().isValid("sizeSampleInterval", value)) {
+      m_SizeSampleInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the interval for measuring the size of the produced tokens.
+   *
+   * @return		the interval, 0 to turn off
+   */
+  public int getSizeSampleInterval() {
+    return m_SizeSampleInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String sizeSampleIntervalTipText() {
+    return "Every n-th token that an actor produces gets measured for estimating the number of bytes produced; use 0 to turn off.";
+  }
+
+  /**
+   * Sets whether to record the time that threads spend blocked or waiting.
+   *
+   * @param value	true if to monitor
+   */
+  public void setMonitorContention(boolean value) {
+    m_MonitorContention = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to record the time that threads spend blocked or waiting.
+   *
+   * @return		true if to monitor
+   */
+  public boolean getMonitorContention() {
+    return m_MonitorContention;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String monitorContentionTipText() {
+    return
+      "If enabled, the time that the threads spend blocked on locks or waiting "
+	+ "(e.g., on queues) during actor executions gets recorded as well "
+	+ "(requires JVM support for thread contention monitoring).";
+  }
+
+  /**
+   * Gets called when the flow execution starts.
+   */
+  @Override
+  public void startListening() {
+    ThreadMXBean	bean;
+
+    super.startListening();
+
+    m_Statistics = new ConcurrentHashMap<>();
+    m_States     = ThreadLocal.withInitial(IdentityHashMap::new);
+    m_Start      = System.currentTimeMillis();
+    m_FlowName   = (getOwner() != null) ? getOwner().getName() : "";
+    m_ThreadBean = null;
+
+    if (m_MonitorContention) {
+      bean = ManagementFactory.getThreadMXBean();
+      if (bean.isThreadContentionMonitoringSupported()) {
+	bean.setThreadContentionMonitoringEnabled(true);
+	m_ThreadBean = bean;
+      }
+      else {
+	getLogger().warning("Thread contention monitoring not supported by JVM!");
+      }
+    }
+
+    if ((m_SnapshotInterval > 0) && !m_OutputFile.isDirectory()) {
+      m_Snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+	Thread thread = new Thread(r, getClass().getSimpleName() + "-snapshots");
+	thread.setDaemon(true);
+	return thread;
+      });
+      m_Snapshots.scheduleAtFixedRate(this::writeSnapshot, m_SnapshotInterval, m_SnapshotInterval, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Returns the state of the actor for the current thread.
+   *
+   * @param actor	the actor to get the state for
+   * @return		the state
+   */
+  protected ThreadState getState(Actor actor) {
+    Map<Actor,ThreadState>	states;
+    ThreadState			result;
+
+    states = m_States.get();
+    result = states.get(actor);
+    if (result == null) {
+      result            = new ThreadState();
+      result.statistics = m_Statistics.computeIfAbsent(actor.getFullName(), ActorStatistics::new);
+      states.put(actor, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Gets called before the actor receives the token.
+   *
+   * @param actor	the actor that will receive the token
+   * @param token	the token that the actor will receive
+   */
+  @Override
+  public void preInput(Actor actor, Token token) {
+    getState(actor).inputStart = System.nanoTime();
+  }
+
+  /**
+   * Gets called after the actor received the token.
+   *
+   * @param actor	the actor that received the token
+   */
+  @Override
+  public void postInput(Actor actor) {
+    ThreadState	state;
+
+    state = getState(actor);
+    state.statistics.m_Input.add(System.nanoTime() - state.inputStart);
+    state.statistics.m_TokensIn.increment();
+  }
+
+  /**
+   * Gets called before the actor gets executed.
+   *
+   * @param actor	the actor that will get executed
+   */
+  @Override
+  public void preExecute(Actor actor) {
+    ThreadState	state;
+    ThreadInfo	info;
+
+    state = getState(actor);
+    if (m_ThreadBean != null) {
+      info = m_ThreadBean.getThreadInfo(Thread.currentThread().getId());
+      if (info != null) {
+	state.blockedStart = info.getBlockedTime();
+	state.waitedStart  = info.getWaitedTime();
+      }
+    }
+    state.executeStart = System.nanoTime();
+  }
+
+  /**
+   * Gets called after the actor was executed.
+   *
+   * @param actor	the actor that was executed
+   */
+  @Override
+  public void postExecute(Actor actor) {
+    ThreadState	state;
+    ThreadInfo	info;
+
+    state = getState(actor);
+    state.statistics.m_Execute.add(System.nanoTime() - state.executeStart);
+    if (m_ThreadBean != null) {
+      info = m_ThreadBean.getThreadInfo(Thread.currentThread().getId());
+      if (info != null) {
+	state.statistics.m_Blocked.add(Math.max(0, info.getBlockedTime() - state.blockedStart));
+	state.statistics.m_Waited.add(Math.max(0, info.getWaitedTime() - state.waitedStart));
+      }
+    }
+  }
+
+  /**
+   * Gets called before a token gets obtained from the actor.
+   *
+   * @param actor	the actor the token gets obtained from
+   */
+  @Override
+  public void preOutput(Actor actor) {
+    getState(actor).outputStart = System.nanoTime();
+  }
+
+  /**
+   * Gets called after a token was acquired from the actor.
+   *
+   * @param actor	the actor that the token was acquired from
+   * @param token	the token that was acquired from the actor
+   */
+  @Override
+  public void postOutput(Actor actor, Token token) {
+    ThreadState	state;
+    long	count;
+    int		size;
+
+    state = getState(actor);
+    state.statistics.m_Output.add(System.nanoTime() - state.outputStart);
+    if (token == null)
+      return;
+    count = state.statistics.m_TokensOut.incrementAndGet();
+    if ((m_SizeSampleInterval > 0) && ((count - 1) % m_SizeSampleInterval == 0) && (token.getPayload() != null)) {
+      size = SizeOf.sizeOf(token.getPayload());
+      if (size >= 0) {
+	state.statistics.m_SizeSamples.increment();
+	state.statistics.m_SizeSampled.add(size);
+      }
+    }
+  }
+
+  /**
+   * Returns the current statistics, sorted by overall time (descending).
+   *
+   * @return		the statistics
+   */
+  public List<ActorStatistics> getStatistics() {
+    List<ActorStatistics>	result;
+
+    if (m_Statistics == null)
+      return new ArrayList<>();
+
+    result = new ArrayList<>(m_Statistics.values());
+    result.sort((s1, s2) -> Long.compare(s2.getTotal(), s1.getTotal()));
+
+    return result;
+  }
+
+  /**
+   * Escapes the string for use in JSON.
+   *
+   * @param s		the string to escape
+   * @return		the escaped string, including double quotes
+   */
+  protected static String escapeJSON(String s) {
+    StringBuilder	result;
+    char		c;
+    int			i;
+
+    result = new StringBuilder("\"");
+    for (i = 0; i < s.length(); i++) {
+      c = s.charAt(i);
+      switch (c) {
+	case '"':
+	  result.append("\\\"");
+	  break;
+	case '\\':
+	  result.append("\\\\");
+	  break;
+	case '\n':
+	  result.append("\\n");
+	  break;
+	case '\r':
+	  result.append("\\r");
+	  break;
+	case '\t':
+	  result.append("\\t");
+	  break;
+	default:
+	  if (c < 0x20)
+	    result.append(String.format("\\u%04x", (int) c));
+	  else
+	    result.append(c);
+      }
+    }
+    result.append("\"");
+
+    return result.toString();
+  }
+
+  /**
+   * Adds the histogram in JSON notation.
+   *
+   * @param result	the buffer to add to
+   * @param stage	the name of the stage
+   * @param hist	the histogram to add
+   */
+  protected void addJSON(StringBuilder result, String stage, Histogram hist) {
+    result.append(",\n      ").append(escapeJSON(stage)).append(": {");
+    result.append("\"count\": ").append(hist.getCount());
+    result.append(", \"total_ms\": ").append(hist.getSum() / 1000000.0);
+    result.append(", \"mean_ms\": ").append((double) hist.getSum() / hist.getCount() / 1000000.0);
+    result.append(", \"max_ms\": ").append(hist.getMax() / 1000000.0);
+    result.append(", \"p50_ms\": ").append(hist.getQuantile(0.50) * 1000.0);
+    result.append(", \"p90_ms\": ").append(hist.getQuantile(0.90) * 1000.0);
+    result.append(", \"p99_ms\": ").append(hist.getQuantile(0.99) * 1000.0);
+    result.append("}");
+  }
+
+  /**
+   * Returns the current statistics as JSON.
+   *
+   * @return		the JSON string
+   */
+  public String toJSON() {
+    StringBuilder	result;
+    boolean		first;
+
+    result = new StringBuilder();
+    result.append("{\n");
+    result.append("  \"flow\": ").append(escapeJSON(m_FlowName == null ? "" : m_FlowName)).append(",\n");
+    result.append("  \"timestamp\": ").append(escapeJSON(DateUtils.getTimestampFormatterMsecs().format(new Date()))).append(",\n");
+    result.append("  \"uptime_ms\": ").append(System.currentTimeMillis() - m_Start).append(",\n");
+    result.append("  \"actors\": [");
+    first = true;
+    for (ActorStatistics stats: getStatistics()) {
+      if (!first)
+	result.append(",");
+      first = false;
+      result.append("\n    {\n");
+      result.append("      \"name\": ").append(escapeJSON(stats.getName()));
+      result.append(",\n      \"tokens_in\": ").append(stats.getTokensIn());
+      result.append(",\n      \"tokens_out\": ").append(stats.getTokensOut());
+      result.append(",\n      \"bytes_out_estimated\": ").append(stats.getBytesOut());
+      result.append(",\n      \"size_samples\": ").append(stats.getSizeSamples());
+      if (m_ThreadBean != null) {
+	result.append(",\n      \"blocked_ms\": ").append(stats.getBlocked());
+	result.append(",\n      \"waited_ms\": ").append(stats.getWaited());
+      }
+      if (stats.getInput().getCount() > 0)
+	addJSON(result, "input", stats.getInput());
+      if (stats.getExecute().getCount() > 0)
+	addJSON(result, "execute", stats.getExecute());
+      if (stats.getOutput().getCount() > 0)
+	addJSON(result, "output", stats.getOutput());
+      result.append("\n    }");
+    }
+    result.append("\n  ]\n");
+    result.append("}\n");
+
+    return result.toString();
+  }
+
+  /**
+   * Escapes the label value for the Prometheus format.
+   *
+   * @param s		the value to escape
+   * @return		the escaped value
+   */
+  protected static String escapePrometheus(String s) {
+    return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * Formats the double value for the Prometheus format.
+   *
+   * @param value	the value
+   * @return		the formatted value
+   */
+  protected static String formatPrometheus(double value) {
+    if (Double.isInfinite(value))
+      return (value > 0) ? "+Inf" : "-Inf";
+    return Double.toString(value);
+  }
+
+  /**
+   * Adds the histogram in Prometheus notation.
+   *
+   * @param result	the buffer to add to
+   * @param labels	the labels of the actor
+   * @param stage	the name of the stage
+   * @param hist	the histogram to add
+   */
+  protected void addPrometheus(StringBuilder result, String labels, String stage, Histogram hist) {
+    long	cumulative;
+    int		i;
+
+    if (hist.getCount() == 0)
+      return;
+
+    labels     = labels + ",stage=\"" + stage + "\"";
+    cumulative = 0;
+    for (i = 0; i < Histogram.NUM_BUCKETS; i++) {
+      cumulative += hist.getBucket(i);
+      result.append("adams_actor_latency_seconds_bucket{").append(labels)
+	.append(",le=\"").append(formatPrometheus(Histogram.getUpperBound(i))).append("\"} ")
+	.append(cumulative).append("\n");
+    }
+    result.append("adams_actor_latency_seconds_sum{").append(labels).append("} ").append(formatPrometheus(hist.getSum() / 1000000000.0)).append("\n");
+    result.append("adams_actor_latency_seconds_count{").append(labels).append("} ").append(hist.getCount()).append("\n");
+  }
+
+  /**
+   * Returns the current statistics in Prometheus text exposition format.
+   *
+   * @return		the metrics
+   */
+  public String toPrometheus() {
+    StringBuilder		result;
+    List<ActorStatistics>	statistics;
+    List<String>		labels;
+    int				i;
+
+    statistics = getStatistics();
+    labels     = new ArrayList<>();
+    for (ActorStatistics stats: statistics)
+      labels.add("flow=\"" + escapePrometheus(m_FlowName == null ? "" : m_FlowName) + "\",actor=\"" + escapePrometheus(stats.getName()) + "\"");
+
+    result = new StringBuilder();
+
+    result.append("# HELP adams_actor_latency_seconds The time actors spend in input, execute and output.\n");
+    result.append("# TYPE adams_actor_latency_seconds histogram\n");
+    for (i = 0; i < statistics.size(); i++) {
+      addPrometheus(result, labels.get(i), "input", statistics.get(i).getInput());
+      addPrometheus(result, labels.get(i), "execute", statistics.get(i).getExecute());
+      addPrometheus(result, labels.get(i), "output", statistics.get(i).getOutput());
+    }
+
+    result.append("# HELP adams_actor_tokens_in_total The number of tokens consumed by actors.\n");
+    result.append("# TYPE adams_actor_tokens_in_total counter\n");
+    for (i = 0; i < statistics.size(); i++)
+      result.append("adams_actor_tokens_in_total{").append(labels.get(i)).append("} ").append(statistics.get(i).getTokensIn()).append("\n");
+
+    result.append("# HELP adams_actor_tokens_out_total The number of tokens produced by actors.\n");
+    result.append("# TYPE adams_actor_tokens_out_total counter\n");
+    for (i = 0; i < statistics.size(); i++)
+      result.append("adams_actor_tokens_out_total{").append(labels.get(i)).append("} ").append(statistics.get(i).getTokensOut()).append("\n");
+
+    result.append("# HELP adams_actor_output_bytes_estimated The estimated number of bytes produced by actors (extrapolated from sampled tokens).\n");
+    result.append("# TYPE adams_actor_output_bytes_estimated gauge\n");
+    for (i = 0; i < statistics.size(); i++)
+      result.append("adams_actor_output_bytes_estimated{").append(labels.get(i)).append("} ").append(statistics.get(i).getBytesOut()).append("\n");
+
+    if (m_ThreadBean != null) {
+      result.append("# HELP adams_actor_blocked_seconds_total The time threads were blocked on locks while executing actors.\n");
+      result.append("# TYPE adams_actor_blocked_seconds_total counter\n");
+      for (i = 0; i < statistics.size(); i++)
+	result.append("adams_actor_blocked_seconds_total{").append(labels.get(i)).append("} ").append(formatPrometheus(statistics.get(i).getBlocked() / 1000.0)).append("\n");
+
+      result.append("# HELP adams_actor_waited_seconds_total The time threads were waiting while executing actors.\n");
+      result.append("# TYPE adams_actor_waited_seconds_total counter\n");
+      for (i = 0; i < statistics.size(); i++)
+	result.append("adams_actor_waited_seconds_total{").append(labels.get(i)).append("} ").append(formatPrometheus(statistics.get(i).getWaited() / 1000.0)).append("\n");
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Writes the current statistics to the output file (if any). The snapshot
+   * gets written to a temporary file first, which then replaces the output
+   * file, to avoid consumers picking up incomplete snapshots.
+   */
+  public synchronized void writeSnapshot() {
+    String	content;
+    File	tmpFile;
+    String	msg;
+
+    if ((m_Statistics == null) || m_OutputFile.isDirectory())
+      return;
+
+    try {
+      switch (m_OutputFormat) {
+	case JSON:
+	  content = toJSON();
+	  break;
+	case PROMETHEUS:
+	  content = toPrometheus();
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled output format: " + m_OutputFormat);
+      }
+      tmpFile = new File(m_OutputFile.getAbsolutePath() + ".tmp");
+      msg     = FileUtils.writeToFileMsg(tmpFile.getAbsolutePath(), content, false, null);
+      if (msg != null) {
+	getLogger().severe("Failed to write snapshot to: " + tmpFile + "\n" + msg);
+	return;
+      }
+      try {
+	Files.move(tmpFile.toPath(), m_OutputFile.getAbsoluteFile().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (Exception e) {
+	Files.move(tmpFile.toPath(), m_OutputFile.getAbsoluteFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to write snapshot to: " + m_OutputFile, e);
+    }
+  }
+
+  /**
+   * Stops the periodic snapshots, if running.
+   */
+  protected void stopSnapshots() {
+    if (m_Snapshots != null) {
+      m_Snapshots.shutdownNow();
+      m_Snapshots = null;
+    }
+  }
+
+  /**
+   * Gets called when the flow execution ends.
+   */
+  @Override
+  public void finishListening() {
+    stopSnapshots();
+    writeSnapshot();
+
+    if (isLoggingEnabled() && (m_Statistics != null))
+      getLogger().info(toJSON());
+
+    super.finishListening();
+  }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   */
+  @Override
+  public void cleanUp() {
+    stopSnapshots();
+    m_Statistics = null;
+    m_States     = null;
+
+    super.cleanUp();
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * DumpFile.java
- * Copyright (C) 2009-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.sink;
@@ -25,18 +25,27 @@ import adams.core.MultiAttemptWithWaitSupporter;
 import adams.core.QuickInfoHelper;
 import adams.core.Utils;
 import adams.core.base.BaseCharset;
+import adams.core.io.AbstractFilenameGenerator;
 import adams.core.io.EncodingSupporter;
 import adams.core.io.FileUtils;
+import adams.core.io.NullFilenameGenerator;
+import adams.core.io.PersistentFileWriter;
+import adams.core.io.PlaceholderFile;
+import adams.flow.core.BatchConsumer;
+import adams.flow.core.BatchToken;
 import adams.flow.core.FlushSupporter;
 import adams.flow.core.Unknown;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 
 /**
  <!-- globalinfo-start -->
- * Actor that just dumps any input token into a separate line of the specified output file.
+ * Actor that just dumps any input token into a separate line of the specified output file.<br>
+ * In append mode, the file can be kept open for the duration of the flow run instead of opening and closing it for each token. The output then gets buffered and flushed once the flush size or flush interval has been reached, when flushing the actor or when the flow finishes.<br>
+ * The filename generator can be used to rotate the output file, e.g., based on the current timestamp.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -115,6 +124,41 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;minimum: 1
  * </pre>
  * 
+ * <pre>-keep-open &lt;boolean&gt; (property: keepOpen)
+ * &nbsp;&nbsp;&nbsp;If enabled and in append mode, the file is kept open for the duration 
+ * &nbsp;&nbsp;&nbsp;of the flow run; the buffer size and the number of attempts get ignored.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-flush-size &lt;int&gt; (property: flushSize)
+ * &nbsp;&nbsp;&nbsp;The number of characters to buffer before writing them to the file (when 
+ * &nbsp;&nbsp;&nbsp;keeping the file open).
+ * &nbsp;&nbsp;&nbsp;default: 8192
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-flush-interval &lt;int&gt; (property: flushInterval)
+ * &nbsp;&nbsp;&nbsp;The interval in msec after which buffered output gets written to the file 
+ * &nbsp;&nbsp;&nbsp;(when keeping the file open); 0 to disable.
+ * &nbsp;&nbsp;&nbsp;default: 1000
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-sync &lt;boolean&gt; (property: sync)
+ * &nbsp;&nbsp;&nbsp;If enabled, the data gets forced to the storage device with every flush 
+ * &nbsp;&nbsp;&nbsp;(when keeping the file open), i.e., the buffered lines get committed as 
+ * &nbsp;&nbsp;&nbsp;a group.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-filename-generator &lt;adams.core.io.AbstractFilenameGenerator&gt; (property: filenameGenerator)
+ * &nbsp;&nbsp;&nbsp;The generator for determining the output file from the incoming token; 
+ * &nbsp;&nbsp;&nbsp;whenever the filename changes, the previous file gets closed (rotation);
+ * &nbsp;&nbsp;&nbsp; the output file is used if the generator returns no filename (eg adams.core.io.NullFilenameGenerator
+ * &nbsp;&nbsp;&nbsp;).
+ * &nbsp;&nbsp;&nbsp;default: adams.core.io.NullFilenameGenerator
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -122,7 +166,7 @@ import java.util.List;
 public class DumpFile
   extends AbstractAppendableFileWriter 
   implements EncodingSupporter, MultiAttemptWithWaitSupporter, BufferSupporter,
-             FlushSupporter {
+             FlushSupporter, BatchConsumer {
 
   /** for serialization. */
   private static final long serialVersionUID = -366362262032858011L;
@@ -148,6 +192,27 @@ public class DumpFile
   /** whether currently writing to disk. */
   protected boolean m_Writing;
 
+  /** whether to keep the file open when appending. */
+  protected boolean m_KeepOpen;
+
+  /** the number of characters to buffer before flushing. */
+  protected int m_FlushSize;
+
+  /** the interval in msec for flushing. */
+  protected int m_FlushInterval;
+
+  /** whether to force the data to disk when flushing. */
+  protected boolean m_Sync;
+
+  /** the generator for the output file. */
+  protected AbstractFilenameGenerator m_FilenameGenerator;
+
+  /** the file the buffered lines belong to. */
+  protected File m_BufferFile;
+
+  /** the open file when keeping the file open. */
+  protected transient PersistentFileWriter m_Writer;
+
   /**
    * Returns a string describing the object.
    *
@@ -157,7 +222,13 @@ public class DumpFile
   public String globalInfo() {
     return
         "Actor that just dumps any input token into a separate line of the "
-      + "specified output file.";
+      + "specified output file.\n"
+      + "In append mode, the file can be kept open for the duration of the "
+      + "flow run instead of opening and closing it for each token. The output "
+      + "then gets buffered and flushed once the flush size or flush interval "
+      + "has been reached, when flushing the actor or when the flow finishes.\n"
+      + "The filename generator can be used to rotate the output file, e.g., "
+      + "based on the current timestamp.";
   }
 
   /**
@@ -182,6 +253,26 @@ public class DumpFile
     m_OptionManager.add(
       "buffer-size", "bufferSize",
       1, 1, null);
+
+    m_OptionManager.add(
+      "keep-open", "keepOpen",
+      false);
+
+    m_OptionManager.add(
+      "flush-size", "flushSize",
+      8192, 1, null);
+
+    m_OptionManager.add(
+      "flush-interval", "flushInterval",
+      1000, 0, null);
+
+    m_OptionManager.add(
+      "sync", "sync",
+      false);
+
+    m_OptionManager.add(
+      "filename-generator", "filenameGenerator",
+      new NullFilenameGenerator());
   }
 
   /**
@@ -202,8 +293,10 @@ public class DumpFile
   protected void reset() {
     super.reset();
 
+    closeWriter();
     m_Buffer.clear();
-    m_Writing = false;
+    m_BufferFile = null;
+    m_Writing    = false;
   }
 
   /**
@@ -361,6 +454,163 @@ public class DumpFile
 	+ "improve I/O performance.";
   }
 
+  /**
+   * Sets whether to keep the file open in append mode.
+   *
+   * @param value	true if to keep open
+   */
+  public void setKeepOpen(boolean value) {
+    m_KeepOpen = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to keep the file open in append mode.
+   *
+   * @return		true if to keep open
+   */
+  public boolean getKeepOpen() {
+    return m_KeepOpen;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String keepOpenTipText() {
+    return
+      "If enabled and in append mode, the file is kept open for the duration "
+	+ "of the flow run; the buffer size and the number of attempts get ignored.";
+  }
+
+  /**
+   * Sets the number of characters to buffer before flushing.
+   *
+   * @param value	the number of characters
+   */
+  public void setFlushSize(int value) {
+    if (getOptionManager().isValid("flushSize", value)) {
+      m_FlushSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of characters to buffer before flushing.
+   *
+   * @return		the number of characters
+   */
+  public int getFlushSize() {
+    return m_FlushSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String flushSizeTipText() {
+    return "The number of characters to buffer before writing them to the file (when keeping the file open).";
+  }
+
+  /**
+   * Sets the interval for flushing buffered output.
+   *
+   * @param value	the interval in msec, 0 to disable
+   */
+  public void setFlushInterval(int value) {
+    if (getOptionManager().isValid("flushInterval", value)) {
+      m_FlushInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the interval for flushing buffered output.
+   *
+   * @return		the interval in msec, 0 if disabled
+   */
+  public int getFlushInterval() {
+    return m_FlushInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String flushIntervalTipText() {
+    return "The interval in msec after which buffered output gets written to the file (when keeping the file open); 0 to disable.";
+  }
+
+  /**
+   * Sets whether to force the data to disk with every flush.
+   *
+   * @param value	true if to sync
+   */
+  public void setSync(boolean value) {
+    m_Sync = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to force the data to disk with every flush.
+   *
+   * @return		true if to sync
+   */
+  public boolean getSync() {
+    return m_Sync;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String syncTipText() {
+    return
+      "If enabled, the data gets forced to the storage device with every flush "
+	+ "(when keeping the file open), i.e., the buffered lines get committed as a group.";
+  }
+
+  /**
+   * Sets the generator for determining the output file.
+   *
+   * @param value	the generator
+   */
+  public void setFilenameGenerator(AbstractFilenameGenerator value) {
+    m_FilenameGenerator = value;
+    reset();
+  }
+
+  /**
+   * Returns the generator for determining the output file.
+   *
+   * @return		the generator
+   */
+  public AbstractFilenameGenerator getFilenameGenerator() {
+    return m_FilenameGenerator;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String filenameGeneratorTipText() {
+    return
+      "The generator for determining the output file from the incoming token; "
+	+ "whenever the filename changes, the previous file gets closed (rotation); "
+	+ "the output file is used if the generator returns no filename (eg "
+	+ NullFilenameGenerator.class.getName() + ").";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -377,6 +627,9 @@ public class DumpFile
       value = QuickInfoHelper.toString(this, "bufferSize", (m_BufferSize > 1 ? m_BufferSize : null), ", buffering: ");
       if (value != null)
         result += value;
+      value = QuickInfoHelper.toString(this, "keepOpen", (m_KeepOpen && m_Append), ", keep open");
+      if (value != null)
+        result += value;
     }
 
     return result;
@@ -442,7 +695,7 @@ public class DumpFile
     while (!finished) {
       attempt++;
       result = FileUtils.writeToFileMsg(
-	m_OutputFile.getAbsolutePath(),
+	(m_BufferFile != null ? m_BufferFile : m_OutputFile).getAbsolutePath(),
 	Utils.flatten(m_Buffer, System.getProperty("line.separator")),
 	m_Append,
 	m_Encoding.charsetValue().name());
@@ -461,6 +714,78 @@ public class DumpFile
     return result;
   }
 
+  /**
+   * Flushes and closes the file, if kept open.
+   *
+   * @return		null if successful, otherwise error message
+   */
+  protected String closeWriter() {
+    String	result;
+
+    result = null;
+
+    if (m_Writer != null) {
+      try {
+	m_Writer.close();
+      }
+      catch (Exception e) {
+	result = handleException("Failed to close file: " + m_Writer.getFile(), e);
+      }
+      m_Writer = null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines the output file for the payload, using the filename generator.
+   *
+   * @param payload	the payload to determine the file for
+   * @return		the file
+   */
+  protected File determineOutputFile(Object payload) {
+    String	filename;
+
+    filename = m_FilenameGenerator.generate(payload);
+    if (filename == null)
+      return m_OutputFile;
+    else
+      return new PlaceholderFile(filename);
+  }
+
+  /**
+   * Writes the line to the file that is kept open. Opens the file if
+   * necessary or rotates it if the output file changed.
+   *
+   * @param file	the output file
+   * @param line	the line to write
+   * @return		null if successful, otherwise error message
+   */
+  protected String writeToOpenFile(File file, String line) {
+    String	result;
+
+    result = null;
+
+    if ((m_Writer != null) && !m_Writer.getFile().equals(file.getAbsoluteFile())) {
+      if (isLoggingEnabled())
+	getLogger().info("Rotating output file: " + m_Writer.getFile() + " -> " + file);
+      result = closeWriter();
+    }
+
+    if (result == null) {
+      try {
+	if (m_Writer == null)
+	  m_Writer = new PersistentFileWriter(file, true, m_Encoding.charsetValue(), m_FlushSize, m_FlushInterval, m_Sync);
+	m_Writer.writeLine(line);
+      }
+      catch (Exception e) {
+	result = handleException("Failed to write to '" + file + "'", e);
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Gets called when the actor needs to be re-setUp when a variable changes.
    *
@@ -472,23 +797,72 @@ public class DumpFile
   }
 
   /**
-   * Executes the flow item.
+   * Returns whether the actor accepts {@link BatchToken} input in its
+   * current configuration.
    *
-   * @return		null if everything is fine, otherwise error message
+   * @return		true if in append mode
    */
   @Override
-  protected String doExecute() {
+  public boolean acceptsBatches() {
+    return m_Append;
+  }
+
+  /**
+   * Writes the payload to the output file.
+   *
+   * @param payload	the payload to write
+   * @return		null if successful, otherwise error message
+   */
+  protected String write(Object payload) {
     String    result;
+    File      file;
 
     result = null;
 
-    if (m_OutputFile.isDirectory())
-      result = "Output file points to a directory: " + m_OutputFile;
+    file = determineOutputFile(payload);
+    if (file.isDirectory())
+      result = "Output file points to a directory: " + file;
 
     if (result == null) {
-      m_Buffer.add("" + m_InputToken.getPayload());
-      if ((m_Buffer.size() >= m_BufferSize) || !m_Append)
-        result = writeToDisk();
+      if (m_KeepOpen && m_Append) {
+	result = writeToOpenFile(file, "" + payload);
+      }
+      else {
+	// output file changed? write buffered lines to previous file first
+	if ((m_BufferFile != null) && !m_BufferFile.equals(file))
+	  result = writeToDisk();
+	if (result == null) {
+	  m_BufferFile = file;
+	  m_Buffer.add("" + payload);
+	  if ((m_Buffer.size() >= m_BufferSize) || !m_Append)
+	    result = writeToDisk();
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String	result;
+
+    result = null;
+
+    if (m_InputToken instanceof BatchToken) {
+      for (Object payload: ((BatchToken) m_InputToken).getPayloads()) {
+	result = write(payload);
+	if (result != null)
+	  break;
+      }
+    }
+    else {
+      result = write(m_InputToken.getPayload());
     }
 
     return result;
@@ -501,6 +875,7 @@ public class DumpFile
   public void wrapUp() {
     // write any left over data to disk
     performFlush();
+    closeWriter();
 
     super.wrapUp();
   }
@@ -515,5 +890,13 @@ public class DumpFile
       }
       writeToDisk();
     }
+    if (m_Writer != null) {
+      try {
+	m_Writer.flush();
+      }
+      catch (Exception e) {
+	handleException("Failed to flush file: " + m_Writer.getFile(), e);
+      }
+    }
   }
 }
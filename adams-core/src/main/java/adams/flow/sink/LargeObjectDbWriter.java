@@ -15,7 +15,7 @@
 
 /*
  * LargeObjectDbWriter.java
- * Copyright (C) 2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2022-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.sink;
@@ -328,12 +328,12 @@ public class LargeObjectDbWriter
 	  catch (Exception e) {
 	    return handleException("Failed to convert input data to byte array using: " + OptionUtils.getCommandLine(m_BlobConversion), e);
 	  }
-	  blob = m_DatabaseConnection.getConnection(false).createBlob();
+	  blob = stmt.getConnection().createBlob();
 	  blob.setBytes(1, bytes);
 	  stmt.setBlob(1, blob);
 	  break;
 	case CLOB:
-	  clob = m_DatabaseConnection.getConnection(false).createClob();
+	  clob = stmt.getConnection().createClob();
 	  clob.setString(1, (String) m_InputToken.getPayload());
 	  stmt.setClob(1, clob);
 	  break;
@@ -15,7 +15,7 @@
 
 /*
  * AbstractListTables.java
- * Copyright (C) 2015-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.source;
@@ -24,6 +24,7 @@ import adams.core.QuickInfoHelper;
 import adams.core.base.BaseRegExp;
 import adams.db.SQLUtils;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -179,15 +180,18 @@ public abstract class AbstractListTables
   @Override
   protected String queryDatabase() {
     String		result;
+    Connection		conn;
     ResultSet		rs;
     List<String>	tables;
 
     result = null;
     tables = new ArrayList<>();
 
-    rs = null;
+    conn = null;
+    rs   = null;
     try {
-      rs = m_DatabaseConnection.getConnection(false).getMetaData().getTables(null, null, "%", null);
+      conn = m_DatabaseConnection.borrowConnection();
+      rs   = conn.getMetaData().getTables(null, null, "%", null);
       while (rs.next())
 	tables.add(rs.getString(3));
     }
@@ -196,6 +200,7 @@ public abstract class AbstractListTables
     }
     finally {
       SQLUtils.closeAll(rs);
+      m_DatabaseConnection.releaseConnection(conn);
     }
 
     if (result == null) {
@@ -15,7 +15,7 @@
 
 /*
  * CallableSource.java
- * Copyright (C) 2009-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.source;
@@ -167,7 +167,7 @@ public class CallableSource
    * @return		the generated token
    */
   public Token output() {
-    return ((OutputProducer) m_CallableActor).output();
+    return callableOutput();
   }
 
   /**
@@ -177,6 +177,6 @@ public class CallableSource
    * @return		true if there is pending output
    */
   public boolean hasPendingOutput() {
-    return (m_CallableActor != null) && ((OutputProducer) m_CallableActor).hasPendingOutput();
+    return hasPendingCallableOutput();
   }
 }
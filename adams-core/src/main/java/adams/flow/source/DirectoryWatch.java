@@ -0,0 +1,655 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DirectoryWatch.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.source;
+
+import adams.core.QuickInfoHelper;
+import adams.core.base.BaseRegExp;
+import adams.core.io.DirectoryWatcher;
+import adams.core.io.PlaceholderDirectory;
+import adams.core.io.filecomplete.AbstractFileCompleteCheck;
+import adams.core.io.filecomplete.NoCheck;
+import adams.flow.core.Token;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * Watches a directory for new or changed files and outputs them as soon as they are available, using the file system's notifications rather than repeatedly listing the directory. Falls back to polling if the file system does not support notifications.<br>
+ * Files only get output once they haven't changed for the debounce period and are considered complete by the check scheme.<br>
+ * NB: The user needs to stop the flow as the DirectoryWatch source will never stop, as it assumes that there will be more files coming.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: DirectoryWatch
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseText&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow gets stopped in case this actor encounters an error;
+ * &nbsp;&nbsp;&nbsp; useful for critical actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-dir &lt;adams.core.io.PlaceholderDirectory&gt; (property: directory)
+ * &nbsp;&nbsp;&nbsp;The directory to watch.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-recursive &lt;boolean&gt; (property: recursive)
+ * &nbsp;&nbsp;&nbsp;If enabled, sub-directories (including ones created later on) get watched
+ * &nbsp;&nbsp;&nbsp;as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-regexp &lt;adams.core.base.BaseRegExp&gt; (property: regExp)
+ * &nbsp;&nbsp;&nbsp;The regular expression that the file names (not path) must match.
+ * &nbsp;&nbsp;&nbsp;default: .*
+ * </pre>
+ *
+ * <pre>-debounce &lt;int&gt; (property: debounce)
+ * &nbsp;&nbsp;&nbsp;The time in msec without further changes before a file gets output.
+ * &nbsp;&nbsp;&nbsp;default: 500
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ *
+ * <pre>-check &lt;adams.core.io.filecomplete.AbstractFileCompleteCheck&gt; (property: check)
+ * &nbsp;&nbsp;&nbsp;The check scheme for determining whether a file is complete.
+ * &nbsp;&nbsp;&nbsp;default: adams.core.io.filecomplete.NoCheck
+ * </pre>
+ *
+ * <pre>-include-existing &lt;boolean&gt; (property: includeExisting)
+ * &nbsp;&nbsp;&nbsp;If enabled, files already present when the flow starts get output as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-poll-interval &lt;int&gt; (property: pollInterval)
+ * &nbsp;&nbsp;&nbsp;The interval in msec for listing the directory when falling back to polling.
+ * &nbsp;&nbsp;&nbsp;default: 1000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-force-polling &lt;boolean&gt; (property: forcePolling)
+ * &nbsp;&nbsp;&nbsp;If enabled, polling is used instead of file system notifications, e.g.,
+ * &nbsp;&nbsp;&nbsp;for network shares that don't generate notifications.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-output-array &lt;boolean&gt; (property: outputArray)
+ * &nbsp;&nbsp;&nbsp;If enabled, the files that became available together get output as array
+ * &nbsp;&nbsp;&nbsp;rather than one by one.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DirectoryWatch
+  extends AbstractSource {
+
+  private static final long serialVersionUID = -2406612785497014574L;
+
+  /** the interval in msec for checking whether the flow got stopped. */
+  public final static int STOP_CHECK_INTERVAL = 100;
+
+  /** the directory to watch. */
+  protected PlaceholderDirectory m_Directory;
+
+  /** whether to watch sub-directories. */
+  protected boolean m_Recursive;
+
+  /** the regular expression for the file names. */
+  protected BaseRegExp m_RegExp;
+
+  /** the debounce period in msec. */
+  protected int m_Debounce;
+
+  /** the check whether files are complete. */
+  protected AbstractFileCompleteCheck m_Check;
+
+  /** whether to output existing files. */
+  protected boolean m_IncludeExisting;
+
+  /** the poll interval in msec. */
+  protected int m_PollInterval;
+
+  /** whether to enforce polling. */
+  protected boolean m_ForcePolling;
+
+  /** whether to output an array. */
+  protected boolean m_OutputArray;
+
+  /** the watcher in use. */
+  protected transient DirectoryWatcher m_Watcher;
+
+  /** the files waiting to be output. */
+  protected transient List<File> m_Queue;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Watches a directory for new or changed files and outputs them as soon "
+	+ "as they are available, using the file system's notifications rather "
+	+ "than repeatedly listing the directory. Falls back to polling if the "
+	+ "file system does not support notifications.\n"
+	+ "Files only get output once they haven't changed for the debounce "
+	+ "period and are considered complete by the check scheme.\n"
+	+ "NB: The user needs to stop the flow as the DirectoryWatch source will "
+	+ "never stop, as it assumes that there will be more files coming.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "dir", "directory",
+      new PlaceholderDirectory("."));
+
+    m_OptionManager.add(
+      "recursive", "recursive",
+      false);
+
+    m_OptionManager.add(
+      "regexp", "regExp",
+      new BaseRegExp(BaseRegExp.MATCH_ALL));
+
+    m_OptionManager.add(
+      "debounce", "debounce",
+      500, 0, null);
+
+    m_OptionManager.add(
+      "check", "check",
+      new NoCheck());
+
+    m_OptionManager.add(
+      "include-existing", "includeExisting",
+      false);
+
+    m_OptionManager.add(
+      "poll-interval", "pollInterval",
+      1000, 1, null);
+
+    m_OptionManager.add(
+      "force-polling", "forcePolling",
+      false);
+
+    m_OptionManager.add(
+      "output-array", "outputArray",
+      false);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    closeWatcher();
+    m_Queue = new ArrayList<>();
+  }
+
+  /**
+   * Sets the directory to watch.
+   *
+   * @param value	the directory
+   */
+  public void setDirectory(PlaceholderDirectory value) {
+    m_Directory = value;
+    reset();
+  }
+
+  /**
+   * Returns the directory to watch.
+   *
+   * @return		the directory
+   */
+  public PlaceholderDirectory getDirectory() {
+    return m_Directory;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String directoryTipText() {
+    return "The directory to watch.";
+  }
+
+  /**
+   * Sets whether to watch sub-directories as well.
+   *
+   * @param value	true if recursive
+   */
+  public void setRecursive(boolean value) {
+    m_Recursive = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to watch sub-directories as well.
+   *
+   * @return		true if recursive
+   */
+  public boolean getRecursive() {
+    return m_Recursive;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String recursiveTipText() {
+    return "If enabled, sub-directories (including ones created later on) get watched as well.";
+  }
+
+  /**
+   * Sets the regular expression for the file names.
+   *
+   * @param value	the expression
+   */
+  public void setRegExp(BaseRegExp value) {
+    m_RegExp = value;
+    reset();
+  }
+
+  /**
+   * Returns the regular expression for the file names.
+   *
+   * @return		the expression
+   */
+  public BaseRegExp getRegExp() {
+    return m_RegExp;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String regExpTipText() {
+    return "The regular expression that the file names (not path) must match.";
+  }
+
+  /**
+   * Sets the time without changes before a file gets output.
+   *
+   * @param value	the debounce period in msec
+   */
+  public void setDebounce(int value) {
+    if (getOptionManager().isValid("debounce", value)) {
+      m_Debounce = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the time without changes before a file gets output.
+   *
+   * @return		the debounce period in msec
+   */
+  public int getDebounce() {
+    return m_Debounce;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String debounceTipText() {
+    return "The time in msec without further changes before a file gets output.";
+  }
+
+  /**
+   * Sets the check scheme for determining whether a file is complete.
+   *
+   * @param value	the check scheme
+   */
+  public void setCheck(AbstractFileCompleteCheck value) {
+    m_Check = value;
+    reset();
+  }
+
+  /**
+   * Returns the check scheme for determining whether a file is complete.
+   *
+   * @return		the check scheme
+   */
+  public AbstractFileCompleteCheck getCheck() {
+    return m_Check;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String checkTipText() {
+    return "The check scheme for determining whether a file is complete.";
+  }
+
+  /**
+   * Sets whether to output files already present at start up.
+   *
+   * @param value	true if to output existing files
+   */
+  public void setIncludeExisting(boolean value) {
+    m_IncludeExisting = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to output files already present at start up.
+   *
+   * @return		true if to output existing files
+   */
+  public boolean getIncludeExisting() {
+    return m_IncludeExisting;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String includeExistingTipText() {
+    return "If enabled, files already present when the flow starts get output as well.";
+  }
+
+  /**
+   * Sets the interval for listing the directory when polling.
+   *
+   * @param value	the interval in msec
+   */
+  public void setPollInterval(int value) {
+    if (getOptionManager().isValid("pollInterval", value)) {
+      m_PollInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the interval for listing the directory when polling.
+   *
+   * @return		the interval in msec
+   */
+  public int getPollInterval() {
+    return m_PollInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String pollIntervalTipText() {
+    return "The interval in msec for listing the directory when falling back to polling.";
+  }
+
+  /**
+   * Sets whether to enforce polling.
+   *
+   * @param value	true if to poll
+   */
+  public void setForcePolling(boolean value) {
+    m_ForcePolling = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to enforce polling.
+   *
+   * @return		true if to poll
+   */
+  public boolean getForcePolling() {
+    return m_ForcePolling;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String forcePollingTipText() {
+    return
+      "If enabled, polling is used instead of file system notifications, "
+	+ "e.g., for network shares that don't generate notifications.";
+  }
+
+  /**
+   * Sets whether to output the files as array.
+   *
+   * @param value	true if to output an array
+   */
+  public void setOutputArray(boolean value) {
+    m_OutputArray = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to output the files as array.
+   *
+   * @return		true if to output an array
+   */
+  public boolean getOutputArray() {
+    return m_OutputArray;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputArrayTipText() {
+    return
+      "If enabled, the files that became available together get output as "
+	+ "array rather than one by one.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String		result;
+    List<String>	options;
+
+    result  = QuickInfoHelper.toString(this, "directory", m_Directory, "dir: ");
+    result += QuickInfoHelper.toString(this, "regExp", m_RegExp, ", regexp: ");
+    result += QuickInfoHelper.toString(this, "debounce", m_Debounce, ", debounce: ");
+    options = new ArrayList<>();
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "recursive", m_Recursive, "recursive"));
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "includeExisting", m_IncludeExisting, "existing"));
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "forcePolling", m_ForcePolling, "polling"));
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "outputArray", m_OutputArray, "array"));
+    result += QuickInfoHelper.flatten(options);
+
+    return result;
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		<!-- flow-generates-start -->java.lang.String.class<!-- flow-generates-end -->
+   */
+  @Override
+  public Class[] generates() {
+    if (m_OutputArray)
+      return new Class[]{String[].class};
+    else
+      return new Class[]{String.class};
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String	result;
+
+    result = null;
+
+    if (m_Watcher == null) {
+      m_Watcher = new DirectoryWatcher(m_Directory.getAbsoluteFile(), m_Recursive);
+      m_Watcher.setLoggingLevel(getLoggingLevel());
+      m_Watcher.setRegExp(m_RegExp);
+      m_Watcher.setDebounce(m_Debounce);
+      m_Watcher.setCheck(m_Check);
+      m_Watcher.setIncludeExisting(m_IncludeExisting);
+      m_Watcher.setPollInterval(m_PollInterval);
+      m_Watcher.setForcePolling(m_ForcePolling);
+      try {
+	m_Watcher.start();
+      }
+      catch (Exception e) {
+	closeWatcher();
+	result = handleException("Failed to watch directory: " + m_Directory, e);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return m_Executed && (m_Watcher != null);
+  }
+
+  /**
+   * Returns the generated token. Blocks till files are available or the
+   * flow gets stopped.
+   *
+   * @return		the generated token, null if stopped
+   */
+  @Override
+  public Token output() {
+    Token	result;
+    String[]	files;
+    int		i;
+
+    result = null;
+
+    while (m_Queue.isEmpty() && !isStopped() && (m_Watcher != null)) {
+      try {
+	m_Queue.addAll(m_Watcher.poll(STOP_CHECK_INTERVAL));
+      }
+      catch (Exception e) {
+	getLogger().severe(handleException("Failed to watch directory: " + m_Directory, e));
+	closeWatcher();
+      }
+    }
+
+    if (!m_Queue.isEmpty() && !isStopped()) {
+      if (m_OutputArray) {
+	files = new String[m_Queue.size()];
+	for (i = 0; i < m_Queue.size(); i++)
+	  files[i] = m_Queue.get(i).getAbsolutePath();
+	m_Queue.clear();
+	result = new Token(files);
+      }
+      else {
+	result = new Token(m_Queue.remove(0).getAbsolutePath());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Closes the watcher, if any.
+   */
+  protected void closeWatcher() {
+    if (m_Watcher != null) {
+      m_Watcher.close();
+      m_Watcher = null;
+    }
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    closeWatcher();
+    if (m_Queue != null)
+      m_Queue.clear();
+
+    super.wrapUp();
+  }
+}
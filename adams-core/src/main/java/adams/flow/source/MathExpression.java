@@ -15,7 +15,7 @@
 
 /*
  * MathExpression.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.source;
@@ -527,7 +527,7 @@ public class MathExpression
 	getLogger().info("--> expanded: " + exp);
 
       // evaluate the expression
-      res = MathematicalExpression.evaluate(exp, new HashMap());
+      res = MathematicalExpression.evaluate(exp, new HashMap(), exp.equals(m_Expression.getValue()));
 
       if (res != null) {
 	res = applyRounding(res);
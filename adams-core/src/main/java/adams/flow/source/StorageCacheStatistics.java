@@ -0,0 +1,232 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StorageCacheStatistics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.source;
+
+import adams.core.QuickInfoHelper;
+import adams.core.WeightedCache;
+import adams.core.base.BaseRegExp;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.flow.core.Token;
+
+import java.util.Iterator;
+
+/**
+ <!-- globalinfo-start -->
+ * Outputs the statistics of the storage caches (as initialized by adams.flow.standalone.InitStorageCache) as spreadsheet, one row per cache.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.SpreadSheet<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: StorageCacheStatistics
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow gets stopped in case this actor encounters an error;
+ * &nbsp;&nbsp;&nbsp; useful for critical actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-regexp &lt;adams.core.base.BaseRegExp&gt; (property: regExp)
+ * &nbsp;&nbsp;&nbsp;The regular expression that the cache names must match.
+ * &nbsp;&nbsp;&nbsp;default: .*
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StorageCacheStatistics
+  extends AbstractSimpleSource {
+
+  private static final long serialVersionUID = -3159128716478226015L;
+
+  /** the regular expression that the cache names must match. */
+  protected BaseRegExp m_RegExp;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Outputs the statistics of the storage caches (as initialized by "
+	+ adams.flow.standalone.InitStorageCache.class.getName() + ") as "
+	+ "spreadsheet, one row per cache.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	    "regexp", "regExp",
+	    new BaseRegExp(BaseRegExp.MATCH_ALL));
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    return QuickInfoHelper.toString(this, "regExp", m_RegExp, "caches: ");
+  }
+
+  /**
+   * Sets the regular expression that the cache names must match.
+   *
+   * @param value	the expression
+   */
+  public void setRegExp(BaseRegExp value) {
+    m_RegExp = value;
+    reset();
+  }
+
+  /**
+   * Returns the regular expression that the cache names must match.
+   *
+   * @return		the expression
+   */
+  public BaseRegExp getRegExp() {
+    return m_RegExp;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String regExpTipText() {
+    return "The regular expression that the cache names must match.";
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the Class of the generated tokens
+   */
+  @Override
+  public Class[] generates() {
+    return new Class[]{SpreadSheet.class};
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    SpreadSheet				sheet;
+    Row					row;
+    Iterator<String>			names;
+    String				name;
+    WeightedCache<String,Object>	cache;
+
+    sheet = new DefaultSpreadSheet();
+    sheet.setName("Cache statistics");
+    row = sheet.getHeaderRow();
+    row.addCell("C").setContentAsString("Cache");
+    row.addCell("E").setContentAsString("Entries");
+    row.addCell("W").setContentAsString("Weight");
+    row.addCell("ME").setContentAsString("MaxEntries");
+    row.addCell("MW").setContentAsString("MaxWeight");
+    row.addCell("H").setContentAsString("Hits");
+    row.addCell("M").setContentAsString("Misses");
+    row.addCell("HR").setContentAsString("HitRatio");
+    row.addCell("EV").setContentAsString("Evictions");
+    row.addCell("EX").setContentAsString("Expirations");
+    row.addCell("SE").setContentAsString("SoftEntries");
+    row.addCell("SH").setContentAsString("SoftHits");
+    row.addCell("DE").setContentAsString("DiskEntries");
+    row.addCell("DH").setContentAsString("DiskHits");
+    row.addCell("S").setContentAsString("Spills");
+
+    names = getStorageHandler().getStorage().caches();
+    while (names.hasNext()) {
+      name = names.next();
+      if (!m_RegExp.isMatch(name))
+	continue;
+      cache = getStorageHandler().getStorage().getCache(name);
+      if (cache == null)
+	continue;
+      row = sheet.addRow();
+      row.addCell("C").setContentAsString(name);
+      row.addCell("E").setContent(cache.sizeUsed());
+      row.addCell("W").setContent(cache.getWeight());
+      row.addCell("ME").setContent(cache.getMaxEntries());
+      row.addCell("MW").setContent(cache.getMaxWeight());
+      row.addCell("H").setContent(cache.getNumHits());
+      row.addCell("M").setContent(cache.getNumMisses());
+      if (!Double.isNaN(cache.getHitRatio()))
+	row.addCell("HR").setContent(cache.getHitRatio());
+      row.addCell("EV").setContent(cache.getNumEvictions());
+      row.addCell("EX").setContent(cache.getNumExpirations());
+      row.addCell("SE").setContent(cache.sizeSoft());
+      row.addCell("SH").setContent(cache.getNumSoftHits());
+      row.addCell("DE").setContent(cache.sizeDisk());
+      row.addCell("DH").setContent(cache.getNumDiskHits());
+      row.addCell("S").setContent(cache.getNumSpills());
+    }
+
+    m_OutputToken = new Token(sheet);
+
+    return null;
+  }
+}
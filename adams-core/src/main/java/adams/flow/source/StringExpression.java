@@ -15,7 +15,7 @@
 
 /*
  * StringExpression.java
- * Copyright (C) 2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.source;
@@ -357,7 +357,7 @@ public class StringExpression
 	getLogger().info("--> expanded: " + exp);
       
       // get input
-      str = adams.parser.StringExpression.evaluate(exp, new HashMap());
+      str = adams.parser.StringExpression.evaluate(exp, new HashMap(), exp.equals(m_Expression.getValue()));
       m_OutputToken = new Token(str);
       if (isLoggingEnabled())
 	getLogger().info("--> " + str);
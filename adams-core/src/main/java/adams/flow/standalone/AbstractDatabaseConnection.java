@@ -29,6 +29,7 @@ import adams.core.Placeholders;
 import adams.core.QuickInfoHelper;
 import adams.core.base.BasePassword;
 import adams.core.io.PlaceholderFile;
+import adams.core.option.UserMode;
 import adams.db.JdbcUrl;
 import adams.db.datatype.AbstractDataTypeSetup;
 import adams.db.datatype.DummySetup;
@@ -84,6 +85,21 @@ public abstract class AbstractDatabaseConnection
   /** the parameters file to load. */
   protected PlaceholderFile m_ParametersFile;
 
+  /** the maximum number of pooled connections (0 = no pooling). */
+  protected int m_PoolSize;
+
+  /** whether to validate pooled connections on borrow. */
+  protected boolean m_PoolValidate;
+
+  /** the time in msec after which idle pooled connections get closed. */
+  protected int m_PoolMaxIdle;
+
+  /** the number of prepared statements to cache per pooled connection. */
+  protected int m_PoolStatementCache;
+
+  /** the maximum time in msec to wait for a pooled connection. */
+  protected int m_PoolTimeout;
+
   /** the database connection in use. */
   protected transient adams.db.AbstractDatabaseConnection m_Connection;
 
@@ -137,6 +153,26 @@ public abstract class AbstractDatabaseConnection
     m_OptionManager.add(
       "parameters-file", "parametersFile",
       new PlaceholderFile());
+
+    m_OptionManager.add(
+      "pool-size", "poolSize",
+      0, 0, null);
+
+    m_OptionManager.add(
+      "pool-validate", "poolValidate",
+      true).setMinUserMode(UserMode.EXPERT);
+
+    m_OptionManager.add(
+      "pool-max-idle", "poolMaxIdle",
+      60000, 0, null).setMinUserMode(UserMode.EXPERT);
+
+    m_OptionManager.add(
+      "pool-statement-cache", "poolStatementCache",
+      20, 0, null).setMinUserMode(UserMode.EXPERT);
+
+    m_OptionManager.add(
+      "pool-timeout", "poolTimeout",
+      30000, 0, null).setMinUserMode(UserMode.EXPERT);
   }
 
   /**
@@ -158,6 +194,8 @@ public abstract class AbstractDatabaseConnection
       result += QuickInfoHelper.toString(this, "stopFlowIfCanceled", m_StopFlowIfCanceled, "stop flow", ", ");
     }
     result += QuickInfoHelper.toString(this, "closeConnection", m_CloseConnection, "close connection", ", ");
+    if (QuickInfoHelper.hasVariable(this, "poolSize") || (m_PoolSize > 0))
+      result += QuickInfoHelper.toString(this, "poolSize", m_PoolSize, ", pool: ");
 
     return result;
   }
@@ -534,6 +572,161 @@ public abstract class AbstractDatabaseConnection
     return ParametersFromFileHelper.parametersFileTipText();
   }
 
+  /**
+   * Sets the maximum number of pooled connections that actors can borrow for
+   * their operations.
+   *
+   * @param value	the maximum, 0 to turn off pooling
+   */
+  public void setPoolSize(int value) {
+    if (getOptionManager().isValid("poolSize", value)) {
+      m_PoolSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of pooled connections that actors can borrow
+   * for their operations.
+   *
+   * @return		the maximum, 0 if pooling is turned off
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolSizeTipText() {
+    return "The maximum number of pooled connections that actors borrow for their operations, allowing concurrent queries; 0 turns off pooling. When pooling without auto-commit, each operation gets committed (or rolled back on error) individually, i.e., transactions do not span multiple operations.";
+  }
+
+  /**
+   * Sets whether to validate pooled connections on borrow.
+   *
+   * @param value	true if to validate
+   */
+  public void setPoolValidate(boolean value) {
+    m_PoolValidate = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to validate pooled connections on borrow.
+   *
+   * @return		true if to validate
+   */
+  public boolean getPoolValidate() {
+    return m_PoolValidate;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolValidateTipText() {
+    return "If enabled, idle pooled connections get validated before being handed out.";
+  }
+
+  /**
+   * Sets the time after which idle pooled connections get closed.
+   *
+   * @param value	the time in msec, 0 for no eviction
+   */
+  public void setPoolMaxIdle(int value) {
+    if (getOptionManager().isValid("poolMaxIdle", value)) {
+      m_PoolMaxIdle = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the time after which idle pooled connections get closed.
+   *
+   * @return		the time in msec, 0 for no eviction
+   */
+  public int getPoolMaxIdle() {
+    return m_PoolMaxIdle;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolMaxIdleTipText() {
+    return "The time in msec after which idle pooled connections get closed; 0 keeps them open.";
+  }
+
+  /**
+   * Sets the number of prepared statements to cache per pooled connection.
+   *
+   * @param value	the number of statements, 0 to turn off caching
+   */
+  public void setPoolStatementCache(int value) {
+    if (getOptionManager().isValid("poolStatementCache", value)) {
+      m_PoolStatementCache = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of prepared statements to cache per pooled connection.
+   *
+   * @return		the number of statements, 0 if caching is turned off
+   */
+  public int getPoolStatementCache() {
+    return m_PoolStatementCache;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolStatementCacheTipText() {
+    return "The number of prepared statements to cache per pooled connection; 0 turns off caching.";
+  }
+
+  /**
+   * Sets the maximum time to wait for a pooled connection.
+   *
+   * @param value	the time in msec
+   */
+  public void setPoolTimeout(int value) {
+    if (getOptionManager().isValid("poolTimeout", value)) {
+      m_PoolTimeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum time to wait for a pooled connection.
+   *
+   * @return		the time in msec
+   */
+  public int getPoolTimeout() {
+    return m_PoolTimeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolTimeoutTipText() {
+    return "The maximum time in msec to wait for a pooled connection to become available.";
+  }
+
   /**
    * Performs the interaction with the user.
    *
@@ -584,6 +777,7 @@ public abstract class AbstractDatabaseConnection
 
       if (result == null) {
 	conn = getConnection();
+	configurePool(conn);
 	msg = null;
 	if (!conn.isConnected() && !conn.getConnectOnStartUp()) {
 	  try {
@@ -612,6 +806,25 @@ public abstract class AbstractDatabaseConnection
     return result;
   }
 
+  /**
+   * Applies the pool settings to the connection. Only updates settings that
+   * differ, as changes close the current pool.
+   *
+   * @param conn	the connection to configure
+   */
+  protected void configurePool(adams.db.AbstractDatabaseConnection conn) {
+    if (conn.getPoolSize() != m_PoolSize)
+      conn.setPoolSize(m_PoolSize);
+    if (conn.getPoolValidate() != m_PoolValidate)
+      conn.setPoolValidate(m_PoolValidate);
+    if (conn.getPoolMaxIdle() != m_PoolMaxIdle)
+      conn.setPoolMaxIdle(m_PoolMaxIdle);
+    if (conn.getPoolStatementCache() != m_PoolStatementCache)
+      conn.setPoolStatementCache(m_PoolStatementCache);
+    if (conn.getPoolTimeout() != m_PoolTimeout)
+      conn.setPoolTimeout(m_PoolTimeout);
+  }
+
   /**
    * Returns the database connection in use. Reconnects the database, to make
    * sure that the database connection is the correct one.
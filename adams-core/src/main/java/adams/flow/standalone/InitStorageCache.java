@@ -15,16 +15,20 @@
 
 /*
  * InitStorageCache.java
- * Copyright (C) 2011-2013 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.standalone;
 
 import adams.core.QuickInfoHelper;
+import adams.core.WeightedCache;
+import adams.core.io.PlaceholderDirectory;
 
 /**
  <!-- globalinfo-start -->
- * Adds a LRU cache in the responsible storage handler (usually the Flow actor).
+ * Adds a LRU cache in the responsible storage handler (usually the Flow actor).<br>
+ * Apart from the number of entries, the cache can be bounded by the estimated memory size of the stored values. Entries can expire after a certain time. Evicted values can be kept as soft references (until the garbage collector needs the memory) and&#47;or written to disk; these get moved back into the cache when accessed again.<br>
+ * The cache statistics (hits, misses, evictions, etc) get logged when the flow finishes, if logging is at least INFO. They are also available through the adams.flow.source.StorageCacheStatistics source.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -67,11 +71,41 @@ import adams.core.QuickInfoHelper;
  * </pre>
  *
  * <pre>-size &lt;int&gt; (property: size)
- * &nbsp;&nbsp;&nbsp;The size of the LRU cache.
+ * &nbsp;&nbsp;&nbsp;The size of the LRU cache (number of entries).
  * &nbsp;&nbsp;&nbsp;default: 50
  * &nbsp;&nbsp;&nbsp;minimum: 1
  * </pre>
  *
+ * <pre>-max-weight &lt;long&gt; (property: maxWeight)
+ * &nbsp;&nbsp;&nbsp;The maximum estimated memory size of all the cached values in bytes; use
+ * &nbsp;&nbsp;&nbsp;-1 for unlimited.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-expiry &lt;long&gt; (property: expiry)
+ * &nbsp;&nbsp;&nbsp;The time in milli-seconds after which cached values expire; use -1 to never
+ * &nbsp;&nbsp;&nbsp;expire.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-soft-references &lt;boolean&gt; (property: softReferences)
+ * &nbsp;&nbsp;&nbsp;If enabled, evicted values are kept as soft references, i.e., until the
+ * &nbsp;&nbsp;&nbsp;garbage collector needs the memory.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-spill &lt;boolean&gt; (property: spill)
+ * &nbsp;&nbsp;&nbsp;If enabled, evicted (serializable) values get written to the spill directory.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-spill-dir &lt;adams.core.io.PlaceholderDirectory&gt; (property: spillDir)
+ * &nbsp;&nbsp;&nbsp;The directory to write evicted values to.
+ * &nbsp;&nbsp;&nbsp;default: ${TMP}
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -89,6 +123,21 @@ public class InitStorageCache
   /** the size of the LRU cache. */
   protected int m_Size;
 
+  /** the maximum estimated size of the cached values. */
+  protected long m_MaxWeight;
+
+  /** the time after which values expire. */
+  protected long m_Expiry;
+
+  /** whether to keep evicted values as soft references. */
+  protected boolean m_SoftReferences;
+
+  /** whether to write evicted values to disk. */
+  protected boolean m_Spill;
+
+  /** the directory to write evicted values to. */
+  protected PlaceholderDirectory m_SpillDir;
+
   /**
    * Returns a string describing the object.
    *
@@ -97,7 +146,15 @@ public class InitStorageCache
   @Override
   public String globalInfo() {
     return
-        "Adds a LRU cache in the responsible storage handler (usually the Flow actor).";
+        "Adds a LRU cache in the responsible storage handler (usually the Flow actor).\n"
+	  + "Apart from the number of entries, the cache can be bounded by the estimated "
+	  + "memory size of the stored values. Entries can expire after a certain time. "
+	  + "Evicted values can be kept as soft references (until the garbage collector "
+	  + "needs the memory) and/or written to disk; these get moved back into the "
+	  + "cache when accessed again.\n"
+	  + "The cache statistics (hits, misses, evictions, etc) get logged when the "
+	  + "flow finishes, if logging is at least INFO. They are also available "
+	  + "through the " + adams.flow.source.StorageCacheStatistics.class.getName() + " source.";
   }
 
   /**
@@ -114,6 +171,26 @@ public class InitStorageCache
     m_OptionManager.add(
 	    "size", "size",
 	    50, 1, null);
+
+    m_OptionManager.add(
+	    "max-weight", "maxWeight",
+	    -1L, -1L, null);
+
+    m_OptionManager.add(
+	    "expiry", "expiry",
+	    -1L, -1L, null);
+
+    m_OptionManager.add(
+	    "soft-references", "softReferences",
+	    false);
+
+    m_OptionManager.add(
+	    "spill", "spill",
+	    false);
+
+    m_OptionManager.add(
+	    "spill-dir", "spillDir",
+	    new PlaceholderDirectory("${TMP}"));
   }
 
   /**
@@ -124,12 +201,21 @@ public class InitStorageCache
   @Override
   public String getQuickInfo() {
     String	result;
+    String	value;
 
     result  = QuickInfoHelper.toString(this, "cache", m_Cache);
     if (result == null)
       result = "";
     result += "/";
     result += QuickInfoHelper.toString(this, "size", m_Size);
+    value   = QuickInfoHelper.toString(this, "maxWeight", (m_MaxWeight > 0 ? m_MaxWeight : null), ", max weight: ");
+    if (value != null)
+      result += value;
+    value   = QuickInfoHelper.toString(this, "expiry", (m_Expiry > 0 ? m_Expiry : null), ", expiry: ");
+    if (value != null)
+      result += value;
+    result += QuickInfoHelper.toString(this, "softReferences", m_SoftReferences, "soft", ", ");
+    result += QuickInfoHelper.toString(this, "spill", m_Spill, "spill", ", ");
 
     return result;
   }
@@ -194,7 +280,162 @@ public class InitStorageCache
    *             displaying in the GUI or for listing the options.
    */
   public String sizeTipText() {
-    return "The size of the LRU cache.";
+    return "The size of the LRU cache (number of entries).";
+  }
+
+  /**
+   * Sets the maximum estimated memory size of the cached values.
+   *
+   * @param value	the size in bytes, -1 for unlimited
+   */
+  public void setMaxWeight(long value) {
+    if (value >= -1) {
+      m_MaxWeight = value;
+      reset();
+    }
+    else {
+      getLogger().severe("Max weight must be at least -1, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the maximum estimated memory size of the cached values.
+   *
+   * @return 		the size in bytes, -1 for unlimited
+   */
+  public long getMaxWeight() {
+    return m_MaxWeight;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String maxWeightTipText() {
+    return "The maximum estimated memory size of all the cached values in bytes; use -1 for unlimited.";
+  }
+
+  /**
+   * Sets the time after which cached values expire.
+   *
+   * @param value	the time in msec, -1 for never
+   */
+  public void setExpiry(long value) {
+    if (value >= -1) {
+      m_Expiry = value;
+      reset();
+    }
+    else {
+      getLogger().severe("Expiry must be at least -1, provided: " + value);
+    }
+  }
+
+  /**
+   * Returns the time after which cached values expire.
+   *
+   * @return 		the time in msec, -1 for never
+   */
+  public long getExpiry() {
+    return m_Expiry;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String expiryTipText() {
+    return "The time in milli-seconds after which cached values expire; use -1 to never expire.";
+  }
+
+  /**
+   * Sets whether to keep evicted values as soft references.
+   *
+   * @param value	true if to keep
+   */
+  public void setSoftReferences(boolean value) {
+    m_SoftReferences = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to keep evicted values as soft references.
+   *
+   * @return 		true if to keep
+   */
+  public boolean getSoftReferences() {
+    return m_SoftReferences;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String softReferencesTipText() {
+    return "If enabled, evicted values are kept as soft references, i.e., until the garbage collector needs the memory.";
+  }
+
+  /**
+   * Sets whether to write evicted values to disk.
+   *
+   * @param value	true if to write to disk
+   */
+  public void setSpill(boolean value) {
+    m_Spill = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to write evicted values to disk.
+   *
+   * @return 		true if to write to disk
+   */
+  public boolean getSpill() {
+    return m_Spill;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String spillTipText() {
+    return "If enabled, evicted (serializable) values get written to the spill directory.";
+  }
+
+  /**
+   * Sets the directory to write evicted values to.
+   *
+   * @param value	the directory
+   */
+  public void setSpillDir(PlaceholderDirectory value) {
+    m_SpillDir = value;
+    reset();
+  }
+
+  /**
+   * Returns the directory to write evicted values to.
+   *
+   * @return 		the directory
+   */
+  public PlaceholderDirectory getSpillDir() {
+    return m_SpillDir;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String spillDirTipText() {
+    return "The directory to write evicted values to.";
   }
 
   /**
@@ -211,6 +452,8 @@ public class InitStorageCache
     if (result == null) {
       if (m_Cache.length() == 0)
 	result = "No cache name provided!";
+      else if (m_Spill && !m_SpillDir.isDirectory())
+	result = "Spill directory does not exist: " + m_SpillDir;
     }
 
     return result;
@@ -223,7 +466,27 @@ public class InitStorageCache
    */
   @Override
   protected String doExecute() {
-    getStorageHandler().getStorage().addCache(m_Cache, m_Size);
+    getStorageHandler().getStorage().addCache(
+      m_Cache,
+      new WeightedCache<>(
+	m_Size, m_MaxWeight, m_Expiry, m_SoftReferences, m_Spill ? m_SpillDir.getAbsoluteFile() : null));
     return null;
   }
+
+  /**
+   * Cleans up after the execution has finished. Outputs the cache statistics
+   * if logging is enabled.
+   */
+  @Override
+  public void wrapUp() {
+    WeightedCache<String,Object>	cache;
+
+    if (isLoggingEnabled() && (getStorageHandler() != null)) {
+      cache = getStorageHandler().getStorage().getCache(m_Cache);
+      if (cache != null)
+	getLogger().info("Cache '" + m_Cache + "': " + cache.getStatistics());
+    }
+
+    super.wrapUp();
+  }
 }
@@ -763,7 +763,7 @@ public class SetManyVariables
 	  break;
 	case MATH_EXPRESSION:
 	  try {
-	    value = "" + MathematicalExpression.evaluate(value, new HashMap());
+	    value = "" + MathematicalExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    errors.add("Failed to parse mathematical expression (" + pair.varValue() + "): " + value, e);
@@ -771,7 +771,7 @@ public class SetManyVariables
 	  break;
         case MATH_EXPRESSION_ROUND:
 	  try {
-	    value = "" + Math.round(MathematicalExpression.evaluate(value, new HashMap()));
+	    value = "" + Math.round(MathematicalExpression.evaluate(value, new HashMap(), false));
 	  }
 	  catch (Exception e) {
 	    errors.add("Failed to parse mathematical expression (" + pair.varValue() + "): " + value, e);
@@ -779,7 +779,7 @@ public class SetManyVariables
 	  break;
 	case BOOL_EXPRESSION:
 	  try {
-	    value = "" + BooleanExpression.evaluate(value, new HashMap());
+	    value = "" + BooleanExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    errors.add("Failed to parse boolean expression (" + pair.varValue() + "): " + value, e);
@@ -787,7 +787,7 @@ public class SetManyVariables
 	  break;
 	case STRING_EXPRESSION:
 	  try {
-	    value = "" + StringExpression.evaluate(value, new HashMap());
+	    value = "" + StringExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    errors.add("Failed to parse string expression (" + pair.varValue() + "): " + value, e);
@@ -15,7 +15,7 @@
 
 /*
  * SetVariable.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.standalone;
@@ -1031,7 +1031,7 @@ public class SetVariable
 	  break;
 	case MATH_EXPRESSION:
 	  try {
-	    value = "" + MathematicalExpression.evaluate(value, new HashMap());
+	    value = "" + MathematicalExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    result = handleException("Failed to parse mathematical expression: " + value, e);
@@ -1039,7 +1039,7 @@ public class SetVariable
 	  break;
 	case MATH_EXPRESSION_ROUND:
 	  try {
-	    value = "" + Math.round(MathematicalExpression.evaluate(value, new HashMap()));
+	    value = "" + Math.round(MathematicalExpression.evaluate(value, new HashMap(), false));
 	  }
 	  catch (Exception e) {
 	    result = handleException("Failed to parse mathematical expression: " + value, e);
@@ -1047,7 +1047,7 @@ public class SetVariable
 	  break;
 	case BOOL_EXPRESSION:
 	  try {
-	    value = "" + BooleanExpression.evaluate(value, new HashMap());
+	    value = "" + BooleanExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    result = handleException("Failed to parse boolean expression: " + value, e);
@@ -1055,7 +1055,7 @@ public class SetVariable
 	  break;
 	case STRING_EXPRESSION:
 	  try {
-	    value = "" + StringExpression.evaluate(value, new HashMap());
+	    value = "" + StringExpression.evaluate(value, new HashMap(), false);
 	  }
 	  catch (Exception e) {
 	    result = handleException("Failed to parse string expression: " + value, e);
@@ -15,7 +15,7 @@
 
 /*
  * AbstractDataContainerAdd.java
- * Copyright (C) 2013-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -143,6 +143,34 @@ public abstract class AbstractDataContainerAdd<T extends DataContainer>
    */
   protected abstract void add(T stored, T current);
   
+  /**
+   * Updates the stored data container with the current one.
+   *
+   * @param stored	the stored data container, null if none available yet
+   * @param current	the current data container
+   * @return		the data container to store
+   */
+  protected T update(T stored, T current) {
+    boolean	added;
+
+    if (isLoggingEnabled())
+      getLogger().info("Data container '" + m_StorageName + "' available from storage: " + (stored != null));
+
+    if (stored != null) {
+      add(stored, current);
+      added = false;
+    }
+    else {
+      stored = current;
+      added = false;
+    }
+    m_OutputToken = new Token(stored);
+    if (isLoggingEnabled())
+      getLogger().info("Data container " + (added ? "superimposed in" : "added to") + " storage: " + m_StorageName);
+
+    return stored;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -152,33 +180,12 @@ public abstract class AbstractDataContainerAdd<T extends DataContainer>
   protected String doExecute() {
     String	result;
     T		current;
-    T		stored;
-    boolean	added;
 
     result = getOptionManager().ensureVariableForPropertyExists("storageName");
 
     if (result == null) {
-      synchronized (getStorageHandler().getStorage()) {
-        stored = null;
-        if (getStorageHandler().getStorage().has(m_StorageName))
-          stored = (T) getStorageHandler().getStorage().get(m_StorageName);
-        if (isLoggingEnabled())
-          getLogger().info("Data container '" + m_StorageName + "' available from storage: " + (stored != null));
-
-        current = (T) m_InputToken.getPayload();
-        if (stored != null) {
-          add(stored, current);
-          added = false;
-        }
-        else {
-          stored = current;
-          added = false;
-        }
-        getStorageHandler().getStorage().put(m_StorageName, stored);
-        m_OutputToken = new Token(stored);
-        if (isLoggingEnabled())
-          getLogger().info("Data container " + (added ? "superimposed in" : "added to") + " storage: " + m_StorageName);
-      }
+      current = (T) m_InputToken.getPayload();
+      getStorageHandler().getStorage().compute(m_StorageName, (name, stored) -> update((T) stored, current));
     }
 
     return result;
@@ -15,7 +15,7 @@
 
 /*
  * CallableTransformer.java
- * Copyright (C) 2009-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -260,7 +260,7 @@ public class CallableTransformer
    */
   public Token output() {
     m_InputToken = null;
-    return ((OutputProducer) m_CallableActor).output();
+    return callableOutput();
   }
 
   /**
@@ -270,6 +270,6 @@ public class CallableTransformer
    * @return		true if there is pending output
    */
   public boolean hasPendingOutput() {
-    return (m_CallableActor != null) && ((OutputProducer) m_CallableActor).hasPendingOutput();
+    return hasPendingCallableOutput();
   }
 }
@@ -15,7 +15,7 @@
 
 /*
  * CollectionAppend.java
- * Copyright (C) 2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -193,6 +193,33 @@ public class CollectionAppend
     return new Class[]{Collection.class};
   }
 
+  /**
+   * Appends the collection to the stored one.
+   *
+   * @param stored	the stored collection, null if none available yet
+   * @param coll	the collection to append
+   * @return		the updated collection to store
+   */
+  protected Collection append(Collection stored, Collection coll) {
+    if (isLoggingEnabled())
+      getLogger().info("Collection '" + m_StorageName + "' available from storage: " + (stored != null));
+
+    if (stored == null) {
+      stored = ObjectCopyHelper.copyObject(coll);
+      m_OutputToken = new Token(coll);
+      if (isLoggingEnabled())
+	getLogger().info("Collection added to storage: " + m_StorageName);
+    }
+    else {
+      stored.addAll(coll);
+      m_OutputToken = new Token(stored);
+      if (isLoggingEnabled())
+	getLogger().info("Appended #" + coll.size() + " elements to stored collection: " + m_StorageName);
+    }
+
+    return stored;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -202,34 +229,12 @@ public class CollectionAppend
   protected String doExecute() {
     String		result;
     Collection 		coll;
-    Collection		stored;
 
     result = getOptionManager().ensureVariableForPropertyExists("storageName");
 
     if (result == null) {
-      synchronized (getStorageHandler().getStorage()) {
-	stored = null;
-	if (getStorageHandler().getStorage().has(m_StorageName))
-	  stored = (Collection) getStorageHandler().getStorage().get(m_StorageName);
-	if (isLoggingEnabled())
-	  getLogger().info("Collection '" + m_StorageName + "' available from storage: " + (stored != null));
-
-	coll = (Collection) m_InputToken.getPayload();
-	if (stored == null) {
-	  stored = ObjectCopyHelper.copyObject(coll);
-	  getStorageHandler().getStorage().put(m_StorageName, stored);
-	  m_OutputToken = new Token(coll);
-	  if (isLoggingEnabled())
-	    getLogger().info("Collection added to storage: " + m_StorageName);
-	}
-	else {
-	  stored.addAll(coll);
-	  getStorageHandler().getStorage().put(m_StorageName, stored);
-	  m_OutputToken = new Token(stored);
-	  if (isLoggingEnabled())
-	    getLogger().info("Appended #" + coll.size() + " elements to stored collection: " + m_StorageName);
-	}
-      }
+      coll = (Collection) m_InputToken.getPayload();
+      getStorageHandler().getStorage().compute(m_StorageName, (name, stored) -> append((Collection) stored, coll));
     }
 
     return result;
@@ -434,6 +434,64 @@ public class IncStorageValue
     return new Class[]{Unknown.class};
   }
 
+  /**
+   * Increments the value.
+   *
+   * @param current	the current value, null if none stored yet
+   * @return		the incremented value
+   * @throws ClassCastException	if the current value is of the wrong type
+   */
+  protected Number increment(Object current) {
+    Number	result;
+
+    if (current != null) {
+      switch (m_IncrementType) {
+	case INTEGER:
+	  result = (Integer) current;
+	  break;
+	case LONG:
+	  result = (Long) current;
+	  break;
+	case DOUBLE:
+	  result = (Double) current;
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
+      }
+    }
+    else {
+      switch (m_IncrementType) {
+	case INTEGER:
+	  result = 0;
+	  break;
+	case LONG:
+	  result = 0L;
+	  break;
+	case DOUBLE:
+	  result = 0.0;
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
+      }
+    }
+
+    switch (m_IncrementType) {
+      case INTEGER:
+	result = result.intValue() + m_IntegerIncrement;
+	break;
+      case LONG:
+	result = result.longValue() + m_IntegerIncrement;
+	break;
+      case DOUBLE:
+	result = result.doubleValue() + m_DoubleIncrement;
+	break;
+      default:
+	throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
+    }
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -447,57 +505,16 @@ public class IncStorageValue
     result = getOptionManager().ensureVariableForPropertyExists("storageName");
 
     if (result == null) {
+      // atomic, as concurrent branches may increment the same value
       try {
-	if (getStorageHandler().getStorage().has(m_StorageName)) {
-	  switch (m_IncrementType) {
-	    case INTEGER:
-	      value = (Integer) getStorageHandler().getStorage().get(m_StorageName);
-	      break;
-	    case LONG:
-	      value = (Long) getStorageHandler().getStorage().get(m_StorageName);
-	      break;
-	    case DOUBLE:
-	      value = (Double) getStorageHandler().getStorage().get(m_StorageName);
-	      break;
-	    default:
-	      throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
-	  }
-	}
-	else {
-	  switch (m_IncrementType) {
-	    case INTEGER:
-	      value = 0;
-	      break;
-	    case LONG:
-	      value = 0L;
-	      break;
-	    case DOUBLE:
-	      value = 0.0;
-	      break;
-	    default:
-	      throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
-	  }
-	}
+	value = (Number) getStorageHandler().getStorage().compute(
+	  m_StorageName, (name, current) -> increment(current), !m_SuppressNotifications);
       }
-      catch (Exception e) {
+      catch (ClassCastException e) {
 	value = null;
       }
 
       if (value != null) {
-	switch (m_IncrementType) {
-	  case INTEGER:
-	    value = value.intValue() + m_IntegerIncrement;
-	    break;
-	  case LONG:
-	    value = value.longValue() + m_IntegerIncrement;
-	    break;
-	  case DOUBLE:
-	    value = value.doubleValue() + m_DoubleIncrement;
-	    break;
-	  default:
-	    throw new IllegalStateException("Unhandled increment type: " + m_IncrementType);
-	}
-	getStorageHandler().getStorage().put(m_StorageName, value, !m_SuppressNotifications);
 	if (isLoggingEnabled())
 	  getLogger().info("Incremented storage '" + m_StorageName + "': " + value);
 	m_OutputToken = new Token(value);
@@ -15,7 +15,7 @@
 
 /*
  * MathExpression.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -600,7 +600,7 @@ public class MathExpression
       // get input
       symbols = MathematicalExpression.objectToSymbols(m_InputToken.getPayload());
       x       = (m_InputToken.getPayload() instanceof Number ? ((Number) m_InputToken.getPayload()).doubleValue() : null);
-      y       = MathematicalExpression.evaluate(exp, symbols);
+      y       = MathematicalExpression.evaluate(exp, symbols, exp.equals(m_Expression.getValue()));
 
       if (!Double.isNaN(y)) {
 	y = applyRounding(y);
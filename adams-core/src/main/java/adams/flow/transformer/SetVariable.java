@@ -15,7 +15,7 @@
 
 /*
  * SetVariable.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -1037,7 +1037,7 @@ public class SetVariable
 	      break;
 	    case MATH_EXPRESSION:
 	      try {
-		newValue = "" + MathematicalExpression.evaluate(newValue, new HashMap());
+		newValue = "" + MathematicalExpression.evaluate(newValue, new HashMap(), false);
 	      }
 	      catch (Exception e) {
 		result = handleException("Failed to parse mathematical expression: " + newValue, e);
@@ -1045,7 +1045,7 @@ public class SetVariable
 	      break;
 	    case MATH_EXPRESSION_ROUND:
 	      try {
-		newValue = "" + Math.round(MathematicalExpression.evaluate(newValue, new HashMap()));
+		newValue = "" + Math.round(MathematicalExpression.evaluate(newValue, new HashMap(), false));
 	      }
 	      catch (Exception e) {
 		result = handleException("Failed to parse mathematical expression: " + newValue, e);
@@ -1053,7 +1053,7 @@ public class SetVariable
 	      break;
 	    case BOOL_EXPRESSION:
 	      try {
-		newValue = "" + BooleanExpression.evaluate(newValue, new HashMap());
+		newValue = "" + BooleanExpression.evaluate(newValue, new HashMap(), false);
 	      }
 	      catch (Exception e) {
 		result = handleException("Failed to parse boolean expression: " + newValue, e);
@@ -1061,7 +1061,7 @@ public class SetVariable
 	      break;
 	    case STRING_EXPRESSION:
 	      try {
-		newValue = "" + adams.parser.StringExpression.evaluate(newValue, new HashMap());
+		newValue = "" + adams.parser.StringExpression.evaluate(newValue, new HashMap(), false);
 	      }
 	      catch (Exception e) {
 		result = handleException("Failed to parse string expression: " + newValue, e);
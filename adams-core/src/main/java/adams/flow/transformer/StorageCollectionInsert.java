@@ -15,7 +15,7 @@
 
 /*
  * StorageCollectionInsert.java
- * Copyright (C) 2018-2019 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.transformer;
@@ -306,6 +306,52 @@ public class StorageCollectionInsert
     return result;
   }
 
+  /**
+   * Inserts the object into the collection.
+   *
+   * @param coll	the collection to insert the object into
+   * @param obj		the object to insert
+   * @return		null if successful or skipped, otherwise error message
+   */
+  protected String insert(Collection coll, Object obj) {
+    String	result;
+    int		pos;
+
+    result = null;
+
+    // determine position
+    if (coll.size() == 0) {
+      pos = 0;
+    }
+    else {
+      m_Position.setMax(coll.size());
+      pos = m_Position.getIntIndex();
+      if (pos == -1)
+	return null;
+      if (m_After)
+	pos++;
+    }
+
+    // insert
+    if (pos == coll.size()) {
+      coll.add(obj);
+    }
+    else {
+      if (coll instanceof List) {
+	((List) coll).add(pos, obj);
+      }
+      else {
+	result = "Collection does not implement the " + Utils.classToString(List.class) + " interface, "
+	  + "can only append at the end: " + Utils.classToString(coll);
+      }
+    }
+
+    if (result == null)
+      m_OutputToken = new Token(obj);
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -314,51 +360,24 @@ public class StorageCollectionInsert
   @Override
   protected String doExecute() {
     String		result;
-    Collection		coll;
     Object		obj;
-    int			pos;
+    Object		stored;
+    final String[]	error;
 
     result = getOptionManager().ensureVariableForPropertyExists("storageName");
 
     if (result == null) {
-      obj = m_InputToken.getPayload();
-      coll = null;
-      if (!getStorageHandler().getStorage().has(m_StorageName))
-        result = "Collection not available from storage: " + m_StorageName;
+      obj   = m_InputToken.getPayload();
+      error = new String[1];
+      // atomic, as concurrent branches may insert into the same collection
+      stored = getStorageHandler().getStorage().computeIfPresent(m_StorageName, (name, coll) -> {
+	error[0] = insert((Collection) coll, obj);
+	return coll;
+      });
+      if (stored == null)
+	result = "Collection not available from storage: " + m_StorageName;
       else
-        coll = (Collection) getStorageHandler().getStorage().get(m_StorageName);
-
-      if (result == null) {
-        // determine position
-        if (coll.size() == 0) {
-          pos = 0;
-        }
-        else {
-          m_Position.setMax(coll.size());
-          pos = m_Position.getIntIndex();
-          if (pos == -1)
-            return null;
-          if (m_After)
-            pos++;
-        }
-
-        // insert
-        if (pos == coll.size()) {
-          coll.add(obj);
-        }
-        else {
-          if (coll instanceof List) {
-            ((List) coll).add(pos, obj);
-          }
-          else {
-            result = "Collection does not implement the " + Utils.classToString(List.class) + " interface, "
-              + "can only append at the end: " + Utils.classToString(coll);
-          }
-        }
-
-        if (result == null)
-          m_OutputToken = new Token(obj);
-      }
+	result = error[0];
     }
 
     return result;
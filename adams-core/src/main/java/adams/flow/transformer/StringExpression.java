@@ -15,7 +15,7 @@
 
 /*
  * StringExpression.java
- * Copyright (C) 2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -374,7 +374,7 @@ public class StringExpression
       
       // get input
       symbols = adams.parser.StringExpression.objectToSymbols(m_InputToken.getPayload());
-      str     = adams.parser.StringExpression.evaluate(exp, symbols);
+      str     = adams.parser.StringExpression.evaluate(exp, symbols, exp.equals(m_Expression.getValue()));
       m_OutputToken = new Token(str);
       if (isLoggingEnabled())
 	getLogger().info("--> " + str);
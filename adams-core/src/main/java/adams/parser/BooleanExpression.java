@@ -15,7 +15,7 @@
 
 /*
  * BooleanExpression.java
- * Copyright (C) 2008-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.parser;
@@ -24,10 +24,9 @@ import adams.core.Utils;
 import adams.data.report.Report;
 import adams.parser.booleanexpression.Parser;
 import adams.parser.booleanexpression.Scanner;
+import adams.parser.booleanexpression.sym;
 import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.SymbolFactory;
 
-import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.logging.Level;
 
@@ -215,6 +214,9 @@ public class BooleanExpression
   /** for serialization. */
   private static final long serialVersionUID = -5923987640355752595L;
 
+  /** the cache for the lexed expressions (compiled on first evaluation). */
+  public final static LexedExpressionCache LEXED_CACHE = new LexedExpressionCache((input, sf) -> new Scanner(input, sf), sym.EOF);
+
   /**
    * Returns a string describing the object.
    *
@@ -448,8 +450,23 @@ public class BooleanExpression
    * @throws Exception	if something goes wrong
    */
   public static boolean evaluate(String expr, HashMap symbols) throws Exception {
-    SymbolFactory 		sf;
-    ByteArrayInputStream 	parserInput;
+    return evaluate(expr, symbols, true);
+  }
+
+  /**
+   * Parses and evaluates the given expression.
+   * Returns the result of the boolean expression, based on the given
+   * values of the symbols.
+   *
+   * @param expr	the expression to evaluate
+   * @param symbols	the symbol/value mapping
+   * @param cache	whether to store the expression in the cache, e.g., not when
+   *			the expression was generated from expanding variables
+   * @return		the evaluated result
+   * @throws Exception	if something goes wrong
+   */
+  public static boolean evaluate(String expr, HashMap symbols, boolean cache) throws Exception {
+    LexedExpression		lexed;
     Parser 			parser;
 
     if (expr.equals("true"))
@@ -457,11 +474,10 @@ public class BooleanExpression
     else if (expr.equals("false"))
       return false;
 
-    sf          = new ComplexSymbolFactory();
-    parserInput = new ByteArrayInputStream(expr.getBytes());
-    parser      = new Parser(new Scanner(parserInput, sf), sf);
+    lexed       = LEXED_CACHE.get(expr, cache);
+    parser      = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
     parser.setSymbols(symbols);
-    parser.parse();
+    lexed.parse(parser);
 
     return parser.getResult();
   }
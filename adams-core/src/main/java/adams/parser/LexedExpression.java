@@ -0,0 +1,408 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LexedExpression.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.parser;
+
+import java_cup.runtime.ComplexSymbolFactory.ComplexSymbol;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+import java_cup.runtime.lr_parser;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Container for the tokens of an expression that has been run through a
+ * JFlex scanner once. The tokens can be replayed any number of times to a
+ * CUP parser via {@link #newScanner()}, avoiding the instantiation of the
+ * scanner and the lexing of the expression for every evaluation.
+ * <br>
+ * Since the CUP parsers evaluate the expression in the semantic actions
+ * while reducing the productions, {@link #parse(lr_parser)} compiles the
+ * expression on first use: the sequence of shifts and reductions that the
+ * LALR automaton performs only depends on the tokens, hence it gets recorded
+ * once. Subsequent evaluations only execute the semantic actions in that
+ * order, without any scanning or parse table lookups.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class LexedExpression {
+
+  /**
+   * Scanner that replays the tokens. Every call of {@link #next_token()}
+   * returns a fresh symbol, since the parser modifies the state of the
+   * symbols that it processes.
+   */
+  protected static class ReplayScanner
+    implements Scanner {
+
+    /** the tokens to replay. */
+    protected Symbol[] m_Tokens;
+
+    /** the EOF symbol index. */
+    protected int m_EOF;
+
+    /** the next position. */
+    protected int m_Position;
+
+    /**
+     * Initializes the scanner.
+     *
+     * @param tokens	the tokens to replay
+     * @param eof	the EOF symbol index
+     */
+    public ReplayScanner(Symbol[] tokens, int eof) {
+      m_Tokens   = tokens;
+      m_EOF      = eof;
+      m_Position = 0;
+    }
+
+    /**
+     * Returns the next token, EOF symbols once all tokens have been returned.
+     *
+     * @return		the next token
+     */
+    @Override
+    public Symbol next_token() {
+      Symbol		token;
+      ComplexSymbol	complex;
+      ComplexSymbol	result;
+
+      if (m_Position >= m_Tokens.length)
+	return new ComplexSymbol("EOF", m_EOF);
+
+      token = m_Tokens[m_Position++];
+      if (token instanceof ComplexSymbol) {
+	complex       = (ComplexSymbol) token;
+	result        = new ComplexSymbol(complex.getName(), complex.sym, complex.value);
+	result.xleft  = complex.xleft;
+	result.xright = complex.xright;
+      }
+      else {
+	result = new ComplexSymbol("" + token.sym, token.sym, token.value);
+      }
+      result.left  = token.left;
+      result.right = token.right;
+
+      return result;
+    }
+  }
+
+  /** for initializing the semantic actions of a parser. */
+  protected static Method m_InitActions;
+
+  /** the expression. */
+  protected String m_Expression;
+
+  /** the tokens, including EOF. */
+  protected Symbol[] m_Tokens;
+
+  /** the EOF symbol index. */
+  protected int m_EOF;
+
+  /** the compiled program: shifts (-(token index + 1)) and reductions (action number), null if not yet compiled. */
+  protected volatile int[] m_Program;
+
+  /** the number of symbols that the reductions of the program remove from the stack. */
+  protected volatile int[] m_HandleSizes;
+
+  /** whether the expression could not get compiled, e.g., due to a syntax error. */
+  protected volatile boolean m_Uncompilable;
+
+  /**
+   * Initializes the container.
+   *
+   * @param expression	the expression the tokens were generated from
+   * @param tokens	the tokens (incl EOF)
+   * @param eof		the EOF symbol index
+   */
+  protected LexedExpression(String expression, Symbol[] tokens, int eof) {
+    m_Expression = expression;
+    m_Tokens     = tokens;
+    m_EOF        = eof;
+  }
+
+  /**
+   * Returns the expression that was lexed.
+   *
+   * @return		the expression
+   */
+  public String getExpression() {
+    return m_Expression;
+  }
+
+  /**
+   * Returns the number of tokens, including EOF.
+   *
+   * @return		the number of tokens
+   */
+  public int size() {
+    return m_Tokens.length;
+  }
+
+  /**
+   * Returns a new scanner that replays the tokens.
+   *
+   * @return		the scanner
+   */
+  public Scanner newScanner() {
+    return new ReplayScanner(m_Tokens, m_EOF);
+  }
+
+  /**
+   * Returns whether the expression has been compiled.
+   *
+   * @return		true if compiled
+   */
+  public boolean isCompiled() {
+    return (m_Program != null);
+  }
+
+  /**
+   * Returns the parse action for the state and symbol, like
+   * {@link lr_parser}'s <code>get_action</code>.
+   *
+   * @param table	the action table
+   * @param state	the current state
+   * @param sym		the symbol index
+   * @return		the action: &gt; 0 shift, &lt; 0 reduce, 0 error
+   */
+  protected static short getAction(short[][] table, int state, int sym) {
+    short[]	row;
+    int		i;
+
+    row = table[state];
+    for (i = 0; i < row.length - 1; i += 2) {
+      if ((row[i] == sym) || (row[i] == -1))
+	return row[i + 1];
+    }
+
+    return 0;
+  }
+
+  /**
+   * Returns the state to go to after a reduction, like
+   * {@link lr_parser}'s <code>get_reduce</code>.
+   *
+   * @param table	the reduce table
+   * @param state	the current state
+   * @param sym		the symbol index of the left-hand side
+   * @return		the new state, -1 if none
+   */
+  protected static short getReduce(short[][] table, int state, int sym) {
+    short[]	row;
+    int		i;
+
+    row = table[state];
+    if (row == null)
+      return -1;
+    for (i = 0; i < row.length - 1; i += 2) {
+      if ((row[i] == sym) || (row[i] == -1))
+	return row[i + 1];
+    }
+
+    return -1;
+  }
+
+  /**
+   * Records the shifts and reductions that the parser's LALR automaton
+   * performs for the tokens, without executing any semantic actions.
+   *
+   * @param parser	the parser to obtain the tables from
+   */
+  protected void compile(lr_parser parser) {
+    short[][]	actions;
+    short[][]	reduces;
+    short[][]	productions;
+    int[]	states;
+    int		top;
+    int[]	program;
+    int[]	sizes;
+    int		count;
+    int		pos;
+    int		sym;
+    int		act;
+    int		prod;
+
+    actions     = parser.action_table();
+    reduces     = parser.reduce_table();
+    productions = parser.production_table();
+    states      = new int[m_Tokens.length + 2];
+    top         = 0;
+    states[top] = parser.start_state();
+    program     = new int[m_Tokens.length * 2 + 2];
+    sizes       = new int[program.length];
+    count       = 0;
+    pos         = 0;
+
+    while (true) {
+      sym = (pos < m_Tokens.length) ? m_Tokens[pos].sym : m_EOF;
+      act = getAction(actions, states[top], sym);
+      if (count == program.length) {
+	program = Arrays.copyOf(program, program.length * 2);
+	sizes   = Arrays.copyOf(sizes, sizes.length * 2);
+      }
+      // shift
+      if (act > 0) {
+	if (pos >= m_Tokens.length) {
+	  m_Uncompilable = true;
+	  return;
+	}
+	program[count++] = -(pos + 1);
+	pos++;
+	if (++top == states.length)
+	  states = Arrays.copyOf(states, states.length * 2);
+	states[top] = act - 1;
+      }
+      // reduce
+      else if (act < 0) {
+	prod             = -act - 1;
+	program[count]   = prod;
+	sizes[count]     = productions[prod][1];
+	count++;
+	top             -= productions[prod][1];
+	act              = getReduce(reduces, states[top], productions[prod][0]);
+	if (++top == states.length)
+	  states = Arrays.copyOf(states, states.length * 2);
+	states[top] = act;
+	// accept
+	if (prod == parser.start_production())
+	  break;
+      }
+      // syntax error, leave reporting to the parser
+      else {
+	m_Uncompilable = true;
+	return;
+      }
+    }
+
+    m_HandleSizes = Arrays.copyOf(sizes, count);
+    m_Program     = Arrays.copyOf(program, count);
+  }
+
+  /**
+   * Initializes the semantic actions of the parser, which is otherwise only
+   * done by {@link lr_parser#parse()}.
+   *
+   * @param parser	the parser to initialize
+   * @return		true if successfully initialized
+   */
+  protected static synchronized boolean initActions(lr_parser parser) {
+    try {
+      if (m_InitActions == null) {
+	m_InitActions = lr_parser.class.getDeclaredMethod("init_actions");
+	m_InitActions.setAccessible(true);
+      }
+      m_InitActions.invoke(parser);
+      return true;
+    }
+    catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Parses and evaluates the expression with the parser, which must have been
+   * set up with the symbols etc already. Compiles the expression on first
+   * use. Falls back on regular parsing via {@link lr_parser#parse()} (using
+   * {@link #newScanner()}) if the expression could not be compiled.
+   *
+   * @param parser	the parser to use
+   * @throws Exception	if parsing/evaluation fails
+   */
+  public void parse(lr_parser parser) throws Exception {
+    int[]		program;
+    int[]		sizes;
+    Stack<Symbol>	stack;
+    Symbol		lhs;
+    int			top;
+    int			i;
+    int			n;
+
+    if (!m_Uncompilable && (m_Program == null))
+      compile(parser);
+
+    if (m_Uncompilable || !initActions(parser)) {
+      parser.setScanner(newScanner());
+      parser.parse();
+      return;
+    }
+
+    program = m_Program;
+    sizes   = m_HandleSizes;
+    stack   = new Stack<>();
+    stack.push(parser.getSymbolFactory().startSymbol("START", 0, parser.start_state()));
+    top     = 0;
+    for (i = 0; i < program.length; i++) {
+      // shift: the tokens are only read by the semantic actions
+      if (program[i] < 0) {
+	stack.push(m_Tokens[-program[i] - 1]);
+	top++;
+      }
+      // reduce
+      else {
+	lhs = parser.do_action(program[i], parser, stack, top);
+	for (n = 0; n < sizes[i]; n++)
+	  stack.pop();
+	top -= sizes[i];
+	stack.push(lhs);
+	top++;
+      }
+    }
+  }
+
+  /**
+   * Returns a short description of the container.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Expression + " (" + m_Tokens.length + " tokens)";
+  }
+
+  /**
+   * Runs the scanner until it returns the EOF symbol and stores the tokens.
+   *
+   * @param expression	the expression that the scanner processes
+   * @param scanner	the scanner to use
+   * @param eof		the EOF symbol index
+   * @return		the lexed expression
+   * @throws Exception	if lexing fails
+   */
+  public static LexedExpression lex(String expression, Scanner scanner, int eof) throws Exception {
+    List<Symbol>	tokens;
+    Symbol		token;
+
+    tokens = new ArrayList<>();
+    do {
+      token = scanner.next_token();
+      if (token == null)
+	break;
+      tokens.add(token);
+    }
+    while (token.sym != eof);
+
+    return new LexedExpression(expression, tokens.toArray(new Symbol[0]), eof);
+  }
+}
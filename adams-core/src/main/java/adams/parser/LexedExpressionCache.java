@@ -0,0 +1,220 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LexedExpressionCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.parser;
+
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.SymbolFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache for lexed expressions, using the expression text as key.
+ * The cached expressions get compiled on first evaluation, i.e., subsequent
+ * evaluations only execute the semantic actions of the grammar
+ * (see {@link LexedExpression#parse(java_cup.runtime.lr_parser)}).
+ * <br>
+ * Expressions that contain variables get expanded before evaluation. Since
+ * the expanded text changes with the variable values, callers should not
+ * store these in the cache (see {@link #get(String, boolean)}), as they would
+ * only evict the static expressions.
+ * <br>
+ * The cache does not use any locks, as it gets accessed concurrently by the
+ * evaluations of all threads. Once full, arbitrary entries get evicted.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class LexedExpressionCache {
+
+  /**
+   * Interface for classes that instantiate a scanner for a grammar.
+   */
+  public interface ScannerProvider {
+
+    /**
+     * Returns a new scanner instance.
+     *
+     * @param input	the input stream to read from
+     * @param sf	the symbol factory to use
+     * @return		the scanner
+     */
+    public Scanner newScanner(InputStream input, SymbolFactory sf);
+  }
+
+  /** the default cache size. */
+  public final static int DEFAULT_SIZE = 1000;
+
+  /** the scanner provider. */
+  protected ScannerProvider m_Provider;
+
+  /** the EOF symbol index. */
+  protected int m_EOF;
+
+  /** the cache. */
+  protected ConcurrentHashMap<String,LexedExpression> m_Cache;
+
+  /** the maximum number of cached expressions. */
+  protected volatile int m_Size;
+
+  /** the number of cache hits. */
+  protected LongAdder m_Hits;
+
+  /** the number of cache misses. */
+  protected LongAdder m_Misses;
+
+  /**
+   * Initializes the cache with the default size.
+   *
+   * @param provider	for instantiating scanners
+   * @param eof		the EOF symbol index of the grammar
+   * @see		#DEFAULT_SIZE
+   */
+  public LexedExpressionCache(ScannerProvider provider, int eof) {
+    this(provider, eof, DEFAULT_SIZE);
+  }
+
+  /**
+   * Initializes the cache.
+   *
+   * @param provider	for instantiating scanners
+   * @param eof		the EOF symbol index of the grammar
+   * @param size	the maximum number of expressions to cache, 0 to disable
+   */
+  public LexedExpressionCache(ScannerProvider provider, int eof, int size) {
+    m_Provider = provider;
+    m_EOF      = eof;
+    m_Cache    = new ConcurrentHashMap<>();
+    m_Size     = size;
+    m_Hits     = new LongAdder();
+    m_Misses   = new LongAdder();
+  }
+
+  /**
+   * Returns the lexed expression, lexes it if not yet present in the cache.
+   *
+   * @param expr	the expression to lex
+   * @return		the lexed expression
+   * @throws Exception	if lexing fails
+   */
+  public LexedExpression get(String expr) throws Exception {
+    return get(expr, true);
+  }
+
+  /**
+   * Returns the lexed expression, lexes it if not yet present in the cache.
+   *
+   * @param expr	the expression to lex
+   * @param store	whether to store the expression in the cache if not present
+   * @return		the lexed expression
+   * @throws Exception	if lexing fails
+   */
+  public LexedExpression get(String expr, boolean store) throws Exception {
+    LexedExpression		result;
+    Iterator<String>		iter;
+
+    result = m_Cache.get(expr);
+    if (result != null) {
+      m_Hits.increment();
+      return result;
+    }
+
+    m_Misses.increment();
+    result = LexedExpression.lex(expr, m_Provider.newScanner(new ByteArrayInputStream(expr.getBytes()), new ComplexSymbolFactory()), m_EOF);
+    if (store && (m_Size > 0)) {
+      // make room
+      iter = m_Cache.keySet().iterator();
+      while ((m_Cache.size() >= m_Size) && iter.hasNext()) {
+	iter.next();
+	iter.remove();
+      }
+      m_Cache.put(expr, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the maximum number of expressions in the cache.
+   *
+   * @return		the size
+   */
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the number of expressions currently in the cache.
+   *
+   * @return		the number of expressions
+   */
+  public int sizeUsed() {
+    return m_Cache.size();
+  }
+
+  /**
+   * Sets the maximum number of expressions in the cache, empties the cache.
+   *
+   * @param size	the new size, 0 to disable
+   */
+  public void resize(int size) {
+    m_Size = size;
+    m_Cache.clear();
+  }
+
+  /**
+   * Empties the cache.
+   */
+  public void clear() {
+    m_Cache.clear();
+  }
+
+  /**
+   * Returns the number of cache hits.
+   *
+   * @return		the hits
+   */
+  public long getHits() {
+    return m_Hits.sum();
+  }
+
+  /**
+   * Returns the number of cache misses.
+   *
+   * @return		the misses
+   */
+  public long getMisses() {
+    return m_Misses.sum();
+  }
+
+  /**
+   * Returns some statistics about the cache.
+   *
+   * @return		the statistics
+   */
+  @Override
+  public String toString() {
+    return "size=" + size() + ", used=" + sizeUsed() + ", hits=" + getHits() + ", misses=" + getMisses();
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * MathematicalExpression.java
- * Copyright (C) 2008-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.parser;
@@ -25,10 +25,9 @@ import adams.data.report.Report;
 import adams.data.report.ReportHandler;
 import adams.parser.mathematicalexpression.Parser;
 import adams.parser.mathematicalexpression.Scanner;
+import adams.parser.mathematicalexpression.sym;
 import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.SymbolFactory;
 
-import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.logging.Level;
 
@@ -235,6 +234,9 @@ public class MathematicalExpression
   /** for serialization. */
   private static final long serialVersionUID = 8014316012335802585L;
 
+  /** the cache for the lexed expressions (compiled on first evaluation). */
+  public final static LexedExpressionCache LEXED_CACHE = new LexedExpressionCache((input, sf) -> new Scanner(input, sf), sym.EOF);
+
   /** the default placeholder for a single symbol. */
   public final static String PLACEHOLDER_OBJECT = "X";
 
@@ -503,16 +505,30 @@ public class MathematicalExpression
    * @throws Exception	if something goes wrong
    */
   public static double evaluate(String expr, HashMap symbols) throws Exception {
+    return evaluate(expr, symbols, true);
+  }
+
+  /**
+   * Parses and evaluates the given expression.
+   * Returns the result of the mathematical expression, based on the given
+   * values of the symbols.
+   *
+   * @param expr	the expression to evaluate
+   * @param symbols	the symbol/value mapping
+   * @param cache	whether to store the expression in the cache, e.g., not when
+   *			the expression was generated from expanding variables
+   * @return		the evaluated result
+   * @throws Exception	if something goes wrong
+   */
+  public static double evaluate(String expr, HashMap symbols, boolean cache) throws Exception {
     Double			result;
-    SymbolFactory 		sf;
-    ByteArrayInputStream 	parserInput;
+    LexedExpression		lexed;
     Parser 			parser;
 
-    sf          = new ComplexSymbolFactory();
-    parserInput = new ByteArrayInputStream(expr.getBytes());
-    parser      = new Parser(new Scanner(parserInput, sf), sf);
+    lexed       = LEXED_CACHE.get(expr, cache);
+    parser      = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
     parser.setSymbols(symbols);
-    parser.parse();
+    lexed.parse(parser);
 
     result = parser.getResult();
 
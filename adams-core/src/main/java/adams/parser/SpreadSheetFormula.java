@@ -15,7 +15,7 @@
 
 /*
  * SpreadSheetFormula.java
- * Copyright (C) 2013-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.parser;
@@ -27,10 +27,9 @@ import adams.data.io.input.SpreadSheetReader;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.parser.spreadsheetformula.Parser;
 import adams.parser.spreadsheetformula.Scanner;
+import adams.parser.spreadsheetformula.sym;
 import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.SymbolFactory;
 
-import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.logging.Level;
 
@@ -240,6 +239,9 @@ public class SpreadSheetFormula
   /** for serialization. */
   private static final long serialVersionUID = 8014316012335802585L;
 
+  /** the cache for the lexed expressions (compiled on first evaluation). */
+  public final static LexedExpressionCache LEXED_CACHE = new LexedExpressionCache((input, sf) -> new Scanner(input, sf), sym.EOF);
+
   /** the spreadsheet to use. */
   protected SpreadSheet m_Sheet;
 
@@ -580,8 +582,7 @@ public class SpreadSheetFormula
    * @throws Exception	if something goes wrong
    */
   public static Object evaluate(String expr, HashMap symbols, SpreadSheet sheet) throws Exception {
-    SymbolFactory 		sf;
-    ByteArrayInputStream 	parserInput;
+    LexedExpression		lexed;
     Parser 			parser;
 
     // remove leading "="
@@ -589,12 +590,11 @@ public class SpreadSheetFormula
     if (expr.startsWith("="))
       expr = expr.substring(1);
 
-    sf          = new ComplexSymbolFactory();
-    parserInput = new ByteArrayInputStream(expr.getBytes());
-    parser      = new Parser(new Scanner(parserInput, sf), sf);
+    lexed       = LEXED_CACHE.get(expr);
+    parser      = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
     parser.setSymbols(symbols);
     parser.setSheet(sheet);
-    parser.parse();
+    lexed.parse(parser);
 
     return parser.getResult();
   }
@@ -15,7 +15,7 @@
 
 /*
  * StringExpression.java
- * Copyright (C) 2017-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.parser;
@@ -25,10 +25,9 @@ import adams.data.report.Report;
 import adams.data.report.ReportHandler;
 import adams.parser.stringexpression.Parser;
 import adams.parser.stringexpression.Scanner;
+import adams.parser.stringexpression.sym;
 import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.SymbolFactory;
 
-import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.logging.Level;
 
@@ -212,6 +211,9 @@ public class StringExpression
   /** for serialization. */
   private static final long serialVersionUID = -5923987640355752595L;
 
+  /** the cache for the lexed expressions (compiled on first evaluation). */
+  public final static LexedExpressionCache LEXED_CACHE = new LexedExpressionCache((input, sf) -> new Scanner(input, sf), sym.EOF);
+
   /** the default placeholder for a single symbol. */
   public final static String PLACEHOLDER_OBJECT = "X";
 
@@ -444,15 +446,29 @@ public class StringExpression
    * @throws Exception	if something goes wrong
    */
   public static String evaluate(String expr, HashMap symbols) throws Exception {
-    SymbolFactory 		sf;
-    ByteArrayInputStream 	parserInput;
+    return evaluate(expr, symbols, true);
+  }
+
+  /**
+   * Parses and evaluates the given expression.
+   * Returns the result of the boolean expression, based on the given
+   * values of the symbols.
+   *
+   * @param expr	the expression to evaluate
+   * @param symbols	the symbol/value mapping
+   * @param cache	whether to store the expression in the cache, e.g., not when
+   *			the expression was generated from expanding variables
+   * @return		the evaluated result
+   * @throws Exception	if something goes wrong
+   */
+  public static String evaluate(String expr, HashMap symbols, boolean cache) throws Exception {
+    LexedExpression		lexed;
     Parser 			parser;
 
-    sf          = new ComplexSymbolFactory();
-    parserInput = new ByteArrayInputStream(expr.getBytes());
-    parser      = new Parser(new Scanner(parserInput, sf), sf);
+    lexed       = LEXED_CACHE.get(expr, cache);
+    parser      = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
     parser.setSymbols(symbols);
-    parser.parse();
+    lexed.parse(parser);
 
     return parser.getResult();
   }
@@ -0,0 +1,209 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FrameHelper.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.scripting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Helper class for the framed protocol used by persistent connections
+ * between scripting engines.
+ * <br>
+ * A connection starts with the {@link #MAGIC} bytes, followed by any number
+ * of frames. Each frame consists of the length of the payload (int), a flag
+ * byte (see FLAG_* constants) and the payload itself. The payload is the
+ * (optionally compressed) UTF-8 representation of the command as generated
+ * by the {@link adams.scripting.processor.RemoteCommandProcessor}.
+ * The size of the payload is limited, since the length gets supplied by the
+ * other side of the connection.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FrameHelper {
+
+  /** the magic bytes at the start of a framed connection. */
+  public final static byte[] MAGIC = new byte[]{0, 'A', 'S', 'F'};
+
+  /** the flag for uncompressed payloads. */
+  public final static byte FLAG_NONE = 0;
+
+  /** the flag for gzip-compressed payloads. */
+  public final static byte FLAG_GZIP = 1;
+
+  /** the default maximum size of the (uncompressed) payload in bytes. */
+  public final static int DEFAULT_MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * Writes the magic bytes that identify a framed connection.
+   *
+   * @param out		the stream to write to
+   * @throws IOException	if writing fails
+   */
+  public static void writeMagic(DataOutputStream out) throws IOException {
+    out.write(MAGIC);
+  }
+
+  /**
+   * Checks whether the bytes represent the magic bytes.
+   *
+   * @param header	the bytes to check
+   * @param len		the number of valid bytes in the header
+   * @return		true if the magic bytes
+   */
+  public static boolean isMagic(byte[] header, int len) {
+    int		i;
+
+    if (len != MAGIC.length)
+      return false;
+    for (i = 0; i < MAGIC.length; i++) {
+      if (header[i] != MAGIC[i])
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Writes the data as a single frame. Does not flush the stream.
+   *
+   * @param out		the stream to write to
+   * @param data	the data to write
+   * @param compress	whether to compress the payload
+   * @throws IOException	if writing fails
+   */
+  public static void writeFrame(DataOutputStream out, String data, boolean compress) throws IOException {
+    byte[]			payload;
+    ByteArrayOutputStream	bytes;
+    GZIPOutputStream		gzip;
+
+    payload = data.getBytes(StandardCharsets.UTF_8);
+    if (compress) {
+      bytes = new ByteArrayOutputStream(payload.length / 4 + 32);
+      gzip  = new GZIPOutputStream(bytes);
+      gzip.write(payload);
+      gzip.close();
+      payload = bytes.toByteArray();
+    }
+
+    out.writeInt(payload.length);
+    out.writeByte(compress ? FLAG_GZIP : FLAG_NONE);
+    out.write(payload);
+  }
+
+  /**
+   * Reads all the data from the stream, but no more than the specified
+   * number of bytes.
+   *
+   * @param in		the stream to read from
+   * @param max		the maximum number of bytes
+   * @return		the data
+   * @throws IOException	if reading fails or the maximum gets exceeded
+   */
+  public static byte[] readAll(InputStream in, int max) throws IOException {
+    ByteArrayOutputStream	result;
+    byte[]			buffer;
+    int				read;
+
+    result = new ByteArrayOutputStream();
+    buffer = new byte[8192];
+    while ((read = in.read(buffer)) != -1) {
+      if (result.size() + read > max)
+	throw new IOException("Data exceeds maximum size of " + max + " bytes!");
+      result.write(buffer, 0, read);
+    }
+
+    return result.toByteArray();
+  }
+
+  /**
+   * Reads the next frame, using the default maximum frame size.
+   *
+   * @param in		the stream to read from
+   * @return		the data, null if the end of the stream has been reached
+   * @throws IOException	if reading fails or the frame is invalid
+   * @see		#DEFAULT_MAX_FRAME_SIZE
+   */
+  public static String readFrame(DataInputStream in) throws IOException {
+    return readFrame(in, DEFAULT_MAX_FRAME_SIZE);
+  }
+
+  /**
+   * Reads the next frame. Frames whose payload exceeds the maximum size get
+   * rejected, before and after decompression.
+   *
+   * @param in		the stream to read from
+   * @param maxSize	the maximum size of the payload in bytes
+   * @return		the data, null if the end of the stream has been reached
+   * @throws IOException	if reading fails or the frame is invalid
+   */
+  public static String readFrame(DataInputStream in, int maxSize) throws IOException {
+    int			len;
+    int			first;
+    byte		flag;
+    byte[]		payload;
+    GZIPInputStream	gzip;
+
+    // end of stream?
+    first = in.read();
+    if (first == -1)
+      return null;
+
+    len = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+    if (len < 0)
+      throw new IOException("Invalid frame size: " + len);
+    if (len > maxSize)
+      throw new IOException("Frame size of " + len + " exceeds maximum of " + maxSize + " bytes!");
+    flag    = in.readByte();
+    payload = new byte[len];
+    try {
+      in.readFully(payload);
+    }
+    catch (EOFException e) {
+      throw new IOException("Incomplete frame, expected " + len + " bytes!", e);
+    }
+
+    switch (flag) {
+      case FLAG_NONE:
+	break;
+      case FLAG_GZIP:
+	gzip = new GZIPInputStream(new ByteArrayInputStream(payload));
+	try {
+	  payload = readAll(gzip, maxSize);
+	}
+	finally {
+	  gzip.close();
+	}
+	break;
+      default:
+	throw new IOException("Unknown frame flag: " + flag);
+    }
+
+    return new String(payload, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PersistentConnection.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.scripting.connection;
+
+import adams.core.QuickInfoHelper;
+import adams.core.logging.LoggingHelper;
+import adams.scripting.FrameHelper;
+import adams.scripting.command.RemoteCommand;
+import adams.scripting.command.RemoteCommandWithResponse;
+import adams.scripting.processor.RemoteCommandProcessor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends the commands as frames over a persistent connection to the
+ * specified host:port, which must be served by a
+ * {@link adams.scripting.engine.PersistentScriptingEngine}.<br>
+ * Connections are shared between all instances within the JVM that send
+ * to the same host:port. In case the connection has been closed by the
+ * other side, a new connection gets established and the command sent again.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PersistentConnection
+  extends DefaultConnection {
+
+  private static final long serialVersionUID = 2867063510474918513L;
+
+  /**
+   * Container for an open connection.
+   */
+  protected static class Channel {
+
+    /** the socket. */
+    public Socket socket;
+
+    /** the stream to write to. */
+    public DataOutputStream out;
+
+    /**
+     * Opens a connection to the specified host:port and writes the header.
+     *
+     * @param host	the host to connect to
+     * @param port	the port to connect to
+     * @throws IOException	if connecting fails
+     */
+    public Channel(String host, int port) throws IOException {
+      socket = new Socket(host, port);
+      socket.setTcpNoDelay(true);
+      socket.setKeepAlive(true);
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      FrameHelper.writeMagic(out);
+    }
+
+    /**
+     * Closes the connection.
+     */
+    public void close() {
+      try {
+	out.flush();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+      try {
+	socket.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+  }
+
+  /** the open connections (host:port - channel). */
+  protected static Map<String,Channel> m_Channels;
+  static {
+    m_Channels = new HashMap<>();
+  }
+
+  /** whether to compress the commands. */
+  protected boolean m_Compress;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Sends the commands as frames over a persistent connection to the "
+	+ "specified host:port, which must be served by a "
+	+ adams.scripting.engine.PersistentScriptingEngine.class.getName() + ".\n"
+	+ "Connections are shared between all instances within the JVM that "
+	+ "send to the same host:port. In case the connection has been closed "
+	+ "by the other side, a new connection gets established and the command "
+	+ "sent again.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "compress", "compress",
+      false);
+  }
+
+  /**
+   * Sets whether to compress the commands.
+   *
+   * @param value	true if to compress
+   */
+  public void setCompress(boolean value) {
+    m_Compress = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to compress the commands.
+   *
+   * @return		true if to compress
+   */
+  public boolean getCompress() {
+    return m_Compress;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String compressTipText() {
+    return "If enabled, the commands get compressed using gzip before being sent.";
+  }
+
+  /**
+   * Returns a quick info about the object, which can be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String  	result;
+
+    result = super.getQuickInfo();
+    result += QuickInfoHelper.toString(this, "compress", m_Compress, "compressed", ", ");
+
+    return result;
+  }
+
+  /**
+   * Generates the key for the connection.
+   *
+   * @param host	the host
+   * @param port	the port
+   * @return		the key
+   */
+  protected static String key(String host, int port) {
+    return host + ":" + port;
+  }
+
+  /**
+   * Returns the channel for the host:port, opens a new connection if
+   * necessary.
+   *
+   * @param host	the host
+   * @param port	the port
+   * @return		the channel
+   * @throws IOException	if connecting fails
+   */
+  protected static Channel getChannel(String host, int port) throws IOException {
+    Channel	result;
+    String	key;
+
+    key = key(host, port);
+    synchronized(m_Channels) {
+      result = m_Channels.get(key);
+      if ((result == null) || result.socket.isClosed()) {
+	result = new Channel(host, port);
+	m_Channels.put(key, result);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Closes and removes the channel.
+   *
+   * @param host	the host
+   * @param port	the port
+   * @param channel	the channel to remove, null to remove whatever
+   * 			channel is registered
+   */
+  protected static void removeChannel(String host, int port, Channel channel) {
+    String	key;
+
+    key = key(host, port);
+    synchronized(m_Channels) {
+      if (channel == null)
+	channel = m_Channels.get(key);
+      if ((channel != null) && (m_Channels.get(key) == channel))
+	m_Channels.remove(key);
+    }
+    if (channel != null)
+      channel.close();
+  }
+
+  /**
+   * Closes all open connections.
+   */
+  public static void closeAll() {
+    synchronized(m_Channels) {
+      for (Channel channel: m_Channels.values())
+	channel.close();
+      m_Channels.clear();
+    }
+  }
+
+  /**
+   * Sends the command to the specified sscripting engine.
+   *
+   * @param cmd		the command to send
+   * @param processor	the processor for formatting/parsing
+   * @param host	the host to send the command to
+   * @param port	the host port
+   * @param request	whether Request or Response
+   * @return		null if successfully sent, otherwise error message
+   */
+  @Override
+  protected String send(RemoteCommand cmd, RemoteCommandProcessor processor, String host, int port, boolean request) {
+    String	result;
+    String	data;
+    Channel	channel;
+    int		attempt;
+
+    result = null;
+    if (request)
+      data = cmd.assembleRequest(processor);
+    else
+      data = ((RemoteCommandWithResponse) cmd).assembleResponse(processor);
+
+    // a stale connection only gets detected when writing, hence a second attempt
+    for (attempt = 0; attempt < 2; attempt++) {
+      channel = null;
+      try {
+	channel = getChannel(host, port);
+	synchronized(channel) {
+	  FrameHelper.writeFrame(channel.out, data, m_Compress);
+	  channel.out.flush();
+	}
+	result = null;
+	break;
+      }
+      catch (Exception e) {
+	if (channel != null)
+	  removeChannel(host, port, channel);
+	result = LoggingHelper.handleException(
+	  cmd, "Failed to send " + (request ? "request" : "response") + " to " + host + ":" + port, e);
+	if (channel == null)
+	  break;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Closes the connection to the host:port.
+   */
+  @Override
+  public void cleanUp() {
+    removeChannel(m_Host, m_Port, null);
+    super.cleanUp();
+  }
+}
@@ -170,10 +170,6 @@ public class DefaultScriptingEngine
     InputStream		in;
     int			b;
     TByteArrayList 	bytes;
-    String		data;
-    RemoteCommand	cmd;
-    MessageCollection	errors;
-    String		msg;
 
     // read data
     bytes = new TByteArrayList();
@@ -192,8 +188,20 @@ public class DefaultScriptingEngine
       return;
     }
 
+    handleData(new String(bytes.toArray()));
+  }
+
+  /**
+   * Parses the received data and handles the command.
+   *
+   * @param data	the data to handle
+   */
+  protected void handleData(String data) {
+    RemoteCommand	cmd;
+    MessageCollection	errors;
+    String		msg;
+
     // instantiate command
-    data   = new String(bytes.toArray());
     errors = new MessageCollection();
     cmd    = m_CommandProcessor.parse(data, errors);
 
@@ -0,0 +1,462 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PersistentScriptingEngine.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.scripting.engine;
+
+import adams.core.Performance;
+import adams.core.Utils;
+import adams.core.logging.LoggingHelper;
+import adams.core.net.PortManager;
+import adams.multiprocess.PausableFixedThreadPoolExecutor;
+import adams.scripting.FrameHelper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Scripting engine that keeps client connections open and reads any number
+ * of length-prefixed (and optionally compressed) frames from them, as sent
+ * by the {@link adams.scripting.connection.PersistentConnection}.<br>
+ * Each connection gets read by its own thread, the received commands get
+ * handled concurrently by a pool of handler threads. Hence, commands are
+ * not necessarily handled in the order that they were received.<br>
+ * Connections that do not start with the frame header get processed like
+ * in the {@link DefaultScriptingEngine}, i.e., the complete data until the
+ * connection gets closed is interpreted as a single command.<br>
+ * The size of the commands and the number of concurrent connections are
+ * limited; connections beyond the limit get closed immediately.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PersistentScriptingEngine
+  extends DefaultScriptingEngine {
+
+  private static final long serialVersionUID = 4510427532091718544L;
+
+  /** the number of threads for handling commands. */
+  protected int m_NumThreads;
+
+  /** the maximum size of a command in bytes. */
+  protected int m_MaxFrameSize;
+
+  /** the maximum number of concurrent connections. */
+  protected int m_MaxConnections;
+
+  /** the executor for reading from the client connections. */
+  protected transient ExecutorService m_ConnectionExecutor;
+
+  /** the executor for handling the commands. */
+  protected transient PausableFixedThreadPoolExecutor m_HandlerExecutor;
+
+  /** the currently open client connections. */
+  protected transient Set<Socket> m_Clients;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Scripting engine that keeps client connections open and reads any "
+	+ "number of length-prefixed (and optionally compressed) frames from them, "
+	+ "as sent by the " + adams.scripting.connection.PersistentConnection.class.getName() + ".\n"
+	+ "Each connection gets read by its own thread, the received commands get "
+	+ "handled concurrently by a pool of handler threads. Hence, commands are "
+	+ "not necessarily handled in the order that they were received.\n"
+	+ "Connections that do not start with the frame header get processed like "
+	+ "in the " + DefaultScriptingEngine.class.getName() + ", i.e., the "
+	+ "complete data until the connection gets closed is interpreted as a "
+	+ "single command.\n"
+	+ "The size of the commands and the number of concurrent connections are "
+	+ "limited; connections beyond the limit get closed immediately.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      -1);
+
+    m_OptionManager.add(
+      "max-frame-size", "maxFrameSize",
+      FrameHelper.DEFAULT_MAX_FRAME_SIZE, 1, null);
+
+    m_OptionManager.add(
+      "max-connections", "maxConnections",
+      64, 1, null);
+  }
+
+  /**
+   * Sets the number of threads to use for handling the commands.
+   *
+   * @param value 	the number of threads
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for handling the commands.
+   *
+   * @return		the number of threads
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String numThreadsTipText() {
+    return "The number of threads for handling the commands; " + Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Sets the maximum size of a command.
+   *
+   * @param value 	the maximum in bytes
+   */
+  public void setMaxFrameSize(int value) {
+    if (getOptionManager().isValid("maxFrameSize", value)) {
+      m_MaxFrameSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum size of a command.
+   *
+   * @return		the maximum in bytes
+   */
+  public int getMaxFrameSize() {
+    return m_MaxFrameSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String maxFrameSizeTipText() {
+    return "The maximum size in bytes of a command (uncompressed); connections sending larger commands get closed.";
+  }
+
+  /**
+   * Sets the maximum number of concurrent connections.
+   *
+   * @param value 	the maximum
+   */
+  public void setMaxConnections(int value) {
+    if (getOptionManager().isValid("maxConnections", value)) {
+      m_MaxConnections = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of concurrent connections.
+   *
+   * @return		the maximum
+   */
+  public int getMaxConnections() {
+    return m_MaxConnections;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String maxConnectionsTipText() {
+    return "The maximum number of concurrent connections; further connections get closed immediately.";
+  }
+
+  /**
+   * Registers the client connection, if the maximum number of connections
+   * hasn't been reached yet.
+   *
+   * @param client	the connection to add
+   * @return		true if added
+   */
+  protected boolean addClient(Socket client) {
+    synchronized(m_Clients) {
+      if (m_Clients.size() >= m_MaxConnections)
+	return false;
+      m_Clients.add(client);
+      return true;
+    }
+  }
+
+  /**
+   * Closes and removes the client connection.
+   *
+   * @param client	the connection to remove
+   */
+  protected void removeClient(Socket client) {
+    synchronized(m_Clients) {
+      m_Clients.remove(client);
+    }
+    try {
+      client.close();
+    }
+    catch (Exception e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Closes all client connections.
+   */
+  protected void closeClients() {
+    List<Socket>	clients;
+
+    if (m_Clients == null)
+      return;
+
+    synchronized(m_Clients) {
+      clients = new ArrayList<>(m_Clients);
+    }
+    for (Socket client: clients)
+      removeClient(client);
+  }
+
+  /**
+   * Queues the data for handling.
+   *
+   * @param data	the data to handle
+   */
+  protected void queueData(final String data) {
+    m_HandlerExecutor.submit(() -> handleData(data));
+  }
+
+  /**
+   * Reads all the frames from the connection, until it gets closed.
+   * Falls back to reading a single command if the connection does not
+   * start with the frame header.
+   *
+   * @param client	the connection to handle
+   */
+  @Override
+  protected void handleClient(Socket client) {
+    DataInputStream		in;
+    byte[]			header;
+    int				len;
+    int				read;
+    ByteArrayOutputStream	legacy;
+    String			data;
+
+    try {
+      in     = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+      header = new byte[FrameHelper.MAGIC.length];
+      len    = 0;
+      while (len < header.length) {
+	read = in.read(header, len, header.length - len);
+	if (read == -1)
+	  break;
+	len += read;
+      }
+
+      if (FrameHelper.isMagic(header, len)) {
+	while (!m_Stopped) {
+	  data = FrameHelper.readFrame(in, m_MaxFrameSize);
+	  if (data == null)
+	    break;
+	  queueData(data);
+	}
+      }
+      else {
+	legacy = new ByteArrayOutputStream();
+	legacy.write(header, 0, len);
+	legacy.write(FrameHelper.readAll(in, Math.max(0, m_MaxFrameSize - len)));
+	if (legacy.size() == 0)
+	  getLogger().warning("No data received, ignoring connection!");
+	else
+	  queueData(legacy.toString());
+      }
+    }
+    catch (IOException e) {
+      if (!m_Stopped && !client.isClosed())
+	getLogger().log(Level.SEVERE, "Failed to process client connection!", e);
+    }
+    finally {
+      removeClient(client);
+    }
+  }
+
+  /**
+   * Starts a thread for reading from the client connection.
+   *
+   * @param client	the connection to read from
+   * @throws IOException	if setting up the connection fails
+   */
+  protected void startReader(final Socket client) throws IOException {
+    if (!addClient(client)) {
+      getLogger().warning("Maximum number of connections (" + m_MaxConnections + ") reached, closing connection from " + client.getRemoteSocketAddress());
+      client.close();
+      return;
+    }
+    client.setTcpNoDelay(true);
+    m_ConnectionExecutor.submit(() -> handleClient(client));
+  }
+
+  /**
+   * Shuts down the executor and waits for it to terminate.
+   *
+   * @param executor	the executor to shut down
+   * @param name	the name of the executor for the logging output
+   */
+  protected void shutdown(ExecutorService executor, String name) {
+    if ((executor != null) && !executor.isTerminated()) {
+      getLogger().info("Shutting down " + name + "...");
+      executor.shutdown();
+      while (!executor.isTerminated())
+	Utils.wait(this, 1000, 100);
+      getLogger().info("Finished shutting down " + name);
+    }
+  }
+
+  /**
+   * Executes the scripting engine.
+   *
+   * @return		error message in case of failure to start up or run,
+   * 			otherwise null
+   */
+  @Override
+  protected String doExecute() {
+    String		result;
+    Socket		client;
+
+    result    = null;
+    m_Paused  = false;
+    m_Stopped = false;
+
+    // connect to port
+    try {
+      m_Server = new ServerSocket(m_Port);
+      m_Server.setSoTimeout(m_Timeout);
+      PortManager.getSingleton().bind(this, m_Port);
+    }
+    catch (Exception e) {
+      result   = LoggingHelper.handleException(this, "Failed to set up server socket, using port " + m_Port + "!", e);
+      m_Server = null;
+    }
+
+    // wait for connections
+    if (m_Server != null) {
+      // start up job queue and handlers
+      m_Executor           = new PausableFixedThreadPoolExecutor(m_MaxConcurrentJobs);
+      m_HandlerExecutor    = new PausableFixedThreadPoolExecutor(Performance.determineNumThreads(m_NumThreads));
+      m_ConnectionExecutor = Executors.newCachedThreadPool();
+      m_Clients            = new HashSet<>();
+
+      while (!m_Stopped) {
+	while (m_Paused && !m_Stopped) {
+	  Utils.wait(this, this, 1000, 50);
+	}
+
+	try {
+	  client = m_Server.accept();
+	  if (client != null)
+	    startReader(client);
+	}
+	catch (SocketTimeoutException t) {
+	  // ignored
+	}
+	catch (Exception e) {
+	  if ((m_Server != null) && !m_Server.isClosed())
+	    LoggingHelper.handleException(this, "Failed to accept connection!", e);
+	}
+      }
+    }
+
+    closeSocket();
+    closeClients();
+    shutdown(m_ConnectionExecutor, "connection readers");
+    shutdown(m_HandlerExecutor, "command handlers");
+    shutdown(m_Executor, "job queue");
+
+    return result;
+  }
+
+  /**
+   * Pauses the execution.
+   */
+  @Override
+  public void pauseExecution() {
+    super.pauseExecution();
+    if (m_HandlerExecutor != null)
+      m_HandlerExecutor.pauseExecution();
+  }
+
+  /**
+   * Resumes the execution.
+   */
+  @Override
+  public void resumeExecution() {
+    super.resumeExecution();
+    if (m_HandlerExecutor != null)
+      m_HandlerExecutor.resumeExecution();
+  }
+
+  /**
+   * Stops the execution.
+   */
+  @Override
+  public void stopExecution() {
+    super.stopExecution();
+    closeClients();
+    if (m_HandlerExecutor != null)
+      m_HandlerExecutor.shutdownNow();
+  }
+
+  /**
+   * Starts the scripting engine from commandline.
+   *
+   * @param args  	additional options for the scripting engine
+   */
+  public static void main(String[] args) {
+    runScriptingEngine(PersistentScriptingEngine.class, args);
+  }
+}
@@ -225,6 +225,55 @@ public class VariablesTest
     assertEquals(s, " world2 / world3 / @ {hello2} / {hello3} / @{hello / @hello3", v.expand(s));
     s = "@{hello2}@{hello3}";
     assertEquals(s, "world2world3", v.expand(s));
+    s = "@{hello / @{hello2}";
+    assertEquals(s, "@{hello / world2", v.expand(s));
+    s = "@{unknown} @{system.user.home}";
+    assertEquals(s, "@{unknown} " + System.getProperty("user.home"), v.expand(s));
+  }
+
+  /**
+   * Tests the expand(String) method with nested variables.
+   */
+  public void testExpandNested() {
+    Variables v = new Variables();
+    v.set("name", "hello");
+    v.set("hello", "world");
+    v.set("ref", "@{hello}!");
+    String s;
+    s = "@{@{name}}";
+    assertEquals(s, "world", v.expand(s));
+    s = "@{ref}";
+    assertEquals(s, "world!", v.expand(s));
+    v.set("hello", "there");
+    assertEquals(s, "there!", v.expand(s));
+  }
+
+  /**
+   * Tests the caching of expansions.
+   */
+  public void testExpandCache() {
+    Variables v = new Variables();
+    v.set("hello", "world");
+    String s = "say @{hello} to @{other}";
+    assertEquals(s, "say world to @{other}", v.expand(s));
+    assertEquals(s, "say world to @{other}", v.expand(s));
+    assertEquals("# of expansions", 2, v.getNumExpansions());
+    assertEquals("# of cache hits", 1, v.getNumExpansionCacheHits());
+    assertEquals("# of templates", 1, v.getNumTemplates());
+
+    v.set("other", "you");
+    assertEquals(s, "say world to you", v.expand(s));
+    v.set("hello", "hi", false);
+    assertEquals(s, "say hi to you", v.expand(s));
+    v.remove("other");
+    assertEquals(s, "say hi to @{other}", v.expand(s));
+    v.clear();
+    assertEquals(s, "say @{hello} to @{other}", v.expand(s));
+    assertEquals("# of cache hits", 1, v.getNumExpansionCacheHits());
+    assertEquals("# of templates", 1, v.getNumTemplates());
+
+    v.resetExpansionStatistics();
+    assertEquals("# of expansions", 0, v.getNumExpansions());
   }
 
   /**
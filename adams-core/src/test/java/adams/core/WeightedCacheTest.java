@@ -0,0 +1,246 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * WeightedCacheTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core;
+
+import adams.core.classmanager.ClassManager;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+
+/**
+ * Tests the adams.core.WeightedCache class. Run from commandline with: <br><br>
+ * java adams.core.WeightedCacheTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class WeightedCacheTest
+  extends AdamsTestCase {
+
+  /**
+   * Cache that uses the string length as weight.
+   */
+  public static class StringCache
+    extends WeightedCache<String,String> {
+
+    private static final long serialVersionUID = 5040424330926488421L;
+
+    /**
+     * Initializes the cache.
+     *
+     * @param maxWeight	the maximum total length of the strings
+     * @param spillDir	the spill directory, null for none
+     */
+    public StringCache(long maxWeight, File spillDir) {
+      super(-1, maxWeight, -1, false, spillDir);
+    }
+
+    /**
+     * Uses the string length as weight.
+     *
+     * @param value	the string
+     * @return		the length
+     */
+    @Override
+    protected long weigh(String value) {
+      return value.length();
+    }
+  }
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public WeightedCacheTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Tests the bound on the number of entries.
+   */
+  public void testMaxEntries() {
+    WeightedCache<String,Integer> cache = new WeightedCache<>(3);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.put("c", 3);
+    assertEquals("access", 1, (int) cache.get("a"));
+    cache.put("d", 4);
+    assertEquals("size", 3, cache.sizeUsed());
+    assertTrue("recently used", cache.contains("a"));
+    assertFalse("least recently used", cache.contains("b"));
+    assertEquals("evictions", 1, cache.getNumEvictions());
+    assertNull("evicted", cache.get("b"));
+    assertEquals("hits", 1, cache.getNumHits());
+    assertEquals("misses", 1, cache.getNumMisses());
+    assertEquals("removed", 3, (int) cache.remove("c"));
+    assertEquals("size", 2, cache.sizeUsed());
+  }
+
+  /**
+   * Tests the bound on the weight.
+   */
+  public void testMaxWeight() {
+    StringCache cache = new StringCache(10, null);
+    cache.put("a", "12345");
+    cache.put("b", "1234");
+    assertEquals("weight", 9, cache.getWeight());
+    cache.put("c", "123");
+    assertEquals("weight", 7, cache.getWeight());
+    assertFalse("evicted", cache.contains("a"));
+    cache.put("b", "1");
+    assertEquals("weight after replace", 4, cache.getWeight());
+    cache.put("d", "12345678901");
+    assertEquals("too large", 0, cache.sizeUsed());
+    assertEquals("weight", 0, cache.getWeight());
+  }
+
+  /**
+   * Tests the expiry of entries.
+   *
+   * @throws Exception	if sleep gets interrupted
+   */
+  public void testExpiry() throws Exception {
+    WeightedCache<String,Integer> cache = new WeightedCache<>(-1, -1, 50, false, null);
+    cache.put("a", 1);
+    assertTrue("not expired", cache.contains("a"));
+    Thread.sleep(100);
+    assertFalse("expired", cache.contains("a"));
+    assertNull("expired", cache.get("a"));
+    assertEquals("expirations", 1, cache.getNumExpirations());
+    assertEquals("size", 0, cache.sizeUsed());
+  }
+
+  /**
+   * Tests the soft reference tier.
+   */
+  public void testSoftReferences() {
+    WeightedCache<String,Integer> cache = new WeightedCache<>(1, -1, -1, true, null);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertEquals("size", 1, cache.sizeUsed());
+    assertEquals("soft size", 1, cache.sizeSoft());
+    assertEquals("soft", 1, (int) cache.get("a"));
+    assertEquals("soft hits", 1, cache.getNumSoftHits());
+    assertEquals("soft size", 1, cache.sizeSoft());
+    assertEquals("size", 1, cache.sizeUsed());
+  }
+
+  /**
+   * Tests the disk tier.
+   */
+  public void testSpill() {
+    File dir = new File(System.getProperty("java.io.tmpdir"));
+    StringCache cache = new StringCache(5, dir);
+    cache.put("a", "123");
+    cache.put("b", "456");
+    assertEquals("spills", 1, cache.getNumSpills());
+    assertEquals("disk size", 1, cache.sizeDisk());
+    assertEquals("disk", "123", cache.get("a"));
+    assertEquals("disk hits", 1, cache.getNumDiskHits());
+    assertEquals("disk size", 1, cache.sizeDisk());
+    assertEquals("keys", 2, cache.keySet().size());
+    cache.clear();
+    assertEquals("disk size", 0, cache.sizeDisk());
+    assertEquals("keys", 0, cache.keySet().size());
+  }
+
+  /**
+   * Tests that spilled files get deleted on reload, removal and clear().
+   */
+  public void testSpillFiles() {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "weightedcache-" + System.nanoTime());
+    assertTrue("spill dir", dir.mkdirs());
+    try {
+      StringCache cache = new StringCache(5, dir);
+      cache.put("a", "123");
+      cache.put("b", "456");
+      assertEquals("files after spill", 1, dir.listFiles().length);
+      assertEquals("disk", "123", cache.get("a"));
+      // "a" got reloaded (file deleted), "b" got spilled
+      assertEquals("files after reload", 1, dir.listFiles().length);
+      assertEquals("removed", "456", cache.remove("b"));
+      assertEquals("files after remove", 0, dir.listFiles().length);
+      for (int i = 0; i < 10; i++)
+	cache.put("k" + i, "" + (100 + i));
+      assertTrue("files after spills", dir.listFiles().length > 0);
+      cache.clear();
+      assertEquals("files after clear", 0, dir.listFiles().length);
+    }
+    finally {
+      for (File file: dir.listFiles())
+	file.delete();
+      dir.delete();
+    }
+  }
+
+  /**
+   * Tests the getClone() method.
+   */
+  public void testGetClone() {
+    WeightedCache<String,Integer> cache = new WeightedCache<>(3);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.put("c", 3);
+    cache.get("a");
+    WeightedCache<String,Integer> clone = cache.getClone(true);
+    assertEquals("size", 3, clone.sizeUsed());
+    clone.put("d", 4);
+    assertFalse("access order", clone.contains("b"));
+    assertTrue("access order", clone.contains("a"));
+    assertTrue("original", cache.contains("b"));
+  }
+
+  /**
+   * Tests serializing the cache.
+   */
+  @Override
+  public void testSerializable() {
+    WeightedCache<String,Integer> cache = new WeightedCache<>(-1, -1, -1, true, null);
+    cache.put("a", 1);
+    WeightedCache<String,Integer> copy = (WeightedCache<String,Integer>) ClassManager.getSingleton().deepCopy(cache);
+    assertNotNull("Serialization failed", copy);
+    assertEquals("value", 1, (int) copy.get("a"));
+    copy.put("b", 2);
+    assertEquals("size", 2, copy.sizeUsed());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(WeightedCacheTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
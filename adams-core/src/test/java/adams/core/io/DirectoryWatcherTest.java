@@ -0,0 +1,269 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DirectoryWatcherTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io;
+
+import adams.core.base.BaseRegExp;
+import adams.core.classmanager.ClassManager;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TmpDirectory;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the DirectoryWatcher class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DirectoryWatcherTest
+  extends AdamsTestCase {
+
+  /** the directory to watch. */
+  public final static String DIRNAME = "watched";
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public DirectoryWatcherTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the directory to watch.
+   *
+   * @return		the directory
+   */
+  protected File getDir() {
+    return new File(new TmpDirectory().getAbsolutePath(), DIRNAME);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    FileUtils.delete(getDir());
+    getDir().mkdirs();
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.delete(getDir());
+    super.tearDown();
+  }
+
+  /**
+   * Writes the content to the file.
+   *
+   * @param file	the file to write
+   * @param content	the content
+   * @throws Exception	if writing fails
+   */
+  protected void write(File file, String content) throws Exception {
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Polls the watcher till the expected number of files has been reported
+   * or the timeout has been reached.
+   *
+   * @param watcher	the watcher to poll
+   * @param expected	the number of files to expect
+   * @return		the reported file names
+   * @throws Exception	if polling fails
+   */
+  protected List<String> poll(DirectoryWatcher watcher, int expected) throws Exception {
+    List<String>	result;
+    long		deadline;
+
+    result   = new ArrayList<>();
+    deadline = System.currentTimeMillis() + 10000;
+    while ((result.size() < expected) && (System.currentTimeMillis() < deadline)) {
+      for (File file: watcher.poll(100))
+	result.add(file.getName());
+    }
+    // nothing else should get reported
+    for (File file: watcher.poll(300))
+      result.add(file.getName());
+
+    return result;
+  }
+
+  /**
+   * Performs the test with the watcher.
+   *
+   * @param polling	whether to enforce polling
+   * @throws Exception	if test fails
+   */
+  protected void performTest(boolean polling) throws Exception {
+    DirectoryWatcher	watcher;
+    File		sub;
+    List<String>	files;
+
+    write(new File(getDir(), "existing.txt"), "existing");
+
+    watcher = new DirectoryWatcher(getDir(), true);
+    watcher.setRegExp(new BaseRegExp(".*\\.txt"));
+    watcher.setDebounce(50);
+    watcher.setPollInterval(50);
+    watcher.setForcePolling(polling);
+    watcher.start();
+    try {
+      assertEquals("polling", polling, watcher.isPolling());
+
+      write(new File(getDir(), "1.txt"), "1");
+      write(new File(getDir(), "1.csv"), "1");
+      files = poll(watcher, 1);
+      assertEquals("new file", "[1.txt]", files.toString());
+
+      sub = new File(getDir(), "sub");
+      sub.mkdirs();
+      write(new File(sub, "2.txt"), "2");
+      files = poll(watcher, 1);
+      assertEquals("new sub-directory", "[2.txt]", files.toString());
+
+      write(new File(getDir(), "1.txt"), "11");
+      files = poll(watcher, 1);
+      assertEquals("changed file", "[1.txt]", files.toString());
+    }
+    finally {
+      watcher.close();
+    }
+  }
+
+  /**
+   * Tests the watch service.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testWatchService() throws Exception {
+    performTest(false);
+  }
+
+  /**
+   * Tests the polling fallback.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testPolling() throws Exception {
+    performTest(true);
+  }
+
+  /**
+   * Tests the reporting of existing files.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testIncludeExisting() throws Exception {
+    DirectoryWatcher	watcher;
+
+    write(new File(getDir(), "existing.txt"), "existing");
+
+    watcher = new DirectoryWatcher(getDir(), false);
+    watcher.setDebounce(0);
+    watcher.setIncludeExisting(true);
+    watcher.start();
+    try {
+      assertEquals("existing file", "[existing.txt]", poll(watcher, 1).toString());
+    }
+    finally {
+      watcher.close();
+    }
+  }
+
+  /**
+   * Tests the handling of an overflow of the watch service: only new or
+   * changed files get reported, not all the files in the directory.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testOverflow() throws Exception {
+    DirectoryWatcher	watcher;
+    List<String>	files;
+
+    write(new File(getDir(), "existing.txt"), "existing");
+    write(new File(getDir(), "unchanged.txt"), "unchanged");
+
+    watcher = new DirectoryWatcher(getDir(), false);
+    watcher.setDebounce(0);
+    watcher.start();
+    try {
+      write(new File(getDir(), "existing.txt"), "existing, changed");
+      write(new File(getDir(), "new.txt"), "new");
+      // events got lost
+      watcher.overflow();
+      files = poll(watcher, 2);
+      Collections.sort(files);
+      assertEquals("new/changed files", "[existing.txt, new.txt]", files.toString());
+
+      // already reported, nothing changed
+      watcher.overflow();
+      assertEquals("no files", "[]", poll(watcher, 0).toString());
+    }
+    finally {
+      watcher.close();
+    }
+  }
+
+  /**
+   * Tests the serialization of the watcher (no default constructor).
+   */
+  @Override
+  public void testSerializable() {
+    assertNotNull("Serialization failed", ClassManager.getSingleton().deepCopy(new DirectoryWatcher(getDir(), false)));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(DirectoryWatcherTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
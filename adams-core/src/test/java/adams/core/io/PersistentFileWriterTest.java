@@ -0,0 +1,158 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PersistentFileWriterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Tests the PersistentFileWriter class.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PersistentFileWriterTest
+  extends AdamsTestCase {
+
+  /** the file to write to. */
+  public final static String FILENAME = "persistent.txt";
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public PersistentFileWriterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_TestHelper.deleteFileFromTmp(FILENAME);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_TestHelper.deleteFileFromTmp(FILENAME);
+    super.tearDown();
+  }
+
+  /**
+   * Returns the content of the file.
+   *
+   * @return		the content
+   * @throws Exception	if loading fails
+   */
+  protected String load() throws Exception {
+    return new String(Files.readAllBytes(new TmpFile(FILENAME).toPath()), StandardCharsets.UTF_8).trim();
+  }
+
+  /**
+   * Tests the size-based flushing and closing.
+   *
+   * @throws Exception	if writing fails
+   */
+  public void testFlushSize() throws Exception {
+    PersistentFileWriter	writer;
+
+    writer = new PersistentFileWriter(new TmpFile(FILENAME), false, StandardCharsets.UTF_8, 10, 0, false);
+    writer.write("12345");
+    assertEquals("nothing flushed yet", 0, new TmpFile(FILENAME).length());
+    writer.write("67890");
+    assertEquals("flushed", 10, new TmpFile(FILENAME).length());
+    writer.write("abc");
+    assertEquals("nothing flushed yet", 10, new TmpFile(FILENAME).length());
+    writer.flush();
+    assertEquals("flushed", 13, new TmpFile(FILENAME).length());
+    writer.write("def");
+    writer.close();
+    assertFalse("closed", writer.isOpen());
+    assertEquals("flushed on close", 16, new TmpFile(FILENAME).length());
+    try {
+      writer.write("ghi");
+      fail("Writing to closed writer should fail");
+    }
+    catch (Exception e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests appending and time-based flushing.
+   *
+   * @throws Exception	if writing fails
+   */
+  public void testAppend() throws Exception {
+    PersistentFileWriter	writer;
+    int				i;
+
+    writer = new PersistentFileWriter(new TmpFile(FILENAME), false, StandardCharsets.UTF_8, 1024, 0, true);
+    writer.writeLine("1");
+    writer.close();
+
+    writer = new PersistentFileWriter(new TmpFile(FILENAME), true, StandardCharsets.UTF_8, 1024, 50, true);
+    writer.writeLine("2");
+    for (i = 0; i < 100; i++) {
+      if (new TmpFile(FILENAME).length() > 2)
+	break;
+      Thread.sleep(20);
+    }
+    assertEquals("flushed by time", "1" + System.lineSeparator() + "2", load());
+    writer.writeLine("3");
+    writer.close();
+    assertEquals("appended", "1" + System.lineSeparator() + "2" + System.lineSeparator() + "3", load());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(PersistentFileWriterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
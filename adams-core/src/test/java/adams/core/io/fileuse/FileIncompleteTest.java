@@ -0,0 +1,92 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FileIncompleteTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.core.io.fileuse;
+
+import adams.core.io.FileUtils;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the adams.core.io.fileuse.FileIncomplete class. Run from commandline with: <br><br>
+ * java adams.core.io.fileuse.FileIncompleteTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FileIncompleteTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public FileIncompleteTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    new TmpFile("fileincomplete.txt").delete();
+
+    super.tearDown();
+  }
+
+  /**
+   * Tests the default check (no check), which considers files complete,
+   * i.e., not in use.
+   */
+  public void testDefaultCheck() {
+    TmpFile		file;
+    FileIncomplete	check;
+
+    file = new TmpFile("fileincomplete.txt");
+    assertTrue("failed to write file", FileUtils.writeToFile(file.getAbsolutePath(), "content", false));
+    check = new FileIncomplete();
+    assertFalse("in use", check.isInUse(file));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FileIncompleteTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -15,7 +15,7 @@
 
 /**
  * ArrayProducerTest.java
- * Copyright (C) 2011-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.core.option;
 
@@ -58,11 +58,11 @@ public class ArrayProducerTest
 
     assertEquals(
 	"getOutput() differs",
-	"adams.flow.sink.DumpFile,-logging-level,INFO,-output,${TMP}/dumpfile.csv,-append,true",
+	"adams.flow.sink.DumpFile,-logging-level,INFO,-output,${TMP}/dumpfile.csv,-append,true,-filename-generator,adams.core.io.NullFilenameGenerator",
 	Utils.arrayToString(producer.getOutput()));
     assertEquals(
 	"toString() differs",
-	"adams.flow.sink.DumpFile -logging-level INFO -output ${TMP}/dumpfile.csv -append true",
+	"adams.flow.sink.DumpFile -logging-level INFO -output ${TMP}/dumpfile.csv -append true -filename-generator adams.core.io.NullFilenameGenerator",
 	producer.toString());
   }
 
@@ -15,7 +15,7 @@
 
 /**
  * NestedProducerTest.java
- * Copyright (C) 2011-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.core.option;
 
@@ -69,7 +69,7 @@ public class NestedProducerTest
 
     assertEquals(
 	"getOutput() differs",
-	"[adams.flow.sink.DumpFile, [-logging-level, INFO, -output, ${TMP}/dumpfile.csv, -append, true]]",
+	"[adams.flow.sink.DumpFile, [-logging-level, INFO, -output, ${TMP}/dumpfile.csv, -append, true, -filename-generator, [adams.core.io.NullFilenameGenerator, []]]]",
 	"" + producer.getOutput());
     assertEquals(
 	"toString() differs",
@@ -79,7 +79,9 @@ public class NestedProducerTest
 	+ "\t-output\n"
 	+ "\t${TMP}/dumpfile.csv\n"
 	+ "\t-append\n"
-	+ "\ttrue\n",
+	+ "\ttrue\n"
+	+ "\t-filename-generator\n"
+	+ "\t\tadams.core.io.NullFilenameGenerator\n",
 	producer.toString());
   }
 
@@ -0,0 +1,308 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheetReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.DateTime;
+import adams.core.Range;
+import adams.data.io.ColumnarSpreadSheetFormat.ColumnType;
+import adams.data.io.ColumnarSpreadSheetFormat.Header;
+import adams.data.io.output.ColumnarSpreadSheetWriter;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.env.Environment;
+import adams.test.AbstractTestHelper;
+import adams.test.AdamsTestCase;
+import adams.test.TestHelper;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the adams.data.io.input.ColumnarSpreadSheetReader class, by writing
+ * data with the corresponding writer and reading it back in.
+ * Run from commandline with: <br><br>
+ * java adams.data.io.input.ColumnarSpreadSheetReaderTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheetReaderTest
+  extends AdamsTestCase {
+
+  /** the file to write to. */
+  public final static String FILENAME = "columnar.acss";
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ColumnarSpreadSheetReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the test helper class to use.
+   *
+   * @return		the helper class instance
+   */
+  @Override
+  protected AbstractTestHelper newTestHelper() {
+    return new TestHelper(this, "adams/data/io/input/data");
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_TestHelper.deleteFileFromTmp(FILENAME);
+
+    super.tearDown();
+  }
+
+  /**
+   * Generates a spreadsheet with numeric, string, boolean, date and mixed
+   * columns, containing missing values.
+   *
+   * @param numRows	the number of rows to generate
+   * @return		the spreadsheet
+   */
+  protected SpreadSheet generate(int numRows) {
+    SpreadSheet	result;
+    Row		row;
+    Random	rnd;
+    int		i;
+
+    rnd    = new Random(1);
+    result = new DefaultSpreadSheet();
+    result.setName("generated");
+    result.addComment("some comment");
+    row = result.getHeaderRow();
+    row.addCell("id").setContentAsString("id");
+    row.addCell("value").setContentAsString("value");
+    row.addCell("label").setContentAsString("label");
+    row.addCell("flag").setContentAsString("flag");
+    row.addCell("timestamp").setContentAsString("timestamp");
+    row.addCell("mixed").setContentAsString("mixed");
+    for (i = 0; i < numRows; i++) {
+      row = result.addRow();
+      row.addCell(0).setContent(i);
+      if (rnd.nextInt(10) > 0)
+	row.addCell(1).setContent(rnd.nextGaussian());
+      if (rnd.nextInt(10) > 0)
+	row.addCell(2).setContentAsString("label-" + rnd.nextInt(5) + " \u00fcml\u00e4ut");
+      row.addCell(3).setContent(rnd.nextBoolean());
+      row.addCell(4).setContent(new DateTime(1600000000000L + i * 1000L));
+      if (i % 2 == 0)
+	row.addCell(5).setContent(i * 0.5);
+      else
+	row.addCell(5).setContentAsString("text " + i);
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes the spreadsheet to {@link #FILENAME}.
+   *
+   * @param sheet	the spreadsheet to write
+   * @param groupSize	the number of rows per group
+   * @param compress	whether to compress the blocks
+   * @return		the file
+   */
+  protected TmpFile write(SpreadSheet sheet, int groupSize, boolean compress) {
+    ColumnarSpreadSheetWriter	writer;
+    TmpFile			result;
+
+    result = new TmpFile(FILENAME);
+    writer = new ColumnarSpreadSheetWriter();
+    writer.setRowGroupSize(groupSize);
+    writer.setCompress(compress);
+    assertTrue("Failed to write data", writer.write(sheet, result));
+
+    return result;
+  }
+
+  /**
+   * Compares the two spreadsheets cell by cell.
+   *
+   * @param expected	the expected spreadsheet
+   * @param actual	the actual spreadsheet
+   * @param rowOffset	the row offset in the expected spreadsheet
+   * @param cols	the columns in the expected spreadsheet
+   */
+  protected void assertSameData(SpreadSheet expected, SpreadSheet actual, int rowOffset, int[] cols) {
+    int		i;
+    int		n;
+    Row		rowExp;
+    Row		rowAct;
+
+    assertEquals("# cols differ", cols.length, actual.getColumnCount());
+    for (i = 0; i < cols.length; i++)
+      assertEquals("header differs: " + i, expected.getColumnName(cols[i]), actual.getColumnName(i));
+    for (n = 0; n < actual.getRowCount(); n++) {
+      rowExp = expected.getRow(n + rowOffset);
+      rowAct = actual.getRow(n);
+      for (i = 0; i < cols.length; i++) {
+	assertEquals("cell presence differs: " + n + "/" + i, rowExp.hasCell(cols[i]), rowAct.hasCell(i));
+	if (rowExp.hasCell(cols[i])) {
+	  assertEquals("type differs: " + n + "/" + i, rowExp.getCell(cols[i]).getContentType(), rowAct.getCell(i).getContentType());
+	  assertEquals("content differs: " + n + "/" + i, rowExp.getCell(cols[i]).getContent(), rowAct.getCell(i).getContent());
+	}
+      }
+    }
+  }
+
+  /**
+   * Tests writing and reading all the data.
+   */
+  public void testRoundTrip() {
+    SpreadSheet		expected;
+    SpreadSheet		actual;
+    TmpFile		file;
+    int[]		cols;
+
+    expected = generate(1000);
+    cols     = new int[]{0, 1, 2, 3, 4, 5};
+    for (boolean compress: new boolean[]{true, false}) {
+      file   = write(expected, 300, compress);
+      actual = new ColumnarSpreadSheetReader().read(file);
+      assertNotNull("Failed to read data", actual);
+      assertEquals("name differs", expected.getName(), actual.getName());
+      assertEquals("comments differ", expected.getComments(), actual.getComments());
+      assertEquals("# rows differ", expected.getRowCount(), actual.getRowCount());
+      assertSameData(expected, actual, 0, cols);
+    }
+  }
+
+  /**
+   * Tests the column types and statistics stored in the header.
+   */
+  public void testHeader() {
+    ColumnarSpreadSheetReader	reader;
+    SpreadSheet			expected;
+    Header			header;
+
+    expected = generate(1000);
+    reader   = new ColumnarSpreadSheetReader();
+    assertNotNull("Failed to read data", reader.read(write(expected, 300, true)));
+    header = reader.getHeader();
+    assertEquals("# rows differ", 1000, header.getNumRows());
+    assertEquals("# groups differ", 4, header.getNumRowGroups());
+    assertEquals("# rows in last group differ", 100, header.getNumRows(3));
+    assertEquals("type differs", ColumnType.LONG, header.getColumns()[0].getType());
+    assertEquals("type differs", ColumnType.DOUBLE, header.getColumns()[1].getType());
+    assertEquals("type differs", ColumnType.STRING, header.getColumns()[2].getType());
+    assertEquals("type differs", ColumnType.BOOLEAN, header.getColumns()[3].getType());
+    assertEquals("type differs", ColumnType.DATETIME, header.getColumns()[4].getType());
+    assertEquals("type differs", ColumnType.MIXED, header.getColumns()[5].getType());
+    assertEquals("# missing differs", 0, header.getColumns()[0].getNumMissing());
+    assertEquals("min differs", 0.0, header.getColumns()[0].getMin());
+    assertEquals("max differs", 999.0, header.getColumns()[0].getMax());
+  }
+
+  /**
+   * Tests reading in specific window and subset of columns.
+   */
+  public void testWindow() {
+    ColumnarSpreadSheetReader	reader;
+    SpreadSheet			expected;
+    SpreadSheet			actual;
+    TmpFile			file;
+
+    expected = generate(1000);
+    file     = write(expected, 300, true);
+
+    reader = new ColumnarSpreadSheetReader();
+    reader.setNumRows(0);
+    actual = reader.read(file);
+    assertEquals("# cols differ", 6, actual.getColumnCount());
+    assertEquals("# rows differ", 0, actual.getRowCount());
+
+    reader = new ColumnarSpreadSheetReader();
+    reader.setFirstRow(250);
+    reader.setNumRows(400);
+    actual = reader.read(file);
+    assertEquals("# rows differ", 400, actual.getRowCount());
+    assertSameData(expected, actual, 249, new int[]{0, 1, 2, 3, 4, 5});
+
+    reader = new ColumnarSpreadSheetReader();
+    reader.setColumns(new Range("2,5"));
+    reader.setFirstRow(901);
+    reader.setNumRows(200);
+    actual = reader.read(file);
+    assertEquals("# rows differ", 100, actual.getRowCount());
+    assertSameData(expected, actual, 900, new int[]{1, 4});
+  }
+
+  /**
+   * Tests reading chunks.
+   */
+  public void testChunking() {
+    ColumnarSpreadSheetReader	reader;
+    SpreadSheet			expected;
+    SpreadSheet			actual;
+    TmpFile			file;
+    int				numChunks;
+    int				numRows;
+
+    expected  = generate(1000);
+    file      = write(expected, 300, true);
+    reader    = new ColumnarSpreadSheetReader();
+    reader.setChunkSize(70);
+    reader.setFirstRow(11);
+    numChunks = 0;
+    numRows   = 0;
+    actual    = reader.read(file);
+    while (actual != null) {
+      numChunks++;
+      assertSameData(expected, actual, 10 + numRows, new int[]{0, 1, 2, 3, 4, 5});
+      numRows += actual.getRowCount();
+      actual = reader.hasMoreChunks() ? reader.nextChunk() : null;
+    }
+    assertEquals("# chunks differ", 15, numChunks);
+    assertEquals("# rows differ", 990, numRows);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ColumnarSpreadSheetReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -15,17 +15,28 @@
 
 /*
  * FastCsvSpreadSheetReaderTest.java
- * Copyright (C) 2019-2024 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
+import adams.core.Range;
+import adams.core.base.BaseCharset;
+import adams.core.base.BaseRegExp;
+import adams.core.option.OptionUtils;
+import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.env.Environment;
 import adams.test.TmpFile;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 /**
  * Tests the adams.data.io.input.FastCsvSpreadSheetReader class. Run from commandline with: <br><br>
  * java adams.data.io.input.FastCsvSpreadSheetReader
@@ -145,6 +156,135 @@ public class FastCsvSpreadSheetReaderTest
     assertEquals("# rows differ", 7, numRows);
   }
 
+  /**
+   * Generates a CSV file that is large enough for the parallel reader to use
+   * several segments. Contains missing values, quoted separators and line
+   * breaks, non-ASCII characters and CRLF line endings.
+   *
+   * @param file	the file to write to
+   * @throws Exception	if writing fails
+   */
+  protected void generateLargeFile(TmpFile file) throws Exception {
+    Random		rnd;
+    BufferedWriter	writer;
+    int			i;
+
+    rnd    = new Random(1);
+    writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file.getAbsolutePath()), StandardCharsets.UTF_8));
+    writer.write("id,value,label,text\r\n");
+    for (i = 0; i < 60000; i++) {
+      writer.write(i + ",");
+      if (rnd.nextInt(20) > 0)
+	writer.write("" + rnd.nextGaussian());
+      else if (rnd.nextBoolean())
+	writer.write("n/a");
+      writer.write(",label-" + rnd.nextInt(5) + ",");
+      switch (rnd.nextInt(4)) {
+	case 0:
+	  writer.write("\"quoted, with separator\"");
+	  break;
+	case 1:
+	  writer.write("\"quoted\nline break\"");
+	  break;
+	case 2:
+	  writer.write("\u00fcml\u00e4ut " + rnd.nextInt());
+	  break;
+	default:
+	  writer.write("plain text " + rnd.nextInt());
+      }
+      writer.write((i % 2 == 0) ? "\r\n" : "\n");
+      if (i % 1000 == 0)
+	writer.write("\n");
+    }
+    writer.close();
+  }
+
+  /**
+   * Compares the two spreadsheets cell by cell.
+   *
+   * @param expected	the expected spreadsheet
+   * @param actual	the actual spreadsheet
+   * @param rowOffset	the row offset in the expected spreadsheet
+   */
+  protected void assertSameData(SpreadSheet expected, SpreadSheet actual, int rowOffset) {
+    int		i;
+    int		n;
+    Row		rowExp;
+    Row		rowAct;
+
+    assertEquals("# cols differ", expected.getColumnCount(), actual.getColumnCount());
+    for (n = 0; n < actual.getRowCount(); n++) {
+      rowExp = expected.getRow(n + rowOffset);
+      rowAct = actual.getRow(n);
+      for (i = 0; i < expected.getColumnCount(); i++) {
+	assertEquals("cell presence differs: " + n + "/" + i, rowExp.hasCell(i), rowAct.hasCell(i));
+	if (rowExp.hasCell(i)) {
+	  assertEquals("type differs: " + n + "/" + i, rowExp.getCell(i).getContentType(), rowAct.getCell(i).getContentType());
+	  assertEquals("content differs: " + n + "/" + i, rowExp.getCell(i).getContent(), rowAct.getCell(i).getContent());
+	}
+      }
+    }
+  }
+
+  /**
+   * Tests the parallel reading against the sequential one.
+   *
+   * @throws Exception	if generating the data fails
+   */
+  public void testParallel() throws Exception {
+    TmpFile	file;
+
+    file = new TmpFile("parallel.csv");
+    generateLargeFile(file);
+    try {
+      for (boolean noHeader: new boolean[]{false, true}) {
+	FastCsvSpreadSheetReader sequential = new FastCsvSpreadSheetReader();
+	sequential.setNumericColumns(new Range("1-2"));
+	sequential.setMissingValue(new BaseRegExp("^(|n/a)$"));
+	sequential.setEncoding(new BaseCharset("UTF-8"));
+	sequential.setNoHeader(noHeader);
+	SpreadSheet expected = sequential.read(file);
+	assertNotNull("sequential failed", expected);
+
+	// complete
+	FastCsvSpreadSheetReader parallel = (FastCsvSpreadSheetReader) OptionUtils.shallowCopy(sequential);
+	parallel.setNumThreads(4);
+	SpreadSheet actual = parallel.read(file);
+	assertNotNull("parallel failed", actual);
+	assertEquals("# rows differ", expected.getRowCount(), actual.getRowCount());
+	assertSameData(expected, actual, 0);
+
+	// window
+	FastCsvSpreadSheetReader window = (FastCsvSpreadSheetReader) OptionUtils.shallowCopy(sequential);
+	window.setFirstRow(30001);
+	window.setNumRows(1000);
+	SpreadSheet expectedWindow = window.read(file);
+	parallel = (FastCsvSpreadSheetReader) OptionUtils.shallowCopy(window);
+	parallel.setNumThreads(4);
+	actual = parallel.read(file);
+	assertNotNull("parallel failed", actual);
+	assertEquals("# rows differ", expectedWindow.getRowCount(), actual.getRowCount());
+	assertSameData(expectedWindow, actual, 0);
+
+	// chunks
+	parallel = (FastCsvSpreadSheetReader) OptionUtils.shallowCopy(sequential);
+	parallel.setNumThreads(4);
+	parallel.setChunkSize(7000);
+	int numRows = 0;
+	actual = parallel.read(file);
+	while (actual != null) {
+	  assertSameData(expected, actual, numRows);
+	  numRows += actual.getRowCount();
+	  actual = parallel.hasMoreChunks() ? parallel.nextChunk() : null;
+	}
+	assertEquals("# rows differ", expected.getRowCount(), numRows);
+      }
+    }
+    finally {
+      file.delete();
+    }
+  }
+
   /**
    * Returns the filenames (without path) of the input data files to use
    * in the regression test.
@@ -15,7 +15,7 @@
 
 /**
  * ReportTest.java
- * Copyright (C) 2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.report;
 
@@ -43,6 +43,73 @@ public class ReportTest
     super(name);
   }
 
+  /**
+   * Tests setting and retrieving typed values.
+   */
+  public void testValues() {
+    Report	report;
+
+    report = new Report();
+    report.setNumericValue("num", 1.5);
+    report.setBooleanValue("bool", true);
+    report.setStringValue("str", "abc");
+    report.setValue(new Field("int", DataType.NUMERIC), 3);
+    assertEquals("# values differ", 4, report.getFields().size());
+    assertEquals("numeric value differs", 1.5, report.getDoubleValue("num"));
+    assertEquals("integer value differs", 3.0, report.getDoubleValue("int"));
+    assertEquals("boolean value differs", Boolean.TRUE, report.getBooleanValue("bool"));
+    assertEquals("string value differs", "abc", report.getStringValue("str"));
+    assertEquals("string representation differs", "1.5", report.getStringValue("num"));
+    assertNull("no boolean expected", report.getBooleanValue("num"));
+    assertNull("no numeric expected", report.getDoubleValue("str"));
+    assertFalse("numeric field should reject string", report.setValue(new Field("num", DataType.NUMERIC), "abc"));
+
+    assertEquals("removed value differs", "abc", report.removeValue(new Field("str", DataType.STRING)));
+    assertFalse("value should be gone", report.hasValue("str"));
+    assertTrue("should have removed values", report.removeValuesStartingWith("n"));
+    assertEquals("# values differ", 2, report.getFields().size());
+  }
+
+  /**
+   * Tests that clones are independent of each other.
+   */
+  public void testClone() {
+    Report	report;
+    Report	clone;
+
+    report = new Report();
+    report.setNumericValue("a", 1);
+    report.setStringValue("b", "x");
+    clone = report.getClone();
+    assertEquals("clone differs", report, clone);
+    assertEquals("hashcode differs", report.hashCode(), clone.hashCode());
+
+    clone.setNumericValue("a", 2);
+    clone.removeValue(new Field("b", DataType.STRING));
+    assertEquals("original modified", 1.0, report.getDoubleValue("a"));
+    assertEquals("original modified", "x", report.getStringValue("b"));
+    assertEquals("clone not modified", 2.0, clone.getDoubleValue("a"));
+    assertFalse("clone not modified", clone.hasValue("b"));
+
+    report.setStringValue("c", "y");
+    assertFalse("clone modified", clone.hasValue("c"));
+    assertFalse("reports should differ", report.equals(clone));
+  }
+
+  /**
+   * Tests that the same field definitions get shared between reports.
+   */
+  public void testInterning() {
+    Report	report1;
+    Report	report2;
+
+    report1 = new Report();
+    report1.setNumericValue("interned field", 1);
+    report2 = new Report();
+    report2.setNumericValue("interned field", 2);
+    assertSame("fields not interned", report1.getFields().get(0), report2.getFields().get(0));
+  }
+
   /**
    * Returns the test suite.
    *
@@ -0,0 +1,290 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ColumnarSpreadSheetTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spreadsheet;
+
+import adams.data.io.input.CsvSpreadSheetReader;
+import adams.env.Environment;
+import adams.test.AbstractTestHelper;
+import adams.test.AdamsTestCase;
+import adams.test.TestHelper;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+/**
+ * Tests the adams.data.spreadsheet.ColumnarSpreadSheet class. Run from commandline with: <br><br>
+ * java adams.data.spreadsheet.ColumnarSpreadSheetTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ColumnarSpreadSheetTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ColumnarSpreadSheetTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the test helper class to use.
+   *
+   * @return		the helper class instance
+   */
+  @Override
+  protected AbstractTestHelper newTestHelper() {
+    return new TestHelper(this, "adams/data/spreadsheet/data");
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_TestHelper.copyResourceToTmp("sample.csv");
+    m_TestHelper.copyResourceToTmp("sample2.csv");
+    m_TestHelper.copyResourceToTmp("sample3.csv");
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_TestHelper.deleteFileFromTmp("sample.csv");
+    m_TestHelper.deleteFileFromTmp("sample2.csv");
+    m_TestHelper.deleteFileFromTmp("sample3.csv");
+
+    super.tearDown();
+  }
+
+  /**
+   * Reads the specified file.
+   *
+   * @param filename	the file to read
+   * @param columnar	whether to generate a columnar spreadsheet
+   * @return		the spreadsheet
+   */
+  protected SpreadSheet read(String filename, boolean columnar) {
+    CsvSpreadSheetReader	reader;
+
+    reader = new CsvSpreadSheetReader();
+    if (columnar)
+      reader.setSpreadSheetType(new ColumnarSpreadSheet());
+    return reader.read(new TmpFile(filename).getAbsolutePath());
+  }
+
+  /**
+   * Tests the loading of a sample spreadsheet.
+   */
+  public void testRead() {
+    SpreadSheet sheet = read("sample.csv", true);
+    assertEquals("wrong type", ColumnarSpreadSheet.class, sheet.getClass());
+    assertEquals("# of columns differ", 3, sheet.getColumnCount());
+    assertEquals("# of rows differ", 16, sheet.getRowCount());
+    assertEquals("content differs", read("sample.csv", false).toString(), sheet.toString());
+  }
+
+  /**
+   * Tests the typed column storage.
+   */
+  public void testColumnTypes() {
+    ColumnarSpreadSheet sheet = (ColumnarSpreadSheet) read("sample.csv", true);
+    assertEquals("column type differs", Cell.ContentType.STRING, sheet.getColumn(0).getType());
+    assertEquals("column type differs", Cell.ContentType.DOUBLE, sheet.getColumn(1).getType());
+    assertTrue("should be numeric", sheet.isNumeric(1));
+
+    double[] values = SpreadSheetUtils.getNumericColumn(sheet, 1);
+    assertEquals("# of values differ", sheet.getRowCount(), values.length);
+    assertEquals("value differs", sheet.getCell(0, 1).toDouble(), values[0], 1e-12);
+
+    // promotion to mixed column
+    sheet.getCell(0, 1).setContent("blah");
+    assertNull("column type differs", sheet.getColumn(1).getType());
+    assertEquals("content differs", "blah", sheet.getCell(0, 1).getContent());
+    assertEquals("value differs", values[1], sheet.getCell(1, 1).toDouble(), 1e-12);
+    assertTrue("should be NaN", Double.isNaN(SpreadSheetUtils.getNumericColumn(sheet, 1)[0]));
+  }
+
+  /**
+   * Tests the insertRow method.
+   */
+  public void testInsertRow() {
+    SpreadSheet sheet = read("sample.csv", true);
+    SpreadSheet out;
+
+    out = sheet.getClone();
+    out.insertRow(0);
+    assertEquals("# of columns differ", sheet.getColumnCount(), out.getColumnCount());
+    assertEquals("# of rows differ", sheet.getRowCount() + 1, out.getRowCount());
+    assertTrue("cell should be missing", out.getCell(0, 0).isMissing());
+    assertEquals("content differs", sheet.getCell(0, 0).getContent(), out.getCell(1, 0).getContent());
+    assertEquals("row key differs", "inserted-1", out.getRowKey(0));
+  }
+
+  /**
+   * Tests the removeRow method.
+   */
+  public void testRemoveRow() {
+    SpreadSheet sheet = read("sample.csv", true);
+    SpreadSheet out;
+
+    out = sheet.getClone();
+    out.removeRow(0);
+    assertEquals("# of columns differ", sheet.getColumnCount(), out.getColumnCount());
+    assertEquals("# of rows differ", sheet.getRowCount() - 1, out.getRowCount());
+    assertEquals("content differs", sheet.getCell(1, 0).getContent(), out.getCell(0, 0).getContent());
+    assertEquals("row key differs", sheet.getRowKey(1), out.getRowKey(0));
+
+    out = sheet.getClone();
+    out.removeRow(out.getRowKey(out.getRowCount() - 1));
+    assertEquals("# of columns differ", sheet.getColumnCount(), out.getColumnCount());
+    assertEquals("# of rows differ", sheet.getRowCount() - 1, out.getRowCount());
+  }
+
+  /**
+   * Tests the removeColumn method.
+   */
+  public void testRemoveColumn() {
+    SpreadSheet sheet = read("sample.csv", true);
+    SpreadSheet out;
+
+    out = sheet.getClone();
+    out.removeColumn(0);
+    assertEquals("# of columns differ", sheet.getColumnCount() - 1, out.getColumnCount());
+    assertEquals("# of rows differ", sheet.getRowCount(), out.getRowCount());
+    assertEquals("content differs", sheet.getCell(0, 1).getContent(), out.getCell(0, 0).getContent());
+  }
+
+  /**
+   * Tests the insertColumn method.
+   */
+  public void testInsertColumn() {
+    SpreadSheet sheet = read("sample.csv", true);
+    SpreadSheet out;
+
+    out = sheet.getClone();
+    out.insertColumn(0, "new");
+    assertEquals("# of columns differ", sheet.getColumnCount() + 1, out.getColumnCount());
+    assertEquals("# of rows differ", sheet.getRowCount(), out.getRowCount());
+    assertTrue("cell should be missing", out.getCell(0, 0).isMissing());
+
+    out = sheet.getClone();
+    out.insertColumn(1, "new", "blah");
+    assertEquals("# of columns differ", sheet.getColumnCount() + 1, out.getColumnCount());
+    assertEquals("content differs", "blah", out.getCell(0, 1).getContent());
+    assertEquals("content differs", sheet.getCell(0, 1).getContent(), out.getCell(0, 2).getContent());
+  }
+
+  /**
+   * Tests the {@link SpreadSheet#sort(int, boolean)} method against the
+   * default spreadsheet.
+   */
+  public void testSort() {
+    SpreadSheet sheet;
+    SpreadSheet expected;
+    int i;
+
+    for (i = 0; i < 2; i++) {
+      sheet    = read("sample.csv", true);
+      expected = read("sample.csv", false);
+      sheet.sort(i, true);
+      expected.sort(i, true);
+      assertEquals("ascending differs for column " + i, expected.toString(), sheet.toString());
+      sheet.sort(i, false);
+      expected.sort(i, false);
+      assertEquals("descending differs for column " + i, expected.toString(), sheet.toString());
+    }
+  }
+
+  /**
+   * Tests the {@link SpreadSheet#sort(RowComparator,boolean)}) method.
+   */
+  public void testSortUnique() {
+    SpreadSheet sheet = read("sample2.csv", true);
+    SpreadSheet out = sheet.getClone();
+    RowComparator comp = new RowComparator(new int[]{0});
+    out.sort(comp, true);
+    assertEquals("# rows differ", sheet.getRowCount() - 1, out.getRowCount());
+    assertEquals("# cols differ", sheet.getColumnCount(), out.getColumnCount());
+
+    sheet = read("sample3.csv", true);
+    out = sheet.getClone();
+    out.sort(comp, true);
+    assertEquals("# rows differ", 3, out.getRowCount());
+    assertEquals("# cols differ", sheet.getColumnCount(), out.getColumnCount());
+  }
+
+  /**
+   * Tests the {@link SpreadSheet#getCellValues(int)} method.
+   */
+  public void testCellValues() {
+    SpreadSheet data = read("sample3.csv", true);
+
+    List<String> values = data.getCellValues(0);
+    assertEquals("Number of values differs", 3, values.size());
+    assertEquals("Value #1 differs", "A", values.get(0));
+    assertEquals("Value #2 differs", "B", values.get(1));
+    assertEquals("Value #3 differs", "C", values.get(2));
+  }
+
+  /**
+   * Tests the {@link SpreadSheet#clear()} method.
+   */
+  public void testClear() {
+    SpreadSheet data = read("sample3.csv", true);
+    data.clear();
+    assertEquals("# rows differ", 0, data.getRowCount());
+    assertEquals("column header differs", "Col", data.getHeaderRow().getCell(0).getContent());
+    data.addRow().addCell(0).setContent("D");
+    assertEquals("content differs", "D", data.getCell(0, 0).getContent());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ColumnarSpreadSheetTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
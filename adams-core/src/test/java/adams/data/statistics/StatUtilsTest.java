@@ -25,6 +25,9 @@ import adams.test.AdamsTestCase;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * Tests the adams.data.statistics.StatUtils class. Run from commandline with: <br><br>
  * java adams.data.statistics.StatUtilsTest
@@ -197,6 +200,79 @@ public class StatUtilsTest
     assertEqualsArrays("sortIndex differs", new int[]{1, 2, 0, 3}, StatUtils.sortIndex(new double[]{1., 4., 3., -1.}, false));
   }
 
+  /**
+   * Tests the median methods.
+   */
+  public void testMedian() {
+    assertTrue(Double.isNaN(StatUtils.median(new double[0])));
+    assertEquals(2.0, StatUtils.median(new int[]{3, 1, 2}));
+    assertEquals(2.5, StatUtils.median(new int[]{4, 1, 3, 2}));
+    assertEquals(2.2, StatUtils.median(new double[]{3.3, 1.1, 2.2}));
+    assertEquals(2.2, StatUtils.median(new Double[]{3.3, 1.1, 2.2}));
+    assertEquals(1.0, StatUtils.median(new double[]{1.0, 1.0, 1.0, 1.0}));
+  }
+
+  /**
+   * Tests the selection-based order statistics against sorting.
+   */
+  public void testOrderStatistics() {
+    Random	rnd;
+    double[]	values;
+    double[]	sorted;
+    double[]	copy;
+    int		i;
+    int		n;
+
+    rnd = new Random(1);
+    for (n = 1; n < 200; n++) {
+      values = new double[n];
+      for (i = 0; i < n; i++)
+	values[i] = (i % 3 == 0) ? rnd.nextInt(5) : rnd.nextGaussian();
+      copy   = values.clone();
+      sorted = values.clone();
+      Arrays.sort(sorted);
+
+      for (i = 0; i < n; i++)
+	assertEquals("select differs: " + n + "/" + i, sorted[i], StatUtils.select(values.clone(), i));
+      if (n % 2 == 0)
+	assertEquals("median differs: " + n, (sorted[n / 2 - 1] + sorted[n / 2]) / 2, StatUtils.median(values));
+      else
+	assertEquals("median differs: " + n, sorted[n / 2], StatUtils.median(values));
+      assertEquals("quartile differs: " + n, sorted[(int) (n * 0.75)], StatUtils.quartile(values, 0.75));
+      assertEquals("iqr differs: " + n, sorted[(int) (n * 0.75)] - sorted[(int) (n * 0.25)], StatUtils.iqr(values));
+      assertEquals("percentile differs: " + n, sorted[Math.max(0, (int) Math.ceil(n * 0.9) - 1)], StatUtils.percentile(values, 0.9));
+      assertEqualsArrays("input modified: " + n, copy, values);
+    }
+  }
+
+  /**
+   * Tests the stddev methods.
+   */
+  public void testStddev() {
+    Random	rnd;
+    double[]	values;
+    double	mean;
+    double	sum;
+    int		i;
+
+    assertTrue(Double.isNaN(StatUtils.stddev(new double[0], true)));
+    assertEquals(1.0, StatUtils.stddev(new int[]{1, 2, 3}, true), 1e-12);
+    assertTrue(Double.isNaN(StatUtils.stddev(new int[0], true)));
+    assertEquals(StatUtils.stddev(new double[]{3, 7, 1, 12}, false), StatUtils.stddev(new int[]{3, 7, 1, 12}, false));
+    assertEquals(1.0, StatUtils.stddev(new Integer[]{1, 2, 3}, true), 1e-12);
+    assertEquals(Math.sqrt(2.0 / 3.0), StatUtils.stddev(new double[]{1, 2, 3}, false), 1e-12);
+
+    rnd    = new Random(1);
+    values = new double[1000];
+    for (i = 0; i < values.length; i++)
+      values[i] = 1e6 + rnd.nextGaussian();
+    mean = StatUtils.mean(values);
+    sum  = 0;
+    for (i = 0; i < values.length; i++)
+      sum += (values[i] - mean) * (values[i] - mean);
+    assertEquals(Math.sqrt(sum / (values.length - 1)), StatUtils.stddev(values, true), 1e-9);
+  }
+
   /**
    * Runs the test from commandline.
    *
@@ -0,0 +1,184 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StreamingStatisticsTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.statistics;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the adams.data.statistics.StreamingStatistics class. Run from commandline with: <br><br>
+ * java adams.data.statistics.StreamingStatisticsTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StreamingStatisticsTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public StreamingStatisticsTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(StreamingStatisticsTest.class);
+  }
+
+  /**
+   * Generates random values.
+   *
+   * @param num		the number of values
+   * @return		the values
+   */
+  protected double[] generate(int num) {
+    Random	rnd;
+    double[]	result;
+    int		i;
+
+    rnd    = new Random(1);
+    result = new double[num];
+    for (i = 0; i < num; i++)
+      result[i] = 100 + rnd.nextGaussian() * 10;
+
+    return result;
+  }
+
+  /**
+   * Tests the statistics against {@link StatUtils}.
+   */
+  public void testStatistics() {
+    StreamingStatistics	stats;
+    double[]		values;
+
+    stats = new StreamingStatistics(true);
+    assertEquals(0, stats.getCount());
+    assertTrue(Double.isNaN(stats.getMean()));
+    assertTrue(Double.isNaN(stats.getMin()));
+    assertTrue(Double.isNaN(stats.getMedian()));
+
+    values = generate(1001);
+    stats.addAll(values);
+    assertEquals(values.length, stats.getCount());
+    assertEquals(StatUtils.sum(values), stats.getSum());
+    assertEquals(StatUtils.mean(values), stats.getMean());
+    assertEquals(StatUtils.min(values), stats.getMin());
+    assertEquals(StatUtils.max(values), stats.getMax());
+    // values are kept: same two-pass computation as StatUtils
+    assertEquals(StatUtils.stddev(values, true), stats.getStandardDeviation(true));
+    assertEquals(StatUtils.stddev(values, false), stats.getStandardDeviation(false));
+    assertEquals(StatUtils.signalToNoiseRatio(values), stats.getSignalToNoiseRatio());
+    assertEquals(StatUtils.median(values), stats.getMedian());
+    assertEquals(StatUtils.iqr(values), stats.getIQR());
+    assertEquals(StatUtils.percentile(values, 0.95), stats.getPercentile(0.95));
+
+    stats.clear();
+    assertEquals(0, stats.getCount());
+    assertTrue(Double.isNaN(stats.getMedian()));
+  }
+
+  /**
+   * Tests the single-pass statistics (values not kept) against {@link StatUtils}.
+   */
+  public void testSinglePass() {
+    StreamingStatistics	stats;
+    double[]		values;
+
+    values = generate(1001);
+    stats  = new StreamingStatistics(false);
+    stats.addAll(values);
+    assertEquals(StatUtils.mean(values), stats.getMean());
+    assertEquals(StatUtils.stddev(values, true), stats.getStandardDeviation(true), 1e-12);
+    assertEquals(StatUtils.stddev(values, false), stats.getStandardDeviation(false), 1e-12);
+  }
+
+  /**
+   * Tests merging of partial statistics.
+   */
+  public void testMerge() {
+    StreamingStatistics	all;
+    StreamingStatistics	merged;
+    StreamingStatistics	part;
+    double[]		values;
+    int			i;
+
+    values = generate(1000);
+    all    = new StreamingStatistics(true);
+    all.addAll(values);
+
+    merged = new StreamingStatistics(true);
+    part   = null;
+    for (i = 0; i < values.length; i++) {
+      if (i % 300 == 0) {
+	if (part != null)
+	  merged.merge(part);
+	part = new StreamingStatistics(true);
+      }
+      part.add(values[i]);
+    }
+    merged.merge(part);
+
+    assertEquals(all.getCount(), merged.getCount());
+    assertEquals(all.getSum(), merged.getSum(), 1e-9);
+    assertEquals(all.getMean(), merged.getMean(), 1e-12);
+    assertEquals(all.getMin(), merged.getMin());
+    assertEquals(all.getMax(), merged.getMax());
+    assertEquals(all.getStandardDeviation(true), merged.getStandardDeviation(true), 1e-12);
+    assertEquals(all.getMedian(), merged.getMedian());
+
+    try {
+      merged.merge(new StreamingStatistics(false));
+    }
+    catch (Exception e) {
+      fail("Merging empty accumulator failed: " + e);
+    }
+    part = new StreamingStatistics(false);
+    part.add(1.0);
+    try {
+      merged.merge(part);
+      fail("Merging accumulator without values should fail");
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BytesCompleteTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.condition.bool;
+
+import adams.env.Environment;
+import adams.flow.core.AbstractActor;
+import adams.flow.core.Token;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the 'BytesComplete' boolean condition.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BytesCompleteTest
+  extends AbstractBooleanConditionTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public BytesCompleteTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the owning actors to use in the regression test (one per regression setup).
+   *
+   * @return		the owners (not all conditions might need owners)
+   */
+  @Override
+  protected AbstractActor[] getRegressionOwners() {
+    return new AbstractActor[]{
+	null,
+	null
+    };
+  }
+
+  /**
+   * Returns the input data to use in the regression test (one per regression setup).
+   *
+   * @return		the input data
+   */
+  @Override
+  protected Object[] getRegressionInputs() {
+    return new Object[]{
+	"blah",
+	new byte[]{1, 2, 3}
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractBooleanCondition[] getRegressionSetups() {
+    return new AbstractBooleanCondition[]{
+	new BytesComplete(),
+	new BytesComplete()
+    };
+  }
+
+  /**
+   * Tests the default check (no check), which considers byte arrays complete.
+   */
+  public void testDefaultCheck() {
+    BytesComplete	cond;
+
+    cond = new BytesComplete();
+    assertNull("setUp failed", cond.setUp(null));
+    assertFalse("no bytes", cond.evaluate(null, new Token("blah")));
+    assertTrue("bytes", cond.evaluate(null, new Token(new byte[]{1, 2, 3})));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(BytesCompleteTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FileCompleteTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.flow.condition.bool;
+
+import adams.env.Environment;
+import adams.flow.core.AbstractActor;
+import adams.flow.core.Token;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the 'FileComplete' boolean condition.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FileCompleteTest
+  extends AbstractBooleanConditionTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public FileCompleteTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs.
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_TestHelper.copyResourceToTmp("Test.txt");
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_TestHelper.deleteFileFromTmp("Test.txt");
+
+    super.tearDown();
+  }
+
+  /**
+   * Returns the owning actors to use in the regression test (one per regression setup).
+   *
+   * @return		the owners (not all conditions might need owners)
+   */
+  @Override
+  protected AbstractActor[] getRegressionOwners() {
+    return new AbstractActor[]{
+	null,
+	null,
+	null
+    };
+  }
+
+  /**
+   * Returns the input data to use in the regression test (one per regression setup).
+   *
+   * @return		the input data
+   */
+  @Override
+  protected Object[] getRegressionInputs() {
+    return new Object[]{
+	"blah",
+	"blah",
+	new TmpFile("Test.txt").getAbsolutePath()
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractBooleanCondition[] getRegressionSetups() {
+    FileComplete[]	result;
+
+    result    = new FileComplete[3];
+    result[0] = new FileComplete();
+    result[1] = new FileComplete();
+    result[1].setFile(new TmpFile("Test.txt"));
+    result[2] = new FileComplete();
+
+    return result;
+  }
+
+  /**
+   * Tests the default check (no check), which considers existing files complete.
+   */
+  public void testDefaultCheck() {
+    FileComplete	cond;
+
+    cond = new FileComplete();
+    assertNull("setUp failed", cond.setUp(null));
+    assertFalse("missing file", cond.evaluate(null, new Token("blah")));
+    assertTrue("existing file", cond.evaluate(null, new Token(new TmpFile("Test.txt").getAbsolutePath())));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FileCompleteTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
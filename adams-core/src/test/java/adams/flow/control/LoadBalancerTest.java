@@ -15,18 +15,24 @@
 
 /*
  * LoadBalancerTest.java
- * Copyright (C) 2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.control;
 
+import java.util.Collections;
+import java.util.List;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import adams.core.base.BaseString;
+import adams.core.io.FileUtils;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.core.AbstractActor;
+import adams.flow.sink.DumpFile;
 import adams.flow.source.StringConstants;
+import adams.test.TmpFile;
 
 /**
  * Tests the LoadBalancer actor.
@@ -46,6 +52,28 @@ public class LoadBalancerTest
     super(name);
   }
 
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  protected void tearDown() throws Exception {
+    m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+
+    super.tearDown();
+  }
+
   /**
    * Used to create an instance of a specific actor.
    *
@@ -76,6 +104,64 @@ public class LoadBalancerTest
     return flow;
   }
 
+  /**
+   * Executes a flow that dumps the tokens to a file within the load balancer.
+   *
+   * @param workerPool	whether to use the worker pool
+   * @return		the sorted output
+   */
+  protected List<String> executeDump(boolean workerPool) {
+    StringConstants	ids;
+    LoadBalancer	bal;
+    DumpFile		df;
+    Flow		flow;
+    List<String>	result;
+    BaseString[]	strings;
+    int			i;
+
+    m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+
+    strings = new BaseString[100];
+    for (i = 0; i < strings.length; i++)
+      strings[i] = new BaseString("" + (i + 1));
+    ids = new StringConstants();
+    ids.setStrings(strings);
+
+    df = new DumpFile();
+    df.setAppend(true);
+    df.setOutputFile(new TmpFile("dumpfile.txt"));
+
+    bal = new LoadBalancer();
+    bal.setNumThreads(3);
+    bal.setUseWorkerPool(workerPool);
+    bal.setQueueSize(5);
+    bal.add(0, df);
+
+    flow = new Flow();
+    flow.setActors(new AbstractActor[]{ids, bal});
+    assertNull("flow failed", performActorExecution(flow));
+
+    result = FileUtils.loadFromFile(new TmpFile("dumpfile.txt"));
+    assertNotNull("no output", result);
+    Collections.sort(result);
+
+    return result;
+  }
+
+  /**
+   * Tests whether the worker pool processes the same tokens as the
+   * default mode.
+   */
+  public void testWorkerPool() {
+    List<String>	expected;
+    List<String>	actual;
+
+    expected = executeDump(false);
+    assertEquals("# of tokens", 100, expected.size());
+    actual = executeDump(true);
+    assertEquals("output differs", expected, actual);
+  }
+
   /**
    * Returns a test suite.
    *
@@ -0,0 +1,182 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StorageBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.control;
+
+import adams.core.Performance;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of the {@link Storage} with several threads
+ * accessing it concurrently (mostly reads, some atomic updates), as happens
+ * with LoadBalancer or parallel Tee branches. The "locked" mode serializes
+ * all accesses on the storage monitor, which is what the storage used to do
+ * internally, the "concurrent" mode uses the storage as is.
+ * <br><br>
+ * Usage:<br>
+ * java adams.flow.control.StorageBenchmark [num_threads [num_ops [write_percent]]]
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StorageBenchmark {
+
+  /** the number of storage items. */
+  public final static int NUM_NAMES = 64;
+
+  /** the names of the storage items. */
+  protected StorageName[] m_Names;
+
+  /** the number of threads. */
+  protected int m_NumThreads;
+
+  /** the number of operations per thread. */
+  protected int m_NumOps;
+
+  /** the percentage of write operations. */
+  protected int m_WritePercent;
+
+  /**
+   * Initializes the benchmark.
+   *
+   * @param numThreads	the number of threads
+   * @param numOps	the number of operations per thread
+   * @param writePercent	the percentage of write operations (0-100)
+   */
+  public StorageBenchmark(int numThreads, int numOps, int writePercent) {
+    int		i;
+
+    m_NumThreads   = numThreads;
+    m_NumOps       = numOps;
+    m_WritePercent = writePercent;
+    m_Names        = new StorageName[NUM_NAMES];
+    for (i = 0; i < NUM_NAMES; i++)
+      m_Names[i] = new StorageName("item" + i);
+  }
+
+  /**
+   * Performs a single operation.
+   *
+   * @param storage	the storage to access
+   * @param op		the operation index
+   */
+  protected void operation(Storage storage, int op) {
+    StorageName	name;
+
+    name = m_Names[op % NUM_NAMES];
+    if ((op % 100) < m_WritePercent) {
+      storage.compute(name, (key, current) -> (current == null) ? 1 : (Integer) current + 1, false);
+    }
+    else {
+      if (storage.has(name))
+	storage.get(name);
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param locked	whether to serialize all accesses on the storage
+   * @return		the operations per second
+   * @throws Exception	if the threads get interrupted
+   */
+  public double run(final boolean locked) throws Exception {
+    final Storage		storage;
+    final CountDownLatch	start;
+    final CountDownLatch	finished;
+    Thread			thread;
+    long			begin;
+    long			duration;
+    int				i;
+
+    storage  = new Storage();
+    for (StorageName name: m_Names)
+      storage.put(name, 0, false);
+    start    = new CountDownLatch(1);
+    finished = new CountDownLatch(m_NumThreads);
+    for (i = 0; i < m_NumThreads; i++) {
+      final int offset = i;
+      thread = new Thread(() -> {
+	int n;
+	try {
+	  start.await();
+	  for (n = 0; n < m_NumOps; n++) {
+	    if (locked) {
+	      synchronized(storage) {
+		operation(storage, offset + n);
+	      }
+	    }
+	    else {
+	      operation(storage, offset + n);
+	    }
+	  }
+	}
+	catch (InterruptedException e) {
+	  // ignored
+	}
+	finally {
+	  finished.countDown();
+	}
+      });
+      thread.start();
+    }
+
+    begin = System.nanoTime();
+    start.countDown();
+    finished.await();
+    duration = System.nanoTime() - begin;
+
+    return (double) m_NumThreads * m_NumOps / duration * 1000000000.0;
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args	optional: number of threads, operations per thread, write percentage
+   * @throws Exception	if benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    StorageBenchmark	benchmark;
+    int			numThreads;
+    int			numOps;
+    int			writePercent;
+    double		locked;
+    double		concurrent;
+    int			i;
+
+    numThreads   = (args.length > 0) ? Integer.parseInt(args[0]) : Performance.getMaxNumProcessors();
+    numOps       = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+    writePercent = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+    benchmark    = new StorageBenchmark(numThreads, numOps, writePercent);
+
+    // warm up
+    for (i = 0; i < 3; i++) {
+      benchmark.run(true);
+      benchmark.run(false);
+    }
+
+    locked     = benchmark.run(true);
+    concurrent = benchmark.run(false);
+    System.out.println("Threads: " + numThreads + ", ops/thread: " + numOps + ", writes: " + writePercent + "%");
+    System.out.printf("locked:     %,.0f ops/sec%n", locked);
+    System.out.printf("concurrent: %,.0f ops/sec%n", concurrent);
+    System.out.printf("speedup:    %.2f%n", concurrent / locked);
+  }
+}
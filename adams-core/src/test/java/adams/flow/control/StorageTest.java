@@ -20,11 +20,13 @@
 
 package adams.flow.control;
 
+import adams.core.base.BaseRegExp;
 import adams.env.Environment;
 import adams.test.AdamsTestCase;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -159,6 +161,76 @@ public class StorageTest
     assertEquals("removed existing item", 2, s.size("1"));
   }
 
+  /**
+   * Tests the get(String,BaseRegExp) method (one lookup per name).
+   */
+  public void testGetRegExpCache() {
+    Storage s = new Storage();
+    s.addCache("1", 10);
+    s.put("1", new StorageName("blah"), 1);
+    s.put("1", new StorageName("blah2"), 2);
+    s.put("1", new StorageName("other"), 3);
+    s.put("1", new StorageName("blah3"), null);
+    Map<String,Object> values = s.get("1", new BaseRegExp("blah.*"));
+    assertEquals("matches", 3, values.size());
+    assertEquals("value", 2, values.get("blah2"));
+    assertTrue("null value", values.containsKey("blah3"));
+    assertEquals("hits", 3, s.getCache("1").getNumHits());
+    assertEquals("misses", 0, s.getCache("1").getNumMisses());
+  }
+
+  /**
+   * Tests storing null values.
+   */
+  public void testNullValue() {
+    Storage s = new Storage();
+    s.put(new StorageName("blah"), null);
+    assertEquals("storage size", 1, s.size());
+    assertTrue(s.has(new StorageName("blah")));
+    assertNull("get", s.get(new StorageName("blah")));
+    assertNull("get clone", s.getClone().get(new StorageName("blah")));
+    assertNull("remove", s.remove(new StorageName("blah")));
+    assertEquals("storage size", 0, s.size());
+  }
+
+  /**
+   * Tests the compute(), computeIfAbsent() and computeIfPresent() methods.
+   */
+  public void testCompute() {
+    Storage s = new Storage();
+    StorageName n = new StorageName("blah");
+    assertNull("update missing", s.computeIfPresent(n, (name, value) -> 1));
+    assertFalse(s.has(n));
+    assertEquals("init", 1, s.computeIfAbsent(n, (name) -> 1));
+    assertEquals("init existing", 1, s.computeIfAbsent(n, (name) -> 2));
+    assertEquals("compute", 2, s.compute(n, (name, value) -> (Integer) value + 1));
+    assertEquals("update", 3, s.computeIfPresent(n, (name, value) -> (Integer) value + 1));
+    assertEquals("get", 3, s.get(n));
+    assertNull("compute remove", s.compute(n, (name, value) -> null));
+    assertFalse(s.has(n));
+  }
+
+  /**
+   * Tests concurrent atomic updates.
+   *
+   * @throws Exception	if threads get interrupted
+   */
+  public void testConcurrentCompute() throws Exception {
+    final Storage s = new Storage();
+    final StorageName n = new StorageName("counter");
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+	for (int j = 0; j < 10000; j++)
+	  s.compute(n, (name, value) -> (value == null) ? 1 : (Integer) value + 1);
+      });
+      threads[i].start();
+    }
+    for (Thread thread: threads)
+      thread.join();
+    assertEquals("counter", 40000, s.get(n));
+  }
+
   /**
    * Tests the {@link Storage#expand(String)} method.
    */
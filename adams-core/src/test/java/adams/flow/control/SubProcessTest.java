@@ -21,16 +21,22 @@
 package adams.flow.control;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import adams.core.base.BaseString;
+import adams.core.io.FileUtils;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.core.AbstractActor;
+import adams.flow.core.Token;
 import adams.flow.sink.DumpFile;
 import adams.flow.transformer.Convert;
 import adams.data.conversion.IntToDouble;
 import adams.flow.transformer.MathExpression;
+import adams.flow.transformer.PassThrough;
 import adams.parser.MathematicalExpressionText;
 import adams.test.TmpFile;
 
@@ -112,6 +118,108 @@ public class SubProcessTest
 	    new TmpFile("dumpfile.txt")});
   }
 
+  /**
+   * Tests whether the pipelined execution generates the same output as the
+   * sequential one.
+   */
+  public void testPipelined() {
+    Flow		flow;
+    SubProcess		sub;
+    List<String>	expected;
+    List<String>	actual;
+
+    flow = (Flow) getActor();
+    performActorExecution(flow);
+    expected = FileUtils.loadFromFile(new TmpFile("dumpfile.txt"));
+    assertNotNull("no sequential output", expected);
+    m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+
+    flow = (Flow) getActor();
+    flow.setPipelineStages(new BaseString[]{new BaseString("SubProcess"), new BaseString("DumpFile")});
+    flow.setPipelineQueueSize(2);
+    sub = (SubProcess) flow.get(1);
+    sub.setPipelineStages(new BaseString[]{new BaseString("MathExpression")});
+    performActorExecution(flow);
+    actual = FileUtils.loadFromFile(new TmpFile("dumpfile.txt"));
+    assertNotNull("no pipelined output", actual);
+    assertEquals("output differs", expected, actual);
+  }
+
+  /**
+   * Tests whether the stage threads get reused across tokens and stopped
+   * when wrapping up.
+   */
+  public void testPipelinedThreads() {
+    SubProcess		sub;
+    Convert		con;
+    MathExpression	me;
+    PipelinedDirector	director;
+    List<Thread>	threads;
+    Token		output;
+    int			i;
+
+    con = new Convert();
+    con.setConversion(new IntToDouble());
+    me = new MathExpression();
+    me.setExpression(new MathematicalExpressionText("X^2"));
+    sub = new SubProcess();
+    sub.setActors(new AbstractActor[]{con, me});
+    sub.setPipelineStages(new BaseString[]{new BaseString("MathExpression")});
+    assertNull("problem with setUp()", sub.setUp());
+    director = (PipelinedDirector) sub.getDirector();
+
+    threads = null;
+    for (i = 1; i <= 5; i++) {
+      sub.input(new Token(i));
+      assertNull("problem with execute()", sub.execute());
+      assertTrue("no output", sub.hasPendingOutput());
+      output = sub.output();
+      assertEquals("wrong output", (double) (i * i), output.getPayload());
+      assertFalse("too much output", sub.hasPendingOutput());
+      assertNotNull("no stage threads", director.m_Pipeline);
+      if (threads == null)
+	threads = new ArrayList<>(director.m_Pipeline.threads);
+      else
+	assertEquals("stage threads not reused", threads, director.m_Pipeline.threads);
+    }
+    assertEquals("number of stage threads", 1, threads.size());
+
+    sub.wrapUp();
+    assertNull("stage threads not stopped", director.m_Pipeline);
+    for (Thread thread: threads)
+      assertFalse("stage thread still running", thread.isAlive());
+    sub.cleanUp();
+  }
+
+  /**
+   * Tests whether a failing stage does not produce output and the subsequent
+   * tokens still get processed.
+   */
+  public void testPipelinedError() {
+    SubProcess		sub;
+    Convert		con;
+
+    con = new Convert();
+    con.setConversion(new IntToDouble());
+    sub = new SubProcess();
+    sub.setActors(new AbstractActor[]{new PassThrough(), con});
+    sub.setPipelineStages(new BaseString[]{new BaseString("Convert")});
+    assertNull("problem with setUp()", sub.setUp());
+
+    sub.input(new Token("abc"));
+    // like in sequential execution, errors of actors get only logged
+    assertNull("problem with execute()", sub.execute());
+    assertFalse("no output expected", sub.hasPendingOutput());
+
+    sub.input(new Token(3));
+    assertNull("problem with execute()", sub.execute());
+    assertTrue("no output", sub.hasPendingOutput());
+    assertEquals("wrong output", 3.0, sub.output().getPayload());
+
+    sub.wrapUp();
+    sub.cleanUp();
+  }
+
   /**
    * Returns a test suite.
    *
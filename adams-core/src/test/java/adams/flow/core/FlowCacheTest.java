@@ -0,0 +1,276 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FlowCacheTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.core.MessageCollection;
+import adams.core.io.FileUtils;
+import adams.core.option.OptionUtils;
+import adams.env.Environment;
+import adams.test.AbstractTestHelper;
+import adams.test.AdamsTestCase;
+import adams.test.TestHelper;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Tests the adams.flow.core.FlowCache class. Run from commandline with: <br><br>
+ * java adams.flow.core.FlowCacheTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FlowCacheTest
+  extends AdamsTestCase {
+
+  /** the flow file. */
+  public final static String FLOW = "external_flow.flow";
+
+  /** the modified flow file. */
+  public final static String FLOW2 = "external_flow2.flow";
+
+  /** the cache directory. */
+  public final static String CACHE_DIR = "flowcachetest";
+
+  /** the directory for the class path fingerprint. */
+  public final static String CLASSPATH_DIR = "flowcachetest_cp";
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public FlowCacheTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the test helper class to use.
+   *
+   * @return		the helper class instance
+   */
+  @Override
+  protected AbstractTestHelper newTestHelper() {
+    return new TestHelper(this, "adams/flow/data");
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_TestHelper.copyResourceToTmp(FLOW);
+    m_TestHelper.deleteFileFromTmp(FLOW2);
+    FileUtils.delete(new TmpFile(CACHE_DIR));
+    FileUtils.delete(new TmpFile(CLASSPATH_DIR));
+    FlowCache.setCacheDir(new TmpFile(CACHE_DIR).getAbsoluteFile());
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    FlowCache.setCacheDir(null);
+    FileUtils.delete(new TmpFile(CACHE_DIR));
+    FileUtils.delete(new TmpFile(CLASSPATH_DIR));
+    m_TestHelper.deleteFileFromTmp(FLOW);
+    m_TestHelper.deleteFileFromTmp(FLOW2);
+
+    super.tearDown();
+  }
+
+  /**
+   * Writes the flow with the content replaced to {@link #FLOW2}.
+   *
+   * @param search	the string to replace
+   * @param replace	the replacement
+   * @return		the new flow file
+   * @throws Exception	if reading/writing fails
+   */
+  protected File modify(String search, String replace) throws Exception {
+    String	content;
+    File	result;
+
+    content = new String(Files.readAllBytes(new TmpFile(FLOW).toPath()), StandardCharsets.UTF_8);
+    assertTrue("string not present: " + search, content.contains(search));
+    result = new TmpFile(FLOW2).getAbsoluteFile();
+    Files.write(result.toPath(), content.replace(search, replace).getBytes(StandardCharsets.UTF_8));
+
+    return result;
+  }
+
+  /**
+   * Returns the key for the file.
+   *
+   * @param file	the flow file
+   * @return		the key
+   */
+  protected String key(File file) {
+    MessageCollection	errors;
+    String		result;
+
+    errors = new MessageCollection();
+    result = FlowCache.key(file, errors);
+    assertNotNull("no key generated: " + errors, result);
+
+    return result;
+  }
+
+  /**
+   * Tests the generation of the cache key.
+   *
+   * @throws Exception	if reading/writing fails
+   */
+  public void testKey() throws Exception {
+    File	file;
+    String	key;
+
+    file = new TmpFile(FLOW).getAbsoluteFile();
+    key  = key(file);
+    assertEquals("key not stable", key, key(file));
+    assertEquals("comments should be ignored", key, key(modify("# User: fracpete", "# User: someone else")));
+    assertFalse("content changed", key.equals(key(modify("dumpfile.txt", "dumpfile2.txt"))));
+    assertNull("missing file", FlowCache.key(new TmpFile("doesnotexist.flow").getAbsoluteFile(), new MessageCollection()));
+  }
+
+  /**
+   * Tests whether the class path fingerprint covers the files in directories.
+   *
+   * @throws Exception	if reading/writing fails
+   */
+  public void testFingerprint() throws Exception {
+    File	dir;
+    File	file;
+    String	classpath;
+    String	fingerprint;
+
+    dir = new TmpFile(CLASSPATH_DIR).getAbsoluteFile();
+    assertTrue("failed to create dir", new File(dir, "sub").mkdirs());
+    file = new File(dir, "sub" + File.separator + "Some.class");
+    Files.write(file.toPath(), "1".getBytes());
+    classpath   = dir.getAbsolutePath() + File.pathSeparator + new TmpFile(FLOW).getAbsolutePath();
+    fingerprint = FlowCache.fingerprint(classpath);
+    assertEquals("fingerprint not stable", fingerprint, FlowCache.fingerprint(classpath));
+
+    Files.write(file.toPath(), "12".getBytes());
+    assertFalse("file in directory changed", fingerprint.equals(FlowCache.fingerprint(classpath)));
+
+    fingerprint = FlowCache.fingerprint(classpath);
+    Files.write(new File(dir, "Other.class").toPath(), "1".getBytes());
+    assertFalse("file added to directory", fingerprint.equals(FlowCache.fingerprint(classpath)));
+  }
+
+  /**
+   * Tests storing and retrieving a flow.
+   */
+  public void testRoundTrip() {
+    File	file;
+    String	key;
+    Actor	actor;
+    Actor	cached;
+
+    file  = new TmpFile(FLOW).getAbsoluteFile();
+    key   = key(file);
+    actor = ActorUtils.read(file.getAbsolutePath());
+    assertNotNull("failed to read flow", actor);
+    assertNull("nothing cached yet", FlowCache.get(key));
+
+    assertNull("failed to store", FlowCache.put(key, actor));
+    cached = FlowCache.get(key);
+    assertNotNull("not cached", cached);
+    assertNotSame("should be a copy", actor, cached);
+    assertEquals("flows differ", OptionUtils.getCommandLine(actor), OptionUtils.getCommandLine(cached));
+
+    assertNull("failed to clear", FlowCache.clear());
+    assertNull("cache cleared", FlowCache.get(key));
+  }
+
+  /**
+   * Tests whether corrupt entries get removed.
+   *
+   * @throws Exception	if writing fails
+   */
+  public void testCorrupt() throws Exception {
+    File	dir;
+
+    dir = FlowCache.getCacheDir();
+    assertTrue("failed to create dir", dir.mkdirs());
+    Files.write(FlowCache.cacheFile("corrupt").toPath(), "garbage".getBytes());
+    assertNull("corrupt entry", FlowCache.get("corrupt"));
+    assertFalse("corrupt entry not removed", FlowCache.cacheFile("corrupt").exists());
+  }
+
+  /**
+   * Tests the removal of the least recently used flows.
+   */
+  public void testEviction() {
+    Actor	actor;
+    long	now;
+
+    actor = ActorUtils.read(new TmpFile(FLOW).getAbsolutePath());
+    now   = System.currentTimeMillis();
+    assertNull("failed to store", FlowCache.put("a", actor, 2));
+    assertTrue(FlowCache.cacheFile("a").setLastModified(now - 20000));
+    assertNull("failed to store", FlowCache.put("b", actor, 2));
+    assertTrue(FlowCache.cacheFile("b").setLastModified(now - 10000));
+
+    // using "a" makes "b" the least recently used one
+    assertNotNull("a cached", FlowCache.get("a"));
+    assertNull("failed to store", FlowCache.put("c", actor, 2));
+    assertTrue("a used recently", FlowCache.cacheFile("a").exists());
+    assertFalse("b least recently used", FlowCache.cacheFile("b").exists());
+    assertTrue("c just stored", FlowCache.cacheFile("c").exists());
+
+    // only the flow just stored is kept
+    assertNull("failed to store", FlowCache.put("c", actor, 1));
+    assertTrue("c just stored", FlowCache.cacheFile("c").exists());
+    assertFalse("a evicted", FlowCache.cacheFile("a").exists());
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FlowCacheTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ModelReplicaPoolTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.env.Environment;
+import adams.flow.core.ModelReplicaPool.Replica;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the adams.flow.core.ModelReplicaPool class. Run from commandline with: <br><br>
+ * java adams.flow.core.ModelReplicaPoolTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ModelReplicaPoolTest
+  extends AdamsTestCase {
+
+  /**
+   * Dummy model that records concurrent use.
+   */
+  public static class DummyModel
+    implements java.io.Serializable {
+
+    private static final long serialVersionUID = 2284707400227290853L;
+
+    /** whether the model is in use. */
+    public transient boolean inUse;
+
+    /** some value. */
+    public int value = 42;
+  }
+
+  /**
+   * Dummy model that changes its state while predicting.
+   */
+  public static class StatefulModel
+    implements java.io.Serializable {
+
+    private static final long serialVersionUID = -3826610254012841932L;
+
+    /** the temporary state. */
+    public List<Integer> state = new ArrayList<>();
+
+    /**
+     * Makes a "prediction", synchronizing on the model like the users of
+     * the original replica have to.
+     */
+    public void predict() {
+      int	i;
+
+      synchronized(this) {
+	for (i = 0; i < 1000; i++)
+	  state.add(i);
+	Thread.yield();
+	state.clear();
+      }
+    }
+  }
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ModelReplicaPoolTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Tests that the original model gets used first and pools are shared.
+   *
+   * @throws Exception	if acquiring fails
+   */
+  public void testOriginal() throws Exception {
+    DummyModel			model;
+    ModelReplicaPool<DummyModel>	pool;
+    Replica<DummyModel>		replica;
+    Replica<DummyModel>		copy;
+
+    model = new DummyModel();
+    pool  = ModelReplicaPool.getPool(model, 2);
+    assertSame("pool not shared", pool, ModelReplicaPool.getPool(model, 2));
+    replica = pool.acquire();
+    assertSame("original model not used", model, replica.getModel());
+    pool.release(replica, 1, 1000);
+    replica = pool.acquire();
+    assertSame("original model not reused", model, replica.getModel());
+    pool.release(replica, 1, 1000);
+    assertEquals("# replicas differ", 1, pool.size());
+    assertEquals("# predictions differ", 2, replica.getNumPredictions());
+
+    // second replica is a copy
+    replica = pool.acquire();
+    copy    = pool.acquire();
+    assertTrue("not flagged as original", replica.isOriginal());
+    assertFalse("flagged as original", copy.isOriginal());
+    assertNotSame("copy is original model", model, copy.getModel());
+    pool.release(copy, 1, 1000);
+    pool.release(replica, 1, 1000);
+    assertEquals("# replicas differ", 2, pool.size());
+  }
+
+  /**
+   * Tests concurrent use of the replicas.
+   *
+   * @throws Exception	if a thread fails
+   */
+  public void testConcurrent() throws Exception {
+    DummyModel				model;
+    final ModelReplicaPool<DummyModel>	pool;
+    final AtomicInteger			errors;
+    List<Thread>			threads;
+    Thread				thread;
+    int					i;
+
+    // the pool only references the model weakly
+    model   = new DummyModel();
+    pool    = ModelReplicaPool.getPool(model, 3);
+    errors  = new AtomicInteger();
+    threads = new ArrayList<>();
+    for (i = 0; i < 6; i++) {
+      thread = new Thread(() -> {
+	Replica<DummyModel> replica;
+	for (int n = 0; n < 100; n++) {
+	  try {
+	    replica = pool.acquire();
+	    if (replica.getModel().inUse || (replica.getModel().value != 42))
+	      errors.incrementAndGet();
+	    replica.getModel().inUse = true;
+	    Thread.yield();
+	    replica.getModel().inUse = false;
+	    pool.release(replica, 1, 1000);
+	  }
+	  catch (Exception e) {
+	    errors.incrementAndGet();
+	  }
+	}
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread t: threads)
+      t.join();
+
+    assertEquals("replicas used concurrently", 0, errors.get());
+    assertTrue("too many replicas: " + pool.size(), pool.size() <= 3);
+    assertTrue("model garbage collected", pool.isPoolFor(model));
+  }
+
+  /**
+   * Tests acquiring new replicas while the original model is predicting.
+   *
+   * @throws Exception	if a thread fails
+   */
+  public void testConcurrentAcquirePredict() throws Exception {
+    StatefulModel		model;
+    ModelReplicaPool<StatefulModel>	pool;
+    Replica<StatefulModel>	copy;
+    Thread			thread;
+    int				n;
+
+    for (n = 0; n < 20; n++) {
+      // the pool only references the model weakly
+      model = new StatefulModel();
+      pool  = ModelReplicaPool.getPool(model, 2);
+      final Replica<StatefulModel> original = pool.acquire();
+      final AtomicBoolean running = new AtomicBoolean(true);
+      assertTrue("not flagged as original", original.isOriginal());
+      thread = new Thread(() -> {
+	while (running.get())
+	  original.getModel().predict();
+      });
+      thread.start();
+      try {
+	Thread.sleep(5);
+	copy = pool.acquire();
+      }
+      finally {
+	running.set(false);
+	thread.join();
+      }
+      assertFalse("flagged as original", copy.isOriginal());
+      assertTrue("snapshot taken during prediction", copy.getModel().state.isEmpty());
+      pool.release(copy, 0, 0);
+      pool.release(original, 0, 0);
+      assertTrue("model garbage collected", pool.isPoolFor(model));
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ModelReplicaPoolTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
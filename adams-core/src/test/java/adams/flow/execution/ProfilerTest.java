@@ -0,0 +1,466 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProfilerTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.execution;
+
+import adams.env.Environment;
+import adams.flow.execution.Profiler.ActorStatistics;
+import adams.flow.execution.Profiler.Histogram;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the adams.flow.execution.Profiler class. Run from commandline with: <br><br>
+ * java adams.flow.execution.ProfilerTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ProfilerTest
+  extends AdamsTestCase {
+
+  /** actor name with characters that need escaping. */
+  public final static String SPECIAL_NAME = "[Flow].\"quoted\" \\back\\slash\nnew line\ttab\u0001ctrl";
+
+  /**
+   * Minimal strict JSON parser, for checking the generated output.
+   * Objects get parsed into maps, arrays into lists, numbers into doubles.
+   */
+  public static class JsonParser {
+
+    /** the JSON string. */
+    protected String m_Json;
+
+    /** the current position. */
+    protected int m_Pos;
+
+    /**
+     * Initializes the parser.
+     *
+     * @param json	the JSON string to parse
+     */
+    public JsonParser(String json) {
+      m_Json = json;
+      m_Pos  = 0;
+    }
+
+    /**
+     * Parses the JSON string.
+     *
+     * @return		the parsed value
+     */
+    public Object parse() {
+      Object	result;
+
+      result = parseValue();
+      skipWhitespace();
+      if (m_Pos != m_Json.length())
+	throw error("Trailing content");
+
+      return result;
+    }
+
+    /**
+     * Generates an exception for the current position.
+     *
+     * @param msg	the error message
+     * @return		the exception
+     */
+    protected IllegalStateException error(String msg) {
+      return new IllegalStateException(msg + " at position " + m_Pos);
+    }
+
+    /**
+     * Skips any whitespace.
+     */
+    protected void skipWhitespace() {
+      while ((m_Pos < m_Json.length()) && (" \t\n\r".indexOf(m_Json.charAt(m_Pos)) > -1))
+	m_Pos++;
+    }
+
+    /**
+     * Consumes the expected character, skipping whitespace first.
+     *
+     * @param c		the expected character
+     */
+    protected void expect(char c) {
+      skipWhitespace();
+      if ((m_Pos >= m_Json.length()) || (m_Json.charAt(m_Pos) != c))
+	throw error("Expected '" + c + "'");
+      m_Pos++;
+    }
+
+    /**
+     * Checks whether the next non-whitespace character is the specified one.
+     *
+     * @param c		the character to check
+     * @return		true if next character
+     */
+    protected boolean peek(char c) {
+      skipWhitespace();
+      return (m_Pos < m_Json.length()) && (m_Json.charAt(m_Pos) == c);
+    }
+
+    /**
+     * Parses a value.
+     *
+     * @return		the value
+     */
+    protected Object parseValue() {
+      skipWhitespace();
+      if (m_Pos >= m_Json.length())
+	throw error("Unexpected end");
+      switch (m_Json.charAt(m_Pos)) {
+	case '{':
+	  return parseObject();
+	case '[':
+	  return parseArray();
+	case '"':
+	  return parseString();
+	default:
+	  if (m_Json.startsWith("true", m_Pos)) {
+	    m_Pos += 4;
+	    return true;
+	  }
+	  if (m_Json.startsWith("false", m_Pos)) {
+	    m_Pos += 5;
+	    return false;
+	  }
+	  if (m_Json.startsWith("null", m_Pos)) {
+	    m_Pos += 4;
+	    return null;
+	  }
+	  return parseNumber();
+      }
+    }
+
+    /**
+     * Parses an object.
+     *
+     * @return		the object
+     */
+    protected Map<String,Object> parseObject() {
+      Map<String,Object>	result;
+      String			key;
+
+      result = new HashMap<>();
+      expect('{');
+      if (peek('}')) {
+	m_Pos++;
+	return result;
+      }
+      do {
+	skipWhitespace();
+	key = parseString();
+	expect(':');
+	result.put(key, parseValue());
+      }
+      while (tryConsume(','));
+      expect('}');
+
+      return result;
+    }
+
+    /**
+     * Parses an array.
+     *
+     * @return		the array
+     */
+    protected List<Object> parseArray() {
+      List<Object>	result;
+
+      result = new ArrayList<>();
+      expect('[');
+      if (peek(']')) {
+	m_Pos++;
+	return result;
+      }
+      do {
+	result.add(parseValue());
+      }
+      while (tryConsume(','));
+      expect(']');
+
+      return result;
+    }
+
+    /**
+     * Consumes the character if it is the next non-whitespace one.
+     *
+     * @param c		the character to consume
+     * @return		true if consumed
+     */
+    protected boolean tryConsume(char c) {
+      if (peek(c)) {
+	m_Pos++;
+	return true;
+      }
+      return false;
+    }
+
+    /**
+     * Parses a string.
+     *
+     * @return		the string
+     */
+    protected String parseString() {
+      StringBuilder	result;
+      char		c;
+
+      result = new StringBuilder();
+      if ((m_Pos >= m_Json.length()) || (m_Json.charAt(m_Pos) != '"'))
+	throw error("Expected string");
+      m_Pos++;
+      while (true) {
+	if (m_Pos >= m_Json.length())
+	  throw error("Unterminated string");
+	c = m_Json.charAt(m_Pos++);
+	if (c == '"')
+	  break;
+	if (c < 0x20)
+	  throw error("Unescaped control character");
+	if (c != '\\') {
+	  result.append(c);
+	  continue;
+	}
+	if (m_Pos >= m_Json.length())
+	  throw error("Unterminated escape");
+	c = m_Json.charAt(m_Pos++);
+	switch (c) {
+	  case '"':
+	  case '\\':
+	  case '/':
+	    result.append(c);
+	    break;
+	  case 'b':
+	    result.append('\b');
+	    break;
+	  case 'f':
+	    result.append('\f');
+	    break;
+	  case 'n':
+	    result.append('\n');
+	    break;
+	  case 'r':
+	    result.append('\r');
+	    break;
+	  case 't':
+	    result.append('\t');
+	    break;
+	  case 'u':
+	    if (m_Pos + 4 > m_Json.length())
+	      throw error("Incomplete unicode escape");
+	    result.append((char) Integer.parseInt(m_Json.substring(m_Pos, m_Pos + 4), 16));
+	    m_Pos += 4;
+	    break;
+	  default:
+	    throw error("Invalid escape '" + c + "'");
+	}
+      }
+
+      return result.toString();
+    }
+
+    /**
+     * Parses a number (JSON syntax, i.e., no NaN or Infinity).
+     *
+     * @return		the number
+     */
+    protected Double parseNumber() {
+      int	start;
+
+      start = m_Pos;
+      while ((m_Pos < m_Json.length()) && ("+-0123456789.eE".indexOf(m_Json.charAt(m_Pos)) > -1))
+	m_Pos++;
+      if (!m_Json.substring(start, m_Pos).matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?"))
+	throw error("Invalid number '" + m_Json.substring(start, m_Pos) + "'");
+
+      return Double.parseDouble(m_Json.substring(start, m_Pos));
+    }
+  }
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ProfilerTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Fills the histogram with known values: 80x 1.5 microseconds,
+   * 18x 100 microseconds, 2x 5 milliseconds.
+   *
+   * @param hist	the histogram to fill
+   */
+  protected void fill(Histogram hist) {
+    int		i;
+
+    for (i = 0; i < 80; i++)
+      hist.add(1500);
+    for (i = 0; i < 18; i++)
+      hist.add(100000);
+    for (i = 0; i < 2; i++)
+      hist.add(5000000);
+  }
+
+  /**
+   * Returns a profiler with statistics for an actor with special characters
+   * in its name.
+   *
+   * @return		the profiler
+   */
+  protected Profiler newProfiler() {
+    Profiler		result;
+    ActorStatistics	stats;
+
+    result = new Profiler();
+    result.startListening();
+    result.m_FlowName = "flow \"name\"";
+    stats = new ActorStatistics(SPECIAL_NAME);
+    fill(stats.getExecute());
+    stats.m_TokensIn.add(100);
+    result.m_Statistics.put(SPECIAL_NAME, stats);
+
+    return result;
+  }
+
+  /**
+   * Tests the histogram with known samples.
+   */
+  public void testHistogram() {
+    Histogram	hist;
+
+    hist = new Histogram();
+    assertEquals("quantile of empty histogram", 0.0, hist.getQuantile(0.5));
+
+    fill(hist);
+    assertEquals("count", 100, hist.getCount());
+    assertEquals("sum", 80 * 1500L + 18 * 100000L + 2 * 5000000L, hist.getSum());
+    assertEquals("max", 5000000L, hist.getMax());
+    // 1 microsecond -> bucket 1, 100 -> bucket 7, 5000 -> bucket 13
+    assertEquals("bucket 1", 80, hist.getBucket(1));
+    assertEquals("bucket 7", 18, hist.getBucket(7));
+    assertEquals("bucket 13", 2, hist.getBucket(13));
+    assertEquals("p50", 2.0e-6, hist.getQuantile(0.50), 1e-12);
+    assertEquals("p90", 1.28e-4, hist.getQuantile(0.90), 1e-12);
+    assertEquals("p99 (capped by max)", 5.0e-3, hist.getQuantile(0.99), 1e-12);
+    assertTrue("last bucket unbounded", Double.isInfinite(Histogram.getUpperBound(Histogram.NUM_BUCKETS - 1)));
+
+    hist.add(-10);
+    assertEquals("negative durations count as zero", 1, hist.getBucket(0));
+  }
+
+  /**
+   * Tests that the JSON output is valid, even with special characters in
+   * the actor name.
+   */
+  public void testJSON() {
+    Profiler		profiler;
+    Object		parsed;
+    Map			root;
+    List		actors;
+    Map			actor;
+    Map			execute;
+
+    profiler = newProfiler();
+    try {
+      parsed = new JsonParser(profiler.toJSON()).parse();
+    }
+    catch (Exception e) {
+      fail("Invalid JSON: " + e + "\n" + profiler.toJSON());
+      return;
+    }
+    finally {
+      profiler.cleanUp();
+    }
+
+    assertTrue("not an object", parsed instanceof Map);
+    root = (Map) parsed;
+    assertEquals("flow name", "flow \"name\"", root.get("flow"));
+    actors = (List) root.get("actors");
+    assertEquals("# actors", 1, actors.size());
+    actor = (Map) actors.get(0);
+    assertEquals("actor name", SPECIAL_NAME, actor.get("name"));
+    assertEquals("tokens in", 100.0, actor.get("tokens_in"));
+    assertFalse("no input recorded", actor.containsKey("input"));
+    execute = (Map) actor.get("execute");
+    assertEquals("count", 100.0, execute.get("count"));
+    assertEquals("max", 5.0, (Double) execute.get("max_ms"), 1e-9);
+    assertEquals("p99", 5.0, (Double) execute.get("p99_ms"), 1e-9);
+  }
+
+  /**
+   * Tests that the Prometheus output has escaped labels and a +Inf bucket.
+   */
+  public void testPrometheus() {
+    Profiler		profiler;
+    String		output;
+    String		labels;
+    List<String>	buckets;
+
+    profiler = newProfiler();
+    output   = profiler.toPrometheus();
+    profiler.cleanUp();
+
+    labels = "flow=\"flow \\\"name\\\"\",actor=\"[Flow].\\\"quoted\\\" \\\\back\\\\slash\\nnew line\ttab\u0001ctrl\"";
+    assertTrue("tokens in with escaped labels missing:\n" + output, output.contains("adams_actor_tokens_in_total{" + labels + "} 100\n"));
+
+    buckets = new ArrayList<>();
+    for (String line: output.split("\n")) {
+      if (line.startsWith("#"))
+	continue;
+      // label values must not contain unescaped quotes or line breaks
+      assertTrue("invalid line: " + line, line.matches("[a-z_]+\\{([a-z]+=\"([^\"\\\\\\n]|\\\\[\\\\\"n])*\",?)+\\} \\S+"));
+      if (line.startsWith("adams_actor_latency_seconds_bucket{"))
+	buckets.add(line);
+    }
+    assertEquals("# buckets", Histogram.NUM_BUCKETS, buckets.size());
+    assertTrue("last bucket: " + buckets.get(buckets.size() - 1), buckets.get(buckets.size() - 1).endsWith(",le=\"+Inf\"} 100"));
+    assertTrue("cumulative bucket count", output.contains(",stage=\"execute\",le=\"1.28E-4\"} 98\n"));
+    assertTrue("sum", output.contains("adams_actor_latency_seconds_sum{" + labels + ",stage=\"execute\"} 0.01192\n"));
+    assertTrue("count", output.contains("adams_actor_latency_seconds_count{" + labels + ",stage=\"execute\"} 100\n"));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ProfilerTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -21,10 +21,14 @@
 package adams.flow.sink;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import adams.core.base.BaseString;
+import adams.core.io.AbstractFilenameGenerator;
+import adams.core.io.FileUtils;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.control.Flow;
@@ -41,6 +45,50 @@ import adams.test.TmpFile;
 public class DumpFileTest
   extends AbstractFlowTest {
 
+  /**
+   * Generator that writes odd numbers to dumpfile.txt and even ones to
+   * dumpfile2.txt.
+   */
+  public static class OddEvenFilenameGenerator
+    extends AbstractFilenameGenerator {
+
+    private static final long serialVersionUID = 4329683407325806357L;
+
+    /**
+     * Returns a string describing the object.
+     *
+     * @return 			a description suitable for displaying in the gui
+     */
+    @Override
+    public String globalInfo() {
+      return "Writes odd numbers to dumpfile.txt and even ones to dumpfile2.txt.";
+    }
+
+    /**
+     * Returns whether we actually need an object to generate the filename.
+     *
+     * @return		true if object required
+     */
+    @Override
+    public boolean canHandleNullObject() {
+      return false;
+    }
+
+    /**
+     * Performs the actual generation of the filename.
+     *
+     * @param obj		the object to generate the filename for
+     * @return		the generated filename
+     */
+    @Override
+    protected String doGenerate(Object obj) {
+      if (Integer.parseInt(obj.toString()) % 2 == 1)
+	return new TmpFile("dumpfile.txt").getAbsolutePath();
+      else
+	return new TmpFile("dumpfile2.txt").getAbsolutePath();
+    }
+  }
+
   /**
    * Initializes the test.
    *
@@ -59,6 +107,7 @@ public class DumpFileTest
     super.setUp();
 
     m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+    m_TestHelper.deleteFileFromTmp("dumpfile2.txt");
   }
 
   /**
@@ -68,6 +117,7 @@ public class DumpFileTest
    */
   protected void tearDown() throws Exception {
     m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+    m_TestHelper.deleteFileFromTmp("dumpfile2.txt");
 
     super.tearDown();
   }
@@ -131,6 +181,97 @@ public class DumpFileTest
 	    new TmpFile("dumpfile.txt")});
   }
 
+  /**
+   * Creates a flow that outputs the numbers 1-30 and writes them with the
+   * given sink.
+   *
+   * @param df		the sink to use
+   * @return		the flow
+   */
+  protected Flow newFlow(DumpFile df) {
+    BaseString[]	strings;
+    int			i;
+
+    strings = new BaseString[30];
+    for (i = 0; i < strings.length; i++)
+      strings[i] = new BaseString("" + (i + 1));
+    StringConstants ids = new StringConstants();
+    ids.setStrings(strings);
+
+    Flow flow = new Flow();
+    flow.setActors(new Actor[]{ids, df});
+
+    return flow;
+  }
+
+  /**
+   * Returns the numbers from start to 30 (incl), using the given step size.
+   *
+   * @param start	the first number
+   * @param step	the step size
+   * @return		the numbers as strings
+   */
+  protected List<String> numbers(int start, int step) {
+    List<String>	result;
+    int			i;
+
+    result = new ArrayList<>();
+    for (i = start; i <= 30; i += step)
+      result.add("" + i);
+
+    return result;
+  }
+
+  /**
+   * Tests keeping the file open in append mode.
+   */
+  public void testKeepOpen() {
+    DumpFile df = new DumpFile();
+    df.setAppend(true);
+    df.setKeepOpen(true);
+    df.setFlushSize(16);
+    df.setOutputFile(new TmpFile("dumpfile.txt"));
+
+    assertNull("execution failed", performActorExecution(newFlow(df)));
+    assertEquals("output differs", numbers(1, 1), FileUtils.loadFromFile(new TmpFile("dumpfile.txt")));
+
+    // append to existing content
+    df = new DumpFile();
+    df.setAppend(true);
+    df.setKeepOpen(true);
+    df.setOutputFile(new TmpFile("dumpfile.txt"));
+    assertNull("execution failed", performActorExecution(newFlow(df)));
+    List<String> expected = numbers(1, 1);
+    expected.addAll(numbers(1, 1));
+    assertEquals("output differs", expected, FileUtils.loadFromFile(new TmpFile("dumpfile.txt")));
+  }
+
+  /**
+   * Tests rotating the file that is kept open, using a filename generator.
+   */
+  public void testRotation() {
+    DumpFile df = new DumpFile();
+    df.setAppend(true);
+    df.setKeepOpen(true);
+    df.setOutputFile(new TmpFile("dumpfile.txt"));
+    df.setFilenameGenerator(new OddEvenFilenameGenerator());
+
+    assertNull("execution failed", performActorExecution(newFlow(df)));
+    assertEquals("odd numbers differ", numbers(1, 2), FileUtils.loadFromFile(new TmpFile("dumpfile.txt")));
+    assertEquals("even numbers differ", numbers(2, 2), FileUtils.loadFromFile(new TmpFile("dumpfile2.txt")));
+
+    // same output without keeping the files open
+    m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+    m_TestHelper.deleteFileFromTmp("dumpfile2.txt");
+    df = new DumpFile();
+    df.setAppend(true);
+    df.setOutputFile(new TmpFile("dumpfile.txt"));
+    df.setFilenameGenerator(new OddEvenFilenameGenerator());
+    assertNull("execution failed", performActorExecution(newFlow(df)));
+    assertEquals("odd numbers differ", numbers(1, 2), FileUtils.loadFromFile(new TmpFile("dumpfile.txt")));
+    assertEquals("even numbers differ", numbers(2, 2), FileUtils.loadFromFile(new TmpFile("dumpfile2.txt")));
+  }
+
   /**
    * Returns a test suite.
    *
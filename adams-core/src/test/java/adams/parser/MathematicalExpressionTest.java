@@ -15,15 +15,21 @@
 
 /*
  * MathematicalExpressionTest.java
- * Copyright (C) 2010-2023 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.parser;
 
 import adams.core.base.BaseString;
 import adams.env.Environment;
+import adams.parser.mathematicalexpression.Parser;
+import adams.parser.mathematicalexpression.Scanner;
+import adams.parser.mathematicalexpression.sym;
+import java_cup.runtime.ComplexSymbolFactory;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.util.HashMap;
+
 /**
  * Tests the adams.parser.MathematicalExpression class. Run from commandline with: <br><br>
  * java adams.parser.MathematicalExpressionTest
@@ -280,6 +286,139 @@ public class MathematicalExpressionTest
     return new MathematicalExpression[]{new MathematicalExpression()};
   }
 
+  /**
+   * Tests evaluating the same expression with different symbols, i.e.,
+   * replaying the cached tokens.
+   *
+   * @throws Exception	if evaluation fails
+   */
+  public void testLexedCache() throws Exception {
+    HashMap	symbols;
+    long	hits;
+
+    symbols = new HashMap();
+    symbols.put("X", 2.0);
+    assertEquals("first evaluation", 5.0, MathematicalExpression.evaluate("X * 2 + 1", symbols), 1e-8);
+    hits = MathematicalExpression.LEXED_CACHE.getHits();
+    symbols.put("X", 3.0);
+    assertEquals("second evaluation", 7.0, MathematicalExpression.evaluate("X * 2 + 1", symbols), 1e-8);
+    assertEquals("cache hit", hits + 1, MathematicalExpression.LEXED_CACHE.getHits());
+  }
+
+  /**
+   * Tests that the cache stays within its bounds when accessed concurrently.
+   *
+   * @throws Exception	if evaluation fails
+   */
+  public void testLexedCacheBounded() throws Exception {
+    LexedExpressionCache	cache;
+    Thread[]			threads;
+    Exception[]			errors;
+    int				i;
+
+    cache   = new LexedExpressionCache((input, sf) -> new Scanner(input, sf), sym.EOF, 10);
+    threads = new Thread[4];
+    errors  = new Exception[1];
+    for (i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+	try {
+	  for (int n = 0; n < 100; n++)
+	    cache.get("X + " + (n % 20));
+	}
+	catch (Exception e) {
+	  errors[0] = e;
+	}
+      });
+      threads[i].start();
+    }
+    for (Thread thread: threads)
+      thread.join();
+
+    assertNull("lexing failed", errors[0]);
+    assertEquals("# lookups", 400, cache.getHits() + cache.getMisses());
+    assertTrue("cache exceeds size: " + cache.sizeUsed(), cache.sizeUsed() <= 10 + threads.length);
+    cache.resize(0);
+    cache.get("X + 1");
+    assertEquals("cache disabled", 0, cache.sizeUsed());
+  }
+
+  /**
+   * Tests that the compiled expressions return the same results as parsing
+   * them, for varying symbol values.
+   *
+   * @throws Exception	if evaluation fails
+   */
+  public void testCompiled() throws Exception {
+    String[]		exprs;
+    LexedExpression	lexed;
+    HashMap		symbols;
+    Parser		parser;
+    Double		expected;
+    Double		actual;
+    int			i;
+
+    exprs = new String[]{
+      "-X * (2 + Y) / 3",
+      "ifelse(X > Y, sqrt(abs(X)), pow(Y, 2) - X)",
+      "max(X, Y) + min(1, X) % 2",
+      "X ^ 2 + -(Y - 1)",
+      "length(\"abc\") + X",
+    };
+    for (String expr: exprs) {
+      lexed = MathematicalExpression.LEXED_CACHE.get(expr);
+      for (i = 0; i < 3; i++) {
+	symbols = new HashMap();
+	symbols.put("X", i * 1.5 - 2.0);
+	symbols.put("Y", 3.0 - i);
+	parser = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
+	parser.setSymbols(symbols);
+	parser.parse();
+	expected = parser.getResult();
+	parser = new Parser(lexed.newScanner(), new ComplexSymbolFactory());
+	parser.setSymbols(symbols);
+	lexed.parse(parser);
+	actual = parser.getResult();
+	assertTrue(expr + " not compiled", lexed.isCompiled());
+	assertEquals(expr + " with " + symbols, expected, actual, 1e-8);
+      }
+    }
+  }
+
+  /**
+   * Tests that invalid expressions still fail with every evaluation.
+   */
+  public void testCompiledInvalid() {
+    int		i;
+
+    for (i = 0; i < 2; i++) {
+      try {
+	MathematicalExpression.evaluate("X + * 2", new HashMap());
+	fail("invalid expression evaluated");
+      }
+      catch (Exception e) {
+	// expected
+      }
+    }
+  }
+
+  /**
+   * Tests that expressions that should not get cached, e.g., ones with
+   * expanded variables, don't end up in the cache.
+   *
+   * @throws Exception	if evaluation fails
+   */
+  public void testNotCached() throws Exception {
+    HashMap	symbols;
+    int		used;
+
+    symbols = new HashMap();
+    symbols.put("X", 2.0);
+    used    = MathematicalExpression.LEXED_CACHE.sizeUsed();
+    assertEquals("first evaluation", 6.0, MathematicalExpression.evaluate("X * 2 + 2.00042", symbols, false), 1e-3);
+    assertEquals("second evaluation", 6.0, MathematicalExpression.evaluate("X * 2 + 2.00042", symbols, false), 1e-3);
+    assertEquals("cache grew", used, MathematicalExpression.LEXED_CACHE.sizeUsed());
+  }
+
   /**
    * Returns a test suite.
    *
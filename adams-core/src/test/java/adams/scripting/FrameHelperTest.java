@@ -0,0 +1,184 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FrameHelperTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.scripting;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests the adams.scripting.FrameHelper class.
+ * Run from commandline with: <br><br>
+ * java adams.scripting.FrameHelperTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FrameHelperTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public FrameHelperTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Writes the frames to a byte array.
+   *
+   * @param data	the frames to write
+   * @param compress	whether to compress the frames
+   * @return		the bytes
+   * @throws IOException	if writing fails
+   */
+  protected byte[] write(String[] data, boolean compress) throws IOException {
+    ByteArrayOutputStream	bytes;
+    DataOutputStream		out;
+
+    bytes = new ByteArrayOutputStream();
+    out   = new DataOutputStream(bytes);
+    for (String d: data)
+      FrameHelper.writeFrame(out, d, compress);
+    out.flush();
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Generates a string of the specified length.
+   *
+   * @param len		the length
+   * @return		the string
+   */
+  protected String generate(int len) {
+    StringBuilder	result;
+    int			i;
+
+    result = new StringBuilder();
+    for (i = 0; i < len; i++)
+      result.append('a');
+
+    return result.toString();
+  }
+
+  /**
+   * Tests writing and reading frames.
+   *
+   * @throws Exception	if the test fails
+   */
+  public void testRoundTrip() throws Exception {
+    String[]		data;
+    DataInputStream	in;
+    int			i;
+
+    data = new String[]{"", "Hello World", "\u00fcml\u00e4ut\nnew line", generate(100000)};
+    for (boolean compress: new boolean[]{false, true}) {
+      in = new DataInputStream(new ByteArrayInputStream(write(data, compress)));
+      for (i = 0; i < data.length; i++)
+	assertEquals("frame differs: " + i + "/" + compress, data[i], FrameHelper.readFrame(in));
+      assertNull("end of stream expected", FrameHelper.readFrame(in));
+    }
+  }
+
+  /**
+   * Tests rejecting frames that exceed the maximum size.
+   *
+   * @throws Exception	if the test fails
+   */
+  public void testOversized() throws Exception {
+    DataInputStream	in;
+
+    in = new DataInputStream(new ByteArrayInputStream(write(new String[]{generate(1000)}, false)));
+    try {
+      FrameHelper.readFrame(in, 999);
+      fail("Oversized frame not rejected");
+    }
+    catch (IOException e) {
+      // expected
+    }
+
+    // header only, must not allocate the announced size
+    in = new DataInputStream(new ByteArrayInputStream(new byte[]{0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xf0, FrameHelper.FLAG_NONE}));
+    try {
+      FrameHelper.readFrame(in);
+      fail("Oversized frame not rejected");
+    }
+    catch (IOException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests rejecting compressed frames that exceed the maximum size once
+   * decompressed.
+   *
+   * @throws Exception	if the test fails
+   */
+  public void testGzipLimit() throws Exception {
+    byte[]		bytes;
+    DataInputStream	in;
+    String		data;
+
+    data  = generate(1024 * 1024);
+    bytes = write(new String[]{data}, true);
+    assertTrue("not compressed", bytes.length < 64 * 1024);
+
+    in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      FrameHelper.readFrame(in, 64 * 1024);
+      fail("Decompressed frame not rejected");
+    }
+    catch (IOException e) {
+      // expected
+    }
+
+    in = new DataInputStream(new ByteArrayInputStream(bytes));
+    assertEquals("frame differs", data, FrameHelper.readFrame(in, data.length()));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FrameHelperTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PersistentConnectionTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.scripting.connection;
+
+import adams.core.MessageCollection;
+import adams.env.Environment;
+import adams.scripting.FrameHelper;
+import adams.scripting.command.RemoteCommand;
+import adams.scripting.command.basic.Ping;
+import adams.scripting.processor.DefaultProcessor;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the adams.scripting.connection.PersistentConnection class, using a
+ * server that records the connections and frames it receives.
+ * Run from commandline with: <br><br>
+ * java adams.scripting.connection.PersistentConnectionTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PersistentConnectionTest
+  extends AdamsTestCase {
+
+  /** the server socket. */
+  protected ServerSocket m_Server;
+
+  /** the number of accepted connections. */
+  protected int m_NumConnections;
+
+  /** the received frames. */
+  protected List<String> m_Frames;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public PersistentConnectionTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    m_Server         = new ServerSocket(0);
+    m_NumConnections = 0;
+    m_Frames         = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    PersistentConnection.closeAll();
+    m_Server.close();
+
+    super.tearDown();
+  }
+
+  /**
+   * Accepts a single connection and reads all its frames.
+   *
+   * @return		the thread
+   */
+  protected Thread startServer() {
+    Thread	result;
+
+    result = new Thread(() -> {
+      DataInputStream	in;
+      byte[]		header;
+      String		frame;
+
+      try (Socket client = m_Server.accept()) {
+	m_NumConnections++;
+	in     = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+	header = new byte[FrameHelper.MAGIC.length];
+	in.readFully(header);
+	if (!FrameHelper.isMagic(header, header.length))
+	  return;
+	while ((frame = FrameHelper.readFrame(in)) != null)
+	  m_Frames.add(frame);
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    });
+    result.start();
+
+    return result;
+  }
+
+  /**
+   * Creates a connection to the test server.
+   *
+   * @param compress	whether to compress the commands
+   * @return		the connection
+   */
+  protected PersistentConnection newConnection(boolean compress) {
+    PersistentConnection	result;
+
+    result = new PersistentConnection();
+    result.setHost("localhost");
+    result.setPort(m_Server.getLocalPort());
+    result.setCompress(compress);
+
+    return result;
+  }
+
+  /**
+   * Tests that all commands get sent over the same connection.
+   *
+   * @throws Exception	if the test fails
+   */
+  public void testReuse() throws Exception {
+    Thread			server;
+    PersistentConnection	conn1;
+    PersistentConnection	conn2;
+    DefaultProcessor		processor;
+    RemoteCommand		cmd;
+    MessageCollection		errors;
+    int				i;
+
+    server    = startServer();
+    processor = new DefaultProcessor();
+    conn1     = newConnection(false);
+    conn2     = newConnection(true);
+    for (i = 0; i < 3; i++) {
+      assertNull("failed to send", conn1.sendRequest(new Ping(), processor));
+      assertNull("failed to send", conn2.sendRequest(new Ping(), processor));
+    }
+
+    PersistentConnection.closeAll();
+    server.join(10000);
+    assertFalse("server still running", server.isAlive());
+    assertEquals("# connections", 1, m_NumConnections);
+    assertEquals("# frames", 6, m_Frames.size());
+    for (String frame: m_Frames) {
+      errors = new MessageCollection();
+      cmd    = processor.parse(frame, errors);
+      assertTrue("failed to parse: " + errors, errors.isEmpty());
+      assertTrue("wrong command: " + cmd, cmd instanceof Ping);
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(PersistentConnectionTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ConnectionPoolTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.db.pool;
+
+import adams.core.base.BasePassword;
+import adams.db.SQLUtils;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the adams.db.pool.ConnectionPool class, using an in-memory H2
+ * database.
+ * Run from commandline with: <br><br>
+ * java adams.db.pool.ConnectionPoolTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ConnectionPoolTest
+  extends AdamsTestCase {
+
+  /** the pool in use. */
+  protected ConnectionPool m_Pool;
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ConnectionPoolTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception	if set-up fails
+   */
+  @Override
+  protected void setUp() throws Exception {
+    Connection	conn;
+    Statement	stmt;
+
+    super.setUp();
+
+    m_Pool = newPool(3);
+    conn   = m_Pool.borrow();
+    stmt   = conn.createStatement();
+    stmt.execute("CREATE TABLE IF NOT EXISTS data (id INT, name VARCHAR(50))");
+    stmt.execute("DELETE FROM data");
+    stmt.close();
+    conn.close();
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    m_Pool.close();
+
+    super.tearDown();
+  }
+
+  /**
+   * Creates a new pool for the in-memory database of the current test.
+   *
+   * @param size	the maximum number of connections
+   * @return		the pool
+   */
+  protected ConnectionPool newPool(int size) {
+    ConnectionPool	result;
+
+    result = new ConnectionPool("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "", new BasePassword(), true);
+    result.setMaxSize(size);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of rows in the table.
+   *
+   * @return		the number of rows
+   * @throws Exception	if query fails
+   */
+  protected int count() throws Exception {
+    Connection	conn;
+    ResultSet	rs;
+    int		result;
+
+    conn = m_Pool.borrow();
+    rs   = conn.createStatement().executeQuery("SELECT COUNT(*) FROM data");
+    rs.next();
+    result = rs.getInt(1);
+    SQLUtils.closeAll(rs);
+    conn.close();
+
+    return result;
+  }
+
+  /**
+   * Tests whether connections get reused.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testReuse() throws Exception {
+    Connection	conn;
+    int		i;
+
+    for (i = 0; i < 10; i++) {
+      conn = m_Pool.borrow();
+      assertTrue("should be pooled", m_Pool.isPooled(conn));
+      assertEquals("# active differs", 1, m_Pool.getNumActive());
+      conn.close();
+      assertTrue("should be closed", conn.isClosed());
+    }
+    assertEquals("# active differs", 0, m_Pool.getNumActive());
+    assertEquals("# open differs", 1, m_Pool.getNumOpen());
+    assertEquals("# created differs", 1L, m_Pool.getMetrics().get("created"));
+    assertEquals("# borrowed differs", 11L, m_Pool.getMetrics().get("borrowed"));
+
+    conn = m_Pool.borrow();
+    conn.close();
+    try {
+      conn.createStatement();
+      fail("closed connection should not be usable");
+    }
+    catch (SQLException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests the upper limit of connections and the timeout when borrowing.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testLimit() throws Exception {
+    List<Connection>	conns;
+    int			i;
+
+    m_Pool.setBorrowTimeout(200);
+    conns = new ArrayList<>();
+    for (i = 0; i < 3; i++)
+      conns.add(m_Pool.borrow());
+    try {
+      m_Pool.borrow();
+      fail("pool should be exhausted");
+    }
+    catch (SQLException e) {
+      // expected
+    }
+    assertEquals("# timeouts differs", 1L, m_Pool.getMetrics().get("timeouts"));
+
+    conns.remove(0).close();
+    conns.add(m_Pool.borrow());
+    assertEquals("# open differs", 3, m_Pool.getNumOpen());
+    for (Connection conn: conns)
+      conn.close();
+    assertEquals("# idle differs", 3, m_Pool.getNumIdle());
+  }
+
+  /**
+   * Tests that connections only get returned once their statements have
+   * been closed.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testDeferredRelease() throws Exception {
+    Connection	conn;
+    ResultSet	rs;
+
+    conn = m_Pool.borrow();
+    rs   = conn.createStatement().executeQuery("SELECT * FROM data");
+    conn.close();
+    assertEquals("# active differs", 1, m_Pool.getNumActive());
+    assertFalse("result set should be usable", rs.next());
+    SQLUtils.closeAll(rs);
+    assertEquals("# active differs", 0, m_Pool.getNumActive());
+  }
+
+  /**
+   * Tests the caching of prepared statements.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testStatementCache() throws Exception {
+    Connection		conn;
+    PreparedStatement	stmt;
+    int			i;
+
+    for (i = 0; i < 5; i++) {
+      conn = m_Pool.borrow();
+      stmt = conn.prepareStatement("INSERT INTO data VALUES (?, ?)");
+      stmt.setInt(1, i);
+      stmt.setString(2, "name" + i);
+      stmt.executeUpdate();
+      stmt.close();
+      conn.close();
+    }
+    assertEquals("# rows differs", 5, count());
+    assertEquals("# cache misses differs", 1L, m_Pool.getMetrics().get("statement-cache-misses"));
+    assertEquals("# cache hits differs", 4L, m_Pool.getMetrics().get("statement-cache-hits"));
+
+    m_Pool.close();
+    m_Pool = newPool(1);
+    m_Pool.setStatementCacheSize(0);
+    conn = m_Pool.borrow();
+    conn.prepareStatement("SELECT * FROM data").close();
+    conn.close();
+    assertEquals("# cache misses differs", 0L, m_Pool.getMetrics().get("statement-cache-misses"));
+  }
+
+  /**
+   * Tests the eviction of idle connections.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testEviction() throws Exception {
+    m_Pool.setMaxIdle(50);
+    m_Pool.borrow().close();
+    assertEquals("# open differs", 1, m_Pool.getNumOpen());
+    Thread.sleep(200);
+    m_Pool.evict();
+    assertEquals("# open differs", 0, m_Pool.getNumOpen());
+    assertEquals("# evicted differs", 1L, m_Pool.getMetrics().get("evicted"));
+    m_Pool.borrow().close();
+    assertEquals("# created differs", 2L, m_Pool.getMetrics().get("created"));
+  }
+
+  /**
+   * Tests the validation of connections on borrow.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testValidation() throws Exception {
+    Connection	conn;
+    Connection	actual;
+
+    // close the underlying connection of an idle connection behind the pool's back
+    conn   = m_Pool.borrow();
+    actual = conn.unwrap(Connection.class);
+    conn.close();
+    actual.close();
+    assertEquals("# idle differs", 1, m_Pool.getNumIdle());
+
+    conn = m_Pool.borrow();
+    assertFalse("should be usable", conn.isClosed());
+    conn.createStatement().close();
+    conn.close();
+    assertEquals("# validation failures differs", 1L, m_Pool.getMetrics().get("validation-failures"));
+    assertEquals("# created differs", 2L, m_Pool.getMetrics().get("created"));
+    assertEquals("# open differs", 1, m_Pool.getNumOpen());
+  }
+
+  /**
+   * Tests borrowing connections from multiple threads.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testConcurrent() throws Exception {
+    List<Thread>	threads;
+    AtomicInteger	errors;
+    Thread		thread;
+    int			i;
+
+    errors  = new AtomicInteger();
+    threads = new ArrayList<>();
+    for (i = 0; i < 8; i++) {
+      final int offset = i * 100;
+      thread = new Thread(() -> {
+	Connection conn;
+	PreparedStatement stmt;
+	for (int n = 0; n < 20; n++) {
+	  try {
+	    conn = m_Pool.borrow();
+	    stmt = conn.prepareStatement("INSERT INTO data VALUES (?, ?)");
+	    stmt.setInt(1, offset + n);
+	    stmt.setString(2, "name" + (offset + n));
+	    stmt.executeUpdate();
+	    stmt.close();
+	    conn.close();
+	  }
+	  catch (Exception e) {
+	    errors.incrementAndGet();
+	  }
+	}
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread t: threads)
+      t.join();
+
+    assertEquals("# errors differs", 0, errors.get());
+    assertEquals("# rows differs", 160, count());
+    assertTrue("too many connections", m_Pool.getNumOpen() <= 3);
+    assertEquals("# active differs", 0, m_Pool.getNumActive());
+  }
+
+  /**
+   * Tests whether work gets committed on return without auto-commit and
+   * rolled back if an error occurred.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testRollback() throws Exception {
+    ConnectionPool	pool;
+    Connection		conn;
+    Statement		stmt;
+
+    pool = new ConnectionPool("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "", new BasePassword(), false);
+    pool.setMaxSize(1);
+    try {
+      // successful operation
+      conn = pool.borrow();
+      stmt = conn.createStatement();
+      stmt.executeUpdate("INSERT INTO data VALUES (1, 'ok')");
+      stmt.close();
+      conn.close();
+      assertEquals("# rows differs", 1, count());
+
+      // failed operation
+      conn = pool.borrow();
+      stmt = conn.createStatement();
+      stmt.executeUpdate("INSERT INTO data VALUES (2, 'partial')");
+      try {
+	stmt.executeUpdate("INSERT INTO missing VALUES (3, 'fails')");
+	fail("Should have failed");
+      }
+      catch (SQLException e) {
+	// expected
+      }
+      stmt.close();
+      conn.close();
+      assertEquals("# rows differs", 1, count());
+
+      // explicitly flagged
+      conn = pool.borrow();
+      stmt = conn.createStatement();
+      stmt.executeUpdate("INSERT INTO data VALUES (4, 'flagged')");
+      stmt.close();
+      assertTrue("not pooled", pool.markFailed(conn));
+      conn.close();
+      assertEquals("# rows differs", 1, count());
+
+      // connection still usable
+      conn = pool.borrow();
+      stmt = conn.createStatement();
+      stmt.executeUpdate("INSERT INTO data VALUES (5, 'ok')");
+      stmt.close();
+      conn.close();
+      assertEquals("# rows differs", 2, count());
+      assertEquals("# open differs", 1, pool.getNumOpen());
+    }
+    finally {
+      pool.close();
+    }
+  }
+
+  /**
+   * For classes (with default constructor) that are serializable, are tested
+   * whether they are truly serializable.
+   */
+  @Override
+  public void testSerializable() {
+    // pool is never serialized (transient); serializable only due to superclass LoggingObject
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ConnectionPoolTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,512 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractTiledBufferedImageTransformer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image.transformer;
+
+import adams.core.Performance;
+import adams.core.QuickInfoHelper;
+import adams.core.ThreadLimiter;
+import adams.data.image.BufferedImageHelper;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ancestor for transformers that work directly on the pixel arrays of the
+ * image rasters rather than going through {@link BufferedImage#getRGB(int, int)}
+ * and {@link BufferedImage#setRGB(int, int, int)} for each pixel.
+ * <br>
+ * The image gets split into tiles, which get processed by a
+ * {@link TileKernel} using a fork-join pool. Kernels must only write to the
+ * pixels of their tile. The pool gets created on first use and is kept
+ * till the options get changed or {@link #cleanUp()} gets called.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractTiledBufferedImageTransformer
+  extends AbstractBufferedImageTransformer
+  implements ThreadLimiter {
+
+  private static final long serialVersionUID = -3325818383014617496L;
+
+  /**
+   * Interface for kernels that process a single tile.
+   */
+  public interface TileKernel {
+
+    /**
+     * Processes the tile.
+     *
+     * @param startX	the first column (incl)
+     * @param startY	the first row (incl)
+     * @param endX	the last column (excl)
+     * @param endY	the last row (excl)
+     */
+    public void process(int startX, int startY, int endX, int endY);
+  }
+
+  /**
+   * Processes a range of tiles, splitting it in half till only a single
+   * tile is left.
+   */
+  public static class TileTask
+    extends RecursiveAction {
+
+    private static final long serialVersionUID = 4637009386245404154L;
+
+    /** the kernel to apply. */
+    protected TileKernel m_Kernel;
+
+    /** the tiles (startX, startY, endX, endY). */
+    protected List<int[]> m_Tiles;
+
+    /** the first tile (incl). */
+    protected int m_From;
+
+    /** the last tile (excl). */
+    protected int m_To;
+
+    /**
+     * Initializes the task.
+     *
+     * @param kernel	the kernel to apply
+     * @param tiles	the tiles
+     * @param from	the first tile (incl)
+     * @param to	the last tile (excl)
+     */
+    public TileTask(TileKernel kernel, List<int[]> tiles, int from, int to) {
+      m_Kernel = kernel;
+      m_Tiles  = tiles;
+      m_From   = from;
+      m_To     = to;
+    }
+
+    /**
+     * Processes the tiles.
+     */
+    @Override
+    protected void compute() {
+      int[]	tile;
+      int	mid;
+
+      if (m_To - m_From == 1) {
+	tile = m_Tiles.get(m_From);
+	m_Kernel.process(tile[0], tile[1], tile[2], tile[3]);
+      }
+      else {
+	mid = (m_From + m_To) / 2;
+	invokeAll(
+	  new TileTask(m_Kernel, m_Tiles, m_From, mid),
+	  new TileTask(m_Kernel, m_Tiles, mid, m_To));
+      }
+    }
+  }
+
+  /** the sRGB intensities of the TYPE_BYTE_GRAY samples. */
+  protected static int[] m_GrayIntensities;
+
+  /** the width/height of the tiles. */
+  protected int m_TileSize;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /** the thread pool in use. */
+  protected transient ForkJoinPool m_Pool;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "tile-size", "tileSize",
+      256, 1, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
+  }
+
+  /**
+   * Sets the width/height of the tiles.
+   *
+   * @param value	the size
+   */
+  public void setTileSize(int value) {
+    if (getOptionManager().isValid("tileSize", value)) {
+      m_TileSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the width/height of the tiles.
+   *
+   * @return		the size
+   */
+  public int getTileSize() {
+    return m_TileSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String tileSizeTipText() {
+    return "The width/height of the tiles that get processed in parallel.";
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value 	the number of threads
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return 		the number of threads
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    shutdownPool();
+  }
+
+  /**
+   * Returns the thread pool, creating it if necessary.
+   *
+   * @return		the pool
+   */
+  protected synchronized ForkJoinPool getPool() {
+    if (m_Pool == null)
+      m_Pool = new ForkJoinPool(Performance.determineNumThreads(m_NumThreads));
+    return m_Pool;
+  }
+
+  /**
+   * Shuts down the thread pool, if any.
+   */
+  protected synchronized void shutdownPool() {
+    if (m_Pool != null) {
+      m_Pool.shutdown();
+      m_Pool = null;
+    }
+  }
+
+  /**
+   * Returns a quick info about the object, which can be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    return QuickInfoHelper.toString(this, "numThreads", Performance.getNumThreadsQuickInfo(m_NumThreads));
+  }
+
+  /**
+   * Splits the region into tiles and applies the kernel to them.
+   *
+   * @param startX	the first column (incl)
+   * @param startY	the first row (incl)
+   * @param endX	the last column (excl)
+   * @param endY	the last row (excl)
+   * @param kernel	the kernel to apply
+   */
+  protected void processTiles(int startX, int startY, int endX, int endY, TileKernel kernel) {
+    List<int[]>		tiles;
+    int			x;
+    int			y;
+    int			numThreads;
+
+    tiles = new ArrayList<>();
+    for (y = startY; y < endY; y += m_TileSize) {
+      for (x = startX; x < endX; x += m_TileSize)
+	tiles.add(new int[]{x, y, Math.min(endX, x + m_TileSize), Math.min(endY, y + m_TileSize)});
+    }
+    if (tiles.isEmpty())
+      return;
+
+    numThreads = Math.min(tiles.size(), Performance.determineNumThreads(m_NumThreads));
+    if (numThreads == 1) {
+      for (int[] tile: tiles)
+	kernel.process(tile[0], tile[1], tile[2], tile[3]);
+      return;
+    }
+
+    getPool().invoke(new TileTask(kernel, tiles, 0, tiles.size()));
+  }
+
+  /**
+   * Splits the image into tiles and applies the kernel to them.
+   *
+   * @param width	the width of the image
+   * @param height	the height of the image
+   * @param kernel	the kernel to apply
+   */
+  protected void processTiles(int width, int height, TileKernel kernel) {
+    processTiles(0, 0, width, height, kernel);
+  }
+
+  /**
+   * Checks whether the raster of the image is a plain array with the pixels
+   * stored row by row, without padding, i.e., not a sub-image.
+   *
+   * @param img			the image to check
+   * @param elementsPerPixel	the number of array elements per pixel
+   * @return			true if the array can be accessed directly
+   */
+  protected static boolean isPlainRaster(BufferedImage img, int elementsPerPixel) {
+    WritableRaster	raster;
+    DataBuffer		buffer;
+
+    raster = img.getRaster();
+    buffer = raster.getDataBuffer();
+
+    return (raster.getParent() == null)
+      && (raster.getSampleModelTranslateX() == 0)
+      && (raster.getSampleModelTranslateY() == 0)
+      && (buffer.getNumBanks() == 1)
+      && (buffer.getOffset() == 0)
+      && (buffer.getSize() == img.getWidth() * img.getHeight() * elementsPerPixel);
+  }
+
+  /**
+   * Converts the image to {@link BufferedImage#TYPE_BYTE_GRAY}, ensuring that
+   * its pixels can be accessed directly via the byte array of the raster.
+   *
+   * @param img		the image to convert
+   * @return		the gray image, can be the same instance if already suitable
+   * @see		#isPlainRaster(BufferedImage, int)
+   */
+  protected static BufferedImage toPlainGray(BufferedImage img) {
+    BufferedImage	result;
+
+    result = BufferedImageHelper.convert(img, BufferedImage.TYPE_BYTE_GRAY);
+    if (!isPlainRaster(result, 1)) {
+      img    = result;
+      result = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+      result.setData(img.getRaster());
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the pixels as ARGB values, as returned by
+   * {@link BufferedImage#getRGB(int, int)}. The common types are read
+   * directly from the raster's data buffer.
+   *
+   * @param img		the image to get the pixels from
+   * @return		the pixels (row-wise), a new array
+   */
+  protected static int[] readARGB(BufferedImage img) {
+    int[]	result;
+    int[]	ints;
+    byte[]	bytes;
+    int		i;
+    int		n;
+
+    result = new int[img.getWidth() * img.getHeight()];
+    switch (img.getType()) {
+      case BufferedImage.TYPE_INT_ARGB:
+	if (isPlainRaster(img, 1)) {
+	  ints = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+	  System.arraycopy(ints, 0, result, 0, result.length);
+	  return result;
+	}
+	break;
+
+      case BufferedImage.TYPE_INT_RGB:
+	if (isPlainRaster(img, 1)) {
+	  ints = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0; i < result.length; i++)
+	    result[i] = 0xFF000000 | ints[i];
+	  return result;
+	}
+	break;
+
+      case BufferedImage.TYPE_3BYTE_BGR:
+	if (isPlainRaster(img, 3)) {
+	  bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0, n = 0; i < result.length; i++, n += 3)
+	    result[i] = 0xFF000000 | ((bytes[n + 2] & 0xFF) << 16) | ((bytes[n + 1] & 0xFF) << 8) | (bytes[n] & 0xFF);
+	  return result;
+	}
+	break;
+
+      case BufferedImage.TYPE_4BYTE_ABGR:
+	if (isPlainRaster(img, 4)) {
+	  bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0, n = 0; i < result.length; i++, n += 4)
+	    result[i] = ((bytes[n] & 0xFF) << 24) | ((bytes[n + 3] & 0xFF) << 16) | ((bytes[n + 2] & 0xFF) << 8) | (bytes[n + 1] & 0xFF);
+	  return result;
+	}
+	break;
+    }
+
+    // color model conversion
+    img.getRGB(0, 0, img.getWidth(), img.getHeight(), result, 0, img.getWidth());
+
+    return result;
+  }
+
+  /**
+   * Writes the ARGB values back to the image, with the same effect as
+   * {@link BufferedImage#setRGB(int, int, int)}. The common types are written
+   * directly to the raster's data buffer. For all other types, only pixels
+   * that differ from the current ones get set, to avoid lossy color model
+   * round trips.
+   *
+   * @param img		the image to update
+   * @param argb	the pixels (row-wise)
+   */
+  protected static void writeARGB(BufferedImage img, int[] argb) {
+    int[]	ints;
+    byte[]	bytes;
+    int		width;
+    int		x;
+    int		y;
+    int		i;
+    int		n;
+
+    switch (img.getType()) {
+      case BufferedImage.TYPE_INT_ARGB:
+	if (isPlainRaster(img, 1)) {
+	  ints = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+	  System.arraycopy(argb, 0, ints, 0, argb.length);
+	  return;
+	}
+	break;
+
+      case BufferedImage.TYPE_INT_RGB:
+	if (isPlainRaster(img, 1)) {
+	  ints = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0; i < argb.length; i++)
+	    ints[i] = argb[i] & 0x00FFFFFF;
+	  return;
+	}
+	break;
+
+      case BufferedImage.TYPE_3BYTE_BGR:
+	if (isPlainRaster(img, 3)) {
+	  bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0, n = 0; i < argb.length; i++, n += 3) {
+	    bytes[n]     = (byte) argb[i];
+	    bytes[n + 1] = (byte) (argb[i] >> 8);
+	    bytes[n + 2] = (byte) (argb[i] >> 16);
+	  }
+	  return;
+	}
+	break;
+
+      case BufferedImage.TYPE_4BYTE_ABGR:
+	if (isPlainRaster(img, 4)) {
+	  bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+	  for (i = 0, n = 0; i < argb.length; i++, n += 4) {
+	    bytes[n]     = (byte) (argb[i] >> 24);
+	    bytes[n + 1] = (byte) argb[i];
+	    bytes[n + 2] = (byte) (argb[i] >> 8);
+	    bytes[n + 3] = (byte) (argb[i] >> 16);
+	  }
+	  return;
+	}
+	break;
+    }
+
+    // color model conversion
+    width = img.getWidth();
+    for (y = 0; y < img.getHeight(); y++) {
+      for (x = 0; x < width; x++) {
+	i = y * width + x;
+	if (img.getRGB(x, y) != argb[i])
+	  img.setRGB(x, y, argb[i]);
+      }
+    }
+  }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   * <br><br>
+   * Shuts down the thread pool.
+   */
+  @Override
+  public void cleanUp() {
+    shutdownPool();
+    super.cleanUp();
+  }
+
+  /**
+   * Returns the sRGB intensity for each sample value of a
+   * {@link BufferedImage#TYPE_BYTE_GRAY} image, i.e., the intensity that
+   * {@link BufferedImage#getRGB(int, int)} returns for the red, green and blue
+   * channel (linear gray gets gamma corrected).
+   *
+   * @return		the intensities (index: sample value)
+   */
+  protected static synchronized int[] getGrayIntensities() {
+    BufferedImage	img;
+    int			i;
+
+    if (m_GrayIntensities == null) {
+      img = new BufferedImage(256, 1, BufferedImage.TYPE_BYTE_GRAY);
+      for (i = 0; i < 256; i++)
+	img.getRaster().setSample(i, 0, 0, i);
+      m_GrayIntensities = new int[256];
+      for (i = 0; i < 256; i++)
+	m_GrayIntensities[i] = img.getRGB(i, 0) & 0xFF;
+    }
+
+    return m_GrayIntensities;
+  }
+}
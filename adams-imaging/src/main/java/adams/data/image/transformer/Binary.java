@@ -15,16 +15,17 @@
 
 /*
  * Binary.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.image.transformer;
 
-import java.awt.image.BufferedImage;
-
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.data.image.BufferedImageContainer;
-import adams.data.image.BufferedImageHelper;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 
 /**
  <!-- globalinfo-start -->
@@ -46,13 +47,27 @@ import adams.data.image.BufferedImageHelper;
  * &nbsp;&nbsp;&nbsp;maximum: 255
  * </pre>
  * 
+ * <pre>-tile-size &lt;int&gt; (property: tileSize)
+ * &nbsp;&nbsp;&nbsp;The width/height of the tiles that get processed in parallel.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used)
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision: 7706 $
  */
 public class Binary
-  extends AbstractBufferedImageTransformer {
+  extends AbstractTiledBufferedImageTransformer {
 
   /** for serialization. */
   private static final long serialVersionUID = 2959486760492196174L;
@@ -125,7 +140,12 @@ public class Binary
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "threshold", m_Threshold, "threshold: ");
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "threshold", m_Threshold, "threshold: ");
+    result += QuickInfoHelper.toString(this, "numThreads", Performance.getNumThreadsQuickInfo(m_NumThreads), ", ");
+
+    return result;
   }
   
   /**
@@ -137,32 +157,30 @@ public class Binary
   @Override
   protected BufferedImageContainer[] doTransform(BufferedImageContainer img) {
     BufferedImageContainer[]	result;
-    int 			width;
-    int 			height;
     BufferedImage		image;
-    int				x;
-    int				y;
-    int[]			channels;
-    int				i;
+    final int 			width;
+    final byte[]		pixels;
+    final int[]			intensities;
+    final int			threshold;
 
-    width     = img.getWidth();
-    height    = img.getHeight();
     result    = new BufferedImageContainer[1];
     result[0] = (BufferedImageContainer) img.getHeader();
-    image     = BufferedImageHelper.convert(img.getImage(), BufferedImage.TYPE_BYTE_GRAY);
-
-    for (y = 0; y < height; y++) {
-      for (x = 0; x < width; x++) {
-	channels = BufferedImageHelper.split(image.getRGB(x, y));
-	for (i = 0; i <= 3; i++) {
-	  if (channels[i] < m_Threshold)
-	    channels[i] = 0;
-	  else
-	    channels[i] = 255;
-	}
-	image.setRGB(x, y, BufferedImageHelper.combine(channels));
+    image     = toPlainGray(img.getImage());
+
+    width       = image.getWidth();
+    pixels      = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    intensities = getGrayIntensities();
+    threshold   = m_Threshold;
+    processTiles(width, image.getHeight(), (startX, startY, endX, endY) -> {
+      int x;
+      int y;
+      int i;
+      for (y = startY; y < endY; y++) {
+	i = y * width + startX;
+	for (x = startX; x < endX; x++, i++)
+	  pixels[i] = (intensities[pixels[i] & 0xFF] < threshold) ? 0 : (byte) 255;
       }
-    }
+    });
 
     result[0].setImage(image);
 
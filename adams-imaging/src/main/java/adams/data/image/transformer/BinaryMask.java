@@ -15,17 +15,19 @@
 
 /*
  * BinaryMask.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.image.transformer;
 
-import java.awt.Color;
-import java.awt.image.BufferedImage;
-
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.data.image.BufferedImageContainer;
 
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
 /**
  <!-- globalinfo-start -->
  * Generates a binary image from the input and uses this mask to determine which pixels get replaced by the specified replacement color.
@@ -56,13 +58,27 @@ import adams.data.image.BufferedImageContainer;
  * &nbsp;&nbsp;&nbsp;default: #ffffff
  * </pre>
  * 
+ * <pre>-tile-size &lt;int&gt; (property: tileSize)
+ * &nbsp;&nbsp;&nbsp;The width/height of the tiles that get processed in parallel.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used)
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision: 7706 $
  */
 public class BinaryMask
-  extends AbstractBufferedImageTransformer {
+  extends AbstractTiledBufferedImageTransformer {
 
   /** for serialization. */
   private static final long serialVersionUID = 2959486760492196174L;
@@ -226,6 +242,7 @@ public class BinaryMask
     result  = QuickInfoHelper.toString(this, "threshold", m_Threshold, "threshold: ");
     result += QuickInfoHelper.toString(this, "replacementType", m_ReplacementType, ", type: ");
     result += QuickInfoHelper.toString(this, "replacementColor", m_ReplacementColor, ", color: ");
+    result += QuickInfoHelper.toString(this, "numThreads", Performance.getNumThreadsQuickInfo(m_NumThreads), ", ");
     
     return result;
   }
@@ -239,45 +256,49 @@ public class BinaryMask
   @Override
   protected BufferedImageContainer[] doTransform(BufferedImageContainer img) {
     BufferedImageContainer[]	result;
-    Binary			binary;
-    BufferedImageContainer[]	mask;
     BufferedImage		image;
-    BufferedImage		bimage;
-    int				x;
-    int				y;
-    int				width;
-    int				height;
-    int				color;
-    int				current;
+    final int			width;
+    final byte[]		gray;
+    final int[]			pixels;
+    final int[]			intensities;
+    final int			threshold;
+    final int			color;
+    final boolean		white;
 
-    // generate binary mask
-    binary = new Binary();
-    binary.setThreshold(m_Threshold);
-    mask = binary.transform(img);
-    bimage = mask[0].getImage();
+    switch (m_ReplacementType) {
+      case REPLACE_WHITE_PIXELS:
+	white = true;
+	break;
+      case REPLACE_BLACK_PIXELS:
+	white = false;
+	break;
+      default:
+	throw new IllegalStateException("Unhandled replacement type: " + m_ReplacementType);
+    }
+
+    // binary mask: white if sRGB intensity of gray pixel at or above threshold
+    image       = img.getImage();
+    width       = image.getWidth();
+    gray        = ((DataBufferByte) toPlainGray(image).getRaster().getDataBuffer()).getData();
+    intensities = getGrayIntensities();
+    threshold   = m_Threshold;
 
     // replace pixels
-    image  = img.getImage();
-    width  = image.getWidth();
-    height = image.getHeight();
+    pixels = readARGB(image);
     color  = m_ReplacementColor.getRGB();
-    for (y = 0; y < height; y++) {
-      for (x = 0; x < width; x++) {
-	current = bimage.getRGB(x, y) & 0x00FFFFFF;
-	switch (m_ReplacementType) {
-	  case REPLACE_WHITE_PIXELS:
-	    if (current > 0)
-	      image.setRGB(x, y, color);
-	    break;
-	  case REPLACE_BLACK_PIXELS:
-	    if (current == 0)
-	      image.setRGB(x, y, color);
-	    break;
-	  default:
-	    throw new IllegalStateException("Unhandled replacement type: " + m_ReplacementType);
+    processTiles(width, image.getHeight(), (startX, startY, endX, endY) -> {
+      int x;
+      int y;
+      int i;
+      for (y = startY; y < endY; y++) {
+	i = y * width + startX;
+	for (x = startX; x < endX; x++, i++) {
+	  if ((intensities[gray[i] & 0xFF] >= threshold) == white)
+	    pixels[i] = color;
 	}
       }
-    }
+    });
+    writeARGB(image, pixels);
     
     // create output
     result = new BufferedImageContainer[1];
@@ -15,16 +15,18 @@
 
 /*
  * Grayscale.java
- * Copyright (C) 2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.image.transformer;
 
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.data.image.BufferedImageContainer;
 import adams.data.image.luminance.AbstractLuminanceParameters;
 import adams.data.image.luminance.BT601;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 /**
  <!-- globalinfo-start -->
@@ -43,12 +45,26 @@ import java.awt.image.BufferedImage;
  * &nbsp;&nbsp;&nbsp;default: adams.data.image.luminance.BT601
  * </pre>
  *
+ * <pre>-tile-size &lt;int&gt; (property: tileSize)
+ * &nbsp;&nbsp;&nbsp;The width/height of the tiles that get processed in parallel.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used)
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  */
 public class Grayscale
-  extends AbstractBufferedImageTransformer {
+  extends AbstractTiledBufferedImageTransformer {
 
   /** for serialization. */
   private static final long serialVersionUID = 8400999643470579756L;
@@ -114,7 +130,12 @@ public class Grayscale
    */
   @Override
   public String getQuickInfo() {
-    return QuickInfoHelper.toString(this, "luminance", m_Luminance, "luminance: ");
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "luminance", m_Luminance, "luminance: ");
+    result += QuickInfoHelper.toString(this, "numThreads", Performance.getNumThreadsQuickInfo(m_NumThreads), ", ");
+
+    return result;
   }
 
   /**
@@ -128,25 +149,35 @@ public class Grayscale
     BufferedImageContainer[]	result;
     BufferedImage 		orig;
     BufferedImage 		gray;
-    int				x;
-    int				y;
-    int 			rgbOrig;
-    int				rgbGray;
-    double[]			luminance;
+    final int			width;
+    final int[]			src;
+    final int[]			dst;
+    final double[]		luminance;
 
     result    = new BufferedImageContainer[1];
     result[0] = (BufferedImageContainer) img.getHeader();
     luminance = m_Luminance.getParameters();
     orig      = img.toBufferedImage();
-    gray      = new BufferedImage(orig.getWidth(), orig.getHeight(), BufferedImage.TYPE_INT_RGB);
-    result[0].setImage(gray);
-    for (x = 0; x < orig.getWidth(); x++) {
-      for (y = 0; y < orig.getHeight(); y++) {
-        rgbOrig = orig.getRGB(x, y);
-        rgbGray = (int)(((rgbOrig & 0xFF0000) >>> 16) * luminance[0] + ((rgbOrig & 0xFF00) >>> 8) * luminance[1] + (rgbOrig & 0xFF) * luminance[2]);
-	gray.setRGB(x, y, (rgbGray << 16) + (rgbGray << 8) + rgbGray);
+    width     = orig.getWidth();
+    gray      = new BufferedImage(width, orig.getHeight(), BufferedImage.TYPE_INT_RGB);
+    src       = readARGB(orig);
+    dst       = ((DataBufferInt) gray.getRaster().getDataBuffer()).getData();
+    processTiles(width, orig.getHeight(), (startX, startY, endX, endY) -> {
+      int x;
+      int y;
+      int i;
+      int rgbOrig;
+      int rgbGray;
+      for (y = startY; y < endY; y++) {
+	i = y * width + startX;
+	for (x = startX; x < endX; x++, i++) {
+	  rgbOrig = src[i];
+	  rgbGray = (int)(((rgbOrig & 0xFF0000) >>> 16) * luminance[0] + ((rgbOrig & 0xFF00) >>> 8) * luminance[1] + (rgbOrig & 0xFF) * luminance[2]);
+	  dst[i]  = ((rgbGray << 16) + (rgbGray << 8) + rgbGray) & 0x00FFFFFF;
+	}
       }
-    }
+    });
+    result[0].setImage(gray);
 
     return result;
   }
@@ -15,25 +15,88 @@
 
 /**
  * LocalMedianFilter.java
- * Copyright (C) 2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.image.transformer;
 
 import adams.data.image.BufferedImageContainer;
-import adams.data.image.BufferedImageHelper;
 
 import java.awt.image.BufferedImage;
-import java.util.Arrays;
 
 /**
- * TODO: what class does.
+ <!-- globalinfo-start -->
+ * Replaces each pixel with the median of its 3x3 neighborhood, computed for each channel separately. The pixels on the border of the image remain unchanged.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-tile-size &lt;int&gt; (property: tileSize)
+ * &nbsp;&nbsp;&nbsp;The width/height of the tiles that get processed in parallel.
+ * &nbsp;&nbsp;&nbsp;default: 256
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used)
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ *
+ <!-- options-end -->
  *
  * @author sjb90
- * @version $Revision$
  */
-public class LocalMedianFilter extends AbstractBufferedImageTransformer {
-  final int K = 4;
+public class LocalMedianFilter
+  extends AbstractTiledBufferedImageTransformer {
+
+  private static final long serialVersionUID = 6291727612845102164L;
+
+  /** the index of the median in the sorted neighborhood. */
+  public final static int K = 4;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Replaces each pixel with the median of its 3x3 neighborhood, computed "
+	+ "for each channel separately. The pixels on the border of the image "
+	+ "remain unchanged.";
+  }
+
+  /**
+   * Returns the median of the neighborhood values.
+   *
+   * @param values	the values, get sorted
+   * @return		the median
+   */
+  protected static int median(int[] values) {
+    int		i;
+    int		n;
+    int		value;
+
+    // insertion sort, faster than Arrays.sort for 9 values
+    for (i = 1; i < values.length; i++) {
+      value = values[i];
+      for (n = i - 1; (n >= 0) && (values[n] > value); n--)
+	values[n + 1] = values[n];
+      values[n + 1] = value;
+    }
+
+    return values[K];
+  }
+
   /**
    * Performs the actual transforming of the image.
    *
@@ -42,61 +105,49 @@ public class LocalMedianFilter extends AbstractBufferedImageTransformer {
    */
   @Override
   protected BufferedImageContainer[] doTransform(BufferedImageContainer img) {
-    BufferedImageContainer[] result = new BufferedImageContainer[1];
+    BufferedImageContainer[] 	result;
+    BufferedImage 		image;
+    final int 			width;
+    final int[]			src;
+    final int[]			dst;
 
-    int 	height 	= img.getHeight();
-    int 	width 	= img.getWidth();
-    int[] 	pixels 	= new int[2*K+1];
-    BufferedImage image = img.getImage();
-    BufferedImage copy  = BufferedImageHelper.deepCopy(image);
-
-    for (int h = 1; h < height - 1; h++) {
-      for (int w = 1; w < width - 1; w++) {
-	int k = 0;
-	for (int x = -1; x < 2; x++) {
-	  for (int y = -1; y < 2; y++) {
-	    pixels[k] = copy.getRGB(w+x,h+y);
-	    k++;
+    result = new BufferedImageContainer[1];
+    image  = img.getImage();
+    width  = image.getWidth();
+    src    = readARGB(image);
+    dst    = src.clone();
+    processTiles(1, 1, width - 1, image.getHeight() - 1, (startX, startY, endX, endY) -> {
+      int[] r = new int[2*K+1];
+      int[] g = new int[2*K+1];
+      int[] b = new int[2*K+1];
+      int[] a = new int[2*K+1];
+      int x;
+      int y;
+      int dx;
+      int dy;
+      int k;
+      int pixel;
+      for (y = startY; y < endY; y++) {
+	for (x = startX; x < endX; x++) {
+	  k = 0;
+	  for (dy = -1; dy < 2; dy++) {
+	    for (dx = -1; dx < 2; dx++) {
+	      pixel = src[(y + dy) * width + x + dx];
+	      r[k]  = (pixel >> 16) & 0xFF;
+	      g[k]  = (pixel >> 8) & 0xFF;
+	      b[k]  = pixel & 0xFF;
+	      a[k]  = (pixel >> 24) & 0xFF;
+	      k++;
+	    }
 	  }
+	  dst[y * width + x] = (median(a) << 24) | (median(r) << 16) | (median(g) << 8) | median(b);
 	}
-        image.setRGB(w,h,getMedian(pixels));
       }
-    }
+    });
+    writeARGB(image, dst);
+
     result[0] = new BufferedImageContainer();
     result[0].setImage(image);
     return result;
   }
-
-  private int getMedian(int[] pixels) {
-    int result;
-    int[] r = new int[9];
-    int[] g = new int[9];
-    int[] b = new int[9];
-
-    for (int i = 0; i < pixels.length; i++) {
-      int[] channels = BufferedImageHelper.split(pixels[i]);
-      r[i] = channels[0];
-      g[i] = channels[1];
-      b[i] = channels[2];
-    }
-    Arrays.sort(r);
-    Arrays.sort(g);
-    Arrays.sort(b);
-    int[] median = new int[4];
-    median[0] = r[K];
-    median[1] = g[K];
-    median[2] = b[K];
-    result = BufferedImageHelper.combine(median);
-    return result;
-  }
-
-  /**
-   * Returns a string describing the object.
-   *
-   * @return a description suitable for displaying in the gui
-   */
-  @Override
-  public String globalInfo() {
-    return null;
-  }
 }
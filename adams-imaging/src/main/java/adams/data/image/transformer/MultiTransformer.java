@@ -15,7 +15,7 @@
 
 /*
  * MultiTransformer.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.image.transformer;
@@ -138,4 +138,16 @@ public class MultiTransformer
     
     return result.toArray(new BufferedImageContainer[result.size()]);
   }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   * <br><br>
+   * Cleans up the sub-transformers.
+   */
+  @Override
+  public void cleanUp() {
+    for (AbstractBufferedImageTransformer transformer: m_Transformers)
+      transformer.cleanUp();
+    super.cleanUp();
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * ObjectsInPolygon.java
- * Copyright (C) 2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2024-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.objectfinder;
@@ -31,6 +31,7 @@ import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 
 import java.awt.Polygon;
+import java.awt.Rectangle;
 
 /**
  <!-- globalinfo-start -->
@@ -454,6 +455,25 @@ public class ObjectsInPolygon
     return result;
   }
 
+  /**
+   * Checks whether any of the points of the inner polygon can fall inside the
+   * outer polygon, based on the bounds of the two polygons. Cheaper than
+   * checking each point against the outer polygon.
+   *
+   * @param outer	the bounds of the outer polygon
+   * @param inner	the inner polygon
+   * @return		false if no point can be inside
+   * @see		Polygon#contains(int, int)
+   */
+  protected boolean canBeInside(Rectangle outer, Polygon inner) {
+    Rectangle	bounds;
+
+    bounds = inner.getBounds();
+    // Polygon.contains excludes the right/bottom border of its bounds
+    return (bounds.x + bounds.width >= outer.x) && (bounds.x < outer.x + outer.width)
+      && (bounds.y + bounds.height >= outer.y) && (bounds.y < outer.y + outer.height);
+  }
+
   /**
    * Performs the actual finding of the objects in the list.
    *
@@ -467,8 +487,10 @@ public class ObjectsInPolygon
     String		typeKey;
     int			inside;
     Polygon		inner;
+    Rectangle		outer;
 
     result = new TIntArrayList();
+    outer  = m_Polygon.getBounds();
 
     if (m_TypeSuffix.startsWith("."))
       typeKey = m_TypeSuffix.substring(1);
@@ -491,7 +513,10 @@ public class ObjectsInPolygon
 	  inner = PolygonUtils.toPolygon(obj.getRectangle());
 	if (!m_OneBased)
 	  inner = PolygonUtils.inc(inner, 1, 1);
-	inside = PolygonUtils.inside(m_Polygon, inner);
+	if (canBeInside(outer, inner))
+	  inside = PolygonUtils.inside(m_Polygon, inner);
+	else
+	  inside = 0;
 	if (inside == 0)
 	  add = false;
 	if ((inside < inner.npoints) && !m_Partial)
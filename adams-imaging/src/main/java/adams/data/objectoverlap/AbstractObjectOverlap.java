@@ -15,18 +15,31 @@
 
 /*
  * AbstractObjectOverlap.java
- * Copyright (C) 2019-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.objectoverlap;
 
+import adams.core.Performance;
+import adams.core.QuickInfoHelper;
+import adams.core.ThreadLimiter;
 import adams.core.base.BaseString;
 import adams.core.option.AbstractOptionHandler;
 import adams.flow.transformer.locateobjects.LocatedObject;
 import adams.flow.transformer.locateobjects.LocatedObjects;
+import adams.flow.transformer.locateobjects.LocatedObjectsIndex;
+import com.github.fracpete.javautils.struct.Struct2;
+import gnu.trove.list.array.TIntArrayList;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleBiFunction;
 
 /**
  * Ancestor for schemes that calculate image overlaps.
@@ -35,10 +48,13 @@ import java.util.Map;
  */
 public abstract class AbstractObjectOverlap
     extends AbstractOptionHandler
-    implements ObjectOverlap {
+    implements ObjectOverlap, ThreadLimiter {
 
   private static final long serialVersionUID = -6700493470621873334L;
 
+  /** the minimum number of annotations before scores get calculated in parallel. */
+  public final static int MIN_PARALLEL_SIZE = 100;
+
   /** whether to skip identical objects, i.e., not count them as overlaps. */
   protected boolean m_ExcludeIdentical;
 
@@ -48,6 +64,9 @@ public abstract class AbstractObjectOverlap
   /** the meta-data keys to copy. */
   protected BaseString[] m_MetaDataKeys;
 
+  /** the number of threads to use for calculating the scores. */
+  protected int m_NumThreads;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -66,6 +85,10 @@ public abstract class AbstractObjectOverlap
     m_OptionManager.add(
 	"meta-data-key", "metaDataKeys",
 	new BaseString[0]);
+
+    m_OptionManager.add(
+	"num-threads", "numThreads",
+	0);
   }
 
   /**
@@ -158,6 +181,35 @@ public abstract class AbstractObjectOverlap
     return "The keys of the meta-data values to copy across.";
   }
 
+  /**
+   * Sets the number of threads to use for calculating the scores.
+   *
+   * @param value 	the number of threads
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for calculating the scores.
+   *
+   * @return 		the number of threads
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
   /**
    * Returns a quick info about the object, which can be displayed in the GUI.
    * <br>
@@ -170,6 +222,15 @@ public abstract class AbstractObjectOverlap
     return null;
   }
 
+  /**
+   * Returns the quick info for the number of threads.
+   *
+   * @return		the quick info
+   */
+  protected String getNumThreadsQuickInfo() {
+    return QuickInfoHelper.toString(this, "numThreads", Performance.getNumThreadsQuickInfo(m_NumThreads), ", ");
+  }
+
   /**
    * Computes the overlapping objects between the annotations and the predictions.
    *
@@ -209,6 +270,97 @@ public abstract class AbstractObjectOverlap
     matches.get(thisObj).put(otherObj, score);
   }
 
+  /**
+   * Calculates the scores between each annotation and its candidate predictions.
+   * When pruning, only predictions whose envelopes overlap the annotation are
+   * candidates (located via a {@link LocatedObjectsIndex}), i.e., this is only
+   * valid if objects that don't overlap cannot reach the minimum score.
+   * Otherwise all predictions are candidates. Identical objects are skipped if
+   * identical objects are to be excluded. Large sets of annotations get
+   * processed in parallel.
+   *
+   * @param annotations the annotations (ground truth)
+   * @param predictions the predictions to compare with
+   * @param scorer	calculates the score between annotation and prediction, must be thread-safe
+   * @param prune	whether to only consider overlapping predictions as candidates
+   * @return		per annotation, the indices of the candidate predictions
+   * 			(ascending) and the associated scores
+   */
+  protected Struct2<int[][],double[][]> calculateScores(final LocatedObjects annotations, final LocatedObjects predictions, final ToDoubleBiFunction<LocatedObject,LocatedObject> scorer, boolean prune) {
+    final int[][]		indices;
+    final double[][]		scores;
+    final LocatedObjectsIndex	index;
+    final int[]			all;
+    IntConsumer			task;
+    int				numThreads;
+    int				chunkSize;
+    int				i;
+    ForkJoinPool		pool;
+    List<Callable<Object>>	jobs;
+
+    indices = new int[annotations.size()][];
+    scores  = new double[annotations.size()][];
+    if (prune) {
+      index = new LocatedObjectsIndex(predictions);
+      all   = null;
+    }
+    else {
+      index = null;
+      all   = new int[predictions.size()];
+      for (i = 0; i < all.length; i++)
+	all[i] = i;
+    }
+
+    task = (n) -> {
+      LocatedObject thisObj = annotations.get(n);
+      int[] candidates = (index == null) ? all : index.query(thisObj);
+      if (m_ExcludeIdentical) {
+	TIntArrayList list = new TIntArrayList(candidates.length);
+	for (int candidate : candidates) {
+	  if (!thisObj.equals(predictions.get(candidate)))
+	    list.add(candidate);
+	}
+	candidates = list.toArray();
+      }
+      indices[n] = candidates;
+      scores[n]  = new double[candidates.length];
+      for (int m = 0; m < candidates.length; m++)
+	scores[n][m] = scorer.applyAsDouble(thisObj, predictions.get(candidates[m]));
+    };
+
+    numThreads = Performance.determineNumThreads(m_NumThreads);
+    if ((numThreads == 1) || (annotations.size() < MIN_PARALLEL_SIZE)) {
+      for (i = 0; i < annotations.size(); i++)
+	task.accept(i);
+    }
+    else {
+      chunkSize = Math.max(1, annotations.size() / (numThreads * 4));
+      jobs      = new ArrayList<>();
+      for (i = 0; i < annotations.size(); i += chunkSize) {
+	final int from = i;
+	final int to   = Math.min(annotations.size(), i + chunkSize);
+	jobs.add(() -> {
+	  for (int n = from; n < to; n++)
+	    task.accept(n);
+	  return null;
+	});
+      }
+      pool = new ForkJoinPool(numThreads);
+      try {
+	for (Future<Object> future : pool.invokeAll(jobs))
+	  future.get();
+      }
+      catch (Exception e) {
+	throw new IllegalStateException("Failed to calculate scores!", e);
+      }
+      finally {
+	pool.shutdown();
+      }
+    }
+
+    return new Struct2<>(indices, scores);
+  }
+
   /**
    * Computes the overlapping objects between the annotations and the predictions.
    *
@@ -15,7 +15,7 @@
 
 /*
  * AreaRatio.java
- * Copyright (C) 2019-2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.objectoverlap;
@@ -282,6 +282,24 @@ public class AreaRatio
     result += QuickInfoHelper.toString(this, "useOtherObject", m_UseOtherObject, "use other obj", ", ");
     result += QuickInfoHelper.toString(this, "additionalObject", m_AdditionalObject, "additional obj", ", ");
     result += QuickInfoHelper.toString(this, "averageRatio", m_AverageRatio, "average ratio", ", ");
+    result += getNumThreadsQuickInfo();
+
+    return result;
+  }
+
+  /**
+   * Calculates the overlap ratio for the two objects.
+   *
+   * @param thisObj	first object
+   * @param otherObj	second object
+   * @return		the ratio
+   */
+  protected double calculateRatio(LocatedObject thisObj, LocatedObject otherObj) {
+    double	result;
+
+    result = thisObj.overlapRatio(otherObj);
+    if (m_AverageRatio)
+      result = (result + otherObj.overlapRatio(thisObj)) / 2;
 
     return result;
   }
@@ -303,8 +321,12 @@ public class AreaRatio
     LocatedObject 	actObj;
     LocatedObject	tmpObj;
     LocatedObject	otherObjectHighest;
+    LocatedObject	thisObj;
+    LocatedObject	otherObj;
+    Struct2<int[][],double[][]>	scores;
+    int			i;
+    int			n;
     double		ratio;
-    double		ratio2;
 
     result = new LocatedObjects();
     if (annotations.isEmpty()) {
@@ -312,7 +334,10 @@ public class AreaRatio
     }
     else {
       Set<LocatedObject> matchingObjects = new HashSet<>();
-      for (LocatedObject thisObj : annotations) {
+      // only overlapping predictions can score above 0
+      scores = calculateScores(annotations, predictions, this::calculateRatio, m_MinOverlapRatio > 0);
+      for (i = 0; i < annotations.size(); i++) {
+	thisObj = annotations.get(i);
         if (isLoggingEnabled()) {
           if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	    getLogger().fine("this: " + thisObj + " (" + thisObj.getMetaData() + ")");
@@ -328,14 +353,9 @@ public class AreaRatio
 	actObj = thisObj;
 	otherObjectHighest = null;
 	initMatch(matches, thisObj);
-	for (LocatedObject otherObj : predictions) {
-	  if (m_ExcludeIdentical && thisObj.equals(otherObj))
-	    continue;
-	  ratio = thisObj.overlapRatio(otherObj);
-	  if (m_AverageRatio) {
-	    ratio2 = otherObj.overlapRatio(thisObj);
-	    ratio = (ratio + ratio2) / 2;
-	  }
+	for (n = 0; n < scores.value1[i].length; n++) {
+	  otherObj = predictions.get(scores.value1[i][n]);
+	  ratio = scores.value2[i][n];
 	  if (isLoggingEnabled()) {
 	    if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	      getLogger().fine(" + other: " + otherObj + " (" + otherObj.getMetaData() + ")" + " -> ratio = " + ratio);
@@ -393,9 +413,9 @@ public class AreaRatio
       }
 
       if (m_AdditionalObject) {
-	for (LocatedObject otherObj : predictions) {
-	  if (!matchingObjects.contains(otherObj)) {
-	    otherObj = otherObj.getClone();
+	for (i = 0; i < predictions.size(); i++) {
+	  if (!matchingObjects.contains(predictions.get(i))) {
+	    otherObj = predictions.get(i).getClone();
 	    otherObj.getMetaData().put(ADDITIONAL_OBJ, true);
 	    result.add(otherObj);
 	  }
@@ -15,7 +15,7 @@
 
 /*
  * DiceCoefficient.java
- * Copyright (C) 2025 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2025-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.objectoverlap;
@@ -361,6 +361,7 @@ public class DiceCoefficient
     result += QuickInfoHelper.toString(this, "geometry", m_Geometry, ", geometry: ");
     if (m_Fallback)
       result += QuickInfoHelper.toString(this, "boundingBoxFallBackRatio", m_BoundingBoxFallbackRatio, ", bbox fallback ratio: ");
+    result += getNumThreadsQuickInfo();
 
     return result;
   }
@@ -441,6 +442,11 @@ public class DiceCoefficient
     LocatedObject 	actObj;
     LocatedObject	tmpObj;
     LocatedObject	otherObjectHighest;
+    LocatedObject	thisObj;
+    LocatedObject	otherObj;
+    Struct2<int[][],double[][]>	scores;
+    int			i;
+    int			n;
     double 		dice;
 
     if (isLoggingEnabled()) {
@@ -454,7 +460,10 @@ public class DiceCoefficient
     }
     else {
       Set<LocatedObject> matchingObjects = new HashSet<>();
-      for (LocatedObject thisObj : annotations) {
+      // only overlapping predictions can score above 0
+      scores = calculateScores(annotations, predictions, this::calculateDice, m_MinDice > 0);
+      for (i = 0; i < annotations.size(); i++) {
+	thisObj = annotations.get(i);
 	if (isLoggingEnabled()) {
 	  if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	    getLogger().fine("this: " + thisObj + " (" + thisObj.getMetaData() + ")");
@@ -470,10 +479,9 @@ public class DiceCoefficient
 	actObj = thisObj;
 	otherObjectHighest = null;
 	initMatch(matches, thisObj);
-	for (LocatedObject otherObj : predictions) {
-	  if (m_ExcludeIdentical && thisObj.equals(otherObj))
-	    continue;
-	  dice = calculateDice(thisObj, otherObj);
+	for (n = 0; n < scores.value1[i].length; n++) {
+	  otherObj = predictions.get(scores.value1[i][n]);
+	  dice = scores.value2[i][n];
 	  if (isLoggingEnabled()) {
 	    if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	      getLogger().fine(" + other: " + otherObj + " (" + otherObj.getMetaData() + ")" + " -> Dice = " + dice);
@@ -531,9 +539,9 @@ public class DiceCoefficient
       }
 
       if (m_AdditionalObject) {
-	for (LocatedObject otherObj : predictions) {
-	  if (!matchingObjects.contains(otherObj)) {
-	    otherObj = otherObj.getClone();
+	for (i = 0; i < predictions.size(); i++) {
+	  if (!matchingObjects.contains(predictions.get(i))) {
+	    otherObj = predictions.get(i).getClone();
 	    otherObj.getMetaData().put(ADDITIONAL_OBJ, true);
 	    result.add(otherObj);
 	  }
@@ -15,7 +15,7 @@
 
 /*
  * IntersectOverUnionRatio.java
- * Copyright (C) 2019-2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.objectoverlap;
@@ -362,6 +362,7 @@ public class IntersectOverUnionRatio
     result += QuickInfoHelper.toString(this, "geometry", m_Geometry, ", geometry: ");
     if (m_Fallback)
       result += QuickInfoHelper.toString(this, "boundingBoxFallBackRatio", m_BoundingBoxFallbackRatio, ", bbox fallback ratio: ");
+    result += getNumThreadsQuickInfo();
 
     return result;
   }
@@ -442,6 +443,11 @@ public class IntersectOverUnionRatio
     LocatedObject 	actObj;
     LocatedObject	tmpObj;
     LocatedObject	otherObjectHighest;
+    LocatedObject	thisObj;
+    LocatedObject	otherObj;
+    Struct2<int[][],double[][]>	scores;
+    int			i;
+    int			n;
     double		iou;
 
     if (isLoggingEnabled()) {
@@ -455,7 +461,10 @@ public class IntersectOverUnionRatio
     }
     else {
       Set<LocatedObject> matchingObjects = new HashSet<>();
-      for (LocatedObject thisObj : annotations) {
+      // only overlapping predictions can score above 0
+      scores = calculateScores(annotations, predictions, this::calculateIoU, m_MinIntersectOverUnionRatio > 0);
+      for (i = 0; i < annotations.size(); i++) {
+	thisObj = annotations.get(i);
 	if (isLoggingEnabled()) {
 	  if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	    getLogger().fine("this: " + thisObj + " (" + thisObj.getMetaData() + ")");
@@ -471,10 +480,9 @@ public class IntersectOverUnionRatio
 	actObj = thisObj;
 	otherObjectHighest = null;
 	initMatch(matches, thisObj);
-	for (LocatedObject otherObj : predictions) {
-	  if (m_ExcludeIdentical && thisObj.equals(otherObj))
-	    continue;
-	  iou = calculateIoU(thisObj, otherObj);
+	for (n = 0; n < scores.value1[i].length; n++) {
+	  otherObj = predictions.get(scores.value1[i][n]);
+	  iou = scores.value2[i][n];
 	  if (isLoggingEnabled()) {
 	    if (LoggingHelper.isAtLeast(getLogger(), Level.FINE))
 	      getLogger().fine(" + other: " + otherObj + " (" + otherObj.getMetaData() + ")" + " -> IOU = " + iou);
@@ -532,9 +540,9 @@ public class IntersectOverUnionRatio
       }
 
       if (m_AdditionalObject) {
-	for (LocatedObject otherObj : predictions) {
-	  if (!matchingObjects.contains(otherObj)) {
-	    otherObj = otherObj.getClone();
+	for (i = 0; i < predictions.size(); i++) {
+	  if (!matchingObjects.contains(predictions.get(i))) {
+	    otherObj = predictions.get(i).getClone();
 	    otherObj.getMetaData().put(ADDITIONAL_OBJ, true);
 	    result.add(otherObj);
 	  }
@@ -15,7 +15,7 @@
 
 /*
  * BufferedImageTransformer.java
- * Copyright (C) 2011-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -225,4 +225,14 @@ public class BufferedImageTransformer
 
     return result;
   }
+
+  /**
+   * Cleans up after the execution has finished. Also cleans up the
+   * transformer (e.g., thread pools).
+   */
+  @Override
+  public void wrapUp() {
+    super.wrapUp();
+    m_TransformAlgorithm.cleanUp();
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * DeleteOverlappingImageObjects.java
- * Copyright (C) 2018 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.transformer;
@@ -340,6 +340,7 @@ public class DeleteOverlappingImageObjects
   @Override
   protected String doExecute() {
     String		result;
+    AbstractImageContainer	cont;
     Report 		report;
     Report		newReport;
     Object		output;
@@ -360,9 +361,10 @@ public class DeleteOverlappingImageObjects
     result = null;
 
     report   = null;
+    cont     = null;
     output   = null;
     if (m_InputToken.getPayload() instanceof AbstractImageContainer)
-      report = ((AbstractImageContainer) m_InputToken.getPayload()).getReport();
+      cont = (AbstractImageContainer) m_InputToken.getPayload();
     else if (m_InputToken.getPayload() instanceof Report)
       report = (Report) m_InputToken.getPayload();
     else if (m_InputToken.getPayload() instanceof ReportHandler)
@@ -370,8 +372,11 @@ public class DeleteOverlappingImageObjects
     else
       result = "Unsupported input class: " + Utils.classToString(m_InputToken.getPayload());
 
-    if (report != null) {
-      objects = m_Finder.findObjects(LocatedObjects.fromReport(report,  m_Finder.getPrefix()));
+    if ((report != null) || (cont != null)) {
+      if (cont != null)
+	objects = m_Finder.findObjects(LocatedObjects.fromContainer(cont, m_Finder.getPrefix()));
+      else
+	objects = m_Finder.findObjects(LocatedObjects.fromReport(report, m_Finder.getPrefix()));
       delete  = new TIntHashSet();
 
       // find duplicate object indices and offset if found
@@ -442,35 +447,38 @@ public class DeleteOverlappingImageObjects
           getLogger().info("Object indices to remove: " + Utils.arrayToString(deleteIndices));
 	objects.remove(deleteIndices);
 
-	// assemble new report
-	try {
-	  newReport = report.getClass().getDeclaredConstructor().newInstance();
-	  // transfer non-object fields
-	  for (AbstractField field : report.getFields()) {
-	    if (!field.getName().startsWith(m_Finder.getPrefix())) {
-	      newReport.addField(field);
-	      newReport.setValue(field, report.getValue(field));
+	if (cont != null) {
+	  // store objects as typed annotations
+	  objects.toContainer(cont, m_Finder.getPrefix());
+	  output = cont;
+	}
+	else {
+	  // assemble new report
+	  try {
+	    newReport = report.getClass().getDeclaredConstructor().newInstance();
+	    // transfer non-object fields
+	    for (AbstractField field : report.getFields()) {
+	      if (!field.getName().startsWith(m_Finder.getPrefix())) {
+		newReport.addField(field);
+		newReport.setValue(field, report.getValue(field));
+	      }
+	    }
+	    // store objects
+	    newReport.mergeWith(objects.toReport(m_Finder.getPrefix()));
+	    // update report
+	    if (m_InputToken.getPayload() instanceof MutableReportHandler) {
+	      output = m_InputToken.getPayload();
+	      ((MutableReportHandler) output).setReport(newReport);
+	    }
+	    else {
+	      output = newReport;
 	    }
 	  }
-	  // store objects
-	  newReport.mergeWith(objects.toReport(m_Finder.getPrefix()));
-	  // update report
-	  if (m_InputToken.getPayload() instanceof AbstractImageContainer) {
-	    output = m_InputToken.getPayload();
-	    ((AbstractImageContainer) output).setReport(newReport);
-	  }
-	  else if (m_InputToken.getPayload() instanceof MutableReportHandler) {
-	    output = m_InputToken.getPayload();
-	    ((MutableReportHandler) output).setReport(newReport);
-	  }
-	  else {
-	    output = newReport;
+	  catch (Exception e) {
+	    result = handleException("Failed to create new report with updated objects!", e);
+	    output = null;
 	  }
 	}
-	catch (Exception e) {
-	  result = handleException("Failed to create new report with updated objects!", e);
-	  output = null;
-	}
       }
       else {
         if (isLoggingEnabled())
@@ -15,7 +15,7 @@
 
 /*
  * DetermineOverlappingObjects.java
- * Copyright (C) 2019-2020 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.transformer;
@@ -327,6 +327,20 @@ public class DetermineOverlappingObjects
     return new Class[]{AbstractImageContainer.class, Report.class, ReportHandler.class};
   }
 
+  /**
+   * Returns the objects from the container (if not null) or the report.
+   *
+   * @param cont	the image container, can be null
+   * @param report	the report to use if no container
+   * @return		the objects
+   */
+  protected LocatedObjects getObjects(AbstractImageContainer cont, Report report) {
+    if (cont != null)
+      return LocatedObjects.fromContainer(cont, m_Finder.getPrefix());
+    else
+      return LocatedObjects.fromReport(report, m_Finder.getPrefix());
+  }
+
   /**
    * Executes the flow item.
    *
@@ -339,6 +353,8 @@ public class DetermineOverlappingObjects
     Report			newReport;
     Report			thisReport;
     Report 			otherReport;
+    AbstractImageContainer	thisCont;
+    AbstractImageContainer	otherCont;
     LocatedObjects		thisObjs;
     LocatedObjects		otherObjs;
     LocatedObjects 		newObjs;
@@ -352,10 +368,12 @@ public class DetermineOverlappingObjects
     output      = null;
     thisReport  = null;
     otherReport = null;
+    thisCont    = null;
+    otherCont   = null;
     newObjs     = null;
 
     if (m_InputToken.getPayload() instanceof AbstractImageContainer)
-      thisReport = ((AbstractImageContainer) m_InputToken.getPayload()).getReport();
+      thisCont = (AbstractImageContainer) m_InputToken.getPayload();
     else if (m_InputToken.getPayload() instanceof Report)
       thisReport = (Report) m_InputToken.getPayload();
     else if (m_InputToken.getPayload() instanceof ReportHandler)
@@ -363,9 +381,9 @@ public class DetermineOverlappingObjects
     else
       result = "Unsupported input class: " + Utils.classToString(m_InputToken.getPayload());
 
-    if (thisReport != null) {
+    if ((thisReport != null) || (thisCont != null)) {
       if (m_CompareWithItself) {
-        allObjs  = m_Finder.findObjects(LocatedObjects.fromReport(thisReport, m_Finder.getPrefix()));
+        allObjs  = m_Finder.findObjects(getObjects(thisCont, thisReport));
         newObjs  = new LocatedObjects();
         overlaps = new HashSet<>();
         for (i = 0; i < allObjs.size() - 1; i++) {
@@ -380,51 +398,56 @@ public class DetermineOverlappingObjects
 	if (obj == null)
 	  result = "Failed to retrieve storage item: " + m_StorageName;
 	else {
-	  if (obj instanceof Report)
+	  if (obj instanceof AbstractImageContainer)
+	    otherCont = (AbstractImageContainer) obj;
+	  else if (obj instanceof Report)
 	    otherReport = (Report) obj;
 	  else if (obj instanceof ReportHandler)
 	    otherReport = ((ReportHandler) obj).getReport();
 	  else
 	    result = "Unhandled type of storage item '" + m_StorageName + "': " + Utils.classToString(obj);
 	}
-        if (otherReport != null) {
-          thisObjs = m_Finder.findObjects(LocatedObjects.fromReport(thisReport, m_Finder.getPrefix()));
-          otherObjs = m_Finder.findObjects(LocatedObjects.fromReport(otherReport, m_Finder.getPrefix()));
+        if ((otherReport != null) || (otherCont != null)) {
+          thisObjs = m_Finder.findObjects(getObjects(thisCont, thisReport));
+          otherObjs = m_Finder.findObjects(getObjects(otherCont, otherReport));
           newObjs = m_Algorithm.calculate(thisObjs, otherObjs);
         }
       }
     }
 
     if (newObjs != null) {
-      // assemble new report
-      try {
-        newReport = thisReport.getClass().getDeclaredConstructor().newInstance();
-        // transfer non-object fields
-        for (AbstractField field: thisReport.getFields()) {
-          if (!field.getName().startsWith(m_Finder.getPrefix())) {
-            newReport.addField(field);
-            newReport.setValue(field, thisReport.getValue(field));
+      if (thisCont != null) {
+        // store objects as typed annotations
+        newObjs.toContainer(thisCont, m_Finder.getPrefix());
+        output = thisCont;
+      }
+      else {
+        // assemble new report
+        try {
+          newReport = thisReport.getClass().getDeclaredConstructor().newInstance();
+          // transfer non-object fields
+          for (AbstractField field: thisReport.getFields()) {
+            if (!field.getName().startsWith(m_Finder.getPrefix())) {
+              newReport.addField(field);
+              newReport.setValue(field, thisReport.getValue(field));
+            }
+          }
+          // store objects
+          newReport.mergeWith(newObjs.toReport(m_Finder.getPrefix()));
+          // update report
+          if (m_InputToken.getPayload() instanceof MutableReportHandler) {
+            output = m_InputToken.getPayload();
+            ((MutableReportHandler) output).setReport(newReport);
+          }
+          else {
+            output = newReport;
           }
         }
-        // store objects
-        newReport.mergeWith(newObjs.toReport(m_Finder.getPrefix()));
-        // update report
-        if (m_InputToken.getPayload() instanceof AbstractImageContainer) {
-          output = m_InputToken.getPayload();
-          ((AbstractImageContainer) output).setReport(newReport);
-        }
-        else if (m_InputToken.getPayload() instanceof MutableReportHandler) {
-          output = m_InputToken.getPayload();
-          ((MutableReportHandler) output).setReport(newReport);
-        }
-        else {
-          output = newReport;
+        catch (Exception e) {
+          result = handleException("Failed to create new report with updated objects!", e);
+          output = null;
         }
       }
-      catch (Exception e) {
-        result = handleException("Failed to create new report with updated objects!", e);
-        output = null;
-      }
     }
 
     if (output != null)
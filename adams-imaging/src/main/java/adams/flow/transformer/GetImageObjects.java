@@ -15,7 +15,7 @@
 
 /*
  * GetImageObjects.java
- * Copyright (C) 2017-2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.transformer;
@@ -254,9 +254,10 @@ public class GetImageObjects
 
     result = null;
 
-    report = null;
+    report  = null;
+    objects = null;
     if (m_InputToken.hasPayload(AbstractImageContainer.class))
-      report = m_InputToken.getPayload(AbstractImageContainer.class).getReport();
+      objects = LocatedObjects.fromContainer(m_InputToken.getPayload(AbstractImageContainer.class), m_Finder.getPrefix());
     else if (m_InputToken.hasPayload(Report.class))
       report = m_InputToken.getPayload(Report.class);
     else
@@ -264,7 +265,8 @@ public class GetImageObjects
 
     m_Queue.clear();
     if (result == null) {
-      objects = LocatedObjects.fromReport(report, m_Finder.getPrefix());
+      if (objects == null)
+	objects = LocatedObjects.fromReport(report, m_Finder.getPrefix());
       if (m_CleanIndices)
         objects.resetIndex();
       m_Queue.addAll(objects.subset(m_Finder.find(objects)));
@@ -15,7 +15,7 @@
 
 /*
  * ImageObjectFilter.java
- * Copyright (C) 2017-2024 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.transformer;
@@ -23,6 +23,7 @@ package adams.flow.transformer;
 import adams.core.ObjectCopyHelper;
 import adams.core.QuickInfoHelper;
 import adams.data.InPlaceProcessing;
+import adams.data.image.AbstractImageContainer;
 import adams.data.objectfilter.ObjectFilter;
 import adams.data.objectfilter.PassThrough;
 import adams.data.objectfinder.AllFinder;
@@ -379,6 +380,7 @@ public class ImageObjectFilter
   protected String doExecute() {
     String			result;
     MutableReportHandler	handler;
+    AbstractImageContainer	cont;
     int[]			indices;
     Report			report;
     Report			newReport;
@@ -389,11 +391,16 @@ public class ImageObjectFilter
     result  = null;
     report  = null;
     handler = null;
+    cont    = null;
     if (m_InputToken.hasPayload(MutableReportHandler.class)) {
       handler = m_InputToken.getPayload(MutableReportHandler.class);
       if (!m_NoCopy)
 	handler = ObjectCopyHelper.copyObject(handler);
-      report  = handler.getReport();
+      // image containers store the objects as typed annotations
+      if (handler instanceof AbstractImageContainer)
+	cont = (AbstractImageContainer) handler;
+      else
+	report = handler.getReport();
     }
     else if (m_InputToken.hasPayload(Report.class)) {
       report = m_InputToken.getPayload(Report.class);
@@ -404,12 +411,15 @@ public class ImageObjectFilter
       result = m_InputToken.unhandledData();
     }
 
-    if (report == null)
+    if ((result == null) && (report == null) && (cont == null))
       result = "No report available!";
 
     if (result == null) {
       try {
-	objs = LocatedObjects.fromReport(report, m_Finder.getPrefix());
+	if (cont != null)
+	  objs = LocatedObjects.fromContainer(cont, m_Finder.getPrefix());
+	else
+	  objs = LocatedObjects.fromReport(report, m_Finder.getPrefix());
 
 	if (m_CleanIndices)
 	  objs.resetIndex();
@@ -418,9 +428,11 @@ public class ImageObjectFilter
 	indices = m_Finder.find(objs);
 
 	// remove all old objects
-	for (AbstractField field : report.getFields()) {
-	  if (field.getName().startsWith(m_Finder.getPrefix()))
-	    report.removeValue(field);
+	if (report != null) {
+	  for (AbstractField field : report.getFields()) {
+	    if (field.getName().startsWith(m_Finder.getPrefix()))
+	      report.removeValue(field);
+	  }
 	}
 
 	// compile new objects
@@ -435,18 +447,23 @@ public class ImageObjectFilter
 	  otherObjs = objs.subset(indices, true);
 	  newObjs.addAll(otherObjs);
 	}
-	newReport = newObjs.toReport(m_Finder.getPrefix());
-	for (AbstractField field : newReport.getFields()) {
-	  report.addField(field);
-	  report.setValue(field, newReport.getValue(field));
-	}
-
-	if (handler != null) {
-	  handler.setReport(report);
-	  m_OutputToken = new Token(handler);
+	if (cont != null) {
+	  newObjs.toContainer(cont, m_Finder.getPrefix());
+	  m_OutputToken = new Token(cont);
 	}
 	else {
-	  m_OutputToken = new Token(report);
+	  newReport = newObjs.toReport(m_Finder.getPrefix());
+	  for (AbstractField field : newReport.getFields()) {
+	    report.addField(field);
+	    report.setValue(field, newReport.getValue(field));
+	  }
+	  if (handler != null) {
+	    handler.setReport(report);
+	    m_OutputToken = new Token(handler);
+	  }
+	  else {
+	    m_OutputToken = new Token(report);
+	  }
 	}
       }
       catch (Exception e) {
@@ -15,7 +15,7 @@
 
 /*
  * ObjectAnnotationsFromReport.java
- * Copyright (C) 2022-2023 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2022-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer.draw;
@@ -384,12 +384,21 @@ public class ObjectAnnotationsFromReport
    * @param report	the report to get the annotations from
    */
   protected void initAnnotations(Report report) {
+    initAnnotations(LocatedObjects.fromReport(report, m_Prefix));
+  }
+
+  /**
+   * Initializes the annotations.
+   *
+   * @param objects	the annotations to use
+   */
+  protected void initAnnotations(LocatedObjects objects) {
     MessageCollection	errors;
 
     errors = new MessageCollection();
 
     // clean
-    m_Annotations = LocatedObjects.fromReport(report, m_Prefix);
+    m_Annotations = objects;
     for (AnnotationCleaner cleaner: m_Cleaners) {
       m_Annotations = cleaner.cleanAnnotations(m_Annotations, errors);
       if (!errors.isEmpty())
@@ -445,7 +454,7 @@ public class ObjectAnnotationsFromReport
     int		i;
     Graphics2D	g2d;
 
-    initAnnotations(image.getReport());
+    initAnnotations(LocatedObjects.fromContainer(image, m_Prefix));
 
     g2d = (Graphics2D) image.getImage().getGraphics();
     for (LocatedObject object: m_Annotations) {
@@ -15,7 +15,7 @@
 
 /*
  * LocatedObjects.java
- * Copyright (C) 2014-2023 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.transformer.locateobjects;
 
@@ -23,6 +23,7 @@ import adams.core.CloneHandler;
 import adams.core.Utils;
 import adams.core.logging.Logger;
 import adams.core.logging.LoggingHelper;
+import adams.data.image.AbstractImageContainer;
 import adams.data.report.AbstractField;
 import adams.data.report.DataType;
 import adams.data.report.Field;
@@ -547,6 +548,46 @@ public class LocatedObjects
     return result;
   }
 
+  /**
+   * Stores the objects as typed annotations in the image container,
+   * replacing any objects with the same prefix. The report fields only get
+   * generated once the report of the container gets accessed.
+   *
+   * @param cont	the container to update
+   * @param prefix	the prefix to use
+   * @see		ObjectAnnotationStore
+   */
+  public void toContainer(AbstractImageContainer cont, String prefix) {
+    ObjectAnnotationStore.set(cont, prefix, this);
+  }
+
+  /**
+   * Retrieves all objects from the image container, using its typed
+   * annotations (parsing the report only if not present yet).
+   *
+   * @param cont	the container to process
+   * @param prefix	the prefix to look for
+   * @return		the objects found
+   * @see		ObjectAnnotationStore
+   */
+  public static LocatedObjects fromContainer(AbstractImageContainer cont, String prefix) {
+    return fromContainer(cont, prefix, null);
+  }
+
+  /**
+   * Retrieves all objects from the image container, using its typed
+   * annotations (parsing the report only if not present yet).
+   *
+   * @param cont	the container to process
+   * @param prefix	the prefix to look for
+   * @param filter 	the filter to use for further filtering the objects, ignored if null
+   * @return		the objects found
+   * @see		ObjectAnnotationStore
+   */
+  public static LocatedObjects fromContainer(AbstractImageContainer cont, String prefix, LocatedObjectFilter filter) {
+    return ObjectAnnotationStore.get(cont, prefix).toLocatedObjects(filter);
+  }
+
   /**
    * Retrieves all objects from the report.
    *
@@ -0,0 +1,285 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocatedObjectsIndex.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer.locateobjects;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Grid-based spatial index over located objects, for quickly finding the
+ * objects whose envelopes overlap a region, rather than comparing all objects
+ * with each other. The envelope of an object covers its bounding box and its
+ * polygon (if any), including the right/bottom border, i.e., it is
+ * conservative: objects whose envelopes don't overlap cannot overlap either.
+ * <br>
+ * The cell size of the grid is based on the average size of the objects.
+ * The index is read-only once built and can be queried from multiple threads.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LocatedObjectsIndex
+  implements Serializable {
+
+  private static final long serialVersionUID = 3215787405669521553L;
+
+  /** the maximum number of cells per side that an object can cover before being treated as large. */
+  public final static int MAX_CELLS_PER_SIDE = 4;
+
+  /** the indexed objects. */
+  protected List<LocatedObject> m_Objects;
+
+  /** the envelopes of the objects (minX, minY, maxX, maxY, all inclusive). */
+  protected int[][] m_Envelopes;
+
+  /** the width/height of a cell. */
+  protected int m_CellSize;
+
+  /** the cells (key: see {@link #key(int, int)}) with the indices of the objects. */
+  protected TLongObjectHashMap<TIntArrayList> m_Cells;
+
+  /** the indices of the objects that cover too many cells, always get checked. */
+  protected TIntArrayList m_Large;
+
+  /**
+   * Builds the index for the objects.
+   *
+   * @param objects	the objects to index, must not be modified while using the index
+   */
+  public LocatedObjectsIndex(List<LocatedObject> objects) {
+    m_Objects = objects;
+    build();
+  }
+
+  /**
+   * Returns the envelope of the object, i.e., the bounding box extended by
+   * the polygon (if any).
+   *
+   * @param obj		the object to get the envelope for
+   * @return		the envelope (minX, minY, maxX, maxY, all inclusive)
+   */
+  public static int[] envelope(LocatedObject obj) {
+    int[]	result;
+    int[]	x;
+    int[]	y;
+    int		i;
+
+    result = new int[]{obj.getX(), obj.getY(), obj.getX() + obj.getWidth(), obj.getY() + obj.getHeight()};
+    if (obj.hasPolygon()) {
+      x = obj.getPolygonX();
+      y = obj.getPolygonY();
+      for (i = 0; i < x.length; i++) {
+	result[0] = Math.min(result[0], x[i]);
+	result[2] = Math.max(result[2], x[i]);
+      }
+      for (i = 0; i < y.length; i++) {
+	result[1] = Math.min(result[1], y[i]);
+	result[3] = Math.max(result[3], y[i]);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the key for the cell.
+   *
+   * @param cellX	the column of the cell
+   * @param cellY	the row of the cell
+   * @return		the key
+   */
+  protected static long key(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the cell coordinate for the pixel coordinate.
+   *
+   * @param coord	the pixel coordinate
+   * @return		the cell coordinate
+   */
+  protected int cell(int coord) {
+    return Math.floorDiv(coord, m_CellSize);
+  }
+
+  /**
+   * Builds the index.
+   */
+  protected void build() {
+    long		extent;
+    int			i;
+    int			x;
+    int			y;
+    long		key;
+    TIntArrayList	list;
+
+    m_Envelopes = new int[m_Objects.size()][];
+    extent      = 0;
+    for (i = 0; i < m_Objects.size(); i++) {
+      m_Envelopes[i] = envelope(m_Objects.get(i));
+      extent += Math.max(m_Envelopes[i][2] - m_Envelopes[i][0], m_Envelopes[i][3] - m_Envelopes[i][1]) + 1;
+    }
+    m_CellSize = (int) Math.max(1, (m_Objects.isEmpty() ? 1 : extent / m_Objects.size()));
+
+    m_Cells = new TLongObjectHashMap<>();
+    m_Large = new TIntArrayList();
+    for (i = 0; i < m_Envelopes.length; i++) {
+      // very large objects would occupy too many cells
+      if (numCells(m_Envelopes[i]) > MAX_CELLS_PER_SIDE * MAX_CELLS_PER_SIDE) {
+	m_Large.add(i);
+	continue;
+      }
+      for (y = cell(m_Envelopes[i][1]); y <= cell(m_Envelopes[i][3]); y++) {
+	for (x = cell(m_Envelopes[i][0]); x <= cell(m_Envelopes[i][2]); x++) {
+	  key  = key(x, y);
+	  list = m_Cells.get(key);
+	  if (list == null) {
+	    list = new TIntArrayList();
+	    m_Cells.put(key, list);
+	  }
+	  list.add(i);
+	}
+      }
+    }
+  }
+
+  /**
+   * Returns the number of cells that the envelope covers.
+   *
+   * @param envelope	the envelope
+   * @return		the number of cells
+   */
+  protected long numCells(int[] envelope) {
+    return (long) (cell(envelope[2]) - cell(envelope[0]) + 1) * (cell(envelope[3]) - cell(envelope[1]) + 1);
+  }
+
+  /**
+   * Returns the number of indexed objects.
+   *
+   * @return		the number of objects
+   */
+  public int size() {
+    return m_Objects.size();
+  }
+
+  /**
+   * Returns the object at the specified position.
+   *
+   * @param index	the position of the object
+   * @return		the object
+   */
+  public LocatedObject get(int index) {
+    return m_Objects.get(index);
+  }
+
+  /**
+   * Checks whether the two envelopes overlap (borders included).
+   *
+   * @param e1		the first envelope
+   * @param e2		the second envelope
+   * @return		true if overlapping
+   */
+  public static boolean overlaps(int[] e1, int[] e2) {
+    return (e1[0] <= e2[2]) && (e2[0] <= e1[2]) && (e1[1] <= e2[3]) && (e2[1] <= e1[3]);
+  }
+
+  /**
+   * Returns the positions of the objects whose envelopes overlap the region.
+   *
+   * @param minX	the left border (incl)
+   * @param minY	the top border (incl)
+   * @param maxX	the right border (incl)
+   * @param maxY	the bottom border (incl)
+   * @return		the positions of the objects, in ascending order
+   */
+  public int[] query(int minX, int minY, int maxX, int maxY) {
+    TIntArrayList	result;
+    TIntArrayList	list;
+    int[]		region;
+    int			x;
+    int			y;
+    int			i;
+    int			n;
+    int			index;
+    int			last;
+
+    result = new TIntArrayList();
+    region = new int[]{minX, minY, maxX, maxY};
+
+    // large query: check all envelopes
+    if (numCells(region) >= m_Cells.size()) {
+      for (i = 0; i < m_Envelopes.length; i++) {
+	if (overlaps(region, m_Envelopes[i]))
+	  result.add(i);
+      }
+      return result.toArray();
+    }
+
+    for (y = cell(minY); y <= cell(maxY); y++) {
+      for (x = cell(minX); x <= cell(maxX); x++) {
+	list = m_Cells.get(key(x, y));
+	if (list == null)
+	  continue;
+	for (i = 0; i < list.size(); i++) {
+	  index = list.getQuick(i);
+	  if (overlaps(region, m_Envelopes[index]))
+	    result.add(index);
+	}
+      }
+    }
+    for (i = 0; i < m_Large.size(); i++) {
+      index = m_Large.getQuick(i);
+      if (overlaps(region, m_Envelopes[index]))
+	result.add(index);
+    }
+
+    // objects can span multiple cells
+    result.sort();
+    n    = 0;
+    last = -1;
+    for (i = 0; i < result.size(); i++) {
+      index = result.getQuick(i);
+      if (index != last)
+	result.setQuick(n++, index);
+      last = index;
+    }
+    result.remove(n, result.size() - n);
+
+    return result.toArray();
+  }
+
+  /**
+   * Returns the positions of the objects whose envelopes overlap the envelope
+   * of the specified object.
+   *
+   * @param obj		the object to get the overlapping objects for
+   * @return		the positions of the objects, in ascending order
+   * @see		#envelope(LocatedObject)
+   */
+  public int[] query(LocatedObject obj) {
+    int[]	envelope;
+
+    envelope = envelope(obj);
+    return query(envelope[0], envelope[1], envelope[2], envelope[3]);
+  }
+}
@@ -0,0 +1,635 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ObjectAnnotationStore.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer.locateobjects;
+
+import adams.core.Utils;
+import adams.data.image.AbstractImageContainer;
+import adams.data.image.ImageAnnotations;
+import adams.data.report.AbstractField;
+import adams.data.report.DataType;
+import adams.data.report.Field;
+import adams.data.report.Report;
+import adams.data.statistics.StatUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typed, column-oriented storage for located objects that can be attached to
+ * image containers, avoiding the encoding as report fields (like
+ * "Object.17.x") and the parsing of these fields by every actor that
+ * accesses the objects.
+ * <br><br>
+ * Bounding boxes and polygons are stored in primitive arrays, the meta-data
+ * in columns (one array per key). The conversion to and from report fields
+ * only happens when the report of the container gets accessed, i.e., at I/O
+ * boundaries. The report fields use the same layout as
+ * {@link LocatedObjects#toReport(String)}, retaining the object groups
+ * (eg "17" in "Object.17.x") of objects that were read from a report.
+ * Polygon coordinates get stored as integers, like
+ * {@link LocatedObject#getPolygonX()} does.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ObjectAnnotationStore
+  implements ImageAnnotations {
+
+  private static final long serialVersionUID = -4479474282385431695L;
+
+  /** the keys of the bounding box that are not stored as meta-data. */
+  protected final static Set<String> BBOX_KEYS = Set.of("x", "y", "width", "height");
+
+  /** the number of objects. */
+  protected int m_Size;
+
+  /** the groups of the objects in the report (eg "17" for "Object.17.x"). */
+  protected String[] m_Group;
+
+  /** the x coordinates. */
+  protected int[] m_X;
+
+  /** the y coordinates. */
+  protected int[] m_Y;
+
+  /** the widths. */
+  protected int[] m_Width;
+
+  /** the heights. */
+  protected int[] m_Height;
+
+  /** whether width and height were present (otherwise 1x1 object). */
+  protected boolean[] m_HasSize;
+
+  /** the x coordinates of the polygons (null if none). */
+  protected int[][] m_PolygonX;
+
+  /** the y coordinates of the polygons (null if none). */
+  protected int[][] m_PolygonY;
+
+  /** the meta-data columns (key - values). */
+  protected Map<String,Object[]> m_MetaData;
+
+  /** whether to output the count field. */
+  protected boolean m_HasCount;
+
+  /**
+   * Initializes the storage.
+   *
+   * @param capacity	the number of objects to store
+   * @param hasCount	whether to output the count field
+   */
+  protected ObjectAnnotationStore(int capacity, boolean hasCount) {
+    m_Size     = 0;
+    m_Group    = new String[capacity];
+    m_X        = new int[capacity];
+    m_Y        = new int[capacity];
+    m_Width    = new int[capacity];
+    m_Height   = new int[capacity];
+    m_HasSize  = new boolean[capacity];
+    m_PolygonX = new int[capacity][];
+    m_PolygonY = new int[capacity][];
+    m_MetaData = new LinkedHashMap<>();
+    m_HasCount = hasCount;
+  }
+
+  /**
+   * Initializes the storage with the objects. The groups get generated from
+   * the position in the list, like {@link LocatedObjects#toReport(String)}
+   * does.
+   *
+   * @param objects	the objects to store
+   */
+  public ObjectAnnotationStore(LocatedObjects objects) {
+    this(objects.size(), true);
+
+    int			width;
+    int			i;
+    LocatedObject	obj;
+    Map<String,Object>	meta;
+
+    width = ("" + objects.size()).length();
+    for (i = 0; i < objects.size(); i++) {
+      obj  = objects.get(i);
+      meta = new LinkedHashMap<>();
+      for (String key: obj.getMetaData().keySet()) {
+	if (!BBOX_KEYS.contains(key))
+	  meta.put(key, obj.getMetaData().get(key));
+      }
+      meta.put(LocatedObjects.KEY_LOCATION.substring(1), obj.getLocation().getValue());
+      add(Utils.padLeft("" + (i + 1), '0', width), obj.getX(), obj.getY(), obj.getWidth(), obj.getHeight(), true, meta);
+    }
+  }
+
+  /**
+   * Appends an object. Polygon meta-data gets turned into coordinate arrays
+   * if it can be parsed.
+   *
+   * @param group	the group of the object in the report
+   * @param x		the x coordinate
+   * @param y		the y coordinate
+   * @param width	the width
+   * @param height	the height
+   * @param hasSize	whether width/height were present
+   * @param meta	the meta-data
+   */
+  protected void add(String group, int x, int y, int width, int height, boolean hasSize, Map<String,Object> meta) {
+    int		index;
+    int[]	polyX;
+    int[]	polyY;
+    Object[]	column;
+
+    index = m_Size;
+    m_Size++;
+    m_Group[index]   = group;
+    m_X[index]       = x;
+    m_Y[index]       = y;
+    m_Width[index]   = width;
+    m_Height[index]  = height;
+    m_HasSize[index] = hasSize;
+
+    if (meta.containsKey(LocatedObject.KEY_POLY_X) && meta.containsKey(LocatedObject.KEY_POLY_Y)) {
+      polyX = parseCoordinates(meta.get(LocatedObject.KEY_POLY_X));
+      polyY = parseCoordinates(meta.get(LocatedObject.KEY_POLY_Y));
+      if ((polyX != null) && (polyY != null)) {
+	m_PolygonX[index] = polyX;
+	m_PolygonY[index] = polyY;
+	meta.remove(LocatedObject.KEY_POLY_X);
+	meta.remove(LocatedObject.KEY_POLY_Y);
+      }
+    }
+
+    for (String key: meta.keySet()) {
+      column = m_MetaData.get(key);
+      if (column == null) {
+	column = new Object[m_Group.length];
+	m_MetaData.put(key, column);
+      }
+      column[index] = meta.get(key);
+    }
+  }
+
+  /**
+   * Parses the comma-separated coordinates.
+   *
+   * @param value	the coordinates to parse
+   * @return		the coordinates, null if failed to parse
+   */
+  protected static int[] parseCoordinates(Object value) {
+    int[]	result;
+    String[]	parts;
+    int		i;
+
+    if (value == null)
+      return null;
+
+    parts  = value.toString().split(",");
+    result = new int[parts.length];
+    try {
+      for (i = 0; i < parts.length; i++)
+	result[i] = (int) Double.parseDouble(parts[i]);
+    }
+    catch (Exception e) {
+      result = null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of objects.
+   *
+   * @return		the number of objects
+   */
+  @Override
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the group of the object in the report (eg "17" for "Object.17.x").
+   *
+   * @param index	the index of the object
+   * @return		the group
+   */
+  public String getGroup(int index) {
+    return m_Group[index];
+  }
+
+  /**
+   * Returns the x coordinate of the object.
+   *
+   * @param index	the index of the object
+   * @return		the x coordinate
+   */
+  public int getX(int index) {
+    return m_X[index];
+  }
+
+  /**
+   * Returns the y coordinate of the object.
+   *
+   * @param index	the index of the object
+   * @return		the y coordinate
+   */
+  public int getY(int index) {
+    return m_Y[index];
+  }
+
+  /**
+   * Returns the width of the object.
+   *
+   * @param index	the index of the object
+   * @return		the width
+   */
+  public int getWidth(int index) {
+    return m_Width[index];
+  }
+
+  /**
+   * Returns the height of the object.
+   *
+   * @param index	the index of the object
+   * @return		the height
+   */
+  public int getHeight(int index) {
+    return m_Height[index];
+  }
+
+  /**
+   * Returns whether the object has a polygon.
+   *
+   * @param index	the index of the object
+   * @return		true if polygon available
+   */
+  public boolean hasPolygon(int index) {
+    return (m_PolygonX[index] != null);
+  }
+
+  /**
+   * Returns the x coordinates of the polygon of the object.
+   *
+   * @param index	the index of the object
+   * @return		the coordinates, 0-length if no polygon
+   */
+  public int[] getPolygonX(int index) {
+    return hasPolygon(index) ? m_PolygonX[index].clone() : new int[0];
+  }
+
+  /**
+   * Returns the y coordinates of the polygon of the object.
+   *
+   * @param index	the index of the object
+   * @return		the coordinates, 0-length if no polygon
+   */
+  public int[] getPolygonY(int index) {
+    return hasPolygon(index) ? m_PolygonY[index].clone() : new int[0];
+  }
+
+  /**
+   * Returns the keys of the meta-data columns.
+   *
+   * @return		the keys
+   */
+  public Set<String> getMetaDataKeys() {
+    return m_MetaData.keySet();
+  }
+
+  /**
+   * Returns the meta-data value of the object.
+   *
+   * @param index	the index of the object
+   * @param key		the meta-data key
+   * @return		the value, null if not available
+   */
+  public Object getMetaData(int index, String key) {
+    Object[]	column;
+
+    column = m_MetaData.get(key);
+    if (column == null)
+      return null;
+    return column[index];
+  }
+
+  /**
+   * Returns the index of the object, i.e., the "index" meta-data value or,
+   * if not present, the group.
+   *
+   * @param index	the index of the object
+   * @return		the index
+   */
+  public String getIndexString(int index) {
+    Object	result;
+
+    result = getMetaData(index, LocatedObjects.KEY_INDEX);
+    if (result == null)
+      return m_Group[index];
+    return "" + result;
+  }
+
+  /**
+   * Creates a located object from the stored data, with the same meta-data
+   * as {@link LocatedObjects#fromReport(Report, String)} generates.
+   *
+   * @param index	the index of the object
+   * @return		the object
+   */
+  public LocatedObject toLocatedObject(int index) {
+    Map<String,Object>	meta;
+    Object		value;
+
+    meta = new HashMap<>();
+    meta.put(LocatedObjects.KEY_INDEX, m_Group[index]);
+    for (String key: m_MetaData.keySet()) {
+      value = m_MetaData.get(key)[index];
+      if (value != null)
+	meta.put(key, value);
+    }
+    if (hasPolygon(index)) {
+      meta.put(LocatedObject.KEY_POLY_X, Utils.flatten(StatUtils.toNumberArray(m_PolygonX[index]), ","));
+      meta.put(LocatedObject.KEY_POLY_Y, Utils.flatten(StatUtils.toNumberArray(m_PolygonY[index]), ","));
+    }
+
+    return new LocatedObject(null, m_X[index], m_Y[index], m_Width[index], m_Height[index], meta);
+  }
+
+  /**
+   * Creates located objects from the stored data.
+   *
+   * @return		the objects
+   */
+  public LocatedObjects toLocatedObjects() {
+    return toLocatedObjects(null);
+  }
+
+  /**
+   * Creates located objects from the stored data.
+   *
+   * @param filter	the filter to apply to the objects, ignored if null
+   * @return		the objects
+   */
+  public LocatedObjects toLocatedObjects(LocatedObjectFilter filter) {
+    LocatedObjects	result;
+    LocatedObject	obj;
+    int			i;
+
+    result = new LocatedObjects();
+    for (i = 0; i < m_Size; i++) {
+      obj = toLocatedObject(i);
+      if ((filter == null) || filter.accept(obj))
+	result.add(obj);
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds the field to the report.
+   *
+   * @param report	the report to add to
+   * @param name	the name of the field
+   * @param type	the type of the field
+   * @param value	the value
+   */
+  protected void addField(Report report, String name, DataType type, Object value) {
+    Field	field;
+
+    field = new Field(name, type);
+    report.addField(field);
+    report.setValue(field, value);
+  }
+
+  /**
+   * Turns the objects into report fields.
+   *
+   * @param prefix	the prefix for the fields
+   * @return		the report
+   */
+  @Override
+  public Report toReport(String prefix) {
+    Report	result;
+    String	group;
+    Object	value;
+    DataType	type;
+    int		i;
+
+    result = new Report();
+    for (i = 0; i < m_Size; i++) {
+      group = prefix + m_Group[i];
+      // meta-data
+      for (String key: m_MetaData.keySet()) {
+	value = m_MetaData.get(key)[i];
+	if (value == null)
+	  continue;
+	if (value instanceof Double)
+	  type = DataType.NUMERIC;
+	else if (value instanceof Boolean)
+	  type = DataType.BOOLEAN;
+	else if (value instanceof String)
+	  type = DataType.STRING;
+	else
+	  type = DataType.UNKNOWN;
+	addField(result, group + "." + key, type, value);
+      }
+      // bbox
+      addField(result, group + LocatedObjects.KEY_X, DataType.NUMERIC, m_X[i]);
+      addField(result, group + LocatedObjects.KEY_Y, DataType.NUMERIC, m_Y[i]);
+      if (m_HasSize[i]) {
+	addField(result, group + LocatedObjects.KEY_WIDTH, DataType.NUMERIC, m_Width[i]);
+	addField(result, group + LocatedObjects.KEY_HEIGHT, DataType.NUMERIC, m_Height[i]);
+      }
+      // polygon
+      if (hasPolygon(i)) {
+	addField(result, group + LocatedObjects.KEY_POLY_X, DataType.STRING, Utils.flatten(StatUtils.toNumberArray(m_PolygonX[i]), ","));
+	addField(result, group + LocatedObjects.KEY_POLY_Y, DataType.STRING, Utils.flatten(StatUtils.toNumberArray(m_PolygonY[i]), ","));
+      }
+    }
+    if (m_HasCount)
+      addField(result, prefix + LocatedObjects.KEY_COUNT, DataType.NUMERIC, m_Size);
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of the storage.
+   *
+   * @return		the copy
+   */
+  @Override
+  public ObjectAnnotationStore getClone() {
+    ObjectAnnotationStore	result;
+    int				i;
+
+    result          = new ObjectAnnotationStore(0, m_HasCount);
+    result.m_Size     = m_Size;
+    result.m_Group    = Arrays.copyOf(m_Group, m_Size);
+    result.m_X        = Arrays.copyOf(m_X, m_Size);
+    result.m_Y        = Arrays.copyOf(m_Y, m_Size);
+    result.m_Width    = Arrays.copyOf(m_Width, m_Size);
+    result.m_Height   = Arrays.copyOf(m_Height, m_Size);
+    result.m_HasSize  = Arrays.copyOf(m_HasSize, m_Size);
+    result.m_PolygonX = new int[m_Size][];
+    result.m_PolygonY = new int[m_Size][];
+    for (i = 0; i < m_Size; i++) {
+      if (hasPolygon(i)) {
+	result.m_PolygonX[i] = m_PolygonX[i].clone();
+	result.m_PolygonY[i] = m_PolygonY[i].clone();
+      }
+    }
+    for (String key: m_MetaData.keySet())
+      result.m_MetaData.put(key, Arrays.copyOf(m_MetaData.get(key), m_Size));
+
+    return result;
+  }
+
+  /**
+   * Returns a short description of the storage.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "#objects=" + m_Size + ", meta-data=" + m_MetaData.keySet();
+  }
+
+  /**
+   * Parses the objects from the report fields with the specified prefix,
+   * using the same rules as {@link LocatedObjects#fromReport(Report, String)}.
+   *
+   * @param report	the report to parse
+   * @param prefix	the prefix of the objects
+   * @return		the storage
+   */
+  public static ObjectAnnotationStore fromReport(Report report, String prefix) {
+    ObjectAnnotationStore		result;
+    Map<String,Map<String,Object>>	groups;
+    Map<String,Object>			fields;
+    String				name;
+    String				group;
+    String				key;
+    int					pos;
+    boolean				hasCount;
+    boolean				hasSize;
+    int					x;
+    int					y;
+    int					width;
+    int					height;
+
+    // group fields
+    groups   = new HashMap<>();
+    hasCount = false;
+    for (AbstractField field: report.getFields()) {
+      name = field.getName();
+      if (!name.startsWith(prefix))
+	continue;
+      pos = name.lastIndexOf('.');
+      if (pos <= prefix.length()) {
+	if (name.equals(prefix + LocatedObjects.KEY_COUNT))
+	  hasCount = true;
+	continue;
+      }
+      group  = name.substring(0, pos);
+      fields = groups.get(group);
+      if (fields == null) {
+	fields = new LinkedHashMap<>();
+	groups.put(group, fields);
+      }
+      fields.put(name.substring(pos + 1), report.getValue(field));
+    }
+
+    result = new ObjectAnnotationStore(groups.size(), hasCount);
+    for (String g: groups.keySet()) {
+      fields = groups.get(g);
+      if (!fields.containsKey("x") || !fields.containsKey("y"))
+	continue;
+      try {
+	hasSize = fields.containsKey("width") && fields.containsKey("height");
+	x       = toInt(fields.remove("x"));
+	y       = toInt(fields.remove("y"));
+	width   = 1;
+	height  = 1;
+	if (hasSize) {
+	  width  = toInt(fields.remove("width"));
+	  height = toInt(fields.remove("height"));
+	}
+	else {
+	  fields.remove("width");
+	  fields.remove("height");
+	}
+	result.add(g.substring(prefix.length()), x, y, width, height, hasSize, fields);
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the report value into an integer.
+   *
+   * @param value	the value to convert
+   * @return		the integer
+   * @throws Exception	if conversion fails
+   */
+  protected static int toInt(Object value) throws Exception {
+    if (value instanceof Number)
+      return ((Number) value).intValue();
+    return (int) Double.parseDouble("" + value);
+  }
+
+  /**
+   * Returns the objects stored in the container under the prefix. If the
+   * container has no typed annotations yet, they get parsed from the report
+   * once and attached to the container.
+   *
+   * @param cont	the container to get the objects from
+   * @param prefix	the prefix of the objects
+   * @return		the storage
+   */
+  public static ObjectAnnotationStore get(AbstractImageContainer cont, String prefix) {
+    ObjectAnnotationStore	result;
+
+    synchronized(cont) {
+      if (cont.getAnnotations(prefix) instanceof ObjectAnnotationStore)
+	return (ObjectAnnotationStore) cont.getAnnotations(prefix);
+      result = fromReport(cont.getReport(), prefix);
+      cont.setAnnotations(prefix, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Stores the objects in the container under the prefix, replacing any
+   * existing objects with that prefix.
+   *
+   * @param cont	the container to update
+   * @param prefix	the prefix of the objects
+   * @param objects	the objects to store
+   */
+  public static void set(AbstractImageContainer cont, String prefix, LocatedObjects objects) {
+    cont.setAnnotations(prefix, new ObjectAnnotationStore(objects));
+  }
+}
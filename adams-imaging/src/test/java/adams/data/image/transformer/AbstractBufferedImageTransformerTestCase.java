@@ -15,7 +15,7 @@
 
 /*
  * AbstractBufferedImageTransformerTestCase.java
- * Copyright (C) 2011-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.image.transformer;
 
@@ -36,8 +36,10 @@ import adams.test.AdamsTestCase;
 import adams.test.TestHelper;
 import adams.test.TmpFile;
 
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Ancestor for test cases tailored for adams transformers.
@@ -88,6 +90,44 @@ public abstract class AbstractBufferedImageTransformerTestCase
     return result;
   }
 
+  /**
+   * Generates an image with random pixels.
+   *
+   * @param width	the width of the image
+   * @param height	the height of the image
+   * @param type	the type of image, e.g., {@link BufferedImage#TYPE_INT_ARGB}
+   * @param seed	the seed for the random number generator
+   * @return		the image
+   */
+  protected BufferedImageContainer createImage(int width, int height, int type, long seed) {
+    BufferedImageContainer	result;
+    BufferedImage		img;
+    Random			rnd;
+    int				x;
+    int				y;
+
+    rnd = new Random(seed);
+    img = new BufferedImage(width, height, type);
+    for (y = 0; y < height; y++) {
+      for (x = 0; x < width; x++)
+	img.setRGB(x, y, rnd.nextInt());
+    }
+    result = new BufferedImageContainer();
+    result.setImage(img);
+
+    return result;
+  }
+
+  /**
+   * Returns the pixels of the image as ARGB values.
+   *
+   * @param img		the image to get the pixels from
+   * @return		the pixels (row-wise)
+   */
+  protected int[] getPixels(BufferedImage img) {
+    return img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
+  }
+
   /**
    * Processes the input data and returns the processed data.
    *
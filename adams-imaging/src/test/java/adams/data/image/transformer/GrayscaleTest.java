@@ -0,0 +1,164 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * GrayscaleTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image.transformer;
+
+import adams.data.image.BufferedImageContainer;
+import adams.data.image.BufferedImageHelper;
+import adams.data.image.luminance.BT709;
+import adams.env.Environment;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Test class for the Grayscale transformer. Run from the command line with: <br><br>
+ * java adams.data.image.transformer.GrayscaleTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class GrayscaleTest
+  extends AbstractBufferedImageTransformerTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public GrayscaleTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Converts the image the way the transformer did before processing tiles,
+   * pixel by pixel.
+   *
+   * @param orig	the image to convert
+   * @param luminance	the luminance parameters
+   * @return		the converted image
+   */
+  protected BufferedImage legacy(BufferedImage orig, double[] luminance) {
+    BufferedImage 	gray;
+    int			x;
+    int			y;
+    int 		rgbOrig;
+    int			rgbGray;
+
+    gray = new BufferedImage(orig.getWidth(), orig.getHeight(), BufferedImage.TYPE_INT_RGB);
+    for (x = 0; x < orig.getWidth(); x++) {
+      for (y = 0; y < orig.getHeight(); y++) {
+	rgbOrig = orig.getRGB(x, y);
+	rgbGray = (int)(((rgbOrig & 0xFF0000) >>> 16) * luminance[0] + ((rgbOrig & 0xFF00) >>> 8) * luminance[1] + (rgbOrig & 0xFF) * luminance[2]);
+	gray.setRGB(x, y, (rgbGray << 16) + (rgbGray << 8) + rgbGray);
+      }
+    }
+
+    return gray;
+  }
+
+  /**
+   * Compares the tiled output against the pixel-by-pixel conversion, using
+   * image sizes that are not a multiple of the tile size.
+   */
+  public void testLegacy() {
+    BufferedImageContainer	cont;
+    BufferedImageContainer[]	output;
+    BufferedImage		expected;
+    Grayscale			scheme;
+    int[][]			sizes;
+
+    sizes = new int[][]{{61, 37}, {16, 16}, {1, 50}, {50, 1}};
+    for (int type: new int[]{BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR}) {
+      for (int[] size: sizes) {
+	for (int numThreads: new int[]{1, 4}) {
+	  cont   = createImage(size[0], size[1], type, 42);
+	  scheme = new Grayscale();
+	  scheme.setTileSize(16);
+	  scheme.setNumThreads(numThreads);
+	  // the transformer works on a copy of the image
+	  expected = legacy(BufferedImageHelper.deepCopy(cont.getImage()), scheme.getLuminance().getParameters());
+	  output   = scheme.transform(cont);
+	  scheme.cleanUp();
+	  assertEquals("# of images differ", 1, output.length);
+	  assertEquals("image type differs", BufferedImage.TYPE_INT_RGB, output[0].getImage().getType());
+	  assertEqualsArrays(
+	    "pixels differ: type=" + type + ", size=" + size[0] + "x" + size[1] + ", threads=" + numThreads,
+	    getPixels(expected), getPixels(output[0].getImage()));
+	}
+      }
+    }
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"ColorChecker100423.jpg",
+	"adams_icon.png",
+	"ColorChecker100423.jpg",
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractBufferedImageTransformer[] getRegressionSetups() {
+    Grayscale[]	result;
+
+    result    = new Grayscale[3];
+    result[0] = new Grayscale();
+    result[1] = new Grayscale();
+    result[1].setTileSize(7);
+    result[2] = new Grayscale();
+    result[2].setLuminance(new BT709());
+    result[2].setTileSize(100);
+    result[2].setNumThreads(2);
+
+    return result;
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(GrayscaleTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocalMedianFilterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.image.transformer;
+
+import adams.data.image.BufferedImageContainer;
+import adams.data.image.BufferedImageHelper;
+import adams.env.Environment;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Test class for the LocalMedianFilter transformer. Run from the command line with: <br><br>
+ * java adams.data.image.transformer.LocalMedianFilterTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LocalMedianFilterTest
+  extends AbstractBufferedImageTransformerTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public LocalMedianFilterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Filters the image the way the transformer did before processing tiles,
+   * pixel by pixel. The alpha channel of the filtered pixels is 0.
+   *
+   * @param image	the image to filter in-place
+   */
+  protected void legacy(BufferedImage image) {
+    BufferedImage	copy;
+    int[]		pixels;
+    int[]		r;
+    int[]		g;
+    int[]		b;
+    int[]		channels;
+    int			h;
+    int			w;
+    int			x;
+    int			y;
+    int			i;
+    int			k;
+
+    pixels = new int[9];
+    r      = new int[9];
+    g      = new int[9];
+    b      = new int[9];
+    copy   = BufferedImageHelper.deepCopy(image);
+    for (h = 1; h < image.getHeight() - 1; h++) {
+      for (w = 1; w < image.getWidth() - 1; w++) {
+	k = 0;
+	for (x = -1; x < 2; x++) {
+	  for (y = -1; y < 2; y++) {
+	    pixels[k] = copy.getRGB(w + x, h + y);
+	    k++;
+	  }
+	}
+	for (i = 0; i < pixels.length; i++) {
+	  channels = BufferedImageHelper.split(pixels[i]);
+	  r[i]     = channels[0];
+	  g[i]     = channels[1];
+	  b[i]     = channels[2];
+	}
+	Arrays.sort(r);
+	Arrays.sort(g);
+	Arrays.sort(b);
+	image.setRGB(w, h, BufferedImageHelper.combine(r[LocalMedianFilter.K], g[LocalMedianFilter.K], b[LocalMedianFilter.K], 0));
+      }
+    }
+  }
+
+  /**
+   * Compares the tiled output against the pixel-by-pixel filtering, using
+   * image sizes that are not a multiple of the tile size. The alpha channel
+   * gets ignored, as the legacy filter made ARGB images transparent.
+   */
+  public void testLegacy() {
+    BufferedImageContainer	cont;
+    BufferedImageContainer[]	output;
+    BufferedImage		expected;
+    LocalMedianFilter		scheme;
+    int[][]			sizes;
+    int[]			expPixels;
+    int[]			actPixels;
+    int				i;
+
+    sizes = new int[][]{{61, 37}, {18, 18}, {3, 50}, {50, 2}};
+    for (int type: new int[]{BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR}) {
+      for (int[] size: sizes) {
+	for (int numThreads: new int[]{1, 4}) {
+	  cont     = createImage(size[0], size[1], type, 42);
+	  // the transformer works on a copy of the image
+	  expected = BufferedImageHelper.deepCopy(cont.getImage());
+	  legacy(expected);
+	  scheme = new LocalMedianFilter();
+	  scheme.setTileSize(16);
+	  scheme.setNumThreads(numThreads);
+	  output = scheme.transform(cont);
+	  scheme.cleanUp();
+	  assertEquals("# of images differ", 1, output.length);
+	  assertEquals("image type differs", type, output[0].getImage().getType());
+	  expPixels = getPixels(expected);
+	  actPixels = getPixels(output[0].getImage());
+	  for (i = 0; i < expPixels.length; i++) {
+	    expPixels[i] &= 0x00FFFFFF;
+	    actPixels[i] &= 0x00FFFFFF;
+	  }
+	  assertEqualsArrays(
+	    "pixels differ: type=" + type + ", size=" + size[0] + "x" + size[1] + ", threads=" + numThreads,
+	    expPixels, actPixels);
+	}
+      }
+    }
+  }
+
+  /**
+   * Tests that the alpha channel gets filtered like the other channels,
+   * rather than being set to 0.
+   */
+  public void testAlpha() {
+    BufferedImageContainer	cont;
+    BufferedImageContainer[]	output;
+    BufferedImage		input;
+    BufferedImage		filtered;
+    LocalMedianFilter		scheme;
+    int[]			alpha;
+    int				x;
+    int				y;
+    int				dx;
+    int				dy;
+    int				k;
+
+    // opaque images stay opaque
+    cont   = createImage(40, 30, BufferedImage.TYPE_INT_ARGB, 1);
+    input  = cont.getImage();
+    for (y = 0; y < input.getHeight(); y++) {
+      for (x = 0; x < input.getWidth(); x++)
+	input.setRGB(x, y, input.getRGB(x, y) | 0xFF000000);
+    }
+    scheme = new LocalMedianFilter();
+    scheme.setTileSize(16);
+    output = scheme.transform(cont);
+    for (int pixel: getPixels(output[0].getImage()))
+      assertEquals("not opaque", 0xFF, (pixel >>> 24));
+
+    // median of alpha, border pixels unchanged
+    cont   = createImage(40, 30, BufferedImage.TYPE_INT_ARGB, 2);
+    // the transformer works on a copy of the image
+    input  = BufferedImageHelper.deepCopy(cont.getImage());
+    output = scheme.transform(cont);
+    scheme.cleanUp();
+    filtered = output[0].getImage();
+    alpha    = new int[9];
+    for (y = 0; y < input.getHeight(); y++) {
+      for (x = 0; x < input.getWidth(); x++) {
+	if ((x == 0) || (y == 0) || (x == input.getWidth() - 1) || (y == input.getHeight() - 1)) {
+	  assertEquals("border pixel changed: " + x + "/" + y, input.getRGB(x, y), filtered.getRGB(x, y));
+	  continue;
+	}
+	k = 0;
+	for (dy = -1; dy < 2; dy++) {
+	  for (dx = -1; dx < 2; dx++)
+	    alpha[k++] = input.getRGB(x + dx, y + dy) >>> 24;
+	}
+	Arrays.sort(alpha);
+	assertEquals("alpha differs: " + x + "/" + y, alpha[LocalMedianFilter.K], filtered.getRGB(x, y) >>> 24);
+      }
+    }
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"ColorChecker100423.jpg",
+	"adams_icon.png",
+	"ColorChecker100423.jpg",
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractBufferedImageTransformer[] getRegressionSetups() {
+    LocalMedianFilter[]	result;
+
+    result    = new LocalMedianFilter[3];
+    result[0] = new LocalMedianFilter();
+    result[1] = new LocalMedianFilter();
+    result[1].setTileSize(7);
+    result[2] = new LocalMedianFilter();
+    result[2].setTileSize(100);
+    result[2].setNumThreads(2);
+
+    return result;
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(LocalMedianFilterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
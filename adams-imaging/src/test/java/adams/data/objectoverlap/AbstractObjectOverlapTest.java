@@ -0,0 +1,198 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractObjectOverlapTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.objectoverlap;
+
+import adams.env.Environment;
+import adams.flow.transformer.locateobjects.LocatedObject;
+import adams.flow.transformer.locateobjects.LocatedObjects;
+import adams.test.AdamsTestCase;
+import com.github.fracpete.javautils.struct.Struct2;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests the score calculation of {@link AbstractObjectOverlap}, i.e., that
+ * pruning via the spatial index and parallel processing yield the same
+ * results as scoring all pairs.
+ * Run from commandline with: <br><br>
+ * java adams.data.objectoverlap.AbstractObjectOverlapTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class AbstractObjectOverlapTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public AbstractObjectOverlapTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates random objects.
+   *
+   * @param num		the number of objects
+   * @param seed	the seed for the random number generator
+   * @return		the objects
+   */
+  protected LocatedObjects generate(int num, long seed) {
+    LocatedObjects	result;
+    Random		rnd;
+    int			i;
+
+    result = new LocatedObjects();
+    rnd    = new Random(seed);
+    for (i = 0; i < num; i++)
+      result.add(new LocatedObject(rnd.nextInt(800), rnd.nextInt(800), 10 + rnd.nextInt(40), 10 + rnd.nextInt(40)));
+
+    return result;
+  }
+
+  /**
+   * Calculates the scores.
+   *
+   * @param overlap	the scheme to use
+   * @param annotations	the annotations
+   * @param predictions	the predictions
+   * @param prune	whether to prune via the spatial index
+   * @param numThreads	the number of threads
+   * @return		the candidates and scores
+   */
+  protected Struct2<int[][],double[][]> calculate(AbstractObjectOverlap overlap, LocatedObjects annotations, LocatedObjects predictions, boolean prune, int numThreads) {
+    overlap.setNumThreads(numThreads);
+    return overlap.calculateScores(annotations, predictions, LocatedObject::overlapRatio, prune);
+  }
+
+  /**
+   * Checks that the pruned candidates contain all pairs with a score above 0
+   * and that the scores agree with the full scan.
+   *
+   * @param full	the scores of the full scan
+   * @param pruned	the scores after pruning
+   */
+  protected void assertPrunedMatchesFull(Struct2<int[][],double[][]> full, Struct2<int[][],double[][]> pruned) {
+    Map<Integer,Double>	prunedScores;
+    int			i;
+    int			n;
+
+    assertEquals("# annotations", full.value1.length, pruned.value1.length);
+    for (i = 0; i < full.value1.length; i++) {
+      prunedScores = new HashMap<>();
+      for (n = 0; n < pruned.value1[i].length; n++)
+	prunedScores.put(pruned.value1[i][n], pruned.value2[i][n]);
+      for (n = 0; n < full.value1[i].length; n++) {
+	if (prunedScores.containsKey(full.value1[i][n]))
+	  assertEquals("score " + i + "/" + full.value1[i][n], full.value2[i][n], prunedScores.remove(full.value1[i][n]), 0.0);
+	else
+	  assertEquals("pruned pair " + i + "/" + full.value1[i][n], 0.0, full.value2[i][n], 0.0);
+      }
+      assertTrue("candidates not in full scan: " + prunedScores.keySet(), prunedScores.isEmpty());
+    }
+  }
+
+  /**
+   * Tests pruning serially (below {@link AbstractObjectOverlap#MIN_PARALLEL_SIZE}).
+   */
+  public void testPruningSerial() {
+    LocatedObjects		annotations;
+    LocatedObjects		predictions;
+    IntersectOverUnionRatio	overlap;
+
+    annotations = generate(AbstractObjectOverlap.MIN_PARALLEL_SIZE / 2, 1);
+    predictions = generate(200, 2);
+    overlap     = new IntersectOverUnionRatio();
+    assertPrunedMatchesFull(
+      calculate(overlap, annotations, predictions, false, 1),
+      calculate(overlap, annotations, predictions, true, 1));
+  }
+
+  /**
+   * Tests pruning in parallel (above {@link AbstractObjectOverlap#MIN_PARALLEL_SIZE})
+   * against the full scan and the serial calculation.
+   */
+  public void testPruningParallel() {
+    LocatedObjects		annotations;
+    LocatedObjects		predictions;
+    IntersectOverUnionRatio	overlap;
+    Struct2<int[][],double[][]>	serial;
+    Struct2<int[][],double[][]>	parallel;
+
+    annotations = generate(AbstractObjectOverlap.MIN_PARALLEL_SIZE * 5, 3);
+    predictions = generate(600, 4);
+    overlap     = new IntersectOverUnionRatio();
+    serial      = calculate(overlap, annotations, predictions, true, 1);
+    parallel    = calculate(overlap, annotations, predictions, true, 4);
+    assertPrunedMatchesFull(calculate(overlap, annotations, predictions, false, 4), parallel);
+    assertTrue("candidates differ", Arrays.deepEquals(serial.value1, parallel.value1));
+    assertTrue("scores differ", Arrays.deepEquals(serial.value2, parallel.value2));
+  }
+
+  /**
+   * Tests that identical objects get skipped if required.
+   */
+  public void testExcludeIdentical() {
+    LocatedObjects		annotations;
+    LocatedObjects		predictions;
+    IntersectOverUnionRatio	overlap;
+    Struct2<int[][],double[][]>	full;
+    Struct2<int[][],double[][]>	pruned;
+    int				i;
+
+    annotations = generate(150, 5);
+    predictions = new LocatedObjects(annotations);
+    overlap     = new IntersectOverUnionRatio();
+    overlap.setExcludeIdentical(true);
+    full   = calculate(overlap, annotations, predictions, false, 1);
+    pruned = calculate(overlap, annotations, predictions, true, 4);
+    assertPrunedMatchesFull(full, pruned);
+    for (i = 0; i < annotations.size(); i++) {
+      for (int index: pruned.value1[i])
+	assertFalse("identical object " + i, annotations.get(i).equals(predictions.get(index)));
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(AbstractObjectOverlapTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
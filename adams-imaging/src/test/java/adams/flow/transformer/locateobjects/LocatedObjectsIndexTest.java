@@ -0,0 +1,210 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LocatedObjectsIndexTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer.locateobjects;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import gnu.trove.list.array.TIntArrayList;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the {@link LocatedObjectsIndex} class.
+ * Run from commandline with: <br><br>
+ * java adams.flow.transformer.locateobjects.LocatedObjectsIndexTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LocatedObjectsIndexTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public LocatedObjectsIndexTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the positions of the objects overlapping the region, by checking
+   * all the objects.
+   *
+   * @param objects	the objects to check
+   * @param region	the region (minX, minY, maxX, maxY, all inclusive)
+   * @return		the positions
+   */
+  protected int[] scan(List<LocatedObject> objects, int[] region) {
+    TIntArrayList	result;
+    int			i;
+
+    result = new TIntArrayList();
+    for (i = 0; i < objects.size(); i++) {
+      if (LocatedObjectsIndex.overlaps(region, LocatedObjectsIndex.envelope(objects.get(i))))
+	result.add(i);
+    }
+
+    return result.toArray();
+  }
+
+  /**
+   * Generates random objects of similar size, some with polygons that
+   * extend beyond their bounding box, plus a few very large ones.
+   *
+   * @param num		the number of objects
+   * @return		the objects
+   */
+  protected List<LocatedObject> generate(int num) {
+    List<LocatedObject>	result;
+    Random		rnd;
+    LocatedObject	obj;
+    int			i;
+    int			x;
+    int			y;
+
+    result = new ArrayList<>();
+    rnd    = new Random(42);
+    for (i = 0; i < num; i++) {
+      x   = rnd.nextInt(1000);
+      y   = rnd.nextInt(1000);
+      obj = new LocatedObject(x, y, 5 + rnd.nextInt(30), 5 + rnd.nextInt(30));
+      if (i % 5 == 0)
+	obj.setPolygon(new Polygon(new int[]{x - 20, x + 10, x + 50}, new int[]{y, y - 15, y + 40}, 3));
+      result.add(obj);
+      if (i % 100 == 0)
+	result.add(new LocatedObject(rnd.nextInt(500), rnd.nextInt(500), 400 + rnd.nextInt(200), 400 + rnd.nextInt(200)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Tests the envelope of objects with and without polygon.
+   */
+  public void testEnvelope() {
+    LocatedObject	obj;
+
+    obj = new LocatedObject(10, 20, 5, 6);
+    assertEquals("bbox", "[10, 20, 15, 26]", Arrays.toString(LocatedObjectsIndex.envelope(obj)));
+    obj.setPolygon(new Polygon(new int[]{5, 12, 30}, new int[]{22, 40, 21}, 3));
+    assertEquals("polygon", "[5, 20, 30, 40]", Arrays.toString(LocatedObjectsIndex.envelope(obj)));
+  }
+
+  /**
+   * Tests objects spanning several cells, polygon envelopes and large objects.
+   */
+  public void testQuery() {
+    List<LocatedObject>		objects;
+    LocatedObjectsIndex		index;
+    LocatedObject		poly;
+    LocatedObject		large;
+    int				i;
+
+    objects = new ArrayList<>();
+    objects.add(new LocatedObject(0, 0, 10, 10));
+    objects.add(new LocatedObject(100, 100, 10, 10));
+    // spans several cells
+    objects.add(new LocatedObject(20, 0, 35, 10));
+    // polygon extends beyond bounding box
+    poly = new LocatedObject(200, 200, 10, 10);
+    poly.setPolygon(new Polygon(new int[]{200, 240, 210}, new int[]{200, 205, 240}, 3));
+    objects.add(poly);
+    // covers too many cells
+    large = new LocatedObject(0, 300, 1000, 1000);
+    objects.add(large);
+    // tiny objects, for a small cell size
+    for (i = 0; i < 20; i++)
+      objects.add(new LocatedObject(600 + i * 3, 100, 1, 1));
+    index = new LocatedObjectsIndex(objects);
+    assertTrue("cell size", index.m_CellSize < 55);
+
+    assertEquals("large objects", 1, index.m_Large.size());
+    assertEquals("large object", 4, index.m_Large.get(0));
+    assertEquals("corner", "[0]", Arrays.toString(index.query(5, 5, 5, 5)));
+    assertEquals("border", "[0]", Arrays.toString(index.query(10, 10, 12, 12)));
+    assertEquals("cell-spanning", "[2]", Arrays.toString(index.query(50, 5, 51, 6)));
+    assertEquals("cell-spanning and corner", "[0, 2]", Arrays.toString(index.query(0, 0, 60, 1)));
+    assertEquals("polygon", "[3]", Arrays.toString(index.query(235, 204, 236, 205)));
+    assertEquals("large", "[4]", Arrays.toString(index.query(900, 900, 901, 901)));
+    assertEquals("empty", "[]", Arrays.toString(index.query(500, 0, 510, 10)));
+    assertEquals("object", "[1]", Arrays.toString(index.query(objects.get(1))));
+    assertEquals("tiny", "[5, 6]", Arrays.toString(index.query(601, 100, 603, 100)));
+    assertEquals("everything", objects.size(), index.query(-10, -10, 2000, 2000).length);
+  }
+
+  /**
+   * Compares the query results with checking all objects.
+   */
+  public void testQueryAgainstScan() {
+    List<LocatedObject>		objects;
+    LocatedObjectsIndex		index;
+    Random			rnd;
+    int[]			region;
+    int				i;
+    int				x;
+    int				y;
+
+    objects = generate(2000);
+    index   = new LocatedObjectsIndex(objects);
+    assertTrue("large objects", index.m_Large.size() > 0);
+    rnd = new Random(1);
+    for (i = 0; i < 500; i++) {
+      x      = rnd.nextInt(1100) - 50;
+      y      = rnd.nextInt(1100) - 50;
+      region = new int[]{x, y, x + rnd.nextInt(80), y + rnd.nextInt(80)};
+      assertEquals("region " + Arrays.toString(region),
+	Arrays.toString(scan(objects, region)),
+	Arrays.toString(index.query(region[0], region[1], region[2], region[3])));
+    }
+    for (i = 0; i < objects.size(); i += 7) {
+      region = LocatedObjectsIndex.envelope(objects.get(i));
+      assertEquals("object " + i,
+	Arrays.toString(scan(objects, region)),
+	Arrays.toString(index.query(objects.get(i))));
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(LocatedObjectsIndexTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
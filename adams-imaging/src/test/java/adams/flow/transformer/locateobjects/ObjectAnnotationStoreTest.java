@@ -0,0 +1,229 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ObjectAnnotationStoreTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer.locateobjects;
+
+import adams.core.classmanager.ClassManager;
+import adams.data.image.BufferedImageContainer;
+import adams.data.report.Report;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.awt.Polygon;
+
+/**
+ * Tests the {@link ObjectAnnotationStore} class.
+ * Run from commandline with: <br><br>
+ * java adams.flow.transformer.locateobjects.ObjectAnnotationStoreTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ObjectAnnotationStoreTest
+  extends AdamsTestCase {
+
+  /**
+   * Initializes the test.
+   *
+   * @param name	the name of the test
+   */
+  public ObjectAnnotationStoreTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates a report with three objects, one of them with a polygon.
+   *
+   * @return		the report
+   */
+  protected Report generate() {
+    Report	result;
+
+    result = new Report();
+    result.setStringValue("Sample ID", "img1");
+    result.setNumericValue("Object.1.x", 10);
+    result.setNumericValue("Object.1.y", 20);
+    result.setNumericValue("Object.1.width", 30);
+    result.setNumericValue("Object.1.height", 40);
+    result.setStringValue("Object.1.type", "cat");
+    result.setNumericValue("Object.2.x", 5);
+    result.setNumericValue("Object.2.y", 6);
+    result.setNumericValue("Object.2.width", 7);
+    result.setNumericValue("Object.2.height", 8);
+    result.setNumericValue("Object.2.score", 0.75);
+    result.setStringValue("Object.2.poly_x", "5,12,12,5");
+    result.setStringValue("Object.2.poly_y", "6,6,14,14");
+    result.setNumericValue("Object.3.x", 100);
+    result.setNumericValue("Object.3.y", 200);
+    result.setNumericValue("Object.count", 3);
+
+    return result;
+  }
+
+  /**
+   * Returns the position of the object with the specified index (the order
+   * of the objects is not defined).
+   *
+   * @param store	the store to search
+   * @param index	the index string of the object
+   * @return		the position, -1 if not found
+   */
+  protected int find(ObjectAnnotationStore store, String index) {
+    int		i;
+
+    for (i = 0; i < store.size(); i++) {
+      if (store.getIndexString(i).equals(index))
+	return i;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Tests parsing the report and turning the store back into a report.
+   */
+  public void testReportRoundTrip() {
+    Report			report;
+    ObjectAnnotationStore	store;
+    Report			restored;
+
+    report = generate();
+    store  = ObjectAnnotationStore.fromReport(report, LocatedObjects.DEFAULT_PREFIX);
+    assertEquals("# objects differ", 3, store.size());
+    assertEquals("x differs", 10, store.getX(find(store, "1")));
+    assertEquals("height differs", 40, store.getHeight(find(store, "1")));
+    assertEquals("meta-data differs", "cat", store.getMetaData(find(store, "1"), "type"));
+    assertTrue("polygon missing", store.hasPolygon(find(store, "2")));
+    assertEquals("# polygon points differ", 4, store.getPolygonX(find(store, "2")).length);
+    assertEquals("polygon differs", 12, store.getPolygonX(find(store, "2"))[1]);
+    assertEquals("width differs", 1, store.getWidth(find(store, "3")));
+
+    restored = store.toReport(LocatedObjects.DEFAULT_PREFIX);
+    assertEquals("x differs", 5.0, restored.getDoubleValue("Object.2.x"));
+    assertEquals("score differs", 0.75, restored.getDoubleValue("Object.2.score"));
+    assertEquals("type differs", "cat", restored.getStringValue("Object.1.type"));
+    assertEquals("poly_x differs", "5,12,12,5", restored.getStringValue("Object.2.poly_x"));
+    assertEquals("count differs", 3.0, restored.getDoubleValue("Object.count"));
+    assertFalse("width should be absent", restored.hasValue("Object.3.width"));
+  }
+
+  /**
+   * Tests that the located objects are the same as the ones obtained from
+   * the report.
+   */
+  public void testLocatedObjects() {
+    Report		report;
+    LocatedObjects	expected;
+    LocatedObjects	actual;
+    int			i;
+
+    report   = generate();
+    expected = LocatedObjects.fromReport(report, LocatedObjects.DEFAULT_PREFIX);
+    actual   = ObjectAnnotationStore.fromReport(report, LocatedObjects.DEFAULT_PREFIX).toLocatedObjects();
+    assertEquals("# objects differ", expected.size(), actual.size());
+    for (i = 0; i < expected.size(); i++) {
+      assertEquals("rectangle differs: " + i, expected.get(i).getRectangle(), actual.get(i).getRectangle());
+      assertEquals("index differs: " + i, expected.get(i).getIndexString(), actual.get(i).getIndexString());
+      assertEquals("polygon differs: " + i, expected.get(i).hasPolygon(), actual.get(i).hasPolygon());
+    }
+  }
+
+  /**
+   * Tests attaching the store to an image container and the lazy report view.
+   */
+  public void testContainer() {
+    BufferedImageContainer	cont;
+    LocatedObjects		objects;
+    Report			report;
+
+    cont = new BufferedImageContainer();
+    cont.setReport(generate());
+    objects = LocatedObjects.fromContainer(cont, LocatedObjects.DEFAULT_PREFIX);
+    assertEquals("# objects differ", 3, objects.size());
+    assertTrue("store not attached", cont.hasAnnotations(LocatedObjects.DEFAULT_PREFIX));
+
+    objects.remove(0);
+    objects.add(new LocatedObject(new Polygon(new int[]{1, 4, 4}, new int[]{1, 1, 4}, 3)));
+    objects.toContainer(cont, LocatedObjects.DEFAULT_PREFIX);
+    assertTrue("store not attached", cont.hasAnnotations(LocatedObjects.DEFAULT_PREFIX));
+
+    report = cont.getReport();
+    assertTrue("store not attached", cont.hasAnnotations(LocatedObjects.DEFAULT_PREFIX));
+    assertEquals("sample ID differs", "img1", report.getStringValue("Sample ID"));
+    assertEquals("# objects differ", 3, LocatedObjects.fromReport(report, LocatedObjects.DEFAULT_PREFIX).size());
+  }
+
+  /**
+   * Tests that the store stays attached after report access and only gets
+   * discarded when its fields get modified in the report.
+   */
+  public void testContainerReportModified() {
+    BufferedImageContainer	cont;
+    ObjectAnnotationStore	store;
+    Report			report;
+
+    cont = new BufferedImageContainer();
+    cont.setReport(generate());
+    store = ObjectAnnotationStore.get(cont, LocatedObjects.DEFAULT_PREFIX);
+
+    // reading or modifying unrelated fields keeps the store
+    report = cont.getReport();
+    assertEquals("x differs", 10.0, report.getDoubleValue("Object.1.x"));
+    report.setStringValue("Sample ID", "img2");
+    assertSame("store not reused", store, ObjectAnnotationStore.get(cont, LocatedObjects.DEFAULT_PREFIX));
+    assertEquals("sample ID differs", "img2", cont.getReport().getStringValue("Sample ID"));
+
+    // modifying an object field makes the report take precedence
+    cont.getReport().setNumericValue("Object.1.x", 11);
+    assertFalse("store still attached", cont.hasAnnotations(LocatedObjects.DEFAULT_PREFIX));
+    store = ObjectAnnotationStore.get(cont, LocatedObjects.DEFAULT_PREFIX);
+    assertEquals("x differs", 11, store.getX(find(store, "1")));
+    assertEquals("x differs", 11.0, cont.getReport().getDoubleValue("Object.1.x"));
+    assertEquals("# objects differ", 3, LocatedObjects.fromReport(cont.getReport(), LocatedObjects.DEFAULT_PREFIX).size());
+  }
+
+  /**
+   * Tests the serialization of the store (no default constructor).
+   */
+  @Override
+  public void testSerializable() {
+    assertNotNull("Serialization failed", ClassManager.getSingleton().deepCopy(ObjectAnnotationStore.fromReport(generate(), LocatedObjects.DEFAULT_PREFIX)));
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ObjectAnnotationStoreTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -15,14 +15,16 @@
 
 /*
  * AbstractDoubleArrayColumnStatistic.java
- * Copyright (C) 2013-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spreadsheet.colstatistic;
 
-import gnu.trove.list.array.TDoubleArrayList;
+import adams.data.spreadsheet.ColumnarSpreadSheet;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
+import adams.data.statistics.StreamingStatistics;
+import gnu.trove.list.array.TDoubleArrayList;
 
 /**
  * Ancestor for statistics that just use all numeric values in the column.
@@ -36,9 +38,22 @@ public abstract class AbstractDoubleArrayColumnStatistic
   /** for serialization. */
   private static final long serialVersionUID = 9076465449580989452L;
   
-  /** for calculating the stats. */
+  /** for calculating the stats, null if {@link #requiresValues()} returns false. */
   protected TDoubleArrayList m_Values;
 
+  /** the single-pass statistics of the values. */
+  protected StreamingStatistics m_Statistics;
+
+  /**
+   * Returns whether the statistic requires all the values (e.g., for
+   * order statistics) or whether {@link #m_Statistics} is sufficient.
+   *
+   * @return		true if values need to be collected in {@link #m_Values}
+   */
+  protected boolean requiresValues() {
+    return true;
+  }
+
   /**
    * Performs initialization before the cells are being visited.
    * 
@@ -47,7 +62,8 @@ public abstract class AbstractDoubleArrayColumnStatistic
    */
   @Override
   protected void preVisit(SpreadSheet sheet, int colIndex) {
-    m_Values = new TDoubleArrayList();
+    m_Values     = requiresValues() ? new TDoubleArrayList() : null;
+    m_Statistics = new StreamingStatistics();
   }
 
   /**
@@ -58,7 +74,37 @@ public abstract class AbstractDoubleArrayColumnStatistic
    */
   @Override
   protected void doVisit(Row row, int colIndex) {
-    if (row.hasCell(colIndex) && row.getCell(colIndex).isNumeric())
-      m_Values.add(row.getCell(colIndex).toDouble());
+    double	value;
+
+    if (row.hasCell(colIndex) && row.getCell(colIndex).isNumeric()) {
+      value = row.getCell(colIndex).toDouble();
+      m_Statistics.add(value);
+      if (m_Values != null)
+	m_Values.add(value);
+    }
+  }
+
+  /**
+   * Performs the actual generation of statistics for the specified
+   * spreadsheet column. Obtains the values of {@link ColumnarSpreadSheet}
+   * directly from the column storage.
+   *
+   * @param sheet	the spreadsheet to generate the stats for
+   * @param colIndex	the column index
+   * @return		the generated statistics, null in case of an error
+   */
+  @Override
+  protected SpreadSheet doGenerate(SpreadSheet sheet, int colIndex) {
+    if (!(sheet instanceof ColumnarSpreadSheet))
+      return super.doGenerate(sheet, colIndex);
+
+    double[]	values;
+
+    values = ((ColumnarSpreadSheet) sheet).getNumericValues(colIndex);
+    preVisit(sheet, colIndex);
+    m_Statistics.addAll(values);
+    if (m_Values != null)
+      m_Values.addAll(values);
+    return postVisit(sheet, colIndex);
   }
 }
@@ -15,14 +15,13 @@
 
 /*
  * Mean.java
- * Copyright (C) 2013-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spreadsheet.colstatistic;
 
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
-import adams.data.statistics.StatUtils;
 
 /**
  <!-- globalinfo-start -->
@@ -57,6 +56,16 @@ public class Mean
     return "Calculates the mean for a numeric column.";
   }
 
+  /**
+   * Returns whether the statistic requires all the values.
+   *
+   * @return		false, uses the single-pass statistics
+   */
+  @Override
+  protected boolean requiresValues() {
+    return false;
+  }
+
   /**
    * Finishes up the stats generation after all the cells have been visited.
    * 
@@ -73,9 +82,9 @@ public class Mean
 
     row = result.addRow();
     row.addCell(0).setContent("Mean");
-    row.addCell(1).setContent(StatUtils.mean(m_Values.toArray()));
+    row.addCell(1).setContent(m_Statistics.getMean());
 
-    m_Values = null;
+    m_Statistics = null;
     
     return result;
   }
@@ -15,13 +15,14 @@
 
 /*
  * Percentile.java
- * Copyright (C) 2018 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.spreadsheet.colstatistic;
 
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
+import adams.data.statistics.StatUtils;
 
 /**
  <!-- globalinfo-start -->
@@ -113,20 +114,17 @@ public class Percentile
    */
   @Override
   protected SpreadSheet postVisit(SpreadSheet sheet, int colIndex) {
-    SpreadSheet					result;
-    Row 					row;
-    adams.data.statistics.Percentile<Double> 	perc;
-    int						i;
+    SpreadSheet		result;
+    Row 		row;
 
     result = createOutputHeader();
 
-    perc = new adams.data.statistics.Percentile<>();
-    for (i = 0; i < m_Values.size(); i++)
-      perc.add(m_Values.get(i));
-
     row = result.addRow();
     row.addCell(0).setContent("Percentile (" + m_Percentile + ")");
-    row.addCell(1).setContent(perc.getPercentile(m_Percentile));
+    if (m_Values.isEmpty())
+      row.addCell(1).setContent((Double) null);
+    else
+      row.addCell(1).setContent(StatUtils.percentile(m_Values.toArray(), m_Percentile));
 
     m_Values = null;
 
@@ -15,7 +15,7 @@
 
 /*
  * SignalToNoiseRatio.java
- * Copyright (C) 2013-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spreadsheet.colstatistic;
@@ -103,7 +103,8 @@ public class SignalToNoiseRatio
     row.addCell(0).setContent("SNR");
     row.addCell(1).setContent(StatUtils.signalToNoiseRatio(m_Values.toArray()));
 
-    m_Values = null;
+    m_Values     = null;
+    m_Statistics = null;
     
     return result;
   }
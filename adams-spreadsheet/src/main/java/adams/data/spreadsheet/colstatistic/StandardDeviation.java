@@ -15,7 +15,7 @@
 
 /*
  * StandardDeviation.java
- * Copyright (C) 2013-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spreadsheet.colstatistic;
@@ -124,7 +124,8 @@ public class StandardDeviation
     row.addCell(0).setContent("StdDev" + (getIsSample() ? "" : "P"));
     row.addCell(1).setContent(StatUtils.stddev(m_Values.toArray(), getIsSample()));
 
-    m_Values = null;
+    m_Values     = null;
+    m_Statistics = null;
     
     return result;
   }
@@ -15,7 +15,7 @@
 
 /*
  * SpreadSheetAppend.java
- * Copyright (C) 2012-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2012-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -181,6 +181,56 @@ public class SpreadSheetAppend
     return !getSkip();
   }
 
+  /**
+   * Appends the spreadsheet to the stored one.
+   *
+   * @param stored	the stored spreadsheet, null if none available yet
+   * @param sheet	the spreadsheet to append
+   * @return		the spreadsheet to store
+   */
+  protected SpreadSheet append(SpreadSheet stored, SpreadSheet sheet) {
+    int		i;
+    int		n;
+    Row		headerSheet;
+    Row		headerStored;
+    Row		row;
+    Row		newRow;
+    String	key;
+
+    if (isLoggingEnabled())
+      getLogger().info("Spreadsheet '" + m_StorageName + "' available from storage: " + (stored != null));
+
+    if (stored == null) {
+      stored = sheet.newInstance();
+      headerStored = stored.getHeaderRow();
+      headerSheet = sheet.getHeaderRow();
+      // header
+      for (i = 0; i < headerSheet.getCellCount(); i++)
+	headerStored.addCell("" + headerStored.getCellCount()).assign(headerSheet.getCell(i));
+      // data
+      for (n = 0; n < sheet.getRowCount(); n++) {
+	row = sheet.getRow(n);
+	newRow = stored.addRow();
+	for (i = 0; i < headerSheet.getCellCount(); i++) {
+	  key = headerSheet.getCellKey(i);
+	  if (row.getCell(key) != null)
+	    newRow.addCell(headerStored.getCellKey(i)).assign(row.getCell(key));
+	}
+      }
+      m_OutputToken = new Token(sheet);
+      if (isLoggingEnabled())
+	getLogger().info("Spreadsheet added to storage: " + m_StorageName);
+    }
+    else {
+      stored = SpreadSheetHelper.append(stored, sheet, m_NoCopy);
+      m_OutputToken = new Token(stored);
+      if (isLoggingEnabled())
+	getLogger().info("Appended #" + sheet.getRowCount() + " rows to stored one: " + m_StorageName);
+    }
+
+    return stored;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -190,56 +240,12 @@ public class SpreadSheetAppend
   protected String doExecute() {
     String		result;
     SpreadSheet		sheet;
-    SpreadSheet		stored;
-    int			i;
-    int			n;
-    Row			headerSheet;
-    Row			headerStored;
-    Row			row;
-    Row			newRow;
-    String		key;
 
     result = getOptionManager().ensureVariableForPropertyExists("storageName");
 
     if (result == null) {
-      synchronized (getStorageHandler().getStorage()) {
-	stored = null;
-	if (getStorageHandler().getStorage().has(m_StorageName))
-	  stored = (SpreadSheet) getStorageHandler().getStorage().get(m_StorageName);
-	if (isLoggingEnabled())
-	  getLogger().info("Spreadsheet '" + m_StorageName + "' available from storage: " + (stored != null));
-
-	sheet = (SpreadSheet) m_InputToken.getPayload();
-	if (stored == null) {
-	  stored = sheet.newInstance();
-	  headerStored = stored.getHeaderRow();
-	  headerSheet = sheet.getHeaderRow();
-	  // header
-	  for (i = 0; i < headerSheet.getCellCount(); i++)
-	    headerStored.addCell("" + headerStored.getCellCount()).assign(headerSheet.getCell(i));
-	  // data
-	  for (n = 0; n < sheet.getRowCount(); n++) {
-	    row = sheet.getRow(n);
-	    newRow = stored.addRow();
-	    for (i = 0; i < headerSheet.getCellCount(); i++) {
-	      key = headerSheet.getCellKey(i);
-	      if (row.getCell(key) != null)
-		newRow.addCell(headerStored.getCellKey(i)).assign(row.getCell(key));
-	    }
-	  }
-	  getStorageHandler().getStorage().put(m_StorageName, stored);
-	  m_OutputToken = new Token(sheet);
-	  if (isLoggingEnabled())
-	    getLogger().info("Spreadsheet added to storage: " + m_StorageName);
-	}
-	else {
-	  stored = SpreadSheetHelper.append(stored, sheet, m_NoCopy);
-	  getStorageHandler().getStorage().put(m_StorageName, stored);
-	  m_OutputToken = new Token(stored);
-	  if (isLoggingEnabled())
-	    getLogger().info("Appended #" + sheet.getRowCount() + " rows to stored one: " + m_StorageName);
-	}
-      }
+      sheet = (SpreadSheet) m_InputToken.getPayload();
+      getStorageHandler().getStorage().compute(m_StorageName, (name, stored) -> append((SpreadSheet) stored, sheet));
     }
 
     return result;
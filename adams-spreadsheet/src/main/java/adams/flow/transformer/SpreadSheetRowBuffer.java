@@ -15,7 +15,7 @@
 
 /*
  * SpreadSheetRowBuffer.java
- * Copyright (C) 2014-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -26,6 +26,7 @@ import adams.data.spreadsheet.DataRow;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.event.VariableChangeEvent;
+import adams.flow.core.BatchToken;
 import adams.flow.core.Token;
 import adams.flow.core.VariableMonitor;
 
@@ -40,7 +41,8 @@ import java.util.List;
  * 1. Row -&gt; SpreadSheet<br>
  * Buffers adams.data.spreadsheet.Row objects and outputs a adams.data.spreadsheet.SpreadSheet object, whenever the interval condition has been met.<br>
  * 2. SpreadSheet -&gt; Row<br>
- * Outputs all the adams.data.spreadsheet.Row objects that the incoming adams.data.spreadsheet.SpreadSheet object contains.
+ * Outputs all the adams.data.spreadsheet.Row objects that the incoming adams.data.spreadsheet.SpreadSheet object contains.<br>
+ * With a batch size larger than 1, the rows get forwarded in batches (see adams.flow.core.BatchToken), which get split up again automatically for actors that cannot process batches.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -118,6 +120,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: variable
  * </pre>
  *
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The number of rows to forward at once as batch (in case of SPREADSHEET_TO_ROW
+ * &nbsp;&nbsp;&nbsp;); 1 forwards the rows one by one.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -170,6 +179,9 @@ public class SpreadSheetRowBuffer
   /** whether variable triggered clear of buffer. */
   protected boolean m_ClearBufferRequired;
 
+  /** the number of rows to forward at once. */
+  protected int m_BatchSize;
+
   /**
    * Returns a string describing the object.
    *
@@ -184,7 +196,10 @@ public class SpreadSheetRowBuffer
 	    + "object, whenever the interval condition has been met.\n"
 	    + "2. SpreadSheet -> Row\n"
 	    + "Outputs all the " + Row.class.getName() + " objects that the incoming "
-	    + SpreadSheet.class.getName() + " object contains.";
+	    + SpreadSheet.class.getName() + " object contains.\n"
+	    + "With a batch size larger than 1, the rows get forwarded in batches "
+	    + "(see " + BatchToken.class.getName() + "), which get split up again "
+	    + "automatically for actors that cannot process batches.";
   }
 
   /**
@@ -213,6 +228,10 @@ public class SpreadSheetRowBuffer
     m_OptionManager.add(
 	"var-name", "variableName",
 	new VariableName());
+
+    m_OptionManager.add(
+	"batch-size", "batchSize",
+	1, 1, null);
   }
 
   /**
@@ -232,6 +251,7 @@ public class SpreadSheetRowBuffer
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "checkHeader", m_CheckHeader, "check header"));
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "clearBuffer", m_ClearBuffer, "clear"));
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "variableName", m_VariableName.paddedValue()));
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "batchSize", (m_BatchSize > 1 ? m_BatchSize : null), "batch: "));
     result += QuickInfoHelper.flatten(options);
 
     return result;
@@ -388,6 +408,39 @@ public class SpreadSheetRowBuffer
     return "The variable to monitor.";
   }
 
+  /**
+   * Sets the number of rows to forward at once.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of rows to forward at once.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+	"The number of rows to forward at once as batch (in case of "
+	    + Operation.SPREADSHEET_TO_ROW + "); 1 forwards the rows one by one.";
+  }
+
   /**
    * Gets triggered when a variable changed (added, modified, removed).
    *
@@ -584,13 +637,22 @@ public class SpreadSheetRowBuffer
   @Override
   public Token output() {
     Token	result;
+    List<Row>	rows;
 
     if (m_Operation == Operation.ROW_TO_SPREADSHEET) {
       result        = m_OutputToken;
       m_OutputToken = null;
     }
     else if (m_Operation == Operation.SPREADSHEET_TO_ROW) {
-      result = new Token(m_Iterator.next());
+      if (m_BatchSize == 1) {
+	result = new Token(m_Iterator.next());
+      }
+      else {
+	rows = new ArrayList<>();
+	while (m_Iterator.hasNext() && (rows.size() < m_BatchSize))
+	  rows.add(m_Iterator.next());
+	result = new BatchToken(rows);
+      }
     }
     else {
       throw new IllegalStateException("Unhandled operation: " + m_Operation);
@@ -15,22 +15,26 @@
 
 /*
  * SpreadSheetRowFinder.java
- * Copyright (C) 2012-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2012-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
 
 import adams.core.QuickInfoHelper;
+import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.data.spreadsheet.SpreadSheetViewCreator;
 import adams.data.spreadsheet.rowfinder.AbstractRowFinder;
 import adams.data.spreadsheet.rowfinder.RowFinder;
+import adams.flow.core.BatchConsumer;
+import adams.flow.core.BatchToken;
 import adams.flow.core.Token;
 
 /**
  <!-- globalinfo-start -->
  * Filters spreadsheets using the specified row finder.<br>
- * The output contains all the rows that the specified finder selected.
+ * The output contains all the rows that the specified finder selected.<br>
+ * Individual rows can be filtered as well, only selected rows get forwarded. Batches of rows (see adams.flow.core.BatchToken) get filtered at once, as a single spreadsheet; therefore row finders that take all the rows into account (e.g., for statistics) only see the rows of the current batch.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -38,8 +42,10 @@ import adams.flow.core.Token;
  * Input&#47;output:<br>
  * - accepts:<br>
  * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.SpreadSheet<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.Row<br>
  * - generates:<br>
  * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.SpreadSheet<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.Row<br>
  * <br><br>
  <!-- flow-summary-end -->
  *
@@ -85,7 +91,7 @@ import adams.flow.core.Token;
  */
 public class SpreadSheetRowFilter
   extends AbstractSpreadSheetTransformer
-  implements SpreadSheetViewCreator {
+  implements SpreadSheetViewCreator, BatchConsumer {
 
   /** for serialization. */
   private static final long serialVersionUID = 3754073511732133649L;
@@ -106,7 +112,12 @@ public class SpreadSheetRowFilter
     return 
 	"Filters spreadsheets using the specified row finder.\n"
 	+ "The output contains all the rows that the specified finder "
-	+ "selected.";
+	+ "selected.\n"
+	+ "Individual rows can be filtered as well, only selected rows get "
+	+ "forwarded. Batches of rows (see " + BatchToken.class.getName() + ") "
+	+ "get filtered at once, as a single spreadsheet; therefore row finders "
+	+ "that take all the rows into account (e.g., for statistics) only see "
+	+ "the rows of the current batch.";
   }
 
   /**
@@ -201,6 +212,73 @@ public class SpreadSheetRowFilter
     return result;
   }
 
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  @Override
+  public Class[] accepts() {
+    return new Class[]{SpreadSheet.class, Row.class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the Class of the generated tokens
+   */
+  @Override
+  public Class[] generates() {
+    return new Class[]{SpreadSheet.class, Row.class};
+  }
+
+  /**
+   * Returns whether the actor accepts {@link BatchToken} input in its
+   * current configuration.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean acceptsBatches() {
+    return true;
+  }
+
+  /**
+   * Filters the spreadsheet.
+   *
+   * @param input	the spreadsheet to filter
+   * @return		the filtered spreadsheet
+   */
+  protected SpreadSheet filter(SpreadSheet input) {
+    if (m_CreateView)
+      return input.toView(m_Finder.findRows(input), null);
+    else
+      return AbstractRowFinder.filter(input, m_Finder);
+  }
+
+  /**
+   * Filters the rows, using a spreadsheet made up of the rows.
+   *
+   * @param rows	the rows to filter (all from the same spreadsheet)
+   * @return		the selected rows
+   */
+  protected Object[] filter(Object[] rows) {
+    SpreadSheet		sheet;
+    int[]		indices;
+    Object[]		result;
+    int			i;
+
+    sheet = ((Row) rows[0]).getOwner().getHeader();
+    for (Object row: rows)
+      sheet.addRow().assign((Row) row);
+    indices = m_Finder.findRows(sheet);
+    result  = new Object[indices.length];
+    for (i = 0; i < indices.length; i++)
+      result[i] = rows[indices[i]];
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -209,17 +287,36 @@ public class SpreadSheetRowFilter
   @Override
   protected String doExecute() {
     String		result;
-    SpreadSheet		input;
-    SpreadSheet		output;
+    Object[]		inputs;
+    Object[]		outputs;
+    int			i;
 
     result = null;
-    input  = (SpreadSheet) m_InputToken.getPayload();
-    if (m_CreateView)
-      output = input.toView(m_Finder.findRows(input), null);
-    else
-      output = AbstractRowFinder.filter(input, m_Finder);
-    m_OutputToken = new Token(output);
-    
+
+    if (m_InputToken instanceof BatchToken) {
+      inputs = ((BatchToken) m_InputToken).getPayloads();
+      if (inputs.length == 0)
+	return result;
+      if (inputs[0] instanceof Row) {
+	outputs = filter(inputs);
+      }
+      else {
+	outputs = new Object[inputs.length];
+	for (i = 0; i < inputs.length; i++)
+	  outputs[i] = filter((SpreadSheet) inputs[i]);
+      }
+      if (outputs.length > 0)
+	m_OutputToken = new BatchToken(outputs);
+    }
+    else if (m_InputToken.getPayload() instanceof Row) {
+      outputs = filter(new Object[]{m_InputToken.getPayload()});
+      if (outputs.length > 0)
+	m_OutputToken = new Token(outputs[0]);
+    }
+    else {
+      m_OutputToken = new Token(filter((SpreadSheet) m_InputToken.getPayload()));
+    }
+
     return result;
   }
 }
@@ -15,18 +15,29 @@
 
 /*
  * SpreadSheetRowBufferTest.java
- * Copyright (C) 2014-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
 
+import java.util.List;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import adams.core.io.FileUtils;
 import adams.core.option.AbstractArgumentOption;
+import adams.data.io.input.CsvSpreadSheetReader;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.control.Flow;
 import adams.flow.core.Actor;
+import adams.flow.core.BatchToken;
+import adams.flow.core.CallableActorReference;
+import adams.flow.core.Token;
+import adams.flow.source.Start;
+import adams.flow.standalone.CallableActors;
 import adams.test.TmpFile;
 
 /**
@@ -84,6 +95,71 @@ public class SpreadSheetRowBufferTest
         });
   }
 
+  /**
+   * Tests whether forwarding the rows in batches generates the same output,
+   * with and without an actor in between that does not accept batches.
+   */
+  public void testBatch() {
+    Flow		flow;
+    List<String>	expected;
+    List<String>	actual;
+
+    flow = (Flow) getActor();
+    performActorExecution(flow);
+    expected = FileUtils.loadFromFile(new TmpFile("dumpfile.txt"));
+    assertNotNull("no unbatched output", expected);
+
+    for (boolean passThrough: new boolean[]{false, true}) {
+      m_TestHelper.deleteFileFromTmp("dumpfile.txt");
+      flow = (Flow) getActor();
+      ((SpreadSheetRowBuffer) flow.get(2)).setBatchSize(7);
+      if (passThrough)
+	flow.add(3, new PassThrough());
+      performActorExecution(flow);
+      actual = FileUtils.loadFromFile(new TmpFile("dumpfile.txt"));
+      assertEquals("output differs (pass through: " + passThrough + ")", expected, actual);
+    }
+  }
+
+  /**
+   * Tests whether batches get split up when obtaining the output of the
+   * buffer directly via a callable transformer.
+   */
+  public void testCallableBatch() {
+    Flow			flow;
+    CallableActors		callables;
+    SpreadSheetRowBuffer	buffer;
+    CallableTransformer		callable;
+    SpreadSheet			sheet;
+    Token			token;
+    int				count;
+
+    buffer = new SpreadSheetRowBuffer();
+    buffer.setOperation(SpreadSheetRowBuffer.Operation.SPREADSHEET_TO_ROW);
+    buffer.setBatchSize(7);
+    callables = new CallableActors();
+    callables.add(buffer);
+    callable = new CallableTransformer(new CallableActorReference(buffer.getName()));
+    flow = new Flow();
+    flow.setActors(new Actor[]{callables, new Start(), callable});
+    assertNull("setup failed", flow.setUp());
+
+    sheet = new CsvSpreadSheetReader().read(new TmpFile("bolts.csv").getAbsolutePath());
+    callable.input(new Token(sheet));
+    assertNull("execution failed", callable.execute());
+    count = 0;
+    while (callable.hasPendingOutput()) {
+      token = callable.output();
+      assertFalse("batch token obtained", token instanceof BatchToken);
+      assertTrue("not a row", token.getPayload() instanceof Row);
+      count++;
+    }
+    assertEquals("# rows", sheet.getRowCount(), count);
+
+    flow.wrapUp();
+    flow.cleanUp();
+  }
+
   /**
    * 
    * Returns a test suite.
@@ -15,18 +15,24 @@
 
 /*
  * SpreadSheetRowFilterTest.java
- * Copyright (C) 2012 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2012-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import adams.core.base.BaseRegExp;
 import adams.core.option.AbstractArgumentOption;
+import adams.data.io.input.CsvSpreadSheetReader;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.data.spreadsheet.rowfinder.ByValue;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.control.Flow;
 import adams.flow.core.Actor;
+import adams.flow.core.BatchToken;
+import adams.flow.core.Token;
 import adams.test.TmpFile;
 
 /**
@@ -84,6 +90,59 @@ public class SpreadSheetRowFilterTest
         });
   }
 
+  /**
+   * Tests filtering individual rows, batches of rows and batches of
+   * spreadsheets.
+   */
+  public void testBatches() {
+    SpreadSheetRowFilter	filter;
+    ByValue			finder;
+    SpreadSheet			sheet;
+    Object[]			rows;
+    Object[]			payloads;
+    Token			token;
+    int				i;
+
+    sheet  = new CsvSpreadSheetReader().read(new TmpFile("iris.csv").getAbsolutePath());
+    finder = new ByValue();
+    finder.setRegExp(new BaseRegExp(".*setosa.*"));
+    filter = new SpreadSheetRowFilter();
+    filter.setFinder(finder);
+    assertNull("setup failed", filter.setUp());
+
+    // batch of rows: rows 46-50 are setosa
+    rows = new Object[10];
+    for (i = 0; i < rows.length; i++)
+      rows[i] = sheet.getRow(45 + i);
+    filter.input(new BatchToken(rows));
+    assertNull("batch of rows failed", filter.execute());
+    token = filter.output();
+    assertTrue("no batch output", token instanceof BatchToken);
+    payloads = ((BatchToken) token).getPayloads();
+    assertEquals("# rows", 5, payloads.length);
+    for (i = 0; i < payloads.length; i++)
+      assertSame("row differs", rows[i], payloads[i]);
+
+    // individual rows
+    filter.input(new Token(sheet.getRow(0)));
+    assertNull("row failed", filter.execute());
+    assertSame("selected row not forwarded", sheet.getRow(0), filter.output().getPayload());
+    filter.input(new Token(sheet.getRow(60)));
+    assertNull("row failed", filter.execute());
+    assertFalse("row should have been removed", filter.hasPendingOutput());
+
+    // batch of spreadsheets
+    filter.input(new BatchToken(new Object[]{sheet, sheet.getClone()}));
+    assertNull("batch of spreadsheets failed", filter.execute());
+    payloads = ((BatchToken) filter.output()).getPayloads();
+    assertEquals("# spreadsheets", 2, payloads.length);
+    for (Object payload: payloads)
+      assertEquals("# rows", 50, ((SpreadSheet) payload).getRowCount());
+
+    filter.wrapUp();
+    filter.cleanUp();
+  }
+
   /**
    * 
    * Returns a test suite.
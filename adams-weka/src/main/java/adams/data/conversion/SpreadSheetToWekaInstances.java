@@ -15,31 +15,20 @@
 
 /*
  * SpreadSheetToWekaInstances.java
- * Copyright (C) 2011-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.conversion;
 
-import adams.core.Constants;
-import adams.core.Utils;
-import adams.data.spreadsheet.Cell;
-import adams.data.spreadsheet.Cell.ContentType;
-import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
-import adams.env.Environment;
-import adams.ml.data.Dataset;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
 import weka.core.Instances;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import weka.core.SpreadSheetInstancesView;
 
 /**
  <!-- globalinfo-start -->
  * Generates a weka.core.Instances object from a SpreadSheet object.<br>
- * If there are too many unique lables for a NOMINAL attribute, it gets turned into a STRING attribute (see 'maxLabels' property).
+ * If there are too many unique lables for a NOMINAL attribute, it gets turned into a STRING attribute (see 'maxLabels' property).<br>
+ * Instead of copying the data, a view backed by the spreadsheet can be generated (see 'view' property), which only gets converted once the data gets modified.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -56,6 +45,12 @@ import java.util.HashSet;
  * &nbsp;&nbsp;&nbsp;minimum: -1
  * </pre>
  * 
+ * <pre>-view &lt;boolean&gt; (property: view)
+ * &nbsp;&nbsp;&nbsp;If enabled, a view backed by the spreadsheet is generated instead of copying
+ * &nbsp;&nbsp;&nbsp;the data; the spreadsheet must not be modified afterwards.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -69,6 +64,9 @@ public class SpreadSheetToWekaInstances
   /** the threshold for number of labels before an attribute gets switched 
    * to {@link Attribute#STRING}. */
   protected int m_MaxLabels;
+
+  /** whether to generate a view rather than copying the data. */
+  protected boolean m_View;
   
   /**
    * Returns a string describing the object.
@@ -81,7 +79,10 @@ public class SpreadSheetToWekaInstances
 	"Generates a " + Instances.class.getName() + " object from a "
 	+ "SpreadSheet object.\n"
 	+ "If there are too many unique lables for a NOMINAL attribute, it gets "
-	+ "turned into a STRING attribute (see 'maxLabels' property).";
+	+ "turned into a STRING attribute (see 'maxLabels' property).\n"
+	+ "Instead of copying the data, a view backed by the spreadsheet can be "
+	+ "generated (see 'view' property), which only gets converted once the "
+	+ "data gets modified.";
   }
 
   /**
@@ -94,6 +95,10 @@ public class SpreadSheetToWekaInstances
     m_OptionManager.add(
 	    "max-labels", "maxLabels",
 	    25, -1, null);
+
+    m_OptionManager.add(
+	    "view", "view",
+	    false);
   }
 
   /**
@@ -129,6 +134,39 @@ public class SpreadSheetToWekaInstances
 	+ "before it is switched to a STRING attribute; use -1 to enforce STRING attributes.";
   }
 
+  /**
+   * Sets whether to generate a view backed by the spreadsheet instead of
+   * copying the data.
+   *
+   * @param value 	true if to generate a view
+   */
+  public void setView(boolean value) {
+    m_View = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to generate a view backed by the spreadsheet instead of
+   * copying the data.
+   *
+   * @return 		true if to generate a view
+   */
+  public boolean getView() {
+    return m_View;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String viewTipText() {
+    return
+	"If enabled, a view backed by the spreadsheet is generated instead of "
+	+ "copying the data; the spreadsheet must not be modified afterwards.";
+  }
+
   /**
    * Returns the class that is accepted as input.
    *
@@ -157,109 +195,12 @@ public class SpreadSheetToWekaInstances
    */
   @Override
   protected Object doConvert() throws Exception {
-    Instances			result;
-    SpreadSheet			sheet;
-    DenseInstance		inst;
-    ArrayList<Attribute>	atts;
-    HashSet<String>		unique;
-    ArrayList<String>		labels;
-    Row				row;
-    Cell			cell;
-    int				i;
-    int				n;
-    double[]			values;
-    Collection<ContentType>	types;
-    ContentType			type;
-    boolean			added;
-    int[]			classIndices;
-
-    sheet = (SpreadSheet) m_Input;
-
-    // create header
-    atts = new ArrayList<>();
-    for (i = 0; i < sheet.getColumnCount(); i++) {
-      added = false;
-      types = sheet.getContentTypes(i);
-      if (types.contains(ContentType.DOUBLE))
-	types.remove(ContentType.LONG);
-      if (types.contains(ContentType.LONG)) {
-	types.add(ContentType.DOUBLE);
-	types.remove(ContentType.LONG);
-      }
-      
-      if (types.size() == 1) {
-	type = (ContentType) types.toArray()[0];
-	if (type == ContentType.DOUBLE) {
-	  atts.add(new Attribute(sheet.getHeaderRow().getCell(i).getContent()));
-	  added = true;
-	}
-	else if (type == ContentType.DATE) {
-	  atts.add(new Attribute(sheet.getHeaderRow().getCell(i).getContent(), Constants.TIMESTAMP_FORMAT));
-	  added = true;
-	}
-	else if (type == ContentType.TIME) {
-	  atts.add(new Attribute(sheet.getHeaderRow().getCell(i).getContent(), Constants.TIME_FORMAT));
-	  added = true;
-	}
-      }
-      
-      if (!added) {
-	unique = new HashSet<>();
-	for (n = 0; n < sheet.getRowCount(); n++) {
-	  row  = sheet.getRow(n);
-	  cell = row.getCell(i);
-	  if ((cell != null) && !cell.isMissing())
-	    unique.add(cell.getContent());
-	}
-	if ((unique.size() > m_MaxLabels) || (m_MaxLabels < 1)) {
-	  atts.add(new Attribute(sheet.getHeaderRow().getCell(i).getContent(), (ArrayList) null));
-	}
-	else {
-	  labels = new ArrayList<>(unique);
-	  Collections.sort(labels);
-	  atts.add(new Attribute(sheet.getHeaderRow().getCell(i).getContent(), labels));
-	}
-      }
-    }
-    result = new Instances(Environment.getInstance().getProject(), atts, sheet.getRowCount());
-    if (sheet.hasName())
-      result.setRelationName(sheet.getName());
+    SpreadSheetInstancesView	view;
 
-    // add data
-    for (n = 0; n < sheet.getRowCount(); n++) {
-      row    = sheet.getRow(n);
-      values = new double[result.numAttributes()];
-      for (i = 0; i < result.numAttributes(); i++) {
-	cell      = row.getCell(i);
-	values[i] = weka.core.Utils.missingValue();
-	if ((cell != null) && !cell.isMissing()) {
-	  if (result.attribute(i).type() == Attribute.DATE) {
-	    if (cell.isTime())
-	      values[i] = cell.toTime().getTime();
-	    else
-	      values[i] = cell.toDate().getTime();
-	  }
-	  else if (result.attribute(i).isNumeric()) {
-	    values[i] = Utils.toDouble(cell.getContent());
-	  }
-	  else if (result.attribute(i).isString()) {
-	    values[i] = result.attribute(i).addStringValue(cell.getContent());
-	  }
-	  else {
-	    values[i] = result.attribute(i).indexOfValue(cell.getContent());
-	  }
-	}
-      }
-      inst = new DenseInstance(1.0, values);
-      result.add(inst);
-    }
-
-    if (sheet instanceof Dataset) {
-      classIndices = ((Dataset) sheet).getClassAttributeIndices();
-      if (classIndices.length > 0)
-	result.setClassIndex(classIndices[0]);
-    }
-    
-    return result;
+    view = new SpreadSheetInstancesView((SpreadSheet) m_Input, m_MaxLabels);
+    if (m_View)
+      return view;
+    else
+      return new Instances(view);
   }
 }
@@ -15,7 +15,7 @@
 
 /*
  * AbstractProcessWekaInstanceWithModel.java
- * Copyright (C) 2011-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.transformer;
 
@@ -33,24 +33,32 @@ import adams.flow.container.WekaModelContainer;
 import adams.flow.control.StorageName;
 import adams.flow.core.AbstractModelLoader;
 import adams.flow.core.AbstractModelLoader.ModelLoadingType;
+import adams.flow.core.BatchConsumer;
+import adams.flow.core.BatchToken;
 import adams.flow.core.CallableActorReference;
 import adams.flow.core.DynamicModelLoaderSupporter;
 import adams.flow.core.OptionalModelResetWithVariable;
 import adams.flow.core.Token;
 import weka.core.Instance;
+import weka.core.Instances;
 
 import java.util.Hashtable;
 
 /**
  * Ancestor for transformers that user models for processing Instance objects,
  * e.g., classifiers making predictions.
+ * <br><br>
+ * Batches of instances (see {@link BatchToken}) get processed in a single
+ * call of {@link #processInstances(Instance[])}; if processing fails, the
+ * whole batch gets discarded. The same applies to {@link Instances} objects,
+ * if derived classes accept them, generating a batch of outputs.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @param <T> the type of model to use
  */
 public abstract class AbstractProcessWekaInstanceWithModel<T>
   extends AbstractTransformer
-  implements DynamicModelLoaderSupporter, OptionalModelResetWithVariable {
+  implements DynamicModelLoaderSupporter, OptionalModelResetWithVariable, BatchConsumer {
 
   /** for serialization. */
   private static final long serialVersionUID = -5275241130624220000L;
@@ -530,6 +538,67 @@ public abstract class AbstractProcessWekaInstanceWithModel<T>
    */
   protected abstract Token processInstance(Instance inst) throws Exception;
 
+  /**
+   * Processes the instances and generates the output tokens.
+   * <br><br>
+   * Default implementation processes them one by one.
+   *
+   * @param insts	the instances to process
+   * @return		the generated output tokens (e.g., containers)
+   * @throws Exception	if processing fails
+   * @see		#processInstance(Instance)
+   */
+  protected Token[] processInstances(Instance[] insts) throws Exception {
+    Token[]	result;
+    int		i;
+
+    result = new Token[insts.length];
+    for (i = 0; i < insts.length; i++)
+      result[i] = processInstance(insts[i]);
+
+    return result;
+  }
+
+  /**
+   * Returns whether the actor accepts {@link BatchToken} input in its
+   * current configuration.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean acceptsBatches() {
+    return true;
+  }
+
+  /**
+   * Returns the instance from the payload.
+   *
+   * @param payload	the payload (Instance or WekaInstanceContainer)
+   * @return		the instance
+   */
+  protected Instance getInstance(Object payload) {
+    if (payload instanceof WekaInstanceContainer)
+      return ((WekaInstanceContainer) payload).getContent();
+    else
+      return (Instance) payload;
+  }
+
+  /**
+   * Attaches the report from the input payload to the output token, if possible.
+   *
+   * @param payload	the input payload (Instance or WekaInstanceContainer)
+   * @param output	the output token
+   */
+  protected void addReport(Object payload, Token output) {
+    Report	report;
+
+    if (!(payload instanceof WekaInstanceContainer))
+      return;
+    report = ((WekaInstanceContainer) payload).getReport();
+    if ((report != null) && output.hasPayload(ContainerWithReport.class))
+      output.getPayload(ContainerWithReport.class).setValue(ContainerWithReport.VALUE_REPORT, report.getClone());
+  }
+
   /**
    * Executes the flow item.
    *
@@ -539,9 +608,12 @@ public abstract class AbstractProcessWekaInstanceWithModel<T>
   protected String doExecute() {
     String			result;
     Instance			inst;
-    WekaInstanceContainer 	cont;
-    Report 			report;
+    Object[]			inputs;
+    Object[]			payloads;
+    Instance[]			insts;
+    Token[]			outputs;
     long			start;
+    int				i;
 
     result = null;
 
@@ -552,26 +624,43 @@ public abstract class AbstractProcessWekaInstanceWithModel<T>
     }
 
     inst   = null;
-    report = null;
+    inputs = null;
+    if (m_InputToken instanceof BatchToken)
+      inputs = ((BatchToken) m_InputToken).getPayloads();
+    else if (m_InputToken.getPayload() instanceof Instances)
+      inputs = ((Instances) m_InputToken.getPayload()).toArray();
+
     try {
-      if (m_InputToken.hasPayload(Instance.class)) {
-	inst = m_InputToken.getPayload(Instance.class);
+      if (inputs != null) {
+	insts  = new Instance[inputs.length];
+	for (i = 0; i < inputs.length; i++)
+	  insts[i] = getInstance(inputs[i]);
+	start   = System.currentTimeMillis();
+	outputs = processInstances(insts);
+	if (isLoggingEnabled())
+	  getLogger().info("processInstances (#" + insts.length + ", msec): " + (System.currentTimeMillis() - start));
+	payloads = new Object[outputs.length];
+	for (i = 0; i < outputs.length; i++) {
+	  addReport(inputs[i], outputs[i]);
+	  payloads[i] = outputs[i].getPayload();
+	}
+	m_OutputToken = new BatchToken(payloads);
       }
       else {
-	cont   = m_InputToken.getPayload(WekaInstanceContainer.class);
-	inst   = cont.getContent();
-	report = cont.getReport();
+	inst          = getInstance(m_InputToken.getPayload());
+	start         = System.currentTimeMillis();
+	m_OutputToken = processInstance(inst);
+	if (isLoggingEnabled())
+	  getLogger().info("processInstance (msec): " + (System.currentTimeMillis() - start));
+	addReport(m_InputToken.getPayload(), m_OutputToken);
       }
-      start         = System.currentTimeMillis();
-      m_OutputToken = processInstance(inst);
-      if (isLoggingEnabled())
-	getLogger().info("processInstance (msec): " + (System.currentTimeMillis() - start));
-      if ((report != null) && m_OutputToken.hasPayload(ContainerWithReport.class))
-	m_OutputToken.getPayload(ContainerWithReport.class).setValue(ContainerWithReport.VALUE_REPORT, report.getClone());
     }
     catch (Exception e) {
       m_OutputToken = null;
-      result = handleException("Failed to process instance: " + inst, e);
+      if (inputs != null)
+	result = handleException("Failed to process batch of " + inputs.length + " instances!", e);
+      else
+	result = handleException("Failed to process instance: " + inst, e);
     }
 
     return result;
@@ -15,26 +15,35 @@
 
 /*
  * WekaClassifying.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
 
+import adams.core.QuickInfoHelper;
 import adams.core.Utils;
+import adams.data.instance.WekaInstanceContainer;
 import adams.data.statistics.StatUtils;
 import adams.flow.container.WekaPredictionContainer;
 import adams.flow.core.AbstractModelLoader;
+import adams.flow.core.ModelReplicaPool;
+import adams.flow.core.ModelReplicaPool.Replica;
 import adams.flow.core.Token;
 import adams.flow.core.WekaClassifierModelLoader;
 import weka.classifiers.AbstainingClassifier;
+import weka.classifiers.Classifier;
 import weka.classifiers.RangeCheckClassifier;
+import weka.core.BatchPredictor;
 import weka.core.Instance;
+import weka.core.Instances;
 
 import java.util.List;
 
 /**
  <!-- globalinfo-start -->
  * Uses a serialized model to perform predictions on the data being passed through.<br>
+ * Instances objects get predicted as a batch, generating one output per row.<br>
+ * With more than one replica, concurrent predictions (e.g., within a LoadBalancer) use separate copies of the model instead of waiting for each other; useful for models that are shared (e.g., obtained from storage), as models are not necessarily thread-safe.<br>
  * The following order is used to obtain the model (when using AUTO):<br>
  * 1. model file present?<br>
  * 2. source actor present?<br>
@@ -46,6 +55,7 @@ import java.util.List;
  * Input&#47;output:<br>
  * - accepts:<br>
  * &nbsp;&nbsp;&nbsp;weka.core.Instance<br>
+ * &nbsp;&nbsp;&nbsp;weka.core.Instances<br>
  * &nbsp;&nbsp;&nbsp;adams.data.instance.WekaInstanceContainer<br>
  * - generates:<br>
  * &nbsp;&nbsp;&nbsp;adams.flow.container.WekaPredictionContainer<br>
@@ -137,6 +147,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-num-replicas &lt;int&gt; (property: numReplicas)
+ * &nbsp;&nbsp;&nbsp;The maximum number of copies of the model (incl the model itself) to use
+ * &nbsp;&nbsp;&nbsp;for concurrent predictions; 1 synchronizes access to the model instead.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -150,6 +167,12 @@ public class WekaClassifying
   /** whether to output weka.core.Instance objects or PredictionContainers. */
   protected boolean m_OutputInstance;
 
+  /** the maximum number of model replicas. */
+  protected int m_NumReplicas;
+
+  /** the replicas of the model. */
+  protected transient ModelReplicaPool<Classifier> m_Replicas;
+
   /**
    * Returns a string describing the object.
    *
@@ -160,6 +183,12 @@ public class WekaClassifying
     return
       "Uses a serialized model to perform predictions on the data being "
 	+ "passed through.\n"
+	+ "Instances objects get predicted as a batch, generating one output "
+	+ "per row.\n"
+	+ "With more than one replica, concurrent predictions (e.g., within a "
+	+ "LoadBalancer) use separate copies of the model instead of waiting for "
+	+ "each other; useful for models that are shared (e.g., obtained from "
+	+ "storage), as models are not necessarily thread-safe.\n"
 	+ m_ModelLoader.automaticOrderInfo();
   }
 
@@ -173,6 +202,20 @@ public class WekaClassifying
     m_OptionManager.add(
       "output-instance", "outputInstance",
       false);
+
+    m_OptionManager.add(
+      "num-replicas", "numReplicas",
+      1, 1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Replicas = null;
   }
 
   /**
@@ -216,6 +259,67 @@ public class WekaClassifying
     return "Whether to output weka.core.Instance objects or PredictionContainer objects.";
   }
 
+  /**
+   * Sets the maximum number of model replicas to use for concurrent
+   * predictions.
+   *
+   * @param value	the maximum number (incl the model itself)
+   */
+  public void setNumReplicas(int value) {
+    if (getOptionManager().isValid("numReplicas", value)) {
+      m_NumReplicas = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of model replicas to use for concurrent
+   * predictions.
+   *
+   * @return		the maximum number (incl the model itself)
+   */
+  public int getNumReplicas() {
+    return m_NumReplicas;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numReplicasTipText() {
+    return "The maximum number of copies of the model (incl the model itself) to use for concurrent predictions; 1 synchronizes access to the model instead.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+    String	value;
+
+    result = super.getQuickInfo();
+    value  = QuickInfoHelper.toString(this, "numReplicas", (m_NumReplicas > 1 ? m_NumReplicas : null), "replicas: ");
+    if (value != null)
+      result += ", " + value;
+
+    return result;
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the accepted classes
+   */
+  @Override
+  public Class[] accepts() {
+    return new Class[]{Instance.class, Instances.class, WekaInstanceContainer.class};
+  }
+
   /**
    * Returns the class of objects that it generates.
    *
@@ -230,74 +334,238 @@ public class WekaClassifying
   }
 
   /**
-   * Processes the instance and generates the output token.
+   * Returns the pool of model replicas, creating it if necessary.
+   *
+   * @return		the pool
+   */
+  protected synchronized ModelReplicaPool<Classifier> getReplicas() {
+    if ((m_Replicas == null) || !m_Replicas.isPoolFor(m_Model) || (m_Replicas.getMaxReplicas() != m_NumReplicas))
+      m_Replicas = ModelReplicaPool.getPool(m_Model, m_NumReplicas);
+    return m_Replicas;
+  }
+
+  /**
+   * Makes a prediction for the instance using the model of the replica. The
+   * original model gets locked, as it can be used outside the pool as well.
    *
+   * @param replica	the replica to use
    * @param inst	the instance to process
-   * @return		the generated output token (e.g., container)
-   * @throws Exception	if processing fails
+   * @return		the prediction
+   * @throws Exception	if prediction fails
    */
-  @Override
-  protected Token processInstance(Instance inst) throws Exception {
-    Token			result;
-    WekaPredictionContainer	cont;
+  protected WekaPredictionContainer predict(Replica<Classifier> replica, Instance inst) throws Exception {
+    if (replica.isOriginal()) {
+      synchronized(replica.getModel()) {
+	return predict(replica.getModel(), inst);
+      }
+    }
+    else {
+      return predict(replica.getModel(), inst);
+    }
+  }
+
+  /**
+   * Makes a prediction for the instance using the specified model.
+   *
+   * @param model	the model to use
+   * @param inst	the instance to process
+   * @return		the prediction
+   * @throws Exception	if prediction fails
+   */
+  protected WekaPredictionContainer predict(Classifier model, Instance inst) throws Exception {
+    WekaPredictionContainer	result;
     List<String>		rangeChecks;
     String			rangeCheck;
     AbstainingClassifier	abstain;
     double			classification;
     double[]			distribution;
 
-    synchronized(m_Model) {
-      // does the classifier support range checks?
-      rangeCheck = null;
-      if (m_Model instanceof RangeCheckClassifier) {
-	rangeChecks = ((RangeCheckClassifier) m_Model).checkRangeForInstance(inst);
-	if (rangeChecks.size() > 0)
-	  rangeCheck = Utils.flatten(rangeChecks, "\n");
+    // does the classifier support range checks?
+    rangeCheck = null;
+    if (model instanceof RangeCheckClassifier) {
+      rangeChecks = ((RangeCheckClassifier) model).checkRangeForInstance(inst);
+      if (rangeChecks.size() > 0)
+	rangeCheck = Utils.flatten(rangeChecks, "\n");
+    }
+
+    if (inst.classAttribute().isNumeric()) {
+      classification = model.classifyInstance(inst);
+      distribution = new double[]{classification};
+    }
+    else {
+      distribution = model.distributionForInstance(inst);
+      classification = StatUtils.maxIndex(distribution);
+      if (distribution[(int) Math.round(classification)] == 0)
+	classification = weka.core.Utils.missingValue();
+    }
+    result = new WekaPredictionContainer(inst, classification, distribution, rangeCheck);
+
+    // abstaining classifier?
+    if (model instanceof AbstainingClassifier) {
+      abstain = (AbstainingClassifier) model;
+      if (abstain.canAbstain()) {
+	if (inst.classAttribute().isNumeric()) {
+	  classification = abstain.getAbstentionClassification(inst);
+	  distribution = new double[]{classification};
+	}
+	else {
+	  distribution = abstain.getAbstentionDistribution(inst);
+	  classification = StatUtils.maxIndex(distribution);
+	  if (distribution[(int) Math.round(classification)] == 0)
+	    classification = weka.core.Utils.missingValue();
+	}
+	result.setValue(WekaPredictionContainer.VALUE_ABSTENTION_CLASSIFICATION, classification);
+	if (inst.classAttribute().isNominal() && !weka.core.Utils.isMissingValue(classification))
+	  result.setValue(WekaPredictionContainer.VALUE_ABSTENTION_CLASSIFICATION_LABEL, inst.classAttribute().value((int) Math.round(classification)));
+	result.setValue(WekaPredictionContainer.VALUE_ABSTENTION_DISTRIBUTION, distribution);
       }
+    }
+
+    return result;
+  }
+
+  /**
+   * Processes the instance and generates the output token.
+   *
+   * @param inst	the instance to process
+   * @return		the generated output token (e.g., container)
+   * @throws Exception	if processing fails
+   */
+  @Override
+  protected Token processInstance(Instance inst) throws Exception {
+    WekaPredictionContainer		cont;
+    ModelReplicaPool<Classifier>	replicas;
+    Replica<Classifier>			replica;
+    long				start;
 
-      if (inst.classAttribute().isNumeric()) {
-	classification = m_Model.classifyInstance(inst);
-	distribution = new double[]{classification};
+    if (m_NumReplicas > 1) {
+      replicas = getReplicas();
+      replica  = replicas.acquire();
+      start    = System.nanoTime();
+      try {
+	cont = predict(replica, inst);
       }
-      else {
-	distribution = m_Model.distributionForInstance(inst);
-	classification = StatUtils.maxIndex(distribution);
-	if (distribution[(int) Math.round(classification)] == 0)
-	  classification = weka.core.Utils.missingValue();
+      finally {
+	replicas.release(replica, 1, System.nanoTime() - start);
       }
-      cont = new WekaPredictionContainer(inst, classification, distribution, rangeCheck);
-
-      // abstaining classifier?
-      if (m_Model instanceof AbstainingClassifier) {
-	abstain = (AbstainingClassifier) m_Model;
-	if (abstain.canAbstain()) {
-	  if (inst.classAttribute().isNumeric()) {
-	    classification = abstain.getAbstentionClassification(inst);
-	    distribution = new double[]{classification};
-	  }
-	  else {
-	    distribution = abstain.getAbstentionDistribution(inst);
-	    classification = StatUtils.maxIndex(distribution);
-	    if (distribution[(int) Math.round(classification)] == 0)
-	      classification = weka.core.Utils.missingValue();
-	  }
-	  cont.setValue(WekaPredictionContainer.VALUE_ABSTENTION_CLASSIFICATION, classification);
-	  if (inst.classAttribute().isNominal() && !weka.core.Utils.isMissingValue(classification))
-	    cont.setValue(WekaPredictionContainer.VALUE_ABSTENTION_CLASSIFICATION_LABEL, inst.classAttribute().value((int) Math.round(classification)));
-	  cont.setValue(WekaPredictionContainer.VALUE_ABSTENTION_DISTRIBUTION, distribution);
-	}
+    }
+    else {
+      synchronized(m_Model) {
+	cont = predict(m_Model, inst);
       }
     }
 
+    return toToken(cont);
+  }
+
+  /**
+   * Generates the output token from the prediction container.
+   *
+   * @param cont	the container with the prediction
+   * @return		the token
+   * @see		#getOutputInstance()
+   */
+  protected Token toToken(WekaPredictionContainer cont) {
+    Instance	inst;
+
     if (m_OutputInstance) {
       inst = (Instance) ((Instance) cont.getValue(WekaPredictionContainer.VALUE_INSTANCE)).copy();
       inst.setClassValue((Double) cont.getValue(WekaPredictionContainer.VALUE_CLASSIFICATION));
-      result = new Token(inst);
+      return new Token(inst);
+    }
+    else {
+      return new Token(cont);
+    }
+  }
+
+  /**
+   * Processes the instances and generates the output tokens.
+   * <br><br>
+   * Uses batch prediction if the classifier implements it more efficiently
+   * (and performs neither range checks nor abstaining) and all instances
+   * share the same dataset, otherwise processes them one by one.
+   *
+   * @param insts	the instances to process
+   * @return		the generated output tokens (e.g., containers)
+   * @throws Exception	if processing fails
+   */
+  @Override
+  protected Token[] processInstances(Instance[] insts) throws Exception {
+    Token[]				result;
+    Instances				data;
+    double[][]				distributions;
+    double[]				distribution;
+    double				classification;
+    int					i;
+    ModelReplicaPool<Classifier>	replicas;
+    Replica<Classifier>			replica;
+    long				start;
+
+    if ((insts.length < 2) || (insts[0].dataset() == null))
+      return super.processInstances(insts);
+    if (!(m_Model instanceof BatchPredictor) || !((BatchPredictor) m_Model).implementsMoreEfficientBatchPrediction())
+      return super.processInstances(insts);
+    if ((m_Model instanceof RangeCheckClassifier) || (m_Model instanceof AbstainingClassifier))
+      return super.processInstances(insts);
+    for (i = 1; i < insts.length; i++) {
+      if (insts[i].dataset() != insts[0].dataset())
+	return super.processInstances(insts);
+    }
+
+    data = new Instances(insts[0].dataset(), insts.length);
+    for (Instance inst: insts)
+      data.add(inst);
+    if (m_NumReplicas > 1) {
+      replicas = getReplicas();
+      replica  = replicas.acquire();
+      start    = System.nanoTime();
+      try {
+	if (replica.isOriginal()) {
+	  synchronized(replica.getModel()) {
+	    distributions = ((BatchPredictor) replica.getModel()).distributionsForInstances(data);
+	  }
+	}
+	else {
+	  distributions = ((BatchPredictor) replica.getModel()).distributionsForInstances(data);
+	}
+      }
+      finally {
+	replicas.release(replica, data.numInstances(), System.nanoTime() - start);
+      }
     }
     else {
-      result = new Token((WekaPredictionContainer) cont);
+      synchronized(m_Model) {
+	distributions = ((BatchPredictor) m_Model).distributionsForInstances(data);
+      }
+    }
+
+    result = new Token[insts.length];
+    for (i = 0; i < insts.length; i++) {
+      if (insts[i].classAttribute().isNumeric()) {
+	classification = distributions[i][0];
+	distribution   = new double[]{classification};
+      }
+      else {
+	distribution   = distributions[i];
+	classification = StatUtils.maxIndex(distribution);
+	if (distribution[(int) Math.round(classification)] == 0)
+	  classification = weka.core.Utils.missingValue();
+      }
+      result[i] = toToken(new WekaPredictionContainer(insts[i], classification, distribution));
     }
 
     return result;
   }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    if ((m_Replicas != null) && isLoggingEnabled())
+      getLogger().info("Model replicas:\n" + m_Replicas.getStatistics());
+    m_Replicas = null;
+
+    super.wrapUp();
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * WekaInstanceBuffer.java
- * Copyright (C) 2009-2025 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -25,6 +25,7 @@ import adams.core.QuickInfoHelper;
 import adams.core.VariableName;
 import adams.data.instances.Compatibility;
 import adams.event.VariableChangeEvent;
+import adams.flow.core.BatchToken;
 import adams.flow.core.Token;
 import adams.flow.core.VariableMonitor;
 import weka.core.BinarySparseInstance;
@@ -44,7 +45,8 @@ import java.util.List;
  * 1. Instance -&gt; Instances (row -&gt; dataset)<br>
  * Buffers weka.core.Instance objects and outputs a weka.core.Instances object, whenever the interval condition has been met.<br>
  * 2. Instances -&gt; Instance (dataset -&gt; row)<br>
- * Outputs all the weka.core.Instance objects that the incoming weka.core.Instances object contains.
+ * Outputs all the weka.core.Instance objects that the incoming weka.core.Instances object contains.<br>
+ * With a batch size larger than 1, the rows get forwarded in batches (see adams.flow.core.BatchToken), which get split up again automatically for actors that cannot process batches.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -130,6 +132,13 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;default: variable
  * </pre>
  *
+ * <pre>-batch-size &lt;int&gt; (property: batchSize)
+ * &nbsp;&nbsp;&nbsp;The number of rows to forward at once as batch (in case of INSTANCES_TO_INSTANCE
+ * &nbsp;&nbsp;&nbsp;); 1 forwards the rows one by one.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -187,6 +196,9 @@ public class WekaInstanceBuffer
   /** whether variable triggered clear of buffer. */
   protected boolean m_ClearBufferRequired;
 
+  /** the number of rows to forward at once. */
+  protected int m_BatchSize;
+
   /**
    * Returns a string describing the object.
    *
@@ -201,7 +213,10 @@ public class WekaInstanceBuffer
 	+ "object, whenever the interval condition has been met.\n"
 	+ "2. Instances -> Instance (dataset -> row)\n"
 	+ "Outputs all the weka.core.Instance objects that the incoming "
-	+ "weka.core.Instances object contains.";
+	+ "weka.core.Instances object contains.\n"
+	+ "With a batch size larger than 1, the rows get forwarded in batches "
+	+ "(see " + BatchToken.class.getName() + "), which get split up again "
+	+ "automatically for actors that cannot process batches.";
   }
 
   /**
@@ -234,6 +249,10 @@ public class WekaInstanceBuffer
     m_OptionManager.add(
       "var-name", "variableName",
       new VariableName());
+
+    m_OptionManager.add(
+      "batch-size", "batchSize",
+      1, 1, null);
   }
 
   /**
@@ -254,6 +273,7 @@ public class WekaInstanceBuffer
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "lenient", m_Lenient, "lenient"));
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "clearBuffer", m_ClearBuffer, "clear"));
     QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "variableName", m_VariableName.paddedValue()));
+    QuickInfoHelper.add(options, QuickInfoHelper.toString(this, "batchSize", (m_BatchSize > 1 ? m_BatchSize : null), "batch: "));
     result += QuickInfoHelper.flatten(options);
 
     return result;
@@ -439,6 +459,39 @@ public class WekaInstanceBuffer
     return "The variable to monitor.";
   }
 
+  /**
+   * Sets the number of rows to forward at once.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of rows to forward at once.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+      "The number of rows to forward at once as batch (in case of "
+	+ Operation.INSTANCES_TO_INSTANCE + "); 1 forwards the rows one by one.";
+  }
+
   /**
    * Gets triggered when a variable changed (added, modified, removed).
    *
@@ -675,14 +728,23 @@ public class WekaInstanceBuffer
    */
   @Override
   public Token output() {
-    Token	result;
+    Token		result;
+    List<Instance>	rows;
 
     if (m_Operation == Operation.INSTANCE_TO_INSTANCES) {
       result        = m_OutputToken;
       m_OutputToken = null;
     }
     else if (m_Operation == Operation.INSTANCES_TO_INSTANCE) {
-      result = new Token(m_Iterator.next());
+      if (m_BatchSize == 1) {
+	result = new Token(m_Iterator.next());
+      }
+      else {
+	rows = new ArrayList<>();
+	while (m_Iterator.hasNext() && (rows.size() < m_BatchSize))
+	  rows.add(m_Iterator.next());
+	result = new BatchToken(rows);
+      }
     }
     else {
       throw new IllegalStateException("Unhandled operation: " + m_Operation);
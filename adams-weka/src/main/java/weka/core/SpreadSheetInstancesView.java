@@ -0,0 +1,845 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpreadSheetInstancesView.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.core;
+
+import adams.core.Constants;
+import adams.data.SharedStringsTable;
+import adams.data.spreadsheet.Cell;
+import adams.data.spreadsheet.Cell.ContentType;
+import adams.data.spreadsheet.ColumnarColumn;
+import adams.data.spreadsheet.ColumnarColumn.DoubleColumn;
+import adams.data.spreadsheet.ColumnarColumn.LongColumn;
+import adams.data.spreadsheet.ColumnarColumn.StringColumn;
+import adams.data.spreadsheet.ColumnarSpreadSheet;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.env.Environment;
+import adams.ml.data.Dataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Presents a spreadsheet as an Instances object, without copying the data.
+ * The instances get generated on demand from the rows of the spreadsheet,
+ * reading the typed column storage directly in case of a
+ * {@link ColumnarSpreadSheet}. The lookups of nominal/string values in the
+ * shared strings table get cached per column.
+ * <br>
+ * Instances whose values get modified are kept by the view. Since Weka's
+ * {@link Instance#setWeight(double)} cannot be overridden, weight changes
+ * cannot be detected. Therefore all issued instances get kept as well
+ * and get used once the view gets converted, i.e., the same instance gets
+ * returned for a row and no weight changes get lost. Any modification of the dataset itself (adding, removing, sorting, etc.)
+ * converts the view into a regular dataset first. The spreadsheet must not
+ * be modified while the view is in use.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpreadSheetInstancesView
+  extends Instances {
+
+  private static final long serialVersionUID = -2436188226414378035L;
+
+  /** the underlying spreadsheet. */
+  protected SpreadSheet m_Sheet;
+
+  /** the instances that got modified (row - instance). */
+  protected Map<Integer,Instance> m_Modified;
+
+  /** the instances that got issued but not modified (row - instance), for retaining weight changes. */
+  protected Map<Integer,ViewInstance> m_Issued;
+
+  /** the lookup of string indices per column (string index - attribute value), lazily created. */
+  protected int[][] m_Lookups;
+
+  /** whether the data got converted into a regular dataset. */
+  protected boolean m_Materialized;
+
+  /**
+   * Initializes the view.
+   *
+   * @param sheet	the underlying spreadsheet
+   * @param maxLabels	the maximum number of labels for a nominal attribute,
+   * 			before it gets turned into a string attribute
+   */
+  public SpreadSheetInstancesView(SpreadSheet sheet, int maxLabels) {
+    super(sheet.hasName() ? sheet.getName() : Environment.getInstance().getProject(), createAttributes(sheet, maxLabels), 0);
+
+    int[]	classIndices;
+
+    m_Sheet        = sheet;
+    m_Modified     = new HashMap<>();
+    m_Issued       = new HashMap<>();
+    m_Lookups      = new int[numAttributes()][];
+    m_Materialized = false;
+
+    if (sheet instanceof Dataset) {
+      classIndices = ((Dataset) sheet).getClassAttributeIndices();
+      if (classIndices.length > 0)
+	setClassIndex(classIndices[0]);
+    }
+  }
+
+  /**
+   * Returns the underlying spreadsheet.
+   *
+   * @return		the spreadsheet
+   */
+  public SpreadSheet getSpreadSheet() {
+    return m_Sheet;
+  }
+
+  /**
+   * Returns whether the view got converted into a regular dataset.
+   *
+   * @return		true if converted
+   */
+  public boolean isMaterialized() {
+    return m_Materialized;
+  }
+
+  /**
+   * Collects the unique labels of the column, stops once the maximum has
+   * been exceeded.
+   *
+   * @param sheet	the spreadsheet to use
+   * @param col		the column
+   * @param maxLabels	the maximum number of labels
+   * @return		the labels
+   */
+  protected static HashSet<String> uniqueLabels(SpreadSheet sheet, int col, int maxLabels) {
+    HashSet<String>	result;
+    HashSet<Integer>	indices;
+    ColumnarColumn	column;
+    SharedStringsTable	table;
+    Cell		cell;
+    int			n;
+    int			index;
+
+    result = new HashSet<>();
+    column = (sheet instanceof ColumnarSpreadSheet) ? ((ColumnarSpreadSheet) sheet).getColumn(col) : null;
+
+    if (column instanceof StringColumn) {
+      table   = sheet.getSharedStringsTable();
+      indices = new HashSet<>();
+      for (n = 0; n < sheet.getRowCount(); n++) {
+	index = ((StringColumn) column).getIndex(n);
+	if ((index != -1) && indices.add(index)) {
+	  result.add(table.getString(index));
+	  if (result.size() > maxLabels)
+	    break;
+	}
+      }
+    }
+    else {
+      for (n = 0; n < sheet.getRowCount(); n++) {
+	cell = sheet.getCell(n, col);
+	if ((cell != null) && !cell.isMissing()) {
+	  result.add(cell.getContent());
+	  if (result.size() > maxLabels)
+	    break;
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the attributes for the spreadsheet. Numeric columns get
+   * turned into NUMERIC attributes, date/time columns into DATE attributes.
+   * All other columns become NOMINAL attributes (sorted labels) or STRING
+   * attributes, if they have more than the maximum number of labels.
+   *
+   * @param sheet	the spreadsheet to generate the attributes for
+   * @param maxLabels	the maximum number of labels for a nominal attribute,
+   * 			before it gets turned into a string attribute
+   * @return		the attributes
+   */
+  public static ArrayList<Attribute> createAttributes(SpreadSheet sheet, int maxLabels) {
+    ArrayList<Attribute>	result;
+    HashSet<String>		unique;
+    ArrayList<String>		labels;
+    Collection<ContentType>	types;
+    ContentType			type;
+    String			name;
+    boolean			added;
+    int				i;
+
+    result = new ArrayList<>();
+    for (i = 0; i < sheet.getColumnCount(); i++) {
+      added = false;
+      name  = sheet.getHeaderRow().getCell(i).getContent();
+      types = sheet.getContentTypes(i);
+      if (types.contains(ContentType.DOUBLE))
+	types.remove(ContentType.LONG);
+      if (types.contains(ContentType.LONG)) {
+	types.add(ContentType.DOUBLE);
+	types.remove(ContentType.LONG);
+      }
+
+      if (types.size() == 1) {
+	type = (ContentType) types.toArray()[0];
+	if (type == ContentType.DOUBLE) {
+	  result.add(new Attribute(name));
+	  added = true;
+	}
+	else if (type == ContentType.DATE) {
+	  result.add(new Attribute(name, Constants.TIMESTAMP_FORMAT));
+	  added = true;
+	}
+	else if (type == ContentType.TIME) {
+	  result.add(new Attribute(name, Constants.TIME_FORMAT));
+	  added = true;
+	}
+      }
+
+      if (!added) {
+	if (maxLabels < 1) {
+	  result.add(new Attribute(name, (ArrayList) null));
+	}
+	else {
+	  unique = uniqueLabels(sheet, i, maxLabels);
+	  if (unique.size() > maxLabels) {
+	    result.add(new Attribute(name, (ArrayList) null));
+	  }
+	  else {
+	    labels = new ArrayList<>(unique);
+	    Collections.sort(labels);
+	    result.add(new Attribute(name, labels));
+	  }
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the internal value for the string, i.e., the index of the label
+   * or of the string value (gets added if necessary).
+   *
+   * @param att		the attribute index
+   * @param s		the string
+   * @return		the value, missing if not a valid label
+   */
+  protected synchronized double stringValue(int att, String s) {
+    int		index;
+
+    if (attribute(att).isString())
+      return attribute(att).addStringValue(s);
+
+    index = attribute(att).indexOfValue(s);
+    if (index == -1)
+      return Utils.missingValue();
+    else
+      return index;
+  }
+
+  /**
+   * Returns the internal value for the string from the shared strings table,
+   * using the cached lookup of the column.
+   *
+   * @param att		the attribute index
+   * @param index	the index in the shared strings table
+   * @return		the value
+   */
+  protected synchronized double lookUpValue(int att, int index) {
+    int[]	lookup;
+    int		size;
+    int		oldSize;
+    double	result;
+
+    lookup = m_Lookups[att];
+    if ((lookup == null) || (index >= lookup.length)) {
+      size = Math.max(index + 1, m_Sheet.getSharedStringsTable().size());
+      if (lookup == null) {
+	lookup = new int[size];
+	Arrays.fill(lookup, -2);
+      }
+      else {
+	oldSize = lookup.length;
+	lookup  = Arrays.copyOf(lookup, size);
+	Arrays.fill(lookup, oldSize, size, -2);
+      }
+      m_Lookups[att] = lookup;
+    }
+
+    if (lookup[index] == -2) {
+      result = stringValue(att, m_Sheet.getSharedStringsTable().getString(index));
+      lookup[index] = Utils.isMissingValue(result) ? -1 : (int) result;
+    }
+
+    if (lookup[index] == -1)
+      return Utils.missingValue();
+    else
+      return lookup[index];
+  }
+
+  /**
+   * Returns the internal value for the specified cell.
+   *
+   * @param row		the row
+   * @param att		the attribute/column index
+   * @return		the value
+   */
+  protected double value(int row, int att) {
+    ColumnarColumn	column;
+    Cell		cell;
+
+    // typed column storage
+    if (m_Sheet instanceof ColumnarSpreadSheet) {
+      column = ((ColumnarSpreadSheet) m_Sheet).getColumn(att);
+      if (attribute(att).isNumeric() && ((column instanceof DoubleColumn) || (column instanceof LongColumn)))
+	return column.isMissing(row) ? Utils.missingValue() : column.getDouble(row);
+      if ((attribute(att).isNominal() || attribute(att).isString()) && (column instanceof StringColumn))
+	return column.isMissing(row) ? Utils.missingValue() : lookUpValue(att, ((StringColumn) column).getIndex(row));
+    }
+
+    cell = m_Sheet.getCell(row, att);
+    if ((cell == null) || cell.isMissing())
+      return Utils.missingValue();
+    if (attribute(att).type() == Attribute.DATE) {
+      if (cell.isTime())
+	return cell.toTime().getTime();
+      else
+	return cell.toDate().getTime();
+    }
+    if (attribute(att).isNumeric())
+      return adams.core.Utils.toDouble(cell.getContent());
+    return stringValue(att, cell.getContent());
+  }
+
+  /**
+   * Generates the instance for the specified row.
+   *
+   * @param row		the row
+   * @return		the instance
+   */
+  protected Instance newInstance(int row) {
+    ViewInstance	result;
+    double[]		values;
+    int			i;
+
+    values = new double[numAttributes()];
+    for (i = 0; i < values.length; i++)
+      values[i] = value(row, i);
+    result = new ViewInstance(this, row, values);
+    result.setDataset(this);
+
+    return result;
+  }
+
+  /**
+   * Keeps the modified instance.
+   *
+   * @param row		the row of the instance
+   * @param inst	the instance
+   */
+  protected synchronized void modified(int row, Instance inst) {
+    if (!m_Materialized) {
+      m_Issued.remove(row);
+      m_Modified.put(row, inst);
+    }
+  }
+
+  /**
+   * Converts the view into a regular dataset, if not already done.
+   */
+  public synchronized void materialize() {
+    Instance	inst;
+    int		i;
+
+    if (m_Materialized)
+      return;
+
+    m_Instances = new ArrayList<>(m_Sheet.getRowCount());
+    for (i = 0; i < m_Sheet.getRowCount(); i++) {
+      inst = m_Modified.get(i);
+      if (inst == null)
+	inst = m_Issued.get(i);
+      if (inst == null)
+	inst = (Instance) newInstance(i).copy();
+      inst.setDataset(this);
+      m_Instances.add(inst);
+    }
+    m_Modified     = null;
+    m_Issued       = null;
+    m_Lookups      = null;
+    m_Materialized = true;
+  }
+
+  /**
+   * Adds one instance to the end of the set. Shallow copies instance before it
+   * is added. Increases the size of the dataset if it is not large enough. Does
+   * not check if the instance is compatible with the dataset. Note: String or
+   * relational values are not transferred.
+   *
+   * @param instance the instance to be added
+   */
+  @Override
+  public boolean add(Instance instance) {
+    materialize();
+    return super.add(instance);
+  }
+
+  /**
+   * Adds one instance at the given position in the list. Shallow
+   * copies instance before it is added. Increases the size of the
+   * dataset if it is not large enough. Does not check if the instance
+   * is compatible with the dataset. Note: String or relational values
+   * are not transferred.
+   *
+   * @param index position where instance is to be inserted
+   * @param instance the instance to be added
+   */
+  @Override
+  public void add(int index, Instance instance) {
+    materialize();
+    super.add(index, instance);
+  }
+
+  /**
+   * Compactifies the set of instances, if already materialized.
+   */
+  @Override
+  public void compactify() {
+    if (m_Materialized)
+      super.compactify();
+  }
+
+  /**
+   * Removes all instances from the set.
+   */
+  @Override
+  public void delete() {
+    materialize();
+    super.delete();
+  }
+
+  /**
+   * Removes an instance at the given position from the set.
+   *
+   * @param index the instance's position (index starts with 0)
+   */
+  @Override
+  public void delete(int index) {
+    materialize();
+    super.delete(index);
+  }
+
+  /**
+   * Deletes an attribute at the given position (0 to numAttributes()
+   * - 1).
+   *
+   * @param position the attribute's position (position starts with 0)
+   * @throws IllegalArgumentException if the given index is out of range or the
+   *           class attribute is being deleted
+   */
+  @Override
+  public void deleteAttributeAt(int position) {
+    materialize();
+    super.deleteAttributeAt(position);
+  }
+
+  /**
+   * Deletes all attributes of the given type in the dataset.
+   *
+   * @param attType the attribute type to delete
+   * @throws IllegalArgumentException if attribute couldn't be successfully
+   *           deleted (probably because it is the class attribute).
+   */
+  @Override
+  public void deleteAttributeType(int attType) {
+    materialize();
+    super.deleteAttributeType(attType);
+  }
+
+  /**
+   * Removes all instances with missing values for a particular attribute from
+   * the dataset.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void deleteWithMissing(int attIndex) {
+    materialize();
+    super.deleteWithMissing(attIndex);
+  }
+
+  /**
+   * Returns an enumeration of all instances in the dataset.
+   *
+   * @return enumeration of all instances in the dataset
+   */
+  @Override
+  public Enumeration<Instance> enumerateInstances() {
+    if (m_Materialized)
+      return super.enumerateInstances();
+
+    // generate instances one by one, rather than converting the view
+    return new Enumeration<Instance>() {
+      protected int m_Index = 0;
+      @Override
+      public boolean hasMoreElements() {
+	return (m_Index < numInstances());
+      }
+      @Override
+      public Instance nextElement() {
+	return instance(m_Index++);
+      }
+    };
+  }
+
+  /**
+   * Returns the first instance in the set.
+   *
+   * @return the first instance in the set
+   */
+  @Override
+  public Instance firstInstance() {
+    return instance(0);
+  }
+
+  /**
+   * Inserts an attribute at the given position (0 to numAttributes())
+   * and sets all values to be missing.
+   *
+   * @param att the attribute to be inserted
+   * @param position the attribute's position (position starts with 0)
+   * @throws IllegalArgumentException if the given index is out of range
+   */
+  @Override
+  public void insertAttributeAt(Attribute att, int position) {
+    materialize();
+    super.insertAttributeAt(att, position);
+  }
+
+  /**
+   * Returns the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance instance(int index) {
+    Instance	result;
+
+    if (m_Materialized)
+      return super.instance(index);
+
+    synchronized(this) {
+      result = m_Modified.get(index);
+      if (result == null)
+	result = m_Issued.get(index);
+      if (result == null) {
+	if ((index < 0) || (index >= m_Sheet.getRowCount()))
+	  throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_Sheet.getRowCount());
+	result = newInstance(index);
+	m_Issued.put(index, (ViewInstance) result);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance get(int index) {
+    return instance(index);
+  }
+
+  /**
+   * Returns the last instance in the set.
+   *
+   * @return the last instance in the set
+   */
+  @Override
+  public Instance lastInstance() {
+    return instance(numInstances() - 1);
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int size() {
+    return numInstances();
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int numInstances() {
+    return m_Materialized ? super.numInstances() : m_Sheet.getRowCount();
+  }
+
+  /**
+   * Swaps two instances in the set.
+   *
+   * @param i the first instance's index (index starts with 0)
+   * @param j the second instance's index (index starts with 0)
+   */
+  @Override
+  public void swap(int i, int j) {
+    materialize();
+    super.swap(i, j);
+  }
+
+  /**
+   * Replaces the attribute at the given position (0 to
+   * numAttributes()) with the given attribute and sets all its values to
+   * be missing.
+   *
+   * @param att the attribute to be inserted
+   * @param position the attribute's position (position starts with 0)
+   * @throws IllegalArgumentException if the given index is out of range
+   */
+  @Override
+  public void replaceAttributeAt(Attribute att, int position) {
+    materialize();
+    super.replaceAttributeAt(att, position);
+  }
+
+  /**
+   * Removes the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance remove(int index) {
+    materialize();
+    return super.remove(index);
+  }
+
+  /**
+   * Replaces the instance at the given position. Shallow copies instance before
+   * it is added. Does not check if the instance is compatible with the dataset.
+   * Note: String or relational values are not transferred.
+   *
+   * @param index position where instance is to be inserted
+   * @param instance the instance to be inserted
+   * @return the instance previously at that position
+   */
+  @Override
+  public Instance set(int index, Instance instance) {
+    materialize();
+    return super.set(index, instance);
+  }
+
+  /**
+   * Sorts the instances based on an attribute.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void sort(int attIndex) {
+    materialize();
+    super.sort(attIndex);
+  }
+
+  /**
+   * Sorts the instances based on an attribute, using a stable sort.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void stableSort(int attIndex) {
+    materialize();
+    super.stableSort(attIndex);
+  }
+
+  /**
+   * Calculates summary statistics on the values that appear in this set of
+   * instances for a specified attribute.
+   *
+   * @param index the index of the attribute to summarize (index starts with 0)
+   * @return an AttributeStats object with it's fields calculated.
+   */
+  @Override
+  public AttributeStats attributeStats(int index) {
+    if (m_Materialized)
+      return super.attributeStats(index);
+
+    AttributeStats result = new AttributeStats();
+    if (attribute(index).isNominal()) {
+      result.nominalCounts = new int[attribute(index).numValues()];
+      result.nominalWeights = new double[attribute(index).numValues()];
+    }
+    if (attribute(index).isNumeric())
+      result.numericStats = new weka.experiment.Stats();
+    result.totalCount = numInstances();
+
+    HashMap<Double,double[]> map = new HashMap<>(2 * result.totalCount);
+    for (int i = 0; i < numInstances(); i++) {
+      Instance current = instance(i);
+      double key = current.value(index);
+      if (Utils.isMissingValue(key)) {
+        result.missingCount++;
+      } else {
+        double[] values = map.get(key);
+        if (values == null) {
+          values = new double[2];
+          values[0] = 1.0;
+          values[1] = current.weight();
+          map.put(key, values);
+        } else {
+          values[0]++;
+          values[1] += current.weight();
+        }
+      }
+    }
+
+    for (Entry<Double, double[]> entry : map.entrySet()) {
+      result.addDistinct(entry.getKey(), (int)entry.getValue()[0], entry.getValue()[1]);
+    }
+    return result;
+  }
+
+  /**
+   * Help function needed for stratification of set.
+   *
+   * @param numFolds the number of folds for the stratification
+   */
+  @Override
+  protected void stratStep(int numFolds) {
+    materialize();
+    super.stratStep(numFolds);
+  }
+
+  /**
+   * Instance generated by the view, which gets kept by the view once its
+   * values get modified.
+   */
+  public static class ViewInstance
+    extends DenseInstance {
+
+    private static final long serialVersionUID = 4137424716337271040L;
+
+    /** the view this instance belongs to, null once modified. */
+    protected transient SpreadSheetInstancesView m_View;
+
+    /** the row in the spreadsheet. */
+    protected int m_Row;
+
+    /**
+     * Initializes the instance.
+     *
+     * @param view	the view the instance belongs to
+     * @param row	the row in the spreadsheet
+     * @param values	the values
+     */
+    public ViewInstance(SpreadSheetInstancesView view, int row, double[] values) {
+      super(1.0, values);
+      m_View = view;
+      m_Row  = row;
+    }
+
+    /**
+     * Notifies the view that the instance got modified.
+     */
+    protected void modified() {
+      if (m_View != null) {
+	m_View.modified(m_Row, this);
+	m_View = null;
+      }
+    }
+
+    /**
+     * Sets a specific value in the instance to the given value (internal
+     * floating-point format).
+     *
+     * @param attIndex the attribute's index
+     * @param value the new attribute value
+     */
+    @Override
+    public void setValue(int attIndex, double value) {
+      modified();
+      super.setValue(attIndex, value);
+    }
+
+    /**
+     * Sets a specific value in the instance to the given value (internal
+     * floating-point format).
+     *
+     * @param indexOfIndex the index of the attribute's index
+     * @param value the new attribute value
+     */
+    @Override
+    public void setValueSparse(int indexOfIndex, double value) {
+      modified();
+      super.setValueSparse(indexOfIndex, value);
+    }
+
+    /**
+     * Replaces all missing values in the instance with the values contained in
+     * the given array.
+     *
+     * @param array containing the means and modes
+     */
+    @Override
+    public void replaceMissingValues(double[] array) {
+      modified();
+      super.replaceMissingValues(array);
+    }
+
+    /**
+     * Deletes an attribute at the given position (0 to numAttributes() - 1).
+     *
+     * @param position the attribute's position
+     */
+    @Override
+    public void deleteAttributeAt(int position) {
+      modified();
+      super.deleteAttributeAt(position);
+    }
+
+    /**
+     * Inserts an attribute at the given position (0 to numAttributes()),
+     * with a missing value.
+     *
+     * @param position the attribute's position
+     */
+    @Override
+    public void insertAttributeAt(int position) {
+      modified();
+      super.insertAttributeAt(position);
+    }
+  }
+}
@@ -15,7 +15,7 @@
 
 /**
  * SpreadSheetToWekaInstancesTest.java
- * Copyright (C) 2011-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2011-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.conversion;
@@ -23,9 +23,13 @@ package adams.data.conversion;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import adams.data.io.input.CsvSpreadSheetReader;
+import adams.data.spreadsheet.ColumnarSpreadSheet;
 import adams.data.spreadsheet.SpreadSheet;
 import adams.env.Environment;
 import adams.test.TmpFile;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SpreadSheetInstancesView;
 
 /**
  * Tests the SpreadSheetToInstances conversion.
@@ -91,6 +95,120 @@ public class SpreadSheetToWekaInstancesTest
     return result;
   }
 
+  /**
+   * Tests whether the view generates the same data as the copy, for regular
+   * and columnar spreadsheets.
+   */
+  public void testView() {
+    CsvSpreadSheetReader	reader;
+    SpreadSheetToWekaInstances	conv;
+    SpreadSheet			sheet;
+    Object[]			copy;
+    Object[]			view;
+
+    for (String file: new String[]{"bolts.csv", "labor.csv"}) {
+      for (boolean columnar: new boolean[]{false, true}) {
+	reader = new CsvSpreadSheetReader();
+	if (columnar)
+	  reader.setSpreadSheetType(new ColumnarSpreadSheet());
+	sheet = reader.read(new TmpFile(file).getAbsolutePath());
+	conv  = new SpreadSheetToWekaInstances();
+	copy  = process(sheet, conv);
+	assertNull("failed to convert " + file, copy[1]);
+	conv  = new SpreadSheetToWekaInstances();
+	conv.setView(true);
+	view  = process(sheet, conv);
+	assertNull("failed to convert " + file, view[1]);
+	assertTrue("not a view: " + file, view[0] instanceof SpreadSheetInstancesView);
+	assertEquals("output differs: " + file + "/" + columnar, copy[0].toString(), view[0].toString());
+      }
+    }
+  }
+
+  /**
+   * Tests the conversion of the view once the data gets modified.
+   */
+  public void testViewModification() {
+    SpreadSheetInstancesView	view;
+    Instances			data;
+    SpreadSheet			sheet;
+
+    sheet = new CsvSpreadSheetReader().read(new TmpFile("bolts.csv").getAbsolutePath());
+    view  = new SpreadSheetInstancesView(sheet, 25);
+    assertEquals("# instances differ", sheet.getRowCount(), view.numInstances());
+
+    view.instance(0).setValue(0, 42.0);
+    assertEquals("modified value not kept", 42.0, view.instance(0).value(0));
+    assertFalse("should not be materialized", view.isMaterialized());
+
+    data = new Instances(view);
+    assertEquals("# instances differ", sheet.getRowCount(), data.numInstances());
+    assertFalse("should not be materialized", view.isMaterialized());
+
+    view.delete(1);
+    assertTrue("should be materialized", view.isMaterialized());
+    assertEquals("# instances differ", sheet.getRowCount() - 1, view.numInstances());
+    assertEquals("modified value not kept", 42.0, view.instance(0).value(0));
+    assertEquals("instance differs", data.instance(2).toString(), view.instance(1).toString());
+  }
+
+  /**
+   * Tests whether weight changes of instances get kept by the view.
+   */
+  public void testViewWeights() {
+    SpreadSheetInstancesView	view;
+    Instance			inst;
+    Instances			data;
+    SpreadSheet			sheet;
+    int				i;
+
+    sheet = new CsvSpreadSheetReader().read(new TmpFile("bolts.csv").getAbsolutePath());
+    view  = new SpreadSheetInstancesView(sheet, 25);
+
+    view.instance(0).setWeight(2.0);
+    assertEquals("weight not kept", 2.0, view.instance(0).weight());
+    view.instance(1).setWeight(3.0);
+    assertEquals("weight not kept", 2.0, view.instance(0).weight());
+    assertEquals("weight not kept", 3.0, view.instance(1).weight());
+    assertEquals("weight changed", 1.0, view.instance(2).weight());
+
+    // change weight of an earlier obtained instance
+    inst  = view.instance(6);
+    view.instance(7);
+    inst.setWeight(7.0);
+    view.instance(8);
+    assertEquals("weight of earlier instance not kept", 7.0, view.instance(6).weight());
+    inst.setWeight(1.0);
+
+    for (Instance current: view)
+      current.setWeight(0.5);
+    assertEquals("sum of weights differs", 0.5 * sheet.getRowCount(), view.sumOfWeights(), 1e-6);
+    assertFalse("should not be materialized", view.isMaterialized());
+
+    inst = view.instance(3);
+    assertSame("instance not re-used", inst, view.instance(3));
+    inst.setWeight(6.0);
+    assertSame("modified instance not kept", inst, view.instance(3));
+    view.instance(2);
+    assertSame("modified instance not kept", inst, view.instance(3));
+    inst.setWeight(0.5);
+
+    view.instance(4).setWeight(4.0);
+    data = new Instances(view);
+    assertEquals("weight not copied", 4.0, data.instance(4).weight());
+    view.instance(5).setWeight(5.0);
+    view.materialize();
+    assertEquals("weight not kept", 5.0, view.instance(5).weight());
+    for (i = 0; i < view.numInstances(); i++) {
+      if (i == 4)
+	assertEquals("weight differs", 4.0, view.instance(i).weight());
+      else if (i == 5)
+	assertEquals("weight differs", 5.0, view.instance(i).weight());
+      else
+	assertEquals("weight differs", 0.5, view.instance(i).weight());
+    }
+  }
+
   /**
    * Returns the setups to use in the regression test.
    *
@@ -20,8 +20,11 @@
 
 package adams.flow.transformer;
 
+import java.util.List;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import adams.core.io.FileUtils;
 import adams.env.Environment;
 import adams.flow.AbstractFlowTest;
 import adams.flow.control.Flow;
@@ -112,6 +115,40 @@ public class WekaClassifyingTest
 	new TmpFile("dumpfile.arff"));
   }
 
+  /**
+   * Tests whether classifying batches of instances (generated by
+   * WekaInstanceBuffer) generates the same output as classifying them one by
+   * one, also with an actor in between that does not accept batches.
+   */
+  public void testBatch() {
+    Flow		flow;
+    WekaFileReader	fr;
+    WekaInstanceBuffer	buffer;
+    List<String>	expected;
+    List<String>	actual;
+
+    flow = (Flow) getActor();
+    performActorExecution(flow);
+    expected = FileUtils.loadFromFile(new TmpFile("dumpfile.arff"));
+    assertNotNull("no incremental output", expected);
+
+    for (boolean passThrough: new boolean[]{false, true}) {
+      m_TestHelper.deleteFileFromTmp("dumpfile.arff");
+      flow = (Flow) getActor();
+      fr   = (WekaFileReader) flow.get(1);
+      fr.setOutputType(OutputType.DATASET);
+      buffer = new WekaInstanceBuffer();
+      buffer.setOperation(WekaInstanceBuffer.Operation.INSTANCES_TO_INSTANCE);
+      buffer.setBatchSize(7);
+      flow.add(3, buffer);
+      if (passThrough)
+	flow.add(4, new PassThrough());
+      performActorExecution(flow);
+      actual = FileUtils.loadFromFile(new TmpFile("dumpfile.arff"));
+      assertEquals("output differs (pass through: " + passThrough + ")", expected, actual);
+    }
+  }
+
   /**
    * Returns a test suite.
    *